@@ -0,0 +1,146 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.di.benchmarks;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Random;
+
+import org.pentaho.di.core.row.RowMeta;
+import org.pentaho.di.core.row.RowMetaInterface;
+import org.pentaho.di.core.row.value.ValueMetaDate;
+import org.pentaho.di.core.row.value.ValueMetaInteger;
+import org.pentaho.di.core.row.value.ValueMetaNumber;
+import org.pentaho.di.core.row.value.ValueMetaString;
+
+/**
+ * Generates the data sets of the benchmarks. The same seed is used for every run so the results of different runs,
+ * on different commits, can be compared.
+ *
+ * @since 11.1
+ */
+public class BenchmarkData {
+  public static final long SEED = 42L;
+
+  public static final String ID = "id";
+  public static final String CUSTOMER = "customer";
+  public static final String CATEGORY = "category";
+  public static final String AMOUNT = "amount";
+  public static final String ORDER_DATE = "order_date";
+
+  public static final String DATE_FORMAT = "yyyy/MM/dd HH:mm:ss";
+
+  private static final String[] CATEGORIES = { "books", "music", "games", "garden", "tools", "toys", "food" };
+  private static final long START_DATE = 1577836800000L; // 2020/01/01
+  private static final long DATE_RANGE = 5L * 365 * 24 * 60 * 60 * 1000;
+
+  private BenchmarkData() {
+  }
+
+  /**
+   * @return the layout of the order rows: id, customer, category, amount and order date
+   */
+  public static RowMetaInterface getOrderRowMeta() {
+    RowMetaInterface rowMeta = new RowMeta();
+    rowMeta.addValueMeta( new ValueMetaInteger( ID ) );
+    rowMeta.addValueMeta( new ValueMetaString( CUSTOMER ) );
+    rowMeta.addValueMeta( new ValueMetaString( CATEGORY ) );
+    rowMeta.addValueMeta( new ValueMetaNumber( AMOUNT ) );
+    ValueMetaDate orderDate = new ValueMetaDate( ORDER_DATE );
+    orderDate.setConversionMask( DATE_FORMAT );
+    rowMeta.addValueMeta( orderDate );
+    return rowMeta;
+  }
+
+  /**
+   * @param nrRows
+   *          the number of rows
+   * @param nrCustomers
+   *          the number of different customers
+   * @return order rows in random order
+   */
+  public static List<Object[]> getOrderRows( int nrRows, int nrCustomers ) {
+    Random random = new Random( SEED );
+    List<Object[]> rows = new ArrayList<>( nrRows );
+    for ( int i = 0; i < nrRows; i++ ) {
+      rows.add( new Object[] {
+        (long) i,
+        getCustomer( random.nextInt( nrCustomers ) ),
+        CATEGORIES[random.nextInt( CATEGORIES.length )],
+        Math.round( random.nextDouble() * 100000 ) / 100.0,
+        new Date( START_DATE + (long) ( random.nextDouble() * DATE_RANGE ) ), } );
+    }
+    return rows;
+  }
+
+  /**
+   * @return the layout of the customer rows: customer and customer name
+   */
+  public static RowMetaInterface getCustomerRowMeta() {
+    RowMetaInterface rowMeta = new RowMeta();
+    rowMeta.addValueMeta( new ValueMetaString( "customer_key" ) );
+    rowMeta.addValueMeta( new ValueMetaString( "customer_name" ) );
+    return rowMeta;
+  }
+
+  /**
+   * @param nrCustomers
+   *          the number of customers
+   * @return one row for every customer of the order rows
+   */
+  public static List<Object[]> getCustomerRows( int nrCustomers ) {
+    List<Object[]> rows = new ArrayList<>( nrCustomers );
+    for ( int i = 0; i < nrCustomers; i++ ) {
+      rows.add( new Object[] { getCustomer( i ), "Customer name " + i } );
+    }
+    return rows;
+  }
+
+  /**
+   * Write order rows to a CSV file with a header row, separated by semicolons.
+   *
+   * @param nrRows
+   *          the number of rows
+   * @param nrCustomers
+   *          the number of different customers
+   * @return the file, deleted when the JVM exits
+   * @throws IOException
+   *           in case the file can't be written
+   */
+  public static File writeOrderCsvFile( int nrRows, int nrCustomers ) throws IOException {
+    File file = File.createTempFile( "pdi-benchmark-orders", ".csv" );
+    file.deleteOnExit();
+    SimpleDateFormat dateFormat = new SimpleDateFormat( DATE_FORMAT );
+    try ( BufferedWriter writer = Files.newBufferedWriter( file.toPath(), StandardCharsets.UTF_8 ) ) {
+      writer.write( ID + ";" + CUSTOMER + ";" + CATEGORY + ";" + AMOUNT + ";" + ORDER_DATE );
+      writer.newLine();
+      for ( Object[] row : getOrderRows( nrRows, nrCustomers ) ) {
+        writer.write( row[0] + ";\"" + row[1] + "\";" + row[2] + ";" + row[3] + ";" + dateFormat.format( row[4] ) );
+        writer.newLine();
+      }
+    }
+    return file;
+  }
+
+  private static String getCustomer( int customer ) {
+    return "C" + String.format( "%08d", customer );
+  }
+}
@@ -0,0 +1,176 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.di.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.pentaho.di.core.KettleEnvironment;
+import org.pentaho.di.core.exception.KettleException;
+import org.pentaho.di.core.exception.KettleStepException;
+import org.pentaho.di.core.logging.LogLevel;
+import org.pentaho.di.core.plugins.PluginRegistry;
+import org.pentaho.di.core.plugins.StepPluginType;
+import org.pentaho.di.core.row.RowMetaInterface;
+import org.pentaho.di.core.row.ValueMetaInterface;
+import org.pentaho.di.trans.RowProducer;
+import org.pentaho.di.trans.Trans;
+import org.pentaho.di.trans.TransHopMeta;
+import org.pentaho.di.trans.TransMeta;
+import org.pentaho.di.trans.step.RowAdapter;
+import org.pentaho.di.trans.step.StepMeta;
+import org.pentaho.di.trans.step.StepMetaInterface;
+import org.pentaho.di.trans.steps.dummytrans.DummyTransMeta;
+import org.pentaho.di.trans.steps.injector.InjectorMeta;
+
+/**
+ * A transformation built in code to benchmark steps. Rows are injected in Injector steps and counted in a Dummy
+ * output step.
+ *
+ * @since 11.1
+ */
+public class BenchmarkTransformation {
+  public static final String OUTPUT = "output";
+
+  private static class Input {
+    private final String stepname;
+    private final RowMetaInterface rowMeta;
+    private final List<Object[]> rows;
+
+    private Input( String stepname, RowMetaInterface rowMeta, List<Object[]> rows ) {
+      this.stepname = stepname;
+      this.rowMeta = rowMeta;
+      this.rows = rows;
+    }
+  }
+
+  private final TransMeta transMeta = new TransMeta();
+  private final List<Input> inputs = new ArrayList<>();
+  private StepMeta output;
+
+  /**
+   * Initialize the Kettle environment, needed to find the step plugins.
+   *
+   * @throws KettleException
+   *           in case the environment can't be initialized
+   */
+  public static void initKettle() throws KettleException {
+    KettleEnvironment.init( false );
+  }
+
+  /**
+   * Add an Injector step. The rows of the inputs are injected in the order the inputs are added, add the inputs of
+   * info streams (like the lookup rows of a Stream Lookup) first.
+   *
+   * @param stepname
+   *          the name of the step
+   * @param rowMeta
+   *          the layout of the rows
+   * @param rows
+   *          the rows to inject every run
+   * @return the step
+   */
+  public StepMeta addInput( String stepname, RowMetaInterface rowMeta, List<Object[]> rows ) {
+    InjectorMeta injectorMeta = new InjectorMeta();
+    injectorMeta.allocate( rowMeta.size() );
+    for ( int i = 0; i < rowMeta.size(); i++ ) {
+      ValueMetaInterface valueMeta = rowMeta.getValueMeta( i );
+      injectorMeta.getFieldname()[i] = valueMeta.getName();
+      injectorMeta.getType()[i] = valueMeta.getType();
+      injectorMeta.getLength()[i] = valueMeta.getLength();
+      injectorMeta.getPrecision()[i] = valueMeta.getPrecision();
+    }
+    inputs.add( new Input( stepname, rowMeta, rows ) );
+    return addStep( stepname, injectorMeta );
+  }
+
+  /**
+   * @param stepname
+   *          the name of the step
+   * @param stepMetaInterface
+   *          the metadata of the step
+   * @return the step
+   */
+  public StepMeta addStep( String stepname, StepMetaInterface stepMetaInterface ) {
+    String pluginId = PluginRegistry.getInstance().getPluginId( StepPluginType.class, stepMetaInterface );
+    StepMeta stepMeta = new StepMeta( pluginId, stepname, stepMetaInterface );
+    transMeta.addStep( stepMeta );
+    return stepMeta;
+  }
+
+  /**
+   * Add the Dummy step that counts the rows, from the given step.
+   *
+   * @param from
+   *          the last step of the benchmarked steps
+   * @return the output step
+   */
+  public StepMeta addOutput( StepMeta from ) {
+    output = addStep( OUTPUT, new DummyTransMeta() );
+    addHop( from, output );
+    return output;
+  }
+
+  public void addHop( StepMeta from, StepMeta to ) {
+    transMeta.addTransHop( new TransHopMeta( from, to ) );
+  }
+
+  public TransMeta getTransMeta() {
+    return transMeta;
+  }
+
+  /**
+   * Run the transformation once.
+   *
+   * @return the number of rows that reached the output step
+   * @throws KettleException
+   *           in case the transformation failed
+   */
+  public long run() throws KettleException {
+    Trans trans = new Trans( transMeta );
+    trans.setLogLevel( LogLevel.MINIMAL );
+    trans.prepareExecution( null );
+
+    AtomicLong nrRows = new AtomicLong();
+    trans.getStepInterface( OUTPUT, 0 ).addRowListener( new RowAdapter() {
+      @Override
+      public void rowWrittenEvent( RowMetaInterface rowMeta, Object[] row ) throws KettleStepException {
+        nrRows.incrementAndGet();
+      }
+    } );
+
+    List<RowProducer> producers = new ArrayList<>( inputs.size() );
+    for ( Input input : inputs ) {
+      producers.add( trans.addRowProducer( input.stepname, 0 ) );
+    }
+
+    trans.startThreads();
+    for ( int i = 0; i < inputs.size(); i++ ) {
+      Input input = inputs.get( i );
+      RowProducer producer = producers.get( i );
+      for ( Object[] row : input.rows ) {
+        // The steps change some rows in place, give every run its own copy
+        producer.putRow( input.rowMeta, row.clone() );
+      }
+      producer.finished();
+    }
+    trans.waitUntilFinished();
+
+    if ( trans.getResult().getNrErrors() > 0 ) {
+      throw new KettleException( "The benchmark transformation finished with errors" );
+    }
+    return nrRows.get();
+  }
+}
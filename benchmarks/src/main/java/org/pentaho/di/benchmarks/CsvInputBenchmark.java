@@ -0,0 +1,106 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.di.benchmarks;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.pentaho.di.core.exception.KettleException;
+import org.pentaho.di.core.row.RowMetaInterface;
+import org.pentaho.di.core.row.ValueMetaInterface;
+import org.pentaho.di.trans.step.StepMeta;
+import org.pentaho.di.trans.steps.csvinput.CsvInputMeta;
+import org.pentaho.di.trans.steps.textfileinput.TextFileInputField;
+
+/**
+ * Reads a CSV file of orders with the CSV file input step.
+ *
+ * @since 11.1
+ */
+@State( Scope.Benchmark )
+@BenchmarkMode( Mode.AverageTime )
+@OutputTimeUnit( TimeUnit.MILLISECONDS )
+@Warmup( iterations = 3, time = 5 )
+@Measurement( iterations = 5, time = 5 )
+@Fork( 1 )
+public class CsvInputBenchmark {
+  @Param( { "500000" } )
+  public int nrRows;
+
+  @Param( { "false", "true" } )
+  public boolean lazyConversion;
+
+  @Param( { "false", "true" } )
+  public boolean bulkParsing;
+
+  @Param( { "1", "4" } )
+  public int nrCopies;
+
+  private File file;
+  private BenchmarkTransformation transformation;
+
+  @Setup
+  public void setUp() throws KettleException, IOException {
+    BenchmarkTransformation.initKettle();
+    file = BenchmarkData.writeOrderCsvFile( nrRows, 10000 );
+
+    RowMetaInterface rowMeta = BenchmarkData.getOrderRowMeta();
+    TextFileInputField[] fields = new TextFileInputField[rowMeta.size()];
+    for ( int i = 0; i < fields.length; i++ ) {
+      ValueMetaInterface valueMeta = rowMeta.getValueMeta( i );
+      fields[i] = new TextFileInputField( valueMeta.getName(), -1, -1 );
+      fields[i].setType( valueMeta.getType() );
+      fields[i].setFormat( valueMeta.getConversionMask() );
+      fields[i].setTrimType( ValueMetaInterface.TRIM_TYPE_NONE );
+    }
+
+    CsvInputMeta csvInputMeta = new CsvInputMeta();
+    csvInputMeta.setDefault();
+    csvInputMeta.setFilename( file.getAbsolutePath() );
+    csvInputMeta.setDelimiter( ";" );
+    csvInputMeta.setEncoding( "UTF-8" );
+    csvInputMeta.setInputFields( fields );
+    csvInputMeta.setLazyConversionActive( lazyConversion );
+    csvInputMeta.setBulkParsing( bulkParsing );
+    csvInputMeta.setRunningInParallel( nrCopies > 1 );
+
+    transformation = new BenchmarkTransformation();
+    StepMeta csvInput = transformation.addStep( "csv input", csvInputMeta );
+    csvInput.setCopies( nrCopies );
+    transformation.addOutput( csvInput );
+  }
+
+  @TearDown
+  public void tearDown() {
+    file.delete();
+  }
+
+  @Benchmark
+  public long readFile() throws KettleException {
+    return transformation.run();
+  }
+}
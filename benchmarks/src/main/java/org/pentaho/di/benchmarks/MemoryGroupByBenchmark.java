@@ -0,0 +1,83 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.di.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.pentaho.di.core.exception.KettleException;
+import org.pentaho.di.trans.step.StepMeta;
+import org.pentaho.di.trans.steps.memgroupby.MemoryGroupByMeta;
+
+/**
+ * Sums and counts the order amounts per customer and category with the Memory group by step.
+ *
+ * @since 11.1
+ */
+@State( Scope.Benchmark )
+@BenchmarkMode( Mode.AverageTime )
+@OutputTimeUnit( TimeUnit.MILLISECONDS )
+@Warmup( iterations = 3, time = 5 )
+@Measurement( iterations = 5, time = 5 )
+@Fork( 1 )
+public class MemoryGroupByBenchmark {
+  @Param( { "200000" } )
+  public int nrRows;
+
+  @Param( { "100", "50000" } )
+  public int nrCustomers;
+
+  @Param( { "false", "true" } )
+  public boolean compactAggregation;
+
+  private BenchmarkTransformation transformation;
+
+  @Setup
+  public void setUp() throws KettleException {
+    BenchmarkTransformation.initKettle();
+
+    MemoryGroupByMeta groupByMeta = new MemoryGroupByMeta();
+    groupByMeta.setDefault();
+    groupByMeta.allocate( 2, 3 );
+    groupByMeta.setGroupField( new String[] { BenchmarkData.CUSTOMER, BenchmarkData.CATEGORY } );
+    groupByMeta.setAggregateField( new String[] { "total", "orders", "last_order" } );
+    groupByMeta.setSubjectField( new String[] { BenchmarkData.AMOUNT, BenchmarkData.ID, BenchmarkData.ORDER_DATE } );
+    groupByMeta.setAggregateType( new int[] {
+      MemoryGroupByMeta.TYPE_GROUP_SUM, MemoryGroupByMeta.TYPE_GROUP_COUNT_ALL, MemoryGroupByMeta.TYPE_GROUP_MAX } );
+    groupByMeta.setValueField( new String[3] );
+    groupByMeta.setCompactAggregation( compactAggregation );
+
+    transformation = new BenchmarkTransformation();
+    StepMeta input = transformation.addInput(
+      "input", BenchmarkData.getOrderRowMeta(), BenchmarkData.getOrderRows( nrRows, nrCustomers ) );
+    StepMeta groupBy = transformation.addStep( "group by", groupByMeta );
+    transformation.addHop( input, groupBy );
+    transformation.addOutput( groupBy );
+  }
+
+  @Benchmark
+  public long groupRows() throws KettleException {
+    return transformation.run();
+  }
+}
@@ -0,0 +1,93 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.di.benchmarks;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.pentaho.di.core.exception.KettleValueException;
+import org.pentaho.di.core.row.RowMetaInterface;
+
+/**
+ * Compares, hashes and clones rows with {@link org.pentaho.di.core.row.RowMeta}, as done by the sorting, grouping
+ * and lookup steps.
+ *
+ * @since 11.1
+ */
+@State( Scope.Thread )
+@BenchmarkMode( Mode.AverageTime )
+@OutputTimeUnit( TimeUnit.NANOSECONDS )
+@Warmup( iterations = 3, time = 2 )
+@Measurement( iterations = 5, time = 2 )
+@Fork( 1 )
+public class RowMetaBenchmark {
+  private static final int NR_ROWS = 1024;
+
+  private RowMetaInterface rowMeta;
+  private Object[][] rows;
+  private int[] keys;
+
+  @Setup
+  public void setUp() {
+    rowMeta = BenchmarkData.getOrderRowMeta();
+    List<Object[]> orderRows = BenchmarkData.getOrderRows( NR_ROWS, 100 );
+    rows = orderRows.toArray( new Object[NR_ROWS][] );
+    keys = new int[] {
+      rowMeta.indexOfValue( BenchmarkData.CUSTOMER ), rowMeta.indexOfValue( BenchmarkData.ORDER_DATE ) };
+  }
+
+  @Benchmark
+  @OperationsPerInvocation( NR_ROWS )
+  public void compareAllFields( Blackhole blackhole ) throws KettleValueException {
+    for ( int i = 1; i < NR_ROWS; i++ ) {
+      blackhole.consume( rowMeta.compare( rows[i - 1], rows[i] ) );
+    }
+  }
+
+  @Benchmark
+  @OperationsPerInvocation( NR_ROWS )
+  public void compareKeys( Blackhole blackhole ) throws KettleValueException {
+    for ( int i = 1; i < NR_ROWS; i++ ) {
+      blackhole.consume( rowMeta.compare( rows[i - 1], rows[i], keys ) );
+    }
+  }
+
+  @Benchmark
+  @OperationsPerInvocation( NR_ROWS )
+  public void hashCode( Blackhole blackhole ) throws KettleValueException {
+    for ( Object[] row : rows ) {
+      blackhole.consume( rowMeta.hashCode( row ) );
+    }
+  }
+
+  @Benchmark
+  @OperationsPerInvocation( NR_ROWS )
+  public void cloneRow( Blackhole blackhole ) throws KettleValueException {
+    for ( Object[] row : rows ) {
+      blackhole.consume( rowMeta.cloneRow( row ) );
+    }
+  }
+}
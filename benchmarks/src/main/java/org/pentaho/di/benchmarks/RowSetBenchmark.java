@@ -0,0 +1,114 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.di.benchmarks;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.pentaho.di.core.BlockingBatchingRowSet;
+import org.pentaho.di.core.BlockingRowSet;
+import org.pentaho.di.core.RingBufferRowSet;
+import org.pentaho.di.core.RowSet;
+import org.pentaho.di.core.row.RowMetaInterface;
+
+/**
+ * Passes rows from a producing thread to a consuming thread through the row sets that connect steps.
+ *
+ * @since 11.1
+ */
+@State( Scope.Thread )
+@BenchmarkMode( Mode.Throughput )
+@OutputTimeUnit( TimeUnit.SECONDS )
+@Warmup( iterations = 3, time = 2 )
+@Measurement( iterations = 5, time = 2 )
+@Fork( 1 )
+public class RowSetBenchmark {
+  private static final int NR_ROWS = 100000;
+
+  @Param( { "blocking", "batching", "ringBuffer" } )
+  public String rowSetType;
+
+  @Param( { "10000" } )
+  public int rowSetSize;
+
+  private RowMetaInterface rowMeta;
+  private Object[][] rows;
+  private ExecutorService producer;
+
+  @Setup
+  public void setUp() {
+    rowMeta = BenchmarkData.getOrderRowMeta();
+    List<Object[]> orderRows = BenchmarkData.getOrderRows( NR_ROWS, 1000 );
+    rows = orderRows.toArray( new Object[NR_ROWS][] );
+    producer = Executors.newSingleThreadExecutor();
+  }
+
+  @TearDown
+  public void tearDown() {
+    producer.shutdownNow();
+  }
+
+  private RowSet createRowSet() {
+    switch ( rowSetType ) {
+      case "batching":
+        return new BlockingBatchingRowSet( rowSetSize );
+      case "ringBuffer":
+        return new RingBufferRowSet( rowSetSize );
+      default:
+        return new BlockingRowSet( rowSetSize );
+    }
+  }
+
+  @Benchmark
+  @OperationsPerInvocation( NR_ROWS )
+  public long passRows() throws Exception {
+    RowSet rowSet = createRowSet();
+    Future<?> produced = producer.submit( () -> {
+      for ( Object[] row : rows ) {
+        while ( !rowSet.putRowWait( rowMeta, row, 100, TimeUnit.MILLISECONDS ) ) {
+          // The consumer is behind, try again
+        }
+      }
+      rowSet.setDone();
+    } );
+
+    long nrRows = 0;
+    while ( true ) {
+      Object[] row = rowSet.getRowWait( 10, TimeUnit.MILLISECONDS );
+      if ( row != null ) {
+        nrRows++;
+      } else if ( rowSet.isDone() && rowSet.size() == 0 ) {
+        break;
+      }
+    }
+    produced.get();
+    return nrRows;
+  }
+}
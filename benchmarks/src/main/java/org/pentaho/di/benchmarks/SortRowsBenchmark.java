@@ -0,0 +1,82 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.di.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.pentaho.di.core.exception.KettleException;
+import org.pentaho.di.trans.step.StepMeta;
+import org.pentaho.di.trans.steps.sort.SortRowsMeta;
+
+/**
+ * Sorts rows on customer and order date with the Sort rows step, in memory or with temporary files.
+ *
+ * @since 11.1
+ */
+@State( Scope.Benchmark )
+@BenchmarkMode( Mode.AverageTime )
+@OutputTimeUnit( TimeUnit.MILLISECONDS )
+@Warmup( iterations = 3, time = 5 )
+@Measurement( iterations = 5, time = 5 )
+@Fork( 1 )
+public class SortRowsBenchmark {
+  @Param( { "200000" } )
+  public int nrRows;
+
+  /** The number of rows sorted in memory, less than the number of rows to use temporary files */
+  @Param( { "1000000", "50000" } )
+  public String sortSize;
+
+  @Param( { "false", "true" } )
+  public boolean highPerformanceSort;
+
+  private BenchmarkTransformation transformation;
+
+  @Setup
+  public void setUp() throws KettleException {
+    BenchmarkTransformation.initKettle();
+
+    SortRowsMeta sortRowsMeta = new SortRowsMeta();
+    sortRowsMeta.setDefault();
+    sortRowsMeta.allocate( 2 );
+    sortRowsMeta.setFieldName( new String[] { BenchmarkData.CUSTOMER, BenchmarkData.ORDER_DATE } );
+    sortRowsMeta.setAscending( new boolean[] { true, false } );
+    sortRowsMeta.setCaseSensitive( new boolean[] { true, true } );
+    sortRowsMeta.setSortSize( sortSize );
+    sortRowsMeta.setHighPerformanceSort( highPerformanceSort );
+
+    transformation = new BenchmarkTransformation();
+    StepMeta input =
+      transformation.addInput( "input", BenchmarkData.getOrderRowMeta(), BenchmarkData.getOrderRows( nrRows, 10000 ) );
+    StepMeta sort = transformation.addStep( "sort", sortRowsMeta );
+    transformation.addHop( input, sort );
+    transformation.addOutput( sort );
+  }
+
+  @Benchmark
+  public long sortRows() throws KettleException {
+    return transformation.run();
+  }
+}
@@ -0,0 +1,72 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.di.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.pentaho.di.core.exception.KettleException;
+import org.pentaho.di.trans.step.StepMeta;
+import org.pentaho.di.trans.steps.dummytrans.DummyTransMeta;
+
+/**
+ * Passes rows through a chain of Dummy steps, measuring the cost of {@link org.pentaho.di.trans.step.BaseStep#putRow}
+ * and {@link org.pentaho.di.trans.step.BaseStep#getRow} between step threads.
+ *
+ * @since 11.1
+ */
+@State( Scope.Benchmark )
+@BenchmarkMode( Mode.AverageTime )
+@OutputTimeUnit( TimeUnit.MILLISECONDS )
+@Warmup( iterations = 3, time = 5 )
+@Measurement( iterations = 5, time = 5 )
+@Fork( 1 )
+public class StepRowsBenchmark {
+  @Param( { "200000" } )
+  public int nrRows;
+
+  @Param( { "1", "4" } )
+  public int nrSteps;
+
+  private BenchmarkTransformation transformation;
+
+  @Setup
+  public void setUp() throws KettleException {
+    BenchmarkTransformation.initKettle();
+    transformation = new BenchmarkTransformation();
+    StepMeta previous =
+      transformation.addInput( "input", BenchmarkData.getOrderRowMeta(), BenchmarkData.getOrderRows( nrRows, 1000 ) );
+    for ( int i = 0; i < nrSteps; i++ ) {
+      StepMeta dummy = transformation.addStep( "dummy " + i, new DummyTransMeta() );
+      transformation.addHop( previous, dummy );
+      previous = dummy;
+    }
+    transformation.addOutput( previous );
+  }
+
+  @Benchmark
+  public long passRows() throws KettleException {
+    return transformation.run();
+  }
+}
@@ -0,0 +1,91 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.di.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.pentaho.di.core.exception.KettleException;
+import org.pentaho.di.core.row.ValueMetaInterface;
+import org.pentaho.di.trans.step.StepMeta;
+import org.pentaho.di.trans.steps.streamlookup.StreamLookupMeta;
+
+/**
+ * Looks up the customer name of every order with the Stream lookup step.
+ *
+ * @since 11.1
+ */
+@State( Scope.Benchmark )
+@BenchmarkMode( Mode.AverageTime )
+@OutputTimeUnit( TimeUnit.MILLISECONDS )
+@Warmup( iterations = 3, time = 5 )
+@Measurement( iterations = 5, time = 5 )
+@Fork( 1 )
+public class StreamLookupBenchmark {
+  @Param( { "200000" } )
+  public int nrRows;
+
+  @Param( { "100000" } )
+  public int nrCustomers;
+
+  @Param( { "default", "memoryPreservation", "sortedList", "compactIndex" } )
+  public String index;
+
+  private BenchmarkTransformation transformation;
+
+  @Setup
+  public void setUp() throws KettleException {
+    BenchmarkTransformation.initKettle();
+
+    StreamLookupMeta lookupMeta = new StreamLookupMeta();
+    lookupMeta.setDefault();
+    lookupMeta.allocate( 1, 1 );
+    lookupMeta.setKeystream( new String[] { BenchmarkData.CUSTOMER } );
+    lookupMeta.setKeylookup( new String[] { "customer_key" } );
+    lookupMeta.setValue( new String[] { "customer_name" } );
+    lookupMeta.setValueName( new String[] { "customer_name" } );
+    lookupMeta.setValueDefault( new String[] { null } );
+    lookupMeta.setValueDefaultType( new int[] { ValueMetaInterface.TYPE_STRING } );
+    lookupMeta.setMemoryPreservationActive( !"default".equals( index ) );
+    lookupMeta.setUsingSortedList( "sortedList".equals( index ) );
+    lookupMeta.setUsingCompactIndex( "compactIndex".equals( index ) );
+
+    transformation = new BenchmarkTransformation();
+    // The lookup rows are injected first, the step reads them all before the first order
+    StepMeta customers = transformation.addInput(
+      "customers", BenchmarkData.getCustomerRowMeta(), BenchmarkData.getCustomerRows( nrCustomers ) );
+    StepMeta orders = transformation.addInput(
+      "orders", BenchmarkData.getOrderRowMeta(), BenchmarkData.getOrderRows( nrRows, nrCustomers ) );
+    StepMeta lookup = transformation.addStep( "lookup", lookupMeta );
+    lookupMeta.getStepIOMeta().getInfoStreams().get( 0 ).setStepMeta( customers );
+    transformation.addHop( customers, lookup );
+    transformation.addHop( orders, lookup );
+    transformation.addOutput( lookup );
+  }
+
+  @Benchmark
+  public long lookupRows() throws KettleException {
+    return transformation.run();
+  }
+}
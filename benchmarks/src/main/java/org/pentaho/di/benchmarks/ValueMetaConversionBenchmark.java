@@ -0,0 +1,177 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.di.benchmarks;
+
+import java.nio.charset.StandardCharsets;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.pentaho.di.core.exception.KettleValueException;
+import org.pentaho.di.core.row.ValueMetaInterface;
+import org.pentaho.di.core.row.value.ValueMetaDate;
+import org.pentaho.di.core.row.value.ValueMetaInteger;
+import org.pentaho.di.core.row.value.ValueMetaNumber;
+import org.pentaho.di.core.row.value.ValueMetaString;
+
+/**
+ * Converts values between strings and numbers or dates with {@link org.pentaho.di.core.row.value.ValueMetaBase}, and
+ * converts binary strings read with lazy conversion to their native type.
+ *
+ * @since 11.1
+ */
+@State( Scope.Thread )
+@BenchmarkMode( Mode.AverageTime )
+@OutputTimeUnit( TimeUnit.NANOSECONDS )
+@Warmup( iterations = 3, time = 2 )
+@Measurement( iterations = 5, time = 2 )
+@Fork( 1 )
+public class ValueMetaConversionBenchmark {
+  private static final int NR_VALUES = 1024;
+
+  private ValueMetaInterface numberMeta;
+  private ValueMetaInterface dateMeta;
+  private ValueMetaInterface dateStringMeta;
+  private ValueMetaInterface lazyIntegerMeta;
+  private ValueMetaInterface lazyNumberMeta;
+  private ValueMetaInterface lazyDateMeta;
+
+  private Double[] numbers;
+  private Date[] dates;
+  private String[] numberStrings;
+  private String[] dateStrings;
+  private byte[][] integerBytes;
+  private byte[][] numberBytes;
+  private byte[][] dateBytes;
+
+  @Setup
+  public void setUp() throws KettleValueException {
+    numberMeta = new ValueMetaNumber( BenchmarkData.AMOUNT );
+    dateMeta = new ValueMetaDate( BenchmarkData.ORDER_DATE );
+    dateMeta.setConversionMask( BenchmarkData.DATE_FORMAT );
+    dateStringMeta = new ValueMetaString( BenchmarkData.ORDER_DATE );
+    dateStringMeta.setConversionMask( BenchmarkData.DATE_FORMAT );
+
+    lazyIntegerMeta = lazy( new ValueMetaInteger( BenchmarkData.ID ) );
+    lazyNumberMeta = lazy( new ValueMetaNumber( BenchmarkData.AMOUNT ) );
+    lazyDateMeta = lazy( new ValueMetaDate( BenchmarkData.ORDER_DATE ) );
+    lazyDateMeta.setConversionMask( BenchmarkData.DATE_FORMAT );
+    lazyDateMeta.getStorageMetadata().setConversionMask( BenchmarkData.DATE_FORMAT );
+
+    List<Object[]> rows = BenchmarkData.getOrderRows( NR_VALUES, 100 );
+    numbers = new Double[NR_VALUES];
+    dates = new Date[NR_VALUES];
+    numberStrings = new String[NR_VALUES];
+    dateStrings = new String[NR_VALUES];
+    integerBytes = new byte[NR_VALUES][];
+    numberBytes = new byte[NR_VALUES][];
+    dateBytes = new byte[NR_VALUES][];
+    SimpleDateFormat dateFormat = new SimpleDateFormat( BenchmarkData.DATE_FORMAT );
+    for ( int i = 0; i < NR_VALUES; i++ ) {
+      Object[] row = rows.get( i );
+      numbers[i] = (Double) row[3];
+      dates[i] = (Date) row[4];
+      numberStrings[i] = numberMeta.getString( numbers[i] );
+      dateStrings[i] = dateFormat.format( dates[i] );
+      integerBytes[i] = String.valueOf( row[0] ).getBytes( StandardCharsets.UTF_8 );
+      numberBytes[i] = numberStrings[i].getBytes( StandardCharsets.UTF_8 );
+      dateBytes[i] = dateStrings[i].getBytes( StandardCharsets.UTF_8 );
+    }
+  }
+
+  private static ValueMetaInterface lazy( ValueMetaInterface valueMeta ) {
+    ValueMetaInterface storageMeta = new ValueMetaString( valueMeta.getName() );
+    valueMeta.setStorageType( ValueMetaInterface.STORAGE_TYPE_BINARY_STRING );
+    valueMeta.setStorageMetadata( storageMeta );
+    return valueMeta;
+  }
+
+  @Benchmark
+  @OperationsPerInvocation( NR_VALUES )
+  public void numberToString( Blackhole blackhole ) throws KettleValueException {
+    for ( Double number : numbers ) {
+      blackhole.consume( numberMeta.getString( number ) );
+    }
+  }
+
+  @Benchmark
+  @OperationsPerInvocation( NR_VALUES )
+  public void stringToNumber( Blackhole blackhole ) throws KettleValueException {
+    ValueMetaInterface stringMeta = new ValueMetaString( BenchmarkData.AMOUNT );
+    for ( String string : numberStrings ) {
+      blackhole.consume( numberMeta.convertData( stringMeta, string ) );
+    }
+  }
+
+  @Benchmark
+  @OperationsPerInvocation( NR_VALUES )
+  public void dateToString( Blackhole blackhole ) throws KettleValueException {
+    for ( Date date : dates ) {
+      blackhole.consume( dateMeta.getString( date ) );
+    }
+  }
+
+  @Benchmark
+  @OperationsPerInvocation( NR_VALUES )
+  public void stringToDate( Blackhole blackhole ) throws KettleValueException {
+    for ( String string : dateStrings ) {
+      blackhole.consume( dateStringMeta.getDate( string ) );
+    }
+  }
+
+  @Benchmark
+  @OperationsPerInvocation( NR_VALUES )
+  public void binaryStringToInteger( Blackhole blackhole ) throws KettleValueException {
+    for ( byte[] bytes : integerBytes ) {
+      blackhole.consume( lazyIntegerMeta.convertBinaryStringToNativeType( bytes ) );
+    }
+  }
+
+  @Benchmark
+  @OperationsPerInvocation( NR_VALUES )
+  public void binaryStringToNumber( Blackhole blackhole ) throws KettleValueException {
+    for ( byte[] bytes : numberBytes ) {
+      blackhole.consume( lazyNumberMeta.convertBinaryStringToNativeType( bytes ) );
+    }
+  }
+
+  @Benchmark
+  @OperationsPerInvocation( NR_VALUES )
+  public void binaryStringToDate( Blackhole blackhole ) throws KettleValueException {
+    for ( byte[] bytes : dateBytes ) {
+      blackhole.consume( lazyDateMeta.convertBinaryStringToNativeType( bytes ) );
+    }
+  }
+
+  @Benchmark
+  @OperationsPerInvocation( NR_VALUES )
+  public void binaryStringToString( Blackhole blackhole ) throws KettleValueException {
+    for ( byte[] bytes : dateBytes ) {
+      blackhole.consume( lazyDateMeta.getString( bytes ) );
+    }
+  }
+}
@@ -13,6 +13,7 @@
 
 package org.pentaho.di.core;
 
+import java.util.List;
 import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.TimeUnit;
@@ -152,6 +153,20 @@ public class BlockingBatchingRowSet extends BaseRowSet implements Comparable<Row
     return row;
   }
 
+  /**
+   * getRowImmediate() waits for the next batch, so only take rows that are immediately available here.
+   */
+  @Override
+  public int drainTo( List<Object[]> rows, int maxRows ) {
+    int nrRows = 0;
+    Object[] row;
+    while ( nrRows < maxRows && ( row = getRowWait( 0, TimeUnit.MILLISECONDS ) ) != null ) {
+      rows.add( row );
+      nrRows++;
+    }
+    return nrRows;
+  }
+
   @Override
   public int size() {
     // does BlockingQueue.size() grab a lock? If so, frequent call to this method
@@ -13,6 +13,7 @@
 
 package org.pentaho.di.core;
 
+import java.util.List;
 import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.TimeUnit;
@@ -116,6 +117,14 @@ public class BlockingRowSet extends BaseRowSet implements Comparable<RowSet>, Ro
     }
   }
 
+  /**
+   * Takes all available rows while holding the queue lock only once.
+   */
+  @Override
+  public int drainTo( List<Object[]> rows, int maxRows ) {
+    return queArray.drainTo( rows, maxRows );
+  }
+
   @Override
   public int size() {
     return queArray.size();
@@ -785,6 +785,13 @@ public class Const {
   public static final String KETTLE_LENIENT_STRING_TO_NUMBER_CONVERSION =
     "KETTLE_LENIENT_STRING_TO_NUMBER_CONVERSION";
 
+  /**
+   * System wide flag to convert strings in the common date (yyyy/MM/dd HH:mm:ss.SSS, ...) and number formats with
+   * shared parsers that don't lock. The result is the same, other strings are converted with the date and decimal
+   * formats of the value metadata as before. (default = N)
+   */
+  public static final String KETTLE_FAST_STRING_CONVERSION = "KETTLE_FAST_STRING_CONVERSION";
+
   /**
    * System wide flag to ignore timezone while writing date/timestamp value to the database. See PDI-10749 for details.
    */
@@ -856,6 +863,24 @@ public class Const {
    */
   public static final String KETTLE_MAX_LOG_TIMEOUT_IN_MINUTES = "KETTLE_MAX_LOG_TIMEOUT_IN_MINUTES";
 
+  /**
+   * System wide flag to hand the log lines to the logging event listeners (log files, slf4j, ...) in a separate thread
+   * instead of in the thread that logs. (default = N)
+   */
+  public static final String KETTLE_LOG_ASYNC_DISPATCH = "KETTLE_LOG_ASYNC_DISPATCH";
+
+  /**
+   * The maximum number of log lines waiting to be handed to the logging event listeners when they are dispatched in a
+   * separate thread. (default = 65536)
+   */
+  public static final String KETTLE_LOG_ASYNC_QUEUE_SIZE = "KETTLE_LOG_ASYNC_QUEUE_SIZE";
+
+  /**
+   * What happens with a log line when the queue of the asynchronous dispatch is full: BLOCK waits for room, DROP drops
+   * the line for the listeners (it's still kept in the log buffer). (default = BLOCK)
+   */
+  public static final String KETTLE_LOG_ASYNC_OVERFLOW_POLICY = "KETTLE_LOG_ASYNC_OVERFLOW_POLICY";
+
   /**
    * Flag to set the maximum size (in MB) of the Result log buffer to prevent OutOfMemoryError (default: -1).
    * Any value less than 0 or non-numeric will not add any log restriction.
@@ -898,6 +923,24 @@ public class Const {
    */
   public static final String KETTLE_MAX_JOB_ENTRIES_LOGGED = "KETTLE_MAX_JOB_ENTRIES_LOGGED";
 
+  /**
+   * The maximum number of job entries a job runs at the same time when launching entries in parallel. The other
+   * entries are queued. (default = 0, no limit)
+   */
+  public static final String KETTLE_JOB_PARALLEL_ENTRIES_PER_JOB = "KETTLE_JOB_PARALLEL_ENTRIES_PER_JOB";
+
+  /**
+   * The maximum number of job entries launched in parallel that run at the same time in this JVM (Carte server), for
+   * all jobs together. The other entries are queued. (default = 0, no limit)
+   */
+  public static final String KETTLE_JOB_PARALLEL_ENTRIES_PER_SERVER = "KETTLE_JOB_PARALLEL_ENTRIES_PER_SERVER";
+
+  /**
+   * The number of result rows kept in memory before they are written to a temporary file, for example by the Copy rows
+   * to result step. (default = 0, keep all result rows in memory)
+   */
+  public static final String KETTLE_RESULT_ROWS_SPILL_THRESHOLD = "KETTLE_RESULT_ROWS_SPILL_THRESHOLD";
+
   /**
    * A variable to configure the maximum number of logging registry entries kept in memory for logging purposes.
    */
@@ -1050,6 +1093,37 @@ public class Const {
    */
   public static final String KETTLE_BATCHING_ROWSET = "KETTLE_BATCHING_ROWSET";
 
+  /**
+   * Set this variable to N to disable the lock-free ring buffer row set on hops between a single step copy and a single
+   * step copy. (default = Y)
+   */
+  public static final String KETTLE_RING_BUFFER_ROWSET = "KETTLE_RING_BUFFER_ROWSET";
+
+  /**
+   * The wait strategy of the ring buffer row set when it is full or empty: SPIN, YIELD or PARK. (default = PARK)
+   */
+  public static final String KETTLE_ROWSET_WAIT_STRATEGY = "KETTLE_ROWSET_WAIT_STRATEGY";
+
+  /**
+   * Set this variable to N to always send rows between remote steps and socket steps in the row by row format instead
+   * of offering the columnar block protocol to the other side. (default = Y)
+   */
+  public static final String KETTLE_ROW_BLOCK_PROTOCOL = "KETTLE_ROW_BLOCK_PROTOCOL";
+
+  /**
+   * Set this variable to the number of sub-transformations the Transformation Executor and the streaming steps keep
+   * prepared ahead of time, so a batch doesn't wait for the steps to be created. The steps are initialized when a batch
+   * takes the sub-transformation. Only used when the parameters of the sub-transformation don't come from fields.
+   * (default = 0, prepare when needed)
+   */
+  public static final String KETTLE_SUBTRANS_POOL_SIZE = "KETTLE_SUBTRANS_POOL_SIZE";
+
+  /**
+   * The kind of threads the steps of a transformation are initialized and run in: PLATFORM or VIRTUAL. Virtual threads
+   * are only used on a Java runtime that supports them. (default = PLATFORM)
+   */
+  public static final String KETTLE_STEP_THREAD_MODE = "KETTLE_STEP_THREAD_MODE";
+
   /**
    * Set this variable to limit max number of files the Text File Output step can have open at one time.
    */
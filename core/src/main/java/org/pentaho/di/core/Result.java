@@ -158,7 +158,7 @@ public class Result implements Cloneable {
     result = false;
 
     exitStatus = 0;
-    rows = new ArrayList<RowMetaAndData>();
+    rows = new ResultRowStore();
     resultFiles = new ConcurrentHashMap<String, ResultFile>();
 
     stopped = false;
@@ -219,9 +219,9 @@ public class Result implements Cloneable {
 
       // Clone result rows and files as well...
       if ( rows != null ) {
-        List<RowMetaAndData> clonedRows = new ArrayList<RowMetaAndData>();
-        for ( int i = 0; i < rows.size(); i++ ) {
-          clonedRows.add( ( rows.get( i ) ).clone() );
+        List<RowMetaAndData> clonedRows = new ResultRowStore();
+        for ( RowMetaAndData row : rows ) {
+          clonedRows.add( row.clone() );
         }
         result.setRows( clonedRows );
       }
@@ -0,0 +1,393 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+
+package org.pentaho.di.core;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.ref.Cleaner;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.TreeMap;
+
+import org.pentaho.di.core.exception.KettleException;
+import org.pentaho.di.core.row.RowMetaInterface;
+
+/**
+ * The rows of a {@link Result}, kept in memory up to a number of rows and written to a temporary file beyond that.
+ * Rows are written in the binary format of the row metadata, the metadata itself stays in memory. Spilled rows are
+ * read back sequentially: iterating over the rows, or getting them by index in ascending order, reads the file once.
+ * Getting rows in any other order seeks to the nearest indexed position first.<br>
+ * <br>
+ * Rows can only be appended once they're spilled, and the rows read back are new objects: changing them doesn't
+ * change the store. The temporary file is deleted on {@link #clear()}, {@link #close()} or once the store isn't used
+ * anymore.
+ *
+ * @since 11.1
+ */
+public class ResultRowStore extends AbstractList<RowMetaAndData> implements Closeable {
+  private static final int INDEX_INTERVAL = 256;
+  private static final int BUFFER_SIZE = 64 * 1024;
+  private static final Cleaner CLEANER = Cleaner.create();
+
+  /**
+   * The temporary file of a store, deleted when the store is closed or garbage collected.
+   */
+  private static class SpillFile implements Runnable {
+    private final File file;
+    private DataOutputStream output;
+
+    private SpillFile( File file ) {
+      this.file = file;
+    }
+
+    @Override
+    public void run() {
+      try {
+        if ( output != null ) {
+          output.close();
+        }
+      } catch ( IOException e ) {
+        // Deleted anyway
+      }
+      file.delete();
+    }
+  }
+
+  /**
+   * Counts the bytes written, to index the position of the rows in the file.
+   */
+  private static class CountingOutputStream extends FilterOutputStream {
+    private long count;
+
+    private CountingOutputStream( OutputStream out ) {
+      super( out );
+    }
+
+    @Override
+    public void write( int b ) throws IOException {
+      out.write( b );
+      count++;
+    }
+
+    @Override
+    public void write( byte[] b, int off, int len ) throws IOException {
+      out.write( b, off, len );
+      count += len;
+    }
+  }
+
+  /**
+   * Reads spilled rows sequentially from a position in the file.
+   */
+  private class Reader {
+    private final DataInputStream input;
+    private int index;
+
+    private Reader( int index ) throws IOException {
+      flush();
+      int indexed = index / INDEX_INTERVAL;
+      FileInputStream stream = new FileInputStream( spillFile.file );
+      stream.getChannel().position( offsets[indexed] );
+      this.input = new DataInputStream( new BufferedInputStream( stream, BUFFER_SIZE ) );
+      this.index = indexed * INDEX_INTERVAL;
+      while ( this.index < index ) {
+        read();
+      }
+    }
+
+    private RowMetaAndData read() throws IOException {
+      if ( index >= flushedSize ) {
+        flush();
+      }
+      try {
+        RowMetaInterface rowMeta = metaOf( index );
+        RowMetaAndData row = new RowMetaAndData( rowMeta, rowMeta.readData( input ) );
+        index++;
+        return row;
+      } catch ( KettleException e ) {
+        throw new IOException( e );
+      }
+    }
+
+    private void close() {
+      try {
+        input.close();
+      } catch ( IOException e ) {
+        // Only read from
+      }
+    }
+  }
+
+  private final int spillThreshold;
+
+  private List<RowMetaAndData> memoryRows = new ArrayList<>();
+
+  private SpillFile spillFile;
+  private Cleaner.Cleanable cleanable;
+  private CountingOutputStream counter;
+  private long[] offsets;
+  private final TreeMap<Integer, RowMetaInterface> metas = new TreeMap<>();
+  private RowMetaInterface lastMeta;
+  private int size;
+  private int flushedSize;
+  private Reader reader;
+
+  /**
+   * Create a store that spills beyond the number of rows configured in KETTLE_RESULT_ROWS_SPILL_THRESHOLD.
+   */
+  public ResultRowStore() {
+    this( Const.toInt( System.getProperty( Const.KETTLE_RESULT_ROWS_SPILL_THRESHOLD ), 0 ) );
+  }
+
+  /**
+   * @param spillThreshold
+   *          the number of rows kept in memory before the rows are written to a temporary file, 0 to keep all rows in
+   *          memory
+   */
+  public ResultRowStore( int spillThreshold ) {
+    this.spillThreshold = spillThreshold;
+  }
+
+  /**
+   * Create a store with the rows of another list, spilling beyond the number of rows configured in
+   * KETTLE_RESULT_ROWS_SPILL_THRESHOLD.
+   *
+   * @param rows
+   *          the rows to copy
+   */
+  public ResultRowStore( Collection<RowMetaAndData> rows ) {
+    this();
+    addAll( rows );
+  }
+
+  /**
+   * @return true if the rows are written to a temporary file
+   */
+  public synchronized boolean isSpilled() {
+    return spillFile != null;
+  }
+
+  @Override
+  public synchronized int size() {
+    return spillFile == null ? memoryRows.size() : size;
+  }
+
+  @Override
+  public synchronized RowMetaAndData get( int index ) {
+    if ( spillFile == null ) {
+      return memoryRows.get( index );
+    }
+    if ( index < 0 || index >= size ) {
+      throw new IndexOutOfBoundsException( "Index: " + index + ", Size: " + size );
+    }
+    try {
+      if ( reader == null || reader.index > index || index - reader.index > INDEX_INTERVAL ) {
+        closeReader();
+        reader = new Reader( index );
+      }
+      while ( reader.index < index ) {
+        reader.read();
+      }
+      return reader.read();
+    } catch ( IOException e ) {
+      throw new RuntimeException( "Unable to read result rows back from file " + spillFile.file, e );
+    }
+  }
+
+  @Override
+  public synchronized boolean add( RowMetaAndData row ) {
+    if ( spillFile == null ) {
+      memoryRows.add( row );
+      if ( spillThreshold > 0 && memoryRows.size() > spillThreshold ) {
+        spill();
+      }
+    } else {
+      write( row );
+    }
+    modCount++;
+    return true;
+  }
+
+  @Override
+  public synchronized void add( int index, RowMetaAndData row ) {
+    if ( index == size() ) {
+      add( row );
+    } else if ( spillFile == null ) {
+      memoryRows.add( index, row );
+      modCount++;
+    } else {
+      throw new UnsupportedOperationException( "Rows can only be appended to spilled result rows" );
+    }
+  }
+
+  @Override
+  public synchronized RowMetaAndData set( int index, RowMetaAndData row ) {
+    if ( spillFile != null ) {
+      throw new UnsupportedOperationException( "Spilled result rows can't be changed" );
+    }
+    return memoryRows.set( index, row );
+  }
+
+  @Override
+  public synchronized RowMetaAndData remove( int index ) {
+    if ( spillFile != null ) {
+      throw new UnsupportedOperationException( "Spilled result rows can't be removed one by one" );
+    }
+    modCount++;
+    return memoryRows.remove( index );
+  }
+
+  @Override
+  public synchronized void clear() {
+    close();
+    modCount++;
+  }
+
+  /**
+   * Iterate over the rows, reading spilled rows from the file once.
+   */
+  @Override
+  public Iterator<RowMetaAndData> iterator() {
+    synchronized ( this ) {
+      if ( spillFile == null ) {
+        return super.iterator();
+      }
+    }
+    return new Iterator<RowMetaAndData>() {
+      private Reader iteratorReader;
+      private int index;
+
+      @Override
+      public boolean hasNext() {
+        boolean hasNext = index < size();
+        if ( !hasNext && iteratorReader != null ) {
+          iteratorReader.close();
+          iteratorReader = null;
+        }
+        return hasNext;
+      }
+
+      @Override
+      public RowMetaAndData next() {
+        if ( !hasNext() ) {
+          throw new NoSuchElementException();
+        }
+        synchronized ( ResultRowStore.this ) {
+          try {
+            if ( iteratorReader == null ) {
+              iteratorReader = new Reader( index );
+            }
+            index++;
+            return iteratorReader.read();
+          } catch ( IOException e ) {
+            throw new RuntimeException( "Unable to read result rows back from file " + spillFile.file, e );
+          }
+        }
+      }
+    };
+  }
+
+  /**
+   * Delete the temporary file, if any. The store is empty afterwards.
+   */
+  @Override
+  public synchronized void close() {
+    memoryRows = new ArrayList<>();
+    closeReader();
+    if ( cleanable != null ) {
+      cleanable.clean();
+    }
+    cleanable = null;
+    spillFile = null;
+    counter = null;
+    offsets = null;
+    metas.clear();
+    lastMeta = null;
+    size = 0;
+    flushedSize = 0;
+  }
+
+  private void spill() {
+    try {
+      File file = File.createTempFile( "kettle-result-rows-", ".bin" );
+      file.deleteOnExit();
+      spillFile = new SpillFile( file );
+      cleanable = CLEANER.register( this, spillFile );
+      counter = new CountingOutputStream( new BufferedOutputStream( new FileOutputStream( file ), BUFFER_SIZE ) );
+      spillFile.output = new DataOutputStream( counter );
+      offsets = new long[16];
+    } catch ( IOException e ) {
+      throw new RuntimeException( "Unable to create a temporary file for result rows", e );
+    }
+    for ( RowMetaAndData row : memoryRows ) {
+      write( row );
+    }
+    memoryRows = new ArrayList<>();
+  }
+
+  private void write( RowMetaAndData row ) {
+    if ( row.getRowMeta() != lastMeta ) {
+      lastMeta = row.getRowMeta();
+      metas.put( size, lastMeta );
+    }
+    if ( size % INDEX_INTERVAL == 0 ) {
+      int indexed = size / INDEX_INTERVAL;
+      if ( indexed == offsets.length ) {
+        offsets = Arrays.copyOf( offsets, offsets.length * 2 );
+      }
+      offsets[indexed] = counter.count;
+    }
+    try {
+      lastMeta.writeData( spillFile.output, row.getData() );
+    } catch ( KettleException e ) {
+      throw new RuntimeException( "Unable to write result rows to file " + spillFile.file, e );
+    }
+    size++;
+  }
+
+  private RowMetaInterface metaOf( int index ) {
+    Map.Entry<Integer, RowMetaInterface> entry = metas.floorEntry( index );
+    return entry.getValue();
+  }
+
+  private void flush() throws IOException {
+    if ( flushedSize < size ) {
+      spillFile.output.flush();
+      flushedSize = size;
+    }
+  }
+
+  private void closeReader() {
+    if ( reader != null ) {
+      reader.close();
+      reader = null;
+    }
+  }
+}
@@ -0,0 +1,394 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.di.core;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+
+import org.pentaho.di.core.row.RowMetaInterface;
+
+/**
+ * A lock-free row buffer for hops with exactly one writing thread and one reading thread (single producer, single
+ * consumer). Rows are kept in a pre-allocated ring, the producer and consumer positions live on separate cache lines
+ * and each side caches the last position it saw of the other side so that the shared counters are only read when the
+ * ring looks full or empty.<br>
+ * <br>
+ * The row set must never be written to by more than one thread at a time, nor read by more than one thread at a time.
+ * Trans only allocates it for 1:1 hops where that is guaranteed by the step threading model.
+ *
+ * @since 11.1
+ */
+public class RingBufferRowSet extends BaseRowSet implements Comparable<RowSet>, RowSet {
+
+  /**
+   * Determines what a thread does while it waits for room (producer) or for a row (consumer).
+   */
+  public enum WaitStrategy {
+    /** Busy spin, lowest latency, burns a core per waiting thread. */
+    SPIN,
+    /** Spin briefly, then yield the processor to other runnable threads. */
+    YIELD,
+    /** Spin briefly, yield, then park the thread until it is signalled or a short time slice has expired. */
+    PARK,
+    /**
+     * Spin briefly, yield, then park the thread until it is signalled or the timeout expired. Positions are published
+     * with a full fence so that no signal is missed, which costs a little on every row. Meant for steps running in
+     * virtual threads, where a parked thread doesn't hold on to a carrier thread.
+     */
+    BLOCK;
+
+    public static WaitStrategy getWaitStrategy( String code, WaitStrategy defaultStrategy ) {
+      if ( code != null ) {
+        for ( WaitStrategy strategy : values() ) {
+          if ( strategy.name().equalsIgnoreCase( code.trim() ) ) {
+            return strategy;
+          }
+        }
+      }
+      return defaultStrategy;
+    }
+  }
+
+  private static final int SPIN_TRIES = 100;
+  private static final int YIELD_TRIES = 10;
+  private static final long MAX_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos( 1 );
+
+  // Positions are stored 16 longs (two cache lines) apart to avoid false sharing
+  //
+  private static final int PAD = 16;
+  private static final int PRODUCER = PAD;
+  private static final int CONSUMER = PAD * 2;
+
+  private final Object[][] buffer;
+  private final int mask;
+  private final int capacity;
+  private final AtomicLongArray positions;
+
+  // Only touched by the producer thread
+  private long cachedConsumerPosition;
+
+  // Only touched by the consumer thread
+  private long cachedProducerPosition;
+
+  private volatile Thread waitingProducer;
+  private volatile Thread waitingConsumer;
+
+  private final WaitStrategy waitStrategy;
+
+  private int timeoutPut;
+  private int timeoutGet;
+
+  /**
+   * Create a new ring buffer row set with maxSize capacity, using the wait strategy configured in the
+   * KETTLE_ROWSET_WAIT_STRATEGY variable.
+   *
+   * @param maxSize
+   */
+  public RingBufferRowSet( int maxSize ) {
+    this( maxSize, WaitStrategy.getWaitStrategy( System.getProperty( Const.KETTLE_ROWSET_WAIT_STRATEGY ),
+      WaitStrategy.PARK ) );
+  }
+
+  /**
+   * Create a new ring buffer row set with maxSize capacity.
+   *
+   * @param maxSize
+   *          the maximum number of rows kept in the buffer
+   * @param waitStrategy
+   *          what to do while waiting for room or rows
+   */
+  public RingBufferRowSet( int maxSize, WaitStrategy waitStrategy ) {
+    super();
+
+    capacity = Math.max( 1, maxSize );
+    int length = Integer.highestOneBit( capacity );
+    if ( length < capacity ) {
+      length <<= 1;
+    }
+    buffer = new Object[length][];
+    mask = length - 1;
+    positions = new AtomicLongArray( PAD * 3 );
+
+    this.waitStrategy = waitStrategy == null ? WaitStrategy.PARK : waitStrategy;
+
+    timeoutGet = Const.toInt( System.getProperty( Const.KETTLE_ROWSET_GET_TIMEOUT ), Const.TIMEOUT_GET_MILLIS );
+    timeoutPut = Const.toInt( System.getProperty( Const.KETTLE_ROWSET_PUT_TIMEOUT ), Const.TIMEOUT_PUT_MILLIS );
+  }
+
+  @Override
+  public boolean putRow( RowMetaInterface rowMeta, Object[] rowData ) {
+    return putRowWait( rowMeta, rowData, timeoutPut, TimeUnit.MILLISECONDS );
+  }
+
+  @Override
+  public boolean putRowWait( RowMetaInterface rowMeta, Object[] rowData, long time, TimeUnit tu ) {
+    if ( rowData == null ) {
+      // Same contract as the BlockingRowSet: null rows are refused
+      return false;
+    }
+    this.rowMeta = rowMeta;
+
+    long position = positions.get( PRODUCER );
+    if ( position - cachedConsumerPosition >= capacity ) {
+      cachedConsumerPosition = positions.get( CONSUMER );
+      if ( position - cachedConsumerPosition >= capacity && !waitForRoom( position, tu.toNanos( time ) ) ) {
+        return false;
+      }
+    }
+
+    buffer[(int) position & mask] = rowData;
+    publish( PRODUCER, position + 1 );
+
+    Thread consumer = waitingConsumer;
+    if ( consumer != null ) {
+      LockSupport.unpark( consumer );
+    }
+    return true;
+  }
+
+  /**
+   * Publishes as many rows as fit in the ring with a single position update.
+   */
+  @Override
+  public int putRowsWait( RowMetaInterface rowMeta, List<Object[]> rows, int fromIndex, long time, TimeUnit tu ) {
+    if ( fromIndex >= rows.size() || rows.get( fromIndex ) == null ) {
+      return 0;
+    }
+    this.rowMeta = rowMeta;
+
+    long position = positions.get( PRODUCER );
+    if ( position - cachedConsumerPosition >= capacity ) {
+      cachedConsumerPosition = positions.get( CONSUMER );
+      if ( position - cachedConsumerPosition >= capacity && !waitForRoom( position, tu.toNanos( time ) ) ) {
+        return 0;
+      }
+    }
+
+    int room = (int) ( capacity - ( position - cachedConsumerPosition ) );
+    int nrRows = 0;
+    for ( int i = fromIndex; i < rows.size() && nrRows < room; i++ ) {
+      Object[] rowData = rows.get( i );
+      if ( rowData == null ) {
+        break;
+      }
+      buffer[(int) ( position + nrRows ) & mask] = rowData;
+      nrRows++;
+    }
+    publish( PRODUCER, position + nrRows );
+
+    Thread consumer = waitingConsumer;
+    if ( consumer != null ) {
+      LockSupport.unpark( consumer );
+    }
+    return nrRows;
+  }
+
+  @Override
+  public Object[] getRow() {
+    return getRowWait( timeoutGet, TimeUnit.MILLISECONDS );
+  }
+
+  @Override
+  public Object[] getRowImmediate() {
+    long position = positions.get( CONSUMER );
+    if ( position >= cachedProducerPosition ) {
+      cachedProducerPosition = positions.get( PRODUCER );
+      if ( position >= cachedProducerPosition ) {
+        return null;
+      }
+    }
+    return take( position );
+  }
+
+  @Override
+  public Object[] getRowWait( long timeout, TimeUnit tu ) {
+    long position = positions.get( CONSUMER );
+    if ( position >= cachedProducerPosition ) {
+      cachedProducerPosition = positions.get( PRODUCER );
+      if ( position >= cachedProducerPosition && !waitForRows( position, tu.toNanos( timeout ) ) ) {
+        return null;
+      }
+    }
+    return take( position );
+  }
+
+  /**
+   * Takes all available rows with a single position update.
+   */
+  @Override
+  public int drainTo( List<Object[]> rows, int maxRows ) {
+    long position = positions.get( CONSUMER );
+    cachedProducerPosition = positions.get( PRODUCER );
+    int nrRows = (int) Math.min( maxRows, cachedProducerPosition - position );
+    if ( nrRows <= 0 ) {
+      return 0;
+    }
+    for ( int i = 0; i < nrRows; i++ ) {
+      int index = (int) ( position + i ) & mask;
+      rows.add( buffer[index] );
+      buffer[index] = null;
+    }
+    publish( CONSUMER, position + nrRows );
+
+    Thread producer = waitingProducer;
+    if ( producer != null ) {
+      LockSupport.unpark( producer );
+    }
+    return nrRows;
+  }
+
+  private Object[] take( long position ) {
+    int index = (int) position & mask;
+    Object[] row = buffer[index];
+    buffer[index] = null; // prevent any hold-up to GC
+    publish( CONSUMER, position + 1 );
+
+    Thread producer = waitingProducer;
+    if ( producer != null ) {
+      LockSupport.unpark( producer );
+    }
+    return row;
+  }
+
+  private void publish( int index, long position ) {
+    if ( waitStrategy == WaitStrategy.BLOCK ) {
+      // Ordered with the read of the waiting thread that follows, so a thread that just registered is always signalled
+      positions.set( index, position );
+    } else {
+      positions.lazySet( index, position );
+    }
+  }
+
+  /**
+   * Wait until the consumer freed up a slot or the timeout expired.
+   *
+   * @return true if there is room for another row
+   */
+  private boolean waitForRoom( long position, long timeoutNanos ) {
+    long deadline = System.nanoTime() + timeoutNanos;
+    int tries = 0;
+    try {
+      while ( true ) {
+        cachedConsumerPosition = positions.get( CONSUMER );
+        if ( position - cachedConsumerPosition < capacity ) {
+          return true;
+        }
+        long remaining = deadline - System.nanoTime();
+        if ( remaining <= 0 || Thread.currentThread().isInterrupted() ) {
+          return false;
+        }
+        if ( backOff( tries++, remaining, true ) ) {
+          waitingProducer = Thread.currentThread();
+        }
+      }
+    } finally {
+      waitingProducer = null;
+    }
+  }
+
+  /**
+   * Wait until the producer published a row, the row set is done or the timeout expired.
+   *
+   * @return true if there is at least one row to read
+   */
+  private boolean waitForRows( long position, long timeoutNanos ) {
+    long deadline = System.nanoTime() + timeoutNanos;
+    int tries = 0;
+    try {
+      while ( true ) {
+        cachedProducerPosition = positions.get( PRODUCER );
+        if ( position < cachedProducerPosition ) {
+          return true;
+        }
+        if ( done.get() ) {
+          // No more rows are coming, checked after the position so the last rows are never missed
+          return false;
+        }
+        long remaining = deadline - System.nanoTime();
+        if ( remaining <= 0 || Thread.currentThread().isInterrupted() ) {
+          return false;
+        }
+        if ( backOff( tries++, remaining, false ) ) {
+          waitingConsumer = Thread.currentThread();
+        }
+      }
+    } finally {
+      waitingConsumer = null;
+    }
+  }
+
+  /**
+   * Perform one step of the wait strategy.
+   *
+   * @return true if the next step is going to park and the caller should register itself to be signalled.
+   */
+  private boolean backOff( int tries, long remainingNanos, boolean producer ) {
+    if ( tries < SPIN_TRIES || waitStrategy == WaitStrategy.SPIN ) {
+      Thread.onSpinWait();
+      return false;
+    }
+    if ( tries < SPIN_TRIES + YIELD_TRIES || waitStrategy == WaitStrategy.YIELD ) {
+      Thread.yield();
+      return waitStrategy != WaitStrategy.YIELD && tries == SPIN_TRIES + YIELD_TRIES - 1;
+    }
+    // The thread registered itself on the previous try so a missed signal costs at most one park slice.
+    // With BLOCK no signal is missed and the thread parks until the timeout.
+    //
+    LockSupport.parkNanos( this,
+      waitStrategy == WaitStrategy.BLOCK ? remainingNanos : Math.min( remainingNanos, MAX_PARK_NANOS ) );
+    return true;
+  }
+
+  @Override
+  public void setDone() {
+    super.setDone();
+    Thread consumer = waitingConsumer;
+    if ( consumer != null ) {
+      LockSupport.unpark( consumer );
+    }
+  }
+
+  @Override
+  public int size() {
+    long size = positions.get( PRODUCER ) - positions.get( CONSUMER );
+    return (int) Math.max( 0, Math.min( size, capacity ) );
+  }
+
+  /**
+   * Drop the rows in the buffer and clear the done flag. This moves the consumer position and resets the positions the
+   * producer cached, so it may only be called by the consumer thread while the producer is stopped, or once both sides
+   * have stopped (for example when a transformation is reset to be run again). Calling it while the producer is
+   * writing can lose or corrupt rows.
+   */
+  @Override
+  public void clear() {
+    long producerPosition = positions.get( PRODUCER );
+    for ( long position = positions.get( CONSUMER ); position < producerPosition; position++ ) {
+      buffer[(int) position & mask] = null;
+    }
+    cachedProducerPosition = producerPosition;
+    cachedConsumerPosition = producerPosition;
+    positions.set( CONSUMER, producerPosition );
+    done.set( false );
+  }
+
+  /**
+   * @return the wait strategy used by this row set
+   */
+  public WaitStrategy getWaitStrategy() {
+    return waitStrategy;
+  }
+}
@@ -13,6 +13,7 @@
 
 package org.pentaho.di.core;
 
+import java.util.List;
 import java.util.concurrent.TimeUnit;
 
 import org.pentaho.di.core.row.RowMetaInterface;
@@ -69,6 +70,56 @@ public interface RowSet {
    */
   Object[] getRowWait( long timeout, TimeUnit tu );
 
+  /**
+   * Offer a block of rows to this rowset. The call waits (blocks) for at most the given period of time until there is
+   * room for the first row. The rows after that are only added for as long as there is room in the buffer.<br>
+   * Implementations can override this method to add the rows with less locking overhead than separate
+   * {@link #putRowWait(RowMetaInterface, Object[], long, TimeUnit)} calls.
+   *
+   * @param rowMeta
+   *          The description of the row data
+   * @param rows
+   *          the rows of data
+   * @param fromIndex
+   *          the index of the first row in the list to add
+   * @param time
+   *          The number of units of time
+   * @param tu
+   *          The unit of time to use
+   * @return the number of rows that were added to the rowset, starting at fromIndex.
+   */
+  default int putRowsWait( RowMetaInterface rowMeta, List<Object[]> rows, int fromIndex, long time, TimeUnit tu ) {
+    int nrRows = 0;
+    for ( int i = fromIndex; i < rows.size(); i++ ) {
+      if ( !putRowWait( rowMeta, rows.get( i ), nrRows == 0 ? time : 0, tu ) ) {
+        break;
+      }
+      nrRows++;
+    }
+    return nrRows;
+  }
+
+  /**
+   * Move the rows that are immediately available to the given list, without waiting.<br>
+   * Implementations can override this method to take the rows with less locking overhead than separate
+   * {@link #getRowImmediate()} calls.
+   *
+   * @param rows
+   *          the list to add the rows to
+   * @param maxRows
+   *          the maximum number of rows to take
+   * @return the number of rows added to the list.
+   */
+  default int drainTo( List<Object[]> rows, int maxRows ) {
+    int nrRows = 0;
+    Object[] row;
+    while ( nrRows < maxRows && ( row = getRowImmediate() ) != null ) {
+      rows.add( row );
+      nrRows++;
+    }
+    return nrRows;
+  }
+
   /**
    * @return Set indication that there is no more input
    */
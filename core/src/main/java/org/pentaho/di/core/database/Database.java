@@ -130,6 +130,7 @@ public class Database implements VariableSpace, LoggingObjectInterface, Closeabl
   private static final String DATA_SERVICES_PLUGIN_ID = "KettleThin";
 
   private int rowlimit;
+  private int fetchSize;
   private int commitsize;
 
   private Connection connection;
@@ -317,6 +318,23 @@ public class Database implements VariableSpace, LoggingObjectInterface, Closeabl
     rowlimit = rows;
   }
 
+  /**
+   * Set the number of rows the driver fetches at once for the queries opened after this call.
+   *
+   * @param fetchSize
+   *          the number of rows, 0 to use the default of the database type
+   */
+  public void setFetchSize( int fetchSize ) {
+    this.fetchSize = fetchSize;
+  }
+
+  /**
+   * @return the number of rows the driver fetches at once, 0 for the default of the database type
+   */
+  public int getFetchSize() {
+    return fetchSize;
+  }
+
   /**
    * @return Returns the prepStatementInsert.
    */
@@ -1724,7 +1742,7 @@ public class Database implements VariableSpace, LoggingObjectInterface, Closeabl
 
         if ( canWeSetFetchSize( pstmt ) ) {
           int maxRows = pstmt.getMaxRows();
-          int fs = Math.max( Const.FETCH_SIZE, maxRows );
+          int fs = calculateFetchSize( maxRows );
           if ( databaseMeta.isMySQLVariant() ) {
             setMysqlFetchSize( pstmt, fs, maxRows );
           } else {
@@ -1746,7 +1764,7 @@ public class Database implements VariableSpace, LoggingObjectInterface, Closeabl
         selStmt = connection.createStatement();
         log.snap( Metrics.METRIC_DATABASE_CREATE_SQL_STOP, databaseMeta.getName() );
         if ( canWeSetFetchSize( selStmt ) ) {
-          int fs = Math.max( Const.FETCH_SIZE, selStmt.getMaxRows() );
+          int fs = calculateFetchSize( selStmt.getMaxRows() );
           if ( databaseMeta.getDatabaseInterface().isMySQLVariant()
             && databaseMeta.isStreamingResults() ) {
             selStmt.setFetchSize( Integer.MIN_VALUE );
@@ -1781,11 +1799,15 @@ public class Database implements VariableSpace, LoggingObjectInterface, Closeabl
 
   private boolean canWeSetFetchSize( Statement statement ) throws SQLException {
     return databaseMeta.isFetchSizeSupported()
-      && ( statement.getMaxRows() > 0
+      && ( fetchSize > 0 || statement.getMaxRows() > 0
       || databaseMeta.getDatabaseInterface() instanceof PostgreSQLDatabaseMeta
       || ( databaseMeta.isMySQLVariant() && databaseMeta.isStreamingResults() ) );
   }
 
+  private int calculateFetchSize( int maxRows ) {
+    return fetchSize > 0 ? fetchSize : Math.max( databaseMeta.getDefaultFetchSize(), maxRows );
+  }
+
   public ResultSet openQuery( PreparedStatement ps, RowMetaInterface params, Object[] data )
     throws KettleDatabaseException {
     ResultSet res;
@@ -1800,7 +1822,7 @@ public class Database implements VariableSpace, LoggingObjectInterface, Closeabl
 
       if ( canWeSetFetchSize( ps ) ) {
         int maxRows = ps.getMaxRows();
-        int fs = Math.max( Const.FETCH_SIZE, maxRows );
+        int fs = calculateFetchSize( maxRows );
         // mysql have some restriction on fetch size assignment
         if ( databaseMeta.isMySQLVariant() ) {
           setMysqlFetchSize( ps, fs, maxRows );
@@ -2759,6 +2781,39 @@ public class Database implements VariableSpace, LoggingObjectInterface, Closeabl
     }
   }
 
+  /**
+   * Get the next rows from the resultset at once, with the values read by a {@link ResultSetRowReader}.
+   *
+   * @param rs     The resultset to get the rows from
+   * @param reader Reads the values of the current row of the resultset
+   * @param rows   The array to put the rows in
+   * @return the number of rows read, less than the length of the array once the resultset is exhausted
+   */
+  public int getRows( ResultSet rs, ResultSetRowReader reader, Object[][] rows ) throws KettleDatabaseException {
+    long startTime = System.currentTimeMillis();
+    int nrRows = 0;
+
+    try {
+      // PDI-19750 - synchronize on the connection, like getRow() does, but once for all the rows
+      synchronized ( connection ) {
+        while ( nrRows < rows.length && rs.next() ) {
+          rows[ nrRows++ ] = reader.readRow( rs );
+        }
+      }
+      return nrRows;
+    } catch ( KettleDatabaseException ex ) {
+      throw ex;
+    } catch ( Exception ex ) {
+      throw new KettleDatabaseException( "Couldn't get rows from result set", ex );
+    } finally {
+      if ( log.isGatheringMetrics() ) {
+        long time = System.currentTimeMillis() - startTime;
+        log.snap( Metrics.METRIC_DATABASE_GET_ROW_SUM_TIME, databaseMeta.getName(), time );
+        log.snap( Metrics.METRIC_DATABASE_GET_ROW_COUNT, databaseMeta.getName(), nrRows );
+      }
+    }
+  }
+
   public void printSQLException( SQLException ex ) {
     log.logError( "==> SQLException: " );
     while ( ex != null ) {
@@ -21,6 +21,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Properties;
 
+import org.pentaho.di.core.Const;
 import org.pentaho.di.core.exception.KettleDatabaseException;
 import org.pentaho.di.core.exception.KettleValueException;
 import org.pentaho.di.core.row.ValueMetaInterface;
@@ -365,6 +366,24 @@ public interface DatabaseInterface extends Cloneable {
    */
   boolean isFetchSizeSupported();
 
+  /**
+   * @return the number of rows to fetch at once when a query is read in full, used when the fetch size is set
+   */
+  default int getDefaultFetchSize() {
+    return Const.FETCH_SIZE;
+  }
+
+  /**
+   * @param dividend
+   *          The SQL expression to divide
+   * @param divisor
+   *          The number to divide by
+   * @return The SQL expression for the remainder of the division
+   */
+  default String getSQLModulo( String dividend, int divisor ) {
+    return "MOD(" + dividend + ", " + divisor + ")";
+  }
+
   /**
    * @return true if the database supports transactions.
    */
@@ -1545,6 +1545,24 @@ public class DatabaseMeta extends SharedObjectBase implements Cloneable, XMLInte
     return databaseInterface.isFetchSizeSupported();
   }
 
+  /**
+   * @return the number of rows to fetch at once for this type of database
+   */
+  public int getDefaultFetchSize() {
+    return databaseInterface.getDefaultFetchSize();
+  }
+
+  /**
+   * @param dividend
+   *          The SQL expression to divide
+   * @param divisor
+   *          The number to divide by
+   * @return The SQL expression for the remainder of the division
+   */
+  public String getSQLModulo( String dividend, int divisor ) {
+    return databaseInterface.getSQLModulo( dividend, divisor );
+  }
+
   /**
    * Indicates the need to insert a placeholder (0) for auto increment fields.
    *
@@ -526,6 +526,11 @@ public class MSSQLServerDatabaseMeta extends BaseDatabaseMeta implements Databas
     return 8000;
   }
 
+  @Override
+  public String getSQLModulo( String dividend, int divisor ) {
+    return "(" + dividend + " % " + divisor + ")";
+  }
+
   @Override
   public void setConnectionSpecificInfoFromAttributes( Map<String, String> attributes ) {
     this.setUsingDoubleDecimalAsSchemaTableSeparator( setBooleanValueFromMap( attributes, "MSSQL_DOUBLE_DECIMAL_SEPARATOR" ) );
@@ -0,0 +1,145 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.di.core.database;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+import org.pentaho.di.core.exception.KettleDatabaseException;
+import org.pentaho.di.core.row.RowDataUtil;
+import org.pentaho.di.core.row.RowMetaInterface;
+import org.pentaho.di.core.row.ValueMetaInterface;
+import org.pentaho.di.core.row.value.ValueMetaBase;
+
+/**
+ * Reads the values of the current row of a resultset. How to read a column is decided once for all rows from the
+ * type of its value metadata: the common types are read with the matching getter of the resultset directly instead of
+ * going through {@link DatabaseMeta#getValueFromResultSet(ResultSet, ValueMetaInterface, int)} for every value.
+ * Columns of a database type or value type that reads values its own way still go through the database metadata.
+ *
+ * @since 11.1
+ */
+public class ResultSetRowReader {
+
+  /**
+   * Reads the value of one column of the current row.
+   */
+  @FunctionalInterface
+  interface ColumnReader {
+    Object read( ResultSet rs ) throws SQLException, KettleDatabaseException;
+  }
+
+  private final ColumnReader[] columns;
+  private final int rowSize;
+
+  /**
+   * @param databaseMeta
+   *          the database the resultset comes from
+   * @param rowMeta
+   *          the metadata of the rows of the resultset
+   */
+  public ResultSetRowReader( DatabaseMeta databaseMeta, RowMetaInterface rowMeta ) {
+    rowSize = rowMeta.size();
+    columns = new ColumnReader[rowSize];
+    boolean defaultDatabase = isDefaultDatabaseReader( databaseMeta.getDatabaseInterface() );
+    for ( int i = 0; i < rowSize; i++ ) {
+      columns[i] = createColumnReader( databaseMeta, defaultDatabase, rowMeta.getValueMeta( i ), i );
+    }
+  }
+
+  /**
+   * @param rs
+   *          the resultset, positioned on a row
+   * @return the values of the row
+   * @throws KettleDatabaseException
+   *           in case a value can't be read
+   */
+  public Object[] readRow( ResultSet rs ) throws KettleDatabaseException {
+    Object[] row = RowDataUtil.allocateRowData( rowSize );
+    int i = 0;
+    try {
+      for ( ; i < rowSize; i++ ) {
+        row[i] = columns[i].read( rs );
+      }
+    } catch ( SQLException e ) {
+      throw new KettleDatabaseException( "Unable to get the value of column " + ( i + 1 ) + " from the resultset", e );
+    }
+    return row;
+  }
+
+  static ColumnReader createColumnReader( DatabaseMeta databaseMeta, boolean defaultDatabase,
+                                          ValueMetaInterface valueMeta, int index ) {
+    ColumnReader fallback = rs -> databaseMeta.getValueFromResultSet( rs, valueMeta, index );
+    if ( !defaultDatabase || !isDefaultValueReader( valueMeta ) ) {
+      return fallback;
+    }
+
+    int column = index + 1;
+    switch ( valueMeta.getType() ) {
+      case ValueMetaInterface.TYPE_BOOLEAN:
+        return rs -> {
+          boolean value = rs.getBoolean( column );
+          return rs.wasNull() ? null : Boolean.valueOf( value );
+        };
+      case ValueMetaInterface.TYPE_NUMBER:
+        return rs -> {
+          double value = rs.getDouble( column );
+          return rs.wasNull() ? null : Double.valueOf( value );
+        };
+      case ValueMetaInterface.TYPE_INTEGER:
+        return rs -> {
+          long value = rs.getLong( column );
+          return rs.wasNull() ? null : Long.valueOf( value );
+        };
+      case ValueMetaInterface.TYPE_BIGNUMBER:
+        return rs -> rs.getBigDecimal( column );
+      case ValueMetaInterface.TYPE_STRING:
+        if ( valueMeta.isStorageBinaryString() ) {
+          return rs -> rs.getBytes( column );
+        }
+        return rs -> rs.getString( column );
+      case ValueMetaInterface.TYPE_DATE:
+        if ( valueMeta.getPrecision() != 1 && databaseMeta.getDatabaseInterface().supportsTimeStampToDateConversion() ) {
+          return rs -> rs.getTimestamp( column );
+        }
+        return fallback;
+      default:
+        return fallback;
+    }
+  }
+
+  /**
+   * @return true if the database type reads values the default way
+   */
+  static boolean isDefaultDatabaseReader( DatabaseInterface databaseInterface ) {
+    return isDeclaredBy( databaseInterface.getClass(), BaseDatabaseMeta.class, ResultSet.class,
+      ValueMetaInterface.class, int.class );
+  }
+
+  /**
+   * @return true if the value type reads values the default way
+   */
+  static boolean isDefaultValueReader( ValueMetaInterface valueMeta ) {
+    return isDeclaredBy( valueMeta.getClass(), ValueMetaBase.class, DatabaseInterface.class, ResultSet.class,
+      int.class );
+  }
+
+  private static boolean isDeclaredBy( Class<?> clazz, Class<?> declaringClass, Class<?>... parameterTypes ) {
+    try {
+      return clazz.getMethod( "getValueFromResultSet", parameterTypes ).getDeclaringClass() == declaringClass;
+    } catch ( NoSuchMethodException e ) {
+      return false;
+    }
+  }
+}
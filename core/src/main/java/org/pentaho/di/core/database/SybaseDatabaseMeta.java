@@ -227,6 +227,11 @@ public class SybaseDatabaseMeta extends BaseDatabaseMeta implements DatabaseInte
     return "insert into " + schemaTable + "(" + versionField + ") values (1)";
   }
 
+  @Override
+  public String getSQLModulo( String dividend, int divisor ) {
+    return "(" + dividend + " % " + divisor + ")";
+  }
+
   /**
    * @param string
    * @return A string that is properly quoted for use in a SQL statement (insert, update, delete, etc)
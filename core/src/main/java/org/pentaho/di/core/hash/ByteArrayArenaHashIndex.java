@@ -0,0 +1,238 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.di.core.hash;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Hash index of serialized keys and values, like {@link ByteArrayHashIndex}, that doesn't create objects per entry.
+ * The keys and values are packed into large byte pages, on the heap or off-heap (direct buffers), and found back with
+ * an open addressing (linear probing) index of entry numbers. Two keys are the same if their bytes are the same, so
+ * any combination of key types serialized with {@link org.pentaho.di.core.row.RowMeta#extractData} can be used.<br>
+ * <br>
+ * Once all entries are put, {@link #get(byte[])} can be called from several threads at the same time. Calls to
+ * {@link #put(byte[], byte[])} need to be synchronized by the caller.
+ *
+ * @since 11.1
+ */
+public class ByteArrayArenaHashIndex {
+  private static final int PAGE_SIZE = 1 << 20;
+  private static final int INITIAL_CAPACITY = 1024;
+
+  /** Every entry starts with the length of the key and the length of the value */
+  private static final int HEADER_SIZE = 8;
+
+  private final boolean offHeap;
+
+  private int[] slots;
+  private int mask;
+  private int threshold;
+
+  private int size;
+  private int[] hashes;
+  private long[] addresses;
+
+  private ByteBuffer[] pages;
+  private int pageCount;
+  private int pageOffset;
+  private long pageBytes;
+
+  /**
+   * @param offHeap
+   *          true to store the keys and values in direct buffers outside of the Java heap
+   */
+  public ByteArrayArenaHashIndex( boolean offHeap ) {
+    this.offHeap = offHeap;
+
+    slots = new int[INITIAL_CAPACITY * 2];
+    mask = slots.length - 1;
+    threshold = slots.length * 3 / 4;
+    hashes = new int[INITIAL_CAPACITY];
+    addresses = new long[INITIAL_CAPACITY];
+    pages = new ByteBuffer[16];
+  }
+
+  /**
+   * @return the number of entries in the index
+   */
+  public int getSize() {
+    return size;
+  }
+
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  /**
+   * @return true if the keys and values are stored outside of the Java heap
+   */
+  public boolean isOffHeap() {
+    return offHeap;
+  }
+
+  /**
+   * @return the number of bytes allocated for the pages and the index arrays
+   */
+  public long getMemoryUsage() {
+    return pageBytes + 4L * slots.length + 4L * hashes.length + 8L * addresses.length;
+  }
+
+  /**
+   * @param key
+   *          the serialized key
+   * @return a copy of the serialized value stored for the key or null if the key isn't in the index
+   */
+  public byte[] get( byte[] key ) {
+    int entry = findEntry( key, hash( key ) );
+    if ( entry < 0 ) {
+      return null;
+    }
+    long address = addresses[entry];
+    ByteBuffer page = pages[(int) ( address >>> 32 )];
+    int offset = (int) address;
+    int keyLength = page.getInt( offset );
+    byte[] value = new byte[page.getInt( offset + 4 )];
+    ByteBuffer buffer = page.duplicate();
+    buffer.position( offset + HEADER_SIZE + keyLength );
+    buffer.get( value );
+    return value;
+  }
+
+  /**
+   * Store a value for a key, replacing the value that was stored for the key before if any.
+   *
+   * @param key
+   *          the serialized key
+   * @param value
+   *          the serialized value
+   */
+  public void put( byte[] key, byte[] value ) {
+    int keyHash = hash( key );
+    int entry = findEntry( key, keyHash );
+    if ( entry >= 0 ) {
+      long address = addresses[entry];
+      ByteBuffer page = pages[(int) ( address >>> 32 )];
+      int offset = (int) address;
+      if ( page.getInt( offset + 4 ) == value.length ) {
+        write( page, offset + HEADER_SIZE + key.length, value );
+      } else {
+        // The old value is left behind in the page
+        addresses[entry] = store( key, value );
+      }
+      return;
+    }
+
+    int slot = keyHash & mask;
+    while ( slots[slot] != 0 ) {
+      slot = ( slot + 1 ) & mask;
+    }
+    entry = size++;
+    if ( entry == hashes.length ) {
+      hashes = Arrays.copyOf( hashes, hashes.length * 2 );
+      addresses = Arrays.copyOf( addresses, addresses.length * 2 );
+    }
+    hashes[entry] = keyHash;
+    addresses[entry] = store( key, value );
+    slots[slot] = entry + 1;
+    if ( size > threshold ) {
+      rehash();
+    }
+  }
+
+  private int findEntry( byte[] key, int keyHash ) {
+    int slot = keyHash & mask;
+    while ( true ) {
+      int entry = slots[slot] - 1;
+      if ( entry < 0 ) {
+        return -1;
+      }
+      if ( hashes[entry] == keyHash && keyEquals( entry, key ) ) {
+        return entry;
+      }
+      slot = ( slot + 1 ) & mask;
+    }
+  }
+
+  private boolean keyEquals( int entry, byte[] key ) {
+    long address = addresses[entry];
+    ByteBuffer page = pages[(int) ( address >>> 32 )];
+    int offset = (int) address;
+    if ( page.getInt( offset ) != key.length ) {
+      return false;
+    }
+    offset += HEADER_SIZE;
+    for ( int i = 0; i < key.length; i++ ) {
+      if ( page.get( offset + i ) != key[i] ) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private void rehash() {
+    slots = new int[slots.length * 2];
+    mask = slots.length - 1;
+    threshold = slots.length * 3 / 4;
+    for ( int entry = 0; entry < size; entry++ ) {
+      int slot = hashes[entry] & mask;
+      while ( slots[slot] != 0 ) {
+        slot = ( slot + 1 ) & mask;
+      }
+      slots[slot] = entry + 1;
+    }
+  }
+
+  /**
+   * Append a key and value to the last page, starting a new page if it doesn't fit.
+   *
+   * @return the page number in the upper 32 bits and the offset in the page in the lower 32 bits
+   */
+  private long store( byte[] key, byte[] value ) {
+    int length = HEADER_SIZE + key.length + value.length;
+    if ( pageCount == 0 || pages[pageCount - 1].capacity() - pageOffset < length ) {
+      if ( pageCount == pages.length ) {
+        pages = Arrays.copyOf( pages, pages.length * 2 );
+      }
+      int capacity = Math.max( PAGE_SIZE, length );
+      pages[pageCount++] = offHeap ? ByteBuffer.allocateDirect( capacity ) : ByteBuffer.allocate( capacity );
+      pageOffset = 0;
+      pageBytes += capacity;
+    }
+    ByteBuffer page = pages[pageCount - 1];
+    int offset = pageOffset;
+    page.putInt( offset, key.length );
+    page.putInt( offset + 4, value.length );
+    write( page, offset + HEADER_SIZE, key );
+    write( page, offset + HEADER_SIZE + key.length, value );
+    pageOffset += length;
+    return ( (long) ( pageCount - 1 ) << 32 ) | offset;
+  }
+
+  private static void write( ByteBuffer page, int offset, byte[] bytes ) {
+    ByteBuffer buffer = page.duplicate();
+    buffer.position( offset );
+    buffer.put( bytes );
+  }
+
+  private static int hash( byte[] key ) {
+    int h = 1;
+    for ( byte b : key ) {
+      h = 31 * h + b;
+    }
+    // Spread the bits, the lower ones pick the slot
+    h *= 0x9E3779B9;
+    return h ^ ( h >>> 16 );
+  }
+}
@@ -0,0 +1,264 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+
+package org.pentaho.di.core.logging;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Hands logging events to the listeners of a {@link LoggingBuffer} in a separate thread so the threads that log don't
+ * wait for files or other slow listeners. The events are put on a lock-free queue and the dispatching thread takes
+ * them off in batches, in the order they were logged, and gives every listener a whole batch with
+ * {@link KettleLoggingEventListener#eventsAdded(List)}.<br>
+ * <br>
+ * The queue holds a limited number of events. Once it's full, the logging threads either wait for the dispatching
+ * thread or drop their events, depending on the overflow policy. The depth of the queue and the number of dropped
+ * events can be followed with {@link #getQueueDepth()} and {@link #getDroppedEventCount()}.
+ *
+ * @since 11.1
+ */
+public class AsyncLoggingEventDispatcher {
+  public static final int DEFAULT_QUEUE_SIZE = 65536;
+
+  static final int MAX_BATCH_SIZE = 1024;
+
+  private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos( 100 );
+  private static final long SHUTDOWN_FLUSH_MILLIS = 5000;
+
+  /**
+   * What to do with an event when the queue is full.
+   */
+  public enum OverflowPolicy {
+    /** Wait until the dispatching thread made room for the event */
+    BLOCK,
+    /** Drop the event, the listeners never see it */
+    DROP;
+
+    public static OverflowPolicy getPolicy( String name ) {
+      for ( OverflowPolicy policy : values() ) {
+        if ( policy.name().equalsIgnoreCase( name ) ) {
+          return policy;
+        }
+      }
+      return BLOCK;
+    }
+  }
+
+  private final List<KettleLoggingEventListener> listeners;
+  private final int queueSize;
+  private final OverflowPolicy overflowPolicy;
+  private final Queue<KettleLoggingEvent> queue = new ConcurrentLinkedQueue<>();
+  private final AtomicInteger depth = new AtomicInteger();
+  private final AtomicLong queued = new AtomicLong();
+  private final AtomicLong dispatched = new AtomicLong();
+  private final AtomicLong dropped = new AtomicLong();
+  private final Object space = new Object();
+  private final Thread thread;
+  private final Thread shutdownHook;
+
+  private volatile boolean idle;
+  private volatile boolean closed;
+
+  /**
+   * @param listeners
+   *          the listeners to hand the events to, can change while dispatching
+   * @param queueSize
+   *          the maximum number of events waiting to be dispatched
+   * @param overflowPolicy
+   *          what to do with an event when the queue is full
+   */
+  public AsyncLoggingEventDispatcher( List<KettleLoggingEventListener> listeners, int queueSize,
+                                      OverflowPolicy overflowPolicy ) {
+    this.listeners = listeners;
+    this.queueSize = queueSize > 0 ? queueSize : DEFAULT_QUEUE_SIZE;
+    this.overflowPolicy = overflowPolicy;
+    this.thread = new Thread( this::dispatchEvents, "Kettle logging event dispatcher" );
+    this.thread.setDaemon( true );
+    // The dispatching thread doesn't keep the JVM alive, the lines still queued are written when it exits
+    this.shutdownHook = new Thread( () -> flush( SHUTDOWN_FLUSH_MILLIS ), "Kettle logging event dispatcher flush" );
+  }
+
+  /**
+   * Start the dispatching thread.
+   */
+  public void start() {
+    thread.start();
+    Runtime.getRuntime().addShutdownHook( shutdownHook );
+  }
+
+  /**
+   * Queue an event for the listeners.
+   *
+   * @param event
+   *          the event
+   */
+  public void dispatch( KettleLoggingEvent event ) {
+    if ( depth.get() >= queueSize && !waitForSpace() ) {
+      dropped.incrementAndGet();
+      return;
+    }
+    depth.incrementAndGet();
+    queued.incrementAndGet();
+    queue.offer( event );
+    if ( idle ) {
+      LockSupport.unpark( thread );
+    }
+  }
+
+  /**
+   * @return true if there is room in the queue, false if the event has to be dropped
+   */
+  private boolean waitForSpace() {
+    if ( overflowPolicy == OverflowPolicy.DROP || closed || Thread.currentThread() == thread ) {
+      // A listener that logs can't wait for itself
+      return overflowPolicy != OverflowPolicy.DROP;
+    }
+    synchronized ( space ) {
+      while ( depth.get() >= queueSize && !closed ) {
+        try {
+          space.wait( 10 );
+        } catch ( InterruptedException e ) {
+          Thread.currentThread().interrupt();
+          return true;
+        }
+      }
+    }
+    return true;
+  }
+
+  private void dispatchEvents() {
+    List<KettleLoggingEvent> batch = new ArrayList<>( MAX_BATCH_SIZE );
+    while ( true ) {
+      KettleLoggingEvent event;
+      while ( batch.size() < MAX_BATCH_SIZE && ( event = queue.poll() ) != null ) {
+        batch.add( event );
+      }
+
+      if ( batch.isEmpty() ) {
+        if ( closed ) {
+          return;
+        }
+        idle = true;
+        if ( queue.isEmpty() ) {
+          LockSupport.parkNanos( this, IDLE_PARK_NANOS );
+        }
+        idle = false;
+        continue;
+      }
+
+      for ( KettleLoggingEventListener listener : listeners ) {
+        try {
+          listener.eventsAdded( batch );
+        } catch ( Throwable e ) {
+          // A failing listener shouldn't keep the events from the others
+          KettleLogStore.OriginalSystemErr.println( "Error dispatching logging events: " + e );
+        }
+      }
+      depth.addAndGet( -batch.size() );
+      dispatched.addAndGet( batch.size() );
+      batch.clear();
+
+      if ( overflowPolicy == OverflowPolicy.BLOCK ) {
+        synchronized ( space ) {
+          space.notifyAll();
+        }
+      }
+    }
+  }
+
+  /**
+   * Wait until the events queued before this call are handed to the listeners.
+   */
+  public void flush() {
+    flush( Long.MAX_VALUE );
+  }
+
+  private void flush( long timeoutMillis ) {
+    if ( Thread.currentThread() == thread ) {
+      return;
+    }
+    long target = queued.get();
+    long start = System.currentTimeMillis();
+    while ( dispatched.get() < target && thread.isAlive() && System.currentTimeMillis() - start < timeoutMillis ) {
+      LockSupport.unpark( thread );
+      LockSupport.parkNanos( TimeUnit.MILLISECONDS.toNanos( 1 ) );
+    }
+  }
+
+  /**
+   * Dispatch the queued events and stop the dispatching thread.
+   */
+  public void close() {
+    flush();
+    closed = true;
+    try {
+      Runtime.getRuntime().removeShutdownHook( shutdownHook );
+    } catch ( IllegalStateException e ) {
+      // Closed while the JVM shuts down
+    }
+    LockSupport.unpark( thread );
+    synchronized ( space ) {
+      space.notifyAll();
+    }
+    if ( Thread.currentThread() != thread ) {
+      try {
+        thread.join();
+      } catch ( InterruptedException e ) {
+        Thread.currentThread().interrupt();
+      }
+    }
+  }
+
+  /**
+   * @return the number of events waiting to be dispatched
+   */
+  public int getQueueDepth() {
+    return depth.get();
+  }
+
+  /**
+   * @return the maximum number of events waiting to be dispatched
+   */
+  public int getQueueSize() {
+    return queueSize;
+  }
+
+  /**
+   * @return the number of events dropped because the queue was full
+   */
+  public long getDroppedEventCount() {
+    return dropped.get();
+  }
+
+  /**
+   * @return the number of events handed to the listeners
+   */
+  public long getDispatchedEventCount() {
+    return dispatched.get();
+  }
+
+  /**
+   * @return what happens with an event when the queue is full
+   */
+  public OverflowPolicy getOverflowPolicy() {
+    return overflowPolicy;
+  }
+}
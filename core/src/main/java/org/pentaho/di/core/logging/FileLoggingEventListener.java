@@ -79,19 +79,13 @@ public class FileLoggingEventListener implements KettleLoggingEventListener {
     try {
       Object messageObject = event.getMessage();
       if ( messageObject instanceof LogMessage ) {
-        boolean logToFile = false;
-
-        if ( logChannelId == null ) {
-          logToFile = true;
-        } else {
-          LogMessage message = (LogMessage) messageObject;
+        List<String> logChannelChildren = null;
+        if ( logChannelId != null ) {
           // This should be fast enough cause cached.
-          List<String> logChannelChildren = LoggingRegistry.getInstance().getLogChannelChildren( logChannelId );
-          // This could be non-optimal, consider keeping the list sorted in the logging registry
-          logToFile = Const.indexOfString( message.getLogChannelId(), logChannelChildren ) >= 0;
+          logChannelChildren = LoggingRegistry.getInstance().getLogChannelChildren( logChannelId );
         }
 
-        if ( logToFile ) {
+        if ( isLoggedToFile( (LogMessage) messageObject, logChannelChildren ) ) {
           String logText = layout.format( event );
           outputStream.write( logText.getBytes() );
           outputStream.write( Const.CR.getBytes() );
@@ -102,6 +96,41 @@ public class FileLoggingEventListener implements KettleLoggingEventListener {
     }
   }
 
+  /**
+   * Write the lines of a batch of events to the file at once.
+   */
+  @Override
+  public void eventsAdded( List<KettleLoggingEvent> events ) {
+    try {
+      // The children are looked up once for the whole batch
+      List<String> logChannelChildren = null;
+      if ( logChannelId != null ) {
+        logChannelChildren = LoggingRegistry.getInstance().getLogChannelChildren( logChannelId );
+      }
+
+      StringBuilder logText = new StringBuilder( events.size() * 128 );
+      for ( KettleLoggingEvent event : events ) {
+        Object messageObject = event.getMessage();
+        if ( messageObject instanceof LogMessage && isLoggedToFile( (LogMessage) messageObject, logChannelChildren ) ) {
+          logText.append( layout.format( event ) ).append( Const.CR );
+        }
+      }
+      if ( logText.length() > 0 ) {
+        outputStream.write( logText.toString().getBytes() );
+      }
+    } catch ( Exception e ) {
+      exception = new KettleException( "Unable to write to logging event to file '" + filename + "'", e );
+    }
+  }
+
+  private boolean isLoggedToFile( LogMessage message, List<String> logChannelChildren ) {
+    if ( logChannelId == null ) {
+      return true;
+    }
+    // This could be non-optimal, consider keeping the list sorted in the logging registry
+    return Const.indexOfString( message.getLogChannelId(), logChannelChildren ) >= 0;
+  }
+
   public void close() throws KettleException {
     try {
       if ( outputStream != null ) {
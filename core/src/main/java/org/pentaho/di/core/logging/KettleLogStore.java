@@ -58,6 +58,14 @@ public class KettleLogStore {
     this.appender = new LoggingBuffer( maxSize );
     replaceLogCleaner( maxLogTimeoutMinutes );
 
+    if ( EnvUtil.getSystemProperty( Const.KETTLE_LOG_ASYNC_DISPATCH, "N" ).equalsIgnoreCase( "Y" ) ) {
+      appender.startAsyncDispatch(
+        Const.toInt( EnvUtil.getSystemProperty( Const.KETTLE_LOG_ASYNC_QUEUE_SIZE ),
+          AsyncLoggingEventDispatcher.DEFAULT_QUEUE_SIZE ),
+        AsyncLoggingEventDispatcher.OverflowPolicy.getPolicy(
+          EnvUtil.getSystemProperty( Const.KETTLE_LOG_ASYNC_OVERFLOW_POLICY ) ) );
+    }
+
     if ( redirectStdOut ) {
       System.setOut( new LoggingPrintStream( OriginalSystemOut ) );
     }
@@ -258,6 +266,9 @@ public class KettleLogStore {
 
   public void reset() {
     if ( initialized.compareAndSet( true, false ) ) {
+      if ( appender != null ) {
+        appender.stopAsyncDispatch();
+      }
       appender = null;
       if ( logCleanerTimer != null ) {
         logCleanerTimer.cancel();
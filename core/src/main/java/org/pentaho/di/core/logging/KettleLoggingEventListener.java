@@ -13,6 +13,21 @@
 
 package org.pentaho.di.core.logging;
 
+import java.util.List;
+
 public interface KettleLoggingEventListener {
   public void eventAdded( KettleLoggingEvent event );
+
+  /**
+   * Called with a batch of events, in the order they were logged, when the events are dispatched asynchronously.
+   * Listeners that write to files or other slow outputs can override this to write the whole batch at once.
+   *
+   * @param events
+   *          the events
+   */
+  default void eventsAdded( List<KettleLoggingEvent> events ) {
+    for ( KettleLoggingEvent event : events ) {
+      eventAdded( event );
+    }
+  }
 }
@@ -0,0 +1,301 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+
+package org.pentaho.di.core.logging;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Index of the line numbers of a {@link LoggingBuffer} per log channel. The numbers of every channel are kept sorted
+ * in a ring buffer, so a range or the tail of a channel is found with a binary search and
+ * copied without looking at the lines of other channels. The lines of general log channels are indexed in one extra
+ * ring.<br>
+ * <br>
+ * A ring never holds more numbers than the buffer holds lines: once full, the oldest number is dropped. The buffer
+ * evicts its oldest lines first, so a channel's lines that are still in the buffer are always in its ring. A channel
+ * is dropped from the index once it has no lines left.
+ *
+ * @since 11.1
+ */
+class LogChannelLineIndex {
+  static final int INITIAL_CAPACITY = 64;
+
+  /**
+   * The ascending line numbers of one channel. Lines are numbered before they're added, so threads logging at the same
+   * time can add their numbers slightly out of order: a number is moved back to its place from the end.
+   */
+  static final class Ring {
+    private int[] nrs = new int[INITIAL_CAPACITY];
+    private int head;
+    private int size;
+
+    synchronized void add( int nr, int maxSize ) {
+      if ( size == nrs.length ) {
+        if ( maxSize <= 0 || nrs.length < maxSize ) {
+          grow( maxSize <= 0 ? nrs.length * 2 : Math.min( nrs.length * 2, maxSize ) );
+        } else if ( nr < get( 0 ) ) {
+          // Full and older than all the others, it would be dropped right away
+          return;
+        } else {
+          // Full, drop the oldest
+          head = ( head + 1 ) % nrs.length;
+          size--;
+        }
+      }
+      int index = size;
+      while ( index > 0 && get( index - 1 ) > nr ) {
+        set( index, get( index - 1 ) );
+        index--;
+      }
+      set( index, nr );
+      size++;
+      while ( maxSize > 0 && size > maxSize ) {
+        head = ( head + 1 ) % nrs.length;
+        size--;
+      }
+    }
+
+    private void grow( int capacity ) {
+      int[] grown = new int[capacity];
+      for ( int i = 0; i < size; i++ ) {
+        grown[i] = get( i );
+      }
+      nrs = grown;
+      head = 0;
+    }
+
+    private int get( int index ) {
+      return nrs[( head + index ) % nrs.length];
+    }
+
+    private void set( int index, int nr ) {
+      nrs[( head + index ) % nrs.length] = nr;
+    }
+
+    synchronized boolean remove( int nr ) {
+      if ( size == 0 ) {
+        return false;
+      }
+      if ( nrs[head] == nr ) {
+        // Lines are mostly removed oldest first
+        head = ( head + 1 ) % nrs.length;
+        size--;
+        return true;
+      }
+      int index = indexOf( nr );
+      if ( index >= size || get( index ) != nr ) {
+        return false;
+      }
+      for ( int i = index; i < size - 1; i++ ) {
+        set( i, get( i + 1 ) );
+      }
+      size--;
+      return true;
+    }
+
+    /**
+     * @return the index of the first number that is equal to or greater than nr, size if there is none
+     */
+    private int indexOf( int nr ) {
+      int low = 0;
+      int high = size;
+      while ( low < high ) {
+        int middle = ( low + high ) >>> 1;
+        if ( get( middle ) < nr ) {
+          low = middle + 1;
+        } else {
+          high = middle;
+        }
+      }
+      return low;
+    }
+
+    /**
+     * @return the numbers from..to, only the last tailLines of them if tailLines is positive
+     */
+    synchronized int[] range( int from, int to, int tailLines ) {
+      int start = indexOf( from );
+      int end = to == Integer.MAX_VALUE ? size : indexOf( to + 1 );
+      if ( tailLines > 0 ) {
+        start = Math.max( start, end - tailLines );
+      }
+      int[] range = new int[Math.max( 0, end - start )];
+      for ( int i = 0; i < range.length; i++ ) {
+        range[i] = get( start + i );
+      }
+      return range;
+    }
+
+    synchronized int[] toArray() {
+      return range( Integer.MIN_VALUE, Integer.MAX_VALUE, 0 );
+    }
+
+    synchronized int size() {
+      return size;
+    }
+  }
+
+  private final Map<String, Ring> channels = new ConcurrentHashMap<>();
+  private final Ring general = new Ring();
+  private volatile int maxLines;
+
+  /**
+   * @param maxLines
+   *          the maximum number of lines of the buffer, 0 or lower means: no limit
+   */
+  LogChannelLineIndex( int maxLines ) {
+    this.maxLines = maxLines;
+  }
+
+  void setMaxLines( int maxLines ) {
+    this.maxLines = maxLines;
+  }
+
+  /**
+   * @param logChannelId
+   *          the log channel of the line, lines without a channel aren't indexed
+   * @param nr
+   *          the number of the line, lines logged at the same time may be added out of order
+   * @param isGeneral
+   *          true if the channel is a general one
+   */
+  void add( String logChannelId, int nr, boolean isGeneral ) {
+    if ( logChannelId == null ) {
+      return;
+    }
+    channels.compute( logChannelId, ( id, ring ) -> {
+      Ring channel = ring == null ? new Ring() : ring;
+      channel.add( nr, maxLines );
+      return channel;
+    } );
+    if ( isGeneral ) {
+      general.add( nr, maxLines );
+    }
+  }
+
+  void remove( String logChannelId, int nr ) {
+    if ( logChannelId == null ) {
+      return;
+    }
+    // Channels without lines are dropped, they would pile up otherwise
+    channels.computeIfPresent( logChannelId, ( id, ring ) -> ring.remove( nr ) && ring.size() == 0 ? null : ring );
+    general.remove( nr );
+  }
+
+  /**
+   * Stop indexing a channel.
+   *
+   * @return the numbers of the lines of the channel
+   */
+  int[] removeChannel( String logChannelId ) {
+    Ring ring = logChannelId == null ? null : channels.remove( logChannelId );
+    if ( ring == null ) {
+      return new int[0];
+    }
+    int[] nrs = ring.toArray();
+    for ( int nr : nrs ) {
+      general.remove( nr );
+    }
+    return nrs;
+  }
+
+  /**
+   * @return the numbers of the lines of the general channels
+   */
+  int[] getGeneralLineNrs() {
+    return general.toArray();
+  }
+
+  void clear() {
+    channels.clear();
+    synchronized ( general ) {
+      general.head = 0;
+      general.size = 0;
+    }
+  }
+
+  /**
+   * @param logChannelIds
+   *          the channels to get the lines of
+   * @param includeGeneral
+   *          include the lines of the general channels
+   * @param from
+   *          the first line number
+   * @param to
+   *          the last line number
+   * @param tailLines
+   *          only the last tailLines numbers if positive
+   * @return the ascending numbers of the lines
+   */
+  int[] getLineNrs( Collection<String> logChannelIds, boolean includeGeneral, int from, int to, int tailLines ) {
+    List<int[]> ranges = new ArrayList<>();
+    int total = 0;
+    for ( String logChannelId : logChannelIds ) {
+      Ring ring = logChannelId == null ? null : channels.get( logChannelId );
+      if ( ring != null ) {
+        int[] range = ring.range( from, to, tailLines );
+        ranges.add( range );
+        total += range.length;
+      }
+    }
+    if ( includeGeneral ) {
+      int[] range = general.range( from, to, tailLines );
+      ranges.add( range );
+      total += range.length;
+    }
+
+    int[] nrs;
+    if ( ranges.size() == 1 ) {
+      nrs = ranges.get( 0 );
+    } else {
+      nrs = new int[total];
+      int position = 0;
+      for ( int[] range : ranges ) {
+        System.arraycopy( range, 0, nrs, position, range.length );
+        position += range.length;
+      }
+      Arrays.sort( nrs );
+      nrs = distinct( nrs );
+    }
+    if ( tailLines > 0 && nrs.length > tailLines ) {
+      nrs = Arrays.copyOfRange( nrs, nrs.length - tailLines, nrs.length );
+    }
+    return nrs;
+  }
+
+  private static int[] distinct( int[] sorted ) {
+    if ( sorted.length == 0 ) {
+      return sorted;
+    }
+    int size = 1;
+    for ( int i = 1; i < sorted.length; i++ ) {
+      if ( sorted[i] != sorted[size - 1] ) {
+        sorted[size++] = sorted[i];
+      }
+    }
+    return size == sorted.length ? sorted : Arrays.copyOf( sorted, size );
+  }
+
+  /**
+   * @return the number of indexed channels
+   */
+  int getChannelCount() {
+    return channels.size();
+  }
+}
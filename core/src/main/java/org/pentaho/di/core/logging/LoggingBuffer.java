@@ -18,11 +18,11 @@ import org.apache.commons.lang3.mutable.MutableInt;
 import org.pentaho.di.core.Const;
 import org.pentaho.di.core.util.Utils;
 
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentSkipListMap;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.locks.ReadWriteLock;
@@ -41,9 +41,9 @@ public class LoggingBuffer {
 
   private ConcurrentSkipListMap<Integer, BufferLine> buffer;
 
-  //Keeps track of the lead line number sent for a tail.  So the next time it can start from there instead of filtering
-  //the entire buffer.  This matters when bufferSize is large
-  private Map<String, Integer> tailMap = new ConcurrentHashMap<>();
+  //Keeps the line numbers per log channel so the lines of a channel are found without filtering the entire buffer.
+  //This matters when bufferSize is large
+  private LogChannelLineIndex index;
 
   private ReadWriteLock lock = new ReentrantReadWriteLock();
 
@@ -53,11 +53,14 @@ public class LoggingBuffer {
 
   private List<KettleLoggingEventListener> eventListeners;
 
+  private volatile AsyncLoggingEventDispatcher dispatcher;
+
   private LoggingRegistry loggingRegistry = LoggingRegistry.getInstance();
 
   public LoggingBuffer( int bufferSize ) {
     this.bufferSize = bufferSize;
     buffer = new ConcurrentSkipListMap<>();
+    index = new LogChannelLineIndex( bufferSize );
     layout = new KettleLogLayout( true );
     eventListeners = new CopyOnWriteArrayList<>();
   }
@@ -99,32 +102,27 @@ public class LoggingBuffer {
     if ( from > to ) {
       return Collections.<KettleLoggingEvent>emptyList();
     }
-    Integer lastLineUsed;
-    if ( tailLines > 0 && !Utils.isEmpty( parentLogChannelId )
-      && ( lastLineUsed = tailMap.get( parentLogChannelId ) ) != null ) {
-      from = Math.max( from, lastLineUsed );
-    }
-
-    //System.out.println(
-    //  "****" + channelId.get( 0 ) + "   size:" + channelId.size() + "  general:" + includeGeneral + "  from:" + from
-    //    + "  to:" + to + "  tailLines: " + tailLines );
 
-    Stream<BufferLine> bufferStream = buffer.subMap( from, true, to, true ).values().stream();
     if ( !Utils.isEmpty( channelId ) ) {
-      bufferStream = bufferStream.filter( line -> {
-        String logChannelId = getLogChId( line );
-        return includeGeneral ? isGeneral( logChannelId ) || channelId.contains( logChannelId )
-          : channelId.contains( logChannelId );
-      } );
+      // Only the lines of the channels are looked at, not the whole range of the buffer
+      int[] lineNrs = index.getLineNrs( channelId, includeGeneral, from, to, tailLines );
+      List<KettleLoggingEvent> events = new ArrayList<>( lineNrs.length );
+      for ( int lineNr : lineNrs ) {
+        BufferLine line = buffer.get( lineNr );
+        if ( line != null ) {
+          events.add( line.getEvent() );
+        }
+      }
+      return events;
     }
 
+    Stream<BufferLine> bufferStream = buffer.subMap( from, true, to, true ).values().stream();
     if ( tailLines > 0 ) {
       //We have to make a list so we can get the line number since we can't tap a stream twice
       List<BufferLine> bl = bufferStream.collect( Collectors.toList() );
-      int count = bl.size();  //Is this expensive? Not sure but just compute it once
+      int count = bl.size();
       if ( count > tailLines ) {
         bl = bl.subList( count - tailLines, count );
-        tailMap.put( parentLogChannelId, bl.get( 0 ).getNr() ); //remember the first item so we can start there next time
       }
       return bl.stream().map( BufferLine:: getEvent ).collect( Collectors.toList() );
     }
@@ -211,9 +209,17 @@ public class LoggingBuffer {
   public void doAppend( KettleLoggingEvent event ) {
     if ( event.getMessage() instanceof LogMessage ) {
       BufferLine bufferLine = new BufferLine( event );
+      String logChannelId = getLogChId( bufferLine );
+      // Index first: another thread may evict the line as soon as it's in the buffer and that can only unindex it if
+      // it's indexed already. A reader skips numbers that have no line yet.
+      index.add( logChannelId, bufferLine.getNr(), logChannelId != null && isGeneral( logChannelId ) );
       buffer.put( bufferLine.getNr(), bufferLine );
       while ( bufferSize > 0 && buffer.size() > bufferSize ) {
-        buffer.remove( buffer.firstKey() );
+        Map.Entry<Integer, BufferLine> first = buffer.pollFirstEntry();
+        if ( first == null ) {
+          break;
+        }
+        unindex( first.getValue() );
       }
     }
   }
@@ -240,6 +246,7 @@ public class LoggingBuffer {
 
   public void clear() {
     buffer.clear();
+    index.clear();
   }
 
   /**
@@ -254,6 +261,7 @@ public class LoggingBuffer {
    */
   public void setMaxNrLines( int maxNrLines ) {
     this.bufferSize = maxNrLines;
+    index.setMaxLines( maxNrLines );
   }
 
   /**
@@ -269,14 +277,9 @@ public class LoggingBuffer {
    * @param id the id of the logging channel to remove
    */
   public void removeChannelFromBuffer( String id ) {
-    buffer.values().stream().filter( line -> id.equals( getLogChId( line ) ) ).forEach( line -> buffer.remove( line.getNr() ) );
-    tailMap.remove( id );
-
-/*    for ( BufferLine line : buffer.values() ) {
-      if ( id.equals( getLogChId( line ) ) ) {
-        buffer.remove( line.getNr() );
-      }
-    }*/
+    for ( int lineNr : index.removeChannel( id ) ) {
+      buffer.remove( lineNr );
+    }
   }
 
   public int size() {
@@ -284,10 +287,8 @@ public class LoggingBuffer {
   }
 
   public void removeGeneralMessages() {
-    for ( BufferLine line : buffer.values() ) {
-      if ( isGeneral( getLogChId( line ) ) ) {
-        buffer.remove( line.getNr() );
-      }
+    for ( int lineNr : index.getGeneralLineNrs() ) {
+      remove( lineNr );
     }
   }
 
@@ -326,7 +327,7 @@ public class LoggingBuffer {
    */
   @Deprecated
   public void removeBufferLines( List<BufferLine> linesToRemove ) {
-    linesToRemove.stream().forEach( v -> buffer.remove( v.getNr() ) );
+    linesToRemove.stream().forEach( v -> remove( v.getNr() ) );
   }
 
   /**
@@ -340,22 +341,90 @@ public class LoggingBuffer {
   }
 
   public void removeBufferLinesBefore( long minTimeBoundary ) {
-    buffer.values().stream().filter( v -> v.getEvent().timeStamp < minTimeBoundary ).forEach( v -> buffer.remove( v.getNr() ) );
+    buffer.values().stream().filter( v -> v.getEvent().timeStamp < minTimeBoundary ).forEach( v -> remove( v.getNr() ) );
+  }
+
+  private void remove( int lineNr ) {
+    BufferLine line = buffer.remove( lineNr );
+    if ( line != null ) {
+      unindex( line );
+    }
+  }
+
+  private void unindex( BufferLine line ) {
+    index.remove( getLogChId( line ), line.getNr() );
   }
 
   public void addLogggingEvent( KettleLoggingEvent loggingEvent ) {
     doAppend( loggingEvent );
-    eventListeners.forEach( event -> event.eventAdded( loggingEvent ) );
+    AsyncLoggingEventDispatcher asyncDispatcher = dispatcher;
+    if ( asyncDispatcher != null ) {
+      asyncDispatcher.dispatch( loggingEvent );
+    } else {
+      eventListeners.forEach( event -> event.eventAdded( loggingEvent ) );
+    }
   }
 
   public void addLoggingEventListener( KettleLoggingEventListener listener ) {
     eventListeners.add( listener );
   }
 
+  /**
+   * Removes a listener. When the events are dispatched asynchronously, the events logged so far are handed to the
+   * listener first so it can be closed right after.
+   */
   public void removeLoggingEventListener( KettleLoggingEventListener listener ) {
+    flush();
     eventListeners.remove( listener );
   }
 
+  /**
+   * Hand the events to the listeners in a separate thread from now on.
+   *
+   * @param queueSize
+   *          the maximum number of events waiting to be handed to the listeners
+   * @param overflowPolicy
+   *          what to do with an event when that many are waiting
+   */
+  public synchronized void startAsyncDispatch( int queueSize, AsyncLoggingEventDispatcher.OverflowPolicy overflowPolicy ) {
+    if ( dispatcher == null ) {
+      AsyncLoggingEventDispatcher asyncDispatcher =
+        new AsyncLoggingEventDispatcher( eventListeners, queueSize, overflowPolicy );
+      asyncDispatcher.start();
+      dispatcher = asyncDispatcher;
+    }
+  }
+
+  /**
+   * Hand the events still waiting to the listeners and go back to handing them over in the logging threads.
+   */
+  public synchronized void stopAsyncDispatch() {
+    AsyncLoggingEventDispatcher asyncDispatcher = dispatcher;
+    if ( asyncDispatcher != null ) {
+      dispatcher = null;
+      asyncDispatcher.close();
+    }
+  }
+
+  /**
+   * Wait until the events logged so far are handed to the listeners, only needed when they are dispatched
+   * asynchronously.
+   */
+  public void flush() {
+    AsyncLoggingEventDispatcher asyncDispatcher = dispatcher;
+    if ( asyncDispatcher != null ) {
+      asyncDispatcher.flush();
+    }
+  }
+
+  /**
+   * @return the asynchronous dispatcher of the events, to follow its queue depth and dropped events, or null if the
+   *         events are handed to the listeners in the logging threads
+   */
+  public AsyncLoggingEventDispatcher getAsyncDispatcher() {
+    return dispatcher;
+  }
+
   private boolean isGeneral( String logChannelId ) {
     LoggingObjectInterface loggingObject = loggingRegistry.getLoggingObject( logChannelId );
     return loggingObject != null && LoggingObjectType.GENERAL.equals( loggingObject.getObjectType() );
@@ -124,6 +124,17 @@ public class Metrics implements MetricsInterface {
     MetricsSnapshotType.START, "METRIC_STEP_INIT", "Initialize a step" );
   public static Metrics METRIC_STEP_INIT_STOP = new Metrics(
     MetricsSnapshotType.STOP, "METRIC_STEP_INIT", "Initialize a step" );
+  public static Metrics METRIC_STEP_LOOKUP_MEMORY = new Metrics(
+    MetricsSnapshotType.MAX, "METRIC_STEP_LOOKUP_MEMORY", "Memory used by the lookup data of a step (bytes)" );
+  public static Metrics METRIC_STEP_CACHE_HITS = new Metrics(
+    MetricsSnapshotType.SUM, "METRIC_STEP_CACHE_HITS", "Lookups answered from the cache of a step" );
+  public static Metrics METRIC_STEP_CACHE_MISSES = new Metrics(
+    MetricsSnapshotType.SUM, "METRIC_STEP_CACHE_MISSES", "Lookups not answered from the cache of a step" );
+  public static Metrics METRIC_STEP_THREADS = new Metrics(
+    MetricsSnapshotType.MAX, "METRIC_STEP_THREADS", "Step threads running in the JVM when a step thread started" );
+  public static Metrics METRIC_STEP_SCHEDULING_LATENCY = new Metrics(
+    MetricsSnapshotType.MAX, "METRIC_STEP_SCHEDULING_LATENCY",
+    "Time between creating a step thread and the thread running (microseconds)" );
 
   // Logging back-end
   //
@@ -156,6 +167,10 @@ public class Metrics implements MetricsInterface {
     MetricsSnapshotType.START, "METRIC_JOBENTRY_EXECUTION", "Execute a job entry" );
   public static Metrics METRIC_JOBENTRY_STOP = new Metrics(
     MetricsSnapshotType.STOP, "METRIC_JOBENTRY_EXECUTION", "Execute a job entry" );
+  public static Metrics METRIC_JOB_PARALLEL_ENTRIES_QUEUED = new Metrics(
+    MetricsSnapshotType.MAX, "METRIC_JOB_PARALLEL_ENTRIES_QUEUED", "Job entries waiting to be launched in parallel" );
+  public static Metrics METRIC_JOB_PARALLEL_ENTRIES_RUNNING = new Metrics(
+    MetricsSnapshotType.MAX, "METRIC_JOB_PARALLEL_ENTRIES_RUNNING", "Job entries running in parallel" );
 
   private String code;
   private String description;
@@ -145,6 +145,7 @@ public class ValueMetaBase implements ValueMetaInterface {
   protected boolean ignoreTimezone;
   protected boolean emptyStringAndNullAreDifferent;
   protected boolean ignoreOutOfRange;
+  protected boolean fastStringConversion;
 
   protected SimpleDateFormat dateFormat;
   protected boolean dateFormatChanged;
@@ -152,6 +153,9 @@ public class ValueMetaBase implements ValueMetaInterface {
   protected DecimalFormat decimalFormat;
   protected boolean decimalFormatChanged;
 
+  private volatile ValueMetaParserCache.DateParser dateParser;
+  private volatile ValueMetaParserCache.NumberParser numberParser;
+
   protected ValueMetaInterface storageMetadata;
   protected boolean identicalFormat;
 
@@ -241,6 +245,8 @@ public class ValueMetaBase implements ValueMetaInterface {
       "Y".equalsIgnoreCase( System.getProperty( Const.KETTLE_EMPTY_STRING_DIFFERS_FROM_NULL, "N" ) );
     this.ignoreOutOfRange =
       "Y".equalsIgnoreCase( System.getProperty( Const.KETTLE_IGNORE_OUT_OF_RANGE_EXCEPTION, "N" ) );
+    this.fastStringConversion =
+      "Y".equalsIgnoreCase( System.getProperty( Const.KETTLE_FAST_STRING_CONVERSION, "N" ) );
 
 
     this.comparator = comparator;
@@ -763,6 +769,13 @@ public class ValueMetaBase implements ValueMetaInterface {
     this.collatorDisabled = collatorDisabled;
   }
 
+  /**
+   * @return the custom comparator used to compare values or null if the data type comparison is used
+   */
+  public Comparator<Object> getComparator() {
+    return comparator;
+  }
+
   @Override
   public Locale getCollatorLocale() {
     return this.collatorLocale;
@@ -910,7 +923,7 @@ public class ValueMetaBase implements ValueMetaInterface {
     return compatibleDateFormat.format( date );
   }
 
-  protected synchronized Date convertStringToDate( String string ) throws KettleValueException {
+  protected Date convertStringToDate( String string ) throws KettleValueException {
     string = Const.trimToType( string, getTrimType() ); // see if trimming needs
     // to be performed before
     // conversion
@@ -919,6 +932,16 @@ public class ValueMetaBase implements ValueMetaInterface {
       return null;
     }
 
+    if ( fastStringConversion && conversionMetadata == null ) {
+      Date date = getDateParser().parse( string );
+      if ( date != null ) {
+        return date;
+      }
+    }
+    return parseStringToDate( string );
+  }
+
+  private synchronized Date parseStringToDate( String string ) throws KettleValueException {
     try {
       ParsePosition pp = new ParsePosition( 0 );
       Date result = getDateFormat( TYPE_DATE ).parse( string, pp );
@@ -1006,7 +1029,7 @@ public class ValueMetaBase implements ValueMetaInterface {
     return Double.toString( number );
   }
 
-  protected synchronized Double convertStringToNumber( String string ) throws KettleValueException {
+  protected Double convertStringToNumber( String string ) throws KettleValueException {
     string = Const.trimToType( string, getTrimType() ); // see if trimming needs
     // to be performed before
     // conversion
@@ -1015,6 +1038,16 @@ public class ValueMetaBase implements ValueMetaInterface {
       return null;
     }
 
+    if ( fastStringConversion && conversionMetadata == null ) {
+      Double number = getNumberParser().parseNumber( string );
+      if ( number != null ) {
+        return number;
+      }
+    }
+    return parseStringToNumber( string );
+  }
+
+  private synchronized Double parseStringToNumber( String string ) throws KettleValueException {
     try {
       DecimalFormat format = getDecimalFormat( false );
       Number number;
@@ -1114,32 +1147,63 @@ public class ValueMetaBase implements ValueMetaInterface {
     // hungry.
     //
     if ( decimalFormat == null || decimalFormatChanged ) {
-      decimalFormat = (DecimalFormat) NumberFormat.getInstance();
-      decimalFormat.setParseBigDecimal( useBigDecimal );
-      DecimalFormatSymbols decimalFormatSymbols = decimalFormat.getDecimalFormatSymbols();
+      decimalFormat =
+        createDecimalFormat( getMask( getType() ), decimalSymbol, groupingSymbol, currencySymbol, useBigDecimal );
+      decimalFormatChanged = false;
+    }
 
-      if ( !Utils.isEmpty( currencySymbol ) ) {
-        decimalFormatSymbols.setCurrencySymbol( currencySymbol );
-      }
-      if ( !Utils.isEmpty( groupingSymbol ) ) {
-        decimalFormatSymbols.setGroupingSeparator( groupingSymbol.charAt( 0 ) );
-      }
-      if ( !Utils.isEmpty( decimalSymbol ) ) {
-        decimalFormatSymbols.setDecimalSeparator( decimalSymbol.charAt( 0 ) );
-      }
-      decimalFormat.setDecimalFormatSymbols( decimalFormatSymbols );
+    return decimalFormat;
+  }
 
-      String decimalPattern = getMask( getType() );
-      if ( !Utils.isEmpty( decimalPattern ) ) {
-        decimalFormat.applyPattern( decimalPattern );
-      }
+  static DecimalFormat createDecimalFormat( String mask, String decimalSymbol, String groupingSymbol,
+    String currencySymbol, boolean useBigDecimal ) {
+    DecimalFormat decimalFormat = (DecimalFormat) NumberFormat.getInstance();
+    decimalFormat.setParseBigDecimal( useBigDecimal );
+    DecimalFormatSymbols decimalFormatSymbols = decimalFormat.getDecimalFormatSymbols();
 
-      decimalFormatChanged = false;
+    if ( !Utils.isEmpty( currencySymbol ) ) {
+      decimalFormatSymbols.setCurrencySymbol( currencySymbol );
+    }
+    if ( !Utils.isEmpty( groupingSymbol ) ) {
+      decimalFormatSymbols.setGroupingSeparator( groupingSymbol.charAt( 0 ) );
+    }
+    if ( !Utils.isEmpty( decimalSymbol ) ) {
+      decimalFormatSymbols.setDecimalSeparator( decimalSymbol.charAt( 0 ) );
     }
+    decimalFormat.setDecimalFormatSymbols( decimalFormatSymbols );
 
+    if ( !Utils.isEmpty( mask ) ) {
+      decimalFormat.applyPattern( mask );
+    }
     return decimalFormat;
   }
 
+  /**
+   * @return the shared parser for the date mask, locale and time zone of this value
+   */
+  private ValueMetaParserCache.DateParser getDateParser() {
+    String mask = getMask( TYPE_DATE );
+    ValueMetaParserCache.DateParser parser = dateParser;
+    if ( parser == null || !parser.matches( mask, dateFormatLocale, dateFormatTimeZone ) ) {
+      parser = ValueMetaParserCache.getDateParser( mask, dateFormatLocale, dateFormatTimeZone );
+      dateParser = parser;
+    }
+    return parser;
+  }
+
+  /**
+   * @return the shared parser for the number mask and symbols of this value
+   */
+  private ValueMetaParserCache.NumberParser getNumberParser() {
+    String mask = getMask( getType() );
+    ValueMetaParserCache.NumberParser parser = numberParser;
+    if ( parser == null || !parser.matches( mask, decimalSymbol, groupingSymbol, currencySymbol ) ) {
+      parser = ValueMetaParserCache.getNumberParser( mask, decimalSymbol, groupingSymbol, currencySymbol );
+      numberParser = parser;
+    }
+    return parser;
+  }
+
   @Override
   public String getFormatMask() {
     return getMask( getType() );
@@ -1319,7 +1383,7 @@ public class ValueMetaBase implements ValueMetaInterface {
     return Long.toString( integer );
   }
 
-  protected synchronized Long convertStringToInteger( String string ) throws KettleValueException {
+  protected Long convertStringToInteger( String string ) throws KettleValueException {
     string = Const.trimToType( string, getTrimType() ); // see if trimming needs
     // to be performed before
     // conversion
@@ -1328,6 +1392,16 @@ public class ValueMetaBase implements ValueMetaInterface {
       return null;
     }
 
+    if ( fastStringConversion && conversionMetadata == null ) {
+      Long integer = getNumberParser().parseInteger( string );
+      if ( integer != null ) {
+        return integer;
+      }
+    }
+    return parseStringToInteger( string );
+  }
+
+  private synchronized Long parseStringToInteger( String string ) throws KettleValueException {
     try {
       Number number;
       if ( lenientStringToNumber ) {
@@ -4693,6 +4767,23 @@ public class ValueMetaBase implements ValueMetaInterface {
     this.lenientStringToNumber = lenientStringToNumber;
   }
 
+  /**
+   * @return true if strings in the common date and number formats are converted with the shared, lock free parsers of
+   *         {@link ValueMetaParserCache}
+   */
+  public boolean isFastStringConversion() {
+    return fastStringConversion;
+  }
+
+  /**
+   * @param fastStringConversion
+   *          true to convert strings in the common date and number formats with the shared, lock free parsers of
+   *          {@link ValueMetaParserCache}, the other strings are converted as before
+   */
+  public void setFastStringConversion( boolean fastStringConversion ) {
+    this.fastStringConversion = fastStringConversion;
+  }
+
   /**
    * @return the date format time zone
    */
@@ -0,0 +1,555 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.di.core.row.value;
+
+import java.text.DecimalFormat;
+import java.text.DecimalFormatSymbols;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.zone.ZoneOffsetTransition;
+import java.time.zone.ZoneRules;
+import java.util.Calendar;
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.TimeZone;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Global cache of compiled, immutable parsers for the string to date, number and integer conversions of
+ * {@link ValueMetaBase}. The parsers are shared by all threads and don't lock.<br>
+ * <br>
+ * A parser only handles the canonical form of a value for the common masks: fixed width numeric date fields like
+ * yyyy/MM/dd HH:mm:ss.SSS and plain decimal numbers like -1234.56. For these values the result is the same as with the
+ * {@link java.text.SimpleDateFormat} or {@link DecimalFormat} of the value metadata. For any other value or mask the
+ * parser returns null and the conversion falls back to the legacy formats, lenient parsing and error messages included.
+ *
+ * @since 11.1
+ */
+public class ValueMetaParserCache {
+  private static final int MAX_CACHE_SIZE = 1000;
+
+  private static final ConcurrentHashMap<DateKey, DateParser> dateParsers = new ConcurrentHashMap<>();
+  private static final ConcurrentHashMap<NumberKey, NumberParser> numberParsers = new ConcurrentHashMap<>();
+
+  private ValueMetaParserCache() {
+  }
+
+  /**
+   * @param mask
+   *          the date mask
+   * @param locale
+   *          the locale of the date format, null for the default locale
+   * @param timeZone
+   *          the time zone of the date format, null for the default time zone
+   * @return the shared parser for the mask
+   */
+  public static DateParser getDateParser( String mask, Locale locale, TimeZone timeZone ) {
+    DateKey key = new DateKey( mask, locale, timeZone );
+    DateParser parser = dateParsers.get( key );
+    if ( parser == null ) {
+      if ( dateParsers.size() >= MAX_CACHE_SIZE ) {
+        dateParsers.clear();
+      }
+      parser = dateParsers.computeIfAbsent( key, DateParser::new );
+    }
+    return parser;
+  }
+
+  /**
+   * @param mask
+   *          the number mask
+   * @param decimalSymbol
+   *          the decimal symbol
+   * @param groupingSymbol
+   *          the grouping symbol
+   * @param currencySymbol
+   *          the currency symbol
+   * @return the shared parser for the mask
+   */
+  public static NumberParser getNumberParser( String mask, String decimalSymbol, String groupingSymbol,
+    String currencySymbol ) {
+    NumberKey key = new NumberKey( mask, decimalSymbol, groupingSymbol, currencySymbol );
+    NumberParser parser = numberParsers.get( key );
+    if ( parser == null ) {
+      if ( numberParsers.size() >= MAX_CACHE_SIZE ) {
+        numberParsers.clear();
+      }
+      parser = numberParsers.computeIfAbsent( key, NumberParser::new );
+    }
+    return parser;
+  }
+
+  private static final class DateKey {
+    private final String mask;
+    private final Locale locale;
+    private final TimeZone timeZone;
+
+    private DateKey( String mask, Locale locale, TimeZone timeZone ) {
+      this.mask = mask;
+      this.locale = locale == null || locale.equals( Locale.getDefault() )
+        ? Locale.getDefault( Locale.Category.FORMAT ) : locale;
+      this.timeZone = timeZone == null ? TimeZone.getDefault() : timeZone;
+    }
+
+    private boolean matches( String mask, Locale locale, TimeZone timeZone ) {
+      return Objects.equals( this.mask, mask )
+        && ( locale == null || locale.equals( Locale.getDefault() )
+          ? this.locale.equals( Locale.getDefault( Locale.Category.FORMAT ) ) : this.locale.equals( locale ) )
+        && this.timeZone.equals( timeZone == null ? TimeZone.getDefault() : timeZone );
+    }
+
+    @Override
+    public boolean equals( Object obj ) {
+      if ( !( obj instanceof DateKey ) ) {
+        return false;
+      }
+      DateKey other = (DateKey) obj;
+      return Objects.equals( mask, other.mask ) && locale.equals( other.locale ) && timeZone.equals( other.timeZone );
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash( mask, locale, timeZone.getID() );
+    }
+  }
+
+  private static final class NumberKey {
+    private final String mask;
+    private final String decimalSymbol;
+    private final String groupingSymbol;
+    private final String currencySymbol;
+    private final Locale locale;
+
+    private NumberKey( String mask, String decimalSymbol, String groupingSymbol, String currencySymbol ) {
+      this.mask = mask;
+      this.decimalSymbol = decimalSymbol;
+      this.groupingSymbol = groupingSymbol;
+      this.currencySymbol = currencySymbol;
+      this.locale = Locale.getDefault( Locale.Category.FORMAT );
+    }
+
+    private boolean matches( String mask, String decimalSymbol, String groupingSymbol, String currencySymbol ) {
+      return Objects.equals( this.mask, mask ) && Objects.equals( this.decimalSymbol, decimalSymbol )
+        && Objects.equals( this.groupingSymbol, groupingSymbol )
+        && Objects.equals( this.currencySymbol, currencySymbol )
+        && locale.equals( Locale.getDefault( Locale.Category.FORMAT ) );
+    }
+
+    @Override
+    public boolean equals( Object obj ) {
+      if ( !( obj instanceof NumberKey ) ) {
+        return false;
+      }
+      NumberKey other = (NumberKey) obj;
+      return Objects.equals( mask, other.mask ) && Objects.equals( decimalSymbol, other.decimalSymbol )
+        && Objects.equals( groupingSymbol, other.groupingSymbol )
+        && Objects.equals( currencySymbol, other.currencySymbol ) && locale.equals( other.locale );
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash( mask, decimalSymbol, groupingSymbol, currencySymbol, locale );
+    }
+  }
+
+  /**
+   * Parses dates with a mask made of yyyy, MM, dd, HH, mm, ss and SSS fields separated by literals.
+   */
+  public static final class DateParser {
+    private static final int YEAR = 0;
+    private static final int MONTH = 1;
+    private static final int DAY = 2;
+    private static final int HOUR = 3;
+    private static final int MINUTE = 4;
+    private static final int SECOND = 5;
+    private static final int MILLISECOND = 6;
+
+    private static final int[] DEFAULTS = { 1970, 1, 1, 0, 0, 0, 0 };
+    private static final int MIN_YEAR = 1900;
+
+    /**
+     * A range of local times that all have the same offset from UTC.
+     */
+    private static final class OffsetWindow {
+      private final long from;
+      private final long to;
+      private final int offset;
+
+      private OffsetWindow( long from, long to, int offset ) {
+        this.from = from;
+        this.to = to;
+        this.offset = offset;
+      }
+    }
+
+    private final DateKey key;
+    private final boolean supported;
+    private final int length;
+    private final int[] fields;
+    private final int[] widths;
+    private final char[] literals;
+    private final ZoneRules rules;
+
+    private volatile OffsetWindow window;
+
+    private DateParser( DateKey key ) {
+      this.key = key;
+      this.length = key.mask == null ? 0 : key.mask.length();
+
+      int[] fields = new int[length];
+      int[] widths = new int[length];
+      char[] literals = new char[length];
+      ZoneRules rules = null;
+      boolean supported = key.mask != null && isSupportedCalendar( key.locale, key.timeZone );
+      boolean[] seen = new boolean[DEFAULTS.length];
+      for ( int i = 0; supported && i < length; ) {
+        char c = key.mask.charAt( i );
+        int end = i;
+        while ( end < length && key.mask.charAt( end ) == c ) {
+          end++;
+        }
+        int field = getField( c, end - i );
+        if ( ( c >= 'a' && c <= 'z' ) || ( c >= 'A' && c <= 'Z' ) || c == '\'' ) {
+          if ( field < 0 || seen[field] ) {
+            supported = false;
+          } else {
+            seen[field] = true;
+            fields[i] = field;
+            widths[i] = end - i;
+          }
+          i = end;
+        } else {
+          fields[i] = -1;
+          literals[i] = c;
+          i++;
+        }
+      }
+      if ( supported ) {
+        rules = key.timeZone.toZoneId().getRules();
+      }
+
+      this.supported = supported;
+      this.fields = fields;
+      this.widths = widths;
+      this.literals = literals;
+      this.rules = rules;
+    }
+
+    private static int getField( char c, int width ) {
+      switch ( c ) {
+        case 'y':
+          return width == 4 ? YEAR : -1;
+        case 'M':
+          return width == 2 ? MONTH : -1;
+        case 'd':
+          return width == 2 ? DAY : -1;
+        case 'H':
+          return width == 2 ? HOUR : -1;
+        case 'm':
+          return width == 2 ? MINUTE : -1;
+        case 's':
+          return width == 2 ? SECOND : -1;
+        case 'S':
+          return width == 3 ? MILLISECOND : -1;
+        default:
+          return -1;
+      }
+    }
+
+    /**
+     * The calendar of the locale has to be the Gregorian one (not the Thai Buddhist one for example), the time zone
+     * has to be a standard one that java.time knows the same rules of.
+     */
+    private static boolean isSupportedCalendar( Locale locale, TimeZone timeZone ) {
+      if ( !"gregory".equals( Calendar.getInstance( timeZone, locale ).getCalendarType() ) ) {
+        return false;
+      }
+      TimeZone standard = TimeZone.getTimeZone( timeZone.getID() );
+      return standard.getID().equals( timeZone.getID() ) && standard.hasSameRules( timeZone );
+    }
+
+    /**
+     * @return true if the parser was compiled for these settings
+     */
+    boolean matches( String mask, Locale locale, TimeZone timeZone ) {
+      return key.matches( mask, locale, timeZone );
+    }
+
+    /**
+     * @param string
+     *          the trimmed value
+     * @return the date or null if the value isn't in the canonical form of the mask, or is out of range
+     */
+    public java.util.Date parse( String string ) {
+      if ( !supported || string.length() != length ) {
+        return null;
+      }
+      int year = DEFAULTS[YEAR];
+      int month = DEFAULTS[MONTH];
+      int day = DEFAULTS[DAY];
+      int hour = DEFAULTS[HOUR];
+      int minute = DEFAULTS[MINUTE];
+      int second = DEFAULTS[SECOND];
+      int millisecond = DEFAULTS[MILLISECOND];
+      for ( int i = 0; i < length; ) {
+        int field = fields[i];
+        if ( field < 0 ) {
+          if ( string.charAt( i ) != literals[i] ) {
+            return null;
+          }
+          i++;
+          continue;
+        }
+        int value = 0;
+        for ( int end = i + widths[i]; i < end; i++ ) {
+          int digit = string.charAt( i ) - '0';
+          if ( digit < 0 || digit > 9 ) {
+            return null;
+          }
+          value = value * 10 + digit;
+        }
+        switch ( field ) {
+          case YEAR:
+            year = value;
+            break;
+          case MONTH:
+            month = value;
+            break;
+          case DAY:
+            day = value;
+            break;
+          case HOUR:
+            hour = value;
+            break;
+          case MINUTE:
+            minute = value;
+            break;
+          case SECOND:
+            second = value;
+            break;
+          default:
+            millisecond = value;
+            break;
+        }
+      }
+      // The time zones of the legacy calendar have no history before 1900 (no local mean time) and it switches to the
+      // Julian calendar before 1582. Out of range values are either errors or rolled over by a lenient format.
+      if ( year < MIN_YEAR || month < 1 || month > 12 || day < 1 || day > daysInMonth( year, month ) || hour > 23
+        || minute > 59 || second > 59 ) {
+        return null;
+      }
+
+      long localSecond = daysSinceEpoch( year, month, day ) * 86400L + hour * 3600 + minute * 60 + second;
+      OffsetWindow offsetWindow = getOffsetWindow( localSecond );
+      if ( offsetWindow == null ) {
+        return null;
+      }
+      return new java.util.Date( ( localSecond - offsetWindow.offset ) * 1000L + millisecond );
+    }
+
+    /**
+     * @return the range of local times around the time with a single offset, null if the time is in a gap or an
+     *         overlap of a transition
+     */
+    private OffsetWindow getOffsetWindow( long localSecond ) {
+      OffsetWindow offsetWindow = window;
+      if ( offsetWindow != null && localSecond >= offsetWindow.from && localSecond < offsetWindow.to ) {
+        return offsetWindow;
+      }
+      List<ZoneOffset> offsets = rules.getValidOffsets( LocalDateTime.ofEpochSecond( localSecond, 0, ZoneOffset.UTC ) );
+      if ( offsets.size() != 1 ) {
+        return null;
+      }
+      int offset = offsets.get( 0 ).getTotalSeconds();
+      Instant instant = Instant.ofEpochSecond( localSecond - offset );
+      ZoneOffsetTransition previous = rules.previousTransition( instant.plusSeconds( 1 ) );
+      ZoneOffsetTransition next = rules.nextTransition( instant );
+      long from = previous == null ? Long.MIN_VALUE
+        : previous.toEpochSecond() + Math.max( offset, previous.getOffsetBefore().getTotalSeconds() );
+      long to = next == null ? Long.MAX_VALUE
+        : next.toEpochSecond() + Math.min( offset, next.getOffsetAfter().getTotalSeconds() );
+      offsetWindow = new OffsetWindow( from, to, offset );
+      if ( localSecond >= from && localSecond < to ) {
+        window = offsetWindow;
+      }
+      return offsetWindow;
+    }
+
+    private static int daysInMonth( int year, int month ) {
+      switch ( month ) {
+        case 2:
+          return ( year % 4 == 0 && ( year % 100 != 0 || year % 400 == 0 ) ) ? 29 : 28;
+        case 4:
+        case 6:
+        case 9:
+        case 11:
+          return 30;
+        default:
+          return 31;
+      }
+    }
+
+    private static long daysSinceEpoch( int year, int month, int day ) {
+      // Days from civil, proleptic Gregorian calendar
+      int y = month <= 2 ? year - 1 : year;
+      int era = y / 400;
+      int yearOfEra = y - era * 400;
+      int dayOfYear = ( 153 * ( month + ( month > 2 ? -3 : 9 ) ) + 2 ) / 5 + day - 1;
+      int dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+      return era * 146097L + dayOfEra - 719468;
+    }
+  }
+
+  /**
+   * Parses plain decimal numbers: an optional minus sign, digits and optionally the decimal symbol followed by digits.
+   */
+  public static final class NumberParser {
+    private static final long MAX_EXACT_MANTISSA = 1L << 53;
+    private static final double[] POWERS_OF_TEN = {
+      1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11, 1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19,
+      1e20, 1e21, 1e22 };
+    private static final int MAX_INTEGER_DIGITS = 18;
+
+    private final NumberKey key;
+    private final boolean supported;
+    private final boolean negativeSupported;
+    private final char decimalSeparator;
+
+    private NumberParser( NumberKey key ) {
+      this.key = key;
+      boolean supported = false;
+      boolean negativeSupported = false;
+      char decimalSeparator = 0;
+      try {
+        DecimalFormat format =
+          ValueMetaBase.createDecimalFormat( key.mask, key.decimalSymbol, key.groupingSymbol, key.currencySymbol,
+            false );
+        DecimalFormatSymbols symbols = format.getDecimalFormatSymbols();
+        decimalSeparator = symbols.getDecimalSeparator();
+        supported = format.getPositivePrefix().isEmpty() && format.getPositiveSuffix().isEmpty()
+          && format.getMultiplier() == 1 && !format.isParseIntegerOnly() && format.toPattern().indexOf( 'E' ) < 0
+          && decimalSeparator != '-' && !Character.isDigit( decimalSeparator )
+          && !( format.isGroupingUsed() && symbols.getGroupingSeparator() == decimalSeparator );
+        negativeSupported = "-".equals( format.getNegativePrefix() ) && format.getNegativeSuffix().isEmpty();
+      } catch ( IllegalArgumentException e ) {
+        // Invalid mask, the legacy conversion reports it
+        supported = false;
+      }
+      this.supported = supported;
+      this.negativeSupported = negativeSupported;
+      this.decimalSeparator = decimalSeparator;
+    }
+
+    /**
+     * @return true if the parser was compiled for these settings
+     */
+    boolean matches( String mask, String decimalSymbol, String groupingSymbol, String currencySymbol ) {
+      return key.matches( mask, decimalSymbol, groupingSymbol, currencySymbol );
+    }
+
+    /**
+     * @param string
+     *          the trimmed value
+     * @return the number or null if the value isn't a plain decimal number that converts exactly
+     */
+    public Double parseNumber( String string ) {
+      if ( !supported ) {
+        return null;
+      }
+      int length = string.length();
+      int i = 0;
+      boolean negative = false;
+      if ( length > 0 && string.charAt( 0 ) == '-' ) {
+        if ( !negativeSupported ) {
+          return null;
+        }
+        negative = true;
+        i++;
+      }
+      long mantissa = 0;
+      int integerDigits = 0;
+      int fractionDigits = 0;
+      for ( ; i < length; i++ ) {
+        char c = string.charAt( i );
+        if ( c >= '0' && c <= '9' ) {
+          mantissa = mantissa * 10 + ( c - '0' );
+          if ( mantissa > MAX_EXACT_MANTISSA ) {
+            return null;
+          }
+          integerDigits++;
+        } else if ( c == decimalSeparator && integerDigits > 0 ) {
+          break;
+        } else {
+          return null;
+        }
+      }
+      if ( integerDigits == 0 ) {
+        return null;
+      }
+      if ( i < length ) {
+        for ( i++; i < length; i++ ) {
+          char c = string.charAt( i );
+          if ( c < '0' || c > '9' ) {
+            return null;
+          }
+          mantissa = mantissa * 10 + ( c - '0' );
+          if ( mantissa > MAX_EXACT_MANTISSA || ++fractionDigits >= POWERS_OF_TEN.length ) {
+            return null;
+          }
+        }
+        if ( fractionDigits == 0 ) {
+          return null;
+        }
+      }
+      // Both are exact doubles so the division is correctly rounded, like the parsing of DecimalFormat
+      double value = mantissa / POWERS_OF_TEN[fractionDigits];
+      return negative ? -value : value;
+    }
+
+    /**
+     * @param string
+     *          the trimmed value
+     * @return the integer or null if the value isn't a plain integer that fits in a long
+     */
+    public Long parseInteger( String string ) {
+      if ( !supported ) {
+        return null;
+      }
+      int length = string.length();
+      int i = 0;
+      boolean negative = false;
+      if ( length > 0 && string.charAt( 0 ) == '-' ) {
+        if ( !negativeSupported ) {
+          return null;
+        }
+        negative = true;
+        i++;
+      }
+      if ( i == length || length - i > MAX_INTEGER_DIGITS ) {
+        return null;
+      }
+      long value = 0;
+      for ( ; i < length; i++ ) {
+        char c = string.charAt( i );
+        if ( c < '0' || c > '9' ) {
+          return null;
+        }
+        value = value * 10 + ( c - '0' );
+      }
+      return negative ? -value : value;
+    }
+  }
+}
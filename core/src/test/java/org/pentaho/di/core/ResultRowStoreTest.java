@@ -0,0 +1,149 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+
+package org.pentaho.di.core;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.pentaho.di.core.row.RowMeta;
+import org.pentaho.di.core.row.RowMetaInterface;
+import org.pentaho.di.core.row.value.ValueMetaInteger;
+import org.pentaho.di.core.row.value.ValueMetaString;
+import org.pentaho.di.junit.rules.RestorePDIEnvironment;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class ResultRowStoreTest {
+  @ClassRule public static RestorePDIEnvironment env = new RestorePDIEnvironment();
+
+  private static RowMetaInterface createRowMeta() {
+    RowMetaInterface rowMeta = new RowMeta();
+    rowMeta.addValueMeta( new ValueMetaInteger( "id" ) );
+    rowMeta.addValueMeta( new ValueMetaString( "name" ) );
+    return rowMeta;
+  }
+
+  private static RowMetaAndData createRow( RowMetaInterface rowMeta, long id ) {
+    return new RowMetaAndData( rowMeta, id, id % 7 == 0 ? null : "name " + id );
+  }
+
+  private static void assertRow( long id, RowMetaAndData row ) {
+    assertEquals( id, row.getData()[0] );
+    assertEquals( id % 7 == 0 ? null : "name " + id, row.getData()[1] );
+  }
+
+  @Test
+  public void testRowsStayInMemoryBelowThreshold() {
+    RowMetaInterface rowMeta = createRowMeta();
+    ResultRowStore store = new ResultRowStore( 10 );
+    RowMetaAndData first = createRow( rowMeta, 0 );
+    store.add( first );
+    for ( int i = 1; i < 10; i++ ) {
+      store.add( createRow( rowMeta, i ) );
+    }
+
+    assertFalse( store.isSpilled() );
+    assertEquals( 10, store.size() );
+    assertSame( first, store.get( 0 ) );
+  }
+
+  @Test
+  public void testSpilledRowsAreReadBack() {
+    RowMetaInterface rowMeta = createRowMeta();
+    ResultRowStore store = new ResultRowStore( 100 );
+    for ( int i = 0; i < 1000; i++ ) {
+      store.add( createRow( rowMeta, i ) );
+    }
+    assertTrue( store.isSpilled() );
+    assertEquals( 1000, store.size() );
+
+    // In order, in any order and iterating
+    for ( int i = 0; i < 1000; i++ ) {
+      assertRow( i, store.get( i ) );
+    }
+    assertRow( 999, store.get( 999 ) );
+    assertRow( 3, store.get( 3 ) );
+    assertRow( 600, store.get( 600 ) );
+    assertRow( 257, store.get( 257 ) );
+
+    int id = 0;
+    for ( RowMetaAndData row : store ) {
+      assertRow( id++, row );
+      assertSame( rowMeta, row.getRowMeta() );
+    }
+    assertEquals( 1000, id );
+
+    // Rows can still be appended while reading
+    Iterator<RowMetaAndData> iterator = store.iterator();
+    assertRow( 0, iterator.next() );
+    store.add( createRow( rowMeta, 1000 ) );
+    assertRow( 1000, store.get( 1000 ) );
+    assertRow( 1, iterator.next() );
+
+    store.clear();
+    assertFalse( store.isSpilled() );
+    assertEquals( 0, store.size() );
+  }
+
+  @Test
+  public void testSpilledRowsKeepTheirMetadata() {
+    RowMetaInterface rowMeta = createRowMeta();
+    RowMetaInterface otherRowMeta = new RowMeta();
+    otherRowMeta.addValueMeta( new ValueMetaString( "code" ) );
+
+    ResultRowStore store = new ResultRowStore( 2 );
+    store.add( createRow( rowMeta, 1 ) );
+    store.add( new RowMetaAndData( otherRowMeta, "A" ) );
+    store.add( createRow( rowMeta, 2 ) );
+
+    assertTrue( store.isSpilled() );
+    assertSame( otherRowMeta, store.get( 1 ).getRowMeta() );
+    assertEquals( "A", store.get( 1 ).getData()[0] );
+    assertSame( rowMeta, store.get( 2 ).getRowMeta() );
+    assertRow( 2, store.get( 2 ) );
+  }
+
+  @Test
+  public void testCopyAndResultClone() {
+    RowMetaInterface rowMeta = createRowMeta();
+    List<RowMetaAndData> rows = new ArrayList<>();
+    for ( int i = 0; i < 5; i++ ) {
+      rows.add( createRow( rowMeta, i ) );
+    }
+    ResultRowStore store = new ResultRowStore( rows );
+    assertEquals( rows, store );
+
+    Result result = new Result();
+    result.setRows( store );
+    Result clone = result.clone();
+    assertEquals( 5, clone.getRows().size() );
+    assertRow( 4, clone.getRows().get( 4 ) );
+  }
+
+  @Test( expected = UnsupportedOperationException.class )
+  public void testSpilledRowsCantBeChanged() {
+    RowMetaInterface rowMeta = createRowMeta();
+    ResultRowStore store = new ResultRowStore( 1 );
+    store.add( createRow( rowMeta, 1 ) );
+    store.add( createRow( rowMeta, 2 ) );
+    store.set( 0, createRow( rowMeta, 3 ) );
+  }
+}
@@ -0,0 +1,190 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.di.core;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.pentaho.di.core.row.RowMeta;
+import org.pentaho.di.core.row.RowMetaInterface;
+import org.pentaho.di.core.row.value.ValueMetaInteger;
+import org.pentaho.di.junit.rules.RestorePDIEnvironment;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test class for the lock-free single producer / single consumer row set.
+ */
+public class RingBufferRowSetTest {
+  @ClassRule public static RestorePDIEnvironment env = new RestorePDIEnvironment();
+
+  private RowMetaInterface createRowMetaInterface() {
+    RowMetaInterface rm = new RowMeta();
+    rm.addValueMeta( new ValueMetaInteger( "ROWNR" ) );
+    return rm;
+  }
+
+  @Test
+  public void testBasicCreation() {
+    RowSet set = new RingBufferRowSet( 10 );
+
+    assertFalse( set.isDone() );
+    assertEquals( 0, set.size() );
+    assertNull( set.getRowImmediate() );
+  }
+
+  @Test
+  public void testCapacityIsRespected() {
+    RowSet set = new RingBufferRowSet( 3, RingBufferRowSet.WaitStrategy.YIELD );
+    RowMetaInterface rm = createRowMetaInterface();
+
+    assertTrue( set.putRowWait( rm, new Object[] { 1L }, 1, TimeUnit.MILLISECONDS ) );
+    assertTrue( set.putRowWait( rm, new Object[] { 2L }, 1, TimeUnit.MILLISECONDS ) );
+    assertTrue( set.putRowWait( rm, new Object[] { 3L }, 1, TimeUnit.MILLISECONDS ) );
+    assertEquals( 3, set.size() );
+
+    // The buffer holds 3 rows even though the ring is 4 slots long
+    assertFalse( set.putRowWait( rm, new Object[] { 4L }, 1, TimeUnit.MILLISECONDS ) );
+    assertSame( rm, set.getRowMeta() );
+
+    assertArrayEquals( new Object[] { 1L }, set.getRowImmediate() );
+    assertTrue( set.putRowWait( rm, new Object[] { 4L }, 1, TimeUnit.MILLISECONDS ) );
+
+    assertArrayEquals( new Object[] { 2L }, set.getRow() );
+    assertArrayEquals( new Object[] { 3L }, set.getRow() );
+    assertArrayEquals( new Object[] { 4L }, set.getRowWait( 1, TimeUnit.MILLISECONDS ) );
+    assertNull( set.getRowWait( 1, TimeUnit.MILLISECONDS ) );
+    assertEquals( 0, set.size() );
+  }
+
+  @Test
+  public void testPutRowsAndDrain() {
+    RowSet set = new RingBufferRowSet( 3 );
+    RowMetaInterface rm = createRowMetaInterface();
+    List<Object[]> rows =
+      Arrays.asList( new Object[] { 1L }, new Object[] { 2L }, new Object[] { 3L }, new Object[] { 4L } );
+
+    // Only 3 rows fit
+    assertEquals( 3, set.putRowsWait( rm, rows, 0, 1, TimeUnit.MILLISECONDS ) );
+    assertEquals( 0, set.putRowsWait( rm, rows, 3, 1, TimeUnit.MILLISECONDS ) );
+
+    List<Object[]> drained = new ArrayList<>();
+    assertEquals( 2, set.drainTo( drained, 2 ) );
+    assertArrayEquals( new Object[] { 1L }, drained.get( 0 ) );
+    assertArrayEquals( new Object[] { 2L }, drained.get( 1 ) );
+
+    assertEquals( 1, set.putRowsWait( rm, rows, 3, 1, TimeUnit.MILLISECONDS ) );
+    assertEquals( 2, set.drainTo( drained, 10 ) );
+    assertArrayEquals( new Object[] { 3L }, drained.get( 2 ) );
+    assertArrayEquals( new Object[] { 4L }, drained.get( 3 ) );
+    assertEquals( 0, set.drainTo( drained, 10 ) );
+  }
+
+  @Test
+  public void testNullRowIsRefused() {
+    RowSet set = new RingBufferRowSet( 3 );
+    assertFalse( set.putRow( createRowMetaInterface(), null ) );
+    assertEquals( 0, set.size() );
+  }
+
+  @Test
+  public void testClear() {
+    RowSet set = new RingBufferRowSet( 5 );
+    RowMetaInterface rm = createRowMetaInterface();
+    set.putRow( rm, new Object[] { 1L } );
+    set.putRow( rm, new Object[] { 2L } );
+    set.setDone();
+
+    set.clear();
+
+    assertEquals( 0, set.size() );
+    assertFalse( set.isDone() );
+    assertNull( set.getRowImmediate() );
+
+    set.putRow( rm, new Object[] { 3L } );
+    assertArrayEquals( new Object[] { 3L }, set.getRowImmediate() );
+  }
+
+  @Test
+  public void testConcurrentProducerConsumer() throws Exception {
+    for ( RingBufferRowSet.WaitStrategy strategy : RingBufferRowSet.WaitStrategy.values() ) {
+      verifyOrderedHandOver( new RingBufferRowSet( 7, strategy ), 100000 );
+    }
+  }
+
+  @Test
+  public void testBlockingWaitEndsWhenDone() throws Exception {
+    final RowSet set = new RingBufferRowSet( 3, RingBufferRowSet.WaitStrategy.BLOCK );
+    Thread producer = new Thread( () -> {
+      try {
+        Thread.sleep( 50 );
+      } catch ( InterruptedException e ) {
+        // done right away
+      }
+      set.setDone();
+    } );
+
+    long start = System.nanoTime();
+    producer.start();
+    assertNull( set.getRowWait( 30, TimeUnit.SECONDS ) );
+    assertTrue( System.nanoTime() - start < TimeUnit.SECONDS.toNanos( 10 ) );
+    producer.join();
+  }
+
+  private void verifyOrderedHandOver( final RowSet set, final int nrRows ) throws Exception {
+    final RowMetaInterface rm = createRowMetaInterface();
+    final AtomicReference<Throwable> failure = new AtomicReference<>();
+
+    Thread producer = new Thread( () -> {
+      try {
+        for ( long i = 0; i < nrRows; i++ ) {
+          Object[] row = new Object[] { i };
+          while ( !set.putRow( rm, row ) ) {
+            // retry, just like BaseStep does
+          }
+        }
+        set.setDone();
+      } catch ( Throwable t ) {
+        failure.set( t );
+      }
+    } );
+    producer.start();
+
+    long expected = 0;
+    while ( true ) {
+      Object[] row = set.getRow();
+      if ( row == null ) {
+        if ( set.isDone() && set.size() == 0 ) {
+          break;
+        }
+        continue;
+      }
+      assertEquals( expected++, row[0] );
+    }
+    producer.join();
+
+    assertNull( failure.get() );
+    assertEquals( nrRows, expected );
+  }
+}
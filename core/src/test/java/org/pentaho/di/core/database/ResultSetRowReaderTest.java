@@ -0,0 +1,72 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+
+package org.pentaho.di.core.database;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.util.Arrays;
+
+import org.junit.Test;
+import org.pentaho.di.core.row.RowMeta;
+import org.pentaho.di.core.row.RowMetaInterface;
+import org.pentaho.di.core.row.value.ValueMetaBigNumber;
+import org.pentaho.di.core.row.value.ValueMetaInteger;
+import org.pentaho.di.core.row.value.ValueMetaInternetAddress;
+import org.pentaho.di.core.row.value.ValueMetaNumber;
+import org.pentaho.di.core.row.value.ValueMetaString;
+
+public class ResultSetRowReaderTest {
+
+  @Test
+  public void testDefaultReaders() {
+    assertTrue( ResultSetRowReader.isDefaultDatabaseReader( new H2DatabaseMeta() ) );
+    assertFalse( ResultSetRowReader.isDefaultDatabaseReader( new NeoviewDatabaseMeta() ) );
+    assertTrue( ResultSetRowReader.isDefaultValueReader( new ValueMetaString( "s" ) ) );
+    assertFalse( ResultSetRowReader.isDefaultValueReader( new ValueMetaInternetAddress( "ip" ) ) );
+  }
+
+  @Test
+  public void testReadRow() throws Exception {
+    DatabaseMeta databaseMeta = new DatabaseMeta();
+    databaseMeta.setDatabaseInterface( new H2DatabaseMeta() );
+    RowMetaInterface rowMeta = new RowMeta();
+    rowMeta.addValueMeta( new ValueMetaString( "s" ) );
+    rowMeta.addValueMeta( new ValueMetaInteger( "i" ) );
+    rowMeta.addValueMeta( new ValueMetaNumber( "n" ) );
+    rowMeta.addValueMeta( new ValueMetaBigNumber( "b" ) );
+
+    ResultSet rs = mock( ResultSet.class );
+    when( rs.getString( 1 ) ).thenReturn( "abc" );
+    when( rs.getLong( 2 ) ).thenReturn( 0L );
+    when( rs.getDouble( 3 ) ).thenReturn( 1.5 );
+    when( rs.getBigDecimal( 4 ) ).thenReturn( BigDecimal.TEN );
+    // Only the integer is null
+    when( rs.wasNull() ).thenReturn( true, false );
+
+    Object[] row = new ResultSetRowReader( databaseMeta, rowMeta ).readRow( rs );
+
+    assertArrayEquals( new Object[] { "abc", null, 1.5, BigDecimal.TEN }, Arrays.copyOf( row, 4 ) );
+    verify( rs, never() ).getObject( anyInt() );
+  }
+}
@@ -0,0 +1,81 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.di.core.hash;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class ByteArrayArenaHashIndexTest {
+
+  @Test
+  public void testGetAndPut() {
+    ByteArrayArenaHashIndex obj = new ByteArrayArenaHashIndex( false );
+    assertTrue( obj.isEmpty() );
+    assertNull( obj.get( new byte[]{ 10 } ) );
+
+    obj.put( new byte[]{ 10 }, new byte[]{ 53, 12 } );
+    assertFalse( obj.isEmpty() );
+    assertEquals( 1, obj.getSize() );
+    assertArrayEquals( new byte[]{ 53, 12 }, obj.get( new byte[]{ 10 } ) );
+    assertNull( obj.get( new byte[]{ 10, 0 } ) );
+  }
+
+  @Test
+  public void testReplaceValue() {
+    ByteArrayArenaHashIndex obj = new ByteArrayArenaHashIndex( false );
+    obj.put( new byte[]{ 1, 2 }, new byte[]{ 3 } );
+    obj.put( new byte[]{ 1, 2 }, new byte[]{ 4 } );
+    assertArrayEquals( new byte[]{ 4 }, obj.get( new byte[]{ 1, 2 } ) );
+
+    obj.put( new byte[]{ 1, 2 }, new byte[]{ 5, 6, 7 } );
+    assertArrayEquals( new byte[]{ 5, 6, 7 }, obj.get( new byte[]{ 1, 2 } ) );
+    assertEquals( 1, obj.getSize() );
+  }
+
+  @Test
+  public void testManyEntriesOffHeap() {
+    ByteArrayArenaHashIndex obj = new ByteArrayArenaHashIndex( true );
+    assertTrue( obj.isOffHeap() );
+    int count = 100000;
+    for ( int i = 0; i < count; i++ ) {
+      obj.put( key( i ), new byte[ i % 50 ] );
+    }
+    assertEquals( count, obj.getSize() );
+    for ( int i = 0; i < count; i++ ) {
+      assertEquals( i % 50, obj.get( key( i ) ).length );
+    }
+    assertNull( obj.get( key( count ) ) );
+    assertTrue( obj.getMemoryUsage() > 1 << 20 );
+  }
+
+  @Test
+  public void testEntryLargerThanPage() {
+    ByteArrayArenaHashIndex obj = new ByteArrayArenaHashIndex( false );
+    byte[] value = new byte[ 3 << 20 ];
+    value[ value.length - 1 ] = 42;
+    obj.put( new byte[]{ 1 }, new byte[]{ 2 } );
+    obj.put( new byte[]{ 3 }, value );
+    assertArrayEquals( value, obj.get( new byte[]{ 3 } ) );
+    assertArrayEquals( new byte[]{ 2 }, obj.get( new byte[]{ 1 } ) );
+  }
+
+  private static byte[] key( int i ) {
+    return new byte[]{ (byte) ( i >>> 24 ), (byte) ( i >>> 16 ), (byte) ( i >>> 8 ), (byte) i };
+  }
+}
@@ -0,0 +1,123 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+
+package org.pentaho.di.core.logging;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+
+import org.junit.Test;
+
+public class AsyncLoggingEventDispatcherTest {
+
+  private static class CollectingListener implements KettleLoggingEventListener {
+    private final List<KettleLoggingEvent> events = Collections.synchronizedList( new ArrayList<>() );
+    private final List<Integer> batchSizes = Collections.synchronizedList( new ArrayList<>() );
+
+    @Override
+    public void eventAdded( KettleLoggingEvent event ) {
+      events.add( event );
+    }
+
+    @Override
+    public void eventsAdded( List<KettleLoggingEvent> batch ) {
+      batchSizes.add( batch.size() );
+      KettleLoggingEventListener.super.eventsAdded( batch );
+    }
+  }
+
+  @Test
+  public void testEventsAreDispatchedInOrder() {
+    CollectingListener listener = new CollectingListener();
+    List<KettleLoggingEventListener> listeners = new CopyOnWriteArrayList<>();
+    listeners.add( listener );
+    AsyncLoggingEventDispatcher dispatcher =
+      new AsyncLoggingEventDispatcher( listeners, 100, AsyncLoggingEventDispatcher.OverflowPolicy.BLOCK );
+    dispatcher.start();
+
+    List<KettleLoggingEvent> events = new ArrayList<>();
+    for ( int i = 0; i < 5000; i++ ) {
+      KettleLoggingEvent event = new KettleLoggingEvent( "line " + i, i, LogLevel.BASIC );
+      events.add( event );
+      dispatcher.dispatch( event );
+    }
+    dispatcher.flush();
+
+    assertEquals( events, listener.events );
+    assertEquals( 0, dispatcher.getQueueDepth() );
+    assertEquals( 5000, dispatcher.getDispatchedEventCount() );
+    assertEquals( 0, dispatcher.getDroppedEventCount() );
+    for ( int batchSize : listener.batchSizes ) {
+      assertTrue( batchSize <= AsyncLoggingEventDispatcher.MAX_BATCH_SIZE );
+    }
+    dispatcher.close();
+  }
+
+  @Test
+  public void testEventsAreDroppedWhenQueueIsFull() throws Exception {
+    CountDownLatch blocked = new CountDownLatch( 1 );
+    CountDownLatch release = new CountDownLatch( 1 );
+    CollectingListener listener = new CollectingListener() {
+      @Override
+      public void eventsAdded( List<KettleLoggingEvent> batch ) {
+        blocked.countDown();
+        try {
+          release.await();
+        } catch ( InterruptedException e ) {
+          Thread.currentThread().interrupt();
+        }
+        super.eventsAdded( batch );
+      }
+    };
+    List<KettleLoggingEventListener> listeners = new CopyOnWriteArrayList<>();
+    listeners.add( listener );
+    AsyncLoggingEventDispatcher dispatcher =
+      new AsyncLoggingEventDispatcher( listeners, 10, AsyncLoggingEventDispatcher.OverflowPolicy.DROP );
+    dispatcher.start();
+
+    dispatcher.dispatch( new KettleLoggingEvent( "first", 0, LogLevel.BASIC ) );
+    blocked.await();
+    // The first event is still being dispatched and counts in the queue, 9 more fit
+    for ( int i = 0; i < 20; i++ ) {
+      dispatcher.dispatch( new KettleLoggingEvent( "line " + i, i, LogLevel.BASIC ) );
+    }
+    assertEquals( 11, dispatcher.getDroppedEventCount() );
+    release.countDown();
+    dispatcher.close();
+
+    assertEquals( 10, listener.events.size() );
+    assertEquals( 10, dispatcher.getDispatchedEventCount() );
+  }
+
+  @Test
+  public void testRemovingListenerFlushes() {
+    LoggingBuffer buffer = new LoggingBuffer( 100 );
+    CollectingListener listener = new CollectingListener();
+    buffer.addLoggingEventListener( listener );
+    buffer.startAsyncDispatch( 100, AsyncLoggingEventDispatcher.OverflowPolicy.BLOCK );
+    for ( int i = 0; i < 50; i++ ) {
+      buffer.addLogggingEvent( new KettleLoggingEvent( new LogMessage( "line " + i, LogLevel.BASIC ), i,
+        LogLevel.BASIC ) );
+    }
+    buffer.removeLoggingEventListener( listener );
+    assertEquals( 50, listener.events.size() );
+    buffer.stopAsyncDispatch();
+  }
+}
@@ -0,0 +1,109 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+
+package org.pentaho.di.core.logging;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.junit.Test;
+
+public class LogChannelLineIndexTest {
+
+  @Test
+  public void testRangeAndTail() {
+    LogChannelLineIndex index = new LogChannelLineIndex( 0 );
+    for ( int nr = 1; nr <= 300; nr++ ) {
+      index.add( nr % 3 == 0 ? "a" : "b", nr, nr % 100 == 0 );
+    }
+
+    assertArrayEquals( new int[] { 3, 6, 9 }, index.getLineNrs( Collections.singletonList( "a" ), false, 1, 10, 0 ) );
+    assertArrayEquals( new int[] { 294, 297, 300 },
+      index.getLineNrs( Collections.singletonList( "a" ), false, 1, 300, 3 ) );
+    assertArrayEquals( new int[] { 98, 99, 100 },
+      index.getLineNrs( Arrays.asList( "a", "b" ), false, 1, 100, 3 ) );
+    // General lines are only returned once
+    assertArrayEquals( new int[] { 100, 200, 300 },
+      index.getLineNrs( Collections.<String>emptyList(), true, 1, 300, 0 ) );
+    assertArrayEquals( new int[] { 199, 200 },
+      index.getLineNrs( Arrays.asList( "a", "b" ), true, 199, 200, 0 ) );
+    assertEquals( 0, index.getLineNrs( Collections.singletonList( "c" ), false, 1, 300, 0 ).length );
+  }
+
+  @Test
+  public void testBounded() {
+    LogChannelLineIndex index = new LogChannelLineIndex( 100 );
+    for ( int nr = 1; nr <= 1000; nr++ ) {
+      index.add( "a", nr, false );
+    }
+
+    int[] nrs = index.getLineNrs( Collections.singletonList( "a" ), false, 1, 1000, 0 );
+    assertEquals( 100, nrs.length );
+    assertEquals( 901, nrs[0] );
+    assertEquals( 1000, nrs[99] );
+  }
+
+  @Test
+  public void testOutOfOrder() {
+    LogChannelLineIndex index = new LogChannelLineIndex( 0 );
+    int[] order = { 1, 3, 2, 4, 7, 5, 6, 8 };
+    for ( int nr : order ) {
+      index.add( "a", nr, nr % 2 == 0 );
+    }
+
+    assertArrayEquals( new int[] { 1, 2, 3, 4, 5, 6, 7, 8 },
+      index.getLineNrs( Collections.singletonList( "a" ), false, 1, 8, 0 ) );
+    assertArrayEquals( new int[] { 3, 4, 5 }, index.getLineNrs( Collections.singletonList( "a" ), false, 3, 5, 0 ) );
+    assertArrayEquals( new int[] { 2, 4, 6, 8 }, index.getGeneralLineNrs() );
+
+    index.remove( "a", 5 );
+    assertArrayEquals( new int[] { 6, 7, 8 }, index.getLineNrs( Collections.singletonList( "a" ), false, 1, 8, 3 ) );
+  }
+
+  @Test
+  public void testOutOfOrderBounded() {
+    LogChannelLineIndex index = new LogChannelLineIndex( 4 );
+    int[] order = { 1, 2, 4, 5, 6, 3, 8, 7 };
+    for ( int nr : order ) {
+      index.add( "a", nr, false );
+    }
+
+    // Only the newest lines are kept, like the buffer does
+    assertArrayEquals( new int[] { 5, 6, 7, 8 }, index.getLineNrs( Collections.singletonList( "a" ), false, 1, 10, 0 ) );
+  }
+
+  @Test
+  public void testRemove() {
+    LogChannelLineIndex index = new LogChannelLineIndex( 0 );
+    for ( int nr = 1; nr <= 10; nr++ ) {
+      index.add( nr <= 5 ? "a" : "b", nr, nr == 5 );
+    }
+
+    index.remove( "a", 1 );
+    index.remove( "a", 3 );
+    assertArrayEquals( new int[] { 2, 4, 5 }, index.getLineNrs( Collections.singletonList( "a" ), false, 1, 10, 0 ) );
+
+    assertArrayEquals( new int[] { 2, 4, 5 }, index.removeChannel( "a" ) );
+    assertEquals( 0, index.getGeneralLineNrs().length );
+    assertEquals( 1, index.getChannelCount() );
+
+    for ( int nr = 6; nr <= 10; nr++ ) {
+      index.remove( "b", nr );
+    }
+    assertEquals( 0, index.getChannelCount() );
+  }
+}
@@ -19,7 +19,9 @@ import org.junit.Assert;
 import org.junit.Test;
 import org.pentaho.di.core.Const;
 
+import java.util.Collections;
 import java.util.Iterator;
+import java.util.List;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.atomic.AtomicBoolean;
 
@@ -179,4 +181,30 @@ public class LoggingBufferTest {
     Assert.assertEquals( 10, loggingBuffer.size() );
   }
 
+  @Test
+  public void testGetLogBufferFromToByChannel() {
+    LoggingBuffer loggingBuffer = new LoggingBuffer( 50 );
+    for ( int i = 0; i < 100; i++ ) {
+      KettleLoggingEvent event = new KettleLoggingEvent();
+      event.setMessage( new LogMessage( "line " + i, i % 2 == 0 ? "even" : "odd", LogLevel.BASIC ) );
+      event.setTimeStamp( i );
+      loggingBuffer.addLogggingEvent( event );
+    }
+    int last = loggingBuffer.getLastBufferLineNr();
+
+    List<KettleLoggingEvent> events =
+      loggingBuffer.getLogBufferFromTo( Collections.singletonList( "odd" ), false, 0, last );
+    Assert.assertEquals( 25, events.size() );
+    Assert.assertEquals( "line 51", ( (LogMessage) events.get( 0 ).getMessage() ).getMessage() );
+
+    events = loggingBuffer.getLogBufferFromTo( Collections.singletonList( "even" ), false, 0, last, 2, "even" );
+    Assert.assertEquals( 2, events.size() );
+    Assert.assertEquals( "line 96", ( (LogMessage) events.get( 0 ).getMessage() ).getMessage() );
+    Assert.assertEquals( "line 98", ( (LogMessage) events.get( 1 ).getMessage() ).getMessage() );
+
+    loggingBuffer.removeChannelFromBuffer( "even" );
+    Assert.assertEquals( 25, loggingBuffer.size() );
+    Assert.assertTrue(
+      loggingBuffer.getLogBufferFromTo( Collections.singletonList( "even" ), false, 0, last ).isEmpty() );
+  }
 }
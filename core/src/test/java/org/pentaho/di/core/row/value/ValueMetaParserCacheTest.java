@@ -0,0 +1,120 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.di.core.row.value;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.text.ParsePosition;
+import java.text.SimpleDateFormat;
+import java.util.Locale;
+import java.util.TimeZone;
+
+import org.junit.Test;
+
+public class ValueMetaParserCacheTest {
+
+  private static void assertSameAsLegacy( String mask, TimeZone timeZone, String value ) {
+    SimpleDateFormat format = new SimpleDateFormat( mask, Locale.US );
+    format.setTimeZone( timeZone );
+    assertEquals( value, format.parse( value, new ParsePosition( 0 ) ),
+      ValueMetaParserCache.getDateParser( mask, Locale.US, timeZone ).parse( value ) );
+  }
+
+  @Test
+  public void testDateParser() {
+    TimeZone amsterdam = TimeZone.getTimeZone( "Europe/Amsterdam" );
+    assertSameAsLegacy( "yyyy/MM/dd HH:mm:ss.SSS", amsterdam, "2024/02/29 13:45:10.123" );
+    assertSameAsLegacy( "yyyy/MM/dd HH:mm:ss.SSS", amsterdam, "2024/07/01 00:00:00.000" );
+    assertSameAsLegacy( "yyyy-MM-dd", TimeZone.getTimeZone( "UTC" ), "1999-12-31" );
+    assertSameAsLegacy( "yyyyMMddHHmmss", TimeZone.getTimeZone( "America/New_York" ), "20231105003000" );
+    assertSameAsLegacy( "dd.MM.yyyy HH:mm", TimeZone.getTimeZone( "GMT+05:30" ), "01.03.2000 23:59" );
+  }
+
+  @Test
+  public void testDateParserFallsBack() {
+    ValueMetaParserCache.DateParser parser =
+      ValueMetaParserCache.getDateParser( "yyyy/MM/dd HH:mm:ss", Locale.US, TimeZone.getTimeZone( "Europe/Amsterdam" ) );
+    // Not in the canonical form
+    assertNull( parser.parse( "2024/2/29 13:45:10" ) );
+    assertNull( parser.parse( "2024/02/29 13:45:10x" ) );
+    // Out of range
+    assertNull( parser.parse( "2023/02/29 13:45:10" ) );
+    assertNull( parser.parse( "2023/13/01 13:45:10" ) );
+    // Gap and overlap of a daylight saving time transition
+    assertNull( parser.parse( "2024/03/31 02:30:00" ) );
+    assertNull( parser.parse( "2024/10/27 02:30:00" ) );
+    // Before the history of the time zones
+    assertNull( parser.parse( "1850/01/01 00:00:00" ) );
+
+    // Masks and calendars that aren't supported
+    TimeZone utc = TimeZone.getTimeZone( "UTC" );
+    assertNull( ValueMetaParserCache.getDateParser( "yy/MM/dd", Locale.US, utc ).parse( "24/01/01" ) );
+    assertNull( ValueMetaParserCache.getDateParser( "yyyy/MMM/dd", Locale.US, utc ).parse( "2024/Jan/01" ) );
+    assertNull( ValueMetaParserCache.getDateParser( "yyyy/MM/dd", new Locale( "th", "TH" ), utc ).parse( "2567/01/01" ) );
+  }
+
+  @Test
+  public void testDateParserIsShared() {
+    TimeZone utc = TimeZone.getTimeZone( "UTC" );
+    assertSame( ValueMetaParserCache.getDateParser( "yyyy-MM-dd", Locale.US, utc ),
+      ValueMetaParserCache.getDateParser( "yyyy-MM-dd", Locale.US, (TimeZone) utc.clone() ) );
+  }
+
+  @Test
+  public void testNumberParser() {
+    ValueMetaParserCache.NumberParser parser =
+      ValueMetaParserCache.getNumberParser( ValueMetaBase.DEFAULT_NUMBER_PARSE_MASK, ".", ",", null );
+    assertEquals( 1234.56, parser.parseNumber( "1234.56" ), 0 );
+    assertEquals( -0.1, parser.parseNumber( "-0.1" ), 0 );
+    assertEquals( 12.5, parser.parseNumber( "0012.500" ), 0 );
+    assertEquals( 7L, (long) parser.parseInteger( "7" ) );
+    assertEquals( -123456789012345678L, (long) parser.parseInteger( "-123456789012345678" ) );
+
+    assertNull( parser.parseNumber( "1,234.56" ) );
+    assertNull( parser.parseNumber( "1." ) );
+    assertNull( parser.parseNumber( ".5" ) );
+    assertNull( parser.parseNumber( "1e5" ) );
+    assertNull( parser.parseNumber( "12345678901234567890" ) );
+    assertNull( parser.parseInteger( "1.5" ) );
+    assertNull( parser.parseInteger( "1234567890123456789" ) );
+
+    parser = ValueMetaParserCache.getNumberParser( "#,##0.00", ",", ".", null );
+    assertEquals( 1234.56, parser.parseNumber( "1234,56" ), 0 );
+    assertNull( parser.parseNumber( "1234.56" ) );
+
+    assertNull( ValueMetaParserCache.getNumberParser( "0.00%", ".", ",", null ).parseNumber( "12.5" ) );
+  }
+
+  @Test
+  public void testConversionWithFastStringConversion() throws Exception {
+    ValueMetaString string = new ValueMetaString( "string" );
+    string.setConversionMask( "yyyy/MM/dd HH:mm:ss.SSS" );
+    string.setDateFormatTimeZone( TimeZone.getTimeZone( "Europe/Amsterdam" ) );
+    // The lenient format moves a time in the gap of a daylight saving time transition forward
+    string.setDateFormatLenient( true );
+    Object legacy = string.convertStringToDate( "2024/03/31 02:30:00.000" );
+    Object canonical = string.convertStringToDate( "2024/05/01 12:00:00.000" );
+
+    string.setFastStringConversion( true );
+    assertEquals( legacy, string.convertStringToDate( "2024/03/31 02:30:00.000" ) );
+    assertEquals( canonical, string.convertStringToDate( "2024/05/01 12:00:00.000" ) );
+
+    ValueMetaString number = new ValueMetaString( "number" );
+    number.setFastStringConversion( true );
+    assertEquals( 1.5, number.convertStringToNumber( "1.5" ), 0 );
+    assertEquals( 15L, (long) number.convertStringToInteger( "15" ) );
+  }
+}
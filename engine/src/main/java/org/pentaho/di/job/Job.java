@@ -211,6 +211,9 @@ public class Job extends Thread implements VariableSpace, NamedParams, HasLogCha
 
   private Map<String, Object> extensionDataMap;
 
+  /** The job entries launched in parallel by this job, limited together. */
+  private JobEntryScheduler.Group parallelEntries;
+
   /** The command line arguments for the job. */
   protected String[] arguments;
 
@@ -788,7 +791,7 @@ public class Job extends Thread implements VariableSpace, NamedParams, HasLogCha
     // Keep track of all the threads we fired in case of parallel execution...
     // Keep track of the results of these executions too.
     //
-    final List<Thread> threads = new ArrayList<Thread>();
+    final List<JobEntryScheduler.Branch> branches = new ArrayList<JobEntryScheduler.Branch>();
     // next 2 lists is being modified concurrently so must be synchronized for this case.
     final Queue<Result> threadResults = new ConcurrentLinkedQueue<Result>();
     final Queue<KettleException> threadExceptions = new ConcurrentLinkedQueue<KettleException>();
@@ -837,7 +840,7 @@ public class Job extends Thread implements VariableSpace, NamedParams, HasLogCha
 
         // Now execute!
         //
-        // if (we launch in parallel, fire the execution off in a new thread...
+        // if (we launch in parallel, hand the execution to the scheduler...
         //
         if ( jobEntryCopy.isLaunchingInParallel() ) {
           threadEntries.add( nextEntry );
@@ -858,9 +861,7 @@ public class Job extends Thread implements VariableSpace, NamedParams, HasLogCha
               }
             }
           };
-          Thread thread = new Thread( runnable );
-          threads.add( thread );
-          thread.start();
+          branches.add( JobEntryScheduler.getInstance().submit( getParallelEntries(), runnable ) );
           if ( log.isBasic() ) {
             log.logBasic( BaseMessages.getString( PKG, "Job.Log.LaunchedJobEntryInParallel", nextEntry.getName() ) );
           }
@@ -886,12 +887,12 @@ public class Job extends Thread implements VariableSpace, NamedParams, HasLogCha
     // finish...
     //
     if ( jobEntryCopy.isLaunchingInParallel() ) {
-      for ( int i = 0; i < threads.size(); i++ ) {
-        Thread thread = threads.get( i );
+      for ( int i = 0; i < branches.size(); i++ ) {
+        JobEntryScheduler.Branch branch = branches.get( i );
         JobEntryCopy nextEntry = threadEntries.get( i );
 
         try {
-          thread.join();
+          JobEntryScheduler.getInstance().join( branch );
         } catch ( InterruptedException e ) {
           log.logError( jobMeta.toString(), BaseMessages.getString( PKG,
               "Job.Log.UnexpectedErrorWhileWaitingForJobEntry", nextEntry.getName() ) );
@@ -2343,6 +2344,18 @@ public class Job extends Thread implements VariableSpace, NamedParams, HasLogCha
     this.parentTrans = parentTrans;
   }
 
+  /**
+   * @return the group of the job entries launched in parallel by this job, limited with
+   *         KETTLE_JOB_PARALLEL_ENTRIES_PER_JOB
+   */
+  public synchronized JobEntryScheduler.Group getParallelEntries() {
+    if ( parallelEntries == null ) {
+      parallelEntries = JobEntryScheduler.getInstance().createGroup(
+        Const.toInt( getVariable( Const.KETTLE_JOB_PARALLEL_ENTRIES_PER_JOB ), 0 ), log );
+    }
+    return parallelEntries;
+  }
+
   public Map<String, Object> getExtensionDataMap() {
     return extensionDataMap;
   }
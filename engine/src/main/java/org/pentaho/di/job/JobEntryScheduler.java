@@ -0,0 +1,271 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+
+package org.pentaho.di.job;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.pentaho.di.core.Const;
+import org.pentaho.di.core.logging.LogChannelInterface;
+import org.pentaho.di.core.logging.Metrics;
+
+/**
+ * Runs the job entries a job launches in parallel. The entries run in a pool of reused threads. The number of entries
+ * running at the same time can be limited per job and for the whole server: the entries over the limit wait in a
+ * queue and are started in order as running entries finish.<br>
+ * <br>
+ * A job waiting for the entries it launched doesn't just block: it takes entries of the same job that are still
+ * queued and runs them in its own thread. Entries waiting for nested parallel entries therefore never wait on entries
+ * that can't get started.
+ *
+ * @since 11.1
+ */
+public class JobEntryScheduler {
+  private static final long KEEP_ALIVE_SECONDS = 60L;
+
+  private static JobEntryScheduler instance;
+
+  /**
+   * The entries launched in parallel by a job, limited together.
+   */
+  public static final class Group {
+    private final int maxRunning;
+    private final LogChannelInterface log;
+
+    // Changed while holding the lock of the scheduler
+    private volatile int running;
+    private volatile int queued;
+
+    private Group( int maxRunning, LogChannelInterface log ) {
+      this.maxRunning = maxRunning;
+      this.log = log;
+    }
+
+    /**
+     * @return the number of entries of the job running in the pool
+     */
+    public int getRunningCount() {
+      return running;
+    }
+
+    /**
+     * @return the number of entries of the job waiting to be started
+     */
+    public int getQueuedCount() {
+      return queued;
+    }
+
+    private boolean isFull() {
+      return maxRunning > 0 && running >= maxRunning;
+    }
+
+    private void snapMetrics() {
+      if ( log != null ) {
+        log.snap( Metrics.METRIC_JOB_PARALLEL_ENTRIES_QUEUED, queued );
+        log.snap( Metrics.METRIC_JOB_PARALLEL_ENTRIES_RUNNING, running );
+      }
+    }
+  }
+
+  /**
+   * A job entry launched in parallel.
+   */
+  public static final class Branch {
+    private final Group group;
+    private final Runnable task;
+    private final CountDownLatch finished = new CountDownLatch( 1 );
+
+    private Branch( Group group, Runnable task ) {
+      this.group = group;
+      this.task = task;
+    }
+
+    /**
+     * @return true if the job entry has finished
+     */
+    public boolean isFinished() {
+      return finished.getCount() == 0;
+    }
+  }
+
+  private final int maxRunning;
+  private final Object lock = new Object();
+  private final Deque<Branch> queue = new ArrayDeque<>();
+  private final ExecutorService workers;
+
+  private volatile int running;
+
+  /**
+   * @param maxRunning
+   *          the maximum number of entries running in the pool at the same time, 0 for no limit
+   */
+  public JobEntryScheduler( int maxRunning ) {
+    this.maxRunning = maxRunning;
+    AtomicInteger threadNr = new AtomicInteger();
+    this.workers = new ThreadPoolExecutor( 0, Integer.MAX_VALUE, KEEP_ALIVE_SECONDS, TimeUnit.SECONDS,
+      new SynchronousQueue<>(), runnable -> {
+        Thread thread = new Thread( runnable, "Parallel job entry " + threadNr.incrementAndGet() );
+        thread.setDaemon( true );
+        return thread;
+      } );
+  }
+
+  /**
+   * @return the scheduler of the server, limited with KETTLE_JOB_PARALLEL_ENTRIES_PER_SERVER
+   */
+  public static synchronized JobEntryScheduler getInstance() {
+    if ( instance == null ) {
+      instance =
+        new JobEntryScheduler( Const.toInt( System.getProperty( Const.KETTLE_JOB_PARALLEL_ENTRIES_PER_SERVER ), 0 ) );
+    }
+    return instance;
+  }
+
+  /**
+   * Create the group of the entries a job launches in parallel.
+   *
+   * @param maxRunning
+   *          the maximum number of entries of the job running at the same time, 0 for no limit
+   * @param log
+   *          the log channel to report the number of queued and running entries on
+   * @return the new group
+   */
+  public Group createGroup( int maxRunning, LogChannelInterface log ) {
+    return new Group( maxRunning, log );
+  }
+
+  /**
+   * Launch a job entry. It is started right away if the limits allow it, queued otherwise.
+   *
+   * @param group
+   *          the group of the job
+   * @param task
+   *          the execution of the job entry, expected to handle its own errors
+   * @return the launched entry, to wait for with {@link #join(Branch)}
+   */
+  public Branch submit( Group group, Runnable task ) {
+    Branch branch = new Branch( group, task );
+    synchronized ( lock ) {
+      queue.add( branch );
+      group.queued++;
+      dispatch();
+      group.snapMetrics();
+    }
+    return branch;
+  }
+
+  /**
+   * Wait for a job entry to finish. While it is queued or running, the queued entries of the same job are run in the
+   * calling thread, starting with the entry itself.
+   *
+   * @param branch
+   *          the entry to wait for
+   * @throws InterruptedException
+   *           in case the thread was interrupted while waiting
+   */
+  public void join( Branch branch ) throws InterruptedException {
+    while ( !branch.isFinished() ) {
+      Branch claimed = claim( branch );
+      if ( claimed == null ) {
+        branch.finished.await();
+        return;
+      }
+      run( claimed, false );
+    }
+  }
+
+  /**
+   * @return the number of entries running in the pool, for all jobs
+   */
+  public int getRunningCount() {
+    return running;
+  }
+
+  /**
+   * @return the number of entries waiting to be started, for all jobs
+   */
+  public int getQueuedCount() {
+    synchronized ( lock ) {
+      return queue.size();
+    }
+  }
+
+  /**
+   * Take a queued entry to run in the joining thread: the awaited entry itself or else another entry of the same job.
+   */
+  private Branch claim( Branch awaited ) {
+    synchronized ( lock ) {
+      Branch claimed = null;
+      if ( queue.remove( awaited ) ) {
+        claimed = awaited;
+      } else {
+        for ( Iterator<Branch> iterator = queue.iterator(); iterator.hasNext(); ) {
+          Branch branch = iterator.next();
+          if ( branch.group == awaited.group ) {
+            iterator.remove();
+            claimed = branch;
+            break;
+          }
+        }
+      }
+      if ( claimed != null ) {
+        claimed.group.queued--;
+        claimed.group.snapMetrics();
+      }
+      return claimed;
+    }
+  }
+
+  /**
+   * Start the queued entries the limits allow, in order. Called while holding the lock.
+   */
+  private void dispatch() {
+    Iterator<Branch> iterator = queue.iterator();
+    while ( iterator.hasNext() && ( maxRunning <= 0 || running < maxRunning ) ) {
+      Branch branch = iterator.next();
+      if ( branch.group.isFull() ) {
+        continue;
+      }
+      iterator.remove();
+      branch.group.queued--;
+      branch.group.running++;
+      running++;
+      workers.execute( () -> run( branch, true ) );
+    }
+  }
+
+  private void run( Branch branch, boolean pooled ) {
+    try {
+      branch.task.run();
+    } finally {
+      if ( pooled ) {
+        synchronized ( lock ) {
+          branch.group.running--;
+          running--;
+          dispatch();
+          branch.group.snapMetrics();
+        }
+      }
+      branch.finished.countDown();
+    }
+  }
+}
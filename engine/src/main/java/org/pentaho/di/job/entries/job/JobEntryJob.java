@@ -22,6 +22,7 @@ import org.pentaho.di.core.Const;
 import org.pentaho.di.core.ObjectLocationSpecificationMethod;
 import org.pentaho.di.core.Result;
 import org.pentaho.di.core.ResultFile;
+import org.pentaho.di.core.ResultRowStore;
 import org.pentaho.di.core.RowMetaAndData;
 import org.pentaho.di.core.SQLStatement;
 import org.pentaho.di.core.bowl.Bowl;
@@ -722,7 +723,7 @@ public class JobEntryJob extends JobEntryBase implements Cloneable, JobEntryInte
 
       RowMetaAndData resultRow = null;
       boolean first = true;
-      List<RowMetaAndData> rows = new ArrayList<RowMetaAndData>( result.getRows() );
+      List<RowMetaAndData> rows = new ResultRowStore( result.getRows() );
 
       while ( ( first && !execPerRow )
         || ( execPerRow && !rows.isEmpty() && iteration < rows.size() && result.getNrErrors() == 0 )
@@ -1183,7 +1184,7 @@ public class JobEntryJob extends JobEntryBase implements Cloneable, JobEntryInte
 
         // Set the result rows too, if any ...
         if ( !Utils.isEmpty( oneResult.getRows() ) ) {
-          result.setRows( new ArrayList<RowMetaAndData>( oneResult.getRows() ) );
+          result.setRows( new ResultRowStore( oneResult.getRows() ) );
         }
 
         // if one of them fails (in the loop), increase the number of errors
@@ -51,6 +51,8 @@ public class SubtransExecutor {
   Set<Trans> running;
   private Semaphore semaphore;
   private final int prefetchCount;
+  private SubtransPool pool;
+  private boolean poolChecked;
 
   public SubtransExecutor( String subTransName, Trans parentTrans, TransMeta subtransMeta, boolean shareVariables,
                            TransExecutorParameters parameters, String subStep, int prefetchCount ) {
@@ -71,18 +73,29 @@ public class SubtransExecutor {
       return Optional.empty();
     }
 
-    Trans subtrans = this.createSubtrans();
+    Trans subtrans = getPreparedSubtrans();
+    boolean prepared = subtrans != null;
+    if ( !prepared ) {
+      subtrans = this.createSubtrans();
+    }
     running.add( subtrans );
     parentTrans.addActiveSubTransformation( subTransName, subtrans );
 
-    // Pass parameter values
-    passParametersToTrans( subtrans, rows.get( 0 ) );
+    if ( prepared ) {
+      // The parameters are activated already, the steps are initialized here so they open their files and
+      // connections only when the batch runs
+      subtrans.getPreviousResult().setRows( rows );
+      subtrans.initializeSteps();
+    } else {
+      // Pass parameter values
+      passParametersToTrans( subtrans, rows.get( 0 ) );
 
-    Result result = new Result();
-    result.setRows( rows );
-    subtrans.setPreviousResult( result );
+      Result result = new Result();
+      result.setRows( rows );
+      subtrans.setPreviousResult( result );
 
-    subtrans.prepareExecution( this.parentTrans.getArguments() );
+      subtrans.prepareExecution( this.parentTrans.getArguments() );
+    }
     List<RowMetaAndData> rowMetaAndData = new ArrayList<>();
     subtrans.getSteps().stream()
       .filter( c -> c.step.getStepname().equalsIgnoreCase( subStep ) )
@@ -104,6 +117,41 @@ public class SubtransExecutor {
     return Optional.of( subtransResult );
   }
 
+  /**
+   * @return a sub-transformation prepared ahead of time or null if there is none
+   */
+  private synchronized Trans getPreparedSubtrans() {
+    if ( !poolChecked ) {
+      poolChecked = true;
+      int poolSize = SubtransPool.getPoolSize( parentTrans );
+      // Parameters that come from fields differ for every batch
+      if ( poolSize > 0 && !hasFieldParameters() ) {
+        pool = new SubtransPool( this::createPoolSubtrans, parentTrans.getArguments(), poolSize,
+          subTransName + " - sub-transformation pool", parentTrans.getLogChannel() );
+        pool.start();
+      }
+    }
+    return pool == null ? null : pool.poll();
+  }
+
+  private boolean hasFieldParameters() {
+    if ( parameters == null || parameters.getField() == null ) {
+      return false;
+    }
+    for ( String field : parameters.getField() ) {
+      if ( !Utils.isEmpty( field ) ) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private Trans createPoolSubtrans() throws KettleException {
+    Trans subtrans = createSubtrans();
+    passParametersToTrans( subtrans, null );
+    return subtrans;
+  }
+
   private synchronized void updateStatuses( Trans subtrans ) {
     List<StepMetaDataCombi> steps = subtrans.getSteps();
     for ( StepMetaDataCombi combi : steps ) {
@@ -170,6 +218,7 @@ public class SubtransExecutor {
 
   public void stop() {
     stopped = true;
+    close();
     for ( Trans subTrans : running ) {
       subTrans.stopAll();
     }
@@ -179,6 +228,25 @@ public class SubtransExecutor {
     }
   }
 
+  /**
+   * Clean up the sub-transformations that were prepared ahead of time and weren't used. Batches executed afterwards
+   * prepare their own sub-transformation.
+   */
+  public synchronized void close() {
+    poolChecked = true;
+    if ( pool != null ) {
+      pool.close();
+      pool = null;
+    }
+  }
+
+  /**
+   * @return the pool of prepared sub-transformations or null if there is none
+   */
+  synchronized SubtransPool getPool() {
+    return pool;
+  }
+
   public Map<String, StepStatus> getStatuses() {
     return statuses;
   }
@@ -0,0 +1,179 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+
+package org.pentaho.di.trans;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.pentaho.di.core.Const;
+import org.pentaho.di.core.Result;
+import org.pentaho.di.core.exception.KettleException;
+import org.pentaho.di.core.logging.LogChannelInterface;
+import org.pentaho.di.core.variables.VariableSpace;
+
+/**
+ * Keeps a number of sub-transformations prepared ahead of time so that a batch of rows can be executed without waiting
+ * for the steps to be created. The sub-transformations are prepared in a background thread while the previous batches
+ * run. A transformation can only run once, so every instance taken from the pool is replaced by a new one.<br>
+ * <br>
+ * Only the transformation, its steps and its row sets are created ahead of time. The init() of the steps opens files
+ * and database connections, truncating output files for example, so it is left to the caller: it runs
+ * {@link Trans#initializeSteps()} on the thread of the batch after taking an instance. Instances that are never taken
+ * are cleaned up without being initialized.<br>
+ * <br>
+ * The sub-transformations are prepared with an empty previous result. The rows of a batch are set on that result
+ * after taking an instance, before starting its threads. Only sub-transformations that get the same parameter values
+ * for every batch can be prepared ahead of time.
+ *
+ * @since 11.1
+ */
+public class SubtransPool {
+
+  /**
+   * Creates a sub-transformation with its parameters activated, ready to be prepared.
+   */
+  @FunctionalInterface
+  public interface SubtransFactory {
+    Trans createSubtrans() throws KettleException;
+  }
+
+  private final SubtransFactory factory;
+  private final String[] arguments;
+  private final int size;
+  private final LogChannelInterface log;
+  private final BlockingQueue<Trans> prepared = new LinkedBlockingQueue<>();
+  private final AtomicInteger pending = new AtomicInteger();
+  private final ExecutorService preparer;
+
+  private volatile boolean failed;
+  private volatile boolean closed;
+
+  /**
+   * @param factory
+   *          creates the sub-transformations
+   * @param arguments
+   *          the arguments to prepare the sub-transformations with
+   * @param size
+   *          the number of sub-transformations to keep prepared
+   * @param threadName
+   *          the name of the thread preparing the sub-transformations
+   * @param log
+   *          the log channel to report preparation errors on
+   */
+  public SubtransPool( SubtransFactory factory, String[] arguments, int size, String threadName,
+                       LogChannelInterface log ) {
+    this.factory = factory;
+    this.arguments = arguments;
+    this.size = size;
+    this.log = log;
+    this.preparer = Executors.newSingleThreadExecutor( runnable -> {
+      Thread thread = new Thread( runnable, threadName );
+      thread.setDaemon( true );
+      return thread;
+    } );
+  }
+
+  /**
+   * @param space
+   *          the variables to read the size of the pool from
+   * @return the number of sub-transformations to keep prepared, 0 to prepare them only when needed
+   */
+  public static int getPoolSize( VariableSpace space ) {
+    return Math.max( 0, Const.toInt( space.getVariable( Const.KETTLE_SUBTRANS_POOL_SIZE ), 0 ) );
+  }
+
+  /**
+   * Start preparing sub-transformations.
+   */
+  public void start() {
+    refill();
+  }
+
+  /**
+   * Take a prepared sub-transformation. The pool prepares a new one in the background to replace it.
+   *
+   * @return the prepared sub-transformation, with its steps not initialized yet, or null if none is ready, the caller
+   *         prepares one itself then
+   */
+  public Trans poll() {
+    Trans trans = prepared.poll();
+    refill();
+    return trans;
+  }
+
+  private void refill() {
+    while ( !closed && !failed ) {
+      int count = pending.get();
+      if ( count + prepared.size() >= size ) {
+        return;
+      }
+      if ( pending.compareAndSet( count, count + 1 ) ) {
+        preparer.execute( this::prepare );
+      }
+    }
+  }
+
+  private void prepare() {
+    Trans trans = null;
+    try {
+      if ( closed ) {
+        return;
+      }
+      trans = factory.createSubtrans();
+      trans.setPreviousResult( new Result() );
+      trans.prepareExecution( arguments, true );
+      prepared.add( trans );
+      if ( closed ) {
+        // Closed while preparing
+        cleanupPrepared();
+      }
+    } catch ( Exception e ) {
+      // Stop preparing ahead, the sub-transformations are prepared when needed and report the error then
+      failed = true;
+      log.logError( "Unable to prepare a sub-transformation ahead of time", e );
+      if ( trans != null ) {
+        trans.cleanup();
+      }
+    } finally {
+      pending.decrementAndGet();
+    }
+  }
+
+  /**
+   * Stop preparing sub-transformations and clean up the ones that weren't used.
+   */
+  public void close() {
+    closed = true;
+    preparer.shutdown();
+    cleanupPrepared();
+  }
+
+  private void cleanupPrepared() {
+    Trans trans;
+    while ( ( trans = prepared.poll() ) != null ) {
+      trans.cleanup();
+    }
+  }
+
+  /**
+   * @return the number of sub-transformations ready to be used
+   */
+  public int getPreparedCount() {
+    return prepared.size();
+  }
+}
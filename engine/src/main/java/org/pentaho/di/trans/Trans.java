@@ -26,7 +26,9 @@ import org.pentaho.di.core.ExtensionDataInterface;
 import org.pentaho.di.core.KettleEnvironment;
 import org.pentaho.di.core.QueueRowSet;
 import org.pentaho.di.core.Result;
+import org.pentaho.di.core.ResultRowStore;
 import org.pentaho.di.core.ResultFile;
+import org.pentaho.di.core.RingBufferRowSet;
 import org.pentaho.di.core.RowMetaAndData;
 import org.pentaho.di.core.RowSet;
 import org.pentaho.di.core.SingleRowRowSet;
@@ -100,6 +102,7 @@ import org.pentaho.di.trans.step.StepListener;
 import org.pentaho.di.trans.step.StepMeta;
 import org.pentaho.di.trans.step.StepMetaDataCombi;
 import org.pentaho.di.trans.step.StepPartitioningMeta;
+import org.pentaho.di.trans.step.StepThreadFactory;
 import org.pentaho.di.trans.steps.mappinginput.MappingInput;
 import org.pentaho.di.trans.steps.mappingoutput.MappingOutput;
 import org.pentaho.di.www.CarteSingleton;
@@ -554,6 +557,11 @@ public class Trans implements VariableSpace, NamedParams, HasLogChannelInterface
 
   private boolean executingClustered;
 
+  /**
+   * Creates the threads the steps are initialized and run in.
+   */
+  private StepThreadFactory stepThreadFactory;
+
   private static final int TRANS_FINISHED_BLOCKING_QUEUE_SIZE =
     Integer.parseInt( System.getProperty( Const.KETTLE_TRANS_FINISHED_BLOCKING_QUEUE_SIZE, "200" ) );
 
@@ -579,7 +587,7 @@ public class Trans implements VariableSpace, NamedParams, HasLogChannelInterface
     activeSubtransformations = new ConcurrentHashMap<>();
     activeSubjobs = new HashMap<>();
 
-    resultRows = new ArrayList<>();
+    resultRows = new ResultRowStore();
     resultFiles = new ArrayList<>();
     counters = new Hashtable<>();
 
@@ -832,6 +840,8 @@ public class Trans implements VariableSpace, NamedParams, HasLogChannelInterface
     transMeta.activateParameters();
     ConnectionUtil.init( transMeta );
 
+    stepThreadFactory = StepThreadFactory.getInstance( this );
+
     if ( transMeta.getName() == null ) {
       if ( transMeta.getFilename() != null ) {
         log.logBasic( BaseMessages.getString( PKG, "Trans.Log.DispacthingStartedForFilename", transMeta
@@ -981,6 +991,12 @@ public class Trans implements VariableSpace, NamedParams, HasLogChannelInterface
                   ValueMetaString.convertStringToBoolean( System.getProperty( Const.KETTLE_BATCHING_ROWSET ) );
                 if ( batchingRowSet != null && batchingRowSet.booleanValue() ) {
                   rowSet = new BlockingBatchingRowSet( transMeta.getSizeRowset() );
+                } else if ( dispatchType == TYPE_DISP_1_1 && isRingBufferRowSetEnabled() ) {
+                  // A single writing and a single reading thread: no need for locking
+                  //
+                  rowSet = getStepThreadFactory().isVirtual()
+                    ? new RingBufferRowSet( transMeta.getSizeRowset(), RingBufferRowSet.WaitStrategy.BLOCK )
+                    : new RingBufferRowSet( transMeta.getSizeRowset() );
                 } else {
                   rowSet = new BlockingRowSet( transMeta.getSizeRowset() );
                 }
@@ -1089,7 +1105,10 @@ public class Trans implements VariableSpace, NamedParams, HasLogChannelInterface
           // don't share. Each copy of the step has its own variables.
           //
           step.initializeVariablesFrom( this );
-          step.setUsingThreadPriorityManagment( transMeta.isUsingThreadPriorityManagment() );
+          // The priority management sleeps in short slices, virtual threads wait on the row sets instead
+          //
+          step.setUsingThreadPriorityManagment( transMeta.isUsingThreadPriorityManagment()
+            && !getStepThreadFactory().isVirtual() );
 
           // Pass the connected repository & metaStore to the steps runtime
           //
@@ -1229,6 +1248,32 @@ public class Trans implements VariableSpace, NamedParams, HasLogChannelInterface
       doTopologySortOfSteps();
     }
 
+    if ( skipInit ) {
+      setInitializing( false );
+    } else {
+      runStepInit();
+    }
+
+    log.snap( Metrics.METRIC_TRANSFORMATION_INIT_STOP );
+
+    KettleEnvironment.setExecutionInformation( this, repository );
+
+    setReadyToStart( true );
+  }
+
+  /**
+   * Initializes the steps of a transformation that was prepared with {@link #prepareExecution(String[], boolean)}
+   * skipping the initialization. This lets the transformation and its steps be created ahead of time, for example by a
+   * {@link SubtransPool}, while init() opens the files and connections of the steps only just before they run.
+   *
+   * @throws KettleException in case one of the steps could not be initialized
+   */
+  public void initializeSteps() throws KettleException {
+    setInitializing( true );
+    runStepInit();
+  }
+
+  private void runStepInit() throws KettleException {
     if ( log.isDetailed() ) {
       log.logDetailed( BaseMessages.getString( PKG, "Trans.Log.InitialisingSteps", String.valueOf( steps.size() ) ) );
     }
@@ -1238,35 +1283,31 @@ public class Trans implements VariableSpace, NamedParams, HasLogChannelInterface
 
     // Initialize all the threads...
     //
-    if ( !skipInit ) {
-      for ( int i = 0; i < steps.size(); i++ ) {
-        final StepMetaDataCombi sid = steps.get( i );
+    for ( int i = 0; i < steps.size(); i++ ) {
+      final StepMetaDataCombi sid = steps.get( i );
 
-        // Do the init code in the background!
-        // Init all steps at once, but ALL steps need to finish before we can
-        // continue properly!
-        //
-        initThreads[ i ] = new StepInitThread( sid, log );
+      // Do the init code in the background!
+      // Init all steps at once, but ALL steps need to finish before we can
+      // continue properly!
+      //
+      initThreads[ i ] = new StepInitThread( sid, log );
 
-        // Put it in a separate thread!
-        //
-        threads[ i ] = new Thread( initThreads[ i ] );
-        threads[ i ].setName( "init of " + sid.stepname + "." + sid.copy + " (" + threads[ i ].getName() + ")" );
+      ExtensionPointHandler.callExtensionPoint( log, KettleExtensionPoint.StepBeforeInitialize.id, initThreads[ i ] );
 
-        ExtensionPointHandler.callExtensionPoint( log, KettleExtensionPoint.StepBeforeInitialize.id, initThreads[ i ] );
-        threads[ i ].start();
-      }
+      // Put it in a separate thread!
+      //
+      threads[ i ] = getStepThreadFactory().newThread( initThreads[ i ], "init of " + sid.stepname + "." + sid.copy,
+        sid.step.getLogChannel() );
+      threads[ i ].start();
     }
 
-    if ( !skipInit ) {
-      for ( int i = 0; i < threads.length; i++ ) {
-        try {
-          threads[ i ].join();
-          ExtensionPointHandler.callExtensionPoint( log, KettleExtensionPoint.StepAfterInitialize.id, initThreads[ i ] );
-        } catch ( Exception ex ) {
-          log.logError( "Error with init thread: " + ex.getMessage(), ex.getMessage() );
-          log.logError( Const.getStackTracker( ex ) );
-        }
+    for ( int i = 0; i < threads.length; i++ ) {
+      try {
+        threads[ i ].join();
+        ExtensionPointHandler.callExtensionPoint( log, KettleExtensionPoint.StepAfterInitialize.id, initThreads[ i ] );
+      } catch ( Exception ex ) {
+        log.logError( "Error with init thread: " + ex.getMessage(), ex.getMessage() );
+        log.logError( Const.getStackTracker( ex ) );
       }
     }
 
@@ -1276,19 +1317,17 @@ public class Trans implements VariableSpace, NamedParams, HasLogChannelInterface
     // All step are initialized now: see if there was one that didn't do it
     // correctly!
     //
-    if ( !skipInit ) {
-      for ( int i = 0; i < initThreads.length; i++ ) {
-        StepMetaDataCombi combi = initThreads[ i ].getCombi();
-        if ( !initThreads[ i ].isOk() ) {
-          log.logError( BaseMessages.getString( PKG, "Trans.Log.StepFailedToInit", combi.stepname + "." + combi.copy ) );
-          combi.data.setStatus( StepExecutionStatus.STATUS_STOPPED );
-          ok = false;
-        } else {
-          combi.data.setStatus( StepExecutionStatus.STATUS_IDLE );
-          if ( log.isDetailed() ) {
-            log.logDetailed( BaseMessages.getString( PKG, "Trans.Log.StepInitialized", combi.stepname + "."
-                + combi.copy ) );
-          }
+    for ( int i = 0; i < initThreads.length; i++ ) {
+      StepMetaDataCombi combi = initThreads[ i ].getCombi();
+      if ( !initThreads[ i ].isOk() ) {
+        log.logError( BaseMessages.getString( PKG, "Trans.Log.StepFailedToInit", combi.stepname + "." + combi.copy ) );
+        combi.data.setStatus( StepExecutionStatus.STATUS_STOPPED );
+        ok = false;
+      } else {
+        combi.data.setStatus( StepExecutionStatus.STATUS_IDLE );
+        if ( log.isDetailed() ) {
+          log.logDetailed( BaseMessages.getString( PKG, "Trans.Log.StepInitialized", combi.stepname + "."
+              + combi.copy ) );
         }
       }
     }
@@ -1301,18 +1340,16 @@ public class Trans implements VariableSpace, NamedParams, HasLogChannelInterface
       // Halt the other threads as well, signal end-of-the line to the outside world...
       // Also explicitly call dispose() to clean up resources opened during init();
       //
-      if ( !skipInit ) {
-        for ( int i = 0; i < initThreads.length; i++ ) {
-          StepMetaDataCombi combi = initThreads[ i ].getCombi();
-          // Dispose will overwrite the status, but we set it back right after
-          // this.
-          combi.step.dispose( combi.meta, combi.data );
-
-          if ( initThreads[ i ].isOk() ) {
-            combi.data.setStatus( StepExecutionStatus.STATUS_HALTED );
-          } else {
-            combi.data.setStatus( StepExecutionStatus.STATUS_STOPPED );
-          }
+      for ( int i = 0; i < initThreads.length; i++ ) {
+        StepMetaDataCombi combi = initThreads[ i ].getCombi();
+        // Dispose will overwrite the status, but we set it back right after
+        // this.
+        combi.step.dispose( combi.meta, combi.data );
+
+        if ( initThreads[ i ].isOk() ) {
+          combi.data.setStatus( StepExecutionStatus.STATUS_HALTED );
+        } else {
+          combi.data.setStatus( StepExecutionStatus.STATUS_STOPPED );
         }
       }
 
@@ -1340,12 +1377,6 @@ public class Trans implements VariableSpace, NamedParams, HasLogChannelInterface
           + Const.CR );
       }
     }
-
-    log.snap( Metrics.METRIC_TRANSFORMATION_INIT_STOP );
-
-    KettleEnvironment.setExecutionInformation( this, repository );
-
-    setReadyToStart( true );
   }
 
   @SuppressWarnings ( "deprecation" )
@@ -1363,6 +1394,27 @@ public class Trans implements VariableSpace, NamedParams, HasLogChannelInterface
     }
   }
 
+  /**
+   * @return the factory of the threads the steps are initialized and run in, configured with KETTLE_STEP_THREAD_MODE
+   */
+  public StepThreadFactory getStepThreadFactory() {
+    if ( stepThreadFactory == null ) {
+      stepThreadFactory = StepThreadFactory.getInstance( this );
+    }
+    return stepThreadFactory;
+  }
+
+  /**
+   * The lock-free ring buffer row set is used on 1:1 hops unless KETTLE_RING_BUFFER_ROWSET is set to N.
+   *
+   * @return true if 1:1 hops should use a {@link RingBufferRowSet}
+   */
+  private boolean isRingBufferRowSetEnabled() {
+    Boolean ringBufferRowSet =
+      ValueMetaString.convertStringToBoolean( System.getProperty( Const.KETTLE_RING_BUFFER_ROWSET ) );
+    return ringBufferRowSet == null || ringBufferRowSet.booleanValue();
+  }
+
   /**
    * Starts the threads prepared by prepareThreads(). Before you start the threads, you can add RowListeners to them.
    *
@@ -1553,8 +1605,6 @@ public class Trans implements VariableSpace, NamedParams, HasLogChannelInterface
         for ( int i = 0; i < steps.size(); i++ ) {
           final StepMetaDataCombi combi = steps.get( i );
           RunThread runThread = new RunThread( combi );
-          Thread thread = new Thread( runThread );
-          thread.setName( getName() + " - " + combi.stepname );
           ExtensionPointHandler.callExtensionPoint( log, KettleExtensionPoint.StepBeforeStart.id, combi );
           // Call an extension point at the end of the step
           //
@@ -1571,6 +1621,8 @@ public class Trans implements VariableSpace, NamedParams, HasLogChannelInterface
 
           } );
 
+          Thread thread = getStepThreadFactory().newThread( runThread, getName() + " - " + combi.stepname,
+            combi.step.getLogChannel() );
           thread.start();
         }
         break;
@@ -32,8 +32,11 @@ import java.util.Map;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.concurrent.locks.ReadWriteLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.LongConsumer;
+import java.util.function.LongSupplier;
 
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Preconditions;
@@ -43,6 +46,7 @@ import org.pentaho.di.core.BlockingRowSet;
 import org.pentaho.di.core.Const;
 import org.pentaho.di.core.ExtensionDataInterface;
 import org.pentaho.di.core.ResultFile;
+import org.pentaho.di.core.RingBufferRowSet;
 import org.pentaho.di.core.RowMetaAndData;
 import org.pentaho.di.core.RowSet;
 import org.pentaho.di.core.exception.KettleException;
@@ -158,7 +162,13 @@ public class BaseStep implements VariableSpace, StepInterface, LoggingObjectInte
 
   private Trans trans;
 
-  private final Object statusCountersLock = new Object();
+  /*
+   * The status counters are updated for every row, by the step thread and sometimes by helper threads, and read by the
+   * monitoring threads. A LongAdder keeps the per-row cost down to an uncontended increment. The value returned by the
+   * increment and decrement methods is the sum read after the change, not an atomic "new value".
+   *
+   * The deprecated public fields are kept for steps that still use them, see StatusCounter.
+   */
 
   /**
    * nr of lines read from previous step(s)
@@ -209,13 +219,28 @@ public class BaseStep implements VariableSpace, StepInterface, LoggingObjectInte
   public long linesSkipped;
 
   /**
-   * total sleep time in ns caused by an empty input buffer (previous step is slow)
+   * nr of lines rejected to an error handling step
    *
    * @deprecated use {@link #getLinesRejected()} or {@link #incrementLinesRejected()}
    */
   @Deprecated
   public long linesRejected;
 
+  private final StatusCounter linesReadCounter =
+    new StatusCounter( () -> linesRead, value -> linesRead = value );
+  private final StatusCounter linesWrittenCounter =
+    new StatusCounter( () -> linesWritten, value -> linesWritten = value );
+  private final StatusCounter linesInputCounter =
+    new StatusCounter( () -> linesInput, value -> linesInput = value );
+  private final StatusCounter linesOutputCounter =
+    new StatusCounter( () -> linesOutput, value -> linesOutput = value );
+  private final StatusCounter linesUpdatedCounter =
+    new StatusCounter( () -> linesUpdated, value -> linesUpdated = value );
+  private final StatusCounter linesSkippedCounter =
+    new StatusCounter( () -> linesSkipped, value -> linesSkipped = value );
+  private final StatusCounter linesRejectedCounter =
+    new StatusCounter( () -> linesRejected, value -> linesRejected = value );
+
   private boolean distributed;
 
   private String rowDistributionCode;
@@ -366,6 +391,17 @@ public class BaseStep implements VariableSpace, StepInterface, LoggingObjectInte
 
   private static int NR_OF_ROWS_IN_BLOCK = 500;
 
+  /**
+   * How long a step waits at once for rows on a single input row set that signals its reader. Bounds the time it takes
+   * a waiting step to notice it was stopped.
+   */
+  private static final long SIGNALLED_ROW_WAIT_MILLIS = 50;
+
+  /**
+   * The default number of rows steps ask for when they read rows in blocks with {@link #getRows(int)}.
+   */
+  protected static final int ROWS_BLOCK_SIZE = 512;
+
   private int blockPointer;
 
   /**
@@ -397,6 +433,11 @@ public class BaseStep implements VariableSpace, StepInterface, LoggingObjectInte
    */
   private int lowerBufferBoundary;
 
+  /**
+   * The time to wait for room in an output rowset when rows are put in bulk, the same as the rowsets use for a single row
+   */
+  private int putRowsTimeout;
+
   /**
    * maximum number of errors to allow
    */
@@ -479,16 +520,6 @@ public class BaseStep implements VariableSpace, StepInterface, LoggingObjectInte
 
     init = false;
 
-    synchronized ( statusCountersLock ) {
-      linesRead = 0L; // new AtomicLong(0L); // Keep some statistics!
-      linesWritten = 0L; // new AtomicLong(0L);
-      linesUpdated = 0L; // new AtomicLong(0L);
-      linesSkipped = 0L; // new AtomicLong(0L);
-      linesRejected = 0L; // new AtomicLong(0L);
-      linesInput = 0L; // new AtomicLong(0L);
-      linesOutput = 0L; // new AtomicLong(0L);
-    }
-
     inputRowSets = null;
     outputRowSets = null;
     nextSteps = null;
@@ -556,6 +587,7 @@ public class BaseStep implements VariableSpace, StepInterface, LoggingObjectInte
 
     upperBufferBoundary = (int) ( transMeta.getSizeRowset() * 0.99 );
     lowerBufferBoundary = (int) ( transMeta.getSizeRowset() * 0.01 );
+    putRowsTimeout = Const.toInt( System.getProperty( Const.KETTLE_ROWSET_PUT_TIMEOUT ), Const.TIMEOUT_PUT_MILLIS );
   }
 
   /*
@@ -905,40 +937,43 @@ public class BaseStep implements VariableSpace, StepInterface, LoggingObjectInte
    */
   @Override
   public long getLinesRead() {
-    synchronized ( statusCountersLock ) {
-      return linesRead;
-    }
+    return linesReadCounter.get();
   }
 
   /**
    * Increments the number of lines read from previous steps by one
    *
-   * @return Returns the new value
+   * @return the total after the change. Other threads may change the counter at the same time, so this is not
+   *         necessarily the value this call produced.
    */
   public long incrementLinesRead() {
-    synchronized ( statusCountersLock ) {
-      return ++linesRead;
-    }
+    return linesReadCounter.add( 1 );
+  }
+
+  /**
+   * Increments the number of lines read from previous steps by the given number of rows
+   *
+   * @param nrRows the number of rows read
+   */
+  private void incrementLinesRead( int nrRows ) {
+    linesReadCounter.add( nrRows );
   }
 
   /**
    * Decrements the number of lines read from previous steps by one
    *
-   * @return Returns the new value
+   * @return the total after the change. Other threads may change the counter at the same time, so this is not
+   *         necessarily the value this call produced.
    */
   public long decrementLinesRead() {
-    synchronized ( statusCountersLock ) {
-      return --linesRead;
-    }
+    return linesReadCounter.add( -1 );
   }
 
   /**
    * @param newLinesReadValue the new number of lines read from previous steps
    */
   public void setLinesRead( long newLinesReadValue ) {
-    synchronized ( statusCountersLock ) {
-      linesRead = newLinesReadValue;
-    }
+    linesReadCounter.set( newLinesReadValue );
   }
 
   /**
@@ -946,29 +981,24 @@ public class BaseStep implements VariableSpace, StepInterface, LoggingObjectInte
    */
   @Override
   public long getLinesInput() {
-    synchronized ( statusCountersLock ) {
-      return linesInput;
-    }
+    return linesInputCounter.get();
   }
 
   /**
    * Increments the number of lines read from an input source: database, file, socket, etc.
    *
-   * @return the new incremented value
+   * @return the total after the change. Other threads may change the counter at the same time, so this is not
+   *         necessarily the value this call produced.
    */
   public long incrementLinesInput() {
-    synchronized ( statusCountersLock ) {
-      return ++linesInput;
-    }
+    return linesInputCounter.add( 1 );
   }
 
   /**
    * @param newLinesInputValue the new number of lines read from an input source: database, file, socket, etc.
    */
   public void setLinesInput( long newLinesInputValue ) {
-    synchronized ( statusCountersLock ) {
-      linesInput = newLinesInputValue;
-    }
+    linesInputCounter.set( newLinesInputValue );
   }
 
   /**
@@ -976,29 +1006,24 @@ public class BaseStep implements VariableSpace, StepInterface, LoggingObjectInte
    */
   @Override
   public long getLinesOutput() {
-    synchronized ( statusCountersLock ) {
-      return linesOutput;
-    }
+    return linesOutputCounter.get();
   }
 
   /**
    * Increments the number of lines written to an output target: database, file, socket, etc.
    *
-   * @return the new incremented value
+   * @return the total after the change. Other threads may change the counter at the same time, so this is not
+   *         necessarily the value this call produced.
    */
   public long incrementLinesOutput() {
-    synchronized ( statusCountersLock ) {
-      return ++linesOutput;
-    }
+    return linesOutputCounter.add( 1 );
   }
 
   /**
    * @param newLinesOutputValue the new number of lines written to an output target: database, file, socket, etc.
    */
   public void setLinesOutput( long newLinesOutputValue ) {
-    synchronized ( statusCountersLock ) {
-      linesOutput = newLinesOutputValue;
-    }
+    linesOutputCounter.set( newLinesOutputValue );
   }
 
   /**
@@ -1006,40 +1031,43 @@ public class BaseStep implements VariableSpace, StepInterface, LoggingObjectInte
    */
   @Override
   public long getLinesWritten() {
-    synchronized ( statusCountersLock ) {
-      return linesWritten;
-    }
+    return linesWrittenCounter.get();
   }
 
   /**
    * Increments the number of lines written to next steps by one
    *
-   * @return Returns the new value
+   * @return the total after the change. Other threads may change the counter at the same time, so this is not
+   *         necessarily the value this call produced.
    */
   public long incrementLinesWritten() {
-    synchronized ( statusCountersLock ) {
-      return ++linesWritten;
-    }
+    return linesWrittenCounter.add( 1 );
+  }
+
+  /**
+   * Increments the number of lines written to next steps by the given number of rows
+   *
+   * @param nrRows the number of rows written
+   */
+  private void incrementLinesWritten( int nrRows ) {
+    linesWrittenCounter.add( nrRows );
   }
 
   /**
    * Decrements the number of lines written to next steps by one
    *
-   * @return Returns the new value
+   * @return the total after the change. Other threads may change the counter at the same time, so this is not
+   *         necessarily the value this call produced.
    */
   public long decrementLinesWritten() {
-    synchronized ( statusCountersLock ) {
-      return --linesWritten;
-    }
+    return linesWrittenCounter.add( -1 );
   }
 
   /**
    * @param newLinesWrittenValue the new number of lines written to next steps
    */
   public void setLinesWritten( long newLinesWrittenValue ) {
-    synchronized ( statusCountersLock ) {
-      linesWritten = newLinesWrittenValue;
-    }
+    linesWrittenCounter.set( newLinesWrittenValue );
   }
 
   /**
@@ -1047,29 +1075,24 @@ public class BaseStep implements VariableSpace, StepInterface, LoggingObjectInte
    */
   @Override
   public long getLinesUpdated() {
-    synchronized ( statusCountersLock ) {
-      return linesUpdated;
-    }
+    return linesUpdatedCounter.get();
   }
 
   /**
    * Increments the number of lines updated in an output target: database, file, socket, etc.
    *
-   * @return the new incremented value
+   * @return the total after the change. Other threads may change the counter at the same time, so this is not
+   *         necessarily the value this call produced.
    */
   public long incrementLinesUpdated() {
-    synchronized ( statusCountersLock ) {
-      return ++linesUpdated;
-    }
+    return linesUpdatedCounter.add( 1 );
   }
 
   /**
    * @param newLinesUpdatedValue the new number of lines updated in an output target: database, file, socket, etc.
    */
   public void setLinesUpdated( long newLinesUpdatedValue ) {
-    synchronized ( statusCountersLock ) {
-      linesUpdated = newLinesUpdatedValue;
-    }
+    linesUpdatedCounter.set( newLinesUpdatedValue );
   }
 
   /**
@@ -1077,20 +1100,17 @@ public class BaseStep implements VariableSpace, StepInterface, LoggingObjectInte
    */
   @Override
   public long getLinesRejected() {
-    synchronized ( statusCountersLock ) {
-      return linesRejected;
-    }
+    return linesRejectedCounter.get();
   }
 
   /**
    * Increments the number of lines rejected to an error handling step
    *
-   * @return the new incremented value
+   * @return the total after the change. Other threads may change the counter at the same time, so this is not
+   *         necessarily the value this call produced.
    */
   public long incrementLinesRejected() {
-    synchronized ( statusCountersLock ) {
-      return ++linesRejected;
-    }
+    return linesRejectedCounter.add( 1 );
   }
 
   /**
@@ -1098,38 +1118,31 @@ public class BaseStep implements VariableSpace, StepInterface, LoggingObjectInte
    */
   @Override
   public void setLinesRejected( long newLinesRejectedValue ) {
-    synchronized ( statusCountersLock ) {
-      linesRejected = newLinesRejectedValue;
-    }
+    linesRejectedCounter.set( newLinesRejectedValue );
   }
 
   /**
    * @return the number of lines skipped
    */
   public long getLinesSkipped() {
-    synchronized ( statusCountersLock ) {
-      return linesSkipped;
-    }
+    return linesSkippedCounter.get();
   }
 
   /**
    * Increments the number of lines skipped
    *
-   * @return the new incremented value
+   * @return the total after the change. Other threads may change the counter at the same time, so this is not
+   *         necessarily the value this call produced.
    */
   public long incrementLinesSkipped() {
-    synchronized ( statusCountersLock ) {
-      return ++linesSkipped;
-    }
+    return linesSkippedCounter.add( 1 );
   }
 
   /**
    * @param newLinesSkippedValue lines number of lines skipped
    */
   public void setLinesSkipped( long newLinesSkippedValue ) {
-    synchronized ( statusCountersLock ) {
-      linesSkipped = newLinesSkippedValue;
-    }
+    linesSkippedCounter.set( newLinesSkippedValue );
   }
 
   /*
@@ -1261,6 +1274,82 @@ public class BaseStep implements VariableSpace, StepInterface, LoggingObjectInte
     getRowHandler().putRow( rowMeta, row );
   }
 
+  /**
+   * Put a block of rows with the same layout to the destination rowset(s). This is the bulk counterpart of
+   * {@link #putRow(RowMetaInterface, Object[])}: when the rows can be passed on as a block (a single output rowset, no
+   * row listeners, no partitioning) the locking and the status counter updates are done once per block instead of once
+   * per row. In all other cases the rows are passed on one by one.
+   *
+   * @param rowMeta The row meta-data of all the rows.
+   * @param rows    The rows to put to the destination rowset(s).
+   * @throws KettleStepException
+   */
+  public void putRows( RowMetaInterface rowMeta, List<Object[]> rows ) throws KettleStepException {
+    if ( rows.isEmpty() ) {
+      return;
+    }
+    // The first row goes through putRow() to do the checks, wait for the transformation to start, etc.
+    //
+    putRow( rowMeta, rows.get( 0 ) );
+    if ( rows.size() > 1 ) {
+      getRowHandler().putRows( rowMeta, rows.subList( 1, rows.size() ) );
+    }
+  }
+
+  private void handlePutRows( RowMetaInterface rowMeta, List<Object[]> rows ) throws KettleStepException {
+    outputRowSetsLock.readLock().lock();
+    try {
+      if ( isPuttingRowsInBulk() ) {
+        RowSet rowSet = outputRowSets.get( 0 );
+        RowMetaInterface toBeSent = rowSet.getRowMeta() == null ? rowMeta.clone() : rowSet.getRowMeta();
+
+        int index = 0;
+        while ( index < rows.size() ) {
+          // To reduce stress on the locking system we are NOT going to allow
+          // the buffer to grow to its full capacity, just like putRow()
+          //
+          if ( isUsingThreadPriorityManagment() && !rowSet.isDone() && rowSet.size() >= upperBufferBoundary
+            && !isStopped() ) {
+            try {
+              Thread.sleep( 0, 1 );
+            } catch ( InterruptedException e ) {
+              // Ignore sleep interruption exception
+            }
+          }
+
+          int nrRows = rowSet.putRowsWait( toBeSent, rows, index, putRowsTimeout, TimeUnit.MILLISECONDS );
+          if ( nrRows > 0 ) {
+            incrementLinesWritten( nrRows );
+            index += nrRows;
+          } else if ( isStopped() && !safeStopped.get() ) {
+            return;
+          }
+        }
+        return;
+      }
+    } finally {
+      outputRowSetsLock.readLock().unlock();
+    }
+
+    for ( Object[] row : rows ) {
+      handlePutRow( rowMeta, row );
+    }
+  }
+
+  /**
+   * Rows can only be handed over as a block if nothing needs to see or route the individual rows.
+   */
+  private boolean isPuttingRowsInBulk() {
+    return outputRowSets.size() == 1
+      && rowListeners.isEmpty()
+      && !terminator
+      && repartitioning == StepPartitioningMeta.PARTITIONING_METHOD_NONE
+      && ( !distributed || rowDistribution == null )
+      && !paused.get()
+      && !stopped.get()
+      && checkTransRunning;
+  }
+
   private void handlePutRow( RowMetaInterface rowMeta, Object[] row ) throws KettleStepException {
     // Are we pausing the step? If so, stall forever...
     //
@@ -1818,6 +1907,68 @@ public class BaseStep implements VariableSpace, StepInterface, LoggingObjectInte
     return getRowHandler().getRow();
   }
 
+  /**
+   * Get a block of rows from the input. The first row is read with {@link #getRow()}, after that all rows that are
+   * immediately available on the same input rowset are added, up to the given maximum. Locking, the status counters
+   * and the row listeners are handled once per block where possible. Steps can use this method together with
+   * {@link #putRows(RowMetaInterface, List)} to process rows in blocks.
+   *
+   * @param maxRows the maximum number of rows to return
+   * @return a list with at least one row, or null if there is no more input.
+   * @throws KettleException
+   */
+  public List<Object[]> getRows( int maxRows ) throws KettleException {
+    Object[] row = getRow();
+    if ( row == null ) {
+      return null;
+    }
+    List<Object[]> rows = new ArrayList<>( Math.min( Math.max( maxRows, 1 ), NR_OF_ROWS_IN_BLOCK ) );
+    rows.add( row );
+    if ( maxRows > 1 ) {
+      getRowHandler().getRows( rows, maxRows - 1 );
+    }
+    return rows;
+  }
+
+  private void handleGetRows( List<Object[]> rows, int maxRows ) throws KettleStepException {
+    if ( paused.get() || stopped.get() ) {
+      return;
+    }
+
+    int offset = rows.size();
+    int nrRows = 0;
+    RowSet inputRowSet;
+
+    inputRowSetsLock.readLock().lock();
+    try {
+      if ( inputRowSets.isEmpty() || blockPointer >= NR_OF_ROWS_IN_BLOCK ) {
+        return;
+      }
+      inputRowSet = currentInputStream();
+
+      // Only rows with the same layout as the row that was just read
+      //
+      if ( prevSteps != null && prevSteps.length > 1 && inputRowSet.getRowMeta() != inputRowMeta ) {
+        return;
+      }
+      nrRows = inputRowSet.drainTo( rows, Math.min( maxRows, NR_OF_ROWS_IN_BLOCK - blockPointer ) );
+      blockPointer += nrRows;
+    } finally {
+      inputRowSetsLock.readLock().unlock();
+    }
+
+    if ( nrRows > 0 ) {
+      incrementLinesRead( nrRows );
+
+      for ( RowListener listener : rowListeners ) {
+        for ( int i = offset; i < rows.size(); i++ ) {
+          listener.rowReadEvent( inputRowMeta, rows.get( i ) );
+        }
+      }
+      verifyRejectionRates();
+    }
+  }
+
 
   private Object[] handleGetRow() throws KettleException {
 
@@ -1909,7 +2060,7 @@ public class BaseStep implements VariableSpace, StepInterface, LoggingObjectInte
         // Timeout immediately if nothing is there to read.
         // We will then switch to the next row set to read from...
         //
-        row = inputRowSet.getRowWait( 1, TimeUnit.MILLISECONDS );
+        row = inputRowSet.getRowWait( getRowWaitMillis( inputRowSet ), TimeUnit.MILLISECONDS );
         if ( row != null ) {
           incrementLinesRead();
           blockPointer++;
@@ -2198,6 +2349,22 @@ public class BaseStep implements VariableSpace, StepInterface, LoggingObjectInte
     }
   }
 
+  /**
+   * A step with a single input row set that signals its reader (a ring buffer row set with the BLOCK wait strategy)
+   * parks until a row arrives. Otherwise the input row sets are checked every millisecond so the step can switch to
+   * another one.
+   *
+   * @param rowSet the row set to wait on
+   * @return the time to wait for a row in ms
+   */
+  private long getRowWaitMillis( RowSet rowSet ) {
+    if ( inputRowSets.size() == 1 && rowSet instanceof RingBufferRowSet
+      && ( (RingBufferRowSet) rowSet ).getWaitStrategy() == RingBufferRowSet.WaitStrategy.BLOCK ) {
+      return SIGNALLED_ROW_WAIT_MILLIS;
+    }
+    return 1;
+  }
+
   /**
    * Gets the row from.
    *
@@ -3380,22 +3547,20 @@ public class BaseStep implements VariableSpace, StepInterface, LoggingObjectInte
    * Log summary.
    */
   public void logSummary() {
-    synchronized ( statusCountersLock ) {
-      long li = getLinesInput();
-      long lo = getLinesOutput();
-      long lr = getLinesRead();
-      long lw = getLinesWritten();
-      long lu = getLinesUpdated();
-      long lj = getLinesRejected();
-      if ( li > 0 || lo > 0 || lr > 0 || lw > 0 || lu > 0 || lj > 0 || errors > 0 ) {
-        logBasic( BaseMessages.getString( PKG, "BaseStep.Log.SummaryInfo", String.valueOf( li ), String
-          .valueOf( lo ), String.valueOf( lr ), String.valueOf( lw ), String.valueOf( lw ), String
-          .valueOf( errors + lj ) ) );
-      } else {
-        logDetailed( BaseMessages.getString( PKG, "BaseStep.Log.SummaryInfo", String.valueOf( li ), String
-          .valueOf( lo ), String.valueOf( lr ), String.valueOf( lw ), String.valueOf( lw ), String
-          .valueOf( errors + lj ) ) );
-      }
+    long li = getLinesInput();
+    long lo = getLinesOutput();
+    long lr = getLinesRead();
+    long lw = getLinesWritten();
+    long lu = getLinesUpdated();
+    long lj = getLinesRejected();
+    if ( li > 0 || lo > 0 || lr > 0 || lw > 0 || lu > 0 || lj > 0 || errors > 0 ) {
+      logBasic( BaseMessages.getString( PKG, "BaseStep.Log.SummaryInfo", String.valueOf( li ), String
+        .valueOf( lo ), String.valueOf( lr ), String.valueOf( lw ), String.valueOf( lw ), String
+        .valueOf( errors + lj ) ) );
+    } else {
+      logDetailed( BaseMessages.getString( PKG, "BaseStep.Log.SummaryInfo", String.valueOf( li ), String
+        .valueOf( lo ), String.valueOf( lr ), String.valueOf( lw ), String.valueOf( lw ), String
+        .valueOf( errors + lj ) ) );
     }
   }
 
@@ -3730,6 +3895,20 @@ public class BaseStep implements VariableSpace, StepInterface, LoggingObjectInte
       && ( lines % getTransMeta().getFeedbackSize() ) == 0;
   }
 
+  /**
+   * Feedback check for steps that process rows in blocks.
+   *
+   * @param fromLines the number of lines before the block was processed
+   * @param toLines   the number of lines after the block was processed
+   * @return true if a feedback line was passed while processing the block
+   */
+  protected boolean checkFeedback( long fromLines, long toLines ) {
+    int feedbackSize = getTransMeta().getFeedbackSize();
+    return getTransMeta().isFeedbackShown()
+      && ( toLines > 0 ) && ( feedbackSize > 0 )
+      && ( toLines / feedbackSize ) > ( fromLines / feedbackSize );
+  }
+
   /**
    * @return the rowMeta
    */
@@ -4411,6 +4590,14 @@ public class BaseStep implements VariableSpace, StepInterface, LoggingObjectInte
       handlePutRowTo( rowMeta, row, rowSet );
     }
 
+    @Override public void getRows( List<Object[]> rows, int maxRows ) throws KettleException {
+      handleGetRows( rows, maxRows );
+    }
+
+    @Override public void putRows( RowMetaInterface rowMeta, List<Object[]> rows ) throws KettleStepException {
+      handlePutRows( rowMeta, rows );
+    }
+
   }
 
   private boolean isFailedResponse( JSONObject response ) {
@@ -4420,5 +4607,75 @@ public class BaseStep implements VariableSpace, StepInterface, LoggingObjectInte
 
     return false;
   }
+
+  /**
+   * Keeps one of the deprecated public counter fields in step with a LongAdder. The increment and decrement methods add
+   * to the LongAdder and then copy the total to the field, so a step that still reads the field sees the count. A step
+   * that still writes the field moves it away from the last copy, and that difference is added to the count. Copying is
+   * skipped while another thread copies or reads, so the field is a snapshot that can be a few rows behind.
+   */
+  private static final class StatusCounter {
+    private final LongSupplier field;
+    private final LongConsumer fieldSetter;
+    private final LongAdder changes = new LongAdder();
+    private final AtomicBoolean busy = new AtomicBoolean();
+
+    /**
+     * The changes made directly to the field, guarded by busy
+     */
+    private long direct;
+
+    /**
+     * The value last copied to the field, guarded by busy
+     */
+    private long copied;
+
+    StatusCounter( LongSupplier field, LongConsumer fieldSetter ) {
+      this.field = field;
+      this.fieldSetter = fieldSetter;
+    }
+
+    long add( long delta ) {
+      changes.add( delta );
+      if ( !busy.compareAndSet( false, true ) ) {
+        return changes.sum() + direct;
+      }
+      try {
+        direct += field.getAsLong() - copied;
+        copied = changes.sum() + direct;
+        fieldSetter.accept( copied );
+        return copied;
+      } finally {
+        busy.set( false );
+      }
+    }
+
+    long get() {
+      lock();
+      try {
+        return changes.sum() + direct + field.getAsLong() - copied;
+      } finally {
+        busy.set( false );
+      }
+    }
+
+    void set( long value ) {
+      lock();
+      try {
+        changes.reset();
+        direct = value;
+        copied = value;
+        fieldSetter.accept( value );
+      } finally {
+        busy.set( false );
+      }
+    }
+
+    private void lock() {
+      while ( !busy.compareAndSet( false, true ) ) {
+        Thread.onSpinWait();
+      }
+    }
+  }
 }
 
@@ -20,6 +20,7 @@ import java.io.DataOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.io.PushbackInputStream;
 import java.net.InetSocketAddress;
 import java.net.ServerSocket;
 import java.net.Socket;
@@ -113,6 +114,9 @@ public class RemoteStep implements Cloneable, XMLInterface, Comparable<RemoteSte
 
   protected RowMetaInterface rowMeta;
 
+  /** True if the rows are exchanged with the remote step in blocks, see {@link RowBlockProtocol} */
+  private boolean blockProtocol;
+
   /**
    * @param hostname
    * @param remoteHostname
@@ -344,10 +348,18 @@ public class RemoteStep implements Cloneable, XMLInterface, Comparable<RemoteSte
           //
           socket = serverSocket.accept();
 
+          // See if the reading side understands blocks of rows
+          //
+          blockProtocol =
+            RowBlockProtocol.isEnabled()
+              && RowBlockProtocol.acceptOffer( socket, RowBlockProtocol.HANDSHAKE_TIMEOUT );
+
           // Create the output stream...
           OutputStream socketOut = socket.getOutputStream();
 
-          if ( compressingStreams ) {
+          // Blocks are compressed one by one
+          //
+          if ( compressingStreams && !blockProtocol ) {
             gzipOutputStream = new GZIPOutputStream( socketOut, 50000 );
             bufferedOutputStream = new BufferedOutputStream( gzipOutputStream, bufferSize );
           } else {
@@ -384,8 +396,12 @@ public class RemoteStep implements Cloneable, XMLInterface, Comparable<RemoteSte
 
           // get a row of data...
           Object[] rowData = baseStep.getRowFrom( rowSet );
+          RowBlockWriter blockWriter = null;
           if ( rowData != null ) {
             rowSet.getRowMeta().writeMeta( outputStream );
+            if ( blockProtocol ) {
+              blockWriter = new RowBlockWriter( outputStream, rowSet.getRowMeta(), compressingStreams );
+            }
           }
 
           // Send that row to the remote step
@@ -397,7 +413,11 @@ public class RemoteStep implements Cloneable, XMLInterface, Comparable<RemoteSte
 
             // Write the row to the remote step via the output stream....
             //
-            rowSet.getRowMeta().writeData( outputStream, rowData );
+            if ( blockWriter != null ) {
+              blockWriter.writeRow( rowData );
+            } else {
+              rowSet.getRowMeta().writeData( outputStream, rowData );
+            }
             baseStep.incrementLinesOutput();
 
             if ( baseStep.log.isDebug() ) {
@@ -406,7 +426,10 @@ public class RemoteStep implements Cloneable, XMLInterface, Comparable<RemoteSte
             rowData = baseStep.getRowFrom( rowSet );
           }
 
-          if ( compressingStreams ) {
+          if ( blockWriter != null ) {
+            blockWriter.close();
+          }
+          if ( gzipOutputStream != null ) {
             outputStream.flush();
             gzipOutputStream.finish();
           } else {
@@ -521,7 +544,12 @@ public class RemoteStep implements Cloneable, XMLInterface, Comparable<RemoteSte
     }
   }
 
-  private Object[] getRowOfData( RowMetaInterface rowMeta ) throws KettleFileException {
+  private Object[] getRowOfData( RowMetaInterface rowMeta, RowBlockReader blockReader ) throws KettleFileException {
+    if ( blockReader != null ) {
+      // null marks the end of the blocks
+      return blockReader.readRow();
+    }
+
     Object[] rowData = null;
 
     while ( !baseStep.isStopped() && rowData == null ) {
@@ -535,6 +563,51 @@ public class RemoteStep implements Cloneable, XMLInterface, Comparable<RemoteSte
     return rowData;
   }
 
+  /**
+   * Create the stream the rows are read from: decompressing, buffering and decrypting the socket stream.
+   *
+   * @param socketStream
+   *          the input stream of the socket
+   * @param compressed
+   *          true if the whole stream is compressed with GZIP
+   * @throws IOException
+   *           in case the GZIP header can't be read
+   */
+  private void openInputStream( InputStream socketStream, boolean compressed ) throws IOException {
+    if ( compressed ) {
+      gzipInputStream = new GZIPInputStream( socketStream );
+      bufferedInputStream = new BufferedInputStream( gzipInputStream, bufferSize );
+    } else {
+      bufferedInputStream = new BufferedInputStream( socketStream, bufferSize );
+    }
+    socketStream = bufferedInputStream;
+
+    if ( encryptingStreams && key != null ) {
+      byte[] transKey = baseStep.getTransMeta().getKey();
+      Key unwrappedKey = null;
+      try {
+        unwrappedKey = CertificateGenEncryptUtil.decodeTransmittedKey( transKey, key,
+          baseStep.getTransMeta().isPrivateKey() );
+      } catch ( InvalidKeyException ex ) {
+        baseStep.logError( "Invalid key was received", ex );
+      } catch ( InvalidKeySpecException ex ) {
+        baseStep.logError( "Invalid key specification was received. Most probably public key was "
+            + "sent instead of private or vice versa", ex );
+      } catch ( Exception ex ) {
+        baseStep.logError( "Error occurred during encryption initialization", ex );
+      }
+      try {
+        Cipher decryptionCip = CertificateGenEncryptUtil.initDecryptionCipher( unwrappedKey, key );
+        socketStream = cipherInputStream = new CipherInputStream( bufferedInputStream, decryptionCip );
+      } catch ( InvalidKeyException ex ) {
+        baseStep.logError( "Invalid key was received", ex );
+      } catch ( Exception ex ) {
+        baseStep.logError( "Error occurred during encryption initialization", ex );
+      }
+    }
+    inputStream = new DataInputStream( socketStream );
+  }
+
   public synchronized BlockingRowSet openReaderSocket( final BaseStep baseStep ) throws IOException,
     KettleException {
     this.baseStep = baseStep;
@@ -557,6 +630,7 @@ public class RemoteStep implements Cloneable, XMLInterface, Comparable<RemoteSte
     //
     long startTime = System.currentTimeMillis();
     boolean connected = false;
+    boolean negotiating = false;
     KettleException lastException = null;
 
     // // timeout with retry until connected
@@ -573,39 +647,14 @@ public class RemoteStep implements Cloneable, XMLInterface, Comparable<RemoteSte
 
         connected = true;
 
-        InputStream socketStream = socket.getInputStream();
-        if ( compressingStreams ) {
-          gzipInputStream = new GZIPInputStream( socketStream );
-          bufferedInputStream = new BufferedInputStream( gzipInputStream, bufferSize );
+        if ( RowBlockProtocol.isEnabled() ) {
+          // The answer of the writing side is read in the reading thread, together with the first rows
+          //
+          RowBlockProtocol.offer( socket );
+          negotiating = true;
         } else {
-          bufferedInputStream = new BufferedInputStream( socketStream, bufferSize );
+          openInputStream( socket.getInputStream(), compressingStreams );
         }
-        socketStream = bufferedInputStream;
-
-        if ( encryptingStreams && key != null ) {
-          byte[] transKey = baseStep.getTransMeta().getKey();
-          Key unwrappedKey = null;
-          try {
-            unwrappedKey = CertificateGenEncryptUtil.decodeTransmittedKey( transKey, key,
-              baseStep.getTransMeta().isPrivateKey() );
-          } catch ( InvalidKeyException ex ) {
-            baseStep.logError( "Invalid key was received", ex );
-          } catch ( InvalidKeySpecException ex ) {
-            baseStep.logError( "Invalid key specification was received. Most probably public key was "
-                + "sent instead of private or vice versa", ex );
-          } catch ( Exception ex ) {
-            baseStep.logError( "Error occurred during encryption initialization", ex );
-          }
-          try {
-            Cipher decryptionCip = CertificateGenEncryptUtil.initDecryptionCipher( unwrappedKey, key );
-            socketStream = cipherInputStream = new CipherInputStream( bufferedInputStream, decryptionCip );
-          } catch ( InvalidKeyException ex ) {
-            baseStep.logError( "Invalid key was received", ex );
-          } catch ( Exception ex ) {
-            baseStep.logError( "Error occurred during encryption initialization", ex );
-          }
-        }
-        inputStream = new DataInputStream( socketStream );
 
         lastException = null;
       } catch ( Exception e ) {
@@ -643,7 +692,7 @@ public class RemoteStep implements Cloneable, XMLInterface, Comparable<RemoteSte
       }
       throw lastException;
     } else {
-      if ( inputStream == null ) {
+      if ( inputStream == null && !negotiating ) {
         throw new KettleException( "Unable to connect to the SocketWriter in the "
           + TIMEOUT_IN_SECONDS + "s timeout period." );
       }
@@ -661,6 +710,12 @@ public class RemoteStep implements Cloneable, XMLInterface, Comparable<RemoteSte
     Runnable runnable = new Runnable() {
       public void run() {
         try {
+          if ( inputStream == null ) {
+            PushbackInputStream socketStream =
+              new PushbackInputStream( socket.getInputStream(), RowBlockProtocol.HANDSHAKE_LENGTH );
+            blockProtocol = RowBlockProtocol.isAccepted( socketStream );
+            openInputStream( socketStream, compressingStreams && !blockProtocol );
+          }
 
           // First read the row meta data from the socket...
           //
@@ -677,9 +732,11 @@ public class RemoteStep implements Cloneable, XMLInterface, Comparable<RemoteSte
             throw new KettleEOFException(); // leave now.
           }
 
+          RowBlockReader blockReader = blockProtocol ? new RowBlockReader( inputStream, rowMeta ) : null;
+
           // And a first row of data...
           //
-          Object[] rowData = getRowOfData( rowMeta );
+          Object[] rowData = getRowOfData( rowMeta, blockReader );
 
           // Now get the data itself, row by row...
           //
@@ -693,7 +750,7 @@ public class RemoteStep implements Cloneable, XMLInterface, Comparable<RemoteSte
 
             baseStep.putRowTo( rowMeta, rowData, rowSet );
             baseStep.decrementLinesWritten();
-            rowData = getRowOfData( rowMeta );
+            rowData = getRowOfData( rowMeta, blockReader );
           }
         } catch ( KettleEOFException e ) {
           // Nothing, we're simply done reading...
@@ -0,0 +1,139 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.di.trans.step;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PushbackInputStream;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+
+import org.pentaho.di.core.Const;
+import org.pentaho.di.core.row.value.ValueMetaString;
+
+/**
+ * Negotiates the columnar block protocol of {@link RowBlockWriter} and {@link RowBlockReader} between the side that
+ * reads rows from a socket (the client) and the side that writes them (the server).<br>
+ * <br>
+ * The client offers the protocol by sending a hello as soon as it's connected. A server that supports the protocol
+ * answers with the same hello and sends the rows in blocks. Older servers never read from the socket and simply start
+ * sending rows one by one, older clients never send the hello: the server stops waiting for it after
+ * {@link #HANDSHAKE_TIMEOUT} milliseconds and sends rows one by one.
+ *
+ * @since 11.1
+ */
+public class RowBlockProtocol {
+  public static final int VERSION = 1;
+
+  /** The number of milliseconds a server waits for the hello of a client */
+  public static final int HANDSHAKE_TIMEOUT = 5000;
+
+  /** 'K', 'B', 'L', 'K' followed by the version, never the start of a row by row or GZIP stream */
+  private static final byte[] HELLO = { 'K', 'B', 'L', 'K', 0, 0, 0, VERSION };
+
+  public static final int HANDSHAKE_LENGTH = HELLO.length;
+
+  private RowBlockProtocol() {
+  }
+
+  /**
+   * The protocol is offered and accepted unless KETTLE_ROW_BLOCK_PROTOCOL is set to N.
+   *
+   * @return true if the block protocol can be used
+   */
+  public static boolean isEnabled() {
+    Boolean enabled = ValueMetaString.convertStringToBoolean( System.getProperty( Const.KETTLE_ROW_BLOCK_PROTOCOL ) );
+    return enabled == null || enabled.booleanValue();
+  }
+
+  /**
+   * Offer the block protocol to the server, called by the client right after connecting.
+   *
+   * @param socket
+   *          the connected socket
+   * @throws IOException
+   *           in case the hello can't be sent
+   */
+  public static void offer( Socket socket ) throws IOException {
+    OutputStream out = socket.getOutputStream();
+    out.write( HELLO );
+    out.flush();
+  }
+
+  /**
+   * Wait for the hello of the client and accept the block protocol if it was offered. Called by the server before it
+   * sends anything.
+   *
+   * @param socket
+   *          the accepted socket
+   * @param timeout
+   *          the number of milliseconds to wait for the hello
+   * @return true if the rows are to be sent in blocks, false if the client doesn't support them
+   * @throws IOException
+   *           in case the socket can't be read or written
+   */
+  public static boolean acceptOffer( Socket socket, int timeout ) throws IOException {
+    int previousTimeout = socket.getSoTimeout();
+    socket.setSoTimeout( timeout );
+    try {
+      InputStream in = socket.getInputStream();
+      for ( int i = 0; i < HELLO.length; i++ ) {
+        if ( in.read() != ( HELLO[i] & 0xFF ) ) {
+          return false;
+        }
+      }
+    } catch ( SocketTimeoutException e ) {
+      // An older client, it doesn't send anything
+      return false;
+    } finally {
+      socket.setSoTimeout( previousTimeout );
+    }
+
+    OutputStream out = socket.getOutputStream();
+    out.write( HELLO );
+    out.flush();
+    return true;
+  }
+
+  /**
+   * Check if the server accepted the block protocol. The bytes read are pushed back if it didn't: they are the start
+   * of the rows sent one by one.
+   *
+   * @param in
+   *          the input stream of the socket, able to push back {@link #HANDSHAKE_LENGTH} bytes
+   * @return true if the rows are sent in blocks
+   * @throws IOException
+   *           in case the socket can't be read
+   */
+  public static boolean isAccepted( PushbackInputStream in ) throws IOException {
+    byte[] read = new byte[HELLO.length];
+    int length = 0;
+    while ( length < HELLO.length ) {
+      int b = in.read();
+      if ( b < 0 ) {
+        break;
+      }
+      read[length++] = (byte) b;
+      if ( read[length - 1] != HELLO[length - 1] ) {
+        break;
+      }
+    }
+    if ( length == HELLO.length && read[length - 1] == HELLO[length - 1] ) {
+      return true;
+    }
+    in.unread( read, 0, length );
+    return false;
+  }
+}
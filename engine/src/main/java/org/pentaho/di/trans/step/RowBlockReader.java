@@ -0,0 +1,226 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.di.trans.step;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+
+import org.pentaho.di.core.exception.KettleEOFException;
+import org.pentaho.di.core.exception.KettleFileException;
+import org.pentaho.di.core.row.RowDataUtil;
+import org.pentaho.di.core.row.RowMetaInterface;
+import org.pentaho.di.core.row.ValueMetaInterface;
+import org.xerial.snappy.Snappy;
+
+/**
+ * Reads the blocks of rows written by a {@link RowBlockWriter}. Blocks are decoded one at a time, so a slow consumer
+ * of the rows stops the reading from the stream and, through the socket, the writer.
+ *
+ * @since 11.1
+ */
+public class RowBlockReader {
+  private final DataInputStream inputStream;
+  private final RowMetaInterface rowMeta;
+
+  private Object[][] rows = new Object[0][];
+  private int nrRows;
+  private int position;
+  private boolean ended;
+
+  private byte[] encoded = new byte[0];
+  private byte[] compressed = new byte[0];
+
+  /**
+   * @param inputStream
+   *          the stream to read from, the row metadata was read from it already
+   * @param rowMeta
+   *          the metadata of the rows
+   */
+  public RowBlockReader( DataInputStream inputStream, RowMetaInterface rowMeta ) {
+    this.inputStream = inputStream;
+    this.rowMeta = rowMeta;
+  }
+
+  /**
+   * @return the next row or null if the writer ended the stream
+   * @throws KettleEOFException
+   *           in case the stream ended between two blocks without being ended by the writer
+   * @throws KettleFileException
+   *           in case a block can't be read
+   */
+  public Object[] readRow() throws KettleFileException {
+    if ( position == nrRows && !readBlock() ) {
+      return null;
+    }
+    Object[] row = rows[position];
+    rows[position++] = null;
+    return row;
+  }
+
+  private boolean readBlock() throws KettleFileException {
+    if ( ended ) {
+      return false;
+    }
+    int blockRows;
+    try {
+      blockRows = inputStream.readInt();
+    } catch ( EOFException e ) {
+      throw new KettleEOFException( e );
+    } catch ( IOException e ) {
+      throw new KettleFileException( "Unable to read a block of rows", e );
+    }
+    if ( blockRows == 0 ) {
+      ended = true;
+      return false;
+    }
+
+    try {
+      int flags = inputStream.readUnsignedByte();
+      int length = inputStream.readInt();
+      if ( encoded.length < length ) {
+        encoded = new byte[length];
+      }
+      if ( ( flags & RowBlockWriter.FLAG_COMPRESSED ) != 0 ) {
+        int compressedLength = inputStream.readInt();
+        if ( compressed.length < compressedLength ) {
+          compressed = new byte[compressedLength];
+        }
+        inputStream.readFully( compressed, 0, compressedLength );
+        Snappy.uncompress( compressed, 0, compressedLength, encoded, 0 );
+      } else {
+        inputStream.readFully( encoded, 0, length );
+      }
+
+      if ( rows.length < blockRows ) {
+        rows = new Object[blockRows][];
+      }
+      for ( int i = 0; i < blockRows; i++ ) {
+        rows[i] = RowDataUtil.allocateRowData( rowMeta.size() );
+      }
+      nrRows = blockRows;
+      position = 0;
+
+      DataInputStream block = new DataInputStream( new ByteArrayInputStream( encoded, 0, length ) );
+      for ( int i = 0; i < rowMeta.size(); i++ ) {
+        readColumn( block, rowMeta.getValueMeta( i ), i );
+      }
+    } catch ( IOException e ) {
+      throw new KettleFileException( "Unable to read a block of rows", e );
+    }
+    return true;
+  }
+
+  private void readColumn( DataInputStream block, ValueMetaInterface valueMeta, int index ) throws IOException,
+    KettleFileException {
+    int encoding = block.readUnsignedByte();
+    if ( encoding == RowBlockWriter.ENCODING_VALUES ) {
+      for ( int i = 0; i < nrRows; i++ ) {
+        rows[i][index] = valueMeta.readData( block );
+      }
+      return;
+    }
+
+    boolean[] nulls = readBits( block );
+    switch ( encoding ) {
+      case RowBlockWriter.ENCODING_LONGS:
+        boolean dates = valueMeta.getType() == ValueMetaInterface.TYPE_DATE;
+        long previous = 0;
+        for ( int i = 0; i < nrRows; i++ ) {
+          if ( !nulls[i] ) {
+            previous += unZigZag( readVarLong( block ) );
+            rows[i][index] = dates ? new Date( previous ) : Long.valueOf( previous );
+          }
+        }
+        break;
+      case RowBlockWriter.ENCODING_DOUBLES:
+        for ( int i = 0; i < nrRows; i++ ) {
+          if ( !nulls[i] ) {
+            rows[i][index] = block.readDouble();
+          }
+        }
+        break;
+      case RowBlockWriter.ENCODING_STRINGS:
+        for ( int i = 0; i < nrRows; i++ ) {
+          if ( !nulls[i] ) {
+            rows[i][index] = readString( block );
+          }
+        }
+        break;
+      case RowBlockWriter.ENCODING_DICTIONARY:
+        String[] entries = new String[(int) readVarLong( block )];
+        for ( int i = 0; i < entries.length; i++ ) {
+          entries[i] = readString( block );
+        }
+        String entry = null;
+        int run = 0;
+        for ( int i = 0; i < nrRows; i++ ) {
+          if ( !nulls[i] ) {
+            if ( run == 0 ) {
+              entry = entries[(int) readVarLong( block )];
+              run = (int) readVarLong( block );
+            }
+            rows[i][index] = entry;
+            run--;
+          }
+        }
+        break;
+      case RowBlockWriter.ENCODING_BOOLEANS:
+        boolean[] values = readBits( block );
+        for ( int i = 0; i < nrRows; i++ ) {
+          if ( !nulls[i] ) {
+            rows[i][index] = Boolean.valueOf( values[i] );
+          }
+        }
+        break;
+      default:
+        throw new KettleFileException( "Unknown encoding " + encoding + " of field '" + valueMeta.getName() + "'" );
+    }
+  }
+
+  private boolean[] readBits( DataInputStream block ) throws IOException {
+    byte[] bytes = new byte[( nrRows + 7 ) / 8];
+    block.readFully( bytes );
+    boolean[] bits = new boolean[nrRows];
+    for ( int i = 0; i < nrRows; i++ ) {
+      bits[i] = ( bytes[i >> 3] & ( 1 << ( i & 7 ) ) ) != 0;
+    }
+    return bits;
+  }
+
+  private static String readString( DataInputStream block ) throws IOException {
+    byte[] bytes = new byte[(int) readVarLong( block )];
+    block.readFully( bytes );
+    return new String( bytes, StandardCharsets.UTF_8 );
+  }
+
+  private static long unZigZag( long value ) {
+    return ( value >>> 1 ) ^ -( value & 1 );
+  }
+
+  static long readVarLong( DataInputStream in ) throws IOException {
+    long value = 0;
+    for ( int shift = 0; shift < 64; shift += 7 ) {
+      int b = in.readUnsignedByte();
+      value |= (long) ( b & 0x7F ) << shift;
+      if ( ( b & 0x80 ) == 0 ) {
+        return value;
+      }
+    }
+    throw new IOException( "Malformed variable length number" );
+  }
+}
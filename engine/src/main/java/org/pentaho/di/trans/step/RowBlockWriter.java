@@ -0,0 +1,365 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.di.trans.step;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.pentaho.di.core.exception.KettleFileException;
+import org.pentaho.di.core.row.RowMetaInterface;
+import org.pentaho.di.core.row.ValueMetaInterface;
+import org.xerial.snappy.Snappy;
+
+/**
+ * Sends rows over a stream in blocks. The values of a block are written column by column, so that every column can be
+ * encoded in the way that suits its type and data:
+ * <ul>
+ * <li>integers and dates as the variable length difference with the previous value</li>
+ * <li>strings with few distinct values as a dictionary with run lengths of the dictionary entries</li>
+ * <li>other strings as their UTF-8 bytes, numbers as their bits and booleans as a bitmap</li>
+ * <li>all other values, and values that aren't stored normally, the way {@link ValueMetaInterface#writeData} does</li>
+ * </ul>
+ * Blocks are compressed with Snappy if asked for, which is much cheaper than GZIP on the whole stream. The row
+ * metadata is not written, it is sent before the first block with {@link RowMetaInterface#writeMeta}.<br>
+ * <br>
+ * A block is: the number of rows (0 ends the stream), a flags byte, the encoded length and, for a compressed block, the
+ * compressed length followed by the (compressed) encoded columns.
+ *
+ * @since 11.1
+ */
+public class RowBlockWriter {
+  public static final int DEFAULT_BLOCK_SIZE = 4096;
+
+  static final int FLAG_COMPRESSED = 1;
+
+  static final int ENCODING_VALUES = 0;
+  static final int ENCODING_LONGS = 1;
+  static final int ENCODING_DOUBLES = 2;
+  static final int ENCODING_STRINGS = 3;
+  static final int ENCODING_DICTIONARY = 4;
+  static final int ENCODING_BOOLEANS = 5;
+
+  /**
+   * Gives access to the written bytes without copying them.
+   */
+  static class BlockBuffer extends ByteArrayOutputStream {
+    BlockBuffer( int size ) {
+      super( size );
+    }
+
+    byte[] getBuffer() {
+      return buf;
+    }
+  }
+
+  private final DataOutputStream outputStream;
+  private final RowMetaInterface rowMeta;
+  private final boolean compressing;
+  private final Object[][] rows;
+  private int nrRows;
+
+  private final BlockBuffer block = new BlockBuffer( 64 * 1024 );
+  private final DataOutputStream blockStream = new DataOutputStream( block );
+  private byte[] compressed = new byte[0];
+
+  /**
+   * @param outputStream
+   *          the stream to write to, the row metadata was written to it already
+   * @param rowMeta
+   *          the metadata of the rows
+   * @param compressing
+   *          true to compress the blocks
+   */
+  public RowBlockWriter( DataOutputStream outputStream, RowMetaInterface rowMeta, boolean compressing ) {
+    this( outputStream, rowMeta, compressing, DEFAULT_BLOCK_SIZE );
+  }
+
+  /**
+   * @param outputStream
+   *          the stream to write to, the row metadata was written to it already
+   * @param rowMeta
+   *          the metadata of the rows
+   * @param compressing
+   *          true to compress the blocks
+   * @param blockSize
+   *          the maximum number of rows in a block
+   */
+  public RowBlockWriter( DataOutputStream outputStream, RowMetaInterface rowMeta, boolean compressing,
+    int blockSize ) {
+    this.outputStream = outputStream;
+    this.rowMeta = rowMeta;
+    this.compressing = compressing;
+    this.rows = new Object[Math.max( 1, blockSize )][];
+  }
+
+  /**
+   * Add a row to the current block, the block is sent once it's full.
+   *
+   * @param row
+   *          the row to send
+   * @throws KettleFileException
+   *           in case the block can't be written
+   */
+  public void writeRow( Object[] row ) throws KettleFileException {
+    rows[nrRows++] = row;
+    if ( nrRows == rows.length ) {
+      writeBlock();
+    }
+  }
+
+  /**
+   * Send the rows of the current block and flush the stream.
+   *
+   * @throws KettleFileException
+   *           in case the block can't be written
+   */
+  public void flush() throws KettleFileException {
+    writeBlock();
+    try {
+      outputStream.flush();
+    } catch ( IOException e ) {
+      throw new KettleFileException( "Unable to flush the row blocks", e );
+    }
+  }
+
+  /**
+   * Send the rows of the current block and mark the end of the stream. The stream itself isn't closed.
+   *
+   * @throws KettleFileException
+   *           in case the block can't be written
+   */
+  public void close() throws KettleFileException {
+    writeBlock();
+    try {
+      outputStream.writeInt( 0 );
+      outputStream.flush();
+    } catch ( IOException e ) {
+      throw new KettleFileException( "Unable to end the row blocks", e );
+    }
+  }
+
+  private void writeBlock() throws KettleFileException {
+    if ( nrRows == 0 ) {
+      return;
+    }
+    try {
+      block.reset();
+      for ( int i = 0; i < rowMeta.size(); i++ ) {
+        writeColumn( rowMeta.getValueMeta( i ), i );
+      }
+      blockStream.flush();
+
+      byte[] bytes = block.getBuffer();
+      int length = block.size();
+      int flags = 0;
+      int compressedLength = 0;
+      if ( compressing ) {
+        int maxLength = Snappy.maxCompressedLength( length );
+        if ( compressed.length < maxLength ) {
+          compressed = new byte[maxLength];
+        }
+        compressedLength = Snappy.compress( bytes, 0, length, compressed, 0 );
+        // Keep incompressible blocks as they are
+        if ( compressedLength < length ) {
+          flags |= FLAG_COMPRESSED;
+        }
+      }
+
+      outputStream.writeInt( nrRows );
+      outputStream.writeByte( flags );
+      outputStream.writeInt( length );
+      if ( ( flags & FLAG_COMPRESSED ) != 0 ) {
+        outputStream.writeInt( compressedLength );
+        outputStream.write( compressed, 0, compressedLength );
+      } else {
+        outputStream.write( bytes, 0, length );
+      }
+    } catch ( IOException e ) {
+      throw new KettleFileException( "Unable to write a block of rows", e );
+    }
+
+    for ( int i = 0; i < nrRows; i++ ) {
+      rows[i] = null;
+    }
+    nrRows = 0;
+  }
+
+  private void writeColumn( ValueMetaInterface valueMeta, int index ) throws IOException, KettleFileException {
+    if ( valueMeta.getStorageType() != ValueMetaInterface.STORAGE_TYPE_NORMAL ) {
+      writeValues( valueMeta, index );
+      return;
+    }
+    switch ( valueMeta.getType() ) {
+      case ValueMetaInterface.TYPE_INTEGER:
+      case ValueMetaInterface.TYPE_DATE:
+        writeLongs( valueMeta.getType() == ValueMetaInterface.TYPE_DATE, index );
+        break;
+      case ValueMetaInterface.TYPE_NUMBER:
+        writeDoubles( index );
+        break;
+      case ValueMetaInterface.TYPE_STRING:
+        if ( !writeDictionary( index ) ) {
+          writeStrings( index );
+        }
+        break;
+      case ValueMetaInterface.TYPE_BOOLEAN:
+        writeBooleans( index );
+        break;
+      default:
+        writeValues( valueMeta, index );
+        break;
+    }
+  }
+
+  private void writeValues( ValueMetaInterface valueMeta, int index ) throws IOException, KettleFileException {
+    blockStream.writeByte( ENCODING_VALUES );
+    for ( int i = 0; i < nrRows; i++ ) {
+      valueMeta.writeData( blockStream, getValue( i, index ) );
+    }
+  }
+
+  private void writeLongs( boolean dates, int index ) throws IOException {
+    blockStream.writeByte( ENCODING_LONGS );
+    writeNulls( index );
+    long previous = 0;
+    for ( int i = 0; i < nrRows; i++ ) {
+      Object value = getValue( i, index );
+      if ( value != null ) {
+        long current = dates ? ( (Date) value ).getTime() : ( (Long) value ).longValue();
+        writeVarLong( blockStream, zigZag( current - previous ) );
+        previous = current;
+      }
+    }
+  }
+
+  private void writeDoubles( int index ) throws IOException {
+    blockStream.writeByte( ENCODING_DOUBLES );
+    writeNulls( index );
+    for ( int i = 0; i < nrRows; i++ ) {
+      Object value = getValue( i, index );
+      if ( value != null ) {
+        blockStream.writeDouble( ( (Double) value ).doubleValue() );
+      }
+    }
+  }
+
+  private void writeStrings( int index ) throws IOException {
+    blockStream.writeByte( ENCODING_STRINGS );
+    writeNulls( index );
+    for ( int i = 0; i < nrRows; i++ ) {
+      Object value = getValue( i, index );
+      if ( value != null ) {
+        writeString( (String) value );
+      }
+    }
+  }
+
+  /**
+   * Write the strings as runs of dictionary entries, if there are at most half as many distinct strings as values.
+   *
+   * @return false if there are too many distinct strings, nothing is written then
+   */
+  private boolean writeDictionary( int index ) throws IOException {
+    int maxSize = nrRows / 2;
+    Map<String, Integer> dictionary = new HashMap<>();
+    int[] ids = new int[nrRows];
+    int nrValues = 0;
+    for ( int i = 0; i < nrRows; i++ ) {
+      Object value = getValue( i, index );
+      if ( value != null ) {
+        Integer id = dictionary.get( value );
+        if ( id == null ) {
+          if ( dictionary.size() >= maxSize ) {
+            return false;
+          }
+          id = dictionary.size();
+          dictionary.put( (String) value, id );
+        }
+        ids[nrValues++] = id;
+      }
+    }
+
+    blockStream.writeByte( ENCODING_DICTIONARY );
+    writeNulls( index );
+    String[] entries = new String[dictionary.size()];
+    for ( Map.Entry<String, Integer> entry : dictionary.entrySet() ) {
+      entries[entry.getValue()] = entry.getKey();
+    }
+    writeVarLong( blockStream, entries.length );
+    for ( String entry : entries ) {
+      writeString( entry );
+    }
+    for ( int start = 0; start < nrValues; ) {
+      int end = start + 1;
+      while ( end < nrValues && ids[end] == ids[start] ) {
+        end++;
+      }
+      writeVarLong( blockStream, ids[start] );
+      writeVarLong( blockStream, end - start );
+      start = end;
+    }
+    return true;
+  }
+
+  private void writeBooleans( int index ) throws IOException {
+    blockStream.writeByte( ENCODING_BOOLEANS );
+    writeNulls( index );
+    byte[] bits = new byte[( nrRows + 7 ) / 8];
+    for ( int i = 0; i < nrRows; i++ ) {
+      Object value = getValue( i, index );
+      if ( value != null && ( (Boolean) value ).booleanValue() ) {
+        bits[i >> 3] |= (byte) ( 1 << ( i & 7 ) );
+      }
+    }
+    blockStream.write( bits );
+  }
+
+  private void writeNulls( int index ) throws IOException {
+    byte[] nulls = new byte[( nrRows + 7 ) / 8];
+    for ( int i = 0; i < nrRows; i++ ) {
+      if ( getValue( i, index ) == null ) {
+        nulls[i >> 3] |= (byte) ( 1 << ( i & 7 ) );
+      }
+    }
+    blockStream.write( nulls );
+  }
+
+  private void writeString( String string ) throws IOException {
+    byte[] bytes = string.getBytes( StandardCharsets.UTF_8 );
+    writeVarLong( blockStream, bytes.length );
+    blockStream.write( bytes );
+  }
+
+  private Object getValue( int row, int index ) {
+    Object[] data = rows[row];
+    return index < data.length ? data[index] : null;
+  }
+
+  private static long zigZag( long value ) {
+    return ( value << 1 ) ^ ( value >> 63 );
+  }
+
+  static void writeVarLong( DataOutputStream out, long value ) throws IOException {
+    while ( ( value & ~0x7FL ) != 0 ) {
+      out.writeByte( (int) ( ( value & 0x7F ) | 0x80 ) );
+      value >>>= 7;
+    }
+    out.writeByte( (int) value );
+  }
+}
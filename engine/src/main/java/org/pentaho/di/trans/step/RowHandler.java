@@ -13,6 +13,8 @@
 
 package org.pentaho.di.trans.step;
 
+import java.util.List;
+
 import org.pentaho.di.core.RowSet;
 import org.pentaho.di.core.exception.KettleException;
 import org.pentaho.di.core.exception.KettleStepException;
@@ -54,4 +56,22 @@ public interface RowHandler {
         this.getClass().getName() ) );
   }
 
+  /**
+   * Adds up to maxRows rows that are immediately available to the given list, after a first row was read with
+   * {@link #getRow()}. By default no extra rows are added so that steps reading blocks of rows fall back to reading
+   * the rows one by one.
+   */
+  default void getRows( List<Object[]> rows, int maxRows ) throws KettleException {
+    // one row at a time
+  }
+
+  /**
+   * Puts a block of rows with the same layout. By default the rows are passed to {@link #putRow} one by one.
+   */
+  default void putRows( RowMetaInterface rowMeta, List<Object[]> rows ) throws KettleStepException {
+    for ( Object[] row : rows ) {
+      putRow( rowMeta, row );
+    }
+  }
+
 }
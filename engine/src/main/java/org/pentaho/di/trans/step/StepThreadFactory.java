@@ -0,0 +1,175 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+
+package org.pentaho.di.trans.step;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.pentaho.di.core.Const;
+import org.pentaho.di.core.logging.LogChannelInterface;
+import org.pentaho.di.core.logging.Metrics;
+import org.pentaho.di.core.variables.VariableSpace;
+
+/**
+ * Creates the threads the steps of a transformation are initialized and run in. By default every step copy gets its
+ * own platform thread. With KETTLE_STEP_THREAD_MODE set to VIRTUAL the steps run in virtual threads: a step waiting
+ * for rows doesn't hold on to an operating system thread, so transformations with many step copies (or many
+ * transformations at once on a Carte server) share a small pool of carrier threads. Virtual threads are only used on
+ * a Java runtime that supports them, platform threads are used otherwise.<br>
+ * <br>
+ * Each thread reports the number of step threads running in this JVM and the time it took to be scheduled in the
+ * metrics of the step.
+ *
+ * @since 11.1
+ */
+public class StepThreadFactory {
+
+  /**
+   * The kind of threads steps run in.
+   */
+  public enum ThreadMode {
+    /** A platform thread per step copy. */
+    PLATFORM,
+    /** A virtual thread per step copy, running on a shared pool of carrier threads. */
+    VIRTUAL;
+
+    public static ThreadMode getThreadMode( String code, ThreadMode defaultMode ) {
+      if ( code != null ) {
+        for ( ThreadMode mode : values() ) {
+          if ( mode.name().equalsIgnoreCase( code.trim() ) ) {
+            return mode;
+          }
+        }
+      }
+      return defaultMode;
+    }
+  }
+
+  private static final AtomicInteger RUNNING_THREADS = new AtomicInteger();
+
+  // Thread.ofVirtual() and its builder, looked up at runtime so we still run on Java versions without virtual threads
+  //
+  private static final Method OF_VIRTUAL;
+  private static final Method BUILDER_NAME;
+  private static final Method BUILDER_UNSTARTED;
+
+  static {
+    Method ofVirtual = null;
+    Method builderName = null;
+    Method builderUnstarted = null;
+    try {
+      ofVirtual = Thread.class.getMethod( "ofVirtual" );
+      Class<?> builderClass = Class.forName( "java.lang.Thread$Builder" );
+      builderName = builderClass.getMethod( "name", String.class );
+      builderUnstarted = builderClass.getMethod( "unstarted", Runnable.class );
+      // Virtual threads are a preview feature on some versions, creating one fails if it isn't enabled
+      builderUnstarted.invoke( ofVirtual.invoke( null ), (Runnable) () -> { } );
+    } catch ( Exception | LinkageError e ) {
+      ofVirtual = null;
+    }
+    OF_VIRTUAL = ofVirtual;
+    BUILDER_NAME = builderName;
+    BUILDER_UNSTARTED = builderUnstarted;
+  }
+
+  private final ThreadMode threadMode;
+
+  /**
+   * @param threadMode
+   *          the kind of threads to create, platform threads are created if virtual threads aren't supported
+   */
+  public StepThreadFactory( ThreadMode threadMode ) {
+    this.threadMode = threadMode == ThreadMode.VIRTUAL && isVirtualThreadSupported()
+      ? ThreadMode.VIRTUAL : ThreadMode.PLATFORM;
+  }
+
+  /**
+   * @param space
+   *          the variables to read KETTLE_STEP_THREAD_MODE from
+   * @return a factory for the configured kind of threads
+   */
+  public static StepThreadFactory getInstance( VariableSpace space ) {
+    return new StepThreadFactory(
+      ThreadMode.getThreadMode( space.getVariable( Const.KETTLE_STEP_THREAD_MODE ), ThreadMode.PLATFORM ) );
+  }
+
+  /**
+   * @return true if this Java runtime can create virtual threads
+   */
+  public static boolean isVirtualThreadSupported() {
+    return OF_VIRTUAL != null;
+  }
+
+  /**
+   * @return the number of step threads running in this JVM
+   */
+  public static int getRunningThreads() {
+    return RUNNING_THREADS.get();
+  }
+
+  /**
+   * @return the kind of threads this factory creates
+   */
+  public ThreadMode getThreadMode() {
+    return threadMode;
+  }
+
+  /**
+   * @return true if this factory creates virtual threads
+   */
+  public boolean isVirtual() {
+    return threadMode == ThreadMode.VIRTUAL;
+  }
+
+  /**
+   * Create a thread for a step. Start it right away: the scheduling latency reported is measured from the creation of
+   * the thread.
+   *
+   * @param runnable
+   *          the step code to run
+   * @param name
+   *          the name of the thread
+   * @param log
+   *          the log channel of the step to report the metrics on
+   * @return the new thread, not started
+   */
+  public Thread newThread( Runnable runnable, String name, LogChannelInterface log ) {
+    long created = System.nanoTime();
+    Runnable measured = () -> {
+      int running = RUNNING_THREADS.incrementAndGet();
+      try {
+        if ( log != null ) {
+          log.snap( Metrics.METRIC_STEP_THREADS, running );
+          log.snap( Metrics.METRIC_STEP_SCHEDULING_LATENCY,
+            TimeUnit.NANOSECONDS.toMicros( System.nanoTime() - created ) );
+        }
+        runnable.run();
+      } finally {
+        RUNNING_THREADS.decrementAndGet();
+      }
+    };
+
+    if ( threadMode == ThreadMode.VIRTUAL ) {
+      try {
+        Object builder = BUILDER_NAME.invoke( OF_VIRTUAL.invoke( null ), name );
+        return (Thread) BUILDER_UNSTARTED.invoke( builder, measured );
+      } catch ( ReflectiveOperationException e ) {
+        // Checked when the class was loaded, fall back on a platform thread just in case
+      }
+    }
+    return new Thread( measured, name );
+  }
+}
@@ -0,0 +1,295 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.di.trans.steps.csvinput;
+
+import java.util.Arrays;
+
+import org.pentaho.di.core.exception.KettleFileException;
+
+/**
+ * Splits the chunks of a {@link CsvChunkReader} in rows and fields. The chunks are scanned for delimiters, enclosures
+ * and line ends with {@link CsvBulkScanner} instead of checking every byte in turn. Only single byte delimiters and
+ * enclosures are supported, CR, LF and CR+LF all end a line. A doubled enclosure in an enclosed field is an escaped
+ * enclosure, line ends in enclosed fields are kept.<br>
+ * <br>
+ * A row that doesn't fit in a chunk is parsed again once the rest of it is joined with the next chunk.
+ *
+ * @since 11.1
+ */
+public class CsvBulkParser {
+  private static final byte CR = '\r';
+  private static final byte LF = '\n';
+
+  private final CsvChunkReader reader;
+  private final long endPosition;
+  private final byte delimiter;
+  private final boolean hasEnclosure;
+  private final byte enclosure;
+
+  private CsvChunkReader.Chunk chunk;
+  private byte[] carry;
+  private byte[] buffer = new byte[0];
+  private int position;
+  private int limit;
+  private long bufferPosition;
+
+  private byte[][] fields = new byte[16][];
+  private int fieldCount;
+
+  /**
+   * @param reader
+   *          the reader of the file
+   * @param endPosition
+   *          the position in the file at which no more rows are started, Long.MAX_VALUE to read the whole file
+   * @param delimiter
+   *          the delimiter of the fields
+   * @param enclosure
+   *          the enclosure of the fields or null if the fields aren't enclosed
+   */
+  public CsvBulkParser( CsvChunkReader reader, long endPosition, byte delimiter, byte[] enclosure ) {
+    this.reader = reader;
+    this.endPosition = endPosition;
+    this.delimiter = delimiter;
+    this.hasEnclosure = enclosure != null && enclosure.length > 0;
+    this.enclosure = hasEnclosure ? enclosure[0] : 0;
+  }
+
+  /**
+   * Parse the next row.
+   *
+   * @return the number of fields in the row or -1 if there are no more rows
+   * @throws KettleFileException
+   *           in case the file couldn't be read
+   */
+  public int nextRow() throws KettleFileException {
+    while ( true ) {
+      if ( position >= limit && !readMore() ) {
+        return -1;
+      }
+      if ( bufferPosition + position >= endPosition ) {
+        return -1;
+      }
+      int next = parseRow( position, false );
+      if ( next >= 0 ) {
+        position = next;
+        return fieldCount;
+      }
+      if ( !readMore() ) {
+        // The last row of the file doesn't end with a line end
+        position = parseRow( position, true );
+        return fieldCount;
+      }
+    }
+  }
+
+  /**
+   * @param index
+   *          the index of the field in the last row parsed
+   * @return the bytes of the field, without enclosures
+   */
+  public byte[] getField( int index ) {
+    return fields[index];
+  }
+
+  /**
+   * Skip to the start of the next line. Used when the reading starts in the middle of a file: the row the first bytes
+   * belong to is read by another step copy. Reading has to start at the byte before the first byte of the range so a
+   * row that starts exactly at the first byte isn't skipped.
+   *
+   * @throws KettleFileException
+   *           in case the file couldn't be read
+   */
+  public void skipPartialRow() throws KettleFileException {
+    while ( true ) {
+      if ( position >= limit && !readMore() ) {
+        return;
+      }
+      int lineEnd = CsvBulkScanner.indexOfAny( buffer, position, limit, CR, LF, LF );
+      if ( lineEnd < 0 ) {
+        position = limit;
+      } else if ( buffer[lineEnd] == LF ) {
+        position = lineEnd + 1;
+        return;
+      } else if ( lineEnd + 1 < limit ) {
+        position = buffer[lineEnd + 1] == LF ? lineEnd + 2 : lineEnd + 1;
+        return;
+      } else {
+        // Keep the CR, we need the next chunk to know if it's followed by a LF
+        position = lineEnd;
+        if ( !readMore() ) {
+          position = limit;
+          return;
+        }
+      }
+    }
+  }
+
+  /**
+   * Stop reading the file.
+   */
+  public void close() {
+    if ( chunk != null ) {
+      reader.release( chunk );
+      chunk = null;
+    }
+    reader.close();
+  }
+
+  /**
+   * Split a row in fields.
+   *
+   * @param from
+   *          the index of the first byte of the row in the buffer
+   * @param endOfFile
+   *          true if there is no more data after the buffer
+   * @return the index of the first byte after the row or -1 if the buffer doesn't hold the whole row
+   */
+  private int parseRow( int from, boolean endOfFile ) {
+    fieldCount = 0;
+    int start = from;
+    while ( true ) {
+      int end;
+      if ( hasEnclosure && start < limit && buffer[start] == enclosure ) {
+        int escaped = 0;
+        int close;
+        int search = start + 1;
+        while ( true ) {
+          close = CsvBulkScanner.indexOf( buffer, search, limit, enclosure );
+          if ( close < 0 ) {
+            if ( !endOfFile ) {
+              return -1;
+            }
+            close = limit;
+            break;
+          }
+          if ( close + 1 >= limit && !endOfFile ) {
+            return -1;
+          }
+          if ( close + 1 < limit && buffer[close + 1] == enclosure ) {
+            escaped++;
+            search = close + 2;
+          } else {
+            break;
+          }
+        }
+        end = close >= limit ? limit : CsvBulkScanner.indexOfAny( buffer, close + 1, limit, delimiter, CR, LF );
+        if ( end < 0 ) {
+          if ( !endOfFile ) {
+            return -1;
+          }
+          end = limit;
+        }
+        addField( enclosedField( start + 1, close, escaped, end ) );
+      } else {
+        end = CsvBulkScanner.indexOfAny( buffer, start, limit, delimiter, CR, LF );
+        if ( end < 0 ) {
+          if ( !endOfFile ) {
+            return -1;
+          }
+          end = limit;
+        }
+        addField( Arrays.copyOfRange( buffer, start, end ) );
+      }
+
+      if ( end >= limit ) {
+        return limit;
+      }
+      byte separator = buffer[end];
+      if ( separator == delimiter ) {
+        start = end + 1;
+      } else if ( separator == LF ) {
+        return end + 1;
+      } else if ( end + 1 < limit ) {
+        return buffer[end + 1] == LF ? end + 2 : end + 1;
+      } else {
+        return endOfFile ? limit : -1;
+      }
+    }
+  }
+
+  /**
+   * @return the bytes between the enclosures with the escaped enclosures removed, followed by the bytes between the
+   *         closing enclosure and the end of the field if any
+   */
+  private byte[] enclosedField( int from, int close, int escaped, int end ) {
+    int trailing = close < limit ? end - close - 1 : 0;
+    byte[] field = new byte[close - from - escaped + trailing];
+    if ( escaped == 0 ) {
+      System.arraycopy( buffer, from, field, 0, close - from );
+    } else {
+      int index = 0;
+      for ( int i = from; i < close; i++ ) {
+        field[index++] = buffer[i];
+        if ( buffer[i] == enclosure ) {
+          // All enclosures before the closing one are doubled
+          i++;
+        }
+      }
+    }
+    if ( trailing > 0 ) {
+      System.arraycopy( buffer, close + 1, field, field.length - trailing, trailing );
+    }
+    return field;
+  }
+
+  private void addField( byte[] field ) {
+    if ( fieldCount == fields.length ) {
+      fields = Arrays.copyOf( fields, fields.length * 2 );
+    }
+    fields[fieldCount++] = field;
+  }
+
+  /**
+   * Get the next chunk of the file. The bytes of the buffer that weren't parsed yet are kept in front of the bytes of
+   * the chunk.
+   *
+   * @return false if the whole file was read
+   */
+  private boolean readMore() throws KettleFileException {
+    CsvChunkReader.Chunk next = reader.next();
+    if ( next == null ) {
+      return false;
+    }
+    int leftover = limit - position;
+    if ( leftover == 0 ) {
+      releaseChunk();
+      chunk = next;
+      buffer = next.bytes;
+      position = 0;
+      limit = next.length;
+      bufferPosition = next.position;
+      return true;
+    }
+
+    int length = leftover + next.length;
+    byte[] joined = carry != null && carry.length >= length ? carry : new byte[length];
+    System.arraycopy( buffer, position, joined, 0, leftover );
+    System.arraycopy( next.bytes, 0, joined, leftover, next.length );
+    bufferPosition += position;
+    releaseChunk();
+    reader.release( next );
+    carry = joined;
+    buffer = joined;
+    position = 0;
+    limit = length;
+    return true;
+  }
+
+  private void releaseChunk() {
+    if ( chunk != null ) {
+      reader.release( chunk );
+      chunk = null;
+    }
+  }
+}
@@ -0,0 +1,114 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.di.trans.steps.csvinput;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+
+/**
+ * Finds bytes in a buffer 8 at a time: a long is read from the buffer and all its bytes are compared with the byte
+ * looked for in a few arithmetic operations (SWAR, SIMD within a register).
+ *
+ * @since 11.1
+ */
+public class CsvBulkScanner {
+  private static final VarHandle LONGS = MethodHandles.byteArrayViewVarHandle( long[].class, ByteOrder.LITTLE_ENDIAN );
+
+  private static final long ONES = 0x0101010101010101L;
+  private static final long HIGH_BITS = 0x8080808080808080L;
+
+  private CsvBulkScanner() {
+  }
+
+  /**
+   * Find the first occurrence of a byte.
+   *
+   * @param buffer
+   *          the buffer to search in
+   * @param from
+   *          the first index to search
+   * @param to
+   *          the index after the last one to search
+   * @param b
+   *          the byte to look for
+   * @return the index of the byte or -1 if it's not found
+   */
+  public static int indexOf( byte[] buffer, int from, int to, byte b ) {
+    long pattern = pattern( b );
+    int i = from;
+    for ( ; i + 8 <= to; i += 8 ) {
+      long found = zeroBytes( (long) LONGS.get( buffer, i ) ^ pattern );
+      if ( found != 0 ) {
+        return i + ( Long.numberOfTrailingZeros( found ) >>> 3 );
+      }
+    }
+    for ( ; i < to; i++ ) {
+      if ( buffer[i] == b ) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * Find the first occurrence of any of three bytes.
+   *
+   * @param buffer
+   *          the buffer to search in
+   * @param from
+   *          the first index to search
+   * @param to
+   *          the index after the last one to search
+   * @param a
+   *          a byte to look for
+   * @param b
+   *          a byte to look for
+   * @param c
+   *          a byte to look for
+   * @return the index of the first byte found or -1 if none of them is found
+   */
+  public static int indexOfAny( byte[] buffer, int from, int to, byte a, byte b, byte c ) {
+    long patternA = pattern( a );
+    long patternB = pattern( b );
+    long patternC = pattern( c );
+    int i = from;
+    for ( ; i + 8 <= to; i += 8 ) {
+      long word = (long) LONGS.get( buffer, i );
+      long found = zeroBytes( word ^ patternA ) | zeroBytes( word ^ patternB ) | zeroBytes( word ^ patternC );
+      if ( found != 0 ) {
+        return i + ( Long.numberOfTrailingZeros( found ) >>> 3 );
+      }
+    }
+    for ( ; i < to; i++ ) {
+      byte current = buffer[i];
+      if ( current == a || current == b || current == c ) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  private static long pattern( byte b ) {
+    return ( b & 0xFFL ) * ONES;
+  }
+
+  /**
+   * Sets the high bit of the bytes that are zero. Bytes above the first zero byte can be flagged wrongly, the lowest
+   * flag is always right, and that's the only one we use.
+   */
+  private static long zeroBytes( long word ) {
+    return ( word - ONES ) & ~word & HIGH_BITS;
+  }
+}
@@ -0,0 +1,167 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.di.trans.steps.csvinput;
+
+import java.io.Closeable;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+import org.pentaho.di.core.exception.KettleFileException;
+
+/**
+ * Reads a file in a separate thread so that reading from disk and parsing happen at the same time. The file is mapped
+ * in memory in large windows and copied in chunks to a small queue the parser takes them from. Chunks are handed back
+ * with {@link #release(Chunk)} to be reused.
+ *
+ * @since 11.1
+ */
+public class CsvChunkReader implements Closeable {
+  public static final int DEFAULT_CHUNK_SIZE = 4 * 1024 * 1024;
+
+  private static final long MAP_SIZE = 64L * 1024 * 1024;
+  private static final int QUEUE_SIZE = 4;
+
+  /**
+   * A part of the file.
+   */
+  public static class Chunk {
+    final byte[] bytes;
+    int length;
+    long position;
+
+    Chunk( byte[] bytes ) {
+      this.bytes = bytes;
+    }
+  }
+
+  private static final Chunk END = new Chunk( new byte[0] );
+
+  private final String filename;
+  private final long startPosition;
+  private final int chunkSize;
+  private final BlockingQueue<Chunk> filled = new ArrayBlockingQueue<>( QUEUE_SIZE );
+  private final BlockingQueue<Chunk> free = new ArrayBlockingQueue<>( QUEUE_SIZE + 2 );
+  private final Thread thread;
+
+  private volatile Throwable error;
+  private volatile boolean closed;
+  private boolean ended;
+
+  /**
+   * @param filename
+   *          the name of the local file to read
+   * @param startPosition
+   *          the position in the file to start reading from
+   * @param chunkSize
+   *          the size of the chunks
+   * @param threadName
+   *          the name of the reading thread
+   */
+  public CsvChunkReader( String filename, long startPosition, int chunkSize, String threadName ) {
+    this.filename = filename;
+    this.startPosition = startPosition;
+    this.chunkSize = chunkSize;
+    this.thread = new Thread( this::readFile, threadName );
+    this.thread.setDaemon( true );
+  }
+
+  /**
+   * Start reading the file.
+   */
+  public void start() {
+    thread.start();
+  }
+
+  private void readFile() {
+    try ( FileChannel channel = FileChannel.open( Paths.get( filename ), StandardOpenOption.READ ) ) {
+      long size = channel.size();
+      for ( long position = startPosition; position < size && !closed; position += MAP_SIZE ) {
+        MappedByteBuffer window =
+          channel.map( FileChannel.MapMode.READ_ONLY, position, Math.min( MAP_SIZE, size - position ) );
+        while ( window.hasRemaining() && !closed ) {
+          Chunk chunk = free.poll();
+          if ( chunk == null ) {
+            chunk = new Chunk( new byte[chunkSize] );
+          }
+          chunk.position = position + window.position();
+          chunk.length = Math.min( chunk.bytes.length, window.remaining() );
+          window.get( chunk.bytes, 0, chunk.length );
+          filled.put( chunk );
+        }
+      }
+    } catch ( InterruptedException e ) {
+      // Closed while waiting for the parser
+      return;
+    } catch ( Throwable e ) {
+      error = e;
+    }
+
+    try {
+      if ( !closed ) {
+        filled.put( END );
+      }
+    } catch ( InterruptedException e ) {
+      // Closed while waiting for the parser
+    }
+  }
+
+  /**
+   * @return the next chunk of the file or null if the whole file was read
+   * @throws KettleFileException
+   *           in case the file couldn't be read
+   */
+  public Chunk next() throws KettleFileException {
+    if ( ended ) {
+      return null;
+    }
+    Chunk chunk;
+    try {
+      chunk = filled.take();
+    } catch ( InterruptedException e ) {
+      Thread.currentThread().interrupt();
+      throw new KettleFileException( e );
+    }
+    if ( chunk == END ) {
+      ended = true;
+      if ( error != null ) {
+        throw new KettleFileException( "Error reading file '" + filename + "'", error );
+      }
+      return null;
+    }
+    return chunk;
+  }
+
+  /**
+   * Hand back a chunk that isn't used anymore.
+   *
+   * @param chunk
+   *          the chunk
+   */
+  public void release( Chunk chunk ) {
+    free.offer( chunk );
+  }
+
+  /**
+   * Stop reading the file.
+   */
+  @Override
+  public void close() {
+    closed = true;
+    thread.interrupt();
+  }
+}
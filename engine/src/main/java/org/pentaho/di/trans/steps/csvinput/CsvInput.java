@@ -133,8 +133,9 @@ public class CsvInput extends BaseStep implements StepInterface {
     }
 
     // If we are running in parallel, make sure we don't read too much in this step copy...
+    // The bulk parser stops at the end of the range of this step copy itself.
     //
-    if ( data.parallel ) {
+    if ( data.parallel && !data.bulkParsing ) {
       if ( data.totalBytesRead >= data.blockToRead ) {
         setOutputDone(); // stop reading
         return false;
@@ -142,7 +143,7 @@ public class CsvInput extends BaseStep implements StepInterface {
     }
 
     try {
-      Object[] outputRowData = readOneRow( false, false ); // get row, set busy!
+      Object[] outputRowData = data.bulkParsing ? readOneRowBulk() : readOneRow( false, false ); // get row, set busy!
       // no more input to be expected...
       if ( outputRowData == null ) {
         if ( openNextFile() ) {
@@ -290,6 +291,11 @@ public class CsvInput extends BaseStep implements StepInterface {
 
   @Override
   public void dispose( StepMetaInterface smi, StepDataInterface sdi ) {
+    if ( data.bulkParser != null ) {
+      data.bulkParser.close();
+      data.bulkParser = null;
+    }
+
     try {
       // Close the previous file...
       //
@@ -322,6 +328,12 @@ public class CsvInput extends BaseStep implements StepInterface {
         return false;
       }
 
+      // The bulk parser doesn't open the files after the range of this step copy
+      //
+      if ( data.bulkParsing && data.parallel && getParallelFileOffset() >= getParallelEndPosition() ) {
+        return false;
+      }
+
       // Open the next one...
       //
       data.fieldsMapping = createFieldMapping( data.filenames[data.filenr], meta );
@@ -341,39 +353,12 @@ public class CsvInput extends BaseStep implements StepInterface {
 
       int bomSize = getBOMSize( vfsFilename );
 
-      data.fis = new FileInputStream( vfsFilename );
-      if ( 0 != bomSize ) {
-        data.fis.skip( bomSize );
-      }
-
-      data.fc = data.fis.getChannel();
-      data.bb = ByteBuffer.allocateDirect( data.preferredBufferSize );
-
-      // If we are running in parallel and we need to skip bytes in the first file, let's do so here.
-      //
-      if ( data.parallel ) {
-        if ( data.bytesToSkipInFirstFile > 0 ) {
-          data.fc.position( data.bytesToSkipInFirstFile );
-
-          // evaluate whether there is a need to skip a row
-          if ( needToSkipRow() ) {
-            // PDI-16589 - when reading in parallel, the previous code would introduce additional rows and / or invalid data in the output.
-            // in parallel mode we don't support new lines inside field data so it's safe to fast forward until we find a new line.
-            // when a newline is found we need to check for an additional new line character, while in unix systems it's just a single '\n',
-            // on windows systems, it's a sequence of '\r' and '\n'. finally we set the start of the buffer to the end buffer position.
-            while ( !data.newLineFound() ) {
-              data.moveEndBufferPointer();
-            }
-
-            data.moveEndBufferPointer();
-
-            if ( data.newLineFound() ) {
-              data.moveEndBufferPointer();
-            }
-          }
-
-          data.setStartBuffer( data.getEndBuffer() );
-        }
+      boolean atStartOfFile;
+      if ( data.bulkParsing ) {
+        atStartOfFile = openBulkParser( vfsFilename, bomSize );
+      } else {
+        openFileChannel( vfsFilename, bomSize );
+        atStartOfFile = !data.parallel || data.bytesToSkipInFirstFile <= 0;
       }
 
       // Add filename to result filenames ?
@@ -394,8 +379,12 @@ public class CsvInput extends BaseStep implements StepInterface {
       //
       if ( meta.isHeaderPresent() ) {
         // Standard flat file : skip header
-        if ( !data.parallel || data.bytesToSkipInFirstFile <= 0 ) {
-          readOneRow( true, false ); // skip this row.
+        if ( atStartOfFile ) {
+          if ( data.bulkParsing ) {
+            data.bulkParser.nextRow(); // skip this row.
+          } else {
+            readOneRow( true, false ); // skip this row.
+          }
           logBasic( BaseMessages.getString( PKG, "CsvInput.Log.HeaderRowSkipped", data.filenames[ data.filenr - 1 ] ) );
           if ( data.fieldsMapping.size() == 0 ) {
             return false;
@@ -418,6 +407,99 @@ public class CsvInput extends BaseStep implements StepInterface {
     }
   }
 
+  /**
+   * Open the file with NIO for the regular parser, skipping to the start position of this step copy in parallel mode.
+   */
+  private void openFileChannel( String vfsFilename, int bomSize ) throws IOException {
+    data.fis = new FileInputStream( vfsFilename );
+    if ( 0 != bomSize ) {
+      data.fis.skip( bomSize );
+    }
+
+    data.fc = data.fis.getChannel();
+    data.bb = ByteBuffer.allocateDirect( data.preferredBufferSize );
+
+    // If we are running in parallel and we need to skip bytes in the first file, let's do so here.
+    //
+    if ( data.parallel ) {
+      if ( data.bytesToSkipInFirstFile > 0 ) {
+        data.fc.position( data.bytesToSkipInFirstFile );
+
+        // evaluate whether there is a need to skip a row
+        if ( needToSkipRow() ) {
+          // PDI-16589 - when reading in parallel, the previous code would introduce additional rows and / or invalid data in the output.
+          // in parallel mode we don't support new lines inside field data so it's safe to fast forward until we find a new line.
+          // when a newline is found we need to check for an additional new line character, while in unix systems it's just a single '\n',
+          // on windows systems, it's a sequence of '\r' and '\n'. finally we set the start of the buffer to the end buffer position.
+          while ( !data.newLineFound() ) {
+            data.moveEndBufferPointer();
+          }
+
+          data.moveEndBufferPointer();
+
+          if ( data.newLineFound() ) {
+            data.moveEndBufferPointer();
+          }
+        }
+
+        data.setStartBuffer( data.getEndBuffer() );
+      }
+    }
+  }
+
+  /**
+   * Start reading the file for the bulk parser. In parallel mode the parser starts at the first row that starts in
+   * the range of this step copy and stops before the first row that starts after it.
+   *
+   * @return true if the file is read from the start, false if the reading starts in the middle of the file
+   */
+  private boolean openBulkParser( String vfsFilename, int bomSize ) throws KettleException {
+    long startPosition = bomSize;
+    long endPosition = Long.MAX_VALUE;
+    boolean atStartOfFile = true;
+    if ( data.parallel ) {
+      long fileOffset = getParallelFileOffset();
+      long parallelEndPosition = getParallelEndPosition();
+      if ( parallelEndPosition != Long.MAX_VALUE ) {
+        endPosition = parallelEndPosition - fileOffset;
+      }
+      if ( data.startPosition - fileOffset > startPosition ) {
+        startPosition = data.startPosition - fileOffset;
+        atStartOfFile = false;
+      }
+    }
+
+    // Read the byte before the start position too, to see if a row starts at the start position
+    //
+    CsvChunkReader reader = new CsvChunkReader( vfsFilename, atStartOfFile ? startPosition : startPosition - 1,
+      CsvChunkReader.DEFAULT_CHUNK_SIZE, getStepname() + "." + getCopy() + " - file reader" );
+    data.bulkParser = new CsvBulkParser( reader, endPosition, data.delimiter[0], data.enclosure );
+    reader.start();
+    if ( !atStartOfFile ) {
+      data.bulkParser.skipPartialRow();
+    }
+    return atStartOfFile;
+  }
+
+  /**
+   * @return the position of the first byte of the current file in all files read in parallel
+   */
+  private long getParallelFileOffset() {
+    long fileOffset = 0L;
+    for ( int i = 0; i < data.filenr; i++ ) {
+      fileOffset += data.fileSizes.get( i );
+    }
+    return fileOffset;
+  }
+
+  /**
+   * @return the position in all files read in parallel at which this step copy stops reading, the last step copy
+   *         reads until the end
+   */
+  private long getParallelEndPosition() {
+    return data.stepNumber == data.totalNumberOfSteps - 1 ? Long.MAX_VALUE : data.endPosition;
+  }
+
   protected int getBOMSize( String vfsFilename ) throws Exception {
     int bomSize = 0;
     try ( FileInputStream fis = new FileInputStream( vfsFilename );
@@ -861,6 +943,74 @@ public class CsvInput extends BaseStep implements StepInterface {
   }
 
 
+  /**
+   * Read a single row of data from the file with the bulk parser.
+   *
+   * @return a row of data or null if there are no more rows in the file
+   * @throws KettleException
+   */
+  private Object[] readOneRowBulk() throws KettleException {
+    int nrFields = data.bulkParser.nextRow();
+    if ( nrFields < 0 ) {
+      return null;
+    }
+
+    Object[] outputRowData = RowDataUtil.allocateRowData( data.outputRowMeta.size() );
+    List<Exception> conversionExceptions = null;
+    List<ValueMetaInterface> exceptionFields = null;
+
+    int nrInputFields = Math.min( nrFields, data.fieldsMapping.size() );
+    for ( int i = 0; i < nrInputFields; i++ ) {
+      int actualFieldIndex = data.fieldsMapping.fieldMetaIndex( i );
+      if ( actualFieldIndex == FieldsMapping.FIELD_DOES_NOT_EXIST ) {
+        continue;
+      }
+      byte[] field = data.bulkParser.getField( i );
+      if ( meta.isLazyConversionActive() ) {
+        // The conversion is done by the steps that need the native values, if any
+        outputRowData[actualFieldIndex] = field;
+      } else {
+        ValueMetaInterface sourceValueMeta = data.convertRowMeta.getValueMeta( actualFieldIndex );
+        try {
+          outputRowData[actualFieldIndex] = sourceValueMeta.convertBinaryStringToNativeType( field );
+        } catch ( KettleValueException e ) {
+          outputRowData[actualFieldIndex] = null;
+
+          if ( conversionExceptions == null ) {
+            conversionExceptions = new ArrayList<>();
+            exceptionFields = new ArrayList<>();
+          }
+          conversionExceptions.add( e );
+          exceptionFields.add( sourceValueMeta );
+        }
+      }
+    }
+
+    // Optionally add the current filename to the mix as well...
+    //
+    if ( meta.isIncludingFilename() && !Utils.isEmpty( meta.getFilenameField() ) ) {
+      if ( meta.isLazyConversionActive() ) {
+        outputRowData[ data.filenameFieldIndex ] = data.binaryFilename;
+      } else {
+        outputRowData[ data.filenameFieldIndex ] = data.filenames[ data.filenr - 1 ];
+      }
+    }
+
+    if ( data.isAddingRowNumber ) {
+      outputRowData[ data.rownumFieldIndex ] = data.rowNumber++;
+    }
+
+    incrementLinesInput();
+
+    if ( conversionExceptions != null ) {
+      throw new KettleConversionException(
+        "There were " + conversionExceptions.size() + " conversion errors on line " + getLinesInput(),
+        conversionExceptions, exceptionFields, outputRowData );
+    }
+
+    return outputRowData;
+  }
+
   public boolean init( StepMetaInterface smi, StepDataInterface sdi ) {
     meta = (CsvInputMeta) smi;
     data = (CsvInputData) sdi;
@@ -947,6 +1097,15 @@ public class CsvInput extends BaseStep implements StepInterface {
         }
       }
 
+      // The bulk parser only handles single byte delimiters and enclosures in a single byte encoding
+      //
+      data.bulkParsing = meta.isBulkParsing();
+      if ( data.bulkParsing && ( data.encodingType != EncodingType.SINGLE || data.delimiter.length != 1
+        || ( data.enclosure != null && data.enclosure.length != 1 ) ) ) {
+        logBasic( BaseMessages.getString( PKG, "CsvInput.Log.BulkParsingNotSupported" ) );
+        data.bulkParsing = false;
+      }
+
       switch ( data.encodingType ) {
         case DOUBLE_BIG_ENDIAN:
           data.crLfMatcher = new MultiByteBigCrLfMatcher();
@@ -74,6 +74,9 @@ public class CsvInputData extends BaseStepData implements StepDataInterface {
 
   public FieldsMapping fieldsMapping;
 
+  public boolean bulkParsing;
+  public CsvBulkParser bulkParser;
+
   /**
    * Data class for CsvInput step
    *
@@ -258,6 +261,10 @@ public class CsvInputData extends BaseStepData implements StepDataInterface {
   }
 
   void closeFile() throws KettleException {
+    if ( bulkParser != null ) {
+      bulkParser.close();
+      bulkParser = null;
+    }
     try {
       if ( fc != null ) {
         fc.close();
@@ -101,6 +101,8 @@ public class CsvInputMeta extends BaseStepMeta implements StepMetaInterface, Inp
 
   private boolean newlinePossibleInFields;
 
+  private boolean bulkParsing;
+
   public CsvInputMeta() {
     super(); // allocate BaseStepMeta
     allocate( 0 );
@@ -130,6 +132,7 @@ public class CsvInputMeta extends BaseStepMeta implements StepMetaInterface, Inp
     isaddresult = false;
     bufferSize = "50000";
     fileFormat = "mixed";
+    bulkParsing = false;
   }
 
   private void readData( Node stepnode ) throws KettleXMLException {
@@ -157,6 +160,7 @@ public class CsvInputMeta extends BaseStepMeta implements StepMetaInterface, Inp
       } else {
         newlinePossibleInFields = "Y".equalsIgnoreCase( nlp );
       }
+      bulkParsing = "Y".equalsIgnoreCase( XMLHandler.getTagValue( stepnode, getXmlCode( "BULK_PARSING" ) ) );
       fileFormat = XMLHandler.getTagValue( stepnode, getXmlCode( "FORMAT" ) );
       encoding = XMLHandler.getTagValue( stepnode, getXmlCode( "ENCODING" ) );
 
@@ -211,6 +215,7 @@ public class CsvInputMeta extends BaseStepMeta implements StepMetaInterface, Inp
     retval.append( "    " ).append( XMLHandler.addTagValue( getXmlCode( "PARALLEL" ), runningInParallel ) );
     retval.append( "    " ).append(
       XMLHandler.addTagValue( getXmlCode( "NEWLINE_POSSIBLE" ), newlinePossibleInFields ) );
+    retval.append( "    " ).append( XMLHandler.addTagValue( getXmlCode( "BULK_PARSING" ), bulkParsing ) );
     retval.append( "    " ).append( XMLHandler.addTagValue( getXmlCode( "FORMAT" ), fileFormat ) );
     retval.append( "    " ).append( XMLHandler.addTagValue( getXmlCode( "ENCODING" ), encoding ) );
 
@@ -260,6 +265,7 @@ public class CsvInputMeta extends BaseStepMeta implements StepMetaInterface, Inp
       runningInParallel = rep.getStepAttributeBoolean( id_step, getRepCode( "PARALLEL" ) );
       newlinePossibleInFields =
         rep.getStepAttributeBoolean( id_step, 0, getRepCode( "NEWLINE_POSSIBLE" ), !runningInParallel );
+      bulkParsing = rep.getStepAttributeBoolean( id_step, getRepCode( "BULK_PARSING" ) );
       fileFormat = rep.getStepAttributeString( id_step, getRepCode( "FORMAT" ) );
       encoding = rep.getStepAttributeString( id_step, getRepCode( "ENCODING" ) );
 
@@ -306,6 +312,7 @@ public class CsvInputMeta extends BaseStepMeta implements StepMetaInterface, Inp
       rep
         .saveStepAttribute(
           id_transformation, id_step, getRepCode( "NEWLINE_POSSIBLE" ), newlinePossibleInFields );
+      rep.saveStepAttribute( id_transformation, id_step, getRepCode( "BULK_PARSING" ), bulkParsing );
       rep.saveStepAttribute( id_transformation, id_step, getRepCode( "FORMAT" ), fileFormat );
       rep.saveStepAttribute( id_transformation, id_step, getRepCode( "ENCODING" ), encoding );
 
@@ -846,6 +853,8 @@ public class CsvInputMeta extends BaseStepMeta implements StepMetaInterface, Inp
           runningInParallel = (Boolean) entry.getValue();
         } else if ( attr.getKey().equals( "NEWLINE_POSSIBLE" ) ) {
           newlinePossibleInFields = (Boolean) entry.getValue();
+        } else if ( attr.getKey().equals( "BULK_PARSING" ) ) {
+          bulkParsing = (Boolean) entry.getValue();
         } else if ( attr.getKey().equals( "ADD_FILENAME_RESULT" ) ) {
           isaddresult = (Boolean) entry.getValue();
         } else if ( attr.getKey().equals( "FORMAT" ) ) {
@@ -934,6 +943,22 @@ public class CsvInputMeta extends BaseStepMeta implements StepMetaInterface, Inp
     this.newlinePossibleInFields = newlinePossibleInFields;
   }
 
+  /**
+   * @return true if the file is scanned for delimiters, enclosures and line ends in bulk by a parser that reads the
+   *         file in a separate thread
+   */
+  public boolean isBulkParsing() {
+    return bulkParsing;
+  }
+
+  /**
+   * @param bulkParsing
+   *          true to scan the file in bulk, see {@link CsvBulkParser}
+   */
+  public void setBulkParsing( boolean bulkParsing ) {
+    this.bulkParsing = bulkParsing;
+  }
+
   @Override
   public FileObject getHeaderFileObject( final TransMeta transMeta ) {
     final String filename = transMeta.environmentSubstitute( getFilename() );
@@ -16,16 +16,19 @@ package org.pentaho.di.trans.steps.databaselookup;
 import java.util.Arrays;
 import java.util.Date;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicReference;
 
 import com.google.common.annotations.VisibleForTesting;
 import org.pentaho.di.core.Const;
+import org.pentaho.di.core.RowMetaAndData;
 import org.pentaho.di.core.database.Database;
 import org.pentaho.di.core.database.DatabaseMeta;
 import org.pentaho.di.core.exception.KettleDatabaseException;
 import org.pentaho.di.core.exception.KettleException;
 import org.pentaho.di.core.exception.KettleStepException;
+import org.pentaho.di.core.logging.Metrics;
 import org.pentaho.di.core.row.RowDataUtil;
 import org.pentaho.di.core.row.RowMeta;
 import org.pentaho.di.core.row.RowMetaInterface;
@@ -116,7 +119,11 @@ public class DatabaseLookup extends BaseStep implements StepInterface {
     boolean cacheHit = false;
 
     // First, check if we looked up before
-    if ( meta.isCached() ) {
+    if ( data.sharedCache != null ) {
+      // The shared cache goes to the database itself for missing keys, its rows are converted already
+      add = getRowFromSharedCache( lookupRow );
+      cacheHit = true;
+    } else if ( meta.isCached() ) {
       add = data.cache.getRowFromCache( data.lookupMeta, lookupRow );
       if ( add != null ) {
         cacheHit = true;
@@ -125,7 +132,8 @@ public class DatabaseLookup extends BaseStep implements StepInterface {
       add = null;
     }
 
-    if ( add == null && ( !( meta.isCached() && meta.isLoadingAllDataInCache() ) || data.hasDBCondition ) ) {
+    if ( add == null && data.sharedCache == null
+      && ( !( meta.isCached() && meta.isLoadingAllDataInCache() ) || data.hasDBCondition ) ) {
       // do not go to the database when all rows are in (exception LIKE operator)
       if ( log.isRowLevel() ) {
         logRowlevel( BaseMessages.getString( PKG, "DatabaseLookup.Log.AddedValuesToLookupRow1" )
@@ -173,21 +181,7 @@ public class DatabaseLookup extends BaseStep implements StepInterface {
       // In that case, we already know the data type is OK.
       if ( !cacheHit ) {
         incrementLines();
-        int[] types = meta.getReturnValueDefaultType();
-
-        // The assumption here is that the types are in the same order
-        // as the returned lookup row, but since we make the lookup row
-        // that should not be a problem.
-        //
-        for ( int i = 0; i < types.length; i++ ) {
-          ValueMetaInterface returned = data.db.getReturnRowMeta().getValueMeta( i );
-          ValueMetaInterface expected = data.returnMeta.getValueMeta( i );
-
-          if ( returned != null && types[ i ] > 0 && types[ i ] != returned.getType() ) {
-            // Set the type to the default return type
-            add[ i ] = expected.convertData( returned, add[ i ] );
-          }
-        }
+        convertReturnedValues( add );
       }
     }
 
@@ -205,6 +199,86 @@ public class DatabaseLookup extends BaseStep implements StepInterface {
     return outputRow;
   }
 
+  private void convertReturnedValues( Object[] add ) throws KettleException {
+    int[] types = meta.getReturnValueDefaultType();
+
+    // The assumption here is that the types are in the same order
+    // as the returned lookup row, but since we make the lookup row
+    // that should not be a problem.
+    //
+    for ( int i = 0; i < types.length; i++ ) {
+      ValueMetaInterface returned = data.db.getReturnRowMeta().getValueMeta( i );
+      ValueMetaInterface expected = data.returnMeta.getValueMeta( i );
+
+      if ( returned != null && types[ i ] > 0 && types[ i ] != returned.getType() ) {
+        // Set the type to the default return type
+        add[ i ] = expected.convertData( returned, add[ i ] );
+      }
+    }
+  }
+
+  private Object[] getRowFromSharedCache( Object[] lookupRow ) throws KettleException {
+    if ( meta.isLoadingAllDataInCache() ) {
+      // Reads the table again once the cached data expired
+      data.sharedCache.loadTable( this::loadAllTableData );
+      Object[] add = data.sharedCache.getLoaded( data.lookupMeta, lookupRow );
+      if ( add == null ) {
+        data.cacheMisses++;
+      } else {
+        data.cacheHits++;
+      }
+      return add;
+    }
+
+    long misses = data.cacheMisses;
+    Object[] add = data.sharedCache.get( data.lookupMeta, lookupRow, () -> lookupInDatabase( lookupRow ) );
+    if ( data.cacheMisses == misses ) {
+      data.cacheHits++;
+    }
+    return add;
+  }
+
+  private Object[] lookupInDatabase( Object[] lookupRow ) throws KettleException {
+    data.cacheMisses++;
+    if ( log.isRowLevel() ) {
+      logRowlevel( BaseMessages.getString( PKG, "DatabaseLookup.Log.AddedValuesToLookupRow1" )
+        + meta.getStreamKeyField1().length
+        + BaseMessages.getString( PKG, "DatabaseLookup.Log.AddedValuesToLookupRow2" )
+        + data.lookupMeta.getString( lookupRow ) );
+    }
+
+    data.db.setValuesLookup( data.lookupMeta, lookupRow );
+    Object[] add = data.db.getLookup( meta.isFailingOnMultipleResults() );
+    if ( add != null ) {
+      incrementLines();
+      convertReturnedValues( add );
+    }
+    return add;
+  }
+
+  /**
+   * The name of the shared cache includes the lookup definition: steps only share rows if they look up the same
+   * fields in the same table with the same conditions.
+   */
+  @VisibleForTesting
+  String getSharedCacheName() {
+    DatabaseMeta dbMeta = meta.getDatabaseMeta();
+    StringBuilder name = new StringBuilder( Const.NVL( environmentSubstitute( meta.getSharedCacheName() ), "" ) );
+    name.append( '|' ).append( dbMeta.getName() );
+    name.append( '|' ).append( environmentSubstitute( dbMeta.getHostname() ) );
+    name.append( '|' ).append( environmentSubstitute( dbMeta.getDatabaseName() ) );
+    name.append( '|' ).append( dbMeta.getQuotedSchemaTableCombination(
+      environmentSubstitute( meta.getSchemaName() ), environmentSubstitute( meta.getTablename() ) ) );
+    name.append( '|' ).append( Arrays.toString( meta.getTableKeyField() ) );
+    name.append( '|' ).append( Arrays.toString( meta.getKeyCondition() ) );
+    name.append( '|' ).append( Arrays.toString( meta.getReturnValueField() ) );
+    name.append( '|' ).append( Arrays.toString( meta.getReturnValueDefaultType() ) );
+    name.append( '|' ).append( Const.NVL( meta.getOrderByClause(), "" ) );
+    name.append( '|' ).append( meta.isFailingOnMultipleResults() );
+    name.append( '|' ).append( meta.isLoadingAllDataInCache() );
+    return name.toString();
+  }
+
   @VisibleForTesting
   boolean isTimelessMask( String dateMask ) {
     if ( dateMask == null ) {
@@ -404,7 +478,15 @@ public class DatabaseLookup extends BaseStep implements StepInterface {
       }
 
       if ( meta.isCached() ) {
-        data.cache = DefaultCache.newCache( data, meta.getCacheSize() );
+        if ( meta.isSharedCache() && data.allEquals && !data.hasDBCondition ) {
+          data.sharedCache = SharedCache.getInstance( getSharedCacheName(), meta.getCacheSize(),
+            meta.getCacheTimeToLive() * 1000L, meta.getCacheEvictionPolicy() );
+        } else {
+          if ( meta.isSharedCache() ) {
+            logBasic( BaseMessages.getString( PKG, "DatabaseLookup.Log.SharedCacheNeedsEqualConditions" ) );
+          }
+          data.cache = DefaultCache.newCache( data, meta.getCacheSize() );
+        }
       }
 
       determineFieldsTypesQueryingDb();
@@ -417,7 +499,7 @@ public class DatabaseLookup extends BaseStep implements StepInterface {
 
       // If the user selected to load all data into the cache at startup, that's what we do now...
       //
-      if ( meta.isCached() && meta.isLoadingAllDataInCache() ) {
+      if ( meta.isCached() && meta.isLoadingAllDataInCache() && data.sharedCache == null ) {
         loadAllTableDataIntoTheCache();
       }
     }
@@ -467,44 +549,74 @@ public class DatabaseLookup extends BaseStep implements StepInterface {
     try ( Database db = getDatabase( dbMeta ) ) {
       connectDatabase( db );
 
-      // We only want to get the used table fields...
+      // Now that we have the SQL constructed, let's store the rows...
       //
-      StringBuilder sql = new StringBuilder( "SELECT " );
+      String sql = getLoadAllSql( dbMeta );
+      if ( data.allEquals ) {
+        putToDefaultCache( db, sql );
+      } else {
+        putToReadOnlyCache( db, db.getRows( sql, 0 ) );
+      }
+    } catch ( Exception e ) {
+      throw new KettleException( e );
+    }
+  }
 
-      for ( int i = 0; i < meta.getStreamKeyField1().length; i++ ) {
-        if ( i > 0 ) {
-          sql.append( ", " );
+  /**
+   * Reads all rows of the lookup table for the shared cache, with a connection of its own.
+   */
+  private void loadAllTableData( Map<RowMetaAndData, Object[]> target ) throws KettleException {
+    DatabaseMeta dbMeta = meta.getDatabaseMeta();
+
+    try ( Database db = getDatabase( dbMeta ) ) {
+      connectDatabase( db );
+
+      final int keysAmount = meta.getStreamKeyField1().length;
+      AtomicReference<RowMetaInterface> prototype = new AtomicReference<>();
+      db.forEachRow( getLoadAllSql( dbMeta ), 0, row -> {
+        if ( prototype.get() == null ) {
+          prototype.set( copyValueMetasFrom( db.getReturnRowMeta(), keysAmount ) );
         }
-        sql.append( dbMeta.quoteField( meta.getTableKeyField()[ i ] ) );
-      }
+        Object[] keyData = new Object[ keysAmount ];
+        System.arraycopy( row, 0, keyData, 0, keysAmount );
+        Object[] valueData = new Object[ data.returnMeta.size() ];
+        System.arraycopy( row, keysAmount, valueData, 0, valueData.length );
+        target.putIfAbsent( new RowMetaAndData( prototype.get(), keyData ), valueData );
+        incrementLinesInput();
+      } );
+    } catch ( Exception e ) {
+      throw new KettleException( e );
+    }
+  }
 
-      // Also grab the return field...
-      //
-      for ( int i = 0; i < meta.getReturnValueField().length; i++ ) {
-        sql.append( ", " ).append( dbMeta.quoteField( meta.getReturnValueField()[ i ] ) );
-      }
-      // The schema/table
-      //
-      sql.append( " FROM " ).append(
-        dbMeta.getQuotedSchemaTableCombination( environmentSubstitute( meta.getSchemaName() ),
-          environmentSubstitute( meta.getTablename() ) ) );
+  private String getLoadAllSql( DatabaseMeta dbMeta ) {
+    // We only want to get the used table fields...
+    //
+    StringBuilder sql = new StringBuilder( "SELECT " );
 
-      // order by?
-      if ( !Utils.isEmpty( meta.getOrderByClause() ) ) {
-        sql.append( " ORDER BY " ).append( meta.getOrderByClause() );
+    for ( int i = 0; i < meta.getStreamKeyField1().length; i++ ) {
+      if ( i > 0 ) {
+        sql.append( ", " );
       }
+      sql.append( dbMeta.quoteField( meta.getTableKeyField()[ i ] ) );
+    }
 
-      // Now that we have the SQL constructed, let's store the rows...
-      //
+    // Also grab the return field...
+    //
+    for ( int i = 0; i < meta.getReturnValueField().length; i++ ) {
+      sql.append( ", " ).append( dbMeta.quoteField( meta.getReturnValueField()[ i ] ) );
+    }
+    // The schema/table
+    //
+    sql.append( " FROM " ).append(
+      dbMeta.getQuotedSchemaTableCombination( environmentSubstitute( meta.getSchemaName() ),
+        environmentSubstitute( meta.getTablename() ) ) );
 
-      if ( data.allEquals ) {
-        putToDefaultCache( db, sql.toString() );
-      } else {
-        putToReadOnlyCache( db, db.getRows( sql.toString(), 0 ) );
-      }
-    } catch ( Exception e ) {
-      throw new KettleException( e );
+    // order by?
+    if ( !Utils.isEmpty( meta.getOrderByClause() ) ) {
+      sql.append( " ORDER BY " ).append( meta.getOrderByClause() );
     }
+    return sql.toString();
   }
 
   private void putToDefaultCache( Database db, String sql ) throws KettleDatabaseException {
@@ -645,9 +757,23 @@ public class DatabaseLookup extends BaseStep implements StepInterface {
       data.db.close();
     }
 
+    if ( data.sharedCache != null ) {
+      log.snap( Metrics.METRIC_STEP_CACHE_HITS, data.sharedCache.getName(), data.cacheHits );
+      log.snap( Metrics.METRIC_STEP_CACHE_MISSES, data.sharedCache.getName(), data.cacheMisses );
+      if ( log.isDetailed() ) {
+        logDetailed( BaseMessages.getString( PKG, "DatabaseLookup.Log.SharedCacheStatistics",
+          String.valueOf( data.cacheHits ), String.valueOf( data.cacheMisses ),
+          String.valueOf( data.sharedCache.getSize() ) ) );
+      }
+    }
+
     // Recover memory immediately, allow in-memory data to be garbage collected
     //
     data.cache = null;
+    if ( data.sharedCache != null ) {
+      SharedCache.release( data.sharedCache );
+      data.sharedCache = null;
+    }
 
     super.dispose( smi, sdi );
   }
@@ -25,6 +25,9 @@ import org.pentaho.di.trans.step.StepDataInterface;
  */
 public class DatabaseLookupData extends BaseStepData implements StepDataInterface {
   public Cache cache;
+  public SharedCache sharedCache;
+  public long cacheHits;
+  public long cacheMisses;
   public Database db;
 
   public Object[] nullif; // Not found: default values...
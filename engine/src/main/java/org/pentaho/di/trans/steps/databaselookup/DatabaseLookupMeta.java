@@ -56,6 +56,10 @@ public class DatabaseLookupMeta extends BaseStepMeta implements StepMetaInterfac
   private static final String TAG_CACHE = "cache";
   private static final String TAG_CACHE_LOAD_ALL = "cache_load_all";
   private static final String TAG_CACHE_SIZE = "cache_size";
+  private static final String TAG_CACHE_SHARED = "cache_shared";
+  private static final String TAG_CACHE_SHARED_NAME = "cache_shared_name";
+  private static final String TAG_CACHE_TTL = "cache_ttl";
+  private static final String TAG_CACHE_EVICTION = "cache_eviction";
   private static final String TAG_CONDITION = "condition";
   private static final String TAG_CONNECTION = "connection";
   private static final String TAG_DEFAULT = "default";
@@ -146,6 +150,18 @@ public class DatabaseLookupMeta extends BaseStepMeta implements StepMetaInterfac
   /** Flag to make it load all data into the cache at startup */
   private boolean loadingAllDataInCache;
 
+  /** Share the cache with the other steps in the JVM that look up the same data */
+  private boolean sharedCache;
+
+  /** The name of the shared cache */
+  private String sharedCacheName;
+
+  /** Number of seconds after which cached rows are looked up again, 0 to keep them */
+  private int cacheTimeToLive;
+
+  /** Evict the least recently (LRU) or least frequently (LFU) used rows from a full shared cache */
+  private String cacheEvictionPolicy;
+
   /** Have the lookup fail if multiple results were found, renders the orderByClause useless */
   private boolean failingOnMultipleResults;
 
@@ -424,6 +440,11 @@ public class DatabaseLookupMeta extends BaseStepMeta implements StepMetaInterfac
       cached = "Y".equalsIgnoreCase( XMLHandler.getTagValue( stepnode, TAG_CACHE ) );
       loadingAllDataInCache = "Y".equalsIgnoreCase( XMLHandler.getTagValue( stepnode, TAG_CACHE_LOAD_ALL ) );
       cacheSize = Const.toInt( XMLHandler.getTagValue( stepnode, TAG_CACHE_SIZE ), 0 );
+      sharedCache = "Y".equalsIgnoreCase( XMLHandler.getTagValue( stepnode, TAG_CACHE_SHARED ) );
+      sharedCacheName = XMLHandler.getTagValue( stepnode, TAG_CACHE_SHARED_NAME );
+      cacheTimeToLive = Const.toInt( XMLHandler.getTagValue( stepnode, TAG_CACHE_TTL ), 0 );
+      cacheEvictionPolicy =
+        Const.NVL( XMLHandler.getTagValue( stepnode, TAG_CACHE_EVICTION ), SharedCache.EVICTION_LRU );
       schemaName = XMLHandler.getTagValue( stepnode, TAG_LOOKUP, TAG_SCHEMA );
       tablename = XMLHandler.getTagValue( stepnode, TAG_LOOKUP, TAG_TABLE );
 
@@ -476,6 +497,10 @@ public class DatabaseLookupMeta extends BaseStepMeta implements StepMetaInterfac
     databaseMeta = null;
     cached = false;
     cacheSize = 0;
+    sharedCache = false;
+    sharedCacheName = "";
+    cacheTimeToLive = 0;
+    cacheEvictionPolicy = SharedCache.EVICTION_LRU;
     schemaName = "";
     tablename = BaseMessages.getString( PKG, "DatabaseLookupMeta.Default.TableName" );
 
@@ -522,6 +547,10 @@ public class DatabaseLookupMeta extends BaseStepMeta implements StepMetaInterfac
     retval.append( SPACES4 ).append( XMLHandler.addTagValue( TAG_CACHE, cached ) );
     retval.append( SPACES4 ).append( XMLHandler.addTagValue( TAG_CACHE_LOAD_ALL, loadingAllDataInCache ) );
     retval.append( SPACES4 ).append( XMLHandler.addTagValue( TAG_CACHE_SIZE, cacheSize ) );
+    retval.append( SPACES4 ).append( XMLHandler.addTagValue( TAG_CACHE_SHARED, sharedCache ) );
+    retval.append( SPACES4 ).append( XMLHandler.addTagValue( TAG_CACHE_SHARED_NAME, sharedCacheName ) );
+    retval.append( SPACES4 ).append( XMLHandler.addTagValue( TAG_CACHE_TTL, cacheTimeToLive ) );
+    retval.append( SPACES4 ).append( XMLHandler.addTagValue( TAG_CACHE_EVICTION, cacheEvictionPolicy ) );
     retval.append( "    <lookup>" ).append( Const.CR );
     retval.append( SPACES6 ).append( XMLHandler.addTagValue( TAG_SCHEMA, schemaName ) );
     retval.append( SPACES6 ).append( XMLHandler.addTagValue( TAG_TABLE, tablename ) );
@@ -561,6 +590,11 @@ public class DatabaseLookupMeta extends BaseStepMeta implements StepMetaInterfac
       cached = rep.getStepAttributeBoolean( id_step, TAG_CACHE );
       loadingAllDataInCache = rep.getStepAttributeBoolean( id_step, TAG_CACHE_LOAD_ALL );
       cacheSize = (int) rep.getStepAttributeInteger( id_step, TAG_CACHE_SIZE );
+      sharedCache = rep.getStepAttributeBoolean( id_step, TAG_CACHE_SHARED );
+      sharedCacheName = rep.getStepAttributeString( id_step, TAG_CACHE_SHARED_NAME );
+      cacheTimeToLive = (int) rep.getStepAttributeInteger( id_step, TAG_CACHE_TTL );
+      cacheEvictionPolicy =
+        Const.NVL( rep.getStepAttributeString( id_step, TAG_CACHE_EVICTION ), SharedCache.EVICTION_LRU );
       schemaName = rep.getStepAttributeString( id_step, TAG_LOOKUP_SCHEMA );
       tablename = rep.getStepAttributeString( id_step, TAG_LOOKUP_TABLE );
       orderByClause = rep.getStepAttributeString( id_step, TAG_LOOKUP_ORDERBY );
@@ -599,6 +633,10 @@ public class DatabaseLookupMeta extends BaseStepMeta implements StepMetaInterfac
       rep.saveStepAttribute( idTransformation, idStep, TAG_CACHE, cached );
       rep.saveStepAttribute( idTransformation, idStep, TAG_CACHE_LOAD_ALL, loadingAllDataInCache );
       rep.saveStepAttribute( idTransformation, idStep, TAG_CACHE_SIZE, cacheSize );
+      rep.saveStepAttribute( idTransformation, idStep, TAG_CACHE_SHARED, sharedCache );
+      rep.saveStepAttribute( idTransformation, idStep, TAG_CACHE_SHARED_NAME, sharedCacheName );
+      rep.saveStepAttribute( idTransformation, idStep, TAG_CACHE_TTL, cacheTimeToLive );
+      rep.saveStepAttribute( idTransformation, idStep, TAG_CACHE_EVICTION, cacheEvictionPolicy );
       rep.saveStepAttribute( idTransformation, idStep, TAG_LOOKUP_SCHEMA, schemaName );
       rep.saveStepAttribute( idTransformation, idStep, TAG_LOOKUP_TABLE, tablename );
       rep.saveStepAttribute( idTransformation, idStep, TAG_LOOKUP_ORDERBY, orderByClause );
@@ -882,6 +920,66 @@ public class DatabaseLookupMeta extends BaseStepMeta implements StepMetaInterfac
     this.loadingAllDataInCache = loadingAllDataInCache;
   }
 
+  /**
+   * @return true if the cache is shared with the other steps in the JVM that look up the same data
+   */
+  public boolean isSharedCache() {
+    return sharedCache;
+  }
+
+  /**
+   * @param sharedCache
+   *          true to share the cache with the other steps in the JVM that look up the same data
+   */
+  public void setSharedCache( boolean sharedCache ) {
+    this.sharedCache = sharedCache;
+  }
+
+  /**
+   * @return the name of the shared cache
+   */
+  public String getSharedCacheName() {
+    return sharedCacheName;
+  }
+
+  /**
+   * @param sharedCacheName
+   *          the name of the shared cache
+   */
+  public void setSharedCacheName( String sharedCacheName ) {
+    this.sharedCacheName = sharedCacheName;
+  }
+
+  /**
+   * @return the number of seconds after which cached rows are looked up again, 0 to keep them
+   */
+  public int getCacheTimeToLive() {
+    return cacheTimeToLive;
+  }
+
+  /**
+   * @param cacheTimeToLive
+   *          the number of seconds after which cached rows are looked up again, 0 to keep them
+   */
+  public void setCacheTimeToLive( int cacheTimeToLive ) {
+    this.cacheTimeToLive = cacheTimeToLive;
+  }
+
+  /**
+   * @return {@link SharedCache#EVICTION_LRU} or {@link SharedCache#EVICTION_LFU}
+   */
+  public String getCacheEvictionPolicy() {
+    return cacheEvictionPolicy;
+  }
+
+  /**
+   * @param cacheEvictionPolicy
+   *          {@link SharedCache#EVICTION_LRU} or {@link SharedCache#EVICTION_LFU}
+   */
+  public void setCacheEvictionPolicy( String cacheEvictionPolicy ) {
+    this.cacheEvictionPolicy = cacheEvictionPolicy;
+  }
+
   @Override
   public RowMeta getRowMeta( StepDataInterface stepData ) {
     return (RowMeta) ( (DatabaseLookupData) stepData ).returnMeta;
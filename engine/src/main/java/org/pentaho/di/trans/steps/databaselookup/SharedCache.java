@@ -0,0 +1,396 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.di.trans.steps.databaselookup;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.pentaho.di.core.RowMetaAndData;
+import org.pentaho.di.core.exception.KettleException;
+import org.pentaho.di.core.row.RowMetaInterface;
+
+/**
+ * Lookup cache shared by all copies of all Database Lookup steps in the JVM (or Carte instance) that use the same
+ * cache name and the same lookup definition. Rows can be read by many threads at the same time. A key that isn't in
+ * the cache is looked up in the database by one thread only, the other threads asking for the same key wait for its
+ * result.<br>
+ * <br>
+ * Entries expire after the time to live and the cache is kept below its maximum size by evicting the least recently
+ * (LRU) or the least frequently (LFU) used entries. When all data of the table is loaded into the cache, the whole
+ * table is loaded again after the time to live and the maximum size doesn't apply.<br>
+ * <br>
+ * Steps get a cache with {@link #getInstance(String, int, long, String)} and hand it back with
+ * {@link #release(SharedCache)} when they dispose. The cache is dropped once the last step released it.
+ *
+ * @since 11.1
+ */
+public class SharedCache {
+  public static final String EVICTION_LRU = "LRU";
+  public static final String EVICTION_LFU = "LFU";
+
+  private static final Map<String, SharedCache> caches = new ConcurrentHashMap<>();
+
+  /**
+   * Looks up the row of a key that isn't in the cache.
+   */
+  public interface Loader {
+    /**
+     * @return the row found for the key or null if there is none
+     * @throws KettleException
+     *           in case the row can't be looked up
+     */
+    Object[] load() throws KettleException;
+  }
+
+  /**
+   * Reads all rows of a lookup table.
+   */
+  public interface TableLoader {
+    /**
+     * @param target
+     *          the map to put the rows in by key
+     * @throws KettleException
+     *           in case the rows can't be read
+     */
+    void load( Map<RowMetaAndData, Object[]> target ) throws KettleException;
+  }
+
+  private static class Entry {
+    private final Object[] row;
+    private final long loaded;
+    private volatile long lastUsed;
+    private volatile int uses;
+
+    private Entry( Object[] row, long now ) {
+      this.row = row;
+      this.loaded = now;
+      this.lastUsed = now;
+      this.uses = 1;
+    }
+
+    private void use( long now ) {
+      lastUsed = now;
+      // Lost updates are fine, this is only used to pick entries to evict
+      uses++;
+    }
+  }
+
+  private final String name;
+  private final int maxSize;
+  private final long timeToLive;
+  private final boolean leastFrequentlyUsed;
+
+  private volatile Map<RowMetaAndData, Entry> entries = new ConcurrentHashMap<>();
+  private final Map<RowMetaAndData, CompletableFuture<Entry>> loading = new ConcurrentHashMap<>();
+  private final ReentrantLock evictionLock = new ReentrantLock();
+  private final ReentrantLock tableLock = new ReentrantLock();
+  private volatile long tableLoaded;
+
+  // Only changed inside a compute() on the caches map for the name of this cache
+  private int users;
+
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder misses = new LongAdder();
+  private final LongAdder evictions = new LongAdder();
+
+  /**
+   * @param name
+   *          the name of the cache
+   * @param maxSize
+   *          the maximum number of entries, 0 for no limit
+   * @param timeToLive
+   *          the number of milliseconds after which an entry expires, 0 if entries never expire
+   * @param evictionPolicy
+   *          {@link #EVICTION_LFU} to evict the least frequently used entries, otherwise the least recently used ones
+   *          are evicted
+   */
+  public SharedCache( String name, int maxSize, long timeToLive, String evictionPolicy ) {
+    this.name = name;
+    this.maxSize = maxSize;
+    this.timeToLive = timeToLive;
+    this.leastFrequentlyUsed = EVICTION_LFU.equalsIgnoreCase( evictionPolicy );
+  }
+
+  /**
+   * Get a shared cache, creating it if it doesn't exist yet. The size, time to live and eviction policy of the step
+   * that creates the cache are used. Every call must be matched by a call to {@link #release(SharedCache)}.
+   *
+   * @param name
+   *          the name of the cache, including the lookup definition
+   * @param maxSize
+   *          the maximum number of entries, 0 for no limit
+   * @param timeToLive
+   *          the number of milliseconds after which an entry expires, 0 if entries never expire
+   * @param evictionPolicy
+   *          {@link #EVICTION_LRU} or {@link #EVICTION_LFU}
+   * @return the shared cache
+   */
+  public static SharedCache getInstance( String name, int maxSize, long timeToLive, String evictionPolicy ) {
+    return caches.compute( name, ( n, cache ) -> {
+      if ( cache == null ) {
+        cache = new SharedCache( n, maxSize, timeToLive, evictionPolicy );
+      }
+      cache.users++;
+      return cache;
+    } );
+  }
+
+  /**
+   * Hand back a cache obtained with {@link #getInstance(String, int, long, String)}. The cache is removed when the
+   * last step using it releases it, so its rows can be garbage collected.
+   *
+   * @param cache
+   *          the cache to release
+   */
+  public static void release( SharedCache cache ) {
+    caches.computeIfPresent( cache.getName(), ( n, current ) -> {
+      if ( current != cache ) {
+        // This cache was removed already and another one was created with the same name
+        return current;
+      }
+      return --current.users > 0 ? current : null;
+    } );
+  }
+
+  /**
+   * Remove a shared cache, the steps using it keep it until they finish. Releasing it afterwards has no effect.
+   *
+   * @param name
+   *          the name of the cache
+   */
+  public static void remove( String name ) {
+    caches.remove( name );
+  }
+
+  /**
+   * Remove all shared caches.
+   */
+  public static void clearAll() {
+    caches.clear();
+  }
+
+  /**
+   * Get the row of a key, looking it up with the loader if it isn't in the cache or if it expired.
+   *
+   * @param keyMeta
+   *          the metadata of the key
+   * @param keyData
+   *          the key
+   * @param loader
+   *          looks up the row in the database, only called if no other thread is looking up the same key
+   * @return the row or null if there is no row for the key
+   * @throws KettleException
+   *           in case the row can't be looked up
+   */
+  public Object[] get( RowMetaInterface keyMeta, Object[] keyData, Loader loader ) throws KettleException {
+    RowMetaAndData key = new RowMetaAndData( keyMeta, keyData );
+    long now = System.currentTimeMillis();
+    Entry entry = entries.get( key );
+    if ( entry != null && !isExpired( entry.loaded, now ) ) {
+      entry.use( now );
+      hits.increment();
+      return entry.row;
+    }
+    return load( key, loader ).row;
+  }
+
+  /**
+   * Get the row of a key from a cache that holds all data of the table.
+   *
+   * @param keyMeta
+   *          the metadata of the key
+   * @param keyData
+   *          the key
+   * @return the row or null if there is no row for the key
+   */
+  public Object[] getLoaded( RowMetaInterface keyMeta, Object[] keyData ) {
+    Entry entry = entries.get( new RowMetaAndData( keyMeta, keyData ) );
+    if ( entry == null ) {
+      misses.increment();
+      return null;
+    }
+    hits.increment();
+    return entry.row;
+  }
+
+  /**
+   * Load all data of the table into the cache, unless it was loaded before and didn't expire yet. Only one thread
+   * loads the table. The first time the others wait for it, after that they don't and rows keep being served from the
+   * previous load while the table is loaded again.
+   *
+   * @param loader
+   *          reads the rows of the table
+   * @return true if the rows were read by this call
+   * @throws KettleException
+   *           in case the rows can't be read
+   */
+  public boolean loadTable( TableLoader loader ) throws KettleException {
+    if ( tableLoaded != 0 && !isExpired( tableLoaded, System.currentTimeMillis() ) ) {
+      return false;
+    }
+    if ( tableLoaded == 0 ) {
+      tableLock.lock();
+    } else if ( !tableLock.tryLock() ) {
+      // Another thread is loading the table again, keep using the rows we have
+      return false;
+    }
+    try {
+      long now = System.currentTimeMillis();
+      if ( tableLoaded != 0 && !isExpired( tableLoaded, now ) ) {
+        return false;
+      }
+      Map<RowMetaAndData, Object[]> rows = new ConcurrentHashMap<>();
+      loader.load( rows );
+      Map<RowMetaAndData, Entry> table = new ConcurrentHashMap<>( Math.max( 16, rows.size() * 4 / 3 ) );
+      for ( Map.Entry<RowMetaAndData, Object[]> row : rows.entrySet() ) {
+        table.put( row.getKey(), new Entry( row.getValue(), now ) );
+      }
+      entries = table;
+      tableLoaded = now;
+      return true;
+    } finally {
+      tableLock.unlock();
+    }
+  }
+
+  private Entry load( RowMetaAndData key, Loader loader ) throws KettleException {
+    while ( true ) {
+      CompletableFuture<Entry> future = new CompletableFuture<>();
+      CompletableFuture<Entry> running = loading.putIfAbsent( key, future );
+      if ( running == null ) {
+        try {
+          long now = System.currentTimeMillis();
+          // Another thread may have stored the entry between our lookup and now
+          Entry entry = entries.get( key );
+          if ( entry == null || isExpired( entry.loaded, now ) ) {
+            misses.increment();
+            entry = new Entry( loader.load(), now );
+            entries.put( key, entry );
+            evictIfNeeded();
+          } else {
+            entry.use( now );
+            hits.increment();
+          }
+          future.complete( entry );
+          return entry;
+        } catch ( KettleException | RuntimeException e ) {
+          future.completeExceptionally( e );
+          throw e;
+        } finally {
+          loading.remove( key, future );
+        }
+      }
+
+      try {
+        Entry entry = running.get();
+        entry.use( System.currentTimeMillis() );
+        hits.increment();
+        return entry;
+      } catch ( ExecutionException e ) {
+        // The thread that looked up the key failed, try again ourselves
+        continue;
+      } catch ( InterruptedException e ) {
+        Thread.currentThread().interrupt();
+        throw new KettleException( e );
+      }
+    }
+  }
+
+  private boolean isExpired( long loaded, long now ) {
+    return timeToLive > 0 && now - loaded > timeToLive;
+  }
+
+  /**
+   * Bring the cache back to 90% of its maximum size, dropping the expired entries first. Only one thread evicts at a
+   * time, the others don't wait for it.
+   */
+  private void evictIfNeeded() {
+    if ( maxSize <= 0 || entries.size() <= maxSize || !evictionLock.tryLock() ) {
+      return;
+    }
+    try {
+      long now = System.currentTimeMillis();
+      List<Map.Entry<RowMetaAndData, Entry>> candidates = new ArrayList<>( entries.size() );
+      for ( Map.Entry<RowMetaAndData, Entry> candidate : entries.entrySet() ) {
+        if ( isExpired( candidate.getValue().loaded, now ) ) {
+          remove( candidate.getKey(), candidate.getValue() );
+        } else {
+          candidates.add( candidate );
+        }
+      }
+
+      int toEvict = entries.size() - maxSize + maxSize / 10;
+      if ( toEvict <= 0 ) {
+        return;
+      }
+      Comparator<Map.Entry<RowMetaAndData, Entry>> order =
+        Comparator.comparingLong( candidate -> candidate.getValue().lastUsed );
+      if ( leastFrequentlyUsed ) {
+        order = Comparator.<Map.Entry<RowMetaAndData, Entry>>comparingInt( candidate -> candidate.getValue().uses )
+          .thenComparing( order );
+      }
+      candidates.sort( order );
+      for ( int i = 0; i < toEvict && i < candidates.size(); i++ ) {
+        remove( candidates.get( i ).getKey(), candidates.get( i ).getValue() );
+      }
+    } finally {
+      evictionLock.unlock();
+    }
+  }
+
+  private void remove( RowMetaAndData key, Entry entry ) {
+    if ( entries.remove( key, entry ) ) {
+      evictions.increment();
+    }
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  /**
+   * @return the number of entries in the cache
+   */
+  public int getSize() {
+    return entries.size();
+  }
+
+  /**
+   * @return the number of lookups answered from the cache
+   */
+  public long getHits() {
+    return hits.sum();
+  }
+
+  /**
+   * @return the number of lookups that had to go to the database or found nothing in a fully loaded table
+   */
+  public long getMisses() {
+    return misses.sum();
+  }
+
+  /**
+   * @return the number of entries removed because the cache was full or because they expired
+   */
+  public long getEvictions() {
+    return evictions.sum();
+  }
+}
@@ -13,6 +13,7 @@
 
 package org.pentaho.di.trans.steps.dimensionlookup;
 
+import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
 import java.util.ArrayList;
@@ -24,6 +25,7 @@ import java.util.List;
 import org.pentaho.di.core.Const;
 import org.pentaho.di.core.util.Utils;
 import org.pentaho.di.core.RowMetaAndData;
+import org.pentaho.di.core.database.Database;
 import org.pentaho.di.core.database.DatabaseMeta;
 import org.pentaho.di.core.exception.KettleDatabaseException;
 import org.pentaho.di.core.exception.KettleException;
@@ -167,7 +169,7 @@ public class DimensionLookup extends BaseDatabaseStep implements StepInterface {
 
       }
 
-      if ( !meta.isUpdate() && meta.isPreloadingCache() ) {
+      if ( !meta.isUpdate() && meta.isPreloadingCache() && !meta.isVersionCache() ) {
         preloadCache();
       } else {
         // Caching...
@@ -184,6 +186,11 @@ public class DimensionLookup extends BaseDatabaseStep implements StepInterface {
           data.cache =
             new ByteArrayHashMap( meta.getCacheSize() > 0 ? meta.getCacheSize() : 5000, data.cacheKeyRowMeta );
         }
+
+        if ( meta.isVersionCache() ) {
+          data.versionCache =
+            DimensionVersionCache.getInstance( getTrans(), getStepname(), Math.max( meta.getCacheSize(), 0 ) );
+        }
       }
 
       if ( !Utils.isEmpty( meta.getDateField() ) ) {
@@ -206,6 +213,12 @@ public class DimensionLookup extends BaseDatabaseStep implements StepInterface {
       }
 
       setDimLookup( data.outputRowMeta );
+
+      // One of the step copies loads the whole dimension while the rows are processed
+      //
+      if ( data.versionCache != null && meta.isPreloadingCache() && data.versionCache.startLoading() ) {
+        startVersionCacheLoader();
+      }
     }
 
     // convert row to normal storage...
@@ -321,7 +334,7 @@ public class DimensionLookup extends BaseDatabaseStep implements StepInterface {
     }
   }
 
-  private synchronized Object[] lookupValues( RowMetaInterface rowMeta, Object[] row ) throws KettleException {
+  private Object[] lookupValues( RowMetaInterface rowMeta, Object[] row ) throws KettleException {
     Object[] outputRow = new Object[ data.outputRowMeta.size() ];
 
     RowMetaInterface lookupRowMeta;
@@ -335,13 +348,15 @@ public class DimensionLookup extends BaseDatabaseStep implements StepInterface {
     Date valueDateFrom = null;
     Date valueDateTo = null;
 
+    byte[] versionCacheKey = null;
+
     // Determine the lookup date ("now") if we have a field that carries said
     // date.
     // If not, the system date is taken.
     //
     valueDate = determineDimensionUpdatedDate( row );
 
-    if ( !meta.isUpdate() && meta.isPreloadingCache() ) {
+    if ( !meta.isUpdate() && meta.isPreloadingCache() && !meta.isVersionCache() ) {
       // Obtain a result row from the pre-load cache...
       //
       // Create a row to compare with
@@ -424,21 +439,30 @@ public class DimensionLookup extends BaseDatabaseStep implements StepInterface {
       // Do the lookup and see if we can find anything in the database.
       // But before that, let's see if we can find anything in the cache
       //
-      if ( meta.getCacheSize() >= 0 ) {
+      // Once the whole dimension is in the version cache, a key that isn't in there isn't in the dimension either
+      //
+      boolean versionCacheLoaded = false;
+      if ( data.versionCache != null ) {
+        versionCacheKey = RowMeta.extractData( data.cacheKeyRowMeta, lookupRow );
+        versionCacheLoaded = data.versionCache.isLoaded();
+        returnRow = getFromVersionCache( versionCacheKey, valueDate );
+      } else if ( meta.getCacheSize() >= 0 ) {
         returnRow = getFromCache( lookupRow, valueDate );
       }
 
       // Nothing found in the cache?
       // Perform the lookup in the database...
       //
-      if ( returnRow == null ) {
+      if ( returnRow == null && !versionCacheLoaded ) {
         data.db.setValues( data.lookupRowMeta, lookupRow, data.prepStatementLookup );
         returnRow = data.db.getLookup( data.prepStatementLookup );
         data.returnRowMeta = data.db.getReturnRowMeta();
 
         incrementLinesInput();
 
-        if ( returnRow != null && meta.getCacheSize() >= 0 ) {
+        if ( data.versionCache != null ) {
+          returnRow = addToVersionCache( versionCacheKey, data.returnRowMeta, returnRow );
+        } else if ( returnRow != null && meta.getCacheSize() >= 0 ) {
           addToCache( lookupRow, returnRow );
         }
       }
@@ -547,6 +571,12 @@ public class DimensionLookup extends BaseDatabaseStep implements StepInterface {
          *
          * // put it in the cache... if (values!=null) { addToCache(lookupRow, values); } }
          */
+        if ( data.versionCache != null ) {
+          // The version cache converts the values to the data types of the dimension
+          //
+          data.versionCache.insertVersion( versionCacheKey,
+            getVersionCacheValues( row, technicalKey, valueVersion, data.insertDateFrom, valueDateTo ), null );
+        }
 
         if ( isRowLevel() ) {
           logRowlevel( BaseMessages.getString( PKG, "DimensionLookup.Log.AddedDimensionEntry" )
@@ -684,7 +714,9 @@ public class DimensionLookup extends BaseDatabaseStep implements StepInterface {
             incrementLinesUpdated();
 
             // We need to capture this change in the cache as well...
-            if ( meta.getCacheSize() >= 0 ) {
+            if ( data.versionCache != null ) {
+              data.versionCache.put( versionCacheKey, getUpdatedVersionCacheValues( row, returnRow, false ) );
+            } else if ( meta.getCacheSize() >= 0 ) {
               Object[] values =
                 getCacheValues( rowMeta, row, technicalKey, valueVersion, valueDateFrom, valueDateTo );
               addToCache( lookupRow, values );
@@ -735,7 +767,15 @@ public class DimensionLookup extends BaseDatabaseStep implements StepInterface {
           incrementLinesOutput();
 
           // We need to capture this change in the cache as well...
-          if ( meta.getCacheSize() >= 0 ) {
+          if ( data.versionCache != null ) {
+            // The previous version now ends where the new one starts
+            //
+            Object[] previousValues = returnRow.clone();
+            previousValues[ previousValues.length - 1 ] = data.updateDateTo;
+            data.versionCache.insertVersion( versionCacheKey,
+              getVersionCacheValues( row, technicalKey, valueNewVersion, data.insertDateFrom, valueDateTo ),
+              previousValues );
+          } else if ( meta.getCacheSize() >= 0 ) {
             Object[] values =
               getCacheValues( rowMeta, row, technicalKey, valueNewVersion, valueDateFrom, valueDateTo );
             addToCache( lookupRow, values );
@@ -751,6 +791,10 @@ public class DimensionLookup extends BaseDatabaseStep implements StepInterface {
            */
           dimPunchThrough( rowMeta, row );
           incrementLinesUpdated();
+
+          if ( data.versionCache != null ) {
+            punchThroughVersionCache( versionCacheKey, row, returnRow );
+          }
         }
 
         returnRow = new Object[ data.returnRowMeta.size() ];
@@ -835,30 +879,7 @@ public class DimensionLookup extends BaseDatabaseStep implements StepInterface {
      * SELECT <tk>, <version>, ... , FROM <table> WHERE key1=keys[1] AND key2=keys[2] ... AND ( <datefrom> is null OR
      * <datefrom> <= <datefield> ) AND <dateto> >= <datefield>
      */
-    String sql =
-      "SELECT "
-        + databaseMeta.quoteField( meta.getKeyField() ) + ", "
-        + databaseMeta.quoteField( meta.getVersionField() );
-
-    if ( !Utils.isEmpty( meta.getFieldLookup() ) ) {
-      for ( int i = 0; i < meta.getFieldLookup().length; i++ ) {
-        // Don't retrieve the fields without input
-        if ( !Utils.isEmpty( meta.getFieldLookup()[ i ] )
-          && !DimensionLookupMeta.isUpdateTypeWithoutArgument( meta.isUpdate(), meta.getFieldUpdate()[ i ] ) ) {
-          sql += ", " + databaseMeta.quoteField( meta.getFieldLookup()[ i ] );
-
-          if ( !Utils.isEmpty( meta.getFieldStream()[ i ] )
-            && !meta.getFieldLookup()[ i ].equals( meta.getFieldStream()[ i ] ) ) {
-            sql += " AS " + databaseMeta.quoteField( meta.getFieldStream()[ i ] );
-          }
-        }
-      }
-    }
-    if ( meta.getCacheSize() >= 0 ) {
-      sql +=
-        ", " + databaseMeta.quoteField( meta.getDateFrom() ) + ", " + databaseMeta.quoteField( meta.getDateTo() );
-    }
-
+    String sql = getLookupSelect( databaseMeta );
     sql += " FROM " + data.schemaTable + " WHERE ";
 
     for ( int i = 0; i < meta.getKeyLookup().length; i++ ) {
@@ -907,6 +928,215 @@ public class DimensionLookup extends BaseDatabaseStep implements StepInterface {
     }
   }
 
+  /**
+   * The version cache is loaded with the same columns as the lookup, followed by the natural keys.
+   */
+  private void startVersionCacheLoader() {
+    DatabaseMeta databaseMeta = meta.getDatabaseMeta();
+    String sql = getLookupSelect( databaseMeta );
+    for ( int i = 0; i < meta.getKeyLookup().length; i++ ) {
+      sql += ", " + databaseMeta.quoteField( meta.getKeyLookup()[ i ] );
+    }
+    sql += " FROM " + data.schemaTable;
+
+    final String query = sql;
+    data.versionCacheLoader = new Thread( () -> loadVersionCache( query ), getStepname() + " - version cache" );
+    data.versionCacheLoader.setDaemon( true );
+    data.versionCacheLoader.start();
+  }
+
+  /**
+   * Read the whole dimension with a separate connection and put all versions in the version cache. Until this is
+   * done the keys that aren't in the cache are looked up in the database. If the dimension can't be read, it keeps
+   * working like that.
+   */
+  private void loadVersionCache( String sql ) {
+    Database db = new Database( this, meta.getDatabaseMeta() );
+    db.shareVariablesWith( this );
+    try {
+      db.connect( getPartitionID() );
+      logDetailed( "Loading the version cache with: " + Const.CR + sql + Const.CR );
+
+      // The value metadata isn't shared with the step thread, it keeps formatters around
+      RowMetaInterface keyRowMeta = data.cacheKeyRowMeta.clone();
+      ResultSet resultSet = db.openQuery( sql );
+      RowMetaInterface rowMeta = db.getReturnRowMeta();
+      int keyStart = rowMeta.size() - keyRowMeta.size();
+      data.versionCache.setValueRowMeta( getVersionCacheRowMeta( rowMeta, keyStart ) );
+      int valueSize = data.versionCache.getValueRowMeta().size();
+
+      long rows = 0;
+      Object[] keyValues = new Object[ keyRowMeta.size() ];
+      Object[] row = db.getRow( resultSet );
+      while ( row != null && !isStopped() && !Thread.currentThread().isInterrupted() ) {
+        for ( int i = 0; i < keyValues.length; i++ ) {
+          keyValues[ i ] =
+            keyRowMeta.getValueMeta( i ).convertData( rowMeta.getValueMeta( keyStart + i ), row[ keyStart + i ] );
+        }
+        data.versionCache.load(
+          RowMeta.extractData( keyRowMeta, keyValues ), toVersionCacheValues( rowMeta, row, valueSize ) );
+        rows++;
+        row = db.getRow( resultSet );
+      }
+      db.closeQuery( resultSet );
+
+      if ( row == null ) {
+        data.versionCache.setLoaded();
+        logBasic( BaseMessages.getString( PKG, "DimensionLookup.Log.VersionCacheLoaded", String.valueOf( rows ),
+          String.valueOf( data.versionCache.getSize() ) ) );
+      }
+    } catch ( Exception e ) {
+      logError( BaseMessages.getString( PKG, "DimensionLookup.Log.VersionCacheNotLoaded", e.getMessage() ), e );
+    } finally {
+      db.disconnect();
+    }
+  }
+
+  /**
+   * @return the metadata of the values in the version cache: the first columns of the lookup with an Integer
+   *         technical key and version
+   */
+  private static RowMetaInterface getVersionCacheRowMeta( RowMetaInterface rowMeta, int size )
+    throws KettleException {
+    RowMetaInterface valueRowMeta = new RowMeta();
+    for ( int i = 0; i < size; i++ ) {
+      ValueMetaInterface valueMeta = rowMeta.getValueMeta( i ).clone();
+      if ( i < 2 && !valueMeta.isInteger() ) {
+        valueMeta = ValueMetaFactory.cloneValueMeta( valueMeta, ValueMetaInterface.TYPE_INTEGER );
+      }
+      valueRowMeta.addValueMeta( valueMeta );
+    }
+    return valueRowMeta;
+  }
+
+  private static Object[] toVersionCacheValues( RowMetaInterface rowMeta, Object[] row, int size )
+    throws KettleValueException {
+    Object[] values = Arrays.copyOf( row, size );
+    values[ 0 ] = rowMeta.getInteger( row, 0 );
+    values[ 1 ] = rowMeta.getInteger( row, 1 );
+    return values;
+  }
+
+  private Object[] getFromVersionCache( byte[] key, Date dateValue ) {
+    if ( data.versionCacheRowMeta == null ) {
+      RowMetaInterface valueRowMeta = data.versionCache.getValueRowMeta();
+      if ( valueRowMeta == null ) {
+        return null; // nothing in the cache yet
+      }
+      data.versionCacheRowMeta = valueRowMeta.clone();
+    }
+    data.returnRowMeta = data.versionCacheRowMeta;
+
+    Object[] values = data.versionCache.lookup( key, dateValue );
+    if ( values != null && isRowLevel() ) {
+      logRowlevel( "Cache hit: values=" + data.versionCacheRowMeta.getString( values ) );
+    }
+    return values;
+  }
+
+  /**
+   * Store a row looked up in the database in the version cache.
+   *
+   * @return the row with the technical key and version converted to Integer, or null if no row was found
+   */
+  private Object[] addToVersionCache( byte[] key, RowMetaInterface rowMeta, Object[] row ) throws KettleException {
+    if ( data.versionCacheRowMeta == null ) {
+      data.versionCache.setValueRowMeta( getVersionCacheRowMeta( rowMeta, rowMeta.size() ) );
+      data.versionCacheRowMeta = data.versionCache.getValueRowMeta().clone();
+    }
+    data.returnRowMeta = data.versionCacheRowMeta;
+    if ( row == null ) {
+      return null;
+    }
+
+    Object[] values = toVersionCacheValues( rowMeta, row, data.versionCacheRowMeta.size() );
+    data.versionCache.put( key, values );
+    return values;
+  }
+
+  /**
+   * @return the values of a new version for the version cache, converted to the data types of the dimension
+   */
+  private Object[] getVersionCacheValues( Object[] row, Long technicalKey, Long valueVersion, Date valueDateFrom,
+                                          Date valueDateTo ) throws KettleValueException {
+    Object[] values = new Object[ data.returnRowMeta.size() ];
+    int index = 0;
+    values[ index++ ] = technicalKey;
+    values[ index++ ] = valueVersion;
+    for ( int i = 0; i < data.fieldnrs.length; i++ ) {
+      // Same fields as in the lookup
+      if ( data.fieldnrs[ i ] >= 0 && !Utils.isEmpty( meta.getFieldLookup()[ i ] ) ) {
+        values[ index ] = data.returnRowMeta.getValueMeta( index ).convertData(
+          data.outputRowMeta.getValueMeta( data.fieldnrs[ i ] ), row[ data.fieldnrs[ i ] ] );
+        index++;
+      }
+    }
+    values[ values.length - 2 ] = valueDateFrom;
+    values[ values.length - 1 ] = valueDateTo;
+    return values;
+  }
+
+  /**
+   * @return the values of a version found in the dimension with the fields of the input row, all of them or only the
+   *         ones that are punched through
+   */
+  private Object[] getUpdatedVersionCacheValues( Object[] row, Object[] returnRow, boolean punchThroughOnly )
+    throws KettleValueException {
+    Object[] values = returnRow.clone();
+    for ( int i = 0; i < data.fieldnrs.length; i++ ) {
+      int index = columnLookupArray[ i ];
+      if ( data.fieldnrs[ i ] >= 0 && index >= 0
+        && ( !punchThroughOnly || meta.getFieldUpdate()[ i ] == DimensionLookupMeta.TYPE_UPDATE_DIM_PUNCHTHROUGH ) ) {
+        values[ index ] = data.returnRowMeta.getValueMeta( index ).convertData(
+          data.outputRowMeta.getValueMeta( data.fieldnrs[ i ] ), row[ data.fieldnrs[ i ] ] );
+      }
+    }
+    return values;
+  }
+
+  private void punchThroughVersionCache( byte[] key, Object[] row, Object[] returnRow ) throws KettleValueException {
+    int[] indexes = new int[ data.fieldnrs.length ];
+    int nrIndexes = 0;
+    for ( int i = 0; i < data.fieldnrs.length; i++ ) {
+      if ( meta.getFieldUpdate()[ i ] == DimensionLookupMeta.TYPE_UPDATE_DIM_PUNCHTHROUGH
+        && columnLookupArray[ i ] >= 0 ) {
+        indexes[ nrIndexes++ ] = columnLookupArray[ i ];
+      }
+    }
+    data.versionCache.updateAllVersions( key, Arrays.copyOf( indexes, nrIndexes ),
+      getUpdatedVersionCacheValues( row, returnRow, true ) );
+  }
+
+  /**
+   * @return SELECT with the technical key, the version, the lookup fields and, when needed, the date range
+   */
+  private String getLookupSelect( DatabaseMeta databaseMeta ) {
+    String sql =
+      "SELECT "
+        + databaseMeta.quoteField( meta.getKeyField() ) + ", "
+        + databaseMeta.quoteField( meta.getVersionField() );
+
+    if ( !Utils.isEmpty( meta.getFieldLookup() ) ) {
+      for ( int i = 0; i < meta.getFieldLookup().length; i++ ) {
+        // Don't retrieve the fields without input
+        if ( !Utils.isEmpty( meta.getFieldLookup()[ i ] )
+          && !DimensionLookupMeta.isUpdateTypeWithoutArgument( meta.isUpdate(), meta.getFieldUpdate()[ i ] ) ) {
+          sql += ", " + databaseMeta.quoteField( meta.getFieldLookup()[ i ] );
+
+          if ( !Utils.isEmpty( meta.getFieldStream()[ i ] )
+            && !meta.getFieldLookup()[ i ].equals( meta.getFieldStream()[ i ] ) ) {
+            sql += " AS " + databaseMeta.quoteField( meta.getFieldStream()[ i ] );
+          }
+        }
+      }
+    }
+    if ( meta.getCacheSize() >= 0 || data.versionCache != null ) {
+      sql +=
+        ", " + databaseMeta.quoteField( meta.getDateFrom() ) + ", " + databaseMeta.quoteField( meta.getDateTo() );
+    }
+    return sql;
+  }
+
   protected boolean isAutoIncrement() {
     return techKeyCreation == CREATION_METHOD_AUTOINC;
   }
@@ -1106,28 +1336,29 @@ public class DimensionLookup extends BaseDatabaseStep implements StepInterface {
 
     switch ( data.startDateChoice ) {
       case DimensionLookupMeta.START_DATE_ALTERNATIVE_NONE:
-        insertRow[ insertIndex++ ] = dateFrom;
+        data.insertDateFrom = dateFrom;
         break;
       case DimensionLookupMeta.START_DATE_ALTERNATIVE_SYSDATE:
         // use the time the step execution begins as the date from (passed in as dateFrom).
         // before, the current system time was used. this caused an exclusion of the row in the
         // lookup portion of the step that uses this 'valueDate' and not the current time.
         // the result was multiple inserts for what should have been 1 [PDI-4317]
-        insertRow[ insertIndex++ ] = dateFrom;
+        data.insertDateFrom = dateFrom;
         break;
       case DimensionLookupMeta.START_DATE_ALTERNATIVE_START_OF_TRANS:
-        insertRow[ insertIndex++ ] = getTrans().getStartDate();
+        data.insertDateFrom = getTrans().getStartDate();
         break;
       case DimensionLookupMeta.START_DATE_ALTERNATIVE_NULL:
-        insertRow[ insertIndex++ ] = null;
+        data.insertDateFrom = null;
         break;
       case DimensionLookupMeta.START_DATE_ALTERNATIVE_COLUMN_VALUE:
-        insertRow[ insertIndex++ ] = inputRowMeta.getDate( row, data.startDateFieldIndex );
+        data.insertDateFrom = inputRowMeta.getDate( row, data.startDateFieldIndex );
         break;
       default:
         throw new KettleStepException( BaseMessages.getString(
           PKG, "DimensionLookup.Exception.IllegalStartDateSelection", Integer.toString( data.startDateChoice ) ) );
     }
+    insertRow[ insertIndex++ ] = data.insertDateFrom;
 
     insertRow[ insertIndex++ ] = dateTo;
 
@@ -1193,24 +1424,25 @@ public class DimensionLookup extends BaseDatabaseStep implements StepInterface {
 
       switch ( data.startDateChoice ) {
         case DimensionLookupMeta.START_DATE_ALTERNATIVE_NONE:
-          updateRow[ updateIndex++ ] = dateFrom;
+          data.updateDateTo = dateFrom;
           break;
         case DimensionLookupMeta.START_DATE_ALTERNATIVE_SYSDATE:
-          updateRow[ updateIndex++ ] = new Date();
+          data.updateDateTo = new Date();
           break;
         case DimensionLookupMeta.START_DATE_ALTERNATIVE_START_OF_TRANS:
-          updateRow[ updateIndex++ ] = getTrans().getCurrentDate();
+          data.updateDateTo = getTrans().getCurrentDate();
           break;
         case DimensionLookupMeta.START_DATE_ALTERNATIVE_NULL:
-          updateRow[ updateIndex++ ] = null;
+          data.updateDateTo = null;
           break;
         case DimensionLookupMeta.START_DATE_ALTERNATIVE_COLUMN_VALUE:
-          updateRow[ updateIndex++ ] = inputRowMeta.getDate( row, data.startDateFieldIndex );
+          data.updateDateTo = inputRowMeta.getDate( row, data.startDateFieldIndex );
           break;
         default:
           throw new KettleStepException( BaseMessages.getString(
             "DimensionLookup.Exception.IllegalStartDateSelection", Integer.toString( data.startDateChoice ) ) );
       }
+      updateRow[ updateIndex++ ] = data.updateDateTo;
 
       // The special update fields...
       //
@@ -1713,6 +1945,15 @@ public class DimensionLookup extends BaseDatabaseStep implements StepInterface {
   public void dispose( StepMetaInterface smi, StepDataInterface sdi ) {
     meta = (DimensionLookupMeta) smi;
     data = (DimensionLookupData) sdi;
+    if ( data.versionCacheLoader != null ) {
+      data.versionCacheLoader.interrupt();
+      try {
+        data.versionCacheLoader.join();
+      } catch ( InterruptedException e ) {
+        Thread.currentThread().interrupt();
+      }
+      data.versionCacheLoader = null;
+    }
     if ( data.db != null ) {
       try {
         if ( !data.db.isAutoCommit() ) {
@@ -84,6 +84,16 @@ public class DimensionLookupData extends BaseDatabaseStepData implements StepDat
 
   public List<Integer> lazyList;
 
+  public DimensionVersionCache versionCache;
+  public RowMetaInterface versionCacheRowMeta;
+  public Thread versionCacheLoader;
+
+  /**
+   * The start date of the last version inserted and the end date set on the version it replaces
+   */
+  public Date insertDateFrom;
+  public Date updateDateTo;
+
   /**
    * The input row metadata, but converted to normal storage type
    */
@@ -226,6 +226,10 @@ public class DimensionLookupMeta extends BaseDatabaseStepMeta implements StepMet
   @Injection( name = "PRELOAD_CACHE" )
   private boolean preloadingCache;
 
+  /** Share a cache of all versions of the dimension entries between the step copies */
+  @Injection( name = "VERSION_CACHE" )
+  private boolean versionCache;
+
   public DimensionLookupMeta() {
     super(); // allocate BaseStepMeta
   }
@@ -730,6 +734,7 @@ public class DimensionLookupMeta extends BaseDatabaseStepMeta implements StepMet
 
     cacheSize = 5000;
     preloadingCache = false;
+    versionCache = false;
   }
 
   @Override
@@ -869,6 +874,7 @@ public class DimensionLookupMeta extends BaseDatabaseStepMeta implements StepMet
 
     retval.append( "      " ).append( XMLHandler.addTagValue( "cache_size", cacheSize ) );
     retval.append( "      " ).append( XMLHandler.addTagValue( "preload_cache", preloadingCache ) );
+    retval.append( "      " ).append( XMLHandler.addTagValue( "version_cache", versionCache ) );
 
     retval.append( "      " ).append( XMLHandler.addTagValue( "use_start_date_alternative",
         usingStartDateAlternative ) );
@@ -948,6 +954,7 @@ public class DimensionLookupMeta extends BaseDatabaseStepMeta implements StepMet
 
       cacheSize = Const.toInt( XMLHandler.getTagValue( stepnode, "cache_size" ), -1 );
       preloadingCache = "Y".equalsIgnoreCase( XMLHandler.getTagValue( stepnode, "preload_cache" ) );
+      versionCache = "Y".equalsIgnoreCase( XMLHandler.getTagValue( stepnode, "version_cache" ) );
       useBatchUpdate = "Y".equalsIgnoreCase( XMLHandler.getTagValue( stepnode, "useBatch" ) );
 
       usingStartDateAlternative =
@@ -1008,6 +1015,7 @@ public class DimensionLookupMeta extends BaseDatabaseStepMeta implements StepMet
 
       cacheSize = (int) rep.getStepAttributeInteger( id_step, "cache_size" );
       preloadingCache = rep.getStepAttributeBoolean( id_step, "preload_cache" );
+      versionCache = rep.getStepAttributeBoolean( id_step, "version_cache" );
       useBatchUpdate = rep.getStepAttributeBoolean( id_step, "useBatch" );
 
       usingStartDateAlternative = rep.getStepAttributeBoolean( id_step, "use_start_date_alternative" );
@@ -1063,6 +1071,7 @@ public class DimensionLookupMeta extends BaseDatabaseStepMeta implements StepMet
 
       rep.saveStepAttribute( id_transformation, id_step, "cache_size", cacheSize );
       rep.saveStepAttribute( id_transformation, id_step, "preload_cache", preloadingCache );
+      rep.saveStepAttribute( id_transformation, id_step, "version_cache", versionCache );
       rep.saveStepAttribute( id_transformation, id_step, "useBatch", useBatchUpdate );
 
       rep.saveStepAttribute( id_transformation, id_step, "use_start_date_alternative", usingStartDateAlternative );
@@ -1882,6 +1891,21 @@ public class DimensionLookupMeta extends BaseDatabaseStepMeta implements StepMet
     this.preloadingCache = preloadingCache;
   }
 
+  /**
+   * @return true if the step copies share a cache of all versions of the dimension entries
+   */
+  public boolean isVersionCache() {
+    return versionCache;
+  }
+
+  /**
+   * @param versionCache
+   *          true to share a cache of all versions of the dimension entries between the step copies
+   */
+  public void setVersionCache( boolean versionCache ) {
+    this.versionCache = versionCache;
+  }
+
   /**
    * @return the useBatchUpdate
    */
@@ -0,0 +1,346 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.di.trans.steps.dimensionlookup;
+
+import java.util.Arrays;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.pentaho.di.core.row.RowMetaInterface;
+import org.pentaho.di.trans.Trans;
+
+/**
+ * Cache of all versions of the dimension entries (slowly changing dimension type 2), shared by the copies of a
+ * Dimension lookup/update step. The versions of a natural key are kept sorted on their start date so the version that
+ * is valid on a date is found with a binary search. Lookups don't lock, changes replace the versions of a key
+ * atomically.<br>
+ * <br>
+ * Versions inserted or updated by the step are changed in the cache as well, a new version closes the version it
+ * replaces. The whole dimension can be loaded in the background while rows are processed: until it's loaded, a key
+ * that isn't in the cache is looked up in the database. Once it's loaded, a key that isn't in the cache isn't in the
+ * dimension either.<br>
+ * <br>
+ * The cached values have the layout of the dimension lookup: technical key, version, the lookup fields, date from and
+ * date to. The natural keys are serialized with the metadata of the input fields.
+ *
+ * @since 11.1
+ */
+public class DimensionVersionCache {
+  private static final String EXTENSION_DATA_KEY = "DimensionLookup.VersionCache.";
+
+  /**
+   * A serialized natural key.
+   */
+  private static final class Key {
+    private final byte[] bytes;
+    private final int hash;
+
+    private Key( byte[] bytes ) {
+      this.bytes = bytes;
+      this.hash = Arrays.hashCode( bytes );
+    }
+
+    @Override
+    public boolean equals( Object obj ) {
+      return obj instanceof Key && Arrays.equals( bytes, ( (Key) obj ).bytes );
+    }
+
+    @Override
+    public int hashCode() {
+      return hash;
+    }
+  }
+
+  /**
+   * A version of a dimension entry, never changed once it's in the cache.
+   */
+  private static final class Version {
+    private final long technicalKey;
+    private final long from;
+    private final long to;
+    private final Object[] values;
+
+    private Version( Object[] values ) {
+      this.values = values;
+      this.technicalKey = values[0] == null ? Long.MIN_VALUE : ( (Number) values[0] ).longValue();
+      Date dateFrom = (Date) values[values.length - 2];
+      Date dateTo = (Date) values[values.length - 1];
+      // No start date means valid from the beginning, no end date means never valid (like the database lookup)
+      this.from = dateFrom == null ? Long.MIN_VALUE : dateFrom.getTime();
+      this.to = dateTo == null ? Long.MIN_VALUE : dateTo.getTime();
+    }
+  }
+
+  private final int maxKeys;
+  private final ConcurrentHashMap<Key, Version[]> versions = new ConcurrentHashMap<>();
+  private final ReentrantLock evictionLock = new ReentrantLock();
+  private final AtomicBoolean loading = new AtomicBoolean();
+
+  private volatile RowMetaInterface valueRowMeta;
+  private volatile boolean loaded;
+  // Set for good once keys were dropped, guarded by the eviction lock
+  private boolean evicted;
+
+  /**
+   * @param maxKeys
+   *          the maximum number of natural keys to keep, 0 for no limit
+   */
+  public DimensionVersionCache( int maxKeys ) {
+    this.maxKeys = maxKeys;
+  }
+
+  /**
+   * Get the cache shared by the copies of a step in a transformation.
+   *
+   * @param trans
+   *          the transformation the step runs in
+   * @param stepname
+   *          the name of the step
+   * @param maxKeys
+   *          the maximum number of natural keys to keep, 0 for no limit
+   * @return the shared cache
+   */
+  public static DimensionVersionCache getInstance( Trans trans, String stepname, int maxKeys ) {
+    synchronized ( trans ) {
+      String key = EXTENSION_DATA_KEY + stepname;
+      DimensionVersionCache cache = (DimensionVersionCache) trans.getExtensionDataMap().get( key );
+      if ( cache == null ) {
+        cache = new DimensionVersionCache( maxKeys );
+        trans.getExtensionDataMap().put( key, cache );
+      }
+      return cache;
+    }
+  }
+
+  /**
+   * @param key
+   *          the serialized natural key
+   * @param date
+   *          the date the version has to be valid on
+   * @return the values of the version valid on the date or null if it's not in the cache
+   */
+  public Object[] lookup( byte[] key, Date date ) {
+    Version[] keyVersions = versions.get( new Key( key ) );
+    if ( keyVersions == null ) {
+      return null;
+    }
+    long time = date.getTime();
+    // The last version that starts on or before the date
+    int low = 0;
+    int high = keyVersions.length - 1;
+    int found = -1;
+    while ( low <= high ) {
+      int middle = ( low + high ) >>> 1;
+      if ( keyVersions[middle].from <= time ) {
+        found = middle;
+        low = middle + 1;
+      } else {
+        high = middle - 1;
+      }
+    }
+    // Versions without a start date all start at the beginning, the closed ones never match
+    for ( int i = found; i >= 0 && keyVersions[i].from == keyVersions[found].from; i-- ) {
+      if ( time < keyVersions[i].to ) {
+        return keyVersions[i].values;
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Store a version looked up in the database or updated by the step, replacing the version with the same technical
+   * key if any.
+   *
+   * @param key
+   *          the serialized natural key
+   * @param values
+   *          the values of the version
+   */
+  public void put( byte[] key, Object[] values ) {
+    Version version = new Version( values );
+    versions.compute( new Key( key ), ( k, keyVersions ) -> replace( keyVersions, version, null, true ) );
+    evictIfNeeded();
+  }
+
+  /**
+   * Store a new version inserted by the step and close the version it replaces.
+   *
+   * @param key
+   *          the serialized natural key
+   * @param values
+   *          the values of the new version
+   * @param previousValues
+   *          the values of the version that is replaced, with its new end date, or null if this is the first version
+   */
+  public void insertVersion( byte[] key, Object[] values, Object[] previousValues ) {
+    Version version = new Version( values );
+    Version previous = previousValues == null ? null : new Version( previousValues );
+    versions.compute( new Key( key ), ( k, keyVersions ) -> replace( keyVersions, version, previous, true ) );
+    evictIfNeeded();
+  }
+
+  /**
+   * Store a version read while loading the whole dimension. A version with the same technical key that is in the
+   * cache already was changed by the step and is kept.
+   *
+   * @param key
+   *          the serialized natural key
+   * @param values
+   *          the values of the version
+   */
+  public void load( byte[] key, Object[] values ) {
+    Version version = new Version( values );
+    versions.compute( new Key( key ), ( k, keyVersions ) -> replace( keyVersions, version, null, false ) );
+    evictIfNeeded();
+  }
+
+  /**
+   * Change some values of all versions of a key, for the fields that are punched through.
+   *
+   * @param key
+   *          the serialized natural key
+   * @param indexes
+   *          the indexes of the values to change
+   * @param newValues
+   *          the new values, at the same indexes
+   */
+  public void updateAllVersions( byte[] key, int[] indexes, Object[] newValues ) {
+    versions.computeIfPresent( new Key( key ), ( k, keyVersions ) -> {
+      Version[] updated = new Version[keyVersions.length];
+      for ( int i = 0; i < keyVersions.length; i++ ) {
+        Object[] values = keyVersions[i].values.clone();
+        for ( int index : indexes ) {
+          values[index] = newValues[index];
+        }
+        updated[i] = new Version( values );
+      }
+      return updated;
+    } );
+  }
+
+  private static Version[] replace( Version[] keyVersions, Version version, Version previous, boolean overwrite ) {
+    if ( keyVersions == null ) {
+      return previous == null ? new Version[] { version } : sort( new Version[] { previous, version } );
+    }
+    Version[] updated = Arrays.copyOf( keyVersions, keyVersions.length + 2 );
+    int size = keyVersions.length;
+    size = set( updated, size, version, overwrite );
+    if ( size < 0 ) {
+      return keyVersions;
+    }
+    if ( previous != null ) {
+      size = set( updated, size, previous, true );
+    }
+    return sort( Arrays.copyOf( updated, size ) );
+  }
+
+  /**
+   * @return the new number of versions or -1 if the version is in the array already and isn't overwritten
+   */
+  private static int set( Version[] keyVersions, int size, Version version, boolean overwrite ) {
+    for ( int i = 0; i < size; i++ ) {
+      if ( keyVersions[i].technicalKey == version.technicalKey ) {
+        if ( !overwrite ) {
+          return -1;
+        }
+        keyVersions[i] = version;
+        return size;
+      }
+    }
+    keyVersions[size] = version;
+    return size + 1;
+  }
+
+  private static Version[] sort( Version[] keyVersions ) {
+    Arrays.sort( keyVersions, ( one, two ) -> Long.compare( one.from, two.from ) );
+    return keyVersions;
+  }
+
+  /**
+   * Drop about a fifth of the keys once there are more than the maximum number. The cache doesn't hold the whole
+   * dimension anymore afterwards, even if the number of keys drops below the maximum again.
+   */
+  private void evictIfNeeded() {
+    if ( maxKeys <= 0 || versions.size() <= maxKeys + maxKeys / 10 || !evictionLock.tryLock() ) {
+      return;
+    }
+    try {
+      evicted = true;
+      loaded = false;
+      int toRemove = versions.size() - maxKeys + maxKeys / 5;
+      Iterator<Key> keys = versions.keySet().iterator();
+      while ( toRemove-- > 0 && keys.hasNext() ) {
+        keys.next();
+        keys.remove();
+      }
+    } finally {
+      evictionLock.unlock();
+    }
+  }
+
+  /**
+   * @return true for the one caller that gets to load the whole dimension
+   */
+  public boolean startLoading() {
+    return loading.compareAndSet( false, true );
+  }
+
+  /**
+   * @return true if the whole dimension is in the cache
+   */
+  public boolean isLoaded() {
+    return loaded;
+  }
+
+  /**
+   * Flag that the whole dimension is in the cache, unless keys were dropped while loading or before.
+   */
+  public void setLoaded() {
+    evictionLock.lock();
+    try {
+      if ( !evicted ) {
+        loaded = true;
+      }
+    } finally {
+      evictionLock.unlock();
+    }
+  }
+
+  /**
+   * @return the metadata of the cached values or null if nothing was stored yet
+   */
+  public RowMetaInterface getValueRowMeta() {
+    return valueRowMeta;
+  }
+
+  /**
+   * @param valueRowMeta
+   *          the metadata of the cached values, only the first one set is kept
+   */
+  public synchronized void setValueRowMeta( RowMetaInterface valueRowMeta ) {
+    if ( this.valueRowMeta == null ) {
+      this.valueRowMeta = valueRowMeta;
+    }
+  }
+
+  /**
+   * @return the number of natural keys in the cache
+   */
+  public int getSize() {
+    return versions.size();
+  }
+}
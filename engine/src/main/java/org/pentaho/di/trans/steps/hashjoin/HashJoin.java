@@ -0,0 +1,353 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.di.trans.steps.hashjoin;
+
+import java.io.File;
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.Map;
+
+import org.pentaho.di.core.Const;
+import org.pentaho.di.core.RowSet;
+import org.pentaho.di.core.exception.KettleException;
+import org.pentaho.di.core.exception.KettleStepException;
+import org.pentaho.di.core.row.RowDataUtil;
+import org.pentaho.di.core.row.RowMeta;
+import org.pentaho.di.core.row.RowMetaInterface;
+import org.pentaho.di.core.row.ValueMetaInterface;
+import org.pentaho.di.core.util.Utils;
+import org.pentaho.di.i18n.BaseMessages;
+import org.pentaho.di.trans.Trans;
+import org.pentaho.di.trans.TransMeta;
+import org.pentaho.di.trans.step.BaseStep;
+import org.pentaho.di.trans.step.StepDataInterface;
+import org.pentaho.di.trans.step.StepInterface;
+import org.pentaho.di.trans.step.StepMeta;
+import org.pentaho.di.trans.step.StepMetaInterface;
+
+/**
+ * Joins the rows of the main input with the rows of the build step using a hash table on the keys of the build rows.
+ * All copies of the step share the table: the build rows are added by the copies that receive them, the probe rows
+ * can be distributed over all copies. Build rows that don't fit in the memory limit are joined partition by partition
+ * once all probe rows are read, see {@link HashJoinTable}.
+ *
+ * @since 11.1
+ */
+public class HashJoin extends BaseStep implements StepInterface {
+  private static Class<?> PKG = HashJoinMeta.class; // for i18n purposes, needed by Translator2!!
+
+  private HashJoinMeta meta;
+  private HashJoinData data;
+
+  public HashJoin( StepMeta stepMeta, StepDataInterface stepDataInterface, int copyNr, TransMeta transMeta,
+    Trans trans ) {
+    super( stepMeta, stepDataInterface, copyNr, transMeta, trans );
+  }
+
+  public boolean processRow( StepMetaInterface smi, StepDataInterface sdi ) throws KettleException {
+    meta = (HashJoinMeta) smi;
+    data = (HashJoinData) sdi;
+
+    if ( first ) {
+      first = false;
+      if ( !buildTable() ) {
+        setOutputDone();
+        return false;
+      }
+    }
+
+    Object[] r = getRow(); // get row from the main input
+    if ( r == null ) { // no more input to be expected...
+      finishPartitions();
+      setOutputDone();
+      return false;
+    }
+
+    if ( data.probeRowMeta == null ) {
+      initProbe( getInputRowMeta() );
+    }
+
+    byte[] key = getKey( data.probeRowMeta, data.keyNrs, r );
+    if ( key == null ) {
+      // There are no build rows at all
+      if ( data.probeOptional ) {
+        putRow( data.outputRowMeta, joinRows( r, null ) );
+      }
+    } else {
+      int partition = HashJoinTable.getPartition( key );
+      if ( data.table.isSpilled( partition ) ) {
+        data.table.spillProbeRow( partition, key, RowMeta.extractData( data.probeRowMeta, r ) );
+      } else {
+        probe( r, data.table.get( partition, key ) );
+      }
+    }
+
+    if ( checkFeedback( getLinesRead() ) ) {
+      if ( log.isBasic() ) {
+        logBasic( BaseMessages.getString( PKG, "HashJoin.LineNumber" ) + getLinesRead() );
+      }
+    }
+
+    return true;
+  }
+
+  /**
+   * Add the rows of the build step to the shared table and wait for the other copies to do the same.
+   *
+   * @return false if the step was stopped while waiting
+   */
+  private boolean buildTable() throws KettleException {
+    if ( log.isDetailed() ) {
+      logDetailed( BaseMessages.getString( PKG, "HashJoin.Log.ReadingBuildStep", data.infoStream.getStepname() ) );
+    }
+
+    // Every build row is only added once: if the build step copies its rows to all step copies instead of
+    // distributing them, the first copy adds them and the others skip theirs.
+    //
+    boolean adding = getCopy() == 0 || data.infoStream.getStepMeta().isDistributes();
+
+    RowSet rowSet = findInputRowSet( data.infoStream.getStepname() );
+    if ( rowSet == null ) {
+      throw new KettleStepException( BaseMessages.getString(
+        PKG, "HashJoin.Exception.UnableToFindSpecifiedStep", data.infoStream.getStepname() ) );
+    }
+
+    RowMetaInterface buildRowMeta = null;
+    RowMetaInterface keyRowMeta = null;
+    Object[] row = getRowFrom( rowSet );
+    while ( row != null ) {
+      if ( adding ) {
+        if ( buildRowMeta == null ) {
+          buildRowMeta = rowSet.getRowMeta().clone();
+          data.buildKeyNrs = getKeyNrs( buildRowMeta, meta.getBuildKeyFields() );
+          keyRowMeta = new RowMeta();
+          for ( int keyNr : data.buildKeyNrs ) {
+            // Keys are stored as normal types, not binary
+            ValueMetaInterface keyMeta = buildRowMeta.getValueMeta( keyNr ).clone();
+            keyMeta.setStorageType( ValueMetaInterface.STORAGE_TYPE_NORMAL );
+            keyRowMeta.addValueMeta( keyMeta );
+          }
+          data.keyRowMeta = keyRowMeta;
+        }
+        data.table.add( getKey( buildRowMeta, data.buildKeyNrs, row ), RowMeta.extractData( buildRowMeta, row ) );
+      }
+      row = getRowFrom( rowSet );
+    }
+
+    data.table.built( buildRowMeta, keyRowMeta );
+    try {
+      if ( !data.table.waitUntilBuilt( this ) ) {
+        return false;
+      }
+    } catch ( InterruptedException e ) {
+      throw new KettleStepException( BaseMessages.getString( PKG, "HashJoin.Exception.InterruptedWaitingForTable" ),
+        e );
+    }
+
+    data.buildRowMeta = data.table.getBuildRowMeta();
+    data.keyRowMeta = data.table.getKeyRowMeta();
+    if ( data.buildRowMeta == null ) {
+      // No build rows at all, the outer joins still need the layout
+      data.buildRowMeta = getTransMeta().getStepFields( data.infoStream.getStepMeta() );
+    }
+
+    if ( getCopy() == 0 && data.table.getSpilledPartitions() > 0 && log.isDetailed() ) {
+      logDetailed( BaseMessages.getString( PKG, "HashJoin.Log.PartitionsSpilled",
+        String.valueOf( data.table.getSpilledPartitions() ), String.valueOf( HashJoinTable.NR_PARTITIONS ) ) );
+    }
+    return true;
+  }
+
+  private void initProbe( RowMetaInterface probeRowMeta ) throws KettleException {
+    data.probeRowMeta = probeRowMeta.clone();
+    data.table.setProbeRowMeta( data.probeRowMeta );
+    data.keyNrs = getKeyNrs( data.probeRowMeta, meta.getKeyFields() );
+
+    if ( data.keyRowMeta != null ) {
+      for ( int i = 0; i < data.keyNrs.length; i++ ) {
+        if ( data.probeRowMeta.getValueMeta( data.keyNrs[i] ).getType()
+          != data.keyRowMeta.getValueMeta( i ).getType() ) {
+          throw new KettleStepException( BaseMessages.getString( PKG, "HashJoin.Exception.InvalidKeyLayoutDetected" ) );
+        }
+      }
+    }
+
+    data.outputRowMeta = data.probeRowMeta.clone();
+    meta.getFields( getTransMeta().getBowl(), data.outputRowMeta, getStepname(),
+      new RowMetaInterface[] { data.buildRowMeta }, null, this, repository, metaStore );
+  }
+
+  private int[] getKeyNrs( RowMetaInterface rowMeta, String[] keyFields ) throws KettleStepException {
+    int[] keyNrs = new int[keyFields.length];
+    for ( int i = 0; i < keyFields.length; i++ ) {
+      keyNrs[i] = rowMeta.indexOfValue( keyFields[i] );
+      if ( keyNrs[i] < 0 ) {
+        throw new KettleStepException( BaseMessages.getString(
+          PKG, "HashJoin.Exception.UnableToFindField", keyFields[i] ) );
+      }
+    }
+    return keyNrs;
+  }
+
+  /**
+   * @return the serialized key of the row or null if there are no build rows to compare it with
+   */
+  private byte[] getKey( RowMetaInterface rowMeta, int[] keyNrs, Object[] row ) throws KettleException {
+    if ( data.keyRowMeta == null ) {
+      return null;
+    }
+    Object[] key = new Object[keyNrs.length];
+    for ( int i = 0; i < keyNrs.length; i++ ) {
+      key[i] = rowMeta.getValueMeta( keyNrs[i] ).convertToNormalStorageType( row[keyNrs[i]] );
+    }
+    return RowMeta.extractData( data.keyRowMeta, key );
+  }
+
+  /**
+   * Join a probe row with all build rows with the same key.
+   */
+  private void probe( Object[] probeRow, HashJoinTable.Entry entry ) throws KettleException {
+    if ( entry == null ) {
+      if ( data.probeOptional ) {
+        putRow( data.outputRowMeta, joinRows( probeRow, null ) );
+      }
+      return;
+    }
+    for ( ; entry != null; entry = entry.getNext() ) {
+      entry.setMatched();
+      putRow( data.outputRowMeta, joinRows( probeRow, RowMeta.getRow( data.buildRowMeta, entry.getRow() ) ) );
+    }
+  }
+
+  /**
+   * @return a new output row, with null values for a missing side
+   */
+  private Object[] joinRows( Object[] probeRow, Object[] buildRow ) {
+    Object[] outputRow = RowDataUtil.allocateRowData( data.outputRowMeta.size() );
+    int probeSize = data.probeRowMeta.size();
+    if ( probeRow != null ) {
+      System.arraycopy( probeRow, 0, outputRow, 0, probeSize );
+    }
+    if ( buildRow != null ) {
+      System.arraycopy( buildRow, 0, outputRow, probeSize, data.buildRowMeta.size() );
+    }
+    return outputRow;
+  }
+
+  /**
+   * Once all copies read their probe rows, join the partitions that were written to disk and send the build rows that
+   * were never joined for the outer joins. Every copy takes care of its own share of the partitions.
+   */
+  private void finishPartitions() throws KettleException {
+    data.table.probed();
+    try {
+      if ( !data.table.waitUntilProbed( this ) ) {
+        return;
+      }
+    } catch ( InterruptedException e ) {
+      throw new KettleStepException( BaseMessages.getString( PKG, "HashJoin.Exception.InterruptedWaitingForTable" ),
+        e );
+    }
+
+    for ( int partition = getCopy(); partition < HashJoinTable.NR_PARTITIONS && !isStopped(); partition +=
+      data.copies ) {
+      if ( !data.table.isSpilled( partition ) && !data.buildOptional ) {
+        data.table.release( partition );
+        continue;
+      }
+
+      if ( data.probeRowMeta == null ) {
+        initProbe( getProbeRowMeta() );
+      }
+      Map<ByteBuffer, HashJoinTable.Entry> entries = data.table.getEntries( partition );
+      if ( data.table.isSpilled( partition ) ) {
+        if ( log.isDetailed() ) {
+          logDetailed( BaseMessages.getString( PKG, "HashJoin.Log.JoiningPartition", String.valueOf( partition ) ) );
+        }
+        RowMetaInterface spilledRowMeta = data.table.getProbeRowMeta();
+        data.table.readProbeRows( partition, ( key, row ) ->
+          probe( RowMeta.getRow( spilledRowMeta, row ), entries.get( ByteBuffer.wrap( key ) ) ) );
+      }
+
+      if ( data.buildOptional ) {
+        for ( HashJoinTable.Entry head : entries.values() ) {
+          for ( HashJoinTable.Entry entry = head; entry != null; entry = entry.getNext() ) {
+            if ( !entry.isMatched() ) {
+              putRow( data.outputRowMeta, joinRows( null, RowMeta.getRow( data.buildRowMeta, entry.getRow() ) ) );
+            }
+          }
+        }
+      }
+      data.table.release( partition );
+    }
+  }
+
+  /**
+   * @return the layout of the probe rows when this copy didn't get any
+   */
+  private RowMetaInterface getProbeRowMeta() throws KettleStepException {
+    RowMetaInterface probeRowMeta = data.table.getProbeRowMeta();
+    if ( probeRowMeta != null ) {
+      return probeRowMeta;
+    }
+    List<StepMeta> previousSteps = getTransMeta().findPreviousSteps( getStepMeta(), false );
+    return getTransMeta().getStepFields( previousSteps.toArray( new StepMeta[0] ) );
+  }
+
+  public boolean init( StepMetaInterface smi, StepDataInterface sdi ) {
+    meta = (HashJoinMeta) smi;
+    data = (HashJoinData) sdi;
+
+    if ( !super.init( smi, sdi ) ) {
+      return false;
+    }
+
+    data.infoStream = meta.getStepIOMeta().getInfoStreams().get( 0 );
+    if ( data.infoStream.getStepMeta() == null ) {
+      logError( BaseMessages.getString( PKG, "HashJoin.Log.NoBuildStepSpecified" ) );
+      return false;
+    }
+    if ( meta.getKeyFields().length == 0 || meta.getKeyFields().length != meta.getBuildKeyFields().length ) {
+      logError( BaseMessages.getString( PKG, "HashJoin.Log.KeysDontMatch" ) );
+      return false;
+    }
+    int joinType = meta.getJoinTypeIndex();
+    if ( joinType < 0 ) {
+      logError( BaseMessages.getString( PKG, "HashJoin.Log.InvalidJoinType", meta.getJoinType() ) );
+      return false;
+    }
+    data.probeOptional = HashJoinMeta.probe_optionals[joinType];
+    data.buildOptional = HashJoinMeta.build_optionals[joinType];
+
+    data.copies = getStepMeta().getCopies();
+    long memoryLimit = Const.toLong( environmentSubstitute( meta.getMemoryLimit() ), 0L ) * 1024 * 1024;
+    String spillDirectory = environmentSubstitute( meta.getSpillDirectory() );
+    data.table = HashJoinTable.getInstance( getTrans(), getStepname(), data.copies, memoryLimit,
+      Utils.isEmpty( spillDirectory ) ? null : new File( spillDirectory ) );
+    return true;
+  }
+
+  public void dispose( StepMetaInterface smi, StepDataInterface sdi ) {
+    data = (HashJoinData) sdi;
+
+    // Deletes the spill files of our partitions if the step stopped early
+    if ( data.table != null ) {
+      for ( int partition = getCopy(); partition < HashJoinTable.NR_PARTITIONS; partition += data.copies ) {
+        data.table.release( partition );
+      }
+      data.table = null;
+    }
+    super.dispose( smi, sdi );
+  }
+}
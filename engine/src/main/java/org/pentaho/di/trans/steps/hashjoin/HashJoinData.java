@@ -0,0 +1,43 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.di.trans.steps.hashjoin;
+
+import org.pentaho.di.core.row.RowMetaInterface;
+import org.pentaho.di.trans.step.BaseStepData;
+import org.pentaho.di.trans.step.StepDataInterface;
+import org.pentaho.di.trans.step.errorhandling.StreamInterface;
+
+/**
+ * @since 11.1
+ */
+public class HashJoinData extends BaseStepData implements StepDataInterface {
+  public HashJoinTable table;
+  public StreamInterface infoStream;
+  public int copies;
+
+  public boolean probeOptional;
+  public boolean buildOptional;
+
+  public RowMetaInterface probeRowMeta;
+  public RowMetaInterface buildRowMeta;
+  public RowMetaInterface keyRowMeta; // the keys of both sides, normal storage
+  public RowMetaInterface outputRowMeta; // just for speed: probeRowMeta+buildRowMeta
+
+  public int[] keyNrs;
+  public int[] buildKeyNrs;
+
+  public HashJoinData() {
+    super();
+  }
+}
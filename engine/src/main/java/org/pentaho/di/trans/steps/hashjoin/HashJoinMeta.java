@@ -0,0 +1,401 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.di.trans.steps.hashjoin;
+
+import java.util.List;
+
+import org.pentaho.di.core.CheckResult;
+import org.pentaho.di.core.CheckResultInterface;
+import org.pentaho.di.core.Const;
+import org.pentaho.di.core.bowl.Bowl;
+import org.pentaho.di.core.database.DatabaseMeta;
+import org.pentaho.di.core.exception.KettleException;
+import org.pentaho.di.core.exception.KettleStepException;
+import org.pentaho.di.core.exception.KettleXMLException;
+import org.pentaho.di.core.injection.Injection;
+import org.pentaho.di.core.injection.InjectionSupported;
+import org.pentaho.di.core.row.RowMetaInterface;
+import org.pentaho.di.core.row.ValueMetaInterface;
+import org.pentaho.di.core.util.Utils;
+import org.pentaho.di.core.variables.VariableSpace;
+import org.pentaho.di.core.xml.XMLHandler;
+import org.pentaho.di.i18n.BaseMessages;
+import org.pentaho.di.repository.ObjectId;
+import org.pentaho.di.repository.Repository;
+import org.pentaho.di.trans.Trans;
+import org.pentaho.di.trans.TransMeta;
+import org.pentaho.di.trans.TransMeta.TransformationType;
+import org.pentaho.di.trans.step.BaseStepMeta;
+import org.pentaho.di.trans.step.StepDataInterface;
+import org.pentaho.di.trans.step.StepIOMeta;
+import org.pentaho.di.trans.step.StepIOMetaInterface;
+import org.pentaho.di.trans.step.StepInterface;
+import org.pentaho.di.trans.step.StepMeta;
+import org.pentaho.di.trans.step.StepMetaInterface;
+import org.pentaho.di.trans.step.errorhandling.Stream;
+import org.pentaho.di.trans.step.errorhandling.StreamIcon;
+import org.pentaho.di.trans.step.errorhandling.StreamInterface;
+import org.pentaho.di.trans.step.errorhandling.StreamInterface.StreamType;
+import org.pentaho.metastore.api.IMetaStore;
+import org.w3c.dom.Node;
+
+/**
+ * Joins the rows of the main input (probe side) with the rows of an info step (build side) on equal keys. The rows of
+ * the build step are put in a hash table shared by all copies of the step, so the input doesn't have to be sorted and
+ * the probe rows can be distributed over several copies.
+ *
+ * @since 11.1
+ */
+@InjectionSupported( localizationPrefix = "HashJoin.Injection." )
+public class HashJoinMeta extends BaseStepMeta implements StepMetaInterface {
+  private static Class<?> PKG = HashJoinMeta.class; // for i18n purposes, needed by Translator2!!
+
+  public static final String[] join_types = { "INNER", "LEFT OUTER", "RIGHT OUTER", "FULL OUTER" };
+  /** Whether the rows of the probe side are kept without a matching build row, per join type */
+  public static final boolean[] probe_optionals = { false, true, false, true };
+  /** Whether the rows of the build side are kept without a matching probe row, per join type */
+  public static final boolean[] build_optionals = { false, false, true, true };
+
+  @Injection( name = "JOIN_TYPE" )
+  private String joinType;
+
+  /** The key fields of the main input */
+  @Injection( name = "KEY_FIELD" )
+  private String[] keyFields;
+
+  /** The key fields of the build step */
+  @Injection( name = "BUILD_KEY_FIELD" )
+  private String[] buildKeyFields;
+
+  /** The memory the build rows can use in MB before partitions are written to disk, 0 means no limit */
+  @Injection( name = "MEMORY_LIMIT" )
+  private String memoryLimit;
+
+  /** The directory the partitions are written to */
+  @Injection( name = "SPILL_DIRECTORY" )
+  private String spillDirectory;
+
+  public HashJoinMeta() {
+    super(); // allocate BaseStepMeta
+  }
+
+  /**
+   * The supported join types are INNER, LEFT OUTER, RIGHT OUTER and FULL OUTER, the main input is the left side.
+   *
+   * @return The type of join
+   */
+  public String getJoinType() {
+    return joinType;
+  }
+
+  /**
+   * @param joinType
+   *          The type of join, e.g. INNER/FULL OUTER
+   */
+  public void setJoinType( String joinType ) {
+    this.joinType = joinType;
+  }
+
+  /**
+   * @return Returns the key fields of the main input.
+   */
+  public String[] getKeyFields() {
+    return keyFields;
+  }
+
+  /**
+   * @param keyFields
+   *          The key fields of the main input to set.
+   */
+  public void setKeyFields( String[] keyFields ) {
+    this.keyFields = keyFields;
+  }
+
+  /**
+   * @return Returns the key fields of the build step.
+   */
+  public String[] getBuildKeyFields() {
+    return buildKeyFields;
+  }
+
+  /**
+   * @param buildKeyFields
+   *          The key fields of the build step to set.
+   */
+  public void setBuildKeyFields( String[] buildKeyFields ) {
+    this.buildKeyFields = buildKeyFields;
+  }
+
+  /**
+   * @return the memory the build rows can use in MB, 0 means no limit
+   */
+  public String getMemoryLimit() {
+    return memoryLimit;
+  }
+
+  /**
+   * @param memoryLimit
+   *          the memory the build rows can use in MB, 0 means no limit
+   */
+  public void setMemoryLimit( String memoryLimit ) {
+    this.memoryLimit = memoryLimit;
+  }
+
+  /**
+   * @return the directory the partitions are written to
+   */
+  public String getSpillDirectory() {
+    return spillDirectory;
+  }
+
+  /**
+   * @param spillDirectory
+   *          the directory the partitions are written to
+   */
+  public void setSpillDirectory( String spillDirectory ) {
+    this.spillDirectory = spillDirectory;
+  }
+
+  /**
+   * @return the index of the join type in join_types or -1 if it's not known
+   */
+  public int getJoinTypeIndex() {
+    for ( int i = 0; i < join_types.length; i++ ) {
+      if ( join_types[i].equalsIgnoreCase( joinType ) ) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  public boolean excludeFromRowLayoutVerification() {
+    return true;
+  }
+
+  public void loadXML( Node stepnode, List<DatabaseMeta> databases, IMetaStore metaStore ) throws KettleXMLException {
+    readData( stepnode );
+  }
+
+  public void allocate( int nrKeys, int nrBuildKeys ) {
+    keyFields = new String[nrKeys];
+    buildKeyFields = new String[nrBuildKeys];
+  }
+
+  public Object clone() {
+    HashJoinMeta retval = (HashJoinMeta) super.clone();
+    int nrKeys = keyFields.length;
+    int nrBuildKeys = buildKeyFields.length;
+    retval.allocate( nrKeys, nrBuildKeys );
+    System.arraycopy( keyFields, 0, retval.keyFields, 0, nrKeys );
+    System.arraycopy( buildKeyFields, 0, retval.buildKeyFields, 0, nrBuildKeys );
+
+    StepIOMetaInterface stepIOMeta = new StepIOMeta( true, true, false, false, false, false );
+    List<StreamInterface> infoStreams = getStepIOMeta().getInfoStreams();
+
+    for ( StreamInterface infoStream : infoStreams ) {
+      stepIOMeta.addStream( new Stream( infoStream ) );
+    }
+    retval.setStepIOMeta( stepIOMeta );
+
+    return retval;
+  }
+
+  public String getXML() {
+    StringBuilder retval = new StringBuilder();
+
+    StreamInterface infoStream = getStepIOMeta().getInfoStreams().get( 0 );
+
+    retval.append( "    " ).append( XMLHandler.addTagValue( "join_type", joinType ) );
+    retval.append( "    " ).append( XMLHandler.addTagValue( "build_step", infoStream.getStepname() ) );
+
+    retval.append( "    <keys>" ).append( Const.CR );
+    for ( int i = 0; i < keyFields.length; i++ ) {
+      retval.append( "      " ).append( XMLHandler.addTagValue( "key", keyFields[i] ) );
+    }
+    retval.append( "    </keys>" ).append( Const.CR );
+
+    retval.append( "    <build_keys>" ).append( Const.CR );
+    for ( int i = 0; i < buildKeyFields.length; i++ ) {
+      retval.append( "      " ).append( XMLHandler.addTagValue( "key", buildKeyFields[i] ) );
+    }
+    retval.append( "    </build_keys>" ).append( Const.CR );
+
+    retval.append( "    " ).append( XMLHandler.addTagValue( "memory_limit", memoryLimit ) );
+    retval.append( "    " ).append( XMLHandler.addTagValue( "spill_directory", spillDirectory ) );
+
+    return retval.toString();
+  }
+
+  private void readData( Node stepnode ) throws KettleXMLException {
+    try {
+      Node keysNode = XMLHandler.getSubNode( stepnode, "keys" );
+      Node buildKeysNode = XMLHandler.getSubNode( stepnode, "build_keys" );
+
+      int nrKeys = XMLHandler.countNodes( keysNode, "key" );
+      int nrBuildKeys = XMLHandler.countNodes( buildKeysNode, "key" );
+
+      allocate( nrKeys, nrBuildKeys );
+
+      for ( int i = 0; i < nrKeys; i++ ) {
+        Node keynode = XMLHandler.getSubNodeByNr( keysNode, "key", i );
+        keyFields[i] = XMLHandler.getNodeValue( keynode );
+      }
+
+      for ( int i = 0; i < nrBuildKeys; i++ ) {
+        Node keynode = XMLHandler.getSubNodeByNr( buildKeysNode, "key", i );
+        buildKeyFields[i] = XMLHandler.getNodeValue( keynode );
+      }
+
+      StreamInterface infoStream = getStepIOMeta().getInfoStreams().get( 0 );
+      infoStream.setSubject( XMLHandler.getTagValue( stepnode, "build_step" ) );
+      joinType = XMLHandler.getTagValue( stepnode, "join_type" );
+      memoryLimit = XMLHandler.getTagValue( stepnode, "memory_limit" );
+      spillDirectory = XMLHandler.getTagValue( stepnode, "spill_directory" );
+    } catch ( Exception e ) {
+      throw new KettleXMLException( BaseMessages.getString( PKG, "HashJoinMeta.Exception.UnableToLoadStepInfo" ), e );
+    }
+  }
+
+  public void setDefault() {
+    joinType = join_types[0];
+    memoryLimit = "0";
+    spillDirectory = "%%java.io.tmpdir%%";
+    allocate( 0, 0 );
+  }
+
+  public void readRep( Repository rep, IMetaStore metaStore, ObjectId id_step, List<DatabaseMeta> databases ) throws KettleException {
+    try {
+      int nrKeys = rep.countNrStepAttributes( id_step, "keys" );
+      int nrBuildKeys = rep.countNrStepAttributes( id_step, "build_keys" );
+
+      allocate( nrKeys, nrBuildKeys );
+
+      for ( int i = 0; i < nrKeys; i++ ) {
+        keyFields[i] = rep.getStepAttributeString( id_step, i, "keys" );
+      }
+      for ( int i = 0; i < nrBuildKeys; i++ ) {
+        buildKeyFields[i] = rep.getStepAttributeString( id_step, i, "build_keys" );
+      }
+
+      StreamInterface infoStream = getStepIOMeta().getInfoStreams().get( 0 );
+      infoStream.setSubject( rep.getStepAttributeString( id_step, "build_step" ) );
+      joinType = rep.getStepAttributeString( id_step, "join_type" );
+      memoryLimit = rep.getStepAttributeString( id_step, "memory_limit" );
+      spillDirectory = rep.getStepAttributeString( id_step, "spill_directory" );
+    } catch ( Exception e ) {
+      throw new KettleException( BaseMessages.getString(
+        PKG, "HashJoinMeta.Exception.UnexpectedErrorReadingStepInfo" ), e );
+    }
+  }
+
+  @Override
+  public void searchInfoAndTargetSteps( List<StepMeta> steps ) {
+    List<StreamInterface> infoStreams = getStepIOMeta().getInfoStreams();
+    for ( StreamInterface stream : infoStreams ) {
+      stream.setStepMeta( StepMeta.findStep( steps, (String) stream.getSubject() ) );
+    }
+  }
+
+  public void saveRep( Repository rep, IMetaStore metaStore, ObjectId id_transformation, ObjectId id_step ) throws KettleException {
+    try {
+      for ( int i = 0; i < keyFields.length; i++ ) {
+        rep.saveStepAttribute( id_transformation, id_step, i, "keys", keyFields[i] );
+      }
+      for ( int i = 0; i < buildKeyFields.length; i++ ) {
+        rep.saveStepAttribute( id_transformation, id_step, i, "build_keys", buildKeyFields[i] );
+      }
+
+      StreamInterface infoStream = getStepIOMeta().getInfoStreams().get( 0 );
+      rep.saveStepAttribute( id_transformation, id_step, "build_step", infoStream.getStepname() );
+      rep.saveStepAttribute( id_transformation, id_step, "join_type", joinType );
+      rep.saveStepAttribute( id_transformation, id_step, "memory_limit", memoryLimit );
+      rep.saveStepAttribute( id_transformation, id_step, "spill_directory", spillDirectory );
+    } catch ( Exception e ) {
+      throw new KettleException( BaseMessages.getString( PKG, "HashJoinMeta.Exception.UnableToSaveStepInfo" )
+        + id_step, e );
+    }
+  }
+
+  public void check( List<CheckResultInterface> remarks, TransMeta transMeta, StepMeta stepMeta,
+                     RowMetaInterface prev, String[] input, String[] output, RowMetaInterface info, VariableSpace space,
+                     Repository repository, IMetaStore metaStore ) {
+    CheckResult cr;
+    StreamInterface infoStream = getStepIOMeta().getInfoStreams().get( 0 );
+    if ( infoStream.getStepMeta() == null ) {
+      cr = new CheckResult( CheckResultInterface.TYPE_RESULT_ERROR, BaseMessages.getString(
+        PKG, "HashJoinMeta.CheckResult.NoBuildStep" ), stepMeta );
+    } else {
+      cr = new CheckResult( CheckResultInterface.TYPE_RESULT_OK, BaseMessages.getString(
+        PKG, "HashJoinMeta.CheckResult.BuildStep", infoStream.getStepname() ), stepMeta );
+    }
+    remarks.add( cr );
+
+    if ( keyFields.length == 0 || keyFields.length != buildKeyFields.length ) {
+      cr = new CheckResult( CheckResultInterface.TYPE_RESULT_ERROR, BaseMessages.getString(
+        PKG, "HashJoinMeta.CheckResult.KeysDontMatch" ), stepMeta );
+      remarks.add( cr );
+    }
+  }
+
+  @Override
+  public void getFields( Bowl bowl, RowMetaInterface r, String name, RowMetaInterface[] info, StepMeta nextStep,
+                         VariableSpace space, Repository repository, IMetaStore metaStore ) throws KettleStepException {
+    // The fields of the main input are in "r", the fields of the build step are added after them
+    //
+    if ( info != null && info.length > 0 && info[0] != null ) {
+      r.mergeRowMeta( info[0], name );
+    }
+
+    for ( int i = 0; i < r.size(); i++ ) {
+      ValueMetaInterface vmi = r.getValueMeta( i );
+      if ( vmi != null && Utils.isEmpty( vmi.getName() ) ) {
+        vmi.setOrigin( name );
+      }
+    }
+  }
+
+  public StepInterface getStep( StepMeta stepMeta, StepDataInterface stepDataInterface, int cnr, TransMeta tr,
+                                Trans trans ) {
+    return new HashJoin( stepMeta, stepDataInterface, cnr, tr, trans );
+  }
+
+  public StepDataInterface getStepData() {
+    return new HashJoinData();
+  }
+
+  /**
+   * Returns the Input/Output metadata for this step: the rows of the build step come in as info rows.
+   */
+  public StepIOMetaInterface getStepIOMeta() {
+    StepIOMetaInterface ioMeta = super.getStepIOMeta( false );
+    if ( ioMeta == null ) {
+
+      ioMeta = new StepIOMeta( true, true, false, false, false, false );
+
+      ioMeta.addStream( new Stream( StreamType.INFO, null, BaseMessages.getString(
+        PKG, "HashJoinMeta.InfoStream.BuildStream.Description" ), StreamIcon.INFO, null ) );
+      setStepIOMeta( ioMeta );
+    }
+
+    return ioMeta;
+  }
+
+  public void resetStepIoMeta() {
+    // Don't reset!
+  }
+
+  public TransformationType[] getSupportedTransformationTypes() {
+    return new TransformationType[]{ TransformationType.Normal, };
+  }
+}
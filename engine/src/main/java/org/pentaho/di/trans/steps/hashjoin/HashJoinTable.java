@@ -0,0 +1,550 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.di.trans.steps.hashjoin;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.pentaho.di.core.exception.KettleException;
+import org.pentaho.di.core.exception.KettleFileException;
+import org.pentaho.di.core.row.RowMetaInterface;
+import org.pentaho.di.trans.Trans;
+import org.pentaho.di.trans.step.StepInterface;
+
+/**
+ * The hash table of a Hash Join step, built once from the rows of the build step and shared by all copies of the step.
+ * The build rows are kept serialized, by serialized key, in a fixed number of partitions chosen by the hash of the
+ * key.<br>
+ * <br>
+ * When the build rows take more memory than allowed, the largest partition is written to a temporary file (grace hash
+ * join). The probe rows of a partition on disk are written to a second file instead of being joined right away. Once
+ * all copies have read all their probe rows, the partitions are divided over the copies: every copy reads the build
+ * rows of its spilled partitions back in memory, one partition at a time, and joins the probe rows of the partition
+ * with them. The copy that finishes a partition also hands out the build rows that were never matched, for the outer
+ * joins.
+ *
+ * @since 11.1
+ */
+public class HashJoinTable {
+  public static final int NR_PARTITIONS = 16;
+
+  private static final String EXTENSION_DATA_KEY = "HashJoin.Table.";
+  private static final long ENTRY_OVERHEAD = 64;
+  private static final int BUFFER_SIZE = 64 * 1024;
+
+  /**
+   * A build row. The rows of a key are chained.
+   */
+  public static final class Entry {
+    private final byte[] row;
+    private final Entry next;
+    private volatile boolean matched;
+
+    private Entry( byte[] row, Entry next ) {
+      this.row = row;
+      this.next = next;
+    }
+
+    /**
+     * @return the serialized build row
+     */
+    public byte[] getRow() {
+      return row;
+    }
+
+    /**
+     * @return the next build row with the same key or null if there is none
+     */
+    public Entry getNext() {
+      return next;
+    }
+
+    /**
+     * @return true if a probe row was joined with this build row
+     */
+    public boolean isMatched() {
+      return matched;
+    }
+
+    /**
+     * Flag that a probe row was joined with this build row.
+     */
+    public void setMatched() {
+      if ( !matched ) {
+        matched = true;
+      }
+    }
+  }
+
+  /**
+   * Handles the probe rows of a spilled partition when they're read back.
+   */
+  public interface ProbeRowHandler {
+    /**
+     * @param key
+     *          the serialized key
+     * @param row
+     *          the serialized probe row
+     * @throws KettleException
+     *           in case the row can't be joined
+     */
+    void handle( byte[] key, byte[] row ) throws KettleException;
+  }
+
+  private static final class Partition {
+    private Map<ByteBuffer, Entry> entries = new HashMap<>();
+    private long memory;
+    private File buildFile;
+    private DataOutputStream buildOut;
+    private File probeFile;
+    private DataOutputStream probeOut;
+  }
+
+  private final Partition[] partitions = new Partition[NR_PARTITIONS];
+  private final long memoryLimit;
+  private final File spillDirectory;
+
+  private long memoryUsed;
+  private int spilledPartitions;
+  private int building;
+  private int probing;
+
+  private RowMetaInterface buildRowMeta;
+  private RowMetaInterface keyRowMeta;
+  private RowMetaInterface probeRowMeta;
+
+  /**
+   * @param copies
+   *          the number of step copies that build and probe the table
+   * @param memoryLimit
+   *          the number of bytes the build rows may take before partitions are written to disk, 0 for no limit
+   * @param spillDirectory
+   *          the directory to write the partitions to, null for the default temporary directory
+   */
+  public HashJoinTable( int copies, long memoryLimit, File spillDirectory ) {
+    this.building = copies;
+    this.probing = copies;
+    this.memoryLimit = memoryLimit;
+    this.spillDirectory = spillDirectory;
+    for ( int i = 0; i < NR_PARTITIONS; i++ ) {
+      partitions[i] = new Partition();
+    }
+  }
+
+  /**
+   * Get the table shared by all copies of a step in a transformation.
+   *
+   * @param trans
+   *          the transformation the step runs in
+   * @param stepname
+   *          the name of the step
+   * @param copies
+   *          the number of copies of the step
+   * @param memoryLimit
+   *          the number of bytes the build rows may take before partitions are written to disk, 0 for no limit
+   * @param spillDirectory
+   *          the directory to write the partitions to, null for the default temporary directory
+   * @return the shared table
+   */
+  public static HashJoinTable getInstance( Trans trans, String stepname, int copies, long memoryLimit,
+                                           File spillDirectory ) {
+    synchronized ( trans ) {
+      String key = EXTENSION_DATA_KEY + stepname;
+      HashJoinTable table = (HashJoinTable) trans.getExtensionDataMap().get( key );
+      if ( table == null || table.isUsed() ) {
+        table = new HashJoinTable( copies, memoryLimit, spillDirectory );
+        trans.getExtensionDataMap().put( key, table );
+      }
+      return table;
+    }
+  }
+
+  /**
+   * @param key
+   *          the serialized key
+   * @return the partition the key belongs to
+   */
+  public static int getPartition( byte[] key ) {
+    int hash = Arrays.hashCode( key );
+    hash ^= hash >>> 16;
+    hash *= 0x85ebca6b;
+    hash ^= hash >>> 13;
+    return hash >>> 28;
+  }
+
+  /**
+   * Add a build row.
+   *
+   * @param key
+   *          the serialized key
+   * @param row
+   *          the serialized build row
+   * @throws KettleFileException
+   *           in case a partition can't be written to disk
+   */
+  public synchronized void add( byte[] key, byte[] row ) throws KettleFileException {
+    Partition partition = partitions[getPartition( key )];
+    try {
+      if ( partition.entries == null ) {
+        write( partition.buildOut, key, row );
+        return;
+      }
+      ByteBuffer wrapped = ByteBuffer.wrap( key );
+      partition.entries.put( wrapped, new Entry( row, partition.entries.get( wrapped ) ) );
+      long size = key.length + row.length + ENTRY_OVERHEAD;
+      partition.memory += size;
+      memoryUsed += size;
+
+      while ( memoryLimit > 0 && memoryUsed > memoryLimit && spillLargestPartition() ) {
+        // Keep spilling until the rows fit
+      }
+    } catch ( IOException e ) {
+      throw new KettleFileException( "Unable to write build rows to the spill file", e );
+    }
+  }
+
+  /**
+   * @return false if all partitions are on disk already
+   */
+  private boolean spillLargestPartition() throws IOException {
+    Partition largest = null;
+    for ( Partition partition : partitions ) {
+      if ( partition.entries != null && ( largest == null || partition.memory > largest.memory ) ) {
+        largest = partition;
+      }
+    }
+    if ( largest == null ) {
+      return false;
+    }
+
+    largest.buildFile = File.createTempFile( "hash-join-build-", ".tmp", spillDirectory );
+    largest.buildFile.deleteOnExit();
+    largest.buildOut =
+      new DataOutputStream( new BufferedOutputStream( new FileOutputStream( largest.buildFile ), BUFFER_SIZE ) );
+    for ( Map.Entry<ByteBuffer, Entry> keyEntries : largest.entries.entrySet() ) {
+      byte[] key = keyEntries.getKey().array();
+      for ( Entry entry = keyEntries.getValue(); entry != null; entry = entry.next ) {
+        write( largest.buildOut, key, entry.row );
+      }
+    }
+    largest.entries = null;
+    memoryUsed -= largest.memory;
+    largest.memory = 0;
+    spilledPartitions++;
+    return true;
+  }
+
+  /**
+   * Signal that a step copy added all its build rows.
+   *
+   * @param buildRowMeta
+   *          the metadata of the build rows, null if the copy didn't read any
+   * @param keyRowMeta
+   *          the metadata of the serialized keys, null if the copy didn't read any build rows
+   * @throws KettleFileException
+   *           in case the spilled partitions can't be written
+   */
+  public synchronized void built( RowMetaInterface buildRowMeta, RowMetaInterface keyRowMeta )
+    throws KettleFileException {
+    if ( buildRowMeta != null && this.buildRowMeta == null ) {
+      this.buildRowMeta = buildRowMeta;
+      this.keyRowMeta = keyRowMeta;
+    }
+    building--;
+    if ( building == 0 ) {
+      for ( Partition partition : partitions ) {
+        if ( partition.buildOut != null ) {
+          try {
+            partition.buildOut.close();
+          } catch ( IOException e ) {
+            throw new KettleFileException( "Unable to write build rows to the spill file", e );
+          } finally {
+            partition.buildOut = null;
+          }
+        }
+      }
+    }
+    notifyAll();
+  }
+
+  /**
+   * Wait until all copies added their build rows.
+   *
+   * @param step
+   *          the step copy waiting
+   * @return false if the step was stopped while waiting
+   * @throws InterruptedException
+   *           in case the thread was interrupted
+   */
+  public synchronized boolean waitUntilBuilt( StepInterface step ) throws InterruptedException {
+    while ( building > 0 ) {
+      if ( step.isStopped() ) {
+        return false;
+      }
+      wait( 100 );
+    }
+    return true;
+  }
+
+  /**
+   * @param partition
+   *          the partition of the key
+   * @return true if the build rows of the partition are on disk, the probe rows have to be spilled as well
+   */
+  public boolean isSpilled( int partition ) {
+    return partitions[partition].entries == null;
+  }
+
+  /**
+   * @param partition
+   *          the partition of the key, not spilled
+   * @param key
+   *          the serialized key
+   * @return the first build row of the key or null if there is none
+   */
+  public Entry get( int partition, byte[] key ) {
+    return partitions[partition].entries.get( ByteBuffer.wrap( key ) );
+  }
+
+  /**
+   * Keep a probe row of a spilled partition until the partition is joined.
+   *
+   * @param partition
+   *          the partition of the key
+   * @param key
+   *          the serialized key
+   * @param row
+   *          the serialized probe row
+   * @throws KettleFileException
+   *           in case the row can't be written
+   */
+  public void spillProbeRow( int partition, byte[] key, byte[] row ) throws KettleFileException {
+    Partition spilled = partitions[partition];
+    synchronized ( spilled ) {
+      try {
+        if ( spilled.probeOut == null ) {
+          spilled.probeFile = File.createTempFile( "hash-join-probe-", ".tmp", spillDirectory );
+          spilled.probeFile.deleteOnExit();
+          spilled.probeOut =
+            new DataOutputStream( new BufferedOutputStream( new FileOutputStream( spilled.probeFile ), BUFFER_SIZE ) );
+        }
+        write( spilled.probeOut, key, row );
+      } catch ( IOException e ) {
+        throw new KettleFileException( "Unable to write probe rows to the spill file", e );
+      }
+    }
+  }
+
+  /**
+   * Signal that a step copy read all its probe rows.
+   */
+  public synchronized void probed() {
+    probing--;
+    notifyAll();
+  }
+
+  /**
+   * Wait until all copies read all their probe rows.
+   *
+   * @param step
+   *          the step copy waiting
+   * @return false if the step was stopped while waiting
+   * @throws InterruptedException
+   *           in case the thread was interrupted
+   */
+  public synchronized boolean waitUntilProbed( StepInterface step ) throws InterruptedException {
+    while ( probing > 0 ) {
+      if ( step.isStopped() ) {
+        return false;
+      }
+      wait( 100 );
+    }
+    return true;
+  }
+
+  /**
+   * @param partition
+   *          the partition
+   * @return the build rows of the partition by serialized key, read back from disk if the partition was spilled
+   * @throws KettleFileException
+   *           in case the spilled rows can't be read
+   */
+  public Map<ByteBuffer, Entry> getEntries( int partition ) throws KettleFileException {
+    Partition part = partitions[partition];
+    if ( part.entries != null ) {
+      return part.entries;
+    }
+    if ( part.buildFile == null ) {
+      return Collections.emptyMap();
+    }
+
+    Map<ByteBuffer, Entry> entries = new HashMap<>();
+    try ( DataInputStream in = open( part.buildFile ) ) {
+      byte[] key = readBytes( in );
+      while ( key != null ) {
+        ByteBuffer wrapped = ByteBuffer.wrap( key );
+        entries.put( wrapped, new Entry( readBytes( in ), entries.get( wrapped ) ) );
+        key = readBytes( in );
+      }
+    } catch ( IOException e ) {
+      throw new KettleFileException( "Unable to read back the spill file " + part.buildFile, e );
+    }
+    return entries;
+  }
+
+  /**
+   * Read back the probe rows of a spilled partition. All copies have to be done probing.
+   *
+   * @param partition
+   *          the partition
+   * @param handler
+   *          joins the probe rows
+   * @throws KettleException
+   *           in case the rows can't be read or joined
+   */
+  public void readProbeRows( int partition, ProbeRowHandler handler ) throws KettleException {
+    Partition part = partitions[partition];
+    synchronized ( part ) {
+      if ( part.probeOut == null ) {
+        return;
+      }
+      try {
+        part.probeOut.close();
+      } catch ( IOException e ) {
+        throw new KettleFileException( "Unable to write probe rows to the spill file", e );
+      } finally {
+        part.probeOut = null;
+      }
+    }
+
+    try ( DataInputStream in = open( part.probeFile ) ) {
+      byte[] key = readBytes( in );
+      while ( key != null ) {
+        handler.handle( key, readBytes( in ) );
+        key = readBytes( in );
+      }
+    } catch ( IOException e ) {
+      throw new KettleFileException( "Unable to read back the spill file " + part.probeFile, e );
+    }
+  }
+
+  /**
+   * Drop the rows of a partition that was joined and delete its files.
+   *
+   * @param partition
+   *          the partition
+   */
+  public void release( int partition ) {
+    Partition part = partitions[partition];
+    synchronized ( part ) {
+      part.entries = Collections.emptyMap();
+      part.memory = 0;
+      closeQuietly( part.buildOut );
+      closeQuietly( part.probeOut );
+      part.buildOut = null;
+      part.probeOut = null;
+      delete( part.buildFile );
+      delete( part.probeFile );
+      part.buildFile = null;
+      part.probeFile = null;
+    }
+  }
+
+  private static void write( DataOutputStream out, byte[] key, byte[] row ) throws IOException {
+    out.writeInt( key.length );
+    out.write( key );
+    out.writeInt( row.length );
+    out.write( row );
+  }
+
+  private static DataInputStream open( File file ) throws IOException {
+    return new DataInputStream( new BufferedInputStream( new FileInputStream( file ), BUFFER_SIZE ) );
+  }
+
+  /**
+   * @return the bytes or null at the end of the file
+   */
+  private static byte[] readBytes( DataInputStream in ) throws IOException {
+    int length;
+    try {
+      length = in.readInt();
+    } catch ( EOFException e ) {
+      return null;
+    }
+    byte[] bytes = new byte[length];
+    in.readFully( bytes );
+    return bytes;
+  }
+
+  private static void closeQuietly( DataOutputStream out ) {
+    if ( out != null ) {
+      try {
+        out.close();
+      } catch ( IOException e ) {
+        // The file is deleted anyway
+      }
+    }
+  }
+
+  private static void delete( File file ) {
+    if ( file != null && !file.delete() ) {
+      file.deleteOnExit();
+    }
+  }
+
+  public synchronized RowMetaInterface getBuildRowMeta() {
+    return buildRowMeta;
+  }
+
+  public synchronized RowMetaInterface getKeyRowMeta() {
+    return keyRowMeta;
+  }
+
+  public synchronized RowMetaInterface getProbeRowMeta() {
+    return probeRowMeta;
+  }
+
+  /**
+   * @param probeRowMeta
+   *          the metadata of the probe rows, only the first one set is kept
+   */
+  public synchronized void setProbeRowMeta( RowMetaInterface probeRowMeta ) {
+    if ( this.probeRowMeta == null ) {
+      this.probeRowMeta = probeRowMeta;
+    }
+  }
+
+  /**
+   * @return the number of partitions written to disk
+   */
+  public synchronized int getSpilledPartitions() {
+    return spilledPartitions;
+  }
+
+  private synchronized boolean isUsed() {
+    return building <= 0;
+  }
+}
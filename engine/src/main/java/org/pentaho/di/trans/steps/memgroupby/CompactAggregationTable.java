@@ -0,0 +1,730 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.di.trans.steps.memgroupby;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Date;
+
+import org.pentaho.di.core.exception.KettleValueException;
+import org.pentaho.di.core.row.RowMetaInterface;
+import org.pentaho.di.core.row.ValueMetaInterface;
+import org.pentaho.di.core.row.value.ValueMetaBase;
+
+/**
+ * Hash table for the Memory Group By step that doesn't create objects per group. The group keys are serialized into
+ * large byte pages and found back with an open addressing (linear probing) index. The aggregates are kept in primitive
+ * arrays, one array per aggregate, indexed by group number.<br>
+ * <br>
+ * Only aggregates that can be merged are supported: SUM, AVERAGE, MIN and MAX of Integer and Number fields, COUNT_ALL
+ * and COUNT_ANY. That way the partial results of a group can be written to disk with
+ * {@link #writeGroup(int, DataOutput)} and combined later on with {@link #readGroup(DataInput)}.
+ *
+ * @since 11.1
+ */
+public class CompactAggregationTable {
+  private static final int INITIAL_CAPACITY = 1024;
+  private static final int PAGE_SIZE = 1 << 16;
+
+  /** Nothing was aggregated yet */
+  private static final byte STATE_EMPTY = 0;
+  /** The aggregate holds a value */
+  private static final byte STATE_VALUE = 1;
+  /** The aggregate is null no matter what comes next (MIN with a valued null) */
+  private static final byte STATE_NULL = 2;
+
+  private final RowMetaInterface groupMeta;
+  private final int[] groupnrs;
+  private final RowMetaInterface inputRowMeta;
+  private final int[] subjectnrs;
+  private final int[] aggregateTypes;
+  private final boolean[] integerAggregate;
+  private final boolean minNullIsValued;
+  private final int bytesPerGroup;
+
+  private int[] slots;
+  private int mask;
+  private int threshold;
+
+  private int size;
+  private int[] hashes;
+  private long[] keyAddresses;
+
+  private long[][] longValues;
+  private double[][] doubleValues;
+  private long[][] counts;
+  private byte[][] states;
+
+  private byte[][] pages;
+  private int pageCount;
+  private int pageOffset;
+  private long pageBytes;
+
+  private byte[] keyBuffer = new byte[256];
+  private int keyLength;
+
+  /**
+   * @param groupMeta
+   *          the metadata of the group fields
+   * @param groupnrs
+   *          the indexes of the group fields in the input row
+   * @param inputRowMeta
+   *          the metadata of the input rows
+   * @param subjectnrs
+   *          the indexes of the subject fields in the input row
+   * @param aggregateTypes
+   *          the aggregate types, see {@link MemoryGroupByMeta#TYPE_GROUP_SUM} and others
+   * @param compatibilityMode
+   *          true if SUM and AVERAGE always return a Number
+   * @param minNullIsValued
+   *          true if a null value is the minimum of a group
+   */
+  public CompactAggregationTable( RowMetaInterface groupMeta, int[] groupnrs, RowMetaInterface inputRowMeta,
+                                  int[] subjectnrs, int[] aggregateTypes, boolean compatibilityMode,
+                                  boolean minNullIsValued ) {
+    this.groupMeta = groupMeta;
+    this.groupnrs = groupnrs;
+    this.inputRowMeta = inputRowMeta;
+    this.subjectnrs = subjectnrs;
+    this.aggregateTypes = aggregateTypes;
+    this.minNullIsValued = minNullIsValued;
+
+    int nrAggregates = subjectnrs.length;
+    integerAggregate = new boolean[nrAggregates];
+    longValues = new long[nrAggregates][];
+    doubleValues = new double[nrAggregates][];
+    counts = new long[nrAggregates][];
+    states = new byte[nrAggregates][];
+
+    int perGroup = 4 + 8; // hash and key address
+    for ( int i = 0; i < nrAggregates; i++ ) {
+      switch ( aggregateTypes[i] ) {
+        case MemoryGroupByMeta.TYPE_GROUP_SUM:
+        case MemoryGroupByMeta.TYPE_GROUP_AVERAGE:
+          integerAggregate[i] = !compatibilityMode && isIntegerSubject( i );
+          perGroup += 9;
+          break;
+        case MemoryGroupByMeta.TYPE_GROUP_MIN:
+        case MemoryGroupByMeta.TYPE_GROUP_MAX:
+          integerAggregate[i] = isIntegerSubject( i );
+          perGroup += 9;
+          break;
+        default:
+          break;
+      }
+      if ( hasCount( i ) ) {
+        perGroup += 8;
+      }
+    }
+    bytesPerGroup = perGroup;
+
+    allocate();
+  }
+
+  /**
+   * Checks whether the table can handle the grouping and aggregation of a step. The group keys need to be of a type
+   * where two values are only equal if they serialize to the same bytes. That excludes strings compared case
+   * insensitive, trimmed or with a collator, and big numbers.
+   *
+   * @return true if all group fields and aggregates are supported
+   */
+  public static boolean isSupported( RowMetaInterface groupMeta, RowMetaInterface inputRowMeta, int[] subjectnrs,
+                                     int[] aggregateTypes ) {
+    for ( ValueMetaInterface valueMeta : groupMeta.getValueMetaList() ) {
+      if ( !isSupportedKey( valueMeta ) ) {
+        return false;
+      }
+    }
+    for ( int i = 0; i < subjectnrs.length; i++ ) {
+      switch ( aggregateTypes[i] ) {
+        case MemoryGroupByMeta.TYPE_GROUP_COUNT_ALL:
+        case MemoryGroupByMeta.TYPE_GROUP_COUNT_ANY:
+          break;
+        case MemoryGroupByMeta.TYPE_GROUP_SUM:
+        case MemoryGroupByMeta.TYPE_GROUP_AVERAGE:
+        case MemoryGroupByMeta.TYPE_GROUP_MIN:
+        case MemoryGroupByMeta.TYPE_GROUP_MAX:
+          int type = inputRowMeta.getValueMeta( subjectnrs[i] ).getType();
+          if ( type != ValueMetaInterface.TYPE_INTEGER && type != ValueMetaInterface.TYPE_NUMBER ) {
+            return false;
+          }
+          break;
+        default:
+          return false;
+      }
+    }
+    return true;
+  }
+
+  private static boolean isSupportedKey( ValueMetaInterface valueMeta ) {
+    if ( !( valueMeta instanceof ValueMetaBase ) || ( (ValueMetaBase) valueMeta ).getComparator() != null ) {
+      return false;
+    }
+    switch ( valueMeta.getType() ) {
+      case ValueMetaInterface.TYPE_INTEGER:
+      case ValueMetaInterface.TYPE_NUMBER:
+      case ValueMetaInterface.TYPE_DATE:
+      case ValueMetaInterface.TYPE_BOOLEAN:
+        return true;
+      case ValueMetaInterface.TYPE_STRING:
+        return valueMeta.isCollatorDisabled() && !valueMeta.isCaseInsensitive() && !valueMeta.isIgnoreWhitespace();
+      default:
+        return false;
+    }
+  }
+
+  private boolean isIntegerSubject( int i ) {
+    return inputRowMeta.getValueMeta( subjectnrs[i] ).getType() == ValueMetaInterface.TYPE_INTEGER;
+  }
+
+  private boolean hasCount( int i ) {
+    return aggregateTypes[i] == MemoryGroupByMeta.TYPE_GROUP_AVERAGE
+      || aggregateTypes[i] == MemoryGroupByMeta.TYPE_GROUP_COUNT_ALL
+      || aggregateTypes[i] == MemoryGroupByMeta.TYPE_GROUP_COUNT_ANY;
+  }
+
+  private boolean hasValue( int i ) {
+    return !( aggregateTypes[i] == MemoryGroupByMeta.TYPE_GROUP_COUNT_ALL
+      || aggregateTypes[i] == MemoryGroupByMeta.TYPE_GROUP_COUNT_ANY );
+  }
+
+  private void allocate() {
+    slots = new int[INITIAL_CAPACITY * 2];
+    mask = slots.length - 1;
+    threshold = slots.length * 3 / 4;
+    size = 0;
+    resizeGroups( INITIAL_CAPACITY );
+
+    pages = new byte[16][];
+    pages[0] = new byte[PAGE_SIZE];
+    pageCount = 1;
+    pageOffset = 0;
+    pageBytes = PAGE_SIZE;
+  }
+
+  private void resizeGroups( int capacity ) {
+    hashes = hashes == null ? new int[capacity] : Arrays.copyOf( hashes, capacity );
+    keyAddresses = keyAddresses == null ? new long[capacity] : Arrays.copyOf( keyAddresses, capacity );
+    for ( int i = 0; i < subjectnrs.length; i++ ) {
+      if ( hasValue( i ) ) {
+        if ( integerAggregate[i] ) {
+          longValues[i] = longValues[i] == null ? new long[capacity] : Arrays.copyOf( longValues[i], capacity );
+        } else {
+          doubleValues[i] = doubleValues[i] == null ? new double[capacity] : Arrays.copyOf( doubleValues[i], capacity );
+        }
+        states[i] = states[i] == null ? new byte[capacity] : Arrays.copyOf( states[i], capacity );
+      }
+      if ( hasCount( i ) ) {
+        counts[i] = counts[i] == null ? new long[capacity] : Arrays.copyOf( counts[i], capacity );
+      }
+    }
+  }
+
+  /**
+   * @return the number of groups in the table
+   */
+  public int size() {
+    return size;
+  }
+
+  /**
+   * @return an estimate of the number of bytes used by the table
+   */
+  public long getMemoryUsage() {
+    return (long) hashes.length * bytesPerGroup + (long) slots.length * 4 + pageBytes;
+  }
+
+  /**
+   * @param groupId
+   *          the group number, from 0 to {@link #size()}
+   * @return the hash code of the group key, the same for the same key in every table
+   */
+  public int getHash( int groupId ) {
+    return hashes[groupId];
+  }
+
+  /**
+   * Release all the groups and the memory they take.
+   */
+  public void clear() {
+    hashes = null;
+    keyAddresses = null;
+    Arrays.fill( longValues, null );
+    Arrays.fill( doubleValues, null );
+    Arrays.fill( counts, null );
+    Arrays.fill( states, null );
+    allocate();
+  }
+
+  /**
+   * Add an input row to the aggregates of its group.
+   *
+   * @param row
+   *          the input row
+   * @throws KettleValueException
+   *           in case a value can't be converted
+   */
+  public void addRow( Object[] row ) throws KettleValueException {
+    keyLength = 0;
+    for ( int i = 0; i < groupnrs.length; i++ ) {
+      writeKeyValue( groupMeta.getValueMeta( i ), row[groupnrs[i]] );
+    }
+    int groupId = findOrAddGroup();
+
+    for ( int i = 0; i < subjectnrs.length; i++ ) {
+      ValueMetaInterface subjMeta = inputRowMeta.getValueMeta( subjectnrs[i] );
+      Object subj = row[subjectnrs[i]];
+      boolean isNull = subjMeta.isNull( subj );
+
+      switch ( aggregateTypes[i] ) {
+        case MemoryGroupByMeta.TYPE_GROUP_COUNT_ALL:
+          if ( !isNull ) {
+            counts[i][groupId]++;
+          }
+          break;
+        case MemoryGroupByMeta.TYPE_GROUP_COUNT_ANY:
+          counts[i][groupId]++;
+          break;
+        default:
+          if ( isNull ) {
+            if ( minNullIsValued && aggregateTypes[i] == MemoryGroupByMeta.TYPE_GROUP_MIN ) {
+              states[i][groupId] = STATE_NULL;
+            }
+          } else if ( integerAggregate[i] ) {
+            combine( i, groupId, STATE_VALUE, subjMeta.getInteger( subj ), 0.0, 1L );
+          } else {
+            combine( i, groupId, STATE_VALUE, 0L, subjMeta.getNumber( subj ), 1L );
+          }
+          break;
+      }
+    }
+  }
+
+  /**
+   * Combine a (partial) aggregate into the aggregate of a group.
+   */
+  private void combine( int i, int groupId, byte state, long longValue, double doubleValue, long count ) {
+    byte current = states[i][groupId];
+    if ( current == STATE_NULL || state == STATE_EMPTY ) {
+      return;
+    }
+    if ( state == STATE_NULL ) {
+      states[i][groupId] = STATE_NULL;
+      return;
+    }
+    switch ( aggregateTypes[i] ) {
+      case MemoryGroupByMeta.TYPE_GROUP_AVERAGE:
+        counts[i][groupId] += count;
+        // fall through: the sum is calculated like a regular SUM
+      case MemoryGroupByMeta.TYPE_GROUP_SUM:
+        if ( integerAggregate[i] ) {
+          longValues[i][groupId] += longValue;
+        } else {
+          doubleValues[i][groupId] += doubleValue;
+        }
+        break;
+      case MemoryGroupByMeta.TYPE_GROUP_MIN:
+        if ( integerAggregate[i] ) {
+          if ( current == STATE_EMPTY || longValue < longValues[i][groupId] ) {
+            longValues[i][groupId] = longValue;
+          }
+        } else if ( current == STATE_EMPTY || Double.compare( doubleValue, doubleValues[i][groupId] ) < 0 ) {
+          doubleValues[i][groupId] = doubleValue;
+        }
+        break;
+      case MemoryGroupByMeta.TYPE_GROUP_MAX:
+        if ( integerAggregate[i] ) {
+          if ( current == STATE_EMPTY || longValue > longValues[i][groupId] ) {
+            longValues[i][groupId] = longValue;
+          }
+        } else if ( current == STATE_EMPTY || Double.compare( doubleValue, doubleValues[i][groupId] ) > 0 ) {
+          doubleValues[i][groupId] = doubleValue;
+        }
+        break;
+      default:
+        break;
+    }
+    states[i][groupId] = STATE_VALUE;
+  }
+
+  /**
+   * @param groupId
+   *          the group number, from 0 to {@link #size()}
+   * @return the values of the group fields, in normal storage
+   */
+  public Object[] getGroupData( int groupId ) {
+    Object[] groupData = new Object[groupMeta.size()];
+    long address = keyAddresses[groupId];
+    byte[] page = pages[(int) ( address >>> 32 )];
+    int[] position = { (int) address };
+    readKeyLength( page, position );
+    for ( int i = 0; i < groupData.length; i++ ) {
+      groupData[i] = readKeyValue( groupMeta.getValueMeta( i ), page, position );
+    }
+    return groupData;
+  }
+
+  /**
+   * @param groupId
+   *          the group number, from 0 to {@link #size()}
+   * @return the aggregate results of the group, in the same format as {@link MemoryGroupBy#getAggregateResult}
+   */
+  public Object[] getAggregateResult( int groupId ) {
+    Object[] result = new Object[subjectnrs.length];
+    for ( int i = 0; i < result.length; i++ ) {
+      switch ( aggregateTypes[i] ) {
+        case MemoryGroupByMeta.TYPE_GROUP_COUNT_ALL:
+        case MemoryGroupByMeta.TYPE_GROUP_COUNT_ANY:
+          result[i] = counts[i][groupId];
+          break;
+        case MemoryGroupByMeta.TYPE_GROUP_AVERAGE:
+          if ( states[i][groupId] == STATE_VALUE ) {
+            if ( integerAggregate[i] ) {
+              result[i] = longValues[i][groupId] / counts[i][groupId];
+            } else {
+              result[i] = doubleValues[i][groupId] / counts[i][groupId];
+            }
+          }
+          break;
+        default:
+          if ( states[i][groupId] == STATE_VALUE ) {
+            if ( integerAggregate[i] ) {
+              result[i] = longValues[i][groupId];
+            } else {
+              result[i] = doubleValues[i][groupId];
+            }
+          }
+          break;
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Write the key and the partial aggregates of a group.
+   *
+   * @param groupId
+   *          the group number, from 0 to {@link #size()}
+   * @param out
+   *          where to write to
+   * @throws IOException
+   *           in case of a write error
+   */
+  public void writeGroup( int groupId, DataOutput out ) throws IOException {
+    long address = keyAddresses[groupId];
+    byte[] page = pages[(int) ( address >>> 32 )];
+    int start = (int) address;
+    int[] position = { start };
+    int length = readKeyLength( page, position );
+    out.write( page, start, position[0] - start + length );
+
+    for ( int i = 0; i < subjectnrs.length; i++ ) {
+      if ( hasValue( i ) ) {
+        out.writeByte( states[i][groupId] );
+        if ( integerAggregate[i] ) {
+          out.writeLong( longValues[i][groupId] );
+        } else {
+          out.writeDouble( doubleValues[i][groupId] );
+        }
+      }
+      if ( hasCount( i ) ) {
+        out.writeLong( counts[i][groupId] );
+      }
+    }
+  }
+
+  /**
+   * Read a group written by {@link #writeGroup(int, DataOutput)} and merge it with the group in this table.
+   *
+   * @param in
+   *          where to read from
+   * @throws IOException
+   *           in case of a read error
+   */
+  public void readGroup( DataInput in ) throws IOException {
+    int length = in.readUnsignedByte();
+    if ( length == 0x80 ) {
+      length = in.readInt();
+    }
+    keyLength = 0;
+    ensureKeyCapacity( length );
+    in.readFully( keyBuffer, 0, length );
+    keyLength = length;
+    int groupId = findOrAddGroup();
+
+    for ( int i = 0; i < subjectnrs.length; i++ ) {
+      if ( hasValue( i ) ) {
+        byte state = in.readByte();
+        long longValue = 0L;
+        double doubleValue = 0.0;
+        if ( integerAggregate[i] ) {
+          longValue = in.readLong();
+        } else {
+          doubleValue = in.readDouble();
+        }
+        long count = hasCount( i ) ? in.readLong() : 0L;
+        combine( i, groupId, state, longValue, doubleValue, count );
+      } else {
+        counts[i][groupId] += in.readLong();
+      }
+    }
+  }
+
+  /**
+   * Merge a group of another table with the same layout into this table, for example the partial aggregates of
+   * another step copy.
+   *
+   * @param other
+   *          the table to take the group from
+   * @param otherGroupId
+   *          the group number in the other table, from 0 to {@link #size()}
+   */
+  public void mergeGroup( CompactAggregationTable other, int otherGroupId ) {
+    long address = other.keyAddresses[otherGroupId];
+    byte[] page = other.pages[(int) ( address >>> 32 )];
+    int[] position = { (int) address };
+    int length = readKeyLength( page, position );
+    keyLength = 0;
+    ensureKeyCapacity( length );
+    System.arraycopy( page, position[0], keyBuffer, 0, length );
+    keyLength = length;
+    int groupId = findOrAddGroup();
+
+    for ( int i = 0; i < subjectnrs.length; i++ ) {
+      if ( hasValue( i ) ) {
+        long longValue = integerAggregate[i] ? other.longValues[i][otherGroupId] : 0L;
+        double doubleValue = integerAggregate[i] ? 0.0 : other.doubleValues[i][otherGroupId];
+        combine( i, groupId, other.states[i][otherGroupId], longValue, doubleValue,
+          hasCount( i ) ? other.counts[i][otherGroupId] : 0L );
+      } else {
+        counts[i][groupId] += other.counts[i][otherGroupId];
+      }
+    }
+  }
+
+  private int findOrAddGroup() {
+    int keyHash = hash( keyBuffer, keyLength );
+    int slot = keyHash & mask;
+    while ( true ) {
+      int entry = slots[slot];
+      if ( entry == 0 ) {
+        break;
+      }
+      int groupId = entry - 1;
+      if ( hashes[groupId] == keyHash && keyEquals( groupId ) ) {
+        return groupId;
+      }
+      slot = ( slot + 1 ) & mask;
+    }
+
+    int groupId = size++;
+    if ( groupId == hashes.length ) {
+      resizeGroups( hashes.length * 2 );
+    }
+    hashes[groupId] = keyHash;
+    keyAddresses[groupId] = storeKey();
+    slots[slot] = groupId + 1;
+    if ( size > threshold ) {
+      rehash();
+    }
+    return groupId;
+  }
+
+  private void rehash() {
+    slots = new int[slots.length * 2];
+    mask = slots.length - 1;
+    threshold = slots.length * 3 / 4;
+    for ( int groupId = 0; groupId < size; groupId++ ) {
+      int slot = hashes[groupId] & mask;
+      while ( slots[slot] != 0 ) {
+        slot = ( slot + 1 ) & mask;
+      }
+      slots[slot] = groupId + 1;
+    }
+  }
+
+  private boolean keyEquals( int groupId ) {
+    long address = keyAddresses[groupId];
+    byte[] page = pages[(int) ( address >>> 32 )];
+    int[] position = { (int) address };
+    int length = readKeyLength( page, position );
+    int offset = position[0];
+    return length == keyLength && Arrays.equals( page, offset, offset + length, keyBuffer, 0, keyLength );
+  }
+
+  /**
+   * Copy the key buffer to the pages, preceded by its length: 1 byte for short keys, 0x80 and 4 bytes for longer ones.
+   *
+   * @return the page number in the upper and the offset in the lower 32 bits
+   */
+  private long storeKey() {
+    int needed = keyLength + 5;
+    if ( pageOffset + needed > pages[pageCount - 1].length ) {
+      if ( pageCount == pages.length ) {
+        pages = Arrays.copyOf( pages, pageCount * 2 );
+      }
+      pages[pageCount++] = new byte[Math.max( PAGE_SIZE, needed )];
+      pageOffset = 0;
+      pageBytes += pages[pageCount - 1].length;
+    }
+    byte[] page = pages[pageCount - 1];
+    long address = ( (long) ( pageCount - 1 ) << 32 ) | pageOffset;
+    if ( keyLength < 0x80 ) {
+      page[pageOffset++] = (byte) keyLength;
+    } else {
+      page[pageOffset++] = (byte) 0x80;
+      page[pageOffset++] = (byte) ( keyLength >>> 24 );
+      page[pageOffset++] = (byte) ( keyLength >>> 16 );
+      page[pageOffset++] = (byte) ( keyLength >>> 8 );
+      page[pageOffset++] = (byte) keyLength;
+    }
+    System.arraycopy( keyBuffer, 0, page, pageOffset, keyLength );
+    pageOffset += keyLength;
+    return address;
+  }
+
+  /**
+   * Read the length of a stored key and move the position to the first byte of the key.
+   */
+  private static int readKeyLength( byte[] page, int[] position ) {
+    int length = page[position[0]++] & 0xff;
+    if ( length == 0x80 ) {
+      length = 0;
+      for ( int i = 0; i < 4; i++ ) {
+        length = ( length << 8 ) | ( page[position[0]++] & 0xff );
+      }
+    }
+    return length;
+  }
+
+  private static int hash( byte[] bytes, int length ) {
+    long hash = 0xcbf29ce484222325L;
+    for ( int i = 0; i < length; i++ ) {
+      hash = ( hash ^ ( bytes[i] & 0xff ) ) * 0x100000001b3L;
+    }
+    // Spread the bits so that both the lowest (slots) and highest (partitions) bits are usable
+    //
+    hash ^= hash >>> 33;
+    hash *= 0xff51afd7ed558ccdL;
+    hash ^= hash >>> 33;
+    return (int) hash;
+  }
+
+  private void ensureKeyCapacity( int extra ) {
+    if ( keyLength + extra > keyBuffer.length ) {
+      keyBuffer = Arrays.copyOf( keyBuffer, Math.max( keyBuffer.length * 2, keyLength + extra ) );
+    }
+  }
+
+  private void writeKeyLong( long value ) {
+    ensureKeyCapacity( 8 );
+    for ( int shift = 56; shift >= 0; shift -= 8 ) {
+      keyBuffer[keyLength++] = (byte) ( value >>> shift );
+    }
+  }
+
+  /**
+   * Serialize a group value: a null flag followed by the value. Strings are written as their number of characters and
+   * the characters in the modified UTF-8 format of {@link DataOutput#writeUTF(String)}.
+   */
+  private void writeKeyValue( ValueMetaInterface valueMeta, Object value ) throws KettleValueException {
+    ensureKeyCapacity( 1 );
+    if ( valueMeta.isNull( value ) ) {
+      keyBuffer[keyLength++] = 0;
+      return;
+    }
+    keyBuffer[keyLength++] = 1;
+    switch ( valueMeta.getType() ) {
+      case ValueMetaInterface.TYPE_INTEGER:
+        writeKeyLong( valueMeta.getInteger( value ) );
+        break;
+      case ValueMetaInterface.TYPE_NUMBER:
+        writeKeyLong( Double.doubleToLongBits( valueMeta.getNumber( value ) ) );
+        break;
+      case ValueMetaInterface.TYPE_DATE:
+        writeKeyLong( valueMeta.getDate( value ).getTime() );
+        break;
+      case ValueMetaInterface.TYPE_BOOLEAN:
+        ensureKeyCapacity( 1 );
+        keyBuffer[keyLength++] = (byte) ( valueMeta.getBoolean( value ) ? 1 : 0 );
+        break;
+      default:
+        String string = valueMeta.getString( value );
+        int length = string.length();
+        ensureKeyCapacity( 4 + length * 3 );
+        keyBuffer[keyLength++] = (byte) ( length >>> 24 );
+        keyBuffer[keyLength++] = (byte) ( length >>> 16 );
+        keyBuffer[keyLength++] = (byte) ( length >>> 8 );
+        keyBuffer[keyLength++] = (byte) length;
+        for ( int i = 0; i < length; i++ ) {
+          char c = string.charAt( i );
+          if ( c >= 0x0001 && c <= 0x007f ) {
+            keyBuffer[keyLength++] = (byte) c;
+          } else if ( c <= 0x07ff ) {
+            keyBuffer[keyLength++] = (byte) ( 0xc0 | ( c >> 6 ) );
+            keyBuffer[keyLength++] = (byte) ( 0x80 | ( c & 0x3f ) );
+          } else {
+            keyBuffer[keyLength++] = (byte) ( 0xe0 | ( c >> 12 ) );
+            keyBuffer[keyLength++] = (byte) ( 0x80 | ( ( c >> 6 ) & 0x3f ) );
+            keyBuffer[keyLength++] = (byte) ( 0x80 | ( c & 0x3f ) );
+          }
+        }
+        break;
+    }
+  }
+
+  private static long readKeyLong( byte[] page, int[] position ) {
+    long value = 0L;
+    for ( int i = 0; i < 8; i++ ) {
+      value = ( value << 8 ) | ( page[position[0]++] & 0xff );
+    }
+    return value;
+  }
+
+  private static Object readKeyValue( ValueMetaInterface valueMeta, byte[] page, int[] position ) {
+    if ( page[position[0]++] == 0 ) {
+      return null;
+    }
+    switch ( valueMeta.getType() ) {
+      case ValueMetaInterface.TYPE_INTEGER:
+        return readKeyLong( page, position );
+      case ValueMetaInterface.TYPE_NUMBER:
+        return Double.longBitsToDouble( readKeyLong( page, position ) );
+      case ValueMetaInterface.TYPE_DATE:
+        return new Date( readKeyLong( page, position ) );
+      case ValueMetaInterface.TYPE_BOOLEAN:
+        return page[position[0]++] != 0;
+      default:
+        int offset = position[0];
+        int length = ( ( page[offset] & 0xff ) << 24 ) | ( ( page[offset + 1] & 0xff ) << 16 )
+          | ( ( page[offset + 2] & 0xff ) << 8 ) | ( page[offset + 3] & 0xff );
+        offset += 4;
+        char[] chars = new char[length];
+        for ( int i = 0; i < length; i++ ) {
+          int b = page[offset++] & 0xff;
+          if ( b < 0x80 ) {
+            chars[i] = (char) b;
+          } else if ( b < 0xe0 ) {
+            chars[i] = (char) ( ( ( b & 0x1f ) << 6 ) | ( page[offset++] & 0x3f ) );
+          } else {
+            chars[i] = (char) ( ( ( b & 0x0f ) << 12 ) | ( ( page[offset++] & 0x3f ) << 6 ) | ( page[offset++] & 0x3f ) );
+          }
+        }
+        position[0] = offset;
+        return new String( chars );
+    }
+  }
+}
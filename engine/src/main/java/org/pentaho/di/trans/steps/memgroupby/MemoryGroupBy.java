@@ -13,14 +13,21 @@
 
 package org.pentaho.di.trans.steps.memgroupby;
 
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.TreeSet;
 
 import com.google.common.annotations.VisibleForTesting;
 import org.apache.commons.math.stat.descriptive.rank.Percentile;
+import org.apache.commons.vfs2.FileObject;
 import org.pentaho.di.core.Const;
 import org.pentaho.di.core.util.Utils;
 import org.pentaho.di.core.exception.KettleException;
@@ -34,6 +41,7 @@ import org.pentaho.di.core.row.value.ValueMetaBase;
 import org.pentaho.di.core.row.value.ValueMetaInteger;
 import org.pentaho.di.core.row.value.ValueMetaNumber;
 import org.pentaho.di.core.row.value.ValueMetaString;
+import org.pentaho.di.core.vfs.KettleVFS;
 import org.pentaho.di.i18n.BaseMessages;
 import org.pentaho.di.trans.Trans;
 import org.pentaho.di.trans.TransMeta;
@@ -53,6 +61,9 @@ import org.pentaho.di.trans.steps.memgroupby.MemoryGroupByData.HashEntry;
 public class MemoryGroupBy extends BaseStep implements StepInterface {
   private static Class<?> PKG = MemoryGroupByMeta.class; // for i18n purposes, needed by Translator2!!
 
+  /** The number of temporary files the partial aggregates are spread over, the last one is merged in memory */
+  private static final int NR_SPILL_PARTITIONS = 16;
+
   private MemoryGroupByMeta meta;
 
   private MemoryGroupByData data;
@@ -77,17 +88,33 @@ public class MemoryGroupBy extends BaseStep implements StepInterface {
     Object[] r = getRow(); // get row!
 
     if ( first ) {
+      if ( r == null && data.partials != null ) {
+        // This copy didn't receive any rows, it only sends out the groups of the other copies if it's the last one
+        //
+        List<MemoryGroupByData> partials = handOver( null );
+        if ( partials == null ) {
+          setOutputDone();
+          return false;
+        }
+        if ( !partials.isEmpty() ) {
+          readAggregationVariables();
+          mergePartials( partials );
+
+          updateValueMeta();
+          handleLastOfGroup();
+
+          setOutputDone();
+          return false;
+        }
+        // None of the copies received any rows
+      }
+
       if ( ( r == null ) && ( !meta.isAlwaysGivingBackOneRow() ) ) {
         setOutputDone();
         return false;
       }
 
-      String val = getVariable( Const.KETTLE_AGGREGATION_ALL_NULLS_ARE_ZERO, "N" );
-      allNullsAreZero = ValueMetaBase.convertStringToBoolean( val );
-      val = getVariable( Const.KETTLE_AGGREGATION_MIN_NULL_IS_VALUED, "N" );
-      minNullIsValued = ValueMetaBase.convertStringToBoolean( val );
-      compatibilityMode = ValueMetaBase.convertStringToBoolean(
-        getVariable( Const.KETTLE_COMPATIBILITY_MEMORY_GROUP_BY_SUM_AVERAGE_RETURN_NUMBER_TYPE, "N" ) );
+      readAggregationVariables();
 
       // What is the output looking like?
       //
@@ -162,12 +189,26 @@ public class MemoryGroupBy extends BaseStep implements StepInterface {
       data.groupAggMeta = new RowMeta();
       data.groupAggMeta.addRowMeta( data.groupMeta );
       data.groupAggMeta.addRowMeta( data.aggMeta );
+
+      if ( meta.isCompactAggregation() && r != null ) {
+        initCompactAggregation();
+      }
     }
 
     // Here is where we start to do the real work...
     //
     if ( r == null ) { // no more input to be expected... (or none received in the first place)
 
+      if ( data.partials != null && !first ) {
+        List<MemoryGroupByData> partials = handOverPartial();
+        if ( partials == null ) {
+          // Another copy sends out the groups
+          setOutputDone();
+          return false;
+        }
+        mergePartials( partials );
+      }
+
       updateValueMeta();
       handleLastOfGroup();
 
@@ -180,7 +221,11 @@ public class MemoryGroupBy extends BaseStep implements StepInterface {
       data.newBatch = false;
     }
 
-    addToAggregate( r );
+    if ( data.table != null ) {
+      addToCompactTable( r );
+    } else {
+      addToAggregate( r );
+    }
 
     if ( checkFeedback( getLinesRead() ) ) {
       if ( log.isBasic() ) {
@@ -191,28 +236,116 @@ public class MemoryGroupBy extends BaseStep implements StepInterface {
     return true;
   }
 
-  private void handleLastOfGroup() throws KettleException {
-    // Dump the content of the map...
-    //
-    for ( HashEntry entry : data.map.keySet() ) {
-      Aggregate aggregate = data.map.get( entry );
-      Object[] aggregateResult = getAggregateResult( aggregate );
+  private void readAggregationVariables() {
+    String val = getVariable( Const.KETTLE_AGGREGATION_ALL_NULLS_ARE_ZERO, "N" );
+    allNullsAreZero = ValueMetaBase.convertStringToBoolean( val );
+    val = getVariable( Const.KETTLE_AGGREGATION_MIN_NULL_IS_VALUED, "N" );
+    minNullIsValued = ValueMetaBase.convertStringToBoolean( val );
+    compatibilityMode = ValueMetaBase.convertStringToBoolean(
+      getVariable( Const.KETTLE_COMPATIBILITY_MEMORY_GROUP_BY_SUM_AVERAGE_RETURN_NUMBER_TYPE, "N" ) );
+  }
 
-      Object[] outputRowData = RowDataUtil.allocateRowData( data.outputRowMeta.size() );
-      int index = 0;
-      for ( int i = 0; i < data.groupMeta.size(); i++ ) {
-        outputRowData[index++] = data.groupMeta.getValueMeta( i ).convertToNormalStorageType( entry.getGroupData()[i] );
+  /**
+   * Hand the groups of this copy over to the other copies of the step. Groups that were written to disk stay there,
+   * the temporary files are closed so that another copy can read them.
+   *
+   * @return the partial aggregates of all step copies if this is the last one to finish, null otherwise
+   */
+  private List<MemoryGroupByData> handOverPartial() throws KettleException {
+    if ( data.spillStreams != null ) {
+      spillCompactGroups();
+      data.closeSpillStreams();
+    }
+    return handOver( data.takePartial() );
+  }
+
+  /**
+   * Hand the groups of this copy over and wait for the other copies.
+   *
+   * @return the partial aggregates of all step copies if this copy sends them out, null otherwise or if another copy
+   *         failed before handing over its groups
+   */
+  private List<MemoryGroupByData> handOver( MemoryGroupByData partial ) throws KettleException {
+    data.partialHandedOver = true;
+    int handedOver = data.partials.add( partial );
+    List<MemoryGroupByData> partials;
+    try {
+      partials = data.partials.await( handedOver, () -> isStopped() && !isSafeStopped() );
+    } catch ( InterruptedException e ) {
+      Thread.currentThread().interrupt();
+      throw new KettleException( e );
+    }
+    if ( partials != null && data.partials.getFailed() > 0 ) {
+      // The groups of the copies that failed are missing, the aggregates would be wrong
+      logError( BaseMessages.getString( PKG, "MemoryGroupBy.Log.PartialMergeFailed", data.partials.getFailed(),
+        getStepMeta().getCopies() ) );
+      setErrors( 1 );
+      stopAll();
+      return null;
+    }
+    if ( partials != null && data.partials.getAbandoned() > 0 ) {
+      logBasic( BaseMessages.getString( PKG, "MemoryGroupBy.Log.PartialMerge", data.partials.getAbandoned(),
+        getStepMeta().getCopies() ) );
+    }
+    return partials;
+  }
+
+  /**
+   * Merge the partial aggregates of all step copies into the groups of this copy. The first one is taken over as is,
+   * the groups of the others are combined with it.
+   *
+   * @param partials
+   *          the partial aggregates of all copies that received rows, at least one
+   */
+  private void mergePartials( List<MemoryGroupByData> partials ) throws KettleException {
+    if ( log.isDetailed() ) {
+      logDetailed( BaseMessages.getString( PKG, "MemoryGroupBy.Detailed.MergingPartialAggregates", partials.size() ) );
+    }
+    for ( MemoryGroupByData partial : partials ) {
+      if ( partial.spillFiles != null ) {
+        data.spilledPartials.add( partial );
       }
-      for ( int i = 0; i < data.aggMeta.size(); i++ ) {
-        outputRowData[index++] = data.aggMeta.getValueMeta( i ).convertToNormalStorageType( aggregateResult[i] );
+    }
+
+    partials.get( 0 ).moveTo( data );
+    for ( int p = 1; p < partials.size(); p++ ) {
+      MemoryGroupByData partial = partials.get( p );
+      if ( data.table != null ) {
+        for ( int groupId = 0; groupId < partial.table.size(); groupId++ ) {
+          data.table.mergeGroup( partial.table, groupId );
+          if ( data.memoryLimit > 0 && data.table.getMemoryUsage() > data.memoryLimit ) {
+            spillCompactGroups();
+          }
+        }
+        partial.table.clear();
+      } else {
+        for ( Map.Entry<HashEntry, Aggregate> partialEntry : partial.map.entrySet() ) {
+          HashEntry entry = data.getHashEntry( partialEntry.getKey().getGroupData() );
+          Aggregate aggregate = data.map.get( entry );
+          if ( aggregate == null ) {
+            data.map.put( entry, partialEntry.getValue() );
+          } else {
+            mergeAggregate( aggregate, partialEntry.getValue() );
+          }
+        }
+        partial.map.clear();
       }
-      putRow( data.outputRowMeta, outputRowData );
+    }
+  }
+
+  private void handleLastOfGroup() throws KettleException {
+    boolean hasGroups;
+    if ( data.table != null ) {
+      hasGroups = putCompactGroups();
+    } else {
+      hasGroups = !data.map.isEmpty();
+      putGroups();
     }
 
     // What if we always need to give back one row?
     // This means we give back 0 for count all, count distinct, null for everything else
     //
-    if ( data.map.isEmpty() && meta.isAlwaysGivingBackOneRow() ) {
+    if ( !hasGroups && meta.isAlwaysGivingBackOneRow() ) {
       Object[] outputRowData = RowDataUtil.allocateRowData( data.outputRowMeta.size() );
       int index = 0;
       for ( int i = 0; i < data.groupMeta.size(); i++ ) {
@@ -231,6 +364,156 @@ public class MemoryGroupBy extends BaseStep implements StepInterface {
     }
   }
 
+  private void putGroups() throws KettleException {
+    // Dump the content of the map...
+    //
+    for ( HashEntry entry : data.map.keySet() ) {
+      Aggregate aggregate = data.map.get( entry );
+      Object[] aggregateResult = getAggregateResult( aggregate );
+
+      Object[] outputRowData = RowDataUtil.allocateRowData( data.outputRowMeta.size() );
+      int index = 0;
+      for ( int i = 0; i < data.groupMeta.size(); i++ ) {
+        outputRowData[index++] = data.groupMeta.getValueMeta( i ).convertToNormalStorageType( entry.getGroupData()[i] );
+      }
+      for ( int i = 0; i < data.aggMeta.size(); i++ ) {
+        outputRowData[index++] = data.aggMeta.getValueMeta( i ).convertToNormalStorageType( aggregateResult[i] );
+      }
+      putRow( data.outputRowMeta, outputRowData );
+    }
+  }
+
+  /**
+   * Use the compact hash table if the group fields and aggregates allow it.
+   */
+  private void initCompactAggregation() throws KettleException {
+    if ( !CompactAggregationTable.isSupported( data.groupMeta, data.inputRowMeta, data.subjectnrs,
+      meta.getAggregateType() ) ) {
+      if ( log.isDetailed() ) {
+        logDetailed( BaseMessages.getString( PKG, "MemoryGroupBy.Detailed.CompactAggregationNotSupported" ) );
+      }
+      return;
+    }
+
+    // The compact table hands out aggregates in normal storage
+    //
+    for ( ValueMetaInterface valueMeta : data.aggMeta.getValueMetaList() ) {
+      valueMeta.setStorageType( ValueMetaInterface.STORAGE_TYPE_NORMAL );
+    }
+    data.table = new CompactAggregationTable( data.groupMeta, data.groupnrs, data.inputRowMeta, data.subjectnrs,
+      meta.getAggregateType(), compatibilityMode, minNullIsValued );
+    data.memoryLimit = Const.toLong( environmentSubstitute( meta.getMemoryLimit() ), 0L ) * 1024 * 1024;
+  }
+
+  private void addToCompactTable( Object[] r ) throws KettleException {
+    data.table.addRow( r );
+    if ( data.memoryLimit > 0 && data.table.getMemoryUsage() > data.memoryLimit ) {
+      spillCompactGroups();
+    }
+  }
+
+  /**
+   * Write the partial aggregates of all groups to the temporary files, spread over the files by the hash code of the
+   * group key. That way the groups of every file can be merged in memory later on.
+   */
+  private void spillCompactGroups() throws KettleException {
+    if ( log.isDetailed() ) {
+      logDetailed( BaseMessages.getString( PKG, "MemoryGroupBy.Detailed.SpillingGroups", data.table.size() ) );
+    }
+    if ( data.spillStreams == null ) {
+      data.spillFiles = new FileObject[NR_SPILL_PARTITIONS];
+      data.spillStreams = new DataOutputStream[NR_SPILL_PARTITIONS];
+      data.spillCounts = new long[NR_SPILL_PARTITIONS];
+      try {
+        for ( int p = 0; p < NR_SPILL_PARTITIONS; p++ ) {
+          data.spillFiles[p] = KettleVFS.getInstance( getTransMeta().getBowl() )
+            .createTempFile( "memgroupby", ".tmp", environmentSubstitute( meta.getDirectory() ), getTransMeta() );
+          data.spillStreams[p] = new DataOutputStream( new BufferedOutputStream(
+            KettleVFS.getOutputStream( data.spillFiles[p], false ), 65536 ) );
+        }
+      } catch ( Exception e ) {
+        throw new KettleException( BaseMessages.getString(
+          PKG, "MemoryGroupBy.Exception.UnableToCreateTemporaryFile" ), e );
+      }
+    }
+
+    try {
+      for ( int groupId = 0; groupId < data.table.size(); groupId++ ) {
+        int p = data.table.getHash( groupId ) >>> 28;
+        data.table.writeGroup( groupId, data.spillStreams[p] );
+        data.spillCounts[p]++;
+      }
+    } catch ( IOException e ) {
+      throw new KettleException( BaseMessages.getString(
+        PKG, "MemoryGroupBy.Exception.UnableToWriteTemporaryFile" ), e );
+    }
+    data.table.clear();
+  }
+
+  /**
+   * Send out the groups of the compact hash table, merging the ones in the temporary files first if any.
+   *
+   * @return true if there was at least one group
+   */
+  private boolean putCompactGroups() throws KettleException {
+    if ( data.spillStreams == null && data.spilledPartials.isEmpty() ) {
+      boolean hasGroups = data.table.size() > 0;
+      putCompactTable();
+      return hasGroups;
+    }
+
+    // Everything goes to disk so that each temporary file holds all the partial aggregates of its groups
+    //
+    spillCompactGroups();
+    data.closeSpillStreams();
+
+    for ( int p = 0; p < NR_SPILL_PARTITIONS; p++ ) {
+      readSpillFile( data.spillFiles[p], data.spillCounts[p] );
+      for ( MemoryGroupByData partial : data.spilledPartials ) {
+        readSpillFile( partial.spillFiles[p], partial.spillCounts[p] );
+      }
+      putCompactTable();
+    }
+    data.deleteSpillFiles();
+    for ( MemoryGroupByData partial : data.spilledPartials ) {
+      partial.deleteSpillFiles();
+    }
+    data.spilledPartials.clear();
+    return true;
+  }
+
+  private void readSpillFile( FileObject spillFile, long count ) throws KettleException {
+    try ( DataInputStream in = new DataInputStream( new BufferedInputStream(
+      KettleVFS.getInputStream( spillFile ), 65536 ) ) ) {
+      for ( long n = 0; n < count; n++ ) {
+        data.table.readGroup( in );
+      }
+    } catch ( IOException e ) {
+      throw new KettleException( BaseMessages.getString(
+        PKG, "MemoryGroupBy.Exception.UnableToReadBackRowFromTemporaryFile" ), e );
+    }
+  }
+
+  private void putCompactTable() throws KettleException {
+    int groupSize = data.groupMeta.size();
+    for ( int groupId = 0; groupId < data.table.size(); groupId++ ) {
+      Object[] groupData = data.table.getGroupData( groupId );
+      Object[] aggregateResult = data.table.getAggregateResult( groupId );
+
+      Object[] outputRowData = RowDataUtil.allocateRowData( data.outputRowMeta.size() );
+      System.arraycopy( groupData, 0, outputRowData, 0, groupSize );
+      for ( int i = 0; i < aggregateResult.length; i++ ) {
+        Object ag = aggregateResult[i];
+        if ( ag == null && allNullsAreZero ) {
+          ag = ValueDataUtil.getZeroForValueMetaType( data.aggMeta.getValueMeta( i ) );
+        }
+        outputRowData[groupSize + i] = ag;
+      }
+      putRow( data.outputRowMeta, outputRowData );
+    }
+    data.table.clear();
+  }
+
   @VisibleForTesting
   void updateValueMeta() throws KettleException {
 
@@ -404,6 +687,125 @@ public class MemoryGroupBy extends BaseStep implements StepInterface {
     }
   }
 
+  /**
+   * Combine the partial aggregate of a group, calculated by another step copy, with the aggregate of the same group in
+   * this copy. The exact values are merged so the results are the same as with a single copy, except for the first and
+   * last values which depend on the order in which the copies finish.
+   *
+   * @param aggregate
+   *          the aggregate to merge into
+   * @param partial
+   *          the partial aggregate of another step copy
+   * @throws KettleException
+   */
+  @SuppressWarnings( "unchecked" ) void mergeAggregate( Aggregate aggregate, Aggregate partial )
+    throws KettleException {
+    for ( int i = 0; i < data.subjectnrs.length; i++ ) {
+      Object value = aggregate.agg[i];
+      Object partialValue = partial.agg[i];
+      ValueMetaInterface valueMeta = data.aggMeta.getValueMeta( i );
+
+      switch ( meta.getAggregateType()[i] ) {
+        case MemoryGroupByMeta.TYPE_GROUP_SUM:
+          aggregate.agg[i] = ValueDataUtil.sum( valueMeta, value, valueMeta, partialValue );
+          break;
+        case MemoryGroupByMeta.TYPE_GROUP_AVERAGE:
+          aggregate.agg[i] = ValueDataUtil.sum( valueMeta, value, valueMeta, partialValue );
+          aggregate.counts[i] += partial.counts[i];
+          break;
+        case MemoryGroupByMeta.TYPE_GROUP_MEDIAN:
+        case MemoryGroupByMeta.TYPE_GROUP_PERCENTILE:
+          ( (List<Double>) value ).addAll( (List<Double>) partialValue );
+          break;
+        case MemoryGroupByMeta.TYPE_GROUP_STANDARD_DEVIATION:
+          // Combine the sums of squared differences from the mean of both parts (Chan et al.)
+          long n1 = aggregate.counts[i];
+          long n2 = partial.counts[i];
+          if ( n2 == 0 ) {
+            break;
+          }
+          if ( n1 == 0 ) {
+            aggregate.agg[i] = partialValue;
+            aggregate.mean[i] = partial.mean[i];
+            aggregate.counts[i] = n2;
+            break;
+          }
+          double n = n1 + n2;
+          double delta = partial.mean[i] - aggregate.mean[i];
+          double sum = ( value == null ? 0.0 : (Double) value ) + ( partialValue == null ? 0.0 : (Double) partialValue );
+
+          aggregate.mean[i] = aggregate.mean[i] + delta * n2 / n;
+          aggregate.agg[i] = sum + delta * delta * n1 * n2 / n;
+          aggregate.counts[i] = n1 + n2;
+          break;
+        case MemoryGroupByMeta.TYPE_GROUP_COUNT_DISTINCT:
+          if ( partial.distinctObjs != null && partial.distinctObjs[i] != null ) {
+            if ( aggregate.distinctObjs == null ) {
+              aggregate.distinctObjs = new Set[meta.getSubjectField().length];
+            }
+            if ( aggregate.distinctObjs[i] == null ) {
+              aggregate.distinctObjs[i] = new TreeSet<>();
+            }
+            aggregate.distinctObjs[i].addAll( partial.distinctObjs[i] );
+            aggregate.counts[i] = aggregate.distinctObjs[i].size();
+          }
+          break;
+        case MemoryGroupByMeta.TYPE_GROUP_COUNT_ALL:
+        case MemoryGroupByMeta.TYPE_GROUP_COUNT_ANY:
+          aggregate.counts[i] += partial.counts[i];
+          break;
+        case MemoryGroupByMeta.TYPE_GROUP_MIN:
+          boolean partialIsNull = valueMeta.isNull( partialValue );
+          boolean valueIsNull = valueMeta.isNull( value );
+          if ( minNullIsValued || ( !partialIsNull && !valueIsNull ) ) {
+            aggregate.agg[i] = valueMeta.compare( partialValue, valueMeta, value ) < 0 ? partialValue : value;
+          } else if ( valueIsNull && !partialIsNull ) {
+            aggregate.agg[i] = partialValue;
+          }
+          break;
+        case MemoryGroupByMeta.TYPE_GROUP_MAX:
+          if ( valueMeta.compare( partialValue, valueMeta, value ) > 0 ) {
+            aggregate.agg[i] = partialValue;
+          }
+          break;
+        case MemoryGroupByMeta.TYPE_GROUP_FIRST:
+          if ( value == null ) {
+            aggregate.agg[i] = partialValue;
+          }
+          break;
+        case MemoryGroupByMeta.TYPE_GROUP_LAST:
+          if ( partialValue != null ) {
+            aggregate.agg[i] = partialValue;
+          }
+          break;
+        case MemoryGroupByMeta.TYPE_GROUP_FIRST_INCL_NULL:
+          if ( aggregate.counts[i] == 0 ) {
+            aggregate.agg[i] = partialValue;
+            aggregate.counts[i] = partial.counts[i];
+          }
+          break;
+        case MemoryGroupByMeta.TYPE_GROUP_LAST_INCL_NULL:
+          aggregate.agg[i] = partialValue;
+          break;
+        case MemoryGroupByMeta.TYPE_GROUP_CONCAT_COMMA:
+        case MemoryGroupByMeta.TYPE_GROUP_CONCAT_STRING:
+          String separator = ", ";
+          if ( meta.getAggregateType()[i] == MemoryGroupByMeta.TYPE_GROUP_CONCAT_STRING ) {
+            separator = Utils.isEmpty( meta.getValueField()[i] ) ? "" : environmentSubstitute( meta.getValueField()[i] );
+          }
+          StringBuilder sb = (StringBuilder) value;
+          StringBuilder partialSb = (StringBuilder) partialValue;
+          if ( sb.length() > 0 && partialSb.length() > 0 ) {
+            sb.append( separator );
+          }
+          sb.append( partialSb );
+          break;
+        default:
+          break;
+      }
+    }
+  }
+
   /**
    * Used for junits in MemoryGroupByNewAggregateTest
    *
@@ -575,6 +977,13 @@ public class MemoryGroupBy extends BaseStep implements StepInterface {
 
     if ( super.init( smi, sdi ) ) {
       data.map = new HashMap<HashEntry, Aggregate>( 5000 );
+
+      // A partitioned step gets all rows of a group in the same copy, there is nothing to merge
+      //
+      int copies = getStepMeta().getCopies();
+      if ( meta.isParallelAggregation() && copies > 1 && !getStepMeta().isPartitioned() ) {
+        data.partials = MemoryGroupByPartials.getInstance( getTrans(), getStepname(), copies );
+      }
       return true;
     }
     return false;
@@ -582,6 +991,12 @@ public class MemoryGroupBy extends BaseStep implements StepInterface {
 
   @Override
   public void dispose( StepMetaInterface smi, StepDataInterface sdi ) {
+    MemoryGroupByData groupByData = (MemoryGroupByData) sdi;
+    if ( groupByData.partials != null && !groupByData.partialHandedOver ) {
+      // Stopped or failed before running out of input, don't let the other copies wait for these groups
+      groupByData.partialHandedOver = true;
+      groupByData.partials.abandon( isSafeStopped() );
+    }
     super.dispose( smi, sdi );
     ( (MemoryGroupByData) sdi ).clear();
   }
@@ -595,6 +1010,9 @@ public class MemoryGroupBy extends BaseStep implements StepInterface {
     // Clear the complete cache...
     //
     data.map.clear();
+    if ( data.table != null ) {
+      data.table.clear();
+    }
 
     data.newBatch = true;
   }
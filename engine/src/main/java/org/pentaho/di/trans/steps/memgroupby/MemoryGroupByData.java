@@ -13,8 +13,14 @@
 
 package org.pentaho.di.trans.steps.memgroupby;
 
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 
+import org.apache.commons.vfs2.FileObject;
+import org.apache.commons.vfs2.FileSystemException;
 import org.pentaho.di.core.exception.KettleValueException;
 import org.pentaho.di.core.row.RowMetaInterface;
 import org.pentaho.di.core.row.ValueMetaInterface;
@@ -90,6 +96,21 @@ public class MemoryGroupByData extends BaseStepData implements StepDataInterface
 
   public boolean newBatch;
 
+  /** The compact hash table, null if the regular map is used */
+  public CompactAggregationTable table;
+  public long memoryLimit;
+
+  public FileObject[] spillFiles;
+  public DataOutputStream[] spillStreams;
+  public long[] spillCounts;
+
+  /** The partial aggregates of the other step copies, null unless parallel aggregation is used */
+  public MemoryGroupByPartials partials;
+  /** True once this copy handed over its partial aggregates */
+  public boolean partialHandedOver;
+  /** The partial aggregates of other step copies that still have groups in temporary files */
+  public List<MemoryGroupByData> spilledPartials = new ArrayList<>();
+
   public MemoryGroupByData() {
     super();
 
@@ -104,5 +125,89 @@ public class MemoryGroupByData extends BaseStepData implements StepDataInterface
    */
   public void clear() {
     map = new HashMap<MemoryGroupByData.HashEntry, Aggregate>();
+    table = null;
+    closeSpillStreams();
+    deleteSpillFiles();
+    for ( MemoryGroupByData partial : spilledPartials ) {
+      partial.deleteSpillFiles();
+    }
+    spilledPartials.clear();
+  }
+
+  /**
+   * Hand over the groups, the temporary files and the metadata to aggregate them to a new data object. That way the
+   * final step copy can still merge them once this copy is disposed. The temporary files need to be closed.
+   *
+   * @return the partial aggregates of this step copy
+   */
+  public MemoryGroupByData takePartial() {
+    MemoryGroupByData partial = new MemoryGroupByData();
+    moveTo( partial );
+    partial.spillFiles = spillFiles;
+    partial.spillCounts = spillCounts;
+    spillFiles = null;
+    spillCounts = null;
+    return partial;
+  }
+
+  /**
+   * Move the groups in memory and the metadata to aggregate them to another data object.
+   *
+   * @param target
+   *          the data object to move the groups to
+   */
+  public void moveTo( MemoryGroupByData target ) {
+    target.inputRowMeta = inputRowMeta;
+    target.outputRowMeta = outputRowMeta;
+    target.groupMeta = groupMeta;
+    target.aggMeta = aggMeta;
+    target.groupAggMeta = groupAggMeta;
+    target.groupnrs = groupnrs;
+    target.subjectnrs = subjectnrs;
+    target.valueMetaInteger = valueMetaInteger;
+    target.valueMetaNumber = valueMetaNumber;
+    target.map = map;
+    target.table = table;
+    target.memoryLimit = memoryLimit;
+
+    map = new HashMap<MemoryGroupByData.HashEntry, Aggregate>();
+    table = null;
+  }
+
+  /**
+   * Close the temporary files of the partial aggregates, if any.
+   */
+  public void closeSpillStreams() {
+    if ( spillStreams != null ) {
+      for ( DataOutputStream stream : spillStreams ) {
+        try {
+          if ( stream != null ) {
+            stream.close();
+          }
+        } catch ( IOException e ) {
+          // Ignore, the file is deleted anyway
+        }
+      }
+      spillStreams = null;
+    }
+  }
+
+  /**
+   * Delete the temporary files of the partial aggregates, if any.
+   */
+  public void deleteSpillFiles() {
+    if ( spillFiles != null ) {
+      for ( FileObject file : spillFiles ) {
+        try {
+          if ( file != null ) {
+            file.delete();
+          }
+        } catch ( FileSystemException e ) {
+          // Ignore, it's a temporary file
+        }
+      }
+      spillFiles = null;
+      spillCounts = null;
+    }
   }
 }
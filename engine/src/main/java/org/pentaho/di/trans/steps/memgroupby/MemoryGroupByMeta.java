@@ -138,6 +138,22 @@ public class MemoryGroupByMeta extends BaseStepMeta implements StepMetaInterface
   /** Flag to indicate that we always give back one row. Defaults to true for existing transformations. */
   private boolean alwaysGivingBackOneRow;
 
+  @Injection( name = "COMPACT_AGGREGATION" )
+  /** Flag to indicate that the groups are kept in a compact hash table when the aggregates allow it */
+  private boolean compactAggregation;
+
+  @Injection( name = "PARALLEL_AGGREGATION" )
+  /** Flag to indicate that every step copy aggregates its own rows and the last one to finish merges the results */
+  private boolean parallelAggregation;
+
+  @Injection( name = "MEMORY_LIMIT" )
+  /** The memory limit in MB for the compact hash table, partial aggregates are written to disk above it */
+  private String memoryLimit;
+
+  @Injection( name = "DIRECTORY" )
+  /** Directory to store the partial aggregates in */
+  private String directory;
+
   public MemoryGroupByMeta() {
     super(); // allocate BaseStepMeta
   }
@@ -281,6 +297,11 @@ public class MemoryGroupByMeta extends BaseStepMeta implements StepMetaInterface
       } else {
         alwaysGivingBackOneRow = "Y".equalsIgnoreCase( giveBackRow );
       }
+
+      compactAggregation = "Y".equalsIgnoreCase( XMLHandler.getTagValue( stepnode, "compact_aggregation" ) );
+      parallelAggregation = "Y".equalsIgnoreCase( XMLHandler.getTagValue( stepnode, "parallel_aggregation" ) );
+      memoryLimit = XMLHandler.getTagValue( stepnode, "memory_limit" );
+      directory = XMLHandler.getTagValue( stepnode, "directory" );
     } catch ( Exception e ) {
       throw new KettleXMLException( BaseMessages.getString(
         PKG, "MemoryGroupByMeta.Exception.UnableToLoadStepInfoFromXML" ), e );
@@ -321,6 +342,11 @@ public class MemoryGroupByMeta extends BaseStepMeta implements StepMetaInterface
     int nrfields = 0;
 
     allocate( sizegroup, nrfields );
+
+    compactAggregation = false;
+    parallelAggregation = false;
+    memoryLimit = "";
+    directory = "%%java.io.tmpdir%%";
   }
 
   @Override
@@ -437,6 +463,10 @@ public class MemoryGroupByMeta extends BaseStepMeta implements StepMetaInterface
     StringBuilder retval = new StringBuilder( 500 );
 
     retval.append( "      " ).append( XMLHandler.addTagValue( "give_back_row", alwaysGivingBackOneRow ) );
+    retval.append( "      " ).append( XMLHandler.addTagValue( "compact_aggregation", compactAggregation ) );
+    retval.append( "      " ).append( XMLHandler.addTagValue( "parallel_aggregation", parallelAggregation ) );
+    retval.append( "      " ).append( XMLHandler.addTagValue( "memory_limit", memoryLimit ) );
+    retval.append( "      " ).append( XMLHandler.addTagValue( "directory", directory ) );
 
     retval.append( "      <group>" ).append( Const.CR );
     for ( int i = 0; i < groupField.length; i++ ) {
@@ -486,6 +516,10 @@ public class MemoryGroupByMeta extends BaseStepMeta implements StepMetaInterface
       }
 
       alwaysGivingBackOneRow = rep.getStepAttributeBoolean( id_step, 0, "give_back_row", hasNumberOfValues );
+      compactAggregation = rep.getStepAttributeBoolean( id_step, "compact_aggregation" );
+      parallelAggregation = rep.getStepAttributeBoolean( id_step, "parallel_aggregation" );
+      memoryLimit = rep.getStepAttributeString( id_step, "memory_limit" );
+      directory = rep.getStepAttributeString( id_step, "directory" );
     } catch ( Exception e ) {
       throw new KettleException( BaseMessages.getString(
         PKG, "MemoryGroupByMeta.Exception.UnexpectedErrorInReadingStepInfoFromRepository" ), e );
@@ -496,6 +530,10 @@ public class MemoryGroupByMeta extends BaseStepMeta implements StepMetaInterface
   public void saveRep( Repository rep, IMetaStore metaStore, ObjectId id_transformation, ObjectId id_step ) throws KettleException {
     try {
       rep.saveStepAttribute( id_transformation, id_step, "give_back_row", alwaysGivingBackOneRow );
+      rep.saveStepAttribute( id_transformation, id_step, "compact_aggregation", compactAggregation );
+      rep.saveStepAttribute( id_transformation, id_step, "parallel_aggregation", parallelAggregation );
+      rep.saveStepAttribute( id_transformation, id_step, "memory_limit", memoryLimit );
+      rep.saveStepAttribute( id_transformation, id_step, "directory", directory );
 
       for ( int i = 0; i < groupField.length; i++ ) {
         rep.saveStepAttribute( id_transformation, id_step, i, "group_name", groupField[i] );
@@ -559,6 +597,66 @@ public class MemoryGroupByMeta extends BaseStepMeta implements StepMetaInterface
     this.alwaysGivingBackOneRow = alwaysGivingBackOneRow;
   }
 
+  /**
+   * @return true if the groups are kept in a compact hash table when the aggregates allow it
+   */
+  public boolean isCompactAggregation() {
+    return compactAggregation;
+  }
+
+  /**
+   * @param compactAggregation
+   *          true to keep the groups in a compact hash table when the aggregates allow it
+   */
+  public void setCompactAggregation( boolean compactAggregation ) {
+    this.compactAggregation = compactAggregation;
+  }
+
+  /**
+   * @return true if every step copy aggregates its own rows and the last one to finish merges the results
+   */
+  public boolean isParallelAggregation() {
+    return parallelAggregation;
+  }
+
+  /**
+   * @param parallelAggregation
+   *          true to let every step copy aggregate its own rows and the last one to finish merge the results
+   */
+  public void setParallelAggregation( boolean parallelAggregation ) {
+    this.parallelAggregation = parallelAggregation;
+  }
+
+  /**
+   * @return the memory limit of the compact hash table in MB, empty for no limit
+   */
+  public String getMemoryLimit() {
+    return memoryLimit;
+  }
+
+  /**
+   * @param memoryLimit
+   *          the memory limit of the compact hash table in MB, empty for no limit
+   */
+  public void setMemoryLimit( String memoryLimit ) {
+    this.memoryLimit = memoryLimit;
+  }
+
+  /**
+   * @return the directory to store the partial aggregates in
+   */
+  public String getDirectory() {
+    return directory;
+  }
+
+  /**
+   * @param directory
+   *          the directory to store the partial aggregates in
+   */
+  public void setDirectory( String directory ) {
+    this.directory = directory;
+  }
+
   /**
    * If we use injection we can have different arrays lengths.
    * We need synchronize them for consistency behavior with UI
@@ -0,0 +1,156 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.di.trans.steps.memgroupby;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BooleanSupplier;
+
+import org.pentaho.di.trans.Trans;
+
+/**
+ * Collects the partial aggregates of the copies of a Memory Group By step running with parallel aggregation. Every
+ * copy hands over its groups when it runs out of input and waits for the other copies. Once all of them handed over
+ * their groups or stopped without doing so, the last copy that handed over gets all the groups to merge and send out.
+ * A copy that stops without handing over its groups (because of an error for example) has to abandon, so that the
+ * other copies don't wait for it forever. The groups of the other copies are incomplete then: only a copy that was
+ * safe stopped can leave its groups out, otherwise the step fails instead of sending out a partial result.
+ *
+ * @since 11.1
+ */
+public class MemoryGroupByPartials {
+  private static final String EXTENSION_DATA_KEY = "MemoryGroupBy.Partials.";
+
+  private static final long WAIT_MILLIS = 100;
+
+  private final List<MemoryGroupByData> partials = new ArrayList<>();
+  private int running;
+  private int handedOver;
+  private int abandoned;
+  private int failed;
+
+  /**
+   * @param copies
+   *          the number of step copies that hand over their partial aggregates
+   */
+  public MemoryGroupByPartials( int copies ) {
+    this.running = copies;
+  }
+
+  /**
+   * Get the partial aggregates shared by all copies of a step in a transformation.
+   *
+   * @param trans
+   *          the transformation the step runs in
+   * @param stepname
+   *          the name of the step
+   * @param copies
+   *          the number of copies of the step
+   * @return the shared partial aggregates
+   */
+  public static MemoryGroupByPartials getInstance( Trans trans, String stepname, int copies ) {
+    synchronized ( trans ) {
+      String key = EXTENSION_DATA_KEY + stepname;
+      MemoryGroupByPartials partials = (MemoryGroupByPartials) trans.getExtensionDataMap().get( key );
+      if ( partials == null || partials.isComplete() ) {
+        partials = new MemoryGroupByPartials( copies );
+        trans.getExtensionDataMap().put( key, partials );
+      }
+      return partials;
+    }
+  }
+
+  /**
+   * Hand over the partial aggregates of a step copy.
+   *
+   * @param partial
+   *          the groups of the step copy, null if it didn't receive any rows
+   * @return the number of copies that handed over their groups so far, this one included, to pass to
+   *         {@link #await(int, BooleanSupplier)}
+   */
+  public synchronized int add( MemoryGroupByData partial ) {
+    if ( partial != null ) {
+      partials.add( partial );
+    }
+    running--;
+    notifyAll();
+    return ++handedOver;
+  }
+
+  /**
+   * Stop waiting for a step copy that won't hand over its partial aggregates.
+   *
+   * @param safeStopped
+   *          true if the copy was safe stopped, its groups can be left out then
+   */
+  public synchronized void abandon( boolean safeStopped ) {
+    running--;
+    abandoned++;
+    if ( !safeStopped ) {
+      failed++;
+    }
+    notifyAll();
+  }
+
+  /**
+   * Wait until all copies handed over their partial aggregates or abandoned.
+   *
+   * @param handedOver
+   *          the value {@link #add(MemoryGroupByData)} returned to the copy
+   * @param stopped
+   *          tells if the copy was stopped while waiting
+   * @return the partial aggregates of all copies if the copy was the last one to hand over its groups, null if it
+   *         wasn't or if it was stopped
+   * @throws InterruptedException
+   *           in case the thread was interrupted while waiting
+   */
+  public synchronized List<MemoryGroupByData> await( int handedOver, BooleanSupplier stopped )
+    throws InterruptedException {
+    while ( running > 0 ) {
+      if ( stopped.getAsBoolean() ) {
+        return null;
+      }
+      wait( WAIT_MILLIS );
+    }
+    return handedOver == this.handedOver ? partials : null;
+  }
+
+  /**
+   * @return the number of copies that stopped without handing over their partial aggregates
+   */
+  public synchronized int getAbandoned() {
+    return abandoned;
+  }
+
+  /**
+   * @return the number of copies that stopped without handing over their partial aggregates and weren't safe stopped
+   */
+  public synchronized int getFailed() {
+    return failed;
+  }
+
+  /**
+   * @return the number of copies that didn't hand over their partial aggregates or abandon yet
+   */
+  synchronized int getRunning() {
+    return running;
+  }
+
+  /**
+   * @return true if all copies handed over their partial aggregates or abandoned, for example in a previous run
+   */
+  public synchronized boolean isComplete() {
+    return running <= 0;
+  }
+}
@@ -13,6 +13,8 @@
 
 package org.pentaho.di.trans.steps.rowsfromresult;
 
+import java.util.Collections;
+
 import org.pentaho.di.core.Result;
 import org.pentaho.di.core.RowMetaAndData;
 import org.pentaho.di.core.exception.KettleException;
@@ -44,16 +46,22 @@ public class RowsFromResult extends BaseStep implements StepInterface {
   }
 
   public boolean processRow( StepMetaInterface smi, StepDataInterface sdi ) throws KettleException {
-    Result previousResult = getTrans().getPreviousResult();
-    if ( previousResult == null || getLinesRead() >= previousResult.getRows().size() ) {
+    data = (RowsFromResultData) sdi;
+
+    if ( data.rows == null ) {
+      // Iterate so that result rows spilled to disk are read back in one pass
+      //
+      Result previousResult = getTrans().getPreviousResult();
+      data.rows = previousResult == null || previousResult.getRows() == null
+        ? Collections.<RowMetaAndData>emptyIterator() : previousResult.getRows().iterator();
+    }
+    if ( !data.rows.hasNext() ) {
       setOutputDone();
       return false;
     }
-    RowMetaAndData row = previousResult.getRows().get( (int) getLinesRead() );
+    RowMetaAndData row = data.rows.next();
     incrementLinesRead();
 
-    data = (RowsFromResultData) sdi;
-
     // We don't get the meta-data from the previous steps (there aren't any) but from the previous transformation or job
     //
     data.outputRowMeta = row.getRowMeta();
@@ -13,6 +13,9 @@
 
 package org.pentaho.di.trans.steps.rowsfromresult;
 
+import java.util.Iterator;
+
+import org.pentaho.di.core.RowMetaAndData;
 import org.pentaho.di.core.row.RowMetaInterface;
 import org.pentaho.di.trans.step.BaseStepData;
 import org.pentaho.di.trans.step.StepDataInterface;
@@ -23,6 +26,7 @@ import org.pentaho.di.trans.step.StepDataInterface;
  */
 public class RowsFromResultData extends BaseStepData implements StepDataInterface {
   public RowMetaInterface outputRowMeta;
+  public Iterator<RowMetaAndData> rows;
 
   public RowsFromResultData() {
     super();
@@ -13,9 +13,9 @@
 
 package org.pentaho.di.trans.steps.rowstoresult;
 
-import java.util.ArrayList;
 import java.util.List;
 
+import org.pentaho.di.core.ResultRowStore;
 import org.pentaho.di.core.RowMetaAndData;
 import org.pentaho.di.core.row.RowMetaInterface;
 import org.pentaho.di.trans.step.BaseStepData;
@@ -32,7 +32,7 @@ public class RowsToResultData extends BaseStepData implements StepDataInterface
   public RowsToResultData() {
     super();
 
-    rows = new ArrayList<RowMetaAndData>();
+    rows = new ResultRowStore();
   }
 
 }
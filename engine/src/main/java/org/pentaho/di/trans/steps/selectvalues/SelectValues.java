@@ -331,23 +331,14 @@ public class SelectValues extends BaseStep implements StepInterface {
     meta = (SelectValuesMeta) smi;
     data = (SelectValuesData) sdi;
 
-    Object[] rowData = getRow(); // get row from rowset, wait for our turn, indicate busy!
-    if ( rowData == null ) { // no more input to be expected...
+    long linesRead = getLinesRead();
+    List<Object[]> rows = getRows( ROWS_BLOCK_SIZE ); // get rows from rowset, wait for our turn, indicate busy!
+    if ( rows == null ) { // no more input to be expected...
 
       setOutputDone();
       return false;
     }
 
-    Object[] rowCopy = null;
-    if ( getStepMeta().isDoingErrorHandling() ) {
-      rowCopy = getInputRowMeta().cloneRow( rowData );
-    }
-
-    if ( log.isRowLevel() ) {
-      logRowlevel( BaseMessages.getString( PKG, "SelectValues.Log.GotRowFromPreviousStep" )
-        + getInputRowMeta().getString( rowData ) );
-    }
-
     if ( first ) {
       first = false;
 
@@ -359,6 +350,44 @@ public class SelectValues extends BaseStep implements StepInterface {
       meta.getMetadataFields( data.metadataRowMeta, getStepname(), this );
     }
 
+    List<Object[]> outputRows = new ArrayList<>( rows.size() );
+    for ( Object[] rowData : rows ) {
+      if ( !processInputRow( rowData, outputRows ) ) {
+        putRows( data.metadataRowMeta, outputRows );
+        setOutputDone(); // signal end to receiver(s)
+        return false;
+      }
+    }
+
+    // Send the rows on their way
+    //
+    putRows( data.metadataRowMeta, outputRows );
+
+    if ( checkFeedback( linesRead, getLinesRead() ) ) {
+      logBasic( BaseMessages.getString( PKG, "SelectValues.Log.LineNumber" ) + getLinesRead() );
+    }
+
+    return true;
+  }
+
+  /**
+   * Select, remove and change the values of a single row.
+   *
+   * @param rowData    the input row
+   * @param outputRows the list of rows to pass on
+   * @return false if no more rows should be processed
+   */
+  private boolean processInputRow( Object[] rowData, List<Object[]> outputRows ) throws KettleException {
+    Object[] rowCopy = null;
+    if ( getStepMeta().isDoingErrorHandling() ) {
+      rowCopy = getInputRowMeta().cloneRow( rowData );
+    }
+
+    if ( log.isRowLevel() ) {
+      logRowlevel( BaseMessages.getString( PKG, "SelectValues.Log.GotRowFromPreviousStep" )
+        + getInputRowMeta().getString( rowData ) );
+    }
+
     try {
       Object[] outputData = rowData;
 
@@ -373,13 +402,10 @@ public class SelectValues extends BaseStep implements StepInterface {
       }
 
       if ( outputData == null ) {
-        setOutputDone(); // signal end to receiver(s)
         return false;
       }
 
-      // Send the row on its way
-      //
-      putRow( data.metadataRowMeta, outputData );
+      outputRows.add( outputData );
       if ( log.isRowLevel() ) {
         logRowlevel( BaseMessages.getString( PKG, "SelectValues.Log.WroteRowToNextStep" )
           + data.metadataRowMeta.getString( outputData ) );
@@ -399,11 +425,6 @@ public class SelectValues extends BaseStep implements StepInterface {
         throw e;
       }
     }
-
-    if ( checkFeedback( getLinesRead() ) ) {
-      logBasic( BaseMessages.getString( PKG, "SelectValues.Log.LineNumber" ) + getLinesRead() );
-    }
-
     return true;
   }
 
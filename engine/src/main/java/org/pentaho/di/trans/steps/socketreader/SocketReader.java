@@ -18,6 +18,8 @@ import java.io.BufferedOutputStream;
 import java.io.DataInputStream;
 import java.io.DataOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.PushbackInputStream;
 import java.net.Socket;
 import java.util.zip.GZIPInputStream;
 import java.util.zip.GZIPOutputStream;
@@ -30,6 +32,8 @@ import org.pentaho.di.i18n.BaseMessages;
 import org.pentaho.di.trans.Trans;
 import org.pentaho.di.trans.TransMeta;
 import org.pentaho.di.trans.step.BaseStep;
+import org.pentaho.di.trans.step.RowBlockProtocol;
+import org.pentaho.di.trans.step.RowBlockReader;
 import org.pentaho.di.trans.step.StepDataInterface;
 import org.pentaho.di.trans.step.StepInterface;
 import org.pentaho.di.trans.step.StepMeta;
@@ -81,18 +85,27 @@ public class SocketReader extends BaseStep implements StepInterface {
             data.socket = new Socket( environmentSubstitute( meta.getHostname() ), port );
             connected = true;
 
-            if ( meta.isCompressed() ) {
+            // Offer to receive the rows in blocks, an older SocketWriter simply starts sending rows
+            //
+            InputStream socketInput = data.socket.getInputStream();
+            if ( RowBlockProtocol.isEnabled() ) {
+              RowBlockProtocol.offer( data.socket );
+              PushbackInputStream pushbackInput =
+                new PushbackInputStream( socketInput, RowBlockProtocol.HANDSHAKE_LENGTH );
+              data.blockProtocol = RowBlockProtocol.isAccepted( pushbackInput );
+              socketInput = pushbackInput;
+            }
+
+            if ( meta.isCompressed() && !data.blockProtocol ) {
               data.outputStream =
                 new DataOutputStream( new BufferedOutputStream( new GZIPOutputStream( data.socket
                   .getOutputStream() ), bufferSize ) );
               data.inputStream =
-                new DataInputStream( new BufferedInputStream(
-                  new GZIPInputStream( data.socket.getInputStream() ), bufferSize ) );
+                new DataInputStream( new BufferedInputStream( new GZIPInputStream( socketInput ), bufferSize ) );
             } else {
               data.outputStream =
                 new DataOutputStream( new BufferedOutputStream( data.socket.getOutputStream(), bufferSize ) );
-              data.inputStream =
-                new DataInputStream( new BufferedInputStream( data.socket.getInputStream(), bufferSize ) );
+              data.inputStream = new DataInputStream( new BufferedInputStream( socketInput, bufferSize ) );
             }
             lastException = null;
           } catch ( Exception e ) {
@@ -128,9 +141,20 @@ public class SocketReader extends BaseStep implements StepInterface {
         }
 
         data.rowMeta = new RowMeta( data.inputStream ); // This is the metadata
+        if ( data.blockProtocol ) {
+          data.blockReader = new RowBlockReader( data.inputStream, data.rowMeta );
+        }
         first = false;
       }
-      r = data.rowMeta.readData( data.inputStream );
+      if ( data.blockReader != null ) {
+        r = data.blockReader.readRow();
+        if ( r == null ) {
+          setOutputDone(); // the writer ended the blocks
+          return false;
+        }
+      } else {
+        r = data.rowMeta.readData( data.inputStream );
+      }
 
       incrementLinesInput();
 
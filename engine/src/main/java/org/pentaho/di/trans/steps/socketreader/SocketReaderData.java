@@ -19,6 +19,7 @@ import java.net.Socket;
 
 import org.pentaho.di.core.row.RowMetaInterface;
 import org.pentaho.di.trans.step.BaseStepData;
+import org.pentaho.di.trans.step.RowBlockReader;
 import org.pentaho.di.trans.step.StepDataInterface;
 
 /**
@@ -32,6 +33,8 @@ public class SocketReaderData extends BaseStepData implements StepDataInterface
   public DataOutputStream outputStream;
   public DataInputStream inputStream;
   public RowMetaInterface rowMeta;
+  public boolean blockProtocol;
+  public RowBlockReader blockReader;
 
   public SocketReaderData() {
     super();
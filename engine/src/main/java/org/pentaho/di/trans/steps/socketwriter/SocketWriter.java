@@ -24,6 +24,8 @@ import org.pentaho.di.i18n.BaseMessages;
 import org.pentaho.di.trans.Trans;
 import org.pentaho.di.trans.TransMeta;
 import org.pentaho.di.trans.step.BaseStep;
+import org.pentaho.di.trans.step.RowBlockProtocol;
+import org.pentaho.di.trans.step.RowBlockWriter;
 import org.pentaho.di.trans.step.StepDataInterface;
 import org.pentaho.di.trans.step.StepInterface;
 import org.pentaho.di.trans.step.StepMeta;
@@ -58,8 +60,13 @@ public class SocketWriter extends BaseStep implements StepInterface {
         int bufferSize = Const.toInt( environmentSubstitute( meta.getBufferSize() ), 1000 );
 
         data.clientSocket = data.serverSocket.accept();
+        data.blockProtocol =
+          RowBlockProtocol.isEnabled()
+            && RowBlockProtocol.acceptOffer( data.clientSocket, RowBlockProtocol.HANDSHAKE_TIMEOUT );
 
-        if ( meta.isCompressed() ) {
+        // Blocks are compressed one by one
+        //
+        if ( meta.isCompressed() && !data.blockProtocol ) {
           data.outputStream =
             new DataOutputStream( new BufferedOutputStream( new GZIPOutputStream( data.clientSocket
               .getOutputStream() ), bufferSize ) );
@@ -96,6 +103,9 @@ public class SocketWriter extends BaseStep implements StepInterface {
 
     if ( r == null ) { // no more input to be expected...
 
+      if ( data.blockWriter != null ) {
+        data.blockWriter.close();
+      }
       setOutputDone();
       return false;
     }
@@ -103,14 +113,25 @@ public class SocketWriter extends BaseStep implements StepInterface {
     try {
       if ( first ) {
         getInputRowMeta().writeMeta( data.outputStream );
+        if ( data.blockProtocol ) {
+          data.blockWriter = new RowBlockWriter( data.outputStream, getInputRowMeta(), meta.isCompressed() );
+        }
         first = false;
       }
-      getInputRowMeta().writeData( data.outputStream, r );
+      if ( data.blockWriter != null ) {
+        data.blockWriter.writeRow( r );
+      } else {
+        getInputRowMeta().writeData( data.outputStream, r );
+      }
       incrementLinesOutput();
 
       // flush every X rows
       if ( getLinesOutput() > 0 && data.flushInterval > 0 && ( getLinesOutput() % data.flushInterval ) == 0 ) {
-        data.outputStream.flush();
+        if ( data.blockWriter != null ) {
+          data.blockWriter.flush();
+        } else {
+          data.outputStream.flush();
+        }
       }
 
     } catch ( Exception e ) {
@@ -18,6 +18,7 @@ import java.net.ServerSocket;
 import java.net.Socket;
 
 import org.pentaho.di.trans.step.BaseStepData;
+import org.pentaho.di.trans.step.RowBlockWriter;
 import org.pentaho.di.trans.step.StepDataInterface;
 
 /**
@@ -31,6 +32,8 @@ public class SocketWriterData extends BaseStepData implements StepDataInterface
   public int flushInterval;
   public ServerSocket serverSocket;
   int serverSocketPort;
+  public boolean blockProtocol;
+  public RowBlockWriter blockWriter;
 
   public SocketWriterData() {
     super();
@@ -0,0 +1,232 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.di.trans.steps.sort;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+import org.pentaho.di.core.exception.KettleValueException;
+import org.pentaho.di.core.row.RowMetaInterface;
+import org.pentaho.di.core.row.ValueMetaInterface;
+import org.pentaho.di.core.row.value.ValueMetaBase;
+
+/**
+ * Sorts rows on a 64 bit normalized prefix of the first sort key with a radix sort. The prefix is built so that
+ * comparing two prefixes as numbers never contradicts the row comparator: rows with a smaller prefix always sort
+ * first. Rows with equal prefixes are then put in order with the row comparator, which also takes care of the other
+ * sort keys.<br>
+ * <br>
+ * Only keys where such a prefix exists are supported: Integer, Number, Date, Boolean and String without collator and
+ * case insensitive comparison. For all other keys the rows are simply sorted with the row comparator.
+ *
+ * @since 11.1
+ */
+public class NormalizedKeySorter {
+  private static final int RADIX_BITS = 8;
+  private static final int RADIX = 1 << RADIX_BITS;
+  private static final int RADIX_MASK = RADIX - 1;
+
+  /** Below this number of rows a comparison sort is just as fast */
+  private static final int MIN_RADIX_SORT_ROWS = 64;
+
+  private final ValueMetaInterface keyMeta;
+  private final int keyIndex;
+  private final Comparator<Object[]> rowComparator;
+
+  public NormalizedKeySorter( RowMetaInterface rowMeta, int[] fieldNrs, Comparator<Object[]> rowComparator ) {
+    this.rowComparator = rowComparator;
+    if ( fieldNrs.length > 0 && isSupported( rowMeta.getValueMeta( fieldNrs[0] ) ) ) {
+      keyIndex = fieldNrs[0];
+      keyMeta = rowMeta.getValueMeta( keyIndex );
+    } else {
+      keyIndex = -1;
+      keyMeta = null;
+    }
+  }
+
+  /**
+   * @param valueMeta
+   *          the metadata of the first sort key
+   * @return true if a normalized prefix can be calculated for the values of this key
+   */
+  public static boolean isSupported( ValueMetaInterface valueMeta ) {
+    if ( !( valueMeta instanceof ValueMetaBase ) || ( (ValueMetaBase) valueMeta ).getComparator() != null ) {
+      return false;
+    }
+    switch ( valueMeta.getType() ) {
+      case ValueMetaInterface.TYPE_INTEGER:
+      case ValueMetaInterface.TYPE_NUMBER:
+      case ValueMetaInterface.TYPE_DATE:
+      case ValueMetaInterface.TYPE_BOOLEAN:
+        return true;
+      case ValueMetaInterface.TYPE_STRING:
+        return valueMeta.isCollatorDisabled() && !valueMeta.isCaseInsensitive();
+      default:
+        return false;
+    }
+  }
+
+  /**
+   * @return true if the rows are sorted on a normalized prefix, false if only the row comparator is used
+   */
+  public boolean isUsingPrefix() {
+    return keyMeta != null;
+  }
+
+  /**
+   * Sort the rows in place.
+   *
+   * @param rows
+   *          the rows to sort
+   * @throws KettleValueException
+   *           in case a key value can't be converted
+   */
+  public void sort( List<Object[]> rows ) throws KettleValueException {
+    int size = rows.size();
+    if ( keyMeta == null || size < MIN_RADIX_SORT_ROWS ) {
+      rows.sort( rowComparator );
+      return;
+    }
+
+    long[] keys = new long[size];
+    int[] order = new int[size];
+    for ( int i = 0; i < size; i++ ) {
+      // Flip the sign bit so that the radix sort can treat the prefixes as unsigned numbers
+      //
+      keys[i] = normalizedKey( rows.get( i )[keyIndex] ) ^ Long.MIN_VALUE;
+      order[i] = i;
+    }
+    radixSort( keys, order );
+
+    Object[][] sorted = new Object[size][];
+    for ( int i = 0; i < size; i++ ) {
+      sorted[i] = rows.get( order[i] );
+    }
+
+    // Put the rows with the same prefix in order
+    //
+    int start = 0;
+    for ( int i = 1; i <= size; i++ ) {
+      if ( i == size || keys[i] != keys[start] ) {
+        if ( i - start > 1 ) {
+          Arrays.sort( sorted, start, i, rowComparator );
+        }
+        start = i;
+      }
+    }
+
+    for ( int i = 0; i < size; i++ ) {
+      rows.set( i, sorted[i] );
+    }
+  }
+
+  /**
+   * Calculate the normalized prefix of a key value. Nulls sort first in ascending order and last in descending order,
+   * just like {@link ValueMetaInterface#compare(Object, Object)} does.
+   */
+  long normalizedKey( Object data ) throws KettleValueException {
+    long key;
+    if ( keyMeta.isNull( data ) ) {
+      key = Long.MIN_VALUE;
+    } else {
+      switch ( keyMeta.getType() ) {
+        case ValueMetaInterface.TYPE_INTEGER:
+          key = keyMeta.getInteger( data );
+          break;
+        case ValueMetaInterface.TYPE_NUMBER:
+          // Negative numbers have their bits reversed so the order is the one of Double.compare()
+          //
+          long bits = Double.doubleToLongBits( keyMeta.getNumber( data ) );
+          key = bits ^ ( ( bits >> 63 ) & Long.MAX_VALUE );
+          break;
+        case ValueMetaInterface.TYPE_DATE:
+          key = keyMeta.getDate( data ).getTime();
+          break;
+        case ValueMetaInterface.TYPE_BOOLEAN:
+          key = keyMeta.getBoolean( data ) ? 1L : 0L;
+          break;
+        default:
+          String string = keyMeta.getString( data );
+          key = stringPrefix( keyMeta.isIgnoreWhitespace() ? string.trim() : string );
+          break;
+      }
+    }
+    return keyMeta.isSortedDescending() ? ~key : key;
+  }
+
+  /**
+   * The first 4 UTF-16 characters packed in a long, in the same order as {@link String#compareTo(String)}.
+   */
+  private static long stringPrefix( String string ) {
+    long prefix = 0L;
+    for ( int i = 0; i < 4; i++ ) {
+      prefix <<= 16;
+      if ( i < string.length() ) {
+        prefix |= string.charAt( i );
+      }
+    }
+    return prefix ^ Long.MIN_VALUE;
+  }
+
+  /**
+   * Least significant digit radix sort of unsigned keys, moving the row order along. Passes where all keys have the
+   * same digit are skipped.
+   */
+  static void radixSort( long[] keys, int[] order ) {
+    int size = keys.length;
+    if ( size < 2 ) {
+      return;
+    }
+    long[] sourceKeys = keys;
+    int[] sourceOrder = order;
+    long[] targetKeys = new long[size];
+    int[] targetOrder = new int[size];
+    int[] counts = new int[RADIX];
+
+    for ( int shift = 0; shift < Long.SIZE; shift += RADIX_BITS ) {
+      Arrays.fill( counts, 0 );
+      for ( int i = 0; i < size; i++ ) {
+        counts[(int) ( sourceKeys[i] >>> shift ) & RADIX_MASK]++;
+      }
+      if ( counts[(int) ( sourceKeys[0] >>> shift ) & RADIX_MASK] == size ) {
+        continue;
+      }
+
+      int total = 0;
+      for ( int digit = 0; digit < RADIX; digit++ ) {
+        int count = counts[digit];
+        counts[digit] = total;
+        total += count;
+      }
+      for ( int i = 0; i < size; i++ ) {
+        int position = counts[(int) ( sourceKeys[i] >>> shift ) & RADIX_MASK]++;
+        targetKeys[position] = sourceKeys[i];
+        targetOrder[position] = sourceOrder[i];
+      }
+
+      long[] swapKeys = sourceKeys;
+      sourceKeys = targetKeys;
+      targetKeys = swapKeys;
+      int[] swapOrder = sourceOrder;
+      sourceOrder = targetOrder;
+      targetOrder = swapOrder;
+    }
+
+    if ( sourceKeys != keys ) {
+      System.arraycopy( sourceKeys, 0, keys, 0, size );
+      System.arraycopy( sourceOrder, 0, order, 0, size );
+    }
+  }
+}
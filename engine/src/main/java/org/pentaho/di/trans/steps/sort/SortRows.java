@@ -25,6 +25,9 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.zip.Deflater;
 import java.util.zip.GZIPInputStream;
 import java.util.zip.GZIPOutputStream;
 
@@ -36,6 +39,7 @@ import org.pentaho.di.core.exception.KettleFileException;
 import org.pentaho.di.core.exception.KettleValueException;
 import org.pentaho.di.core.row.RowMetaInterface;
 import org.pentaho.di.core.row.ValueMetaInterface;
+import org.pentaho.di.core.util.ExecutorUtil;
 import org.pentaho.di.core.vfs.KettleVFS;
 import org.pentaho.di.i18n.BaseMessages;
 import org.pentaho.di.trans.Trans;
@@ -119,68 +123,27 @@ public class SortRows extends BaseStep implements StepInterface {
       return;
     }
 
-    // First sort the rows in buffer[]
-    quickSort( data.buffer );
-
-    // Then write them to disk...
-    DataOutputStream dos;
-    GZIPOutputStream gzos;
-    int p;
-
     try {
       FileObject fileObject =
           KettleVFS.getInstance( getTransMeta().getBowl() )
             .createTempFile( meta.getPrefix(), ".tmp", environmentSubstitute( meta.getDirectory() ), getTransMeta() );
 
       data.files.add( fileObject ); // Remember the files!
-      OutputStream outputStream = KettleVFS.getInstance( getTransMeta().getBowl() )
-        .getOutputStream( fileObject, false );
-      if ( data.compressFiles ) {
-        gzos = new GZIPOutputStream( new BufferedOutputStream( outputStream ) );
-        dos = new DataOutputStream( gzos );
-      } else {
-        dos = new DataOutputStream( new BufferedOutputStream( outputStream, 500000 ) );
-        gzos = null;
-      }
 
-      // Just write the data, nothing else
-      List<Integer> duplicates = new ArrayList<Integer>();
-      Object[] previousRow = null;
-      if ( meta.isOnlyPassingUniqueRows() ) {
-        int index = 0;
-        while ( index < data.buffer.size() ) {
-          Object[] row = data.buffer.get( index );
-          if ( previousRow != null ) {
-            int result = data.outputRowMeta.compare( row, previousRow, data.fieldnrs );
-            if ( result == 0 ) {
-              duplicates.add( index );
-              if ( log.isRowLevel() ) {
-                logRowlevel( BaseMessages.getString( PKG, "SortRows.RowLevel.DuplicateRowRemoved", data.outputRowMeta
-                    .getString( row ) ) );
-              }
-            }
-          }
-          index++;
-          previousRow = row;
-        }
+      if ( isSpillingInBackground() ) {
+        // Sort and write the full buffer in another thread while we keep on reading rows.
+        // Only one buffer is written at a time so we hold at most twice the sort size in memory.
+        //
+        waitForSpill();
+        final List<Object[]> rows = data.buffer;
+        data.buffer = new ArrayList<Object[]>( rows.size() );
+        data.pendingSpill = ExecutorUtil.getExecutor().submit( () -> writeSortedRows( fileObject, rows ) );
+        data.getBufferIndex = 0;
+        return;
       }
 
       // How many records do we have left?
-      data.bufferSizes.add( data.buffer.size() - duplicates.size() );
-
-      int duplicatesIndex = 0;
-      for ( p = 0; p < data.buffer.size(); p++ ) {
-        boolean skip = false;
-        if ( duplicatesIndex < duplicates.size() ) {
-          if ( p == duplicates.get( duplicatesIndex ) ) {
-            skip = true;
-            duplicatesIndex++;
-          }
-        }
-        if ( !skip ) {
-          data.outputRowMeta.writeData( dos, data.buffer.get( p ) );
-        }
-      }
+      data.bufferSizes.add( writeSortedRows( fileObject, data.buffer ) );
 
       if ( data.sortSize < 0 ) {
         if ( data.buffer.size() > data.minSortSize ) {
@@ -198,13 +161,6 @@ public class SortRows extends BaseStep implements StepInterface {
       // Clear the list
       data.buffer.clear();
 
-      // Close temp-file
-      dos.close(); // close data stream
-      if ( gzos != null ) {
-        gzos.close(); // close gzip stream
-      }
-      outputStream.close(); // close file stream
-
       // How much memory do we have left?
       //
       data.freeMemoryPct = Const.getPercentageFreeMemory();
@@ -222,6 +178,103 @@ public class SortRows extends BaseStep implements StepInterface {
     data.getBufferIndex = 0;
   }
 
+  /**
+   * Sort the rows and write them to the temp file.
+   *
+   * @return the number of rows written
+   */
+  private int writeSortedRows( FileObject fileObject, List<Object[]> rows ) throws KettleException, IOException {
+    // First sort the rows in buffer[]
+    quickSort( rows );
+
+    // Then write them to disk...
+    DataOutputStream dos;
+    GZIPOutputStream gzos;
+    int p;
+
+    OutputStream outputStream = KettleVFS.getInstance( getTransMeta().getBowl() )
+      .getOutputStream( fileObject, false );
+    if ( data.compressFiles ) {
+      if ( data.highPerformanceSort ) {
+        gzos = new FastGZIPOutputStream( new BufferedOutputStream( outputStream, 500000 ) );
+      } else {
+        gzos = new GZIPOutputStream( new BufferedOutputStream( outputStream ) );
+      }
+      dos = new DataOutputStream( gzos );
+    } else {
+      dos = new DataOutputStream( new BufferedOutputStream( outputStream, 500000 ) );
+      gzos = null;
+    }
+
+    // Just write the data, nothing else
+    List<Integer> duplicates = new ArrayList<Integer>();
+    Object[] previousRow = null;
+    if ( meta.isOnlyPassingUniqueRows() ) {
+      int index = 0;
+      while ( index < rows.size() ) {
+        Object[] row = rows.get( index );
+        if ( previousRow != null ) {
+          int result = data.outputRowMeta.compare( row, previousRow, data.fieldnrs );
+          if ( result == 0 ) {
+            duplicates.add( index );
+            if ( log.isRowLevel() ) {
+              logRowlevel( BaseMessages.getString( PKG, "SortRows.RowLevel.DuplicateRowRemoved", data.outputRowMeta
+                  .getString( row ) ) );
+            }
+          }
+        }
+        index++;
+        previousRow = row;
+      }
+    }
+
+    int duplicatesIndex = 0;
+    for ( p = 0; p < rows.size(); p++ ) {
+      boolean skip = false;
+      if ( duplicatesIndex < duplicates.size() ) {
+        if ( p == duplicates.get( duplicatesIndex ) ) {
+          skip = true;
+          duplicatesIndex++;
+        }
+      }
+      if ( !skip ) {
+        data.outputRowMeta.writeData( dos, rows.get( p ) );
+      }
+    }
+
+    // Close temp-file
+    dos.close(); // close data stream
+    if ( gzos != null ) {
+      gzos.close(); // close gzip stream
+    }
+    outputStream.close(); // close file stream
+
+    return rows.size() - duplicates.size();
+  }
+
+  private boolean isSpillingInBackground() {
+    return data.highPerformanceSort && data.sortSize > 0;
+  }
+
+  /**
+   * Wait until the temp file that is written in the background is complete.
+   */
+  private void waitForSpill() throws KettleException {
+    if ( data.pendingSpill == null ) {
+      return;
+    }
+    try {
+      data.bufferSizes.add( data.pendingSpill.get() );
+    } catch ( InterruptedException e ) {
+      Thread.currentThread().interrupt();
+      throw new KettleException( "Interrupted while writing temp-file!", e );
+    } catch ( ExecutionException e ) {
+      throw new KettleException( "Error processing temp-file!", e.getCause() );
+    } finally {
+      data.pendingSpill = null;
+    }
+  }
+
   private DataInputStream getDataInputStream( GZIPInputStream gzipInputStream ) {
     DataInputStream result = new DataInputStream( gzipInputStream );
     data.gzis.add( gzipInputStream );
@@ -251,7 +304,11 @@ public class SortRows extends BaseStep implements StepInterface {
           DataInputStream di;
           data.fis.add( fi );
           if ( data.compressFiles ) {
-            di = getDataInputStream( new GZIPInputStream( new BufferedInputStream( fi ) ) );
+            if ( data.highPerformanceSort ) {
+              di = getDataInputStream( new GZIPInputStream( new BufferedInputStream( fi, 65536 ), 65536 ) );
+            } else {
+              di = getDataInputStream( new GZIPInputStream( new BufferedInputStream( fi ) ) );
+            }
           } else {
             di = new DataInputStream( new BufferedInputStream( fi, 50000 ) );
           }
@@ -268,7 +325,11 @@ public class SortRows extends BaseStep implements StepInterface {
           if ( buffersize > 0 ) {
             Object[] row = data.outputRowMeta.readData( di );
             data.rowbuffer.add( row ); // new row from input stream
-            data.tempRows.add( new RowTempFile( row, f ) );
+            if ( data.mergeHeap != null ) {
+              data.mergeHeap.add( new RowTempFile( row, f ) );
+            } else {
+              data.tempRows.add( new RowTempFile( row, f ) );
+            }
           }
         }
 
@@ -304,7 +365,7 @@ public class SortRows extends BaseStep implements StepInterface {
           }
         }
 
-        RowTempFile rowTempFile = data.tempRows.remove( 0 );
+        RowTempFile rowTempFile = data.mergeHeap != null ? data.mergeHeap.poll() : data.tempRows.remove( 0 );
         retval = rowTempFile.row;
         int smallest = rowTempFile.fileNumber;
 
@@ -318,11 +379,15 @@ public class SortRows extends BaseStep implements StepInterface {
           Object[] row2 = data.outputRowMeta.readData( di );
           RowTempFile extra = new RowTempFile( row2, smallest );
 
-          int index = Collections.binarySearch( data.tempRows, extra, data.comparator );
-          if ( index < 0 ) {
-            data.tempRows.add( index * ( -1 ) - 1, extra );
+          if ( data.mergeHeap != null ) {
+            data.mergeHeap.add( extra );
           } else {
-            data.tempRows.add( index, extra );
+            int index = Collections.binarySearch( data.tempRows, extra, data.comparator );
+            if ( index < 0 ) {
+              data.tempRows.add( index * ( -1 ) - 1, extra );
+            } else {
+              data.tempRows.add( index, extra );
+            }
           }
         } catch ( KettleFileException fe ) { // empty file or EOF mostly
           GZIPInputStream gzfi = ( data.compressFiles ) ? data.gzis.get( smallest ) : null;
@@ -351,7 +416,7 @@ public class SortRows extends BaseStep implements StepInterface {
           // Also update all file numbers in in data.tempRows if they are larger
           // than smallest.
           //
-          for ( RowTempFile rtf : data.tempRows ) {
+          for ( RowTempFile rtf : data.mergeHeap != null ? data.mergeHeap : data.tempRows ) {
             if ( rtf.fileNumber > smallest ) {
               rtf.fileNumber--;
             }
@@ -431,6 +496,14 @@ public class SortRows extends BaseStep implements StepInterface {
         i++;
       }
       data.rowComparator = new RowObjectArrayComparator( data.outputRowMeta, data.fieldnrs );
+
+      if ( data.highPerformanceSort ) {
+        data.sorter = new NormalizedKeySorter( data.outputRowMeta, data.fieldnrs, data.rowComparator );
+        data.mergeHeap = new PriorityQueue<RowTempFile>( 16, data.comparator );
+        if ( log.isDetailed() && !data.sorter.isUsingPrefix() ) {
+          logDetailed( BaseMessages.getString( PKG, "SortRows.Detailed.NoNormalizedKey", fieldNames[0] ) );
+        }
+      }
     } // end if first
 
     // it is not first row and it is null
@@ -568,6 +641,7 @@ public class SortRows extends BaseStep implements StepInterface {
     data.rowbuffer = new ArrayList<Object[]>( 5000 );
 
     data.compressFiles = getBooleanValueOfVariable( meta.getCompressFilesVariable(), meta.getCompressFiles() );
+    data.highPerformanceSort = meta.isHighPerformanceSort();
 
     data.tempRows = new ArrayList<RowTempFile>();
 
@@ -583,6 +657,14 @@ public class SortRows extends BaseStep implements StepInterface {
   }
 
   private void clearBuffers() {
+    // don't delete the temp files while one of them is still being written
+    if ( data.pendingSpill != null ) {
+      try {
+        waitForSpill();
+      } catch ( KettleException e ) {
+        logError( e.getLocalizedMessage(), e );
+      }
+    }
 
     // Clean out the sort buffer
     data.buffer.clear();
@@ -619,7 +701,11 @@ public class SortRows extends BaseStep implements StepInterface {
    */
   void quickSort( List<Object[]> elements ) throws KettleException {
     if ( elements.size() > 0 ) {
-      Collections.sort( elements, data.rowComparator );
+      if ( data.sorter != null ) {
+        data.sorter.sort( elements );
+      } else {
+        Collections.sort( elements, data.rowComparator );
+      }
 
       long nrConversions = 0L;
       for ( ValueMetaInterface valueMeta : data.outputRowMeta.getValueMetaList() ) {
@@ -647,6 +733,7 @@ public class SortRows extends BaseStep implements StepInterface {
     if ( data.files.size() > 0 ) {
       // dump to dist and then read from disk
       sortExternalRows();
+      waitForSpill();
     } else {
       // sort in memory
       quickSort( data.buffer );
@@ -670,6 +757,16 @@ public class SortRows extends BaseStep implements StepInterface {
     }
   }
 
+  /**
+   * GZIP compression at the fastest level: temp files are read back only once so speed matters more than size.
+   */
+  private static class FastGZIPOutputStream extends GZIPOutputStream {
+    FastGZIPOutputStream( OutputStream out ) throws IOException {
+      super( out, 65536 );
+      def.setLevel( Deflater.BEST_SPEED );
+    }
+  }
+
   private class SortRowsComparator {
     protected RowMetaInterface rowMeta;
     protected int[] fieldNrs;
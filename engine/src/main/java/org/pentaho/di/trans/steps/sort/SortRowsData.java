@@ -18,6 +18,8 @@ import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.Future;
 import java.util.zip.GZIPInputStream;
 
 import org.apache.commons.vfs2.FileObject;
@@ -43,6 +45,12 @@ public class SortRowsData extends BaseStepData implements StepDataInterface {
   // To store rows and file references
   public List<RowTempFile> tempRows;
 
+  // High performance sort: prefix sorter, merge heap and the temp file being written in the background
+  public boolean highPerformanceSort;
+  NormalizedKeySorter sorter;
+  PriorityQueue<RowTempFile> mergeHeap;
+  Future<Integer> pendingSpill;
+
   public int[] fieldnrs; // the corresponding field numbers;
   public FileObject fil;
   public RowMetaInterface outputRowMeta;
@@ -113,6 +113,13 @@ public class SortRowsMeta extends BaseStepMeta implements StepMetaInterface, Ser
   /** The variable to use to set the compressFiles option boolean */
   private String compressFilesVariable;
 
+  /**
+   * High performance sort: sort on normalized key prefixes, compress temporary files with the fastest level, merge them
+   * with a heap and write full buffers to disk in the background
+   */
+  @Injection( name = "HIGH_PERFORMANCE_SORT" )
+  private boolean highPerformanceSort;
+
   public SortRowsMeta() {
     super(); // allocate BaseStepMeta
   }
@@ -218,6 +225,7 @@ public class SortRowsMeta extends BaseStepMeta implements StepMetaInterface, Ser
       compressFiles = "Y".equalsIgnoreCase( XMLHandler.getTagValue( stepnode, "compress" ) );
       compressFilesVariable = XMLHandler.getTagValue( stepnode, "compress_variable" );
       onlyPassingUniqueRows = "Y".equalsIgnoreCase( XMLHandler.getTagValue( stepnode, "unique_rows" ) );
+      highPerformanceSort = "Y".equalsIgnoreCase( XMLHandler.getTagValue( stepnode, "high_performance" ) );
 
       Node fields = XMLHandler.getSubNode( stepnode, "fields" );
       int nrfields = XMLHandler.countNodes( fields, "field" );
@@ -254,6 +262,7 @@ public class SortRowsMeta extends BaseStepMeta implements StepMetaInterface, Ser
     compressFiles = false;
     compressFilesVariable = null;
     onlyPassingUniqueRows = false;
+    highPerformanceSort = false;
 
     int nrfields = 0;
 
@@ -284,6 +293,7 @@ public class SortRowsMeta extends BaseStepMeta implements StepMetaInterface, Ser
     retval.append( "      " ).append( XMLHandler.addTagValue( "compress", compressFiles ) );
     retval.append( "      " ).append( XMLHandler.addTagValue( "compress_variable", compressFilesVariable ) );
     retval.append( "      " ).append( XMLHandler.addTagValue( "unique_rows", onlyPassingUniqueRows ) );
+    retval.append( "      " ).append( XMLHandler.addTagValue( "high_performance", highPerformanceSort ) );
 
     retval.append( "    <fields>" ).append( Const.CR );
     for ( int i = 0; i < fieldName.length; i++ ) {
@@ -314,6 +324,7 @@ public class SortRowsMeta extends BaseStepMeta implements StepMetaInterface, Ser
       compressFilesVariable = rep.getStepAttributeString( id_step, "compress_variable" );
 
       onlyPassingUniqueRows = rep.getStepAttributeBoolean( id_step, "unique_rows" );
+      highPerformanceSort = rep.getStepAttributeBoolean( id_step, "high_performance" );
 
       int nrfields = rep.countNrStepAttributes( id_step, "field_name" );
 
@@ -366,6 +377,7 @@ public class SortRowsMeta extends BaseStepMeta implements StepMetaInterface, Ser
       rep.saveStepAttribute( id_transformation, id_step, "compress", compressFiles );
       rep.saveStepAttribute( id_transformation, id_step, "compress_variable", compressFilesVariable );
       rep.saveStepAttribute( id_transformation, id_step, "unique_rows", onlyPassingUniqueRows );
+      rep.saveStepAttribute( id_transformation, id_step, "high_performance", highPerformanceSort );
 
       for ( int i = 0; i < fieldName.length; i++ ) {
         rep.saveStepAttribute( id_transformation, id_step, i, "field_name", fieldName[i] );
@@ -559,6 +571,21 @@ public class SortRowsMeta extends BaseStepMeta implements StepMetaInterface, Ser
     this.onlyPassingUniqueRows = onlyPassingUniqueRows;
   }
 
+  /**
+   * @return true if the high performance sort algorithm is used
+   */
+  public boolean isHighPerformanceSort() {
+    return highPerformanceSort;
+  }
+
+  /**
+   * @param highPerformanceSort
+   *          true to use the high performance sort algorithm
+   */
+  public void setHighPerformanceSort( boolean highPerformanceSort ) {
+    this.highPerformanceSort = highPerformanceSort;
+  }
+
   /**
    * @return the compressFilesVariable
    */
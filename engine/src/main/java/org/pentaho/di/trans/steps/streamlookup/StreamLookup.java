@@ -18,7 +18,9 @@ import org.pentaho.di.core.RowSet;
 import org.pentaho.di.core.exception.KettleException;
 import org.pentaho.di.core.exception.KettleStepException;
 import org.pentaho.di.core.exception.KettleValueException;
+import org.pentaho.di.core.hash.ByteArrayArenaHashIndex;
 import org.pentaho.di.core.hash.ByteArrayHashIndex;
+import org.pentaho.di.core.logging.Metrics;
 import org.pentaho.di.core.row.RowDataUtil;
 import org.pentaho.di.core.row.RowMeta;
 import org.pentaho.di.core.row.RowMetaInterface;
@@ -141,11 +143,21 @@ public class StreamLookup extends BaseStep implements StepInterface {
     int[] valueNrs = new int[meta.getValue().length];
     boolean firstRun = true;
 
+    // With a shared index every lookup row only needs to be added once: if the lookup step copies its rows to all
+    // step copies instead of distributing them, the first copy adds them and the others skip theirs.
+    //
+    boolean adding = data.sharedIndex == null || getCopy() == 0 || data.infoStream.getStepMeta().isDistributes();
+
     // Which row set do we read from?
     //
     RowSet rowSet = findInputRowSet( data.infoStream.getStepname() );
     Object[] rowData = getRowFrom( rowSet ); // rows are originating from "lookup_from"
     while ( rowData != null ) {
+      if ( !adding ) {
+        rowData = getRowFrom( rowSet );
+        continue;
+      }
+
       if ( log.isRowLevel() ) {
         logRowlevel( BaseMessages.getString( PKG, "StreamLookup.Log.ReadLookupRow" )
           + rowSet.getRowMeta().getString( rowData ) );
@@ -209,6 +221,26 @@ public class StreamLookup extends BaseStep implements StepInterface {
       rowData = getRowFrom( rowSet );
     }
 
+    if ( data.sharedIndex != null ) {
+      data.sharedIndex.loaded( data );
+      try {
+        if ( !data.sharedIndex.waitUntilLoaded( this, data ) ) {
+          return true; // stopped, nothing to look up
+        }
+      } catch ( InterruptedException e ) {
+        throw new KettleStepException(
+          BaseMessages.getString( PKG, "StreamLookup.Exception.InterruptedWaitingForIndex" ), e );
+      }
+    }
+
+    if ( data.compactIndex != null && ( data.sharedIndex == null || getCopy() == 0 ) ) {
+      log.snap( Metrics.METRIC_STEP_LOOKUP_MEMORY, data.compactIndex.getMemoryUsage() );
+      if ( log.isDetailed() ) {
+        logDetailed( BaseMessages.getString( PKG, "StreamLookup.Log.CompactIndexMemory",
+          String.valueOf( data.compactIndex.getSize() ), String.valueOf( data.compactIndex.getMemoryUsage() ) ) );
+      }
+    }
+
     return true;
   }
 
@@ -286,7 +318,18 @@ public class StreamLookup extends BaseStep implements StepInterface {
   private void addToCache( RowMetaInterface keyMeta, Object[] keyData, RowMetaInterface valueMeta,
     Object[] valueData ) throws KettleValueException {
     if ( meta.isMemoryPreservationActive() ) {
-      if ( meta.isUsingSortedList() ) {
+      if ( meta.isUsingCompactIndex() ) {
+        byte[] key = RowMeta.extractData( keyMeta, keyData );
+        byte[] value = RowMeta.extractData( valueMeta, valueData );
+        if ( data.sharedIndex != null ) {
+          data.sharedIndex.put( key, value );
+        } else {
+          if ( data.compactIndex == null ) {
+            data.compactIndex = new ByteArrayArenaHashIndex( meta.isOffHeap() );
+          }
+          data.compactIndex.put( key, value );
+        }
+      } else if ( meta.isUsingSortedList() ) {
         KeyValue keyValue = new KeyValue( keyData, valueData );
         int idx = Collections.binarySearch( data.list, keyValue, data.comparator );
         if ( idx < 0 ) {
@@ -328,7 +371,13 @@ public class StreamLookup extends BaseStep implements StepInterface {
 
   private Object[] getFromCache( RowMetaInterface keyMeta, Object[] keyData ) throws KettleValueException {
     if ( meta.isMemoryPreservationActive() ) {
-      if ( meta.isUsingSortedList() ) {
+      if ( meta.isUsingCompactIndex() ) {
+        byte[] value = data.compactIndex.get( RowMeta.extractData( keyMeta, keyData ) );
+        if ( value == null ) {
+          return null;
+        }
+        return RowMeta.getRow( data.cacheValueMeta, value );
+      } else if ( meta.isUsingSortedList() ) {
         KeyValue keyValue = new KeyValue( keyData, null );
         int idx = Collections.binarySearch( data.list, keyValue, data.comparator );
         if ( idx < 0 ) {
@@ -460,6 +509,11 @@ public class StreamLookup extends BaseStep implements StepInterface {
     if ( super.init( smi, sdi ) ) {
       data.readLookupValues = true;
 
+      int copies = getStepMeta().getCopies();
+      if ( meta.isMemoryPreservationActive() && meta.isUsingCompactIndex() && meta.isSharingIndex() && copies > 1 ) {
+        data.sharedIndex = StreamLookupSharedIndex.getInstance( getTrans(), getStepname(), copies, meta.isOffHeap() );
+      }
+
       return true;
     }
 
@@ -474,6 +528,8 @@ public class StreamLookup extends BaseStep implements StepInterface {
     data.list = null;
     data.hashIndex = null;
     data.longIndex = null;
+    data.compactIndex = null;
+    data.sharedIndex = null;
 
     super.dispose( smi, sdi );
   }
@@ -21,6 +21,7 @@ import java.util.Map;
 
 import org.pentaho.di.core.RowMetaAndData;
 import org.pentaho.di.core.exception.KettleValueException;
+import org.pentaho.di.core.hash.ByteArrayArenaHashIndex;
 import org.pentaho.di.core.hash.ByteArrayHashIndex;
 import org.pentaho.di.core.hash.LongHashIndex;
 import org.pentaho.di.core.row.RowMetaInterface;
@@ -65,6 +66,12 @@ public class StreamLookupData extends BaseStepData implements StepDataInterface
   public ByteArrayHashIndex hashIndex;
   public LongHashIndex longIndex;
 
+  /** The compact hash index, null unless it's used or no lookup rows were added yet */
+  public ByteArrayArenaHashIndex compactIndex;
+
+  /** The compact hash index shared between the step copies, null if every copy builds its own */
+  public StreamLookupSharedIndex sharedIndex;
+
   public RowMetaInterface lookupMeta;
 
   public RowMetaInterface infoMeta;
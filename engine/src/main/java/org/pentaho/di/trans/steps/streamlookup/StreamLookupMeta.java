@@ -94,6 +94,18 @@ public class StreamLookupMeta extends BaseStepMeta implements StepMetaInterface
   @Injection( name = "INTEGER_PAIR" )
   private boolean usingIntegerPair;
 
+  /** Indicate that we want to pack the keys and values into byte pages with a compact hash index */
+  @Injection( name = "COMPACT_INDEX" )
+  private boolean usingCompactIndex;
+
+  /** Store the keys and values of the compact hash index outside of the Java heap */
+  @Injection( name = "OFF_HEAP" )
+  private boolean offHeap;
+
+  /** Build the compact hash index once and share it between the step copies */
+  @Injection( name = "SHARE_INDEX" )
+  private boolean sharingIndex;
+
   public StreamLookupMeta() {
     super(); // allocate BaseStepMeta
   }
@@ -156,6 +168,9 @@ public class StreamLookupMeta extends BaseStepMeta implements StepMetaInterface
       setMemoryPreservationActive( "Y".equalsIgnoreCase( XMLHandler.getTagValue( stepnode, "preserve_memory" ) ) );
       setUsingSortedList( "Y".equalsIgnoreCase( XMLHandler.getTagValue( stepnode, "sorted_list" ) ) );
       setUsingIntegerPair( "Y".equalsIgnoreCase( XMLHandler.getTagValue( stepnode, "integer_pair" ) ) );
+      setUsingCompactIndex( "Y".equalsIgnoreCase( XMLHandler.getTagValue( stepnode, "compact_index" ) ) );
+      setOffHeap( "Y".equalsIgnoreCase( XMLHandler.getTagValue( stepnode, "off_heap" ) ) );
+      setSharingIndex( "Y".equalsIgnoreCase( XMLHandler.getTagValue( stepnode, "share_index" ) ) );
 
       Node lookup = XMLHandler.getSubNode( stepnode, "lookup" );
       nrkeys = XMLHandler.countNodes( lookup, "key" );
@@ -204,6 +219,9 @@ public class StreamLookupMeta extends BaseStepMeta implements StepMetaInterface
     setMemoryPreservationActive( true );
     setUsingSortedList( false );
     setUsingIntegerPair( false );
+    setUsingCompactIndex( false );
+    setOffHeap( false );
+    setSharingIndex( false );
 
     allocate( 0, 0 );
   }
@@ -247,6 +265,9 @@ public class StreamLookupMeta extends BaseStepMeta implements StepMetaInterface
     retval.append( "    " ).append( XMLHandler.addTagValue( "preserve_memory", isMemoryPreservationActive() ) );
     retval.append( "    " ).append( XMLHandler.addTagValue( "sorted_list", isUsingSortedList() ) );
     retval.append( "    " ).append( XMLHandler.addTagValue( "integer_pair", isUsingIntegerPair() ) );
+    retval.append( "    " ).append( XMLHandler.addTagValue( "compact_index", isUsingCompactIndex() ) );
+    retval.append( "    " ).append( XMLHandler.addTagValue( "off_heap", isOffHeap() ) );
+    retval.append( "    " ).append( XMLHandler.addTagValue( "share_index", isSharingIndex() ) );
 
     retval.append( "    <lookup>" ).append( Const.CR );
     for ( int i = 0; i < getKeystream().length; i++ ) {
@@ -281,6 +302,9 @@ public class StreamLookupMeta extends BaseStepMeta implements StepMetaInterface
       setMemoryPreservationActive( rep.getStepAttributeBoolean( id_step, "preserve_memory" ) );
       setUsingSortedList( rep.getStepAttributeBoolean( id_step, "sorted_list" ) );
       setUsingIntegerPair( rep.getStepAttributeBoolean( id_step, "integer_pair" ) );
+      setUsingCompactIndex( rep.getStepAttributeBoolean( id_step, "compact_index" ) );
+      setOffHeap( rep.getStepAttributeBoolean( id_step, "off_heap" ) );
+      setSharingIndex( rep.getStepAttributeBoolean( id_step, "share_index" ) );
 
       int nrkeys = rep.countNrStepAttributes( id_step, "lookup_key_name" );
       int nrvalues = rep.countNrStepAttributes( id_step, "return_value_name" );
@@ -318,6 +342,9 @@ public class StreamLookupMeta extends BaseStepMeta implements StepMetaInterface
       rep.saveStepAttribute( id_transformation, id_step, "preserve_memory", isMemoryPreservationActive() );
       rep.saveStepAttribute( id_transformation, id_step, "sorted_list", isUsingSortedList() );
       rep.saveStepAttribute( id_transformation, id_step, "integer_pair", isUsingIntegerPair() );
+      rep.saveStepAttribute( id_transformation, id_step, "compact_index", isUsingCompactIndex() );
+      rep.saveStepAttribute( id_transformation, id_step, "off_heap", isOffHeap() );
+      rep.saveStepAttribute( id_transformation, id_step, "share_index", isSharingIndex() );
 
       for ( int i = 0; i < getKeystream().length; i++ ) {
         rep.saveStepAttribute( id_transformation, id_step, i, "lookup_key_name", getKeystream()[i] );
@@ -660,6 +687,51 @@ public class StreamLookupMeta extends BaseStepMeta implements StepMetaInterface
     this.usingIntegerPair = usingIntegerPair;
   }
 
+  /**
+   * @return true if the keys and values are packed into byte pages with a compact hash index
+   */
+  public boolean isUsingCompactIndex() {
+    return usingCompactIndex;
+  }
+
+  /**
+   * @param usingCompactIndex
+   *          true to pack the keys and values into byte pages with a compact hash index
+   */
+  public void setUsingCompactIndex( boolean usingCompactIndex ) {
+    this.usingCompactIndex = usingCompactIndex;
+  }
+
+  /**
+   * @return true if the keys and values of the compact hash index are stored outside of the Java heap
+   */
+  public boolean isOffHeap() {
+    return offHeap;
+  }
+
+  /**
+   * @param offHeap
+   *          true to store the keys and values of the compact hash index outside of the Java heap
+   */
+  public void setOffHeap( boolean offHeap ) {
+    this.offHeap = offHeap;
+  }
+
+  /**
+   * @return true if the compact hash index is built once and shared between the step copies
+   */
+  public boolean isSharingIndex() {
+    return sharingIndex;
+  }
+
+  /**
+   * @param sharingIndex
+   *          true to build the compact hash index once and share it between the step copies
+   */
+  public void setSharingIndex( boolean sharingIndex ) {
+    this.sharingIndex = sharingIndex;
+  }
+
   /**
    * If we use injection we can have different arrays lengths.
    * We need synchronize them for consistency behavior with UI
@@ -0,0 +1,137 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.di.trans.steps.streamlookup;
+
+import org.pentaho.di.core.hash.ByteArrayArenaHashIndex;
+import org.pentaho.di.core.row.RowMetaInterface;
+import org.pentaho.di.trans.Trans;
+import org.pentaho.di.trans.step.StepInterface;
+
+/**
+ * A compact lookup index built once and shared by all copies of a Stream Lookup step. Every copy adds the lookup
+ * rows it reads, then waits until all copies are done before looking up rows in the index.
+ *
+ * @since 11.1
+ */
+public class StreamLookupSharedIndex {
+  private static final String EXTENSION_DATA_KEY = "StreamLookup.SharedIndex.";
+
+  private final ByteArrayArenaHashIndex index;
+  private int loading;
+
+  private RowMetaInterface keyTypes;
+  private RowMetaInterface cacheKeyMeta;
+  private RowMetaInterface cacheValueMeta;
+  private RowMetaInterface infoMeta;
+
+  /**
+   * @param copies
+   *          the number of step copies that load lookup rows
+   * @param offHeap
+   *          true to store the keys and values outside of the Java heap
+   */
+  public StreamLookupSharedIndex( int copies, boolean offHeap ) {
+    this.index = new ByteArrayArenaHashIndex( offHeap );
+    this.loading = copies;
+  }
+
+  /**
+   * Get the index shared by all copies of a step in a transformation.
+   *
+   * @param trans
+   *          the transformation the step runs in
+   * @param stepname
+   *          the name of the step
+   * @param copies
+   *          the number of copies of the step
+   * @param offHeap
+   *          true to store the keys and values outside of the Java heap
+   * @return the shared index
+   */
+  public static StreamLookupSharedIndex getInstance( Trans trans, String stepname, int copies, boolean offHeap ) {
+    synchronized ( trans ) {
+      String key = EXTENSION_DATA_KEY + stepname;
+      StreamLookupSharedIndex sharedIndex = (StreamLookupSharedIndex) trans.getExtensionDataMap().get( key );
+      if ( sharedIndex == null || sharedIndex.isUsed() ) {
+        sharedIndex = new StreamLookupSharedIndex( copies, offHeap );
+        trans.getExtensionDataMap().put( key, sharedIndex );
+      }
+      return sharedIndex;
+    }
+  }
+
+  /**
+   * Add a lookup row, replacing the value of the key if it was added before.
+   *
+   * @param key
+   *          the serialized key
+   * @param value
+   *          the serialized value
+   */
+  public synchronized void put( byte[] key, byte[] value ) {
+    index.put( key, value );
+  }
+
+  /**
+   * Signal that a step copy added all its lookup rows.
+   *
+   * @param data
+   *          the data of the step copy, its metadata is kept if it read any lookup rows
+   */
+  public synchronized void loaded( StreamLookupData data ) {
+    if ( data.hasLookupRows && cacheKeyMeta == null ) {
+      keyTypes = data.keyTypes;
+      cacheKeyMeta = data.cacheKeyMeta;
+      cacheValueMeta = data.cacheValueMeta;
+      infoMeta = data.infoMeta;
+    }
+    loading--;
+    notifyAll();
+  }
+
+  /**
+   * Wait until all copies added their lookup rows, then hand the index and the metadata of the lookup rows to a step
+   * copy.
+   *
+   * @param step
+   *          the step copy waiting
+   * @param data
+   *          the data of the step copy
+   * @return false if the step was stopped while waiting
+   * @throws InterruptedException
+   *           in case the thread was interrupted
+   */
+  public synchronized boolean waitUntilLoaded( StepInterface step, StreamLookupData data )
+    throws InterruptedException {
+    while ( loading > 0 ) {
+      if ( step.isStopped() ) {
+        return false;
+      }
+      wait( 100 );
+    }
+    data.compactIndex = index;
+    if ( cacheKeyMeta != null ) {
+      data.hasLookupRows = true;
+      data.keyTypes = keyTypes;
+      data.cacheKeyMeta = cacheKeyMeta;
+      data.cacheValueMeta = cacheValueMeta;
+      data.infoMeta = infoMeta;
+    }
+    return true;
+  }
+
+  private synchronized boolean isUsed() {
+    return loading <= 0;
+  }
+}
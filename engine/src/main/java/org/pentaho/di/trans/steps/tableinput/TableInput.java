@@ -18,6 +18,7 @@ import java.sql.SQLException;
 import java.util.Map;
 import java.util.concurrent.locks.ReentrantLock;
 
+import com.google.common.annotations.VisibleForTesting;
 import org.json.simple.JSONObject;
 import org.pentaho.di.core.Const;
 import org.pentaho.di.core.RowMetaAndData;
@@ -146,7 +147,7 @@ public class TableInput extends BaseDatabaseStep implements StepInterface {
         if ( data.thisrow != null ) { // We can expect more rows
 
           try {
-            data.nextrow = data.db.getRow( data.rs, meta.isLazyConversionActive() );
+            data.nextrow = getNextRow();
           } catch ( KettleDatabaseException e ) {
             if ( e.getCause() instanceof SQLException && isStopped() ) {
               //This exception indicates we tried reading a row after the statment for this step was cancelled
@@ -217,11 +218,50 @@ public class TableInput extends BaseDatabaseStep implements StepInterface {
   }
 
   private void closePreviousQuery() throws KettleDatabaseException {
+    if ( data.fetcher != null ) {
+      data.fetcher.close();
+      data.fetcher = null;
+    }
     if ( data.db != null ) {
       data.db.closeQuery( data.rs );
     }
   }
 
+  private Object[] getNextRow() throws KettleDatabaseException {
+    if ( data.fetcher != null ) {
+      return data.fetcher.next();
+    }
+    return data.db.getRow( data.rs, meta.isLazyConversionActive() );
+  }
+
+  /**
+   * With a partition column and several copies of the step, every copy only reads the rows with its own remainder of
+   * the column divided by the number of copies. The rows with a null value are read by the first copy. With a row limit
+   * only the first copy reads rows, so that the limit applies to all the copies together.
+   */
+  @VisibleForTesting
+  String getPartitionedSQL( TableInputMeta meta, String sql ) {
+    String column = environmentSubstitute( meta.getPartitionColumn() );
+    int copies = getStepMeta().getCopies();
+    if ( Utils.isEmpty( column ) || copies <= 1 ) {
+      return sql;
+    }
+
+    String condition;
+    if ( Const.toInt( environmentSubstitute( meta.getRowLimit() ), 0 ) > 0 ) {
+      if ( getCopy() == 0 ) {
+        return sql;
+      }
+      condition = "1 = 0";
+    } else {
+      condition = "ABS( " + meta.getDatabaseMeta().getSQLModulo( column, copies ) + " ) = " + getCopy();
+      if ( getCopy() == 0 ) {
+        condition = "( " + condition + " OR " + column + " IS NULL )";
+      }
+    }
+    return TableInputSQL.addCondition( sql, condition );
+  }
+
   private boolean doQuery( RowMetaInterface parametersMeta, Object[] parameters ) throws KettleDatabaseException {
     boolean success = true;
 
@@ -233,6 +273,8 @@ public class TableInput extends BaseDatabaseStep implements StepInterface {
       sql = meta.getSQL();
     }
 
+    sql = getPartitionedSQL( meta, sql );
+
     if ( log.isDetailed() ) {
       logDetailed( BaseMessages.getString( PKG, "TableInput.Log.SqlQuery", sql ) );
     }
@@ -259,11 +301,17 @@ public class TableInput extends BaseDatabaseStep implements StepInterface {
         }
       }
 
+      if ( meta.isPrefetchRows() ) {
+        data.fetcher = new TableInputFetcher( data.db, data.rs, data.rowMeta, getTrans().getStepThreadFactory(),
+          getStepname() + "." + getCopy() + " - fetcher", log );
+        data.fetcher.start();
+      }
+
       // Get the first row...
-      data.thisrow = data.db.getRow( data.rs );
+      data.thisrow = getNextRow();
       if ( data.thisrow != null ) {
         incrementLinesInput();
-        data.nextrow = data.db.getRow( data.rs );
+        data.nextrow = getNextRow();
         if ( data.nextrow != null ) {
           incrementLinesInput();
         }
@@ -328,6 +376,7 @@ public class TableInput extends BaseDatabaseStep implements StepInterface {
         }
         data.infoStream = meta.getStepIOMeta().getInfoStreams().get( 0 );
         data.db.setQueryLimit( Const.toInt( environmentSubstitute( meta.getRowLimit() ), 0 ) );
+        data.db.setFetchSize( Const.toInt( environmentSubstitute( meta.getFetchSize() ), 0 ) );
 
         if ( meta.getDatabaseMeta().isRequiringTransactionsOnQueries() ) {
           data.db.setCommitSize( 100 ); // needed for PGSQL it seems...
@@ -35,6 +35,7 @@ public class TableInputData extends BaseDatabaseStepData implements StepDataInte
   public RowSet rowSet;
   public boolean isCanceled;
   public StreamInterface infoStream;
+  public TableInputFetcher fetcher;
 
   public TableInputData() {
     super();
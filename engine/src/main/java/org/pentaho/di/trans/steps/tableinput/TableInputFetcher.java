@@ -0,0 +1,178 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.di.trans.steps.tableinput;
+
+import java.sql.ResultSet;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+import org.pentaho.di.core.database.Database;
+import org.pentaho.di.core.database.ResultSetRowReader;
+import org.pentaho.di.core.exception.KettleDatabaseException;
+import org.pentaho.di.core.logging.LogChannelInterface;
+import org.pentaho.di.core.row.RowMetaInterface;
+import org.pentaho.di.trans.step.StepThreadFactory;
+
+/**
+ * Reads the rows of a query in a separate thread so that fetching rows from the database and sending them to the
+ * next steps happen at the same time. The rows are read a page at a time into a small queue the step takes them from.
+ *
+ * @since 11.1
+ */
+public class TableInputFetcher {
+  public static final int PAGE_SIZE = 1000;
+
+  static final int QUEUE_SIZE = 4;
+
+  /**
+   * A number of consecutive rows of the query.
+   */
+  static final class Page {
+    final Object[][] rows;
+    int size;
+
+    Page( int capacity ) {
+      this.rows = new Object[capacity][];
+    }
+  }
+
+  private static final Page END = new Page( 0 );
+
+  private final Database db;
+  private final ResultSet rs;
+  private final ResultSetRowReader reader;
+  private final BlockingQueue<Page> filled = new ArrayBlockingQueue<>( QUEUE_SIZE );
+  private final BlockingQueue<Page> free = new ArrayBlockingQueue<>( QUEUE_SIZE + 2 );
+  private final Thread thread;
+
+  private volatile Throwable error;
+  private volatile boolean closed;
+
+  private Page page;
+  private int position;
+  private boolean ended;
+
+  /**
+   * @param db
+   *          the database the query was opened on
+   * @param rs
+   *          the resultset of the query
+   * @param rowMeta
+   *          the metadata of the rows of the query
+   * @param threadFactory
+   *          creates the fetching thread, the same kind of thread the step runs in
+   * @param threadName
+   *          the name of the fetching thread
+   * @param log
+   *          the log channel of the step
+   */
+  public TableInputFetcher( Database db, ResultSet rs, RowMetaInterface rowMeta, StepThreadFactory threadFactory,
+                            String threadName, LogChannelInterface log ) {
+    this.db = db;
+    this.rs = rs;
+    this.reader = new ResultSetRowReader( db.getDatabaseMeta(), rowMeta );
+    this.thread = threadFactory.newThread( this::fetchRows, threadName, log );
+    this.thread.setDaemon( true );
+  }
+
+  /**
+   * Start fetching rows.
+   */
+  public void start() {
+    thread.start();
+  }
+
+  private void fetchRows() {
+    try {
+      while ( !closed ) {
+        Page next = free.poll();
+        if ( next == null ) {
+          next = new Page( PAGE_SIZE );
+        }
+        next.size = db.getRows( rs, reader, next.rows );
+        if ( next.size > 0 ) {
+          filled.put( next );
+        }
+        if ( next.size < PAGE_SIZE ) {
+          break;
+        }
+      }
+    } catch ( InterruptedException e ) {
+      // Closed while waiting for the step
+      return;
+    } catch ( Throwable e ) {
+      error = e;
+    }
+
+    try {
+      if ( !closed ) {
+        filled.put( END );
+      }
+    } catch ( InterruptedException e ) {
+      // Closed while waiting for the step
+    }
+  }
+
+  /**
+   * @return the next row of the query or null if all rows were read
+   * @throws KettleDatabaseException
+   *           in case the rows couldn't be fetched
+   */
+  public Object[] next() throws KettleDatabaseException {
+    while ( page == null || position >= page.size ) {
+      if ( ended ) {
+        return null;
+      }
+      if ( page != null ) {
+        free.offer( page );
+        page = null;
+      }
+      Page next;
+      try {
+        next = filled.take();
+      } catch ( InterruptedException e ) {
+        Thread.currentThread().interrupt();
+        throw new KettleDatabaseException( e );
+      }
+      if ( next == END ) {
+        ended = true;
+        if ( error instanceof KettleDatabaseException ) {
+          throw (KettleDatabaseException) error;
+        }
+        if ( error != null ) {
+          throw new KettleDatabaseException( "Couldn't get row from result set", error );
+        }
+        return null;
+      }
+      page = next;
+      position = 0;
+    }
+    Object[] row = page.rows[position];
+    page.rows[position++] = null;
+    return row;
+  }
+
+  /**
+   * Stop fetching rows and wait for the fetching thread, the resultset can be closed afterwards.
+   */
+  public void close() {
+    closed = true;
+    thread.interrupt();
+    try {
+      thread.join();
+    } catch ( InterruptedException e ) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
@@ -85,6 +85,15 @@ public class TableInputMeta extends BaseDatabaseStepMeta implements StepMetaInte
   @Injection( name = "CACHED_ROW_META" )
   private boolean cachedRowMetaActive;
 
+  @Injection( name = "PREFETCH_ROWS" )
+  private boolean prefetchRows;
+
+  @Injection( name = "FETCH_SIZE" )
+  private String fetchSize;
+
+  @Injection( name = "PARTITION_COLUMN" )
+  private String partitionColumn;
+
   private RowMetaInterface cachedRowMeta;
 
   public TableInputMeta() {
@@ -181,6 +190,9 @@ public class TableInputMeta extends BaseDatabaseStepMeta implements StepMetaInte
       variableReplacementActive = "Y".equals( XMLHandler.getTagValue( stepnode, "variables_active" ) );
       lazyConversionActive = "Y".equals( XMLHandler.getTagValue( stepnode, "lazy_conversion_active" ) );
       cachedRowMetaActive = "Y".equals( XMLHandler.getTagValue( stepnode, "cached_row_meta_active" ) );
+      prefetchRows = "Y".equals( XMLHandler.getTagValue( stepnode, "prefetch_rows" ) );
+      fetchSize = XMLHandler.getTagValue( stepnode, "fetch_size" );
+      partitionColumn = XMLHandler.getTagValue( stepnode, "partition_column" );
       cachedRowMeta = new RowMeta( XMLHandler.getSubNode( stepnode, RowMeta.XML_META_TAG ) );
 
     } catch ( Exception e ) {
@@ -192,6 +204,9 @@ public class TableInputMeta extends BaseDatabaseStepMeta implements StepMetaInte
     databaseMeta = null;
     sql = "SELECT <values> FROM <table name> WHERE <conditions>";
     rowLimit = "0";
+    prefetchRows = false;
+    fetchSize = "0";
+    partitionColumn = null;
   }
 
   protected Database getDatabase() {
@@ -301,6 +316,9 @@ public class TableInputMeta extends BaseDatabaseStepMeta implements StepMetaInte
     retval.append( "    " + XMLHandler.addTagValue( "variables_active", variableReplacementActive ) );
     retval.append( "    " + XMLHandler.addTagValue( "lazy_conversion_active", lazyConversionActive ) );
     retval.append( "    " + XMLHandler.addTagValue( "cached_row_meta_active", cachedRowMetaActive ) );
+    retval.append( "    " + XMLHandler.addTagValue( "prefetch_rows", prefetchRows ) );
+    retval.append( "    " + XMLHandler.addTagValue( "fetch_size", fetchSize ) );
+    retval.append( "    " + XMLHandler.addTagValue( "partition_column", partitionColumn ) );
     storeCachedRowMeta( retval );
     return retval.toString();
   }
@@ -354,6 +372,9 @@ public class TableInputMeta extends BaseDatabaseStepMeta implements StepMetaInte
       variableReplacementActive = rep.getStepAttributeBoolean( id_step, "variables_active" );
       lazyConversionActive = rep.getStepAttributeBoolean( id_step, "lazy_conversion_active" );
       cachedRowMetaActive = rep.getStepAttributeBoolean( id_step, "cached_row_meta_active" );
+      prefetchRows = rep.getStepAttributeBoolean( id_step, "prefetch_rows" );
+      fetchSize = rep.getStepAttributeString( id_step, "fetch_size" );
+      partitionColumn = rep.getStepAttributeString( id_step, "partition_column" );
 
       String sRowMeta = rep.getStepAttributeString( id_step, RowMeta.XML_META_TAG );
       if ( sRowMeta != null ) {
@@ -380,6 +401,9 @@ public class TableInputMeta extends BaseDatabaseStepMeta implements StepMetaInte
       rep.saveStepAttribute( id_transformation, id_step, "variables_active", variableReplacementActive );
       rep.saveStepAttribute( id_transformation, id_step, "lazy_conversion_active", lazyConversionActive );
       rep.saveStepAttribute( id_transformation, id_step, "cached_row_meta_active", cachedRowMetaActive );
+      rep.saveStepAttribute( id_transformation, id_step, "prefetch_rows", prefetchRows );
+      rep.saveStepAttribute( id_transformation, id_step, "fetch_size", fetchSize );
+      rep.saveStepAttribute( id_transformation, id_step, "partition_column", partitionColumn );
       if ( cachedRowMeta != null ) {
         rep.saveStepAttribute( id_transformation, id_step, RowMeta.XML_META_TAG, cachedRowMeta.getMetaXML() );
       }
@@ -620,6 +644,51 @@ public class TableInputMeta extends BaseDatabaseStepMeta implements StepMetaInte
     this.cachedRowMeta = cachedRowMeta;
   }
 
+  /**
+   * @return true if the rows are fetched from the database in a separate thread
+   */
+  public boolean isPrefetchRows() {
+    return prefetchRows;
+  }
+
+  /**
+   * @param prefetchRows
+   *          true to fetch the rows from the database in a separate thread
+   */
+  public void setPrefetchRows( boolean prefetchRows ) {
+    this.prefetchRows = prefetchRows;
+  }
+
+  /**
+   * @return the number of rows the driver fetches in one round trip, 0 for the default of the database type
+   */
+  public String getFetchSize() {
+    return fetchSize;
+  }
+
+  /**
+   * @param fetchSize
+   *          the number of rows the driver fetches in one round trip, 0 for the default of the database type
+   */
+  public void setFetchSize( String fetchSize ) {
+    this.fetchSize = fetchSize;
+  }
+
+  /**
+   * @return the numeric column the rows of the query are divided on between the copies of the step
+   */
+  public String getPartitionColumn() {
+    return partitionColumn;
+  }
+
+  /**
+   * @param partitionColumn
+   *          the numeric column the rows of the query are divided on between the copies of the step
+   */
+  public void setPartitionColumn( String partitionColumn ) {
+    this.partitionColumn = partitionColumn;
+  }
+
   /**
    * Returns the Input/Output metadata for this step. The generator step only produces output, does not accept input!
    */
@@ -0,0 +1,165 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.di.trans.steps.tableinput;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+import org.pentaho.di.core.Const;
+
+/**
+ * Adds a condition to the freehand SQL of a Table input step. The condition is added to the WHERE clause of a simple
+ * query, before its ORDER BY. Other queries, with a GROUP BY, a UNION, a row limit, ... are wrapped in a sub-query the
+ * condition is applied to. The columns of the condition then refer to the result of the query, and an ORDER BY in the
+ * query is not kept on every database.
+ *
+ * @since 11.1
+ */
+final class TableInputSQL {
+
+  /**
+   * The top level keywords that change which rows a condition in the WHERE clause would apply to.
+   */
+  private static final Set<String> NOT_SIMPLE = new HashSet<>( Arrays.asList( "UNION", "INTERSECT", "EXCEPT", "MINUS",
+    "GROUP", "HAVING", "TOP", "LIMIT", "OFFSET", "FETCH", "FOR", "WINDOW", "QUALIFY", "CONNECT", "START", "INTO" ) );
+
+  private TableInputSQL() {
+  }
+
+  /**
+   * A word outside of parentheses, literals, quoted identifiers and comments.
+   */
+  private static final class Word {
+    final String text;
+    final int start;
+    final int end;
+
+    Word( String text, int start, int end ) {
+      this.text = text;
+      this.start = start;
+      this.end = end;
+    }
+  }
+
+  /**
+   * @param sql
+   *          the query
+   * @param condition
+   *          the condition to add
+   * @return the query only returning the rows matching the condition as well
+   */
+  static String addCondition( String sql, String condition ) {
+    int[] codeEnd = new int[1];
+    List<Word> words = getTopLevelWords( sql, codeEnd );
+    String query = sql.substring( 0, codeEnd[0] );
+    if ( query.endsWith( ";" ) ) {
+      query = query.substring( 0, query.length() - 1 );
+    }
+
+    Word where = null;
+    Word orderBy = null;
+    boolean simple = !words.isEmpty() && words.get( 0 ).text.equals( "SELECT" );
+    for ( int i = 1; i < words.size() && simple; i++ ) {
+      Word word = words.get( i );
+      if ( NOT_SIMPLE.contains( word.text ) ) {
+        simple = false;
+      } else if ( word.text.equals( "WHERE" ) ) {
+        simple = where == null && orderBy == null;
+        where = word;
+      } else if ( word.text.equals( "ORDER" ) ) {
+        simple = orderBy == null && i + 1 < words.size() && words.get( i + 1 ).text.equals( "BY" );
+        orderBy = word;
+        i++;
+      }
+    }
+
+    if ( !simple ) {
+      return "SELECT * FROM ( " + Const.CR + query + Const.CR + " ) kettle_partition WHERE " + condition;
+    }
+
+    int end = orderBy == null ? query.length() : orderBy.start;
+    String head = Const.rtrim( query.substring( 0, end ) );
+    String tail = orderBy == null ? "" : " " + query.substring( end );
+    if ( where == null ) {
+      return head + " WHERE " + condition + tail;
+    }
+    return head.substring( 0, where.end ) + " ( " + head.substring( where.end ).trim() + " ) AND " + condition + tail;
+  }
+
+  /**
+   * @param codeEnd
+   *          receives the end of the query, without trailing comments and whitespace
+   * @return the top level words of the query in upper case
+   */
+  private static List<Word> getTopLevelWords( String sql, int[] codeEnd ) {
+    List<Word> words = new ArrayList<>();
+    int depth = 0;
+    int i = 0;
+    int length = sql.length();
+    while ( i < length ) {
+      char c = sql.charAt( i );
+      if ( Character.isWhitespace( c ) ) {
+        i++;
+        continue;
+      }
+      if ( c == '-' && i + 1 < length && sql.charAt( i + 1 ) == '-' ) {
+        i = skipTo( sql, i + 2, "\n" );
+        continue;
+      }
+      if ( c == '/' && i + 1 < length && sql.charAt( i + 1 ) == '*' ) {
+        i = skipTo( sql, i + 2, "*/" );
+        continue;
+      }
+      int start = i;
+      if ( c == '\'' || c == '"' || c == '`' ) {
+        i = skipTo( sql, i + 1, String.valueOf( c ) );
+      } else if ( c == '[' ) {
+        i = skipTo( sql, i + 1, "]" );
+      } else if ( isWordCharacter( c ) ) {
+        while ( i < length && isWordCharacter( sql.charAt( i ) ) ) {
+          i++;
+        }
+        if ( depth == 0 ) {
+          words.add( new Word( sql.substring( start, i ).toUpperCase( Locale.ROOT ), start, i ) );
+        }
+      } else {
+        if ( c == '(' ) {
+          depth++;
+        } else if ( c == ')' ) {
+          depth--;
+        }
+        i++;
+      }
+      codeEnd[0] = i;
+    }
+    return words;
+  }
+
+  private static boolean isWordCharacter( char c ) {
+    return Character.isLetterOrDigit( c ) || c == '_' || c == '$' || c == '#';
+  }
+
+  /**
+   * @return the position after the end marker or the end of the query. A doubled quote in a literal is skipped as two
+   *         literals.
+   */
+  private static int skipTo( String sql, int from, String end ) {
+    int index = sql.indexOf( end, from );
+    return index < 0 ? sql.length() : index + end.length();
+  }
+}
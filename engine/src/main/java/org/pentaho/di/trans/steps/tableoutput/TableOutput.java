@@ -73,6 +73,16 @@ public class TableOutput extends BaseDatabaseStep implements StepInterface {
       if ( first && meta.truncateTable() ) {
         truncateTable();
       }
+      if ( data.parallelWriter != null ) {
+        try {
+          data.parallelWriter.flush();
+          putWrittenBatches( true );
+        } catch ( KettleException e ) {
+          logError( "Because of an error, this step can't continue: ", e );
+          setErrors( 1 );
+          stopAll();
+        }
+      }
       return false;
     }
 
@@ -116,6 +126,21 @@ public class TableOutput extends BaseDatabaseStep implements StepInterface {
           }
         }
       }
+
+      if ( data.parallelWriters > 1 ) {
+        String sql =
+          data.db.getInsertStatement( environmentSubstitute( meta.getSchemaName() ), data.tableName, data.insertRowMeta );
+        if ( log.isDetailed() ) {
+          logDetailed( "Prepared statement : " + sql );
+        }
+        data.parallelWriter =
+          new TableOutputParallelWriter( this, data.databaseMeta, getPartitionID(), sql, data.insertRowMeta,
+            data.parallelWriters, data.commitSize, meta.isOrderedCommit(), getStepMeta().isDoingErrorHandling() );
+        if ( log.isBasic() ) {
+          logBasic( BaseMessages.getString( PKG, "TableOutput.Log.ParallelWriters", data.parallelWriters,
+            data.commitSize ) );
+        }
+      }
     }
 
     try {
@@ -236,6 +261,12 @@ public class TableOutput extends BaseDatabaseStep implements StepInterface {
       throw new KettleStepException( "The tablename is not defined (empty)" );
     }
 
+    if ( data.parallelWriter != null ) {
+      data.parallelWriter.addRow( outputRowData, insertRowData );
+      putWrittenBatches( false );
+      return null;
+    }
+
     insertStatement = data.preparedStatements.get( tableName );
     if ( insertStatement == null ) {
       String sql =
@@ -428,14 +459,56 @@ public class TableOutput extends BaseDatabaseStep implements StepInterface {
     return log.isRowLevel();
   }
 
+  /**
+   * Pass on the rows of the batches the parallel writers are done with, or send them to the error handling.
+   *
+   * @param wait
+   *          true to wait for all batches that are being written
+   */
+  private void putWrittenBatches( boolean wait ) throws KettleException {
+    for ( TableOutputParallelWriter.Batch batch : data.parallelWriter.getWrittenBatches( wait ) ) {
+      if ( batch.skipped ) {
+        // Rolled back because an earlier batch failed, that batch stops the step
+        continue;
+      }
+      if ( batch.failure != null ) {
+        if ( !getStepMeta().isDoingErrorHandling() ) {
+          throw new KettleException( "Error inserting rows into table [" + data.tableName + "]", batch.failure );
+        }
+        for ( Object[] row : batch.rows ) {
+          putError( data.outputRowMeta, row, 1L, batch.failure.toString(), null, "TOP001" );
+        }
+      } else if ( batch.batchException != null ) {
+        KettleDatabaseBatchException be = batch.batchException;
+        if ( !getStepMeta().isDoingErrorHandling() ) {
+          throw new KettleException( "Error batch inserting rows into table [" + data.tableName + "].", be );
+        }
+        processBatchException( be.toString(), be.getUpdateCounts(), be.getExceptionsList(), batch.rows );
+      } else {
+        for ( Object[] row : batch.rows ) {
+          putRow( data.outputRowMeta, row );
+          incrementLinesOutput();
+        }
+      }
+    }
+  }
+
   private void processBatchException( String errorMessage, int[] updateCounts, List<Exception> exceptionsList ) throws KettleException {
+    processBatchException( errorMessage, updateCounts, exceptionsList, data.batchBuffer );
+
+    // Clear the buffer afterwards...
+    data.batchBuffer.clear();
+  }
+
+  private void processBatchException( String errorMessage, int[] updateCounts, List<Exception> exceptionsList,
+    List<Object[]> rows ) throws KettleException {
     // There was an error with the commit
     // We should put all the failing rows out there...
     //
     if ( updateCounts != null ) {
       int errNr = 0;
       for ( int i = 0; i < updateCounts.length; i++ ) {
-        Object[] row = data.batchBuffer.get( i );
+        Object[] row = rows.get( i );
         if ( updateCounts[i] > 0 ) {
           // send the error foward
           putRow( data.outputRowMeta, row );
@@ -454,14 +527,10 @@ public class TableOutput extends BaseDatabaseStep implements StepInterface {
       // If we don't have update counts, it probably means the DB doesn't support it.
       // In this case we don't have a choice but to consider all inserted rows to be error rows.
       //
-      for ( int i = 0; i < data.batchBuffer.size(); i++ ) {
-        Object[] row = data.batchBuffer.get( i );
+      for ( Object[] row : rows ) {
         putError( data.outputRowMeta, row, 1L, errorMessage, null, "TOP0003" );
       }
     }
-
-    // Clear the buffer afterwards...
-    data.batchBuffer.clear();
   }
 
   public boolean init( StepMetaInterface smi, StepDataInterface sdi ) {
@@ -520,6 +589,14 @@ public class TableOutput extends BaseDatabaseStep implements StepInterface {
           data.tableName = environmentSubstitute( meta.getTableName() );
         }
 
+        // Parallel writers insert whole batches into a single table, on connections of their own
+        data.parallelWriters = Const.toInt( environmentSubstitute( meta.getParallelWriters() ), 0 );
+        if ( data.parallelWriters > 1
+          && ( data.tableName == null || !data.db.getUseBatchInsert( data.batchMode ) ) ) {
+          logBasic( BaseMessages.getString( PKG, "TableOutput.Log.ParallelWritersNotSupported" ) );
+          data.parallelWriters = 0;
+        }
+
         return true;
       } catch ( KettleException e ) {
         logError( "An error occurred intialising this step: " + e.getMessage() );
@@ -544,6 +621,11 @@ public class TableOutput extends BaseDatabaseStep implements StepInterface {
         data.db.truncateTable( environmentSubstitute( meta.getSchemaName() ), environmentSubstitute( meta
           .getTableName() ) );
 
+        // The parallel writers insert on connections of their own and this connection never commits anything else:
+        // release the locks of the truncate right away or the writers wait for them forever.
+        if ( data.parallelWriters > 1 ) {
+          data.db.commit();
+        }
       }
     }
   }
@@ -552,6 +634,11 @@ public class TableOutput extends BaseDatabaseStep implements StepInterface {
     meta = (TableOutputMeta) smi;
     data = (TableOutputData) sdi;
 
+    if ( data.parallelWriter != null ) {
+      data.parallelWriter.close();
+      data.parallelWriter = null;
+    }
+
     if ( data.db != null ) {
       try {
         for ( String schemaTable : data.preparedStatements.keySet() ) {
@@ -69,6 +69,10 @@ public class TableOutputData extends BaseDatabaseStepData implements StepDataInt
 
   public int commitSize;
 
+  /** The number of connections the batches are inserted on at the same time, 0 to insert on the step connection */
+  public int parallelWriters;
+  public TableOutputParallelWriter parallelWriter;
+
   public TableOutputData() {
     super();
 
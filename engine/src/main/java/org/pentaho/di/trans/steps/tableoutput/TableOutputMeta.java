@@ -99,6 +99,20 @@ public class TableOutputMeta extends BaseDatabaseStepMeta implements StepMetaInt
   }
   private boolean useBatchUpdate;
 
+  /**
+   * The number of connections that insert batches of rows at the same time, 0 or 1 to insert on the step connection
+   */
+  @Injection( name = "PARALLEL_WRITERS" )
+  private String parallelWriters;
+
+  /**
+   * Commit the batches of the parallel writers in the order of the rows
+   */
+  @Injection( name = "ORDERED_COMMIT" )
+  public void metaSetOrderedCommit( String value ) {
+    setOrderedCommit( "Y".equalsIgnoreCase( value ) );
+  }
+  private boolean orderedCommit;
 
   @Injection( name = "PARTITION_OVER_TABLES" )
   public void metaSetPartitionOverTables( String value ) {
@@ -287,6 +301,8 @@ public class TableOutputMeta extends BaseDatabaseStepMeta implements StepMetaInt
     super(); // allocate BaseStepMeta
     useBatchUpdate = true;
     commitSize = "1000";
+    parallelWriters = "0";
+    orderedCommit = true;
 
     fieldStream = new String[ 0 ];
     fieldDatabase = new String[ 0 ];
@@ -348,6 +364,38 @@ public class TableOutputMeta extends BaseDatabaseStepMeta implements StepMetaInt
     this.commitSize = commitSize;
   }
 
+  /**
+   * @return the number of connections that insert batches of rows at the same time
+   */
+  public String getParallelWriters() {
+    return parallelWriters;
+  }
+
+  /**
+   * @param parallelWriters
+   *          the number of connections that insert batches of rows at the same time, 0 or 1 to insert on the step
+   *          connection
+   */
+  public void setParallelWriters( String parallelWriters ) {
+    this.parallelWriters = parallelWriters;
+  }
+
+  /**
+   * @return true if the batches of the parallel writers are committed in the order of the rows
+   */
+  public boolean isOrderedCommit() {
+    return orderedCommit;
+  }
+
+  /**
+   * @param orderedCommit
+   *          true to commit the batches of the parallel writers in the order of the rows: a batch is only committed
+   *          after all batches before it, and no more batches are committed after a batch fails
+   */
+  public void setOrderedCommit( boolean orderedCommit ) {
+    this.orderedCommit = orderedCommit;
+  }
+
   /**
    * @return the table name
    */
@@ -448,6 +496,8 @@ public class TableOutputMeta extends BaseDatabaseStepMeta implements StepMetaInt
       truncateTable = "Y".equalsIgnoreCase( XMLHandler.getTagValue( stepnode, "truncate" ) );
       ignoreErrors = "Y".equalsIgnoreCase( XMLHandler.getTagValue( stepnode, "ignore_errors" ) );
       useBatchUpdate = "Y".equalsIgnoreCase( XMLHandler.getTagValue( stepnode, "use_batch" ) );
+      parallelWriters = Const.NVL( XMLHandler.getTagValue( stepnode, "parallel_writers" ), "0" );
+      orderedCommit = !"N".equalsIgnoreCase( XMLHandler.getTagValue( stepnode, "ordered_commit" ) );
 
       // If not present it will be false to be compatible with pre-v3.2
       specifyFields = "Y".equalsIgnoreCase( XMLHandler.getTagValue( stepnode, "specify_fields" ) );
@@ -484,6 +534,8 @@ public class TableOutputMeta extends BaseDatabaseStepMeta implements StepMetaInt
     databaseMeta = null;
     tableName = "";
     commitSize = "1000";
+    parallelWriters = "0";
+    orderedCommit = true;
 
     partitioningEnabled = false;
     partitioningMonthly = true;
@@ -506,6 +558,8 @@ public class TableOutputMeta extends BaseDatabaseStepMeta implements StepMetaInt
     retval.append( "    " + XMLHandler.addTagValue( "truncate", truncateTable ) );
     retval.append( "    " + XMLHandler.addTagValue( "ignore_errors", ignoreErrors ) );
     retval.append( "    " + XMLHandler.addTagValue( "use_batch", useBatchUpdate ) );
+    retval.append( "    " + XMLHandler.addTagValue( "parallel_writers", parallelWriters ) );
+    retval.append( "    " + XMLHandler.addTagValue( "ordered_commit", orderedCommit ) );
     retval.append( "    " + XMLHandler.addTagValue( "specify_fields", specifyFields ) );
 
     retval.append( "    " + XMLHandler.addTagValue( "partitioning_enabled", partitioningEnabled ) );
@@ -543,6 +597,8 @@ public class TableOutputMeta extends BaseDatabaseStepMeta implements StepMetaInt
       truncateTable = rep.getStepAttributeBoolean( id_step, "truncate" );
       ignoreErrors = rep.getStepAttributeBoolean( id_step, "ignore_errors" );
       useBatchUpdate = rep.getStepAttributeBoolean( id_step, "use_batch" );
+      parallelWriters = Const.NVL( rep.getStepAttributeString( id_step, "parallel_writers" ), "0" );
+      orderedCommit = rep.getStepAttributeBoolean( id_step, 0, "ordered_commit", true );
       specifyFields = rep.getStepAttributeBoolean( id_step, "specify_fields" );
 
       partitioningEnabled = rep.getStepAttributeBoolean( id_step, "partitioning_enabled" );
@@ -582,6 +638,8 @@ public class TableOutputMeta extends BaseDatabaseStepMeta implements StepMetaInt
       rep.saveStepAttribute( id_transformation, id_step, "truncate", truncateTable );
       rep.saveStepAttribute( id_transformation, id_step, "ignore_errors", ignoreErrors );
       rep.saveStepAttribute( id_transformation, id_step, "use_batch", useBatchUpdate );
+      rep.saveStepAttribute( id_transformation, id_step, "parallel_writers", parallelWriters );
+      rep.saveStepAttribute( id_transformation, id_step, "ordered_commit", orderedCommit );
       rep.saveStepAttribute( id_transformation, id_step, "specify_fields", specifyFields );
 
       rep.saveStepAttribute( id_transformation, id_step, "partitioning_enabled", partitioningEnabled );
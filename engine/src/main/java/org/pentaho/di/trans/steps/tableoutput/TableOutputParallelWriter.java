@@ -0,0 +1,377 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.di.trans.steps.tableoutput;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.pentaho.di.core.database.Database;
+import org.pentaho.di.core.database.DatabaseMeta;
+import org.pentaho.di.core.exception.KettleDatabaseBatchException;
+import org.pentaho.di.core.exception.KettleDatabaseException;
+import org.pentaho.di.core.exception.KettleException;
+import org.pentaho.di.core.row.RowMetaInterface;
+import org.pentaho.di.trans.step.BaseStep;
+
+/**
+ * Inserts the rows of a Table Output step in batches on a number of connections at the same time. The step thread
+ * fills a batch while earlier batches are executed and committed by the writer threads, each on its own connection.
+ * The number of batches that are filled but not handed back yet is limited, so a slow database stops the step thread
+ * instead of filling up the memory.<br>
+ * <br>
+ * Batches are handed back to the step thread to pass their rows on or to send them to the error handling, the step
+ * thread is the only one that writes rows. With ordered commit a batch is only committed after the batches before it
+ * and the batches are handed back in the order of the rows. Without it batches are committed and handed back as soon
+ * as they are written.
+ *
+ * @since 11.1
+ */
+public class TableOutputParallelWriter {
+
+  /**
+   * A batch of rows and the outcome of inserting them.
+   */
+  static class Batch {
+    final long sequence;
+    final List<Object[]> rows;
+    final List<Object[]> insertRows;
+
+    /** The batch was executed but some of the rows failed */
+    KettleDatabaseBatchException batchException;
+
+    /** The batch couldn't be inserted at all */
+    Exception failure;
+
+    /** The batch was rolled back because an earlier batch failed or because the step stopped */
+    boolean skipped;
+
+    Batch( long sequence, int size ) {
+      this.sequence = sequence;
+      this.rows = new ArrayList<>( size );
+      this.insertRows = new ArrayList<>( size );
+    }
+  }
+
+  /**
+   * A connection with its prepared insert statement.
+   */
+  private class Writer {
+    private final Database db;
+    private PreparedStatement insertStatement;
+
+    Writer() {
+      db = new Database( step, databaseMeta );
+      db.shareVariablesWith( step );
+    }
+
+    private void insert( Batch batch ) throws KettleDatabaseException {
+      if ( insertStatement == null ) {
+        db.connect( partitionId );
+        db.setCommit( batchSize );
+        insertStatement = db.prepareSQL( insertSql );
+      }
+      try {
+        for ( Object[] insertRow : batch.insertRows ) {
+          db.setValues( insertRowMeta, insertRow, insertStatement );
+          insertStatement.addBatch();
+        }
+        insertStatement.executeBatch();
+      } catch ( SQLException e ) {
+        batch.batchException = Database.createKettleDatabaseBatchException( "Error updating batch", e );
+      } finally {
+        db.clearBatch( insertStatement );
+      }
+    }
+
+    private void close() {
+      try {
+        // Never commit what wasn't committed by a batch
+        if ( insertStatement != null ) {
+          db.rollback();
+        }
+      } catch ( KettleDatabaseException e ) {
+        step.logError( "Unexpected error rolling back a parallel writer connection.", e );
+      }
+      db.disconnect();
+    }
+  }
+
+  private final BaseStep step;
+  private final DatabaseMeta databaseMeta;
+  private final String partitionId;
+  private final String insertSql;
+  private final RowMetaInterface insertRowMeta;
+  private final int batchSize;
+  private final boolean orderedCommit;
+  private final boolean errorHandling;
+
+  private final ExecutorService executor;
+  private final BlockingQueue<Writer> writers;
+  private final List<Writer> allWriters = new ArrayList<>();
+  private final Semaphore pending;
+  private final BlockingQueue<Batch> written = new LinkedBlockingQueue<>();
+  private final Map<Long, Batch> waiting = new TreeMap<>();
+
+  private final Object turnLock = new Object();
+  private long nextCommit;
+  private volatile boolean failed;
+  private volatile boolean closed;
+
+  private Batch batch;
+  private long nextSequence;
+  private long nextHandBack;
+  private int inFlight;
+
+  /**
+   * @param step
+   *          the Table Output step
+   * @param databaseMeta
+   *          the connection to insert on
+   * @param partitionId
+   *          the partition of the step
+   * @param insertSql
+   *          the insert statement
+   * @param insertRowMeta
+   *          the metadata of the values to insert
+   * @param nrWriters
+   *          the number of connections
+   * @param batchSize
+   *          the number of rows per batch
+   * @param orderedCommit
+   *          true to commit and hand back the batches in the order of the rows
+   * @param errorHandling
+   *          true if failing rows are sent to the error handling: the rows of a failed batch that were inserted are
+   *          committed, like the step does
+   */
+  public TableOutputParallelWriter( BaseStep step, DatabaseMeta databaseMeta, String partitionId, String insertSql,
+    RowMetaInterface insertRowMeta, int nrWriters, int batchSize, boolean orderedCommit, boolean errorHandling ) {
+    this.step = step;
+    this.databaseMeta = databaseMeta;
+    this.partitionId = partitionId;
+    this.insertSql = insertSql;
+    this.insertRowMeta = insertRowMeta;
+    this.batchSize = batchSize;
+    this.orderedCommit = orderedCommit;
+    this.errorHandling = errorHandling;
+
+    writers = new LinkedBlockingQueue<>();
+    for ( int i = 0; i < nrWriters; i++ ) {
+      Writer writer = new Writer();
+      allWriters.add( writer );
+      writers.add( writer );
+    }
+    // One batch being written per connection and one waiting for each of them
+    pending = new Semaphore( nrWriters * 2 );
+
+    AtomicInteger threadNr = new AtomicInteger();
+    executor = Executors.newFixedThreadPool( nrWriters, runnable -> {
+      Thread thread = new Thread( runnable, step.getStepname() + " - writer " + threadNr.incrementAndGet() );
+      thread.setDaemon( true );
+      return thread;
+    } );
+  }
+
+  /**
+   * Add a row to the current batch, the batch is handed to a writer once it's full. Waits if all writers are busy and
+   * enough batches are waiting for them.
+   *
+   * @param row
+   *          the row to pass on once it's inserted
+   * @param insertRow
+   *          the values to insert
+   * @throws KettleException
+   *           in case the step was stopped while waiting
+   */
+  public void addRow( Object[] row, Object[] insertRow ) throws KettleException {
+    if ( batch == null ) {
+      batch = new Batch( nextSequence++, batchSize );
+    }
+    batch.rows.add( row );
+    batch.insertRows.add( insertRow );
+    if ( batch.rows.size() >= batchSize ) {
+      submit();
+    }
+  }
+
+  /**
+   * Hand the current batch to a writer, even if it's not full.
+   *
+   * @throws KettleException
+   *           in case the step was stopped while waiting
+   */
+  public void flush() throws KettleException {
+    if ( batch != null ) {
+      submit();
+    }
+  }
+
+  private void submit() throws KettleException {
+    try {
+      while ( !pending.tryAcquire( 100, TimeUnit.MILLISECONDS ) ) {
+        if ( step.isStopped() ) {
+          throw new KettleException( "Stopped while waiting for a parallel writer" );
+        }
+      }
+    } catch ( InterruptedException e ) {
+      Thread.currentThread().interrupt();
+      throw new KettleException( e );
+    }
+    final Batch submitted = batch;
+    batch = null;
+    inFlight++;
+    executor.execute( () -> write( submitted ) );
+  }
+
+  /**
+   * @param wait
+   *          true to wait until all batches handed to the writers are back
+   * @return the batches that were written, in the order of the rows with ordered commit
+   * @throws KettleException
+   *           in case the step was stopped while waiting
+   */
+  public List<Batch> getWrittenBatches( boolean wait ) throws KettleException {
+    List<Batch> batches = new ArrayList<>();
+    while ( inFlight > 0 ) {
+      Batch done;
+      try {
+        done = wait ? written.poll( 100, TimeUnit.MILLISECONDS ) : written.poll();
+      } catch ( InterruptedException e ) {
+        Thread.currentThread().interrupt();
+        throw new KettleException( e );
+      }
+      if ( done == null ) {
+        if ( !wait ) {
+          break;
+        }
+        if ( step.isStopped() ) {
+          throw new KettleException( "Stopped while waiting for the parallel writers" );
+        }
+        continue;
+      }
+
+      inFlight--;
+      if ( !orderedCommit ) {
+        batches.add( done );
+        continue;
+      }
+      waiting.put( done.sequence, done );
+      Batch next;
+      while ( ( next = waiting.remove( nextHandBack ) ) != null ) {
+        batches.add( next );
+        nextHandBack++;
+      }
+    }
+    return batches;
+  }
+
+  private void write( Batch batch ) {
+    Writer writer = null;
+    try {
+      writer = writers.take();
+      if ( closed ) {
+        batch.skipped = true;
+      } else {
+        writer.insert( batch );
+      }
+    } catch ( Exception e ) {
+      batch.failure = e;
+    }
+
+    try {
+      if ( orderedCommit ) {
+        waitForTurn( batch.sequence );
+      }
+      if ( writer != null && !batch.skipped ) {
+        finish( writer.db, batch );
+      }
+    } catch ( Exception e ) {
+      if ( batch.failure == null ) {
+        batch.failure = e;
+      }
+    } finally {
+      if ( orderedCommit ) {
+        synchronized ( turnLock ) {
+          nextCommit++;
+          turnLock.notifyAll();
+        }
+      }
+      if ( writer != null ) {
+        writers.add( writer );
+      }
+      pending.release();
+      written.add( batch );
+    }
+  }
+
+  /**
+   * Commit or roll back a batch.
+   */
+  private void finish( Database db, Batch batch ) throws KettleDatabaseException {
+    boolean inserted = batch.failure == null && batch.batchException == null;
+    if ( inserted && !( orderedCommit && failed ) && !closed ) {
+      db.commit();
+    } else if ( !inserted && errorHandling && batch.failure == null ) {
+      // Keep the rows that did make it, the others go to the error handling
+      db.commit( true );
+    } else {
+      db.rollback();
+      if ( inserted ) {
+        batch.skipped = true;
+      } else if ( !errorHandling ) {
+        failed = true;
+      }
+    }
+  }
+
+  private void waitForTurn( long sequence ) throws InterruptedException {
+    synchronized ( turnLock ) {
+      while ( nextCommit != sequence && !closed ) {
+        turnLock.wait( 100 );
+      }
+    }
+  }
+
+  /**
+   * Stop the writers, roll back what isn't committed and close the connections.
+   */
+  public void close() {
+    closed = true;
+    synchronized ( turnLock ) {
+      turnLock.notifyAll();
+    }
+    executor.shutdown();
+    try {
+      if ( !executor.awaitTermination( 1, TimeUnit.MINUTES ) ) {
+        step.logError( "Parallel writers didn't finish in time, closing their connections anyway." );
+        executor.shutdownNow();
+      }
+    } catch ( InterruptedException e ) {
+      Thread.currentThread().interrupt();
+    }
+    for ( Writer writer : allWriters ) {
+      writer.close();
+    }
+  }
+}
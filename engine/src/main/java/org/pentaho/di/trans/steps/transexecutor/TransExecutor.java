@@ -34,6 +34,7 @@ import org.pentaho.di.core.util.Utils;
 import org.pentaho.di.i18n.BaseMessages;
 import org.pentaho.di.job.DelegationListener;
 import org.pentaho.di.trans.StepWithMappingMeta;
+import org.pentaho.di.trans.SubtransPool;
 import org.pentaho.di.trans.Trans;
 import org.pentaho.di.trans.TransExecutionConfiguration;
 import org.pentaho.di.trans.TransMeta;
@@ -197,28 +198,40 @@ public class TransExecutor extends BaseStep implements StepInterface {
       discardLogLines( transExecutorData );
     }
 
-    Trans executorTrans = createInternalTrans();
+    Trans executorTrans = getPreparedTrans();
+    boolean prepared = executorTrans != null;
+    if ( !prepared ) {
+      executorTrans = createInternalTrans();
+    }
     transExecutorData.setExecutorTrans( executorTrans );
-    if ( incomingFieldValues != null ) {
-      // Pass parameter values
-      passParametersToTrans( incomingFieldValues );
-    } else {
-      List<String> lastIncomingFieldValues = getLastIncomingFieldValues();
-      // incomingFieldValues == null-  There are no more rows - Last Case - pass previous values if exists
-      // If not still pass the null parameter values
-      passParametersToTrans( lastIncomingFieldValues != null && !lastIncomingFieldValues.isEmpty() ? lastIncomingFieldValues : incomingFieldValues );
+    // A prepared transformation has its parameters activated already
+    if ( !prepared ) {
+      if ( incomingFieldValues != null ) {
+        // Pass parameter values
+        passParametersToTrans( incomingFieldValues );
+      } else {
+        List<String> lastIncomingFieldValues = getLastIncomingFieldValues();
+        // incomingFieldValues == null-  There are no more rows - Last Case - pass previous values if exists
+        // If not still pass the null parameter values
+        passParametersToTrans( lastIncomingFieldValues != null && !lastIncomingFieldValues.isEmpty() ? lastIncomingFieldValues : incomingFieldValues );
+      }
     }
 
 
     // keep track for drill down in Spoon...
     getTrans().addActiveSubTransformation( getStepname(), executorTrans );
 
-    Result result = new Result();
+    Result result = prepared ? executorTrans.getPreviousResult() : new Result();
     result.setRows( transExecutorData.groupBuffer );
     executorTrans.setPreviousResult( result );
 
     try {
-      executorTrans.prepareExecution( getTrans().getArguments() );
+      if ( prepared ) {
+        // Only the steps were created ahead of time, they open their files and connections now
+        executorTrans.initializeSteps();
+      } else {
+        executorTrans.prepareExecution( getTrans().getArguments() );
+      }
 
       // run transformation
       executorTrans.startThreads();
@@ -279,8 +292,48 @@ public class TransExecutor extends BaseStep implements StepInterface {
     return executorTrans;
   }
 
+  /**
+   * @return a transformation prepared ahead of time or null if there is none
+   */
+  private Trans getPreparedTrans() {
+    TransExecutorData transExecutorData = getData();
+    if ( !transExecutorData.poolChecked ) {
+      transExecutorData.poolChecked = true;
+      int poolSize = SubtransPool.getPoolSize( this );
+      // Parameters that come from fields differ for every group
+      if ( poolSize > 0 && !hasFieldParameters() ) {
+        // The parameters are the same for every group, resolve them once in this thread
+        String[] parameterValues = resolveParameterValues( null );
+        transExecutorData.subtransPool = new SubtransPool( () -> {
+          Trans trans = createInternalTrans();
+          activateParameters( trans, parameterValues );
+          return trans;
+        }, getTrans().getArguments(), poolSize, getStepname() + "." + getCopy() + " - sub-transformation pool", log );
+        transExecutorData.subtransPool.start();
+      }
+    }
+    return transExecutorData.subtransPool == null ? null : transExecutorData.subtransPool.poll();
+  }
+
+  private boolean hasFieldParameters() {
+    String[] fields = meta.getParameters().getField();
+    if ( fields != null ) {
+      for ( String field : fields ) {
+        if ( !Utils.isEmpty( Const.trim( field ) ) ) {
+          return true;
+        }
+      }
+    }
+    return false;
+  }
+
   @VisibleForTesting
   void passParametersToTrans( List<String> incomingFieldValues ) throws KettleException {
+    String[] inputFieldValues = resolveParameterValues( incomingFieldValues );
+    activateParameters( getExecutorTrans(), inputFieldValues );
+  }
+
+  private String[] resolveParameterValues( List<String> incomingFieldValues ) {
     //The values of the incoming fields from the previous step.
     if ( incomingFieldValues == null ) {
       incomingFieldValues = new ArrayList<String>();
@@ -357,12 +410,15 @@ public class TransExecutor extends BaseStep implements StepInterface {
     for ( int i = 0; i < parameters.getVariable().length; i++ ) {
       inputFieldValues[i] = resolvingValuesMap.get( parameters.getVariable()[i] );
     }
+    return inputFieldValues;
+  }
 
-    Trans trans = getExecutorTrans();
+  private void activateParameters( Trans trans, String[] inputFieldValues ) {
     initializeVariablesFromParent( trans );
 
+    TransExecutorParameters parameters = meta.getParameters();
     StepWithMappingMeta
-        .activateParams( trans, trans, this, trans.listParameters(), parameters.getVariable(), inputFieldValues, meta.getParameters().isInheritingAllVariables() );
+        .activateParams( trans, trans, this, trans.listParameters(), parameters.getVariable(), inputFieldValues, parameters.isInheritingAllVariables() );
   }
 
   /**
@@ -533,6 +589,10 @@ public class TransExecutor extends BaseStep implements StepInterface {
   public void dispose( StepMetaInterface smi, StepDataInterface sdi ) {
     TransExecutorData transExecutorData = getData();
     transExecutorData.groupBuffer = null;
+    if ( transExecutorData.subtransPool != null ) {
+      transExecutorData.subtransPool.close();
+      transExecutorData.subtransPool = null;
+    }
     super.dispose( smi, sdi );
   }
 
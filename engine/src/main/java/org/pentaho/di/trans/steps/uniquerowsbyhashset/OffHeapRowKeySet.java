@@ -0,0 +1,493 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.di.trans.steps.uniquerowsbyhashset;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.pentaho.di.core.exception.KettleException;
+import org.pentaho.di.core.exception.KettleFileException;
+import org.pentaho.di.core.row.RowMetaInterface;
+
+/**
+ * Set of row keys kept outside of the Java heap. Every key is reduced to a 64 bit fingerprint of its serialized bytes,
+ * stored in open addressing (linear probing) tables in direct buffers. With exact verification the serialized keys are
+ * stored as well and compared when the fingerprints match, otherwise keys with the same fingerprint are considered the
+ * same.<br>
+ * <br>
+ * The keys are spread over a number of partitions by fingerprint. When the memory used goes over the limit, the
+ * largest partition is written to a file and dropped from memory. Rows with a key in such a partition can't be checked
+ * until the end of the input: they are written to the file of the partition too and checked by {@link #finish(Handler)},
+ * which reads the partition back into a new set with the same memory limit and partitions it again if needed. Rows of
+ * spilled partitions are passed on after all others, in the order they were added.
+ *
+ * @since 11.1
+ */
+public class OffHeapRowKeySet {
+  /** The key wasn't seen before */
+  public static final int UNIQUE = 0;
+
+  /** The key was seen before */
+  public static final int DUPLICATE = 1;
+
+  /** The key is in a partition on disk, the row is checked by {@link #finish(Handler)} */
+  public static final int DEFERRED = 2;
+
+  private static final int PARTITION_BITS = 4;
+  private static final int PARTITIONS = 1 << PARTITION_BITS;
+
+  /** Every level uses other bits of the fingerprint to pick the partition, after that partitions aren't spilled */
+  private static final int MAX_LEVEL = 64 / PARTITION_BITS - 1;
+
+  private static final int INITIAL_CAPACITY = 1024;
+  private static final int MIN_PAGE_SIZE = 4 * 1024;
+  private static final int MAX_PAGE_SIZE = 1 << 20;
+
+  /** Below this limit the empty tables of the partitions alone would be spilled over and over */
+  private static final long MIN_MEMORY_LIMIT = 4L * 1024 * 1024;
+
+  private static final byte RECORD_KEY = 0;
+  private static final byte RECORD_ROW = 1;
+
+  /**
+   * Receives the rows of the spilled partitions once they are checked.
+   */
+  public interface Handler {
+    /**
+     * @param row
+     *          the row
+     * @param unique
+     *          true if the key of the row wasn't seen before, false if it's a duplicate
+     * @throws KettleException
+     *           in case the row can't be handled
+     */
+    void handle( Object[] row, boolean unique ) throws KettleException;
+  }
+
+  /**
+   * A table of fingerprints with, in exact mode, the addresses of the keys in the pages.
+   */
+  private class Partition {
+    private ByteBuffer fingerprints;
+    private ByteBuffer addresses;
+    private int mask;
+    private int size;
+
+    private ByteBuffer[] pages = new ByteBuffer[0];
+    private int pageOffset;
+
+    private File file;
+    private DataOutputStream out;
+
+    private Partition() {
+      allocate( INITIAL_CAPACITY );
+    }
+
+    private void allocate( int capacity ) {
+      fingerprints = ByteBuffer.allocateDirect( capacity * 8 );
+      addresses = exact ? ByteBuffer.allocateDirect( capacity * 8 ) : null;
+      mask = capacity - 1;
+      memoryUsed += tableBytes( capacity );
+    }
+
+    private long tableBytes( int capacity ) {
+      return ( exact ? 16L : 8L ) * capacity;
+    }
+
+    private boolean isSpilled() {
+      return file != null;
+    }
+
+    /**
+     * @return true if the key was added, false if it was in the table already
+     */
+    private boolean add( long fingerprint, byte[] key ) {
+      int slot = (int) fingerprint & mask;
+      while ( true ) {
+        long stored = fingerprints.getLong( slot * 8 );
+        if ( stored == 0 ) {
+          break;
+        }
+        if ( stored == fingerprint && ( !exact || keyEquals( addresses.getLong( slot * 8 ), key ) ) ) {
+          return false;
+        }
+        slot = ( slot + 1 ) & mask;
+      }
+      fingerprints.putLong( slot * 8, fingerprint );
+      if ( exact ) {
+        addresses.putLong( slot * 8, store( key ) );
+      }
+      size++;
+      if ( size > ( mask + 1 ) * 3 / 4 ) {
+        rehash();
+      }
+      return true;
+    }
+
+    private void rehash() {
+      ByteBuffer oldFingerprints = fingerprints;
+      ByteBuffer oldAddresses = addresses;
+      int oldCapacity = mask + 1;
+      memoryUsed -= tableBytes( oldCapacity );
+      allocate( oldCapacity * 2 );
+      for ( int i = 0; i < oldCapacity; i++ ) {
+        long fingerprint = oldFingerprints.getLong( i * 8 );
+        if ( fingerprint != 0 ) {
+          int slot = (int) fingerprint & mask;
+          while ( fingerprints.getLong( slot * 8 ) != 0 ) {
+            slot = ( slot + 1 ) & mask;
+          }
+          fingerprints.putLong( slot * 8, fingerprint );
+          if ( exact ) {
+            addresses.putLong( slot * 8, oldAddresses.getLong( i * 8 ) );
+          }
+        }
+      }
+    }
+
+    /**
+     * Append a key to the last page, starting a new page if it doesn't fit.
+     *
+     * @return the page number in the upper 32 bits and the offset in the page in the lower 32 bits
+     */
+    private long store( byte[] key ) {
+      int length = 4 + key.length;
+      if ( pages.length == 0 || pages[pages.length - 1].capacity() - pageOffset < length ) {
+        ByteBuffer[] newPages = new ByteBuffer[pages.length + 1];
+        System.arraycopy( pages, 0, newPages, 0, pages.length );
+        // Pages grow so that small partitions stay small
+        int capacity =
+          pages.length == 0 ? MIN_PAGE_SIZE : Math.min( MAX_PAGE_SIZE, pages[pages.length - 1].capacity() * 2 );
+        capacity = Math.max( capacity, length );
+        newPages[pages.length] = ByteBuffer.allocateDirect( capacity );
+        pages = newPages;
+        pageOffset = 0;
+        memoryUsed += capacity;
+      }
+      ByteBuffer page = pages[pages.length - 1].duplicate();
+      int offset = pageOffset;
+      page.putInt( offset, key.length );
+      page.position( offset + 4 );
+      page.put( key );
+      pageOffset += length;
+      return ( (long) ( pages.length - 1 ) << 32 ) | offset;
+    }
+
+    private boolean keyEquals( long address, byte[] key ) {
+      ByteBuffer page = pages[(int) ( address >>> 32 )];
+      int offset = (int) address;
+      if ( page.getInt( offset ) != key.length ) {
+        return false;
+      }
+      offset += 4;
+      for ( int i = 0; i < key.length; i++ ) {
+        if ( page.get( offset + i ) != key[i] ) {
+          return false;
+        }
+      }
+      return true;
+    }
+
+    private byte[] getKey( long address ) {
+      ByteBuffer page = pages[(int) ( address >>> 32 )].duplicate();
+      int offset = (int) address;
+      byte[] key = new byte[page.getInt( offset )];
+      page.position( offset + 4 );
+      page.get( key );
+      return key;
+    }
+
+    /**
+     * Write the keys to a file and drop the tables and pages. Rows with a key in the partition are written to the
+     * file from now on.
+     */
+    private void spill() throws IOException {
+      file = File.createTempFile( "unique-rows-", ".tmp", spillDirectory );
+      file.deleteOnExit();
+      out = new DataOutputStream( new BufferedOutputStream( new FileOutputStream( file ), 64 * 1024 ) );
+      for ( int i = 0; i <= mask; i++ ) {
+        long fingerprint = fingerprints.getLong( i * 8 );
+        if ( fingerprint != 0 ) {
+          out.writeByte( RECORD_KEY );
+          writeKey( out, fingerprint, exact ? getKey( addresses.getLong( i * 8 ) ) : null );
+        }
+      }
+      release();
+    }
+
+    /**
+     * Drop the tables and pages, the memory is freed once the buffers are garbage collected.
+     */
+    private void release() {
+      if ( fingerprints == null ) {
+        return;
+      }
+      memoryUsed -= tableBytes( mask + 1 );
+      for ( ByteBuffer page : pages ) {
+        memoryUsed -= page.capacity();
+      }
+      fingerprints = null;
+      addresses = null;
+      pages = null;
+      size = 0;
+    }
+
+    private void close() {
+      release();
+      if ( out != null ) {
+        try {
+          out.close();
+        } catch ( IOException e ) {
+          // Only used to clean up
+        }
+        out = null;
+      }
+      if ( file != null ) {
+        file.delete();
+        file = null;
+      }
+    }
+  }
+
+  private final RowMetaInterface rowMeta;
+  private final boolean exact;
+  private final long memoryLimit;
+  private final File spillDirectory;
+  private final int level;
+  private final Partition[] partitions = new Partition[PARTITIONS];
+
+  private long memoryUsed;
+  private int spilledPartitions;
+
+  /**
+   * @param rowMeta
+   *          the metadata of the rows, to write the rows of spilled partitions
+   * @param exact
+   *          true to store the serialized keys and compare them, false to compare only the fingerprints
+   * @param memoryLimit
+   *          the number of bytes the set can use before partitions are written to disk, 0 for no limit. Limits below 4
+   *          MB are raised to 4 MB.
+   * @param spillDirectory
+   *          the directory to write the partitions to, null for the default temporary directory
+   */
+  public OffHeapRowKeySet( RowMetaInterface rowMeta, boolean exact, long memoryLimit, File spillDirectory ) {
+    this( rowMeta, exact, memoryLimit, spillDirectory, 0 );
+  }
+
+  private OffHeapRowKeySet( RowMetaInterface rowMeta, boolean exact, long memoryLimit, File spillDirectory,
+    int level ) {
+    this.rowMeta = rowMeta;
+    this.exact = exact;
+    this.memoryLimit = memoryLimit > 0 ? Math.max( memoryLimit, MIN_MEMORY_LIMIT ) : 0;
+    this.spillDirectory = spillDirectory;
+    this.level = level;
+    for ( int i = 0; i < PARTITIONS; i++ ) {
+      partitions[i] = new Partition();
+    }
+  }
+
+  /**
+   * Add the key of a row.
+   *
+   * @param key
+   *          the serialized key
+   * @param row
+   *          the row, written to disk if its key is in a spilled partition
+   * @return {@link #UNIQUE}, {@link #DUPLICATE} or {@link #DEFERRED}
+   * @throws KettleException
+   *           in case a partition can't be written to disk
+   */
+  public int add( byte[] key, Object[] row ) throws KettleException {
+    return add( fingerprint( key ), key, row );
+  }
+
+  private int add( long fingerprint, byte[] key, Object[] row ) throws KettleException {
+    Partition partition = partitions[partition( fingerprint )];
+    try {
+      if ( partition.isSpilled() ) {
+        partition.out.writeByte( RECORD_ROW );
+        writeKey( partition.out, fingerprint, key );
+        rowMeta.writeData( partition.out, row );
+        return DEFERRED;
+      }
+      if ( !partition.add( fingerprint, key ) ) {
+        return DUPLICATE;
+      }
+      spillIfNeeded();
+    } catch ( IOException e ) {
+      throw new KettleFileException( "Unable to write rows to the spill file", e );
+    }
+    return UNIQUE;
+  }
+
+  /**
+   * Add a key that was seen before, from a spilled partition.
+   */
+  private void addSeen( long fingerprint, byte[] key ) throws IOException {
+    Partition partition = partitions[partition( fingerprint )];
+    if ( partition.isSpilled() ) {
+      partition.out.writeByte( RECORD_KEY );
+      writeKey( partition.out, fingerprint, key );
+    } else {
+      partition.add( fingerprint, key );
+      spillIfNeeded();
+    }
+  }
+
+  private void spillIfNeeded() throws IOException {
+    while ( memoryLimit > 0 && memoryUsed > memoryLimit && level < MAX_LEVEL ) {
+      Partition largest = null;
+      for ( Partition partition : partitions ) {
+        if ( !partition.isSpilled() && ( largest == null || partition.size > largest.size ) ) {
+          largest = partition;
+        }
+      }
+      if ( largest == null || largest.size == 0 ) {
+        return;
+      }
+      largest.spill();
+      spilledPartitions++;
+    }
+  }
+
+  /**
+   * Check the rows of the spilled partitions and hand them to the handler, partition by partition. The set can't be
+   * used anymore afterwards.
+   *
+   * @param handler
+   *          receives the rows of the spilled partitions
+   * @throws KettleException
+   *           in case a partition can't be read back or a row can't be handled
+   */
+  public void finish( Handler handler ) throws KettleException {
+    // All rows left to check are in the spilled partitions, make room for them
+    for ( Partition partition : partitions ) {
+      if ( !partition.isSpilled() ) {
+        partition.release();
+      }
+    }
+    for ( Partition partition : partitions ) {
+      if ( !partition.isSpilled() ) {
+        continue;
+      }
+      OffHeapRowKeySet spilled = new OffHeapRowKeySet( rowMeta, exact, memoryLimit, spillDirectory, level + 1 );
+      try {
+        partition.out.close();
+        partition.out = null;
+        try ( DataInputStream in =
+          new DataInputStream( new BufferedInputStream( new FileInputStream( partition.file ), 64 * 1024 ) ) ) {
+          while ( true ) {
+            int type;
+            try {
+              type = in.readByte();
+            } catch ( EOFException e ) {
+              break;
+            }
+            long fingerprint = in.readLong();
+            byte[] key = readKey( in );
+            if ( type == RECORD_KEY ) {
+              spilled.addSeen( fingerprint, key );
+            } else {
+              Object[] row = rowMeta.readData( in );
+              int result = spilled.add( fingerprint, key, row );
+              if ( result != DEFERRED ) {
+                handler.handle( row, result == UNIQUE );
+              }
+            }
+          }
+        }
+        partition.close();
+        spilled.finish( handler );
+      } catch ( IOException e ) {
+        throw new KettleFileException( "Unable to read back the spill file " + partition.file, e );
+      } finally {
+        spilled.close();
+      }
+    }
+    close();
+  }
+
+  /**
+   * Drop all keys and delete the spill files. The set can't be used anymore afterwards.
+   */
+  public void close() {
+    for ( Partition partition : partitions ) {
+      partition.close();
+    }
+  }
+
+  private void writeKey( DataOutputStream out, long fingerprint, byte[] key ) throws IOException {
+    out.writeLong( fingerprint );
+    if ( exact ) {
+      out.writeInt( key.length );
+      out.write( key );
+    }
+  }
+
+  private byte[] readKey( DataInputStream in ) throws IOException {
+    if ( !exact ) {
+      return null;
+    }
+    byte[] key = new byte[in.readInt()];
+    in.readFully( key );
+    return key;
+  }
+
+  private int partition( long fingerprint ) {
+    // The upper bits, the lower ones pick the slot
+    return (int) ( fingerprint >>> ( 64 - PARTITION_BITS * ( level + 1 ) ) ) & ( PARTITIONS - 1 );
+  }
+
+  /**
+   * @return a 64 bit hash of the key, never 0 as that marks an empty slot
+   */
+  static long fingerprint( byte[] key ) {
+    // FNV-1a followed by the MurmurHash3 finalizer to spread the bits
+    long h = 0xcbf29ce484222325L;
+    for ( byte b : key ) {
+      h ^= b & 0xff;
+      h *= 0x100000001b3L;
+    }
+    h ^= h >>> 33;
+    h *= 0xff51afd7ed558ccdL;
+    h ^= h >>> 33;
+    h *= 0xc4ceb9fe1a85ec53L;
+    h ^= h >>> 33;
+    return h == 0 ? 1 : h;
+  }
+
+  /**
+   * @return the number of bytes used by the tables and keys in memory
+   */
+  public long getMemoryUsed() {
+    return memoryUsed;
+  }
+
+  /**
+   * @return the number of partitions written to disk
+   */
+  public int getSpilledPartitions() {
+    return spilledPartitions;
+  }
+}
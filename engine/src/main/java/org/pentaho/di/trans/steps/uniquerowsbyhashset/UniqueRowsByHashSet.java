@@ -13,7 +13,11 @@
 
 package org.pentaho.di.trans.steps.uniquerowsbyhashset;
 
+import java.io.File;
+
+import org.pentaho.di.core.Const;
 import org.pentaho.di.core.exception.KettleException;
+import org.pentaho.di.core.row.RowMeta;
 import org.pentaho.di.core.util.Utils;
 import org.pentaho.di.i18n.BaseMessages;
 import org.pentaho.di.trans.Trans;
@@ -42,12 +46,48 @@ public class UniqueRowsByHashSet extends BaseStep implements StepInterface {
     return data.seen.add( new RowKey( row, data ) );
   }
 
+  private void handleRow( Object[] r, boolean unique ) throws KettleException {
+    if ( unique ) {
+      putRow( data.outputRowMeta, r );
+    } else {
+      incrementLinesRejected();
+      if ( data.sendDuplicateRows ) {
+        // Simply add this row to the error row
+        putError( getInputRowMeta(), r, 1, data.realErrorDescription, Utils.isEmpty( data.compareFields )
+          ? null : data.compareFields, "UNRH001" );
+      }
+    }
+  }
+
+  private void addToOffHeapSet( Object[] r ) throws KettleException {
+    Object[] keyValues = r;
+    if ( data.fieldnrs.length > 0 ) {
+      keyValues = new Object[data.fieldnrs.length];
+      for ( int i = 0; i < data.fieldnrs.length; i++ ) {
+        keyValues[i] = r[data.fieldnrs[i]];
+      }
+    }
+    int spilled = data.offHeapSet.getSpilledPartitions();
+    int result = data.offHeapSet.add( RowMeta.extractData( data.keyRowMeta, keyValues ), r );
+    if ( data.offHeapSet.getSpilledPartitions() > spilled && log.isDetailed() ) {
+      logDetailed( BaseMessages.getString( PKG, "UniqueRowsByHashSet.Log.PartitionSpilled", data.offHeapSet
+        .getSpilledPartitions() ) );
+    }
+    if ( result != OffHeapRowKeySet.DEFERRED ) {
+      handleRow( r, result == OffHeapRowKeySet.UNIQUE );
+    }
+  }
+
   public boolean processRow( StepMetaInterface smi, StepDataInterface sdi ) throws KettleException {
     meta = (UniqueRowsByHashSetMeta) smi;
     data = (UniqueRowsByHashSetData) sdi;
 
     Object[] r = getRow(); // get row!
     if ( r == null ) { // no more input to be expected...
+      if ( data.offHeapSet != null ) {
+        // The rows with a key in a partition on disk are checked now
+        data.offHeapSet.finish( this::handleRow );
+      }
 
       data.clearHashSet();
       setOutputDone();
@@ -85,17 +125,28 @@ public class UniqueRowsByHashSet extends BaseStep implements StepInterface {
       if ( data.sendDuplicateRows && !Utils.isEmpty( meta.getErrorDescription() ) ) {
         data.realErrorDescription = environmentSubstitute( meta.getErrorDescription() );
       }
+
+      if ( meta.isOffHeapStore() ) {
+        if ( data.fieldnrs.length == 0 ) {
+          data.keyRowMeta = data.inputRowMeta;
+        } else {
+          data.keyRowMeta = new RowMeta();
+          for ( int fieldnr : data.fieldnrs ) {
+            data.keyRowMeta.addValueMeta( data.inputRowMeta.getValueMeta( fieldnr ) );
+          }
+        }
+        long memoryLimit = Const.toLong( environmentSubstitute( meta.getMemoryLimit() ), 0L ) * 1024 * 1024;
+        String spillDirectory = environmentSubstitute( meta.getSpillDirectory() );
+        data.offHeapSet =
+          new OffHeapRowKeySet( data.inputRowMeta, data.storeValues, memoryLimit,
+            Utils.isEmpty( spillDirectory ) ? null : new File( spillDirectory ) );
+      }
     }
 
-    if ( isUniqueRow( r ) ) {
-      putRow( data.outputRowMeta, r );
+    if ( data.offHeapSet != null ) {
+      addToOffHeapSet( r );
     } else {
-      incrementLinesRejected();
-      if ( data.sendDuplicateRows ) {
-        // Simply add this row to the error row
-        putError( getInputRowMeta(), r, 1, data.realErrorDescription, Utils.isEmpty( data.compareFields )
-          ? null : data.compareFields, "UNRH001" );
-      }
+      handleRow( r, isUniqueRow( r ) );
     }
 
     if ( checkFeedback( getLinesRead() ) ) {
@@ -119,4 +170,11 @@ public class UniqueRowsByHashSet extends BaseStep implements StepInterface {
     return false;
   }
 
+  public void dispose( StepMetaInterface smi, StepDataInterface sdi ) {
+    data = (UniqueRowsByHashSetData) sdi;
+
+    // Deletes the spill files if the step stopped early
+    data.clearHashSet();
+    super.dispose( smi, sdi );
+  }
 }
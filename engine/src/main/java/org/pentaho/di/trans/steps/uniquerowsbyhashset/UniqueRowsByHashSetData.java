@@ -30,11 +30,19 @@ public class UniqueRowsByHashSetData extends BaseStepData implements StepDataInt
 
   public HashSet<RowKey> seen = new HashSet<RowKey>();
 
+  /** Used instead of the hash set when the keys are kept off-heap */
+  public OffHeapRowKeySet offHeapSet;
+  public RowMetaInterface keyRowMeta;
+
   public UniqueRowsByHashSetData() {
     super();
   }
 
   public void clearHashSet() {
+    if ( offHeapSet != null ) {
+      offHeapSet.close();
+      offHeapSet = null;
+    }
     sendDuplicateRows = false;
     compareFields = null;
     realErrorDescription = null;
@@ -50,6 +50,15 @@ public class UniqueRowsByHashSetMeta extends BaseStepMeta implements StepMetaInt
   private boolean rejectDuplicateRow;
   private String errorDescription;
 
+  /** Whether to keep the keys outside of the Java heap, as fingerprints or with their values for strict checking */
+  private boolean offHeapStore;
+
+  /** The memory the off-heap store can use in MB before it writes partitions to disk, 0 means no limit */
+  private String memoryLimit;
+
+  /** The directory the off-heap store writes partitions to */
+  private String spillDirectory;
+
   public UniqueRowsByHashSetMeta() {
     super(); // allocate BaseStepMeta
   }
@@ -111,6 +120,44 @@ public class UniqueRowsByHashSetMeta extends BaseStepMeta implements StepMetaInt
     return errorDescription;
   }
 
+  public boolean isOffHeapStore() {
+    return offHeapStore;
+  }
+
+  public void setOffHeapStore( boolean offHeapStore ) {
+    this.offHeapStore = offHeapStore;
+  }
+
+  /**
+   * @return the memory the off-heap store can use in MB before it writes partitions to disk, 0 means no limit
+   */
+  public String getMemoryLimit() {
+    return memoryLimit;
+  }
+
+  /**
+   * @param memoryLimit
+   *          the memory the off-heap store can use in MB before it writes partitions to disk, 0 means no limit
+   */
+  public void setMemoryLimit( String memoryLimit ) {
+    this.memoryLimit = memoryLimit;
+  }
+
+  /**
+   * @return the directory the off-heap store writes partitions to
+   */
+  public String getSpillDirectory() {
+    return spillDirectory;
+  }
+
+  /**
+   * @param spillDirectory
+   *          the directory the off-heap store writes partitions to
+   */
+  public void setSpillDirectory( String spillDirectory ) {
+    this.spillDirectory = spillDirectory;
+  }
+
   public void loadXML( Node stepnode, List<DatabaseMeta> databases, IMetaStore metaStore ) throws KettleXMLException {
     readData( stepnode );
   }
@@ -131,6 +178,9 @@ public class UniqueRowsByHashSetMeta extends BaseStepMeta implements StepMetaInt
       storeValues = "Y".equalsIgnoreCase( XMLHandler.getTagValue( stepnode, "store_values" ) );
       rejectDuplicateRow = "Y".equalsIgnoreCase( XMLHandler.getTagValue( stepnode, "reject_duplicate_row" ) );
       errorDescription = XMLHandler.getTagValue( stepnode, "error_description" );
+      offHeapStore = "Y".equalsIgnoreCase( XMLHandler.getTagValue( stepnode, "off_heap_store" ) );
+      memoryLimit = XMLHandler.getTagValue( stepnode, "memory_limit" );
+      spillDirectory = XMLHandler.getTagValue( stepnode, "spill_directory" );
 
       Node fields = XMLHandler.getSubNode( stepnode, "fields" );
       int nrfields = XMLHandler.countNodes( fields, "field" );
@@ -152,6 +202,9 @@ public class UniqueRowsByHashSetMeta extends BaseStepMeta implements StepMetaInt
   public void setDefault() {
     rejectDuplicateRow = false;
     errorDescription = null;
+    offHeapStore = false;
+    memoryLimit = "0";
+    spillDirectory = "%%java.io.tmpdir%%";
     int nrfields = 0;
 
     allocate( nrfields );
@@ -172,6 +225,9 @@ public class UniqueRowsByHashSetMeta extends BaseStepMeta implements StepMetaInt
     retval.append( "      " + XMLHandler.addTagValue( "store_values", storeValues ) );
     retval.append( "      " + XMLHandler.addTagValue( "reject_duplicate_row", rejectDuplicateRow ) );
     retval.append( "      " + XMLHandler.addTagValue( "error_description", errorDescription ) );
+    retval.append( "      " + XMLHandler.addTagValue( "off_heap_store", offHeapStore ) );
+    retval.append( "      " + XMLHandler.addTagValue( "memory_limit", memoryLimit ) );
+    retval.append( "      " + XMLHandler.addTagValue( "spill_directory", spillDirectory ) );
     retval.append( "    <fields>" );
     for ( int i = 0; i < compareFields.length; i++ ) {
       retval.append( "      <field>" );
@@ -188,6 +244,9 @@ public class UniqueRowsByHashSetMeta extends BaseStepMeta implements StepMetaInt
       storeValues = rep.getStepAttributeBoolean( id_step, "store_values" );
       rejectDuplicateRow = rep.getStepAttributeBoolean( id_step, "reject_duplicate_row" );
       errorDescription = rep.getStepAttributeString( id_step, "error_description" );
+      offHeapStore = rep.getStepAttributeBoolean( id_step, "off_heap_store" );
+      memoryLimit = rep.getStepAttributeString( id_step, "memory_limit" );
+      spillDirectory = rep.getStepAttributeString( id_step, "spill_directory" );
       int nrfields = rep.countNrStepAttributes( id_step, "field_name" );
 
       allocate( nrfields );
@@ -206,6 +265,9 @@ public class UniqueRowsByHashSetMeta extends BaseStepMeta implements StepMetaInt
       rep.saveStepAttribute( id_transformation, id_step, "store_values", storeValues );
       rep.saveStepAttribute( id_transformation, id_step, "reject_duplicate_row", rejectDuplicateRow );
       rep.saveStepAttribute( id_transformation, id_step, "error_description", errorDescription );
+      rep.saveStepAttribute( id_transformation, id_step, "off_heap_store", offHeapStore );
+      rep.saveStepAttribute( id_transformation, id_step, "memory_limit", memoryLimit );
+      rep.saveStepAttribute( id_transformation, id_step, "spill_directory", spillDirectory );
       for ( int i = 0; i < compareFields.length; i++ ) {
         rep.saveStepAttribute( id_transformation, id_step, i, "field_name", compareFields[i] );
       }
@@ -145,6 +145,15 @@ public class BaseStreamStep extends BaseStep {
     super.stopRunning( stepMetaInterface, stepDataInterface );
   }
 
+  @Override
+  public void dispose( StepMetaInterface stepMetaInterface, StepDataInterface stepDataInterface ) {
+    // Also when the step was safe stopped, stopRunning() leaves the executor alone then
+    if ( subtransExecutor != null ) {
+      subtransExecutor.close();
+    }
+    super.dispose( stepMetaInterface, stepDataInterface );
+  }
+
   @Override public void resumeRunning() {
     if ( source != null ) {
       source.resume();
@@ -226,4 +235,9 @@ public class BaseStreamStep extends BaseStep {
   public SubtransExecutor getSubtransExecutor() {
     return subtransExecutor;
   }
+
+  @VisibleForTesting
+  void setSubtransExecutor( SubtransExecutor subtransExecutor ) {
+    this.subtransExecutor = subtransExecutor;
+  }
 }
@@ -0,0 +1,127 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+
+package org.pentaho.di.job;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+public class JobEntrySchedulerTest {
+
+  @Test( timeout = 30000 )
+  public void testServerLimit() throws Exception {
+    JobEntryScheduler scheduler = new JobEntryScheduler( 2 );
+    JobEntryScheduler.Group group = scheduler.createGroup( 0, null );
+    AtomicInteger maxRunning = new AtomicInteger();
+    AtomicInteger finished = new AtomicInteger();
+
+    List<JobEntryScheduler.Branch> branches = new ArrayList<>();
+    for ( int i = 0; i < 20; i++ ) {
+      branches.add( scheduler.submit( group, () -> {
+        maxRunning.accumulateAndGet( scheduler.getRunningCount(), Math::max );
+        sleep( 5 );
+        finished.incrementAndGet();
+      } ) );
+    }
+    for ( JobEntryScheduler.Branch branch : branches ) {
+      scheduler.join( branch );
+      assertTrue( branch.isFinished() );
+    }
+
+    assertEquals( 20, finished.get() );
+    assertTrue( maxRunning.get() <= 2 );
+    assertEquals( 0, scheduler.getRunningCount() );
+    assertEquals( 0, scheduler.getQueuedCount() );
+  }
+
+  @Test( timeout = 30000 )
+  public void testJobLimitQueuesEntries() throws Exception {
+    JobEntryScheduler scheduler = new JobEntryScheduler( 0 );
+    JobEntryScheduler.Group group = scheduler.createGroup( 1, null );
+    CountDownLatch release = new CountDownLatch( 1 );
+
+    JobEntryScheduler.Branch first = scheduler.submit( group, () -> await( release ) );
+    JobEntryScheduler.Branch second = scheduler.submit( group, () -> { } );
+    assertEquals( 1, group.getRunningCount() );
+    assertEquals( 1, group.getQueuedCount() );
+
+    // Another job isn't held back
+    JobEntryScheduler.Group other = scheduler.createGroup( 1, null );
+    scheduler.join( scheduler.submit( other, () -> { } ) );
+
+    // Joining the queued entry runs it in this thread
+    scheduler.join( second );
+    assertTrue( second.isFinished() );
+    assertFalse( first.isFinished() );
+    assertEquals( 0, group.getQueuedCount() );
+
+    release.countDown();
+    scheduler.join( first );
+    assertEquals( 0, group.getRunningCount() );
+  }
+
+  @Test( timeout = 30000 )
+  public void testNestedEntriesDontDeadlock() throws Exception {
+    JobEntryScheduler scheduler = new JobEntryScheduler( 1 );
+    JobEntryScheduler.Group group = scheduler.createGroup( 0, null );
+    AtomicInteger finished = new AtomicInteger();
+
+    List<JobEntryScheduler.Branch> outer = new ArrayList<>();
+    for ( int i = 0; i < 4; i++ ) {
+      outer.add( scheduler.submit( group, () -> {
+        List<JobEntryScheduler.Branch> inner = new ArrayList<>();
+        for ( int j = 0; j < 4; j++ ) {
+          inner.add( scheduler.submit( group, finished::incrementAndGet ) );
+        }
+        for ( JobEntryScheduler.Branch branch : inner ) {
+          try {
+            scheduler.join( branch );
+          } catch ( InterruptedException e ) {
+            Thread.currentThread().interrupt();
+          }
+        }
+      } ) );
+    }
+    for ( JobEntryScheduler.Branch branch : outer ) {
+      scheduler.join( branch );
+    }
+
+    assertEquals( 16, finished.get() );
+  }
+
+  private static void sleep( long millis ) {
+    try {
+      Thread.sleep( millis );
+    } catch ( InterruptedException e ) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private static void await( CountDownLatch latch ) {
+    try {
+      latch.await( 20, TimeUnit.SECONDS );
+    } catch ( InterruptedException e ) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
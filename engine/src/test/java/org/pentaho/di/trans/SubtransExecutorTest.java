@@ -38,6 +38,8 @@ import org.pentaho.di.core.plugins.StepPluginType;
 import org.pentaho.di.core.row.RowMetaInterface;
 import org.pentaho.di.core.variables.Variables;
 import org.pentaho.di.junit.rules.RestorePDIEngineEnvironment;
+import org.pentaho.di.trans.step.BaseStepData.StepExecutionStatus;
+import org.pentaho.di.trans.step.StepMetaDataCombi;
 import org.pentaho.di.trans.step.StepStatus;
 import org.pentaho.di.trans.steps.transexecutor.TransExecutorParameters;
 
@@ -59,6 +61,7 @@ import java.util.concurrent.TimeoutException;
 import static junit.framework.TestCase.fail;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
@@ -151,6 +154,107 @@ public class SubtransExecutorTest {
     verify( parentTrans, atLeastOnce() ).addActiveSubTransformation( eq( "subtransname" ), any( Trans.class ) );
   }
 
+  @Test
+  public void runsPreparedTrans() throws Exception {
+    TransMeta parentMeta =
+      new TransMeta( DefaultBowl.getInstance(), this.getClass().getResource( "subtrans-executor-parent.ktr" ).getPath(),
+        new Variables() );
+    TransMeta subMeta =
+      new TransMeta( DefaultBowl.getInstance(), this.getClass().getResource( "subtrans-executor-sub.ktr" ).getPath(),
+        new Variables() );
+    LoggingObjectInterface loggingObject = new LoggingObject( "anything" );
+    Trans parentTrans = new Trans( parentMeta, loggingObject );
+    parentTrans.setVariable( Const.KETTLE_SUBTRANS_POOL_SIZE, "2" );
+    SubtransExecutor subtransExecutor =
+      new SubtransExecutor( "subtransname", parentTrans, subMeta, true, new TransExecutorParameters(), "Group By",
+        1001 );
+    RowMetaInterface rowMeta = parentMeta.getStepFields( "Data Grid" );
+
+    // The first batch prepares its own transformation, the next ones can use the prepared ones
+    for ( long i = 1; i <= 5; i++ ) {
+      List<RowMetaAndData> rows = Arrays.asList(
+        new RowMetaAndData( rowMeta, "Pentaho", i ),
+        new RowMetaAndData( rowMeta, "Pentaho", i ) );
+      Result result = subtransExecutor.execute( rows ).orElseThrow( AssertionError::new );
+      assertEquals( 1, result.getRows().size() );
+      assertEquals( 2 * i, (long) result.getRows().get( 0 ).getInteger( "sum" ) );
+    }
+    subtransExecutor.stop();
+  }
+
+  @Test
+  public void preparedTransStepsAreInitializedWhenTaken() throws Exception {
+    TransMeta parentMeta =
+      new TransMeta( DefaultBowl.getInstance(), this.getClass().getResource( "subtrans-executor-parent.ktr" ).getPath(),
+        new Variables() );
+    TransMeta subMeta =
+      new TransMeta( DefaultBowl.getInstance(), this.getClass().getResource( "subtrans-executor-sub.ktr" ).getPath(),
+        new Variables() );
+    LoggingObjectInterface loggingObject = new LoggingObject( "anything" );
+    Trans parentTrans = new Trans( parentMeta, loggingObject );
+    parentTrans.setVariable( Const.KETTLE_SUBTRANS_POOL_SIZE, "1" );
+    SubtransExecutor subtransExecutor =
+      new SubtransExecutor( "subtransname", parentTrans, subMeta, true, new TransExecutorParameters(), "Group By",
+        1001 );
+    RowMetaInterface rowMeta = parentMeta.getStepFields( "Data Grid" );
+    subtransExecutor.execute( Collections.singletonList( new RowMetaAndData( rowMeta, "Pentaho", 1L ) ) );
+
+    SubtransPool pool = subtransExecutor.getPool();
+    long deadline = System.currentTimeMillis() + 10000;
+    while ( pool.getPreparedCount() < 1 && System.currentTimeMillis() < deadline ) {
+      Thread.sleep( 10 );
+    }
+    Trans prepared = pool.poll();
+    subtransExecutor.close();
+
+    // Only the steps are created ahead of time, their init() runs when a batch takes the transformation
+    assertFalse( prepared.getSteps().isEmpty() );
+    for ( StepMetaDataCombi combi : prepared.getSteps() ) {
+      assertEquals( StepExecutionStatus.STATUS_EMPTY, combi.data.getStatus() );
+    }
+    prepared.initializeSteps();
+    for ( StepMetaDataCombi combi : prepared.getSteps() ) {
+      assertEquals( StepExecutionStatus.STATUS_IDLE, combi.data.getStatus() );
+    }
+    prepared.cleanup();
+  }
+
+  @Test
+  public void closeCleansUpPreparedTrans() throws Exception {
+    TransMeta parentMeta =
+      new TransMeta( DefaultBowl.getInstance(), this.getClass().getResource( "subtrans-executor-parent.ktr" ).getPath(),
+        new Variables() );
+    TransMeta subMeta =
+      new TransMeta( DefaultBowl.getInstance(), this.getClass().getResource( "subtrans-executor-sub.ktr" ).getPath(),
+        new Variables() );
+    LoggingObjectInterface loggingObject = new LoggingObject( "anything" );
+    Trans parentTrans = new Trans( parentMeta, loggingObject );
+    parentTrans.setVariable( Const.KETTLE_SUBTRANS_POOL_SIZE, "2" );
+    SubtransExecutor subtransExecutor =
+      new SubtransExecutor( "subtransname", parentTrans, subMeta, true, new TransExecutorParameters(), "Group By",
+        1001 );
+    RowMetaInterface rowMeta = parentMeta.getStepFields( "Data Grid" );
+    subtransExecutor.execute( Collections.singletonList( new RowMetaAndData( rowMeta, "Pentaho", 1L ) ) );
+
+    SubtransPool pool = subtransExecutor.getPool();
+    long deadline = System.currentTimeMillis() + 10000;
+    while ( pool.getPreparedCount() < 2 && System.currentTimeMillis() < deadline ) {
+      Thread.sleep( 10 );
+    }
+    assertEquals( 2, pool.getPreparedCount() );
+
+    subtransExecutor.close();
+    assertEquals( 0, pool.getPreparedCount() );
+    assertNull( subtransExecutor.getPool() );
+
+    // Batches after the close prepare their own transformation
+    Result result =
+      subtransExecutor.execute( Collections.singletonList( new RowMetaAndData( rowMeta, "Pentaho", 2L ) ) )
+        .orElseThrow( AssertionError::new );
+    assertEquals( 2L, (long) result.getRows().get( 0 ).getInteger( "sum" ) );
+    assertNull( subtransExecutor.getPool() );
+  }
+
   @Test
   public void stopsAll() throws KettleException {
     TransMeta parentMeta =
@@ -0,0 +1,118 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.di.trans;
+
+import org.junit.Test;
+import org.pentaho.di.core.exception.KettleException;
+import org.pentaho.di.core.logging.LogChannelInterface;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+
+public class SubtransPoolTest {
+
+  private final List<Trans> created = new CopyOnWriteArrayList<>();
+
+  @Test
+  public void closeCleansUpPreparedTrans() throws Exception {
+    SubtransPool pool =
+      new SubtransPool( this::createTrans, new String[ 0 ], 2, "pool", mock( LogChannelInterface.class ) );
+    pool.start();
+    waitForPrepared( pool, 2 );
+
+    Trans used = pool.poll();
+    waitForPrepared( pool, 2 );
+    pool.close();
+
+    assertEquals( 0, pool.getPreparedCount() );
+    assertNull( pool.poll() );
+    assertEquals( 3, created.size() );
+    verify( used, never() ).cleanup();
+    for ( Trans trans : created ) {
+      if ( trans != used ) {
+        verify( trans ).cleanup();
+      }
+    }
+  }
+
+  @Test
+  public void stepsAreNotInitializedAheadOfTime() throws Exception {
+    SubtransPool pool =
+      new SubtransPool( this::createTrans, new String[ 0 ], 1, "pool", mock( LogChannelInterface.class ) );
+    pool.start();
+    waitForPrepared( pool, 1 );
+
+    Trans trans = pool.poll();
+    pool.close();
+
+    // Step init opens files and connections, the caller does it when the batch runs
+    verify( trans ).prepareExecution( any(), eq( true ) );
+    verify( trans, never() ).prepareExecution( any() );
+    verify( trans, never() ).initializeSteps();
+  }
+
+  @Test
+  public void transPreparedWhileClosingIsCleanedUp() throws Exception {
+    CountDownLatch preparing = new CountDownLatch( 1 );
+    CountDownLatch closed = new CountDownLatch( 1 );
+    SubtransPool pool = new SubtransPool( () -> {
+      preparing.countDown();
+      try {
+        closed.await( 10, TimeUnit.SECONDS );
+      } catch ( InterruptedException e ) {
+        throw new KettleException( e );
+      }
+      return createTrans();
+    }, new String[ 0 ], 1, "pool", mock( LogChannelInterface.class ) );
+    pool.start();
+    assertTrue( preparing.await( 10, TimeUnit.SECONDS ) );
+
+    pool.close();
+    closed.countDown();
+
+    long deadline = System.currentTimeMillis() + 10000;
+    while ( created.isEmpty() && System.currentTimeMillis() < deadline ) {
+      Thread.sleep( 10 );
+    }
+    assertEquals( 1, created.size() );
+    verify( created.get( 0 ), timeout( 10000 ) ).cleanup();
+    assertEquals( 0, pool.getPreparedCount() );
+  }
+
+  private Trans createTrans() throws KettleException {
+    Trans trans = mock( Trans.class );
+    created.add( trans );
+    return trans;
+  }
+
+  private void waitForPrepared( SubtransPool pool, int count ) throws InterruptedException {
+    long deadline = System.currentTimeMillis() + 10000;
+    while ( pool.getPreparedCount() < count && System.currentTimeMillis() < deadline ) {
+      Thread.sleep( 10 );
+    }
+    assertEquals( count, pool.getPreparedCount() );
+  }
+}
@@ -21,6 +21,7 @@ import org.mockito.Mock;
 import org.mockito.junit.MockitoJUnitRunner;
 import org.mockito.stubbing.Answer;
 import org.pentaho.di.core.BlockingRowSet;
+import org.pentaho.di.core.Const;
 import org.pentaho.di.core.QueueRowSet;
 import org.pentaho.di.core.ResultFile;
 import org.pentaho.di.core.RowMetaAndData;
@@ -52,6 +53,7 @@ import java.util.Collections;
 import java.util.Date;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 import static org.hamcrest.CoreMatchers.containsString;
@@ -63,6 +65,7 @@ import static org.junit.Assert.assertThat;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.mock;
@@ -210,6 +213,64 @@ public class BaseStepTest {
     }
   }
 
+  @Test
+  public void statusCountersAreAccurateWithConcurrentUpdates() throws InterruptedException {
+    final BaseStep baseStep =
+      new BaseStep( mockHelper.stepMeta, mockHelper.stepDataInterface, 0, mockHelper.transMeta, mockHelper.trans );
+
+    Thread[] threads = new Thread[ 4 ];
+    for ( int i = 0; i < threads.length; i++ ) {
+      threads[ i ] = new Thread( () -> {
+        for ( int r = 0; r < 10000; r++ ) {
+          baseStep.incrementLinesRead();
+          baseStep.incrementLinesWritten();
+          baseStep.incrementLinesRejected();
+        }
+      } );
+      threads[ i ].start();
+    }
+    for ( Thread thread : threads ) {
+      thread.join();
+    }
+
+    assertEquals( 40000, baseStep.getLinesRead() );
+    assertEquals( 40000, baseStep.getLinesWritten() );
+    assertEquals( 40000, baseStep.getLinesRejected() );
+
+    baseStep.setLinesRead( 5 );
+    assertEquals( 6, baseStep.incrementLinesRead() );
+    assertEquals( 5, baseStep.decrementLinesRead() );
+  }
+
+  @Test
+  @SuppressWarnings( "deprecation" )
+  public void deprecatedStatusCounterFieldsAreStillCounted() {
+    final BaseStep baseStep =
+      new BaseStep( mockHelper.stepMeta, mockHelper.stepDataInterface, 0, mockHelper.transMeta, mockHelper.trans );
+
+    // Steps that read the field see the changes made through the methods
+    baseStep.incrementLinesRead();
+    baseStep.incrementLinesRead();
+    assertEquals( 2, baseStep.linesRead );
+
+    // Steps that write the field are counted by the getters
+    baseStep.linesInput++;
+    baseStep.linesInput++;
+    assertEquals( 2, baseStep.getLinesInput() );
+
+    // Both ways mixed
+    baseStep.linesRead++;
+    assertEquals( 4, baseStep.incrementLinesRead() );
+    assertEquals( 4, baseStep.linesRead );
+    assertEquals( 4, baseStep.getLinesRead() );
+
+    baseStep.setLinesWritten( 7 );
+    assertEquals( 7, baseStep.linesWritten );
+    baseStep.linesWritten--;
+    assertEquals( 6, baseStep.getLinesWritten() );
+    assertEquals( 7, baseStep.incrementLinesWritten() );
+  }
+
   @Test
   public void resultFilesMapIsSafeForConcurrentModification() throws Exception {
     final BaseStep step =
@@ -376,6 +437,98 @@ public class BaseStepTest {
     verify( rowHandler, times( 1 ) ).putRow( rowMetaInterface, objects );
   }
 
+  @Test
+  public void putRowsWithRowHandler() throws KettleException {
+    BaseStep baseStep =
+      new BaseStep( mockHelper.stepMeta, mockHelper.stepDataInterface,
+        0, mockHelper.transMeta, mockHelper.trans );
+    baseStep.setRowHandler( rowHandler );
+
+    RowMetaInterface rowMetaInterface = mock( RowMetaInterface.class );
+    Object[] row1 = new Object[] { "foo" };
+    Object[] row2 = new Object[] { "bar" };
+    Object[] row3 = new Object[] { "baz" };
+    baseStep.putRows( rowMetaInterface, Arrays.asList( row1, row2, row3 ) );
+    verify( rowHandler, times( 1 ) ).putRow( rowMetaInterface, row1 );
+    verify( rowHandler, times( 1 ) ).putRows( rowMetaInterface, Arrays.asList( row2, row3 ) );
+  }
+
+  @Test
+  public void getRowsWithDefaultRowHandlerMethodsReturnsSingleRow() throws KettleException {
+    BaseStep baseStep =
+      new BaseStep( mockHelper.stepMeta, mockHelper.stepDataInterface,
+        0, mockHelper.transMeta, mockHelper.trans );
+    baseStep.setRowHandler( rowHandlerWithDefaultMethods() );
+
+    List<Object[]> rows = baseStep.getRows( 100 );
+    assertEquals( 1, rows.size() );
+  }
+
+  @Test
+  public void putRowsAndGetRowsInBlocks() throws KettleException {
+    when( mockHelper.trans.isRunning() ).thenReturn( true );
+    BaseStep baseStep =
+      new BaseStep( mockHelper.stepMeta, mockHelper.stepDataInterface, 0, mockHelper.transMeta, mockHelper.trans );
+    baseStep.setStopped( false );
+    baseStep.setRepartitioning( StepPartitioningMeta.PARTITIONING_METHOD_NONE );
+    RowSet rowSet = new BlockingRowSet( 10 );
+    baseStep.setOutputRowSets( new ArrayList<>( Collections.singletonList( rowSet ) ) );
+
+    RowMetaInterface rowMeta = new RowMeta();
+    rowMeta.addValueMeta( new ValueMetaInteger( "integer" ) );
+    List<Object[]> rows = new ArrayList<>();
+    for ( long i = 0; i < 5; i++ ) {
+      rows.add( new Object[] { i } );
+    }
+
+    baseStep.putRows( rowMeta, rows );
+    assertEquals( 5, rowSet.size() );
+    assertEquals( 5, baseStep.getLinesWritten() );
+
+    BaseStep nextStep =
+      spy( new BaseStep( mockHelper.stepMeta, mockHelper.stepDataInterface, 0, mockHelper.transMeta,
+        mockHelper.trans ) );
+    doNothing().when( nextStep ).waitUntilTransformationIsStarted();
+    doNothing().when( nextStep ).openRemoteInputStepSocketsOnce();
+    nextStep.setInputRowSets( new ArrayList<>( Collections.singletonList( rowSet ) ) );
+
+    List<Object[]> block = nextStep.getRows( 3 );
+    assertEquals( 3, block.size() );
+    assertEquals( 0L, block.get( 0 )[ 0 ] );
+    assertEquals( 2L, block.get( 2 )[ 0 ] );
+
+    block = nextStep.getRows( 100 );
+    assertEquals( 2, block.size() );
+    assertEquals( 4L, block.get( 1 )[ 0 ] );
+    assertEquals( 5, nextStep.getLinesRead() );
+    assertEquals( 0, rowSet.size() );
+  }
+
+  @Test
+  public void putRowsUsesRowSetPutTimeout() throws KettleException {
+    System.setProperty( Const.KETTLE_ROWSET_PUT_TIMEOUT, "7" );
+    try {
+      when( mockHelper.trans.isRunning() ).thenReturn( true );
+      BaseStep baseStep =
+        new BaseStep( mockHelper.stepMeta, mockHelper.stepDataInterface, 0, mockHelper.transMeta, mockHelper.trans );
+      baseStep.setStopped( false );
+      baseStep.setRepartitioning( StepPartitioningMeta.PARTITIONING_METHOD_NONE );
+      RowSet rowSet = mock( RowSet.class );
+      when( rowSet.putRow( any(), any() ) ).thenReturn( true );
+      when( rowSet.putRowsWait( any(), any(), eq( 0 ), eq( 7L ), eq( TimeUnit.MILLISECONDS ) ) ).thenReturn( 2 );
+      baseStep.setOutputRowSets( new ArrayList<>( Collections.singletonList( rowSet ) ) );
+
+      RowMetaInterface rowMeta = new RowMeta();
+      rowMeta.addValueMeta( new ValueMetaInteger( "integer" ) );
+      baseStep.putRows( rowMeta, Arrays.asList( new Object[] { 1L }, new Object[] { 2L }, new Object[] { 3L } ) );
+
+      verify( rowSet ).putRowsWait( any(), any(), eq( 0 ), eq( 7L ), eq( TimeUnit.MILLISECONDS ) );
+      assertEquals( 3, baseStep.getLinesWritten() );
+    } finally {
+      System.clearProperty( Const.KETTLE_ROWSET_PUT_TIMEOUT );
+    }
+  }
+
   @Test
   public void putErrorWithRowHandler() throws KettleException {
     BaseStep baseStep =
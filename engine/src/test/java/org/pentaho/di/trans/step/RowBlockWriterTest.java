@@ -0,0 +1,179 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.di.trans.step;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.PushbackInputStream;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import org.junit.Test;
+import org.pentaho.di.core.exception.KettleEOFException;
+import org.pentaho.di.core.row.RowMeta;
+import org.pentaho.di.core.row.RowMetaInterface;
+import org.pentaho.di.core.row.value.ValueMetaBigNumber;
+import org.pentaho.di.core.row.value.ValueMetaBoolean;
+import org.pentaho.di.core.row.value.ValueMetaDate;
+import org.pentaho.di.core.row.value.ValueMetaInteger;
+import org.pentaho.di.core.row.value.ValueMetaNumber;
+import org.pentaho.di.core.row.value.ValueMetaString;
+
+public class RowBlockWriterTest {
+
+  private static RowMetaInterface createRowMeta() {
+    RowMetaInterface rowMeta = new RowMeta();
+    rowMeta.addValueMeta( new ValueMetaInteger( "id" ) );
+    rowMeta.addValueMeta( new ValueMetaString( "category" ) );
+    rowMeta.addValueMeta( new ValueMetaString( "description" ) );
+    rowMeta.addValueMeta( new ValueMetaNumber( "amount" ) );
+    rowMeta.addValueMeta( new ValueMetaDate( "date" ) );
+    rowMeta.addValueMeta( new ValueMetaBoolean( "flag" ) );
+    rowMeta.addValueMeta( new ValueMetaBigNumber( "total" ) );
+    return rowMeta;
+  }
+
+  private static List<Object[]> createRows( int nrRows ) {
+    List<Object[]> rows = new ArrayList<>();
+    for ( int i = 0; i < nrRows; i++ ) {
+      rows.add( new Object[] {
+        i % 7 == 0 ? null : Long.valueOf( 1000L - i * 3L ),
+        i % 5 == 0 ? null : "category " + ( i / 10 ) % 3,
+        "description " + i + " é",
+        i % 11 == 0 ? null : Double.valueOf( i * 1.5 ),
+        new Date( 1700000000000L + i * 1000L ),
+        i % 3 == 0 ? null : Boolean.valueOf( i % 2 == 0 ),
+        new BigDecimal( i + ".25" ), } );
+    }
+    return rows;
+  }
+
+  private static byte[] write( RowMetaInterface rowMeta, List<Object[]> rows, boolean compressing ) throws Exception {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    DataOutputStream outputStream = new DataOutputStream( bytes );
+    RowBlockWriter writer = new RowBlockWriter( outputStream, rowMeta, compressing, 100 );
+    for ( Object[] row : rows ) {
+      writer.writeRow( row );
+    }
+    writer.close();
+    return bytes.toByteArray();
+  }
+
+  private static void assertRows( RowMetaInterface rowMeta, List<Object[]> rows, byte[] bytes ) throws Exception {
+    RowBlockReader reader =
+      new RowBlockReader( new DataInputStream( new ByteArrayInputStream( bytes ) ), rowMeta );
+    for ( Object[] row : rows ) {
+      Object[] read = reader.readRow();
+      for ( int i = 0; i < row.length; i++ ) {
+        assertEquals( row[i], read[i] );
+      }
+    }
+    assertNull( reader.readRow() );
+    assertNull( reader.readRow() );
+  }
+
+  @Test
+  public void testRoundTrip() throws Exception {
+    RowMetaInterface rowMeta = createRowMeta();
+    List<Object[]> rows = createRows( 250 );
+    assertRows( rowMeta, rows, write( rowMeta, rows, false ) );
+  }
+
+  @Test
+  public void testRoundTripCompressed() throws Exception {
+    RowMetaInterface rowMeta = createRowMeta();
+    List<Object[]> rows = createRows( 1000 );
+    byte[] compressed = write( rowMeta, rows, true );
+    assertRows( rowMeta, rows, compressed );
+    assertTrue( compressed.length < write( rowMeta, rows, false ).length );
+  }
+
+  @Test
+  public void testEmpty() throws Exception {
+    RowMetaInterface rowMeta = createRowMeta();
+    assertRows( rowMeta, new ArrayList<>(), write( rowMeta, new ArrayList<>(), true ) );
+  }
+
+  @Test( expected = KettleEOFException.class )
+  public void testStreamEndsWithoutEndMarker() throws Exception {
+    RowMetaInterface rowMeta = createRowMeta();
+    byte[] bytes = write( rowMeta, createRows( 100 ), false );
+    // Drop the end marker
+    byte[] truncated = new byte[bytes.length - 4];
+    System.arraycopy( bytes, 0, truncated, 0, truncated.length );
+
+    RowBlockReader reader =
+      new RowBlockReader( new DataInputStream( new ByteArrayInputStream( truncated ) ), rowMeta );
+    for ( int i = 0; i < 100; i++ ) {
+      reader.readRow();
+    }
+    reader.readRow();
+  }
+
+  @Test
+  public void testLegacyStreamIsPushedBack() throws Exception {
+    byte[] legacy = { 0, 0, 0, 3, 1, 2, 3 };
+    PushbackInputStream in =
+      new PushbackInputStream( new ByteArrayInputStream( legacy ), RowBlockProtocol.HANDSHAKE_LENGTH );
+    assertFalse( RowBlockProtocol.isAccepted( in ) );
+
+    byte[] read = new byte[legacy.length];
+    new DataInputStream( in ).readFully( read );
+    assertArrayEquals( legacy, read );
+  }
+
+  @Test
+  public void testGzipStreamIsPushedBack() throws Exception {
+    byte[] gzip = { 0x1f, (byte) 0x8b, 8, 0 };
+    PushbackInputStream in =
+      new PushbackInputStream( new ByteArrayInputStream( gzip ), RowBlockProtocol.HANDSHAKE_LENGTH );
+    assertFalse( RowBlockProtocol.isAccepted( in ) );
+    assertEquals( 0x1f, in.read() );
+  }
+
+  @Test
+  public void testHandshake() throws Exception {
+    try ( ServerSocket serverSocket = new ServerSocket( 0 );
+          Socket client = new Socket( "localhost", serverSocket.getLocalPort() );
+          Socket server = serverSocket.accept() ) {
+      RowBlockProtocol.offer( client );
+      assertTrue( RowBlockProtocol.acceptOffer( server, 5000 ) );
+      PushbackInputStream in =
+        new PushbackInputStream( client.getInputStream(), RowBlockProtocol.HANDSHAKE_LENGTH );
+      assertTrue( RowBlockProtocol.isAccepted( in ) );
+    }
+  }
+
+  @Test
+  public void testHandshakeWithoutOffer() throws Exception {
+    try ( ServerSocket serverSocket = new ServerSocket( 0 );
+          Socket client = new Socket( "localhost", serverSocket.getLocalPort() );
+          Socket server = serverSocket.accept() ) {
+      assertFalse( RowBlockProtocol.acceptOffer( server, 100 ) );
+      assertEquals( 0, server.getSoTimeout() );
+    }
+  }
+}
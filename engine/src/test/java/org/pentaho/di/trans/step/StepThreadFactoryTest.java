@@ -0,0 +1,68 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+
+package org.pentaho.di.trans.step;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+import org.pentaho.di.core.Const;
+import org.pentaho.di.core.logging.LogChannelInterface;
+import org.pentaho.di.core.logging.Metrics;
+import org.pentaho.di.core.variables.Variables;
+import org.pentaho.di.trans.step.StepThreadFactory.ThreadMode;
+
+public class StepThreadFactoryTest {
+
+  @Test
+  public void testThreadMode() {
+    assertEquals( ThreadMode.VIRTUAL, ThreadMode.getThreadMode( " virtual ", ThreadMode.PLATFORM ) );
+    assertEquals( ThreadMode.PLATFORM, ThreadMode.getThreadMode( "unknown", ThreadMode.PLATFORM ) );
+    assertEquals( ThreadMode.PLATFORM, ThreadMode.getThreadMode( null, ThreadMode.PLATFORM ) );
+
+    Variables space = new Variables();
+    assertEquals( ThreadMode.PLATFORM, StepThreadFactory.getInstance( space ).getThreadMode() );
+    space.setVariable( Const.KETTLE_STEP_THREAD_MODE, "VIRTUAL" );
+    // Falls back on platform threads on Java versions without virtual threads
+    assertEquals( StepThreadFactory.isVirtualThreadSupported(), StepThreadFactory.getInstance( space ).isVirtual() );
+  }
+
+  @Test
+  public void testThreadRunsStepAndReportsMetrics() throws Exception {
+    for ( ThreadMode mode : ThreadMode.values() ) {
+      LogChannelInterface log = mock( LogChannelInterface.class );
+      AtomicInteger runs = new AtomicInteger();
+      StepThreadFactory factory = new StepThreadFactory( mode );
+
+      Thread thread = factory.newThread( () -> {
+        runs.incrementAndGet();
+        assertTrue( StepThreadFactory.getRunningThreads() > 0 );
+      }, "step thread", log );
+      assertEquals( "step thread", thread.getName() );
+      thread.start();
+      thread.join();
+
+      assertEquals( 1, runs.get() );
+      verify( log ).snap( eq( Metrics.METRIC_STEP_THREADS ), anyLong() );
+      verify( log ).snap( eq( Metrics.METRIC_STEP_SCHEDULING_LATENCY ), anyLong() );
+    }
+  }
+}
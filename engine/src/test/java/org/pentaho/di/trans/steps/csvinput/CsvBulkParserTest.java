@@ -0,0 +1,113 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.di.trans.steps.csvinput;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+public class CsvBulkParserTest {
+  private static final byte[] ENCLOSURE = new byte[] { '"' };
+
+  private File file;
+
+  @After
+  public void tearDown() {
+    if ( file != null ) {
+      file.delete();
+    }
+  }
+
+  @Test
+  public void splitsRowsAndFields() throws Exception {
+    String content = "a;b;c\nd;;f\r\ng;h\r\n;\n";
+    List<String> expected = Arrays.asList( "a|b|c", "d||f", "g|h", "|" );
+    for ( int chunkSize = 1; chunkSize <= content.length(); chunkSize++ ) {
+      assertEquals( "Chunk size " + chunkSize, expected, parse( content, chunkSize, 0, Long.MAX_VALUE, false ) );
+    }
+  }
+
+  @Test
+  public void lastRowWithoutLineEnd() throws Exception {
+    List<String> expected = Arrays.asList( "a|b", "c|" );
+    for ( int chunkSize = 1; chunkSize <= 8; chunkSize++ ) {
+      assertEquals( expected, parse( "a;b\rc;", chunkSize, 0, Long.MAX_VALUE, false ) );
+    }
+  }
+
+  @Test
+  public void removesEnclosures() throws Exception {
+    String content = "\"a;b\";\"say \"\"hi\"\"\";\"multi\nline\"\n\"\";x\n";
+    List<String> expected = Arrays.asList( "a;b|say \"hi\"|multi\nline", "|x" );
+    for ( int chunkSize = 1; chunkSize <= content.length(); chunkSize++ ) {
+      assertEquals( "Chunk size " + chunkSize, expected, parse( content, chunkSize, 0, Long.MAX_VALUE, false ) );
+    }
+  }
+
+  @Test
+  public void readsOnlyRowsStartingInRange() throws Exception {
+    // Rows start at 0, 4, 10 and 14
+    String content = "a;1\nbb;2\r\nc;3\nd;4";
+    List<String> rows = new ArrayList<>();
+    rows.addAll( parse( content, 3, 0, 5, false ) );
+    rows.addAll( parse( content, 3, 5, 14, true ) );
+    rows.addAll( parse( content, 3, 14, Long.MAX_VALUE, true ) );
+    assertEquals( Arrays.asList( "a|1", "bb|2", "c|3", "d|4" ), rows );
+
+    // A range starting right at a row keeps that row
+    assertEquals( Arrays.asList( "bb|2", "c|3" ), parse( content, 3, 4, 14, true ) );
+    // A range starting between CR and LF
+    assertEquals( Arrays.asList( "c|3" ), parse( content, 3, 9, 14, true ) );
+  }
+
+  private List<String> parse( String content, int chunkSize, long start, long end, boolean skipPartialRow )
+    throws Exception {
+    if ( file == null ) {
+      file = File.createTempFile( "CsvBulkParserTest", ".csv" );
+    }
+    Files.write( file.toPath(), content.getBytes( StandardCharsets.UTF_8 ) );
+
+    List<String> rows = new ArrayList<>();
+    CsvChunkReader reader =
+      new CsvChunkReader( file.getAbsolutePath(), skipPartialRow ? start - 1 : start, chunkSize, "test reader" );
+    CsvBulkParser parser = new CsvBulkParser( reader, end, (byte) ';', ENCLOSURE );
+    try {
+      reader.start();
+      if ( skipPartialRow ) {
+        parser.skipPartialRow();
+      }
+      for ( int nrFields = parser.nextRow(); nrFields >= 0; nrFields = parser.nextRow() ) {
+        StringBuilder row = new StringBuilder();
+        for ( int i = 0; i < nrFields; i++ ) {
+          if ( i > 0 ) {
+            row.append( '|' );
+          }
+          row.append( new String( parser.getField( i ), StandardCharsets.UTF_8 ) );
+        }
+        rows.add( row.toString() );
+      }
+    } finally {
+      parser.close();
+    }
+    return rows;
+  }
+}
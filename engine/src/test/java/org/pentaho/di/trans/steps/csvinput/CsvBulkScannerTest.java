@@ -0,0 +1,63 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.di.trans.steps.csvinput;
+
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.Assert.assertEquals;
+
+public class CsvBulkScannerTest {
+
+  @Test
+  public void indexOfFindsFirstOccurrenceInEveryPosition() {
+    for ( int length = 0; length < 40; length++ ) {
+      for ( int position = 0; position < length; position++ ) {
+        byte[] buffer = new byte[length];
+        buffer[position] = ';';
+        if ( position + 1 < length ) {
+          buffer[length - 1] = ';';
+        }
+        assertEquals( position, CsvBulkScanner.indexOf( buffer, 0, length, (byte) ';' ) );
+      }
+      assertEquals( -1, CsvBulkScanner.indexOf( new byte[length], 0, length, (byte) ';' ) );
+    }
+  }
+
+  @Test
+  public void indexOfStaysInRange() {
+    byte[] buffer = "a;bcdefghijklmnop;q".getBytes( StandardCharsets.US_ASCII );
+    assertEquals( 17, CsvBulkScanner.indexOf( buffer, 2, buffer.length, (byte) ';' ) );
+    assertEquals( -1, CsvBulkScanner.indexOf( buffer, 2, 17, (byte) ';' ) );
+  }
+
+  @Test
+  public void indexOfFindsHighBytes() {
+    byte[] buffer = "abcdefghéijk".getBytes( StandardCharsets.ISO_8859_1 );
+    assertEquals( 8, CsvBulkScanner.indexOf( buffer, 0, buffer.length, (byte) 0xE9 ) );
+    // A byte after a zero byte in the same word must not be reported before it
+    byte[] zeros = new byte[] { 1, 1, 0, 1, 1, 1, 1, 1, 1 };
+    assertEquals( 2, CsvBulkScanner.indexOf( zeros, 0, zeros.length, (byte) 0 ) );
+  }
+
+  @Test
+  public void indexOfAnyFindsFirstOfThreeBytes() {
+    byte[] buffer = "abcdefghijkl\"mn,op\r\n".getBytes( StandardCharsets.US_ASCII );
+    assertEquals( 15, CsvBulkScanner.indexOfAny( buffer, 0, buffer.length, (byte) ',', (byte) '\r', (byte) '\n' ) );
+    assertEquals( 18, CsvBulkScanner.indexOfAny( buffer, 16, buffer.length, (byte) ',', (byte) '\r', (byte) '\n' ) );
+    assertEquals( 12, CsvBulkScanner.indexOfAny( buffer, 0, buffer.length, (byte) '\n', (byte) '"', (byte) ',' ) );
+    assertEquals( -1, CsvBulkScanner.indexOfAny( buffer, 0, 12, (byte) ',', (byte) '\r', (byte) '\n' ) );
+  }
+}
@@ -0,0 +1,140 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.di.trans.steps.csvinput;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.pentaho.di.core.exception.KettleStepException;
+import org.pentaho.di.core.row.RowMetaInterface;
+import org.pentaho.di.junit.rules.RestorePDIEngineEnvironment;
+import org.pentaho.di.trans.step.RowAdapter;
+import org.pentaho.di.trans.step.StepDataInterface;
+import org.pentaho.di.trans.steps.StepMockUtil;
+import org.pentaho.di.trans.steps.mock.StepMockHelper;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class CsvInputBulkParsingTest extends CsvInputUnitTestBase {
+  @ClassRule public static RestorePDIEngineEnvironment env = new RestorePDIEngineEnvironment();
+
+  private StepMockHelper<CsvInputMeta, StepDataInterface> stepMockHelper;
+
+  @Before
+  public void setUp() {
+    stepMockHelper = StepMockUtil.getStepMockHelper( CsvInputMeta.class, "CsvInputBulkParsingTest" );
+  }
+
+  @After
+  public void cleanUp() {
+    stepMockHelper.cleanUp();
+  }
+
+  @Test
+  public void readsRowsWithBulkParser() throws Exception {
+    File file = createTestFile( ENCODING, "first,second\r\n\"a,1\",b\r\n\"say \"\"c\"\"\",d\r\ne" );
+    try {
+      CsvInputMeta meta = createMeta( file, createInputFileFields( "first", "second" ) );
+      meta.setHeaderPresent( true );
+      meta.setBulkParsing( true );
+
+      CsvInputData data = new CsvInputData();
+      List<String> rows = readRows( meta, data, 0, 1 );
+
+      assertTrue( data.bulkParsing );
+      assertEquals( Arrays.asList( "a,1|b", "say \"c\"|d", "e|null" ), rows );
+    } finally {
+      file.delete();
+    }
+  }
+
+  @Test
+  public void fallsBackForMultiByteDelimiter() throws Exception {
+    File file = createTestFile( ENCODING, "a;;b\nc;;d\n" );
+    try {
+      CsvInputMeta meta = createMeta( file, createInputFileFields( "first", "second" ) );
+      meta.setDelimiter( ";;" );
+      meta.setBulkParsing( true );
+
+      CsvInputData data = new CsvInputData();
+      List<String> rows = readRows( meta, data, 0, 1 );
+
+      assertFalse( data.bulkParsing );
+      assertEquals( Arrays.asList( "a|b", "c|d" ), rows );
+    } finally {
+      file.delete();
+    }
+  }
+
+  @Test
+  public void stepCopiesReadEveryRowOnce() throws Exception {
+    StringBuilder content = new StringBuilder( "id,value\n" );
+    List<String> expected = new ArrayList<>();
+    for ( int i = 0; i < 500; i++ ) {
+      content.append( i ).append( ",value" ).append( i ).append( i % 3 == 0 ? "\r\n" : "\n" );
+      expected.add( i + "|value" + i );
+    }
+
+    File file = createTestFile( ENCODING, content.toString() );
+    try {
+      for ( int copies = 1; copies <= 4; copies++ ) {
+        List<String> rows = new ArrayList<>();
+        for ( int copy = 0; copy < copies; copy++ ) {
+          CsvInputMeta meta = createMeta( file, createInputFileFields( "id", "value" ) );
+          meta.setHeaderPresent( true );
+          meta.setRunningInParallel( true );
+          meta.setBulkParsing( true );
+          rows.addAll( readRows( meta, new CsvInputData(), copy, copies ) );
+        }
+        assertEquals( "Step copies: " + copies, expected, rows );
+      }
+    } finally {
+      file.delete();
+    }
+  }
+
+  private List<String> readRows( CsvInputMeta meta, CsvInputData data, int stepNr, int totalNumberOfSteps )
+    throws Exception {
+    CsvInput csvInput = new CsvInput( stepMockHelper.stepMeta, stepMockHelper.stepDataInterface, 0,
+      stepMockHelper.transMeta, stepMockHelper.trans );
+    csvInput.init( meta, data );
+    data.stepNumber = stepNr;
+    data.totalNumberOfSteps = totalNumberOfSteps;
+
+    List<String> rows = new ArrayList<>();
+    csvInput.addRowListener( new RowAdapter() {
+      @Override
+      public void rowWrittenEvent( RowMetaInterface rowMeta, Object[] row ) throws KettleStepException {
+        rows.add( row[0] + "|" + row[1] );
+      }
+    } );
+
+    try {
+      while ( csvInput.processRow( meta, data ) ) {
+        // read all rows
+      }
+    } finally {
+      csvInput.dispose( meta, data );
+    }
+    return rows;
+  }
+}
@@ -0,0 +1,260 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.di.trans.steps.databaselookup;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.pentaho.di.core.RowMetaAndData;
+import org.pentaho.di.core.exception.KettleException;
+import org.pentaho.di.core.row.RowMeta;
+import org.pentaho.di.core.row.value.ValueMetaInteger;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class SharedCacheTest {
+
+  private RowMeta keyMeta;
+
+  @Before
+  public void setUp() {
+    keyMeta = new RowMeta();
+    keyMeta.addValueMeta( new ValueMetaInteger( "id" ) );
+  }
+
+  @After
+  public void tearDown() {
+    SharedCache.clearAll();
+  }
+
+  @Test
+  public void getInstanceReturnsSameCacheForSameName() {
+    SharedCache cache = SharedCache.getInstance( "dim", 10, 0, SharedCache.EVICTION_LRU );
+    assertSame( cache, SharedCache.getInstance( "dim", 20, 0, SharedCache.EVICTION_LFU ) );
+    assertFalse( cache == SharedCache.getInstance( "other", 10, 0, SharedCache.EVICTION_LRU ) );
+  }
+
+  @Test
+  public void getLoadsMissingKeysOnce() throws Exception {
+    SharedCache cache = new SharedCache( "dim", 0, 0, SharedCache.EVICTION_LRU );
+    AtomicInteger loads = new AtomicInteger();
+
+    for ( int i = 0; i < 3; i++ ) {
+      Object[] row = cache.get( keyMeta, new Object[] { 1L }, () -> {
+        loads.incrementAndGet();
+        return new Object[] { "one" };
+      } );
+      assertArrayEquals( new Object[] { "one" }, row );
+    }
+    assertNull( cache.get( keyMeta, new Object[] { 2L }, () -> null ) );
+    assertNull( cache.get( keyMeta, new Object[] { 2L }, () -> {
+      fail( "Rows that were not found are cached too" );
+      return null;
+    } ) );
+
+    assertEquals( 1, loads.get() );
+    assertEquals( 3, cache.getHits() );
+    assertEquals( 2, cache.getMisses() );
+    assertEquals( 2, cache.getSize() );
+  }
+
+  @Test
+  public void concurrentMissesLoadOnce() throws Exception {
+    SharedCache cache = new SharedCache( "dim", 0, 0, SharedCache.EVICTION_LRU );
+    AtomicInteger loads = new AtomicInteger();
+    CountDownLatch loading = new CountDownLatch( 1 );
+    int threads = 8;
+
+    ExecutorService executor = Executors.newFixedThreadPool( threads );
+    try {
+      List<Future<Object[]>> results = new ArrayList<>();
+      for ( int i = 0; i < threads; i++ ) {
+        results.add( executor.submit( () -> cache.get( keyMeta, new Object[] { 1L }, () -> {
+          loads.incrementAndGet();
+          loading.await( 1, TimeUnit.SECONDS );
+          return new Object[] { "one" };
+        } ) ) );
+      }
+      Thread.sleep( 100 );
+      loading.countDown();
+      for ( Future<Object[]> result : results ) {
+        assertArrayEquals( new Object[] { "one" }, result.get( 5, TimeUnit.SECONDS ) );
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+    assertEquals( 1, loads.get() );
+  }
+
+  @Test
+  public void failedLoadIsNotCached() throws Exception {
+    SharedCache cache = new SharedCache( "dim", 0, 0, SharedCache.EVICTION_LRU );
+    try {
+      cache.get( keyMeta, new Object[] { 1L }, () -> {
+        throw new KettleException( "Connection lost" );
+      } );
+      fail( "The exception of the loader is thrown" );
+    } catch ( KettleException e ) {
+      assertTrue( e.getMessage().contains( "Connection lost" ) );
+    }
+    assertEquals( 0, cache.getSize() );
+    assertArrayEquals( new Object[] { "one" }, cache.get( keyMeta, new Object[] { 1L }, () -> new Object[] { "one" } ) );
+  }
+
+  @Test
+  public void leastRecentlyUsedEntriesAreEvicted() throws Exception {
+    SharedCache cache = new SharedCache( "dim", 10, 0, SharedCache.EVICTION_LRU );
+    for ( long i = 0; i < 10; i++ ) {
+      load( cache, i );
+      Thread.sleep( 2 );
+    }
+    // Key 0 is the oldest but it is used again
+    assertNotNull( cache.get( keyMeta, new Object[] { 0L }, () -> null ) );
+    load( cache, 10L );
+
+    assertEquals( 9, cache.getSize() );
+    assertEquals( 2, cache.getEvictions() );
+    assertCached( cache, 0L );
+    assertNotCached( cache, 1L );
+    assertNotCached( cache, 2L );
+  }
+
+  @Test
+  public void leastFrequentlyUsedEntriesAreEvicted() throws Exception {
+    SharedCache cache = new SharedCache( "dim", 10, 0, SharedCache.EVICTION_LFU );
+    for ( long i = 0; i < 10; i++ ) {
+      load( cache, i );
+      if ( i != 4 ) {
+        cache.get( keyMeta, new Object[] { i }, () -> null );
+      }
+    }
+    load( cache, 10L );
+
+    assertEquals( 9, cache.getSize() );
+    assertNotCached( cache, 4L );
+  }
+
+  @Test
+  public void expiredEntriesAreLoadedAgain() throws Exception {
+    SharedCache cache = new SharedCache( "dim", 0, 50, SharedCache.EVICTION_LRU );
+    AtomicInteger loads = new AtomicInteger();
+    cache.get( keyMeta, new Object[] { 1L }, () -> new Object[] { loads.incrementAndGet() } );
+    cache.get( keyMeta, new Object[] { 1L }, () -> new Object[] { loads.incrementAndGet() } );
+    assertEquals( 1, loads.get() );
+
+    Thread.sleep( 100 );
+    Object[] row = cache.get( keyMeta, new Object[] { 1L }, () -> new Object[] { loads.incrementAndGet() } );
+    assertEquals( 2, row[0] );
+  }
+
+  @Test
+  public void loadTableOnce() throws Exception {
+    SharedCache cache = new SharedCache( "dim", 1, 0, SharedCache.EVICTION_LRU );
+    AtomicInteger loads = new AtomicInteger();
+    SharedCache.TableLoader loader = rows -> {
+      loads.incrementAndGet();
+      for ( long i = 0; i < 5; i++ ) {
+        rows.put( new RowMetaAndData( keyMeta, i ), new Object[] { "value" + i } );
+      }
+    };
+
+    assertTrue( cache.loadTable( loader ) );
+    assertFalse( cache.loadTable( loader ) );
+    assertEquals( 1, loads.get() );
+
+    // The maximum size doesn't apply to a loaded table
+    assertEquals( 5, cache.getSize() );
+    assertArrayEquals( new Object[] { "value3" }, cache.getLoaded( keyMeta, new Object[] { 3L } ) );
+    assertNull( cache.getLoaded( keyMeta, new Object[] { 7L } ) );
+    assertEquals( 1, cache.getHits() );
+    assertEquals( 1, cache.getMisses() );
+  }
+
+  @Test
+  public void lastReleaseRemovesCache() {
+    SharedCache cache = SharedCache.getInstance( "dim", 10, 0, SharedCache.EVICTION_LRU );
+    assertSame( cache, SharedCache.getInstance( "dim", 10, 0, SharedCache.EVICTION_LRU ) );
+
+    SharedCache.release( cache );
+    assertSame( cache, SharedCache.getInstance( "dim", 10, 0, SharedCache.EVICTION_LRU ) );
+    SharedCache.release( cache );
+    SharedCache.release( cache );
+    assertFalse( cache == SharedCache.getInstance( "dim", 10, 0, SharedCache.EVICTION_LRU ) );
+
+    // Releasing a cache that was replaced leaves the new one alone
+    SharedCache current = SharedCache.getInstance( "dim", 10, 0, SharedCache.EVICTION_LRU );
+    SharedCache.release( cache );
+    assertSame( current, SharedCache.getInstance( "dim", 10, 0, SharedCache.EVICTION_LRU ) );
+  }
+
+  @Test
+  public void readersKeepOldRowsWhileTableIsLoadedAgain() throws Exception {
+    SharedCache cache = new SharedCache( "dim", 0, 50, SharedCache.EVICTION_LRU );
+    CountDownLatch reloading = new CountDownLatch( 1 );
+    CountDownLatch finish = new CountDownLatch( 1 );
+    assertTrue( cache.loadTable( rows -> rows.put( new RowMetaAndData( keyMeta, 1L ), new Object[] { "old" } ) ) );
+    Thread.sleep( 100 );
+
+    ExecutorService executor = Executors.newSingleThreadExecutor();
+    try {
+      Future<Boolean> reload = executor.submit( () -> cache.loadTable( rows -> {
+        reloading.countDown();
+        try {
+          finish.await();
+        } catch ( InterruptedException e ) {
+          throw new KettleException( e );
+        }
+        rows.put( new RowMetaAndData( keyMeta, 1L ), new Object[] { "new" } );
+      } ) );
+      assertTrue( reloading.await( 10, TimeUnit.SECONDS ) );
+
+      assertFalse( cache.loadTable( rows -> fail( "Only one thread loads the table" ) ) );
+      assertArrayEquals( new Object[] { "old" }, cache.getLoaded( keyMeta, new Object[] { 1L } ) );
+
+      finish.countDown();
+      assertTrue( reload.get( 10, TimeUnit.SECONDS ) );
+      assertArrayEquals( new Object[] { "new" }, cache.getLoaded( keyMeta, new Object[] { 1L } ) );
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  private void load( SharedCache cache, long key ) throws KettleException {
+    cache.get( keyMeta, new Object[] { key }, () -> new Object[] { "value" + key } );
+  }
+
+  private void assertCached( SharedCache cache, long key ) throws KettleException {
+    assertNotNull( cache.get( keyMeta, new Object[] { key }, () -> null ) );
+  }
+
+  private void assertNotCached( SharedCache cache, long key ) throws KettleException {
+    assertNull( cache.get( keyMeta, new Object[] { key }, () -> null ) );
+  }
+}
@@ -165,6 +165,12 @@ public class DimensionLookupMetaInjectionTest extends BaseMetadataInjectionTest<
         return meta.isPreloadingCache();
       }
     } );
+    check( "VERSION_CACHE", new BooleanGetter() {
+      @Override
+      public boolean get() {
+        return meta.isVersionCache();
+      }
+    } );
     check( "CONNECTION_NAME", new StringGetter() {
       public String get() {
         return "My Connection";
@@ -0,0 +1,136 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.di.trans.steps.dimensionlookup;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Date;
+
+import org.junit.Test;
+
+public class DimensionVersionCacheTest {
+  private static final Date MIN = new Date( 0L );
+  private static final Date D1 = new Date( 1000L );
+  private static final Date D2 = new Date( 2000L );
+  private static final Date D3 = new Date( 3000L );
+  private static final Date MAX = new Date( Long.MAX_VALUE / 2 );
+
+  private static final byte[] KEY1 = new byte[] { 1 };
+  private static final byte[] KEY2 = new byte[] { 2 };
+
+  private static Object[] version( long tk, long version, String value, Date from, Date to ) {
+    return new Object[] { tk, version, value, from, to };
+  }
+
+  @Test
+  public void testLookupFindsTheValidVersion() {
+    DimensionVersionCache cache = new DimensionVersionCache( 0 );
+    cache.put( KEY1, version( 2L, 2L, "b", D2, MAX ) );
+    cache.put( KEY1, version( 1L, 1L, "a", MIN, D2 ) );
+
+    assertEquals( "a", cache.lookup( KEY1, D1 )[2] );
+    assertEquals( "b", cache.lookup( KEY1, D2 )[2] );
+    assertEquals( "b", cache.lookup( KEY1, D3 )[2] );
+    assertNull( cache.lookup( KEY1, new Date( -1L ) ) );
+    assertNull( cache.lookup( KEY2, D1 ) );
+  }
+
+  @Test
+  public void testNullDates() {
+    DimensionVersionCache cache = new DimensionVersionCache( 0 );
+    cache.put( KEY1, version( 1L, 1L, "a", null, MAX ) );
+    cache.put( KEY2, version( 2L, 1L, "b", MIN, null ) );
+
+    // No start date: valid from the beginning, no end date: never valid
+    assertEquals( "a", cache.lookup( KEY1, new Date( -1L ) )[2] );
+    assertNull( cache.lookup( KEY2, D1 ) );
+
+    Object[] previous = version( 1L, 1L, "a", null, null );
+    cache.insertVersion( KEY1, version( 3L, 2L, "c", null, MAX ), previous );
+    assertEquals( "c", cache.lookup( KEY1, D1 )[2] );
+  }
+
+  @Test
+  public void testInsertVersionClosesThePreviousVersion() {
+    DimensionVersionCache cache = new DimensionVersionCache( 0 );
+    Object[] first = version( 1L, 1L, "a", MIN, MAX );
+    cache.insertVersion( KEY1, first, null );
+    assertEquals( "a", cache.lookup( KEY1, D2 )[2] );
+
+    Object[] previous = first.clone();
+    previous[4] = D2;
+    cache.insertVersion( KEY1, version( 5L, 2L, "b", D2, MAX ), previous );
+
+    assertEquals( "a", cache.lookup( KEY1, D1 )[2] );
+    assertEquals( "b", cache.lookup( KEY1, D2 )[2] );
+    // The cached values are never changed
+    assertEquals( MAX, first[4] );
+  }
+
+  @Test
+  public void testLoadKeepsChangedVersions() {
+    DimensionVersionCache cache = new DimensionVersionCache( 0 );
+    cache.put( KEY1, version( 1L, 1L, "changed", MIN, MAX ) );
+    cache.load( KEY1, version( 1L, 1L, "loaded", MIN, MAX ) );
+    cache.load( KEY2, version( 2L, 1L, "loaded", MIN, MAX ) );
+
+    assertEquals( "changed", cache.lookup( KEY1, D1 )[2] );
+    assertEquals( "loaded", cache.lookup( KEY2, D1 )[2] );
+  }
+
+  @Test
+  public void testUpdateAllVersions() {
+    DimensionVersionCache cache = new DimensionVersionCache( 0 );
+    cache.put( KEY1, version( 1L, 1L, "a", MIN, D2 ) );
+    cache.put( KEY1, version( 2L, 2L, "b", D2, MAX ) );
+    cache.updateAllVersions( KEY1, new int[] { 2 }, new Object[] { null, null, "c", null, null } );
+
+    assertArrayEquals( version( 1L, 1L, "c", MIN, D2 ), cache.lookup( KEY1, D1 ) );
+    assertArrayEquals( version( 2L, 2L, "c", D2, MAX ), cache.lookup( KEY1, D3 ) );
+  }
+
+  @Test
+  public void testEvictionUnflagsLoaded() {
+    DimensionVersionCache cache = new DimensionVersionCache( 10 );
+    assertTrue( cache.startLoading() );
+    assertFalse( cache.startLoading() );
+    cache.setLoaded();
+    assertTrue( cache.isLoaded() );
+
+    for ( int i = 0; i < 12; i++ ) {
+      cache.put( new byte[] { (byte) i }, version( i, 1L, "a", MIN, MAX ) );
+    }
+    assertTrue( cache.getSize() <= 11 );
+    assertFalse( cache.isLoaded() );
+  }
+
+  @Test
+  public void testEvictionWhileLoadingIsSticky() {
+    DimensionVersionCache cache = new DimensionVersionCache( 10 );
+    assertTrue( cache.startLoading() );
+    for ( int i = 0; i < 12; i++ ) {
+      cache.load( new byte[] { (byte) i }, version( i, 1L, "a", MIN, MAX ) );
+    }
+    // Loading respects the maximum size as well
+    assertTrue( cache.getSize() <= 11 );
+
+    // Back below the maximum, but the dropped keys are still missing
+    cache.setLoaded();
+    assertFalse( cache.isLoaded() );
+  }
+}
@@ -0,0 +1,57 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.di.trans.steps.hashjoin;
+
+import org.junit.Before;
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.pentaho.di.core.injection.BaseMetadataInjectionTest;
+import org.pentaho.di.junit.rules.RestorePDIEngineEnvironment;
+
+public class HashJoinMetaInjectionTest extends BaseMetadataInjectionTest<HashJoinMeta> {
+  @ClassRule public static RestorePDIEngineEnvironment env = new RestorePDIEngineEnvironment();
+  @Before
+  public void setup() {
+    setup( new HashJoinMeta() );
+  }
+
+  @Test
+  public void test() throws Exception {
+    check( "JOIN_TYPE", new StringGetter() {
+      public String get() {
+        return meta.getJoinType();
+      }
+    } );
+    check( "KEY_FIELD", new StringGetter() {
+      public String get() {
+        return meta.getKeyFields()[0];
+      }
+    } );
+    check( "BUILD_KEY_FIELD", new StringGetter() {
+      public String get() {
+        return meta.getBuildKeyFields()[0];
+      }
+    } );
+    check( "MEMORY_LIMIT", new StringGetter() {
+      public String get() {
+        return meta.getMemoryLimit();
+      }
+    } );
+    check( "SPILL_DIRECTORY", new StringGetter() {
+      public String get() {
+        return meta.getSpillDirectory();
+      }
+    } );
+  }
+}
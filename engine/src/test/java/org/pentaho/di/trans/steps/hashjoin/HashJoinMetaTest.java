@@ -0,0 +1,107 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.di.trans.steps.hashjoin;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.pentaho.di.core.bowl.DefaultBowl;
+import org.pentaho.di.core.exception.KettleException;
+import org.pentaho.di.core.row.RowMeta;
+import org.pentaho.di.core.row.RowMetaInterface;
+import org.pentaho.di.core.row.value.ValueMetaInteger;
+import org.pentaho.di.core.row.value.ValueMetaString;
+import org.pentaho.di.core.variables.Variables;
+import org.pentaho.di.junit.rules.RestorePDIEngineEnvironment;
+import org.pentaho.di.trans.step.StepMeta;
+import org.pentaho.di.trans.steps.loadsave.LoadSaveTester;
+import org.pentaho.di.trans.steps.loadsave.validator.FieldLoadSaveValidator;
+
+public class HashJoinMetaTest {
+  @ClassRule public static RestorePDIEngineEnvironment env = new RestorePDIEngineEnvironment();
+
+  LoadSaveTester loadSaveTester;
+
+  public HashJoinMetaTest() {
+    List<String> attributes =
+      Arrays.asList( "joinType", "keyFields", "buildKeyFields", "memoryLimit", "spillDirectory" );
+
+    Map<String, FieldLoadSaveValidator<?>> attrValidatorMap = new HashMap<String, FieldLoadSaveValidator<?>>();
+    Map<String, FieldLoadSaveValidator<?>> typeValidatorMap = new HashMap<String, FieldLoadSaveValidator<?>>();
+
+    loadSaveTester = new LoadSaveTester( HashJoinMeta.class, attributes, new HashMap<String, String>(),
+      new HashMap<String, String>(), attrValidatorMap, typeValidatorMap );
+  }
+
+  @Test
+  public void testSerialization() throws KettleException {
+    loadSaveTester.testSerialization();
+  }
+
+  @Test
+  public void testGetFields() throws Exception {
+    HashJoinMeta meta = new HashJoinMeta();
+
+    RowMetaInterface outputRowMeta = new RowMeta();
+    outputRowMeta.addValueMeta( new ValueMetaInteger( "id" ) );
+    outputRowMeta.addValueMeta( new ValueMetaString( "name" ) );
+
+    RowMeta buildRowMeta = new RowMeta();
+    buildRowMeta.addValueMeta( new ValueMetaInteger( "id" ) );
+    buildRowMeta.addValueMeta( new ValueMetaString( "city" ) );
+
+    meta.getFields( DefaultBowl.getInstance(), outputRowMeta, "Hash join", new RowMetaInterface[] { buildRowMeta },
+      new StepMeta( "Hash join", meta ), new Variables(), null, null );
+
+    assertEquals( 4, outputRowMeta.size() );
+    assertEquals( "id", outputRowMeta.getValueMeta( 0 ).getName() );
+    assertEquals( "name", outputRowMeta.getValueMeta( 1 ).getName() );
+    assertEquals( "id_1", outputRowMeta.getValueMeta( 2 ).getName() );
+    assertEquals( "city", outputRowMeta.getValueMeta( 3 ).getName() );
+  }
+
+  @Test
+  public void testJoinTypeIndex() {
+    HashJoinMeta meta = new HashJoinMeta();
+    meta.setJoinType( "full outer" );
+    assertEquals( 3, meta.getJoinTypeIndex() );
+    meta.setJoinType( "CROSS" );
+    assertEquals( -1, meta.getJoinTypeIndex() );
+  }
+
+  @Test
+  public void cloneTest() throws Exception {
+    HashJoinMeta meta = new HashJoinMeta();
+    meta.setDefault();
+    meta.setKeyFields( new String[] { "kf-1", "kf-2" } );
+    meta.setBuildKeyFields( new String[] { "bkf-1", "bkf-2" } );
+    HashJoinMeta aClone = (HashJoinMeta) meta.clone();
+    assertFalse( aClone == meta );
+    assertEquals( Arrays.asList( meta.getKeyFields() ), Arrays.asList( aClone.getKeyFields() ) );
+    assertEquals( Arrays.asList( meta.getBuildKeyFields() ), Arrays.asList( aClone.getBuildKeyFields() ) );
+    assertEquals( meta.getMemoryLimit(), aClone.getMemoryLimit() );
+
+    assertNotNull( aClone.getStepIOMeta() );
+    assertFalse( meta.getStepIOMeta() == aClone.getStepIOMeta() );
+    assertFalse( meta.getStepIOMeta().getInfoStreams().get( 0 ) == aClone.getStepIOMeta().getInfoStreams().get( 0 ) );
+  }
+}
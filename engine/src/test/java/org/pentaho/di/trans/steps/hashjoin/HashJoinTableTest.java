@@ -0,0 +1,160 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.di.trans.steps.hashjoin;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+
+import java.io.File;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.pentaho.di.trans.step.StepInterface;
+
+public class HashJoinTableTest {
+  private File spillDirectory;
+
+  @Before
+  public void setUp() throws Exception {
+    spillDirectory = Files.createTempDirectory( "hash-join-test" ).toFile();
+  }
+
+  @After
+  public void tearDown() {
+    for ( File file : spillDirectory.listFiles() ) {
+      file.delete();
+    }
+    spillDirectory.delete();
+  }
+
+  private static byte[] key( int i ) {
+    return ByteBuffer.allocate( 4 ).putInt( i ).array();
+  }
+
+  private static byte[] row( int i, int version ) {
+    return ByteBuffer.allocate( 8 ).putInt( i ).putInt( version ).array();
+  }
+
+  private static List<byte[]> rows( HashJoinTable.Entry entry ) {
+    List<byte[]> rows = new ArrayList<>();
+    for ( ; entry != null; entry = entry.getNext() ) {
+      rows.add( entry.getRow() );
+    }
+    return rows;
+  }
+
+  @Test
+  public void testPartitionsAreInRange() {
+    for ( int i = 0; i < 10000; i++ ) {
+      int partition = HashJoinTable.getPartition( key( i ) );
+      assertTrue( partition >= 0 && partition < HashJoinTable.NR_PARTITIONS );
+    }
+  }
+
+  @Test
+  public void testRowsOfAKeyAreChained() throws Exception {
+    HashJoinTable table = new HashJoinTable( 1, 0, spillDirectory );
+    table.add( key( 1 ), row( 1, 1 ) );
+    table.add( key( 1 ), row( 1, 2 ) );
+    table.add( key( 2 ), row( 2, 1 ) );
+    table.built( null, null );
+    assertTrue( table.waitUntilBuilt( mock( StepInterface.class ) ) );
+
+    int partition = HashJoinTable.getPartition( key( 1 ) );
+    assertFalse( table.isSpilled( partition ) );
+    List<byte[]> rows = rows( table.get( partition, key( 1 ) ) );
+    assertEquals( 2, rows.size() );
+    assertArrayEquals( row( 1, 2 ), rows.get( 0 ) );
+    assertArrayEquals( row( 1, 1 ), rows.get( 1 ) );
+    assertNull( table.get( HashJoinTable.getPartition( key( 3 ) ), key( 3 ) ) );
+    assertEquals( 0, table.getSpilledPartitions() );
+  }
+
+  @Test
+  public void testMatchedFlag() throws Exception {
+    HashJoinTable table = new HashJoinTable( 1, 0, spillDirectory );
+    table.add( key( 1 ), row( 1, 1 ) );
+    table.built( null, null );
+
+    HashJoinTable.Entry entry = table.get( HashJoinTable.getPartition( key( 1 ) ), key( 1 ) );
+    assertFalse( entry.isMatched() );
+    entry.setMatched();
+    assertTrue( entry.isMatched() );
+  }
+
+  @Test
+  public void testPartitionsAreSpilledOverTheMemoryLimit() throws Exception {
+    HashJoinTable table = new HashJoinTable( 1, 4096, spillDirectory );
+    for ( int i = 0; i < 1000; i++ ) {
+      table.add( key( i ), row( i, 1 ) );
+    }
+    table.built( null, null );
+    assertTrue( table.waitUntilBuilt( mock( StepInterface.class ) ) );
+    assertTrue( table.getSpilledPartitions() > 0 );
+
+    int found = 0;
+    for ( int i = 0; i < 1000; i++ ) {
+      int partition = HashJoinTable.getPartition( key( i ) );
+      if ( table.isSpilled( partition ) ) {
+        table.spillProbeRow( partition, key( i ), row( i, 2 ) );
+      } else {
+        assertArrayEquals( row( i, 1 ), table.get( partition, key( i ) ).getRow() );
+        found++;
+      }
+    }
+    table.probed();
+    assertTrue( table.waitUntilProbed( mock( StepInterface.class ) ) );
+
+    for ( int partition = 0; partition < HashJoinTable.NR_PARTITIONS; partition++ ) {
+      if ( !table.isSpilled( partition ) ) {
+        continue;
+      }
+      Map<ByteBuffer, HashJoinTable.Entry> entries = table.getEntries( partition );
+      int[] probed = new int[1];
+      table.readProbeRows( partition, ( key, row ) -> {
+        HashJoinTable.Entry entry = entries.get( ByteBuffer.wrap( key ) );
+        assertArrayEquals( ByteBuffer.allocate( 8 ).put( row, 0, 4 ).putInt( 1 ).array(), entry.getRow() );
+        probed[0]++;
+      } );
+      assertEquals( entries.size(), probed[0] );
+      found += probed[0];
+      table.release( partition );
+    }
+    assertEquals( 1000, found );
+    assertEquals( 0, spillDirectory.listFiles().length );
+  }
+
+  @Test
+  public void testBuildRowsAddedAfterSpillingGoToDisk() throws Exception {
+    HashJoinTable table = new HashJoinTable( 1, 1, spillDirectory );
+    table.add( key( 1 ), row( 1, 1 ) );
+    int partition = HashJoinTable.getPartition( key( 1 ) );
+    assertTrue( table.isSpilled( partition ) );
+
+    table.add( key( 1 ), row( 1, 2 ) );
+    table.built( null, null );
+    assertEquals( 2, rows( table.getEntries( partition ).get( ByteBuffer.wrap( key( 1 ) ) ) ).size() );
+    table.release( partition );
+  }
+}
@@ -0,0 +1,230 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.di.trans.steps.hashjoin;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.nullable;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.ClassRule;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.pentaho.di.core.KettleClientEnvironment;
+import org.pentaho.di.core.RowSet;
+import org.pentaho.di.core.exception.KettleException;
+import org.pentaho.di.core.logging.LoggingObjectInterface;
+import org.pentaho.di.core.row.RowMeta;
+import org.pentaho.di.core.row.RowMetaInterface;
+import org.pentaho.di.core.row.value.ValueMetaInteger;
+import org.pentaho.di.core.row.value.ValueMetaString;
+import org.pentaho.di.junit.rules.RestorePDIEngineEnvironment;
+import org.pentaho.di.trans.step.StepMeta;
+import org.pentaho.di.trans.step.errorhandling.StreamInterface;
+import org.pentaho.di.trans.steps.mock.StepMockHelper;
+
+public class HashJoinTest {
+
+  @ClassRule
+  public static RestorePDIEngineEnvironment env = new RestorePDIEngineEnvironment();
+
+  @Rule
+  public TemporaryFolder spillDirectory = new TemporaryFolder();
+
+  private StepMockHelper<HashJoinMeta, HashJoinData> mockHelper;
+  private RowMetaInterface probeRowMeta;
+  private RowMetaInterface buildRowMeta;
+
+  @BeforeClass
+  public static void init() throws KettleException {
+    KettleClientEnvironment.init();
+  }
+
+  @Before
+  public void setUp() {
+    mockHelper = new StepMockHelper<>( "HashJoinTest", HashJoinMeta.class, HashJoinData.class );
+    when( mockHelper.logChannelInterfaceFactory.create( any(), any( LoggingObjectInterface.class ) ) ).thenReturn(
+      mockHelper.logChannelInterface );
+    when( mockHelper.trans.isRunning() ).thenReturn( true );
+
+    probeRowMeta = new RowMeta();
+    probeRowMeta.addValueMeta( new ValueMetaInteger( "id" ) );
+    probeRowMeta.addValueMeta( new ValueMetaString( "name" ) );
+    buildRowMeta = new RowMeta();
+    buildRowMeta.addValueMeta( new ValueMetaInteger( "customer_id" ) );
+    buildRowMeta.addValueMeta( new ValueMetaString( "city" ) );
+    // The layout of the build step when it sends no rows
+    when( mockHelper.transMeta.getStepFields( nullable( StepMeta.class ) ) ).thenReturn( buildRowMeta );
+  }
+
+  @After
+  public void tearDown() {
+    mockHelper.cleanUp();
+  }
+
+  private static Object[] row( Long key, String value ) {
+    return new Object[] { key, value };
+  }
+
+  private static List<Object[]> probeRows() {
+    return Arrays.asList( row( 1L, "Alice" ), row( 2L, "Bob" ), row( 3L, "Carol" ) );
+  }
+
+  private static List<Object[]> buildRows() {
+    return Arrays.asList( row( 1L, "Brussels" ), row( 2L, "Ghent" ), row( 2L, "Antwerp" ), row( 4L, "Leuven" ) );
+  }
+
+  private List<String> join( String joinType, List<Object[]> probeRows, List<Object[]> buildRows ) throws Exception {
+    return join( joinType, new HashJoinTable( 1, 0, null ), probeRows, buildRows );
+  }
+
+  /**
+   * Run a single copy of the step with a build input and a probe input.
+   *
+   * @return the output rows, sorted
+   */
+  private List<String> join( String joinType, HashJoinTable table, List<Object[]> probeRows,
+                             List<Object[]> buildRows ) throws Exception {
+    HashJoinMeta meta = new HashJoinMeta();
+    meta.setJoinType( joinType );
+    meta.setKeyFields( new String[] { "id" } );
+    meta.setBuildKeyFields( new String[] { "customer_id" } );
+
+    // What init() does, with a table of our own
+    HashJoinData data = new HashJoinData();
+    data.probeOptional = HashJoinMeta.probe_optionals[ meta.getJoinTypeIndex() ];
+    data.buildOptional = HashJoinMeta.build_optionals[ meta.getJoinTypeIndex() ];
+    data.copies = 1;
+    data.table = table;
+    data.infoStream = mock( StreamInterface.class );
+    when( data.infoStream.getStepname() ).thenReturn( "build" );
+
+    HashJoin step = spy( new HashJoin( mockHelper.stepMeta, data, 0, mockHelper.transMeta, mockHelper.trans ) );
+    RowSet buildRowSet = mock( RowSet.class );
+    when( buildRowSet.getRowMeta() ).thenReturn( buildRowMeta );
+    doReturn( buildRowSet ).when( step ).findInputRowSet( "build" );
+    Iterator<Object[]> build = buildRows.iterator();
+    doAnswer( invocation -> build.hasNext() ? build.next() : null ).when( step ).getRowFrom( buildRowSet );
+    Iterator<Object[]> probe = probeRows.iterator();
+    doAnswer( invocation -> probe.hasNext() ? probe.next() : null ).when( step ).getRow();
+    step.setInputRowMeta( probeRowMeta );
+
+    List<String> output = new ArrayList<>();
+    doAnswer( invocation -> {
+      Object[] row = invocation.getArgument( 1 );
+      output.add( Arrays.toString( Arrays.copyOf( row, 4 ) ) );
+      return null;
+    } ).when( step ).putRow( any( RowMetaInterface.class ), any( Object[].class ) );
+
+    while ( step.processRow( meta, data ) ) {
+      // Keep joining until the probe rows run out
+    }
+    Collections.sort( output );
+    return output;
+  }
+
+  @Test
+  public void innerJoin() throws Exception {
+    assertEquals( Arrays.asList(
+      "[1, Alice, 1, Brussels]",
+      "[2, Bob, 2, Antwerp]",
+      "[2, Bob, 2, Ghent]" ),
+      join( "INNER", probeRows(), buildRows() ) );
+  }
+
+  @Test
+  public void leftOuterJoin() throws Exception {
+    assertEquals( Arrays.asList(
+      "[1, Alice, 1, Brussels]",
+      "[2, Bob, 2, Antwerp]",
+      "[2, Bob, 2, Ghent]",
+      "[3, Carol, null, null]" ),
+      join( "LEFT OUTER", probeRows(), buildRows() ) );
+  }
+
+  @Test
+  public void fullOuterJoin() throws Exception {
+    assertEquals( Arrays.asList(
+      "[1, Alice, 1, Brussels]",
+      "[2, Bob, 2, Antwerp]",
+      "[2, Bob, 2, Ghent]",
+      "[3, Carol, null, null]",
+      "[null, null, 4, Leuven]" ),
+      join( "FULL OUTER", probeRows(), buildRows() ) );
+  }
+
+  @Test
+  public void fullOuterJoinOfPartitionsOnDisk() throws Exception {
+    // A limit of one byte writes every partition to disk
+    HashJoinTable table = new HashJoinTable( 1, 1, spillDirectory.getRoot() );
+    List<String> joined = join( "FULL OUTER", table, probeRows(), buildRows() );
+
+    assertEquals( join( "FULL OUTER", probeRows(), buildRows() ), joined );
+    assertTrue( table.getSpilledPartitions() > 0 );
+  }
+
+  @Test
+  public void duplicateBuildKeysJoinEveryProbeRow() throws Exception {
+    List<Object[]> buildRows = Arrays.asList( row( 2L, "Ghent" ), row( 2L, "Antwerp" ), row( 2L, "Ghent" ) );
+    List<Object[]> probeRows = Arrays.asList( row( 2L, "Bob" ), row( 2L, "Bart" ) );
+
+    assertEquals( Arrays.asList(
+      "[2, Bart, 2, Antwerp]",
+      "[2, Bart, 2, Ghent]",
+      "[2, Bart, 2, Ghent]",
+      "[2, Bob, 2, Antwerp]",
+      "[2, Bob, 2, Ghent]",
+      "[2, Bob, 2, Ghent]" ),
+      join( "INNER", probeRows, buildRows ) );
+  }
+
+  @Test
+  public void nullKeysJoinEachOtherLikeMergeJoin() throws Exception {
+    List<Object[]> buildRows = Arrays.asList( row( null, "Nowhere" ), row( 5L, "Mons" ) );
+    List<Object[]> probeRows = Arrays.asList( row( null, "Nobody" ), row( 1L, "Alice" ) );
+
+    assertEquals( Collections.singletonList( "[null, Nobody, null, Nowhere]" ),
+      join( "INNER", probeRows, buildRows ) );
+    assertEquals( Arrays.asList(
+      "[1, Alice, null, null]",
+      "[null, Nobody, null, Nowhere]",
+      "[null, null, 5, Mons]" ),
+      join( "FULL OUTER", probeRows, buildRows ) );
+  }
+
+  @Test
+  public void outerJoinWithoutBuildRows() throws Exception {
+    assertEquals( Collections.emptyList(), join( "INNER", probeRows(), Collections.emptyList() ) );
+    assertEquals( Arrays.asList(
+      "[1, Alice, null, null]",
+      "[2, Bob, null, null]",
+      "[3, Carol, null, null]" ),
+      join( "LEFT OUTER", probeRows(), Collections.emptyList() ) );
+  }
+}
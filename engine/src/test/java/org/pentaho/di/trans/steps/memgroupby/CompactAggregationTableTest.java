@@ -0,0 +1,259 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.di.trans.steps.memgroupby;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.BeforeClass;
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.pentaho.di.core.Const;
+import org.pentaho.di.core.KettleEnvironment;
+import org.pentaho.di.core.RowMetaAndData;
+import org.pentaho.di.core.exception.KettleException;
+import org.pentaho.di.core.row.RowMeta;
+import org.pentaho.di.core.row.RowMetaInterface;
+import org.pentaho.di.core.row.value.ValueMetaBigNumber;
+import org.pentaho.di.core.row.value.ValueMetaBoolean;
+import org.pentaho.di.core.row.value.ValueMetaDate;
+import org.pentaho.di.core.row.value.ValueMetaInteger;
+import org.pentaho.di.core.row.value.ValueMetaNumber;
+import org.pentaho.di.core.row.value.ValueMetaString;
+import org.pentaho.di.core.variables.Variables;
+import org.pentaho.di.junit.rules.RestorePDIEngineEnvironment;
+import org.pentaho.di.trans.TransMeta;
+import org.pentaho.di.trans.TransTestFactory;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class CompactAggregationTableTest {
+  @ClassRule public static RestorePDIEngineEnvironment env = new RestorePDIEngineEnvironment();
+
+  private static final String STEPNAME = "group";
+
+  private static final String[] GROUP_FIELDS = { "str", "int", "num", "date", "bool" };
+  private static final String[] SUBJECT_FIELDS = { "a", "b", "a", "b", "a", "b", "a", "b", "a", "a" };
+  private static final int[] AGGREGATE_TYPES = {
+    MemoryGroupByMeta.TYPE_GROUP_SUM, MemoryGroupByMeta.TYPE_GROUP_SUM,
+    MemoryGroupByMeta.TYPE_GROUP_AVERAGE, MemoryGroupByMeta.TYPE_GROUP_AVERAGE,
+    MemoryGroupByMeta.TYPE_GROUP_MIN, MemoryGroupByMeta.TYPE_GROUP_MIN,
+    MemoryGroupByMeta.TYPE_GROUP_MAX, MemoryGroupByMeta.TYPE_GROUP_MAX,
+    MemoryGroupByMeta.TYPE_GROUP_COUNT_ALL, MemoryGroupByMeta.TYPE_GROUP_COUNT_ANY, };
+
+  @BeforeClass
+  public static void before() throws KettleException {
+    KettleEnvironment.init( false );
+  }
+
+  @Test
+  public void testSameResultAsRegularAggregation() throws KettleException {
+    List<RowMetaAndData> input = generateRows( 500, 5000 );
+    assertEquals( runStep( input, false, null, null ), runStep( input, true, null, null ) );
+  }
+
+  @Test
+  public void testSameResultWhenSpillingToDisk() throws KettleException {
+    List<RowMetaAndData> input = generateRows( 30000, 90000 );
+    assertEquals( runStep( input, false, null, null ), runStep( input, true, "1", null ) );
+  }
+
+  @Test
+  public void testSameResultWithValuedNullsAndCompatibilityMode() throws KettleException {
+    Variables variables = new Variables();
+    variables.setVariable( Const.KETTLE_AGGREGATION_MIN_NULL_IS_VALUED, "Y" );
+    variables.setVariable( Const.KETTLE_AGGREGATION_ALL_NULLS_ARE_ZERO, "Y" );
+    variables.setVariable( Const.KETTLE_COMPATIBILITY_MEMORY_GROUP_BY_SUM_AVERAGE_RETURN_NUMBER_TYPE, "Y" );
+
+    List<RowMetaAndData> input = generateRows( 500, 5000 );
+    assertEquals( runStep( input, false, null, variables ), runStep( input, true, "1", variables ) );
+  }
+
+  @Test
+  public void testIsSupported() {
+    RowMetaInterface inputRowMeta = new RowMeta();
+    inputRowMeta.addValueMeta( new ValueMetaString( "key" ) );
+    inputRowMeta.addValueMeta( new ValueMetaBigNumber( "big" ) );
+    inputRowMeta.addValueMeta( new ValueMetaString( "str" ) );
+    inputRowMeta.addValueMeta( new ValueMetaInteger( "int" ) );
+
+    RowMetaInterface groupMeta = new RowMeta();
+    groupMeta.addValueMeta( inputRowMeta.getValueMeta( 0 ) );
+
+    assertTrue( CompactAggregationTable.isSupported( groupMeta, inputRowMeta, new int[] { 3, 2 },
+      new int[] { MemoryGroupByMeta.TYPE_GROUP_SUM, MemoryGroupByMeta.TYPE_GROUP_COUNT_ALL } ) );
+    assertFalse( CompactAggregationTable.isSupported( groupMeta, inputRowMeta, new int[] { 1 },
+      new int[] { MemoryGroupByMeta.TYPE_GROUP_SUM } ) );
+    assertFalse( CompactAggregationTable.isSupported( groupMeta, inputRowMeta, new int[] { 2 },
+      new int[] { MemoryGroupByMeta.TYPE_GROUP_MAX } ) );
+    assertFalse( CompactAggregationTable.isSupported( groupMeta, inputRowMeta, new int[] { 3 },
+      new int[] { MemoryGroupByMeta.TYPE_GROUP_MEDIAN } ) );
+
+    groupMeta.getValueMeta( 0 ).setCaseInsensitive( true );
+    assertFalse( CompactAggregationTable.isSupported( groupMeta, inputRowMeta, new int[] { 3 },
+      new int[] { MemoryGroupByMeta.TYPE_GROUP_SUM } ) );
+  }
+
+  @Test
+  public void testMergePartialAggregates() throws Exception {
+    RowMetaInterface inputRowMeta = new RowMeta();
+    inputRowMeta.addValueMeta( new ValueMetaString( "key" ) );
+    inputRowMeta.addValueMeta( new ValueMetaInteger( "value" ) );
+    RowMetaInterface groupMeta = new RowMeta();
+    groupMeta.addValueMeta( inputRowMeta.getValueMeta( 0 ) );
+    int[] subjectnrs = { 1, 1, 1, 1, 1, 1 };
+    int[] aggregateTypes = {
+      MemoryGroupByMeta.TYPE_GROUP_SUM, MemoryGroupByMeta.TYPE_GROUP_AVERAGE, MemoryGroupByMeta.TYPE_GROUP_MIN,
+      MemoryGroupByMeta.TYPE_GROUP_MAX, MemoryGroupByMeta.TYPE_GROUP_COUNT_ALL, MemoryGroupByMeta.TYPE_GROUP_COUNT_ANY };
+
+    CompactAggregationTable first =
+      new CompactAggregationTable( groupMeta, new int[] { 0 }, inputRowMeta, subjectnrs, aggregateTypes, false, false );
+    CompactAggregationTable second =
+      new CompactAggregationTable( groupMeta, new int[] { 0 }, inputRowMeta, subjectnrs, aggregateTypes, false, false );
+
+    // Characters that take 1, 2 and 3 bytes, a long key and a null key
+    //
+    String longKey = String.join( "", Collections.nCopies( 200, "xé€" ) );
+    first.addRow( new Object[] { "\u0000é€", 4L } );
+    first.addRow( new Object[] { longKey, null } );
+    first.addRow( new Object[] { null, 1L } );
+    second.addRow( new Object[] { "\u0000é€", 10L } );
+    second.addRow( new Object[] { longKey, -3L } );
+
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    DataOutputStream out = new DataOutputStream( bytes );
+    for ( int groupId = 0; groupId < first.size(); groupId++ ) {
+      first.writeGroup( groupId, out );
+    }
+    out.close();
+
+    DataInputStream in = new DataInputStream( new ByteArrayInputStream( bytes.toByteArray() ) );
+    for ( int groupId = 0; groupId < first.size(); groupId++ ) {
+      second.readGroup( in );
+    }
+
+    assertEquals( 3, second.size() );
+    assertArrayEquals( new Object[] { "\u0000é€" }, second.getGroupData( 0 ) );
+    assertArrayEquals( new Object[] { 14L, 7L, 4L, 10L, 2L, 2L }, second.getAggregateResult( 0 ) );
+    assertArrayEquals( new Object[] { longKey }, second.getGroupData( 1 ) );
+    assertArrayEquals( new Object[] { -3L, -3L, -3L, -3L, 1L, 2L }, second.getAggregateResult( 1 ) );
+    assertArrayEquals( new Object[] { null }, second.getGroupData( 2 ) );
+    assertArrayEquals( new Object[] { 1L, 1L, 1L, 1L, 1L, 1L }, second.getAggregateResult( 2 ) );
+  }
+
+  @Test
+  public void testMergeGroupOfOtherTable() throws Exception {
+    RowMetaInterface inputRowMeta = new RowMeta();
+    inputRowMeta.addValueMeta( new ValueMetaString( "key" ) );
+    inputRowMeta.addValueMeta( new ValueMetaNumber( "value" ) );
+    RowMetaInterface groupMeta = new RowMeta();
+    groupMeta.addValueMeta( inputRowMeta.getValueMeta( 0 ) );
+    int[] subjectnrs = { 1, 1, 1, 1 };
+    int[] aggregateTypes = {
+      MemoryGroupByMeta.TYPE_GROUP_SUM, MemoryGroupByMeta.TYPE_GROUP_AVERAGE, MemoryGroupByMeta.TYPE_GROUP_MIN,
+      MemoryGroupByMeta.TYPE_GROUP_COUNT_ALL };
+
+    CompactAggregationTable first =
+      new CompactAggregationTable( groupMeta, new int[] { 0 }, inputRowMeta, subjectnrs, aggregateTypes, false, true );
+    CompactAggregationTable second =
+      new CompactAggregationTable( groupMeta, new int[] { 0 }, inputRowMeta, subjectnrs, aggregateTypes, false, true );
+
+    first.addRow( new Object[] { "a", 1.5 } );
+    first.addRow( new Object[] { "b", 2.0 } );
+    second.addRow( new Object[] { "a", 0.5 } );
+    second.addRow( new Object[] { "b", null } );
+    second.addRow( new Object[] { "c", 4.0 } );
+
+    for ( int groupId = 0; groupId < second.size(); groupId++ ) {
+      first.mergeGroup( second, groupId );
+    }
+
+    assertEquals( 3, first.size() );
+    assertArrayEquals( new Object[] { "a" }, first.getGroupData( 0 ) );
+    assertArrayEquals( new Object[] { 2.0, 1.0, 0.5, 2L }, first.getAggregateResult( 0 ) );
+    // The valued null is the minimum
+    assertArrayEquals( new Object[] { 2.0, 2.0, null, 1L }, first.getAggregateResult( 1 ) );
+    assertArrayEquals( new Object[] { "c" }, first.getGroupData( 2 ) );
+    assertArrayEquals( new Object[] { 4.0, 4.0, 4.0, 1L }, first.getAggregateResult( 2 ) );
+  }
+
+  private List<RowMetaAndData> generateRows( int nrGroups, int nrRows ) {
+    RowMetaInterface rowMeta = new RowMeta();
+    rowMeta.addValueMeta( new ValueMetaString( "str" ) );
+    rowMeta.addValueMeta( new ValueMetaInteger( "int" ) );
+    rowMeta.addValueMeta( new ValueMetaNumber( "num" ) );
+    rowMeta.addValueMeta( new ValueMetaDate( "date" ) );
+    rowMeta.addValueMeta( new ValueMetaBoolean( "bool" ) );
+    rowMeta.addValueMeta( new ValueMetaInteger( "a" ) );
+    rowMeta.addValueMeta( new ValueMetaNumber( "b" ) );
+
+    Random random = new Random( 123 );
+    List<RowMetaAndData> rows = new ArrayList<>();
+    for ( int i = 0; i < nrRows; i++ ) {
+      int group = random.nextInt( nrGroups );
+      rows.add( new RowMetaAndData( rowMeta,
+        group % 7 == 0 ? null : "group-é-" + group % 1000,
+        group % 11 == 0 ? null : (long) group / 1000,
+        group % 2 == 0 ? 0.0 : -0.0,
+        new Date( group % 3 * 86400000L ),
+        group % 5 == 0,
+        random.nextInt( 4 ) == 0 ? null : (long) random.nextInt( 1000 ) - 500,
+        // Multiples of 1/4 add up exactly in any order
+        random.nextInt( 4 ) == 0 ? null : ( random.nextInt( 1000 ) - 500 ) / 4.0 ) );
+    }
+    return rows;
+  }
+
+  private List<String> runStep( List<RowMetaAndData> input, boolean compact, String memoryLimit,
+                                Variables variables ) throws KettleException {
+    MemoryGroupByMeta meta = new MemoryGroupByMeta();
+    meta.setDefault();
+    meta.allocate( GROUP_FIELDS.length, SUBJECT_FIELDS.length );
+    System.arraycopy( GROUP_FIELDS, 0, meta.getGroupField(), 0, GROUP_FIELDS.length );
+    for ( int i = 0; i < SUBJECT_FIELDS.length; i++ ) {
+      meta.getSubjectField()[i] = SUBJECT_FIELDS[i];
+      meta.getAggregateField()[i] = "agg" + i;
+      meta.getAggregateType()[i] = AGGREGATE_TYPES[i];
+    }
+    meta.setCompactAggregation( compact );
+    meta.setMemoryLimit( memoryLimit );
+
+    TransMeta transMeta = TransTestFactory.generateTestTransformation( null, meta, STEPNAME );
+    List<RowMetaAndData> result = TransTestFactory.executeTestTransformation( transMeta,
+      TransTestFactory.INJECTOR_STEPNAME, STEPNAME, TransTestFactory.DUMMY_STEPNAME, input, variables, null );
+
+    List<String> rows = new ArrayList<>();
+    for ( RowMetaAndData row : result ) {
+      StringBuilder builder = new StringBuilder();
+      for ( int i = 0; i < row.size(); i++ ) {
+        Object value = row.getData()[i];
+        builder.append( value instanceof Date ? ( (Date) value ).getTime() : value ).append( '|' );
+        builder.append( value == null ? "null" : value.getClass().getSimpleName() ).append( ';' );
+      }
+      rows.add( builder.toString() );
+    }
+    Collections.sort( rows );
+    return rows;
+  }
+}
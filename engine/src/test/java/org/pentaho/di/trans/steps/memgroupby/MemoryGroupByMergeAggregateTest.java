@@ -0,0 +1,119 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.di.trans.steps.memgroupby;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+import java.util.HashMap;
+
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.pentaho.di.core.logging.LoggingObjectInterface;
+import org.pentaho.di.core.row.RowMeta;
+import org.pentaho.di.core.row.value.ValueMetaInteger;
+import org.pentaho.di.trans.steps.mock.StepMockHelper;
+
+public class MemoryGroupByMergeAggregateTest {
+
+  static StepMockHelper<MemoryGroupByMeta, MemoryGroupByData> mockHelper;
+
+  private static final int[] AGGREGATE_TYPES = {
+    MemoryGroupByMeta.TYPE_GROUP_SUM, MemoryGroupByMeta.TYPE_GROUP_AVERAGE,
+    MemoryGroupByMeta.TYPE_GROUP_STANDARD_DEVIATION, MemoryGroupByMeta.TYPE_GROUP_COUNT_DISTINCT,
+    MemoryGroupByMeta.TYPE_GROUP_MEDIAN, MemoryGroupByMeta.TYPE_GROUP_MIN, MemoryGroupByMeta.TYPE_GROUP_CONCAT_COMMA };
+
+  private MemoryGroupBy step;
+  private MemoryGroupByData data;
+
+  @BeforeClass
+  public static void setUpBeforeClass() throws Exception {
+    mockHelper =
+      new StepMockHelper<>( "Memory Group By", MemoryGroupByMeta.class, MemoryGroupByData.class );
+    when( mockHelper.logChannelInterfaceFactory.create( any(), any( LoggingObjectInterface.class ) ) ).thenReturn(
+      mockHelper.logChannelInterface );
+    when( mockHelper.trans.isRunning() ).thenReturn( true );
+  }
+
+  @AfterClass
+  public static void cleanUp() {
+    mockHelper.cleanUp();
+  }
+
+  @Before
+  public void setUp() throws Exception {
+    MemoryGroupByMeta meta = new MemoryGroupByMeta();
+    meta.allocate( 0, AGGREGATE_TYPES.length );
+    for ( int i = 0; i < AGGREGATE_TYPES.length; i++ ) {
+      meta.getSubjectField()[i] = "value";
+      meta.getAggregateField()[i] = "agg" + i;
+      meta.getAggregateType()[i] = AGGREGATE_TYPES[i];
+    }
+    when( mockHelper.stepMeta.getStepMetaInterface() ).thenReturn( meta );
+
+    data = new MemoryGroupByData();
+    data.inputRowMeta = new RowMeta();
+    data.inputRowMeta.addValueMeta( new ValueMetaInteger( "value" ) );
+    data.subjectnrs = new int[AGGREGATE_TYPES.length];
+    data.groupnrs = new int[0];
+    data.groupMeta = new RowMeta();
+    data.map = new HashMap<>();
+    step = new MemoryGroupBy( mockHelper.stepMeta, data, 0, mockHelper.transMeta, mockHelper.trans );
+    step.newAggregate( null, null );
+  }
+
+  @Test
+  public void testSameResultAsSingleAggregate() throws Exception {
+    Aggregate all = aggregate( 1L, 4L, 4L, 10L, 7L );
+    Aggregate first = aggregate( 1L, 4L );
+    Aggregate second = aggregate( 4L, 10L, 7L );
+
+    step.mergeAggregate( first, second );
+
+    Object[] expected = step.getAggregateResult( all );
+    Object[] merged = step.getAggregateResult( first );
+    assertEquals( 26L, merged[0] );
+    assertEquals( expected[1], merged[1] );
+    assertEquals( (Double) expected[2], (Double) merged[2], 1e-12 );
+    assertEquals( 4L, merged[3] );
+    assertEquals( expected[4], merged[4] );
+    assertEquals( 1L, merged[5] );
+    assertEquals( expected[6], merged[6] );
+  }
+
+  @Test
+  public void testMergeIntoEmptyStandardDeviation() throws Exception {
+    Aggregate first = new Aggregate();
+    step.newAggregate( null, first );
+    Aggregate second = aggregate( 2L, 4L, 4L, 4L, 5L, 5L, 7L, 9L );
+
+    step.mergeAggregate( first, second );
+
+    assertEquals( 2.0, (Double) step.getAggregateResult( first )[2], 1e-12 );
+  }
+
+  private Aggregate aggregate( Long... values ) throws Exception {
+    Aggregate aggregate = new Aggregate();
+    step.newAggregate( new Object[] { values[0] }, aggregate );
+    data.map.clear();
+    data.map.put( data.getHashEntry( new Object[0] ), aggregate );
+    for ( Long value : values ) {
+      step.addToAggregate( new Object[] { value } );
+    }
+    return aggregate;
+  }
+}
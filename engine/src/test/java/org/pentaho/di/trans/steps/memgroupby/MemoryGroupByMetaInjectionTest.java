@@ -63,5 +63,29 @@ public class MemoryGroupByMetaInjectionTest extends BaseMetadataInjectionTest<Me
           return meta.isAlwaysGivingBackOneRow();
         }
       } );
+    check( "COMPACT_AGGREGATION", new BooleanGetter() {
+      @Override
+      public boolean get() {
+        return meta.isCompactAggregation();
+      }
+    } );
+    check( "PARALLEL_AGGREGATION", new BooleanGetter() {
+      @Override
+      public boolean get() {
+        return meta.isParallelAggregation();
+      }
+    } );
+    check( "MEMORY_LIMIT", new StringGetter() {
+      @Override
+      public String get() {
+        return meta.getMemoryLimit();
+      }
+    } );
+    check( "DIRECTORY", new StringGetter() {
+      @Override
+      public String get() {
+        return meta.getDirectory();
+      }
+    } );
   }
 }
@@ -0,0 +1,111 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.di.trans.steps.memgroupby;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Test;
+
+public class MemoryGroupByPartialsTest {
+  private final ExecutorService executor = Executors.newCachedThreadPool();
+
+  @After
+  public void tearDown() {
+    executor.shutdownNow();
+  }
+
+  private Future<List<MemoryGroupByData>> handOverInBackground( MemoryGroupByPartials partials,
+    MemoryGroupByData partial ) {
+    return executor.submit( () -> partials.await( partials.add( partial ), () -> false ) );
+  }
+
+  private static void waitForHandOver( MemoryGroupByPartials partials, int copiesLeft ) throws InterruptedException {
+    // The copies hand over in the background, wait until they did
+    long end = System.currentTimeMillis() + 10000;
+    while ( partials.getRunning() > copiesLeft && System.currentTimeMillis() < end ) {
+      Thread.sleep( 10 );
+    }
+    assertEquals( copiesLeft, partials.getRunning() );
+  }
+
+  @Test
+  public void testLastCopyToHandOverSendsOut() throws Exception {
+    MemoryGroupByPartials partials = new MemoryGroupByPartials( 2 );
+    MemoryGroupByData first = new MemoryGroupByData();
+    MemoryGroupByData second = new MemoryGroupByData();
+
+    Future<List<MemoryGroupByData>> firstCopy = handOverInBackground( partials, first );
+    waitForHandOver( partials, 1 );
+    assertFalse( partials.isComplete() );
+
+    List<MemoryGroupByData> all = partials.await( partials.add( second ), () -> false );
+    assertEquals( Arrays.asList( first, second ), all );
+    assertNull( firstCopy.get( 10, TimeUnit.SECONDS ) );
+    assertTrue( partials.isComplete() );
+    assertEquals( 0, partials.getAbandoned() );
+    assertEquals( 0, partials.getFailed() );
+  }
+
+  @Test
+  public void testAbandonedCopyDoesNotBlockTheOthers() throws Exception {
+    MemoryGroupByPartials partials = new MemoryGroupByPartials( 3 );
+    MemoryGroupByData first = new MemoryGroupByData();
+    MemoryGroupByData second = new MemoryGroupByData();
+
+    Future<List<MemoryGroupByData>> firstCopy = handOverInBackground( partials, first );
+    waitForHandOver( partials, 2 );
+    partials.abandon( true );
+
+    List<MemoryGroupByData> all = partials.await( partials.add( second ), () -> false );
+    assertEquals( Arrays.asList( first, second ), all );
+    assertNull( firstCopy.get( 10, TimeUnit.SECONDS ) );
+    assertEquals( 1, partials.getAbandoned() );
+    assertEquals( 0, partials.getFailed() );
+  }
+
+  @Test
+  public void testLastSurvivingCopySendsOutWhenAnotherAbandons() throws Exception {
+    MemoryGroupByPartials partials = new MemoryGroupByPartials( 2 );
+    MemoryGroupByData first = new MemoryGroupByData();
+
+    Future<List<MemoryGroupByData>> firstCopy = handOverInBackground( partials, first );
+    waitForHandOver( partials, 1 );
+    partials.abandon( false );
+
+    List<MemoryGroupByData> all = firstCopy.get( 10, TimeUnit.SECONDS );
+    assertEquals( 1, all.size() );
+    assertSame( first, all.get( 0 ) );
+    assertTrue( partials.isComplete() );
+    assertEquals( 1, partials.getFailed() );
+  }
+
+  @Test
+  public void testStoppedCopyStopsWaiting() throws Exception {
+    MemoryGroupByPartials partials = new MemoryGroupByPartials( 2 );
+    assertNull( partials.await( partials.add( new MemoryGroupByData() ), () -> true ) );
+    assertFalse( partials.isComplete() );
+  }
+}
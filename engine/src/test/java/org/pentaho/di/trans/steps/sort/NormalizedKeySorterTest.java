@@ -0,0 +1,151 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.di.trans.steps.sort;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.pentaho.di.core.exception.KettleValueException;
+import org.pentaho.di.core.row.RowMeta;
+import org.pentaho.di.core.row.RowMetaInterface;
+import org.pentaho.di.core.row.ValueMetaInterface;
+import org.pentaho.di.core.row.value.ValueMetaBigNumber;
+import org.pentaho.di.core.row.value.ValueMetaBoolean;
+import org.pentaho.di.core.row.value.ValueMetaDate;
+import org.pentaho.di.core.row.value.ValueMetaInteger;
+import org.pentaho.di.core.row.value.ValueMetaNumber;
+import org.pentaho.di.core.row.value.ValueMetaString;
+import org.pentaho.di.junit.rules.RestorePDIEngineEnvironment;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class NormalizedKeySorterTest {
+  @ClassRule public static RestorePDIEngineEnvironment env = new RestorePDIEngineEnvironment();
+
+  private static final int NR_ROWS = 5000;
+
+  private final Random random = new Random( 42 );
+
+  @Test
+  public void testIntegerKey() throws Exception {
+    verifySortOrder( new ValueMetaInteger( "key" ), () -> random.nextInt( 10 ) == 0 ? null
+      : random.nextInt( 3 ) == 0 ? Long.MIN_VALUE + random.nextInt( 3 ) : (long) random.nextInt( 2000 ) - 1000 );
+  }
+
+  @Test
+  public void testNumberKey() throws Exception {
+    double[] specials =
+      { -0.0, 0.0, Double.NaN, Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY, -Double.MAX_VALUE };
+    verifySortOrder( new ValueMetaNumber( "key" ), () -> random.nextInt( 10 ) == 0 ? null
+      : random.nextInt( 10 ) == 0 ? specials[random.nextInt( specials.length )] : random.nextGaussian() * 1000 );
+  }
+
+  @Test
+  public void testDateKey() throws Exception {
+    verifySortOrder( new ValueMetaDate( "key" ), () -> random.nextInt( 10 ) == 0 ? null
+      : new Date( random.nextLong() % 4000000000000L ) );
+  }
+
+  @Test
+  public void testBooleanKey() throws Exception {
+    verifySortOrder( new ValueMetaBoolean( "key" ), () -> random.nextInt( 10 ) == 0 ? null : random.nextBoolean() );
+  }
+
+  @Test
+  public void testStringKey() throws Exception {
+    String[] strings =
+      { "", "a", "ab", "abc", "abcd", "abcde", "abcdf", "b", "\u0000", "\uffff", "\u00e9t\u00e9", "Z" };
+    verifySortOrder( new ValueMetaString( "key" ), () -> random.nextInt( 10 ) == 0 ? null
+      : strings[random.nextInt( strings.length )] + ( random.nextBoolean() ? "" : random.nextInt( 100 ) ) );
+  }
+
+  @Test
+  public void testUnsupportedKeysUseComparator() throws Exception {
+    ValueMetaString caseInsensitive = new ValueMetaString( "key" );
+    caseInsensitive.setCaseInsensitive( true );
+    assertFalse( NormalizedKeySorter.isSupported( caseInsensitive ) );
+
+    ValueMetaString collator = new ValueMetaString( "key" );
+    collator.setCollatorDisabled( false );
+    assertFalse( NormalizedKeySorter.isSupported( collator ) );
+
+    ValueMetaString custom = new ValueMetaString( "key", Comparator.comparing( Object::toString ) );
+    assertFalse( NormalizedKeySorter.isSupported( custom ) );
+
+    verifySortOrder( new ValueMetaBigNumber( "key" ), () -> random.nextInt( 10 ) == 0 ? null
+      : BigDecimal.valueOf( random.nextInt( 1000 ), 2 ) );
+  }
+
+  @Test
+  public void testRadixSort() {
+    long[] keys = { 5L, -1L, 0L, Long.MIN_VALUE, 5L, 1L << 40, Long.MAX_VALUE };
+    int[] order = { 0, 1, 2, 3, 4, 5, 6 };
+
+    NormalizedKeySorter.radixSort( keys, order );
+
+    // Keys are sorted as unsigned numbers, ties keep their original order
+    assertArrayEquals( new long[] { 0L, 5L, 5L, 1L << 40, Long.MAX_VALUE, Long.MIN_VALUE, -1L }, keys );
+    assertArrayEquals( new int[] { 2, 0, 4, 5, 6, 3, 1 }, order );
+  }
+
+  private interface ValueGenerator {
+    Object next();
+  }
+
+  /**
+   * Sort on the generated key followed by a second key, ascending and descending, and compare with the regular sort.
+   */
+  private void verifySortOrder( ValueMetaInterface keyMeta, ValueGenerator generator ) throws Exception {
+    for ( boolean descending : new boolean[] { false, true } ) {
+      RowMetaInterface rowMeta = new RowMeta();
+      ValueMetaInterface key = keyMeta.clone();
+      key.setSortedDescending( descending );
+      rowMeta.addValueMeta( key );
+      rowMeta.addValueMeta( new ValueMetaInteger( "id" ) );
+      int[] fieldNrs = { 0, 1 };
+
+      List<Object[]> rows = new ArrayList<>();
+      for ( int i = 0; i < NR_ROWS; i++ ) {
+        rows.add( new Object[] { generator.next(), (long) i } );
+      }
+      Comparator<Object[]> comparator = ( o1, o2 ) -> {
+        try {
+          return rowMeta.compare( o1, o2, fieldNrs );
+        } catch ( KettleValueException e ) {
+          throw new RuntimeException( e );
+        }
+      };
+      List<Object[]> expected = new ArrayList<>( rows );
+      expected.sort( comparator );
+
+      NormalizedKeySorter sorter = new NormalizedKeySorter( rowMeta, fieldNrs, comparator );
+      assertEquals( NormalizedKeySorter.isSupported( key ), sorter.isUsingPrefix() );
+      sorter.sort( rows );
+
+      assertEquals( expected.size(), rows.size() );
+      for ( int i = 0; i < rows.size(); i++ ) {
+        assertTrue( "Row " + i + " is out of order", rows.get( i ) == expected.get( i ) );
+      }
+    }
+  }
+}
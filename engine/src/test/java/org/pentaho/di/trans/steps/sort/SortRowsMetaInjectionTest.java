@@ -64,6 +64,12 @@ public class SortRowsMetaInjectionTest extends BaseMetadataInjectionTest<SortRow
         return meta.getCompressFiles();
       }
     } );
+    check( "HIGH_PERFORMANCE_SORT", new BooleanGetter() {
+      @Override
+      public boolean get() {
+        return meta.isHighPerformanceSort();
+      }
+    } );
     check( "NAME", new StringGetter() {
       @Override
       public String get() {
@@ -48,8 +48,8 @@ public class SortRowsMetaTest {
   @Test
   public void testRoundTrips() throws KettleException {
     List<String> attributes = Arrays.asList( "Directory", "Prefix", "SortSize", "FreeMemoryLimit", "CompressFiles",
-      "CompressFilesVariable", "OnlyPassingUniqueRows", "FieldName", "Ascending", "CaseSensitive", "CollatorEnabled",
-      "CollatorStrength", "PreSortedField" );
+      "CompressFilesVariable", "OnlyPassingUniqueRows", "HighPerformanceSort", "FieldName", "Ascending",
+      "CaseSensitive", "CollatorEnabled", "CollatorStrength", "PreSortedField" );
 
     Map<String, String> getterMap = new HashMap<String, String>();
     Map<String, String> setterMap = new HashMap<String, String>();
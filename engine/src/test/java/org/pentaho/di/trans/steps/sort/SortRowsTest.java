@@ -0,0 +1,124 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.di.trans.steps.sort;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+
+import org.junit.BeforeClass;
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.pentaho.di.core.KettleEnvironment;
+import org.pentaho.di.core.RowMetaAndData;
+import org.pentaho.di.core.exception.KettleException;
+import org.pentaho.di.core.row.RowMeta;
+import org.pentaho.di.core.row.RowMetaInterface;
+import org.pentaho.di.core.row.value.ValueMetaInteger;
+import org.pentaho.di.core.row.value.ValueMetaString;
+import org.pentaho.di.junit.rules.RestorePDIEngineEnvironment;
+import org.pentaho.di.trans.TransMeta;
+import org.pentaho.di.trans.TransTestFactory;
+
+import static org.junit.Assert.assertEquals;
+
+public class SortRowsTest {
+  @ClassRule public static RestorePDIEngineEnvironment env = new RestorePDIEngineEnvironment();
+
+  private static final String STEPNAME = "sort";
+  private static final int NR_ROWS = 2000;
+
+  @BeforeClass
+  public static void before() throws KettleException {
+    KettleEnvironment.init( false );
+  }
+
+  @Test
+  public void testHighPerformanceSortInMemory() throws KettleException {
+    verifySort( "1000000", false, false );
+  }
+
+  @Test
+  public void testHighPerformanceSortWithTempFiles() throws KettleException {
+    verifySort( "150", false, false );
+  }
+
+  @Test
+  public void testHighPerformanceSortWithCompressedTempFiles() throws KettleException {
+    verifySort( "150", true, false );
+  }
+
+  @Test
+  public void testHighPerformanceSortUniqueRows() throws KettleException {
+    verifySort( "150", true, true );
+  }
+
+  private void verifySort( String sortSize, boolean compress, boolean unique ) throws KettleException {
+    SortRowsMeta meta = new SortRowsMeta();
+    meta.setDefault();
+    meta.allocate( 2 );
+    meta.setFieldName( new String[] { "key", "name" } );
+    meta.setAscending( new boolean[] { true, false } );
+    meta.setCaseSensitive( new boolean[] { true, true } );
+    meta.setCollatorEnabled( new boolean[] { false, false } );
+    meta.setCollatorStrength( new int[] { 0, 0 } );
+    meta.setPreSortedField( new boolean[] { false, false } );
+    meta.setSortSize( sortSize );
+    meta.setCompressFiles( compress );
+    meta.setOnlyPassingUniqueRows( unique );
+    meta.setHighPerformanceSort( true );
+
+    RowMetaInterface rowMeta = new RowMeta();
+    rowMeta.addValueMeta( new ValueMetaInteger( "key" ) );
+    rowMeta.addValueMeta( new ValueMetaString( "name" ) );
+
+    Random random = new Random( 7 );
+    List<RowMetaAndData> input = new ArrayList<>();
+    TreeSet<String> expected = new TreeSet<>();
+    for ( int i = 0; i < NR_ROWS; i++ ) {
+      Long key = random.nextInt( 20 ) == 0 ? null : (long) random.nextInt( 500 ) - 250;
+      String name = "n" + random.nextInt( 10 );
+      input.add( new RowMetaAndData( rowMeta, key, name ) );
+      expected.add( sortableKey( key, name ) );
+    }
+
+    TransMeta transMeta = TransTestFactory.generateTestTransformation( null, meta, STEPNAME );
+    List<RowMetaAndData> result = TransTestFactory.executeTestTransformation( transMeta,
+      TransTestFactory.INJECTOR_STEPNAME, STEPNAME, TransTestFactory.DUMMY_STEPNAME, input );
+
+    if ( unique ) {
+      assertEquals( expected.size(), result.size() );
+    } else {
+      assertEquals( NR_ROWS, result.size() );
+    }
+    String previous = null;
+    for ( RowMetaAndData row : result ) {
+      String current = sortableKey( row.getInteger( "key" ), row.getString( "name", null ) );
+      if ( previous != null ) {
+        int cmp = previous.compareTo( current );
+        assertEquals( "Rows out of order: " + previous + " > " + current, true, unique ? cmp < 0 : cmp <= 0 );
+      }
+      previous = current;
+    }
+  }
+
+  /**
+   * Key ascending with nulls first, name descending.
+   */
+  private static String sortableKey( Long key, String name ) {
+    String keyPart = key == null ? "0" : String.format( "1%04d", key + 1000 );
+    return keyPart + ":" + (char) ( 'z' - name.charAt( 1 ) );
+  }
+}
@@ -53,7 +53,8 @@ public class StreamLookupMetaTest implements InitializerInterface<StepMetaInterf
     PluginRegistry.init( false );
     List<String> attributes =
         Arrays.asList( "inputSorted", "memoryPreservationActive", "usingSortedList", "usingIntegerPair", "keystream",
-            "keylookup", "value", "valueName", "valueDefault", "valueDefaultType" );
+            "keylookup", "value", "valueName", "valueDefault", "valueDefaultType", "usingCompactIndex", "offHeap",
+            "sharingIndex" );
 
     FieldLoadSaveValidator<String[]> stringArrayLoadSaveValidator =
         new ArrayLoadSaveValidator<String>( new StringLoadSaveValidator(), 5 );
@@ -0,0 +1,181 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.di.trans.steps.tableinput;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.same;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.sql.ResultSet;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.stubbing.Answer;
+import org.pentaho.di.core.database.Database;
+import org.pentaho.di.core.database.DatabaseInterface;
+import org.pentaho.di.core.database.DatabaseMeta;
+import org.pentaho.di.core.database.ResultSetRowReader;
+import org.pentaho.di.core.exception.KettleDatabaseException;
+import org.pentaho.di.core.row.RowMeta;
+import org.pentaho.di.trans.step.StepThreadFactory;
+
+public class TableInputFetcherTest {
+
+  private static final int PAGE_SIZE = TableInputFetcher.PAGE_SIZE;
+
+  private Database db;
+  private ResultSet rs;
+  private TableInputFetcher fetcher;
+
+  @Before
+  public void setUp() {
+    DatabaseMeta databaseMeta = mock( DatabaseMeta.class );
+    when( databaseMeta.getDatabaseInterface() ).thenReturn( mock( DatabaseInterface.class ) );
+    db = mock( Database.class );
+    when( db.getDatabaseMeta() ).thenReturn( databaseMeta );
+    rs = mock( ResultSet.class );
+  }
+
+  @After
+  public void tearDown() {
+    if ( fetcher != null ) {
+      fetcher.close();
+    }
+  }
+
+  private TableInputFetcher startFetcher() {
+    fetcher = new TableInputFetcher( db, rs, new RowMeta(),
+      new StepThreadFactory( StepThreadFactory.ThreadMode.PLATFORM ), "fetcher", null );
+    fetcher.start();
+    return fetcher;
+  }
+
+  /**
+   * The resultset has the given number of rows, with their row number as the only value.
+   */
+  private static Answer<Integer> rows( int total ) {
+    AtomicInteger next = new AtomicInteger();
+    return invocation -> {
+      Object[][] rows = invocation.getArgument( 2 );
+      int count = 0;
+      while ( count < rows.length && next.get() < total ) {
+        rows[ count++ ] = new Object[] { (long) next.getAndIncrement() };
+      }
+      return count;
+    };
+  }
+
+  private int readAll() throws KettleDatabaseException {
+    int count = 0;
+    Object[] row;
+    while ( ( row = fetcher.next() ) != null ) {
+      assertEquals( (long) count, row[ 0 ] );
+      count++;
+    }
+    return count;
+  }
+
+  @Test
+  public void readsAllRowsAPageAtATime() throws Exception {
+    when( db.getRows( same( rs ), any( ResultSetRowReader.class ), any() ) ).thenAnswer( rows( 2 * PAGE_SIZE + 10 ) );
+    startFetcher();
+
+    assertEquals( 2 * PAGE_SIZE + 10, readAll() );
+    verify( db, times( 3 ) ).getRows( same( rs ), any( ResultSetRowReader.class ), any() );
+  }
+
+  @Test
+  public void endMarkerAfterLastFullPage() throws Exception {
+    when( db.getRows( same( rs ), any( ResultSetRowReader.class ), any() ) ).thenAnswer( rows( PAGE_SIZE ) );
+    startFetcher();
+
+    assertEquals( PAGE_SIZE, readAll() );
+    // The end stays the end
+    assertNull( fetcher.next() );
+    verify( db, times( 2 ) ).getRows( same( rs ), any( ResultSetRowReader.class ), any() );
+  }
+
+  @Test
+  public void emptyResultset() throws Exception {
+    when( db.getRows( same( rs ), any( ResultSetRowReader.class ), any() ) ).thenAnswer( rows( 0 ) );
+    startFetcher();
+
+    assertNull( fetcher.next() );
+    assertNull( fetcher.next() );
+  }
+
+  @Test
+  public void errorIsThrownByNextAfterTheRowsReadBeforeIt() throws Exception {
+    KettleDatabaseException error = new KettleDatabaseException( "connection lost" );
+    when( db.getRows( same( rs ), any( ResultSetRowReader.class ), any() ) )
+      .thenAnswer( rows( PAGE_SIZE ) )
+      .thenThrow( error );
+    startFetcher();
+
+    for ( int i = 0; i < PAGE_SIZE; i++ ) {
+      assertEquals( (long) i, fetcher.next()[ 0 ] );
+    }
+    try {
+      fetcher.next();
+      fail( "The error of the fetching thread should be thrown" );
+    } catch ( KettleDatabaseException e ) {
+      assertSame( error, e );
+    }
+  }
+
+  @Test
+  public void unexpectedErrorIsWrapped() throws Exception {
+    RuntimeException error = new IllegalStateException( "driver bug" );
+    when( db.getRows( same( rs ), any( ResultSetRowReader.class ), any() ) ).thenThrow( error );
+    startFetcher();
+
+    try {
+      fetcher.next();
+      fail( "The error of the fetching thread should be thrown" );
+    } catch ( KettleDatabaseException e ) {
+      assertSame( error, e.getCause() );
+    }
+  }
+
+  @Test( timeout = 10000 )
+  public void closeStopsFetchingThreadWaitingForRoom() throws Exception {
+    // An endless resultset: the fetching thread fills the queue and waits for room to put the next page
+    when( db.getRows( same( rs ), any( ResultSetRowReader.class ), any() ) ).thenAnswer( invocation -> {
+      Object[][] rows = invocation.getArgument( 2 );
+      for ( int i = 0; i < rows.length; i++ ) {
+        rows[ i ] = new Object[] { (long) i };
+      }
+      return rows.length;
+    } );
+    startFetcher();
+    fetcher.next();
+    // The page taken, a full queue and the page waiting to be put
+    int fetched = TableInputFetcher.QUEUE_SIZE + 2;
+    verify( db, timeout( 5000 ).times( fetched ) ).getRows( same( rs ), any( ResultSetRowReader.class ), any() );
+
+    fetcher.close();
+    fetcher = null;
+    verify( db, times( fetched ) ).getRows( same( rs ), any( ResultSetRowReader.class ), any() );
+  }
+}
@@ -59,6 +59,21 @@ public class TableInputMetaInjectionTest extends BaseMetadataInjectionTest<Table
         return meta.isCachedRowMetaActive();
       }
     } );
+    check( "PREFETCH_ROWS", new BooleanGetter() {
+      public boolean get() {
+        return meta.isPrefetchRows();
+      }
+    } );
+    check( "FETCH_SIZE", new StringGetter() {
+      public String get() {
+        return meta.getFetchSize();
+      }
+    } );
+    check( "PARTITION_COLUMN", new StringGetter() {
+      public String get() {
+        return meta.getPartitionColumn();
+      }
+    } );
     skipPropertyTest( "CONNECTIONNAME" );
   }
 }
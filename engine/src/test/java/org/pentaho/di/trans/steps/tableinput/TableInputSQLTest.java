@@ -0,0 +1,81 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.di.trans.steps.tableinput;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+import org.pentaho.di.core.Const;
+
+public class TableInputSQLTest {
+
+  private static final String CONDITION = "ABS( MOD(id, 3) ) = 1";
+
+  private static String wrapped( String sql ) {
+    return "SELECT * FROM ( " + Const.CR + sql + Const.CR + " ) kettle_partition WHERE " + CONDITION;
+  }
+
+  @Test
+  public void addsWhereClause() {
+    assertEquals( "SELECT id, name FROM customers WHERE " + CONDITION,
+      TableInputSQL.addCondition( "SELECT id, name FROM customers", CONDITION ) );
+    assertEquals( "select * from customers c WHERE " + CONDITION,
+      TableInputSQL.addCondition( "select * from customers c", CONDITION ) );
+  }
+
+  @Test
+  public void addsToExistingWhereClause() {
+    assertEquals( "SELECT * FROM customers WHERE ( country = 'BE' OR country = 'NL' ) AND " + CONDITION,
+      TableInputSQL.addCondition( "SELECT * FROM customers WHERE country = 'BE' OR country = 'NL'", CONDITION ) );
+  }
+
+  @Test
+  public void keepsOrderBy() {
+    assertEquals( "SELECT * FROM customers WHERE " + CONDITION + " ORDER BY name",
+      TableInputSQL.addCondition( "SELECT * FROM customers ORDER BY name", CONDITION ) );
+    assertEquals( "SELECT * FROM customers where ( country = 'BE' ) AND " + CONDITION + " order by name DESC",
+      TableInputSQL.addCondition( "SELECT * FROM customers where country = 'BE'\norder by name DESC", CONDITION ) );
+  }
+
+  @Test
+  public void ignoresKeywordsInSubQueriesLiteralsAndComments() {
+    String sql = "SELECT c.id, 'GROUP BY' AS \"ORDER\" FROM customers c /* UNION */ "
+      + "WHERE c.id IN ( SELECT id FROM orders WHERE total > 10 GROUP BY id ) -- LIMIT 10";
+    assertEquals( "SELECT c.id, 'GROUP BY' AS \"ORDER\" FROM customers c /* UNION */ "
+      + "WHERE ( c.id IN ( SELECT id FROM orders WHERE total > 10 GROUP BY id ) ) AND " + CONDITION,
+      TableInputSQL.addCondition( sql, CONDITION ) );
+  }
+
+  @Test
+  public void removesTrailingSemicolon() {
+    assertEquals( "SELECT * FROM customers WHERE " + CONDITION,
+      TableInputSQL.addCondition( "SELECT * FROM customers;\n", CONDITION ) );
+  }
+
+  @Test
+  public void wrapsOtherQueries() {
+    String[] queries = {
+      "SELECT id, COUNT(*) FROM orders GROUP BY id",
+      "SELECT id FROM customers UNION SELECT id FROM suppliers",
+      "SELECT TOP 10 * FROM customers",
+      "SELECT * FROM customers ORDER BY name LIMIT 10",
+      "WITH recent AS ( SELECT * FROM orders ) SELECT * FROM recent",
+      "SELECT * FROM customers WHERE id = 1 WHERE id = 2",
+      "{ call customers() }",
+    };
+    for ( String sql : queries ) {
+      assertEquals( wrapped( sql ), TableInputSQL.addCondition( sql, CONDITION ) );
+    }
+  }
+}
@@ -15,7 +15,9 @@ package org.pentaho.di.trans.steps.tableinput;
 
 import org.junit.Before;
 import org.junit.Test;
+import org.pentaho.di.core.Const;
 import org.pentaho.di.core.database.Database;
+import org.pentaho.di.core.database.DatabaseMeta;
 import org.pentaho.di.core.exception.KettleException;
 import org.pentaho.di.trans.Trans;
 import org.pentaho.di.trans.TransMeta;
@@ -138,4 +140,70 @@ public class TableInputTest {
     verify( mockStepDataInterface.db, times( 0 ) ).cancelStatement( any( PreparedStatement.class ) );
     assertFalse( mockStepDataInterface.isCanceled );
   }
+
+  private TableInput createPartitionedStep( int copy ) {
+    StepMeta stepMeta = mock( StepMeta.class );
+    TransMeta transMeta = mock( TransMeta.class );
+    when( stepMeta.getName() ).thenReturn( "MockStep" );
+    when( stepMeta.getCopies() ).thenReturn( 3 );
+    when( stepMeta.getTargetStepPartitioningMeta() ).thenReturn( mock( StepPartitioningMeta.class ) );
+    when( transMeta.findStep( anyString() ) ).thenReturn( stepMeta );
+    return new TableInput( stepMeta, mockStepDataInterface, copy, transMeta, mock( Trans.class ) );
+  }
+
+  private TableInputMeta createPartitionedMeta( String rowLimit ) {
+    DatabaseMeta databaseMeta = mock( DatabaseMeta.class );
+    when( databaseMeta.getSQLModulo( "id", 3 ) ).thenReturn( "MOD(id, 3)" );
+    TableInputMeta meta = mock( TableInputMeta.class );
+    when( meta.getPartitionColumn() ).thenReturn( "id" );
+    when( meta.getDatabaseMeta() ).thenReturn( databaseMeta );
+    when( meta.getRowLimit() ).thenReturn( rowLimit );
+    return meta;
+  }
+
+  @Test
+  public void testPartitionedSQLReadsTheRowsOfTheCopy() {
+    TableInputMeta meta = createPartitionedMeta( "0" );
+
+    assertEquals( "SELECT id, name FROM customers WHERE ABS( MOD(id, 3) ) = 1",
+      createPartitionedStep( 1 ).getPartitionedSQL( meta, "SELECT id, name FROM customers" ) );
+    assertEquals( "SELECT id, name FROM customers WHERE ( country = 'BE' ) AND ABS( MOD(id, 3) ) = 2 ORDER BY name",
+      createPartitionedStep( 2 ).getPartitionedSQL( meta,
+        "SELECT id, name FROM customers WHERE country = 'BE' ORDER BY name" ) );
+  }
+
+  @Test
+  public void testPartitionedSQLReadsNullsInTheFirstCopy() {
+    assertEquals( "SELECT id, name FROM customers WHERE ( ABS( MOD(id, 3) ) = 0 OR id IS NULL )",
+      createPartitionedStep( 0 ).getPartitionedSQL( createPartitionedMeta( null ),
+        "SELECT id, name FROM customers" ) );
+  }
+
+  @Test
+  public void testPartitionedSQLWrapsGroupedQuery() {
+    String sql = "SELECT id, COUNT(*) FROM orders GROUP BY id";
+    assertEquals( "SELECT * FROM ( " + Const.CR + sql + Const.CR + " ) kettle_partition WHERE ABS( MOD(id, 3) ) = 1",
+      createPartitionedStep( 1 ).getPartitionedSQL( createPartitionedMeta( null ), sql ) );
+  }
+
+  @Test
+  public void testPartitionedSQLWithRowLimitOnlyReadsInTheFirstCopy() {
+    TableInputMeta meta = createPartitionedMeta( "100" );
+    String sql = "SELECT id, name FROM customers";
+
+    assertEquals( sql, createPartitionedStep( 0 ).getPartitionedSQL( meta, sql ) );
+    assertEquals( sql + " WHERE 1 = 0", createPartitionedStep( 1 ).getPartitionedSQL( meta, sql ) );
+  }
+
+  @Test
+  public void testSQLIsNotPartitionedWithoutColumnOrCopies() {
+    String sql = "SELECT id, name FROM customers";
+    TableInputMeta meta = createPartitionedMeta( null );
+    when( meta.getPartitionColumn() ).thenReturn( "" );
+    assertEquals( sql, createPartitionedStep( 1 ).getPartitionedSQL( meta, sql ) );
+
+    TableInput single = createPartitionedStep( 0 );
+    when( single.getStepMeta().getCopies() ).thenReturn( 1 );
+    assertEquals( sql, single.getPartitionedSQL( createPartitionedMeta( null ), sql ) );
+  }
 }
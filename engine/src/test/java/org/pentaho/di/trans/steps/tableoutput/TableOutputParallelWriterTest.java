@@ -0,0 +1,203 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.di.trans.steps.tableoutput;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.MockedConstruction;
+import org.pentaho.di.core.database.Database;
+import org.pentaho.di.core.database.DatabaseMeta;
+import org.pentaho.di.core.exception.KettleDatabaseException;
+import org.pentaho.di.core.row.RowMetaInterface;
+import org.pentaho.di.trans.step.BaseStep;
+
+import java.sql.BatchUpdateException;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.mockConstruction;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class TableOutputParallelWriterTest {
+
+  private BaseStep step;
+  private RowMetaInterface insertRowMeta;
+
+  /** The last row a writer thread set on its statement, the batch it's committing ends with it */
+  private final ThreadLocal<Long> lastRow = new ThreadLocal<>();
+  private final List<Long> commits = Collections.synchronizedList( new ArrayList<>() );
+  private final List<Long> errorCommits = Collections.synchronizedList( new ArrayList<>() );
+  private final List<Long> rollbacks = Collections.synchronizedList( new ArrayList<>() );
+
+  private long slowRow = -1;
+  private long failingRow = -1;
+  private SQLException failure;
+
+  private MockedConstruction<Database> databases;
+
+  @Before
+  public void setUp() {
+    step = mock( BaseStep.class );
+    when( step.getStepname() ).thenReturn( "Table output" );
+    insertRowMeta = mock( RowMetaInterface.class );
+
+    databases = mockConstruction( Database.class, ( db, context ) -> {
+      PreparedStatement statement = mock( PreparedStatement.class );
+      when( db.prepareSQL( anyString() ) ).thenReturn( statement );
+      doAnswer( invocation -> {
+        long row = (Long) ( (Object[]) invocation.getArgument( 1 ) )[0];
+        if ( row == slowRow ) {
+          Thread.sleep( 200 );
+        }
+        lastRow.set( row );
+        return null;
+      } ).when( db ).setValues( any( RowMetaInterface.class ), any( Object[].class ), any( PreparedStatement.class ) );
+      when( statement.executeBatch() ).then( invocation -> {
+        if ( lastRow.get() == failingRow ) {
+          throw failure;
+        }
+        return new int[0];
+      } );
+      doAnswer( invocation -> commits.add( lastRow.get() ) ).when( db ).commit();
+      doAnswer( invocation -> errorCommits.add( lastRow.get() ) ).when( db ).commit( true );
+      doAnswer( invocation -> rollbacks.add( lastRow.get() ) ).when( db ).rollback();
+    } );
+  }
+
+  @After
+  public void tearDown() {
+    databases.close();
+  }
+
+  @Test
+  public void orderedCommitCommitsAndHandsBackBatchesInOrder() throws Exception {
+    // The first batch is the slowest, the others have to wait for it
+    slowRow = 0;
+    TableOutputParallelWriter writer = newWriter( true, false );
+    addRows( writer, 6 );
+
+    List<TableOutputParallelWriter.Batch> batches = writer.getWrittenBatches( true );
+    writer.close();
+
+    assertEquals( 3, batches.size() );
+    for ( int i = 0; i < batches.size(); i++ ) {
+      TableOutputParallelWriter.Batch batch = batches.get( i );
+      assertEquals( i, batch.sequence );
+      assertArrayEquals( new Object[] { 2L * i, 2L * i + 1 }, rowValues( batch ) );
+      assertNull( batch.failure );
+      assertNull( batch.batchException );
+      assertFalse( batch.skipped );
+    }
+    assertEquals( List.of( 1L, 3L, 5L ), commits );
+  }
+
+  @Test
+  public void failingWriterRollsBackTheBatchesAfterIt() throws Exception {
+    slowRow = 0;
+    failingRow = 1;
+    failure = new SQLException( "Duplicate key" );
+    TableOutputParallelWriter writer = newWriter( true, false );
+    addRows( writer, 6 );
+
+    List<TableOutputParallelWriter.Batch> batches = writer.getWrittenBatches( true );
+    writer.close();
+
+    assertEquals( 3, batches.size() );
+    assertNotNull( batches.get( 0 ).batchException );
+    assertFalse( batches.get( 0 ).skipped );
+    assertTrue( batches.get( 1 ).skipped );
+    assertTrue( batches.get( 2 ).skipped );
+    assertTrue( commits.isEmpty() );
+    assertTrue( errorCommits.isEmpty() );
+    assertTrue( rollbacks.containsAll( List.of( 1L, 3L, 5L ) ) );
+  }
+
+  @Test
+  public void rowsOfFailedBatchAreHandedBackForErrorHandling() throws Exception {
+    failingRow = 3;
+    failure = new BatchUpdateException( "Duplicate key", new int[] { 1, Statement.EXECUTE_FAILED } );
+    TableOutputParallelWriter writer = newWriter( true, true );
+    addRows( writer, 6 );
+
+    List<TableOutputParallelWriter.Batch> batches = writer.getWrittenBatches( true );
+    writer.close();
+
+    assertEquals( 3, batches.size() );
+    TableOutputParallelWriter.Batch failed = batches.get( 1 );
+    assertNull( failed.failure );
+    assertNotNull( failed.batchException );
+    assertArrayEquals( new int[] { 1, Statement.EXECUTE_FAILED }, failed.batchException.getUpdateCounts() );
+    assertArrayEquals( new Object[] { 2L, 3L }, rowValues( failed ) );
+
+    // The row that made it is committed, the batches after it go on as usual
+    assertEquals( List.of( 3L ), errorCommits );
+    assertEquals( List.of( 1L, 5L ), commits );
+    assertFalse( batches.get( 2 ).skipped );
+  }
+
+  @Test
+  public void connectionFailureIsReportedOnTheBatch() throws Exception {
+    TableOutputParallelWriter writer = newWriter( false, true );
+    for ( Database db : databases.constructed() ) {
+      doAnswer( invocation -> {
+        throw new KettleDatabaseException( "No connection" );
+      } ).when( db ).connect( any() );
+    }
+    addRows( writer, 2 );
+
+    List<TableOutputParallelWriter.Batch> batches = writer.getWrittenBatches( true );
+    writer.close();
+
+    assertEquals( 1, batches.size() );
+    assertNotNull( batches.get( 0 ).failure );
+    assertTrue( commits.isEmpty() );
+    for ( Database db : databases.constructed() ) {
+      verify( db, never() ).commit();
+      verify( db ).disconnect();
+    }
+  }
+
+  private TableOutputParallelWriter newWriter( boolean orderedCommit, boolean errorHandling ) {
+    return new TableOutputParallelWriter( step, mock( DatabaseMeta.class ), null, "INSERT", insertRowMeta, 3, 2,
+      orderedCommit, errorHandling );
+  }
+
+  private void addRows( TableOutputParallelWriter writer, int count ) throws Exception {
+    for ( long i = 0; i < count; i++ ) {
+      writer.addRow( new Object[] { i }, new Object[] { i } );
+    }
+    writer.flush();
+  }
+
+  private Object[] rowValues( TableOutputParallelWriter.Batch batch ) {
+    return batch.rows.stream().map( row -> row[0] ).toArray();
+  }
+}
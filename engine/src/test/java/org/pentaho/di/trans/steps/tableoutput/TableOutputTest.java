@@ -129,6 +129,22 @@ public class TableOutputTest {
     verify( db ).truncateTable( any(), any() );
   }
 
+  @Test
+  public void testTruncateTable_commitsWithParallelWriters() throws Exception {
+    when( tableOutputMeta.truncateTable() ).thenReturn( true );
+    when( tableOutputSpy.getCopy() ).thenReturn( 0 );
+    when( tableOutputSpy.getUniqueStepNrAcrossSlaves() ).thenReturn( 0 );
+    when( tableOutputMeta.getTableName() ).thenReturn( "fooTable" );
+    when( tableOutputMeta.getSchemaName() ).thenReturn( "barSchema" );
+
+    tableOutputSpy.truncateTable();
+    verify( db, never() ).commit();
+
+    tableOutputData.parallelWriters = 4;
+    tableOutputSpy.truncateTable();
+    verify( db ).commit();
+  }
+
   @Test
   public void testTruncateTable_on_PartitionId() throws Exception {
     when( tableOutputMeta.truncateTable() ).thenReturn( true );
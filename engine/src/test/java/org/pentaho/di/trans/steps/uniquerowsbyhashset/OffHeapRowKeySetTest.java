@@ -0,0 +1,89 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.di.trans.steps.uniquerowsbyhashset;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.Test;
+import org.pentaho.di.core.exception.KettleException;
+import org.pentaho.di.core.row.RowMeta;
+import org.pentaho.di.core.row.RowMetaInterface;
+import org.pentaho.di.core.row.value.ValueMetaInteger;
+
+public class OffHeapRowKeySetTest {
+
+  @Test
+  public void testFingerprints() throws KettleException {
+    checkUniqueRows( false, 0 );
+  }
+
+  @Test
+  public void testExactVerification() throws KettleException {
+    checkUniqueRows( true, 0 );
+  }
+
+  @Test
+  public void testSpillFingerprints() throws KettleException {
+    checkUniqueRows( false, 1 );
+  }
+
+  @Test
+  public void testSpillExactVerification() throws KettleException {
+    checkUniqueRows( true, 1 );
+  }
+
+  private void checkUniqueRows( boolean exact, long memoryLimit ) throws KettleException {
+    RowMetaInterface rowMeta = new RowMeta();
+    rowMeta.addValueMeta( new ValueMetaInteger( "key" ) );
+    rowMeta.addValueMeta( new ValueMetaInteger( "row" ) );
+    RowMetaInterface keyMeta = new RowMeta();
+    keyMeta.addValueMeta( new ValueMetaInteger( "key" ) );
+
+    OffHeapRowKeySet set = new OffHeapRowKeySet( rowMeta, exact, memoryLimit, null );
+    Set<Long> expected = new HashSet<>();
+    Set<Long> unique = new HashSet<>();
+    int[] duplicates = new int[1];
+    int expectedDuplicates = 0;
+
+    Random random = new Random( 1 );
+    for ( long i = 0; i < 1000000; i++ ) {
+      Long key = (long) random.nextInt( 400000 );
+      if ( !expected.add( key ) ) {
+        expectedDuplicates++;
+      }
+      int result = set.add( RowMeta.extractData( keyMeta, new Object[] { key } ), new Object[] { key, i } );
+      if ( result == OffHeapRowKeySet.UNIQUE ) {
+        assertTrue( unique.add( key ) );
+      } else if ( result == OffHeapRowKeySet.DUPLICATE ) {
+        duplicates[0]++;
+      }
+    }
+    assertEquals( memoryLimit > 0, set.getSpilledPartitions() > 0 );
+
+    set.finish( ( row, isUnique ) -> {
+      if ( isUnique ) {
+        assertTrue( unique.add( (Long) row[0] ) );
+      } else {
+        duplicates[0]++;
+      }
+    } );
+    assertEquals( expected, unique );
+    assertEquals( expectedDuplicates, duplicates[0] );
+  }
+}
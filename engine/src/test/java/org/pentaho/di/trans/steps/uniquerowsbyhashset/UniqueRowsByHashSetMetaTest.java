@@ -33,19 +33,26 @@ public class UniqueRowsByHashSetMetaTest {
   @Test
   public void testRoundTrip() throws KettleException {
     List<String> attributes =
-      Arrays.asList( "store_values", "reject_duplicate_row", "error_description", "name" );
+      Arrays.asList( "store_values", "reject_duplicate_row", "error_description", "name", "off_heap_store",
+        "memory_limit", "spill_directory" );
 
     Map<String, String> getterMap = new HashMap<String, String>();
     getterMap.put( "store_values", "getStoreValues" );
     getterMap.put( "reject_duplicate_row", "isRejectDuplicateRow" );
     getterMap.put( "error_description", "getErrorDescription" );
     getterMap.put( "name", "getCompareFields" );
+    getterMap.put( "off_heap_store", "isOffHeapStore" );
+    getterMap.put( "memory_limit", "getMemoryLimit" );
+    getterMap.put( "spill_directory", "getSpillDirectory" );
 
     Map<String, String> setterMap = new HashMap<String, String>();
     setterMap.put( "store_values", "setStoreValues" );
     setterMap.put( "reject_duplicate_row", "setRejectDuplicateRow" );
     setterMap.put( "error_description", "setErrorDescription" );
     setterMap.put( "name", "setCompareFields" );
+    setterMap.put( "off_heap_store", "setOffHeapStore" );
+    setterMap.put( "memory_limit", "setMemoryLimit" );
+    setterMap.put( "spill_directory", "setSpillDirectory" );
 
     Map<String, FieldLoadSaveValidator<?>> fieldLoadSaveValidatorAttributeMap =
       new HashMap<String, FieldLoadSaveValidator<?>>();
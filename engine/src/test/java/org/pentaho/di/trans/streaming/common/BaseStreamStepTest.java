@@ -29,6 +29,7 @@ import org.pentaho.di.core.logging.LogChannelInterface;
 import org.pentaho.di.core.logging.LogChannelInterfaceFactory;
 import org.pentaho.di.core.variables.Variables;
 import org.pentaho.di.junit.rules.RestorePDIEngineEnvironment;
+import org.pentaho.di.trans.SubtransExecutor;
 import org.pentaho.di.trans.Trans;
 import org.pentaho.di.trans.TransMeta;
 import org.pentaho.di.trans.step.StepDataInterface;
@@ -50,6 +51,7 @@ import static org.junit.Assert.assertThat;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -67,6 +69,7 @@ public class BaseStreamStepTest {
   @Mock LogChannelInterfaceFactory logChannelFactory;
   @Mock LogChannelInterface logChannel;
   @Mock private StepMeta parentStepMeta;
+  @Mock private SubtransExecutor subtransExecutor;
 
   @Rule public TemporaryFolder folder = new TemporaryFolder();
 
@@ -160,6 +163,19 @@ public class BaseStreamStepTest {
     verify( streamSource, times( 2 ) ).close();
   }
 
+  @Test
+  public void testDisposeClosesSubtransExecutorAfterSafeStop() throws KettleException {
+    baseStreamStep.setSubtransExecutor( subtransExecutor );
+    baseStreamStep.setSafeStopped( true );
+    baseStreamStep.setStopped( true );
+
+    baseStreamStep.stopRunning( meta, stepData );
+    verify( subtransExecutor, never() ).stop();
+
+    baseStreamStep.dispose( meta, stepData );
+    verify( subtransExecutor ).close();
+  }
+
   @Test
   public void testAlwaysCloses() throws KettleException {
     when( streamWindow.buffer( any() ) ).thenThrow( new IllegalStateException( "run for your life!!!" ) );
@@ -43,6 +43,7 @@ import org.pentaho.di.trans.steps.jsoninput.exception.JsonInputException;
 import org.pentaho.di.trans.steps.jsoninput.reader.FastJsonReader;
 import org.pentaho.di.trans.steps.jsoninput.reader.InputsReader;
 import org.pentaho.di.trans.steps.jsoninput.reader.RowOutputConverter;
+import org.pentaho.di.trans.steps.jsoninput.reader.StreamingJsonReader;
 
 /**
  * Read Json files, parse them and convert them to rows and writes these to one or more output streams.
@@ -79,9 +80,22 @@ public class JsonInput extends BaseFileInputStep<JsonInputMeta, JsonInputData> i
     }
     try {
       // Init a new JSON reader
-      data.reader =
-        new FastJsonReader( this, meta.getInputFields(), meta.isDefaultPathLeafToNull(), meta.isIgnoreMissingPath(),
-          meta.isIncludeNulls(), log );
+      data.reader = null;
+      if ( meta.isStreaming() ) {
+        StreamingJsonReader streamingReader =
+          new StreamingJsonReader( this, meta.getInputFields(), meta.isDefaultPathLeafToNull(),
+            meta.isIgnoreMissingPath(), meta.isIncludeNulls(), log );
+        if ( streamingReader.isStreamable() ) {
+          data.reader = streamingReader;
+        } else {
+          logBasic( BaseMessages.getString( PKG, "JsonInput.Log.NotStreamable" ) );
+        }
+      }
+      if ( data.reader == null ) {
+        data.reader =
+          new FastJsonReader( this, meta.getInputFields(), meta.isDefaultPathLeafToNull(), meta.isIgnoreMissingPath(),
+            meta.isIncludeNulls(), log );
+      }
     } catch ( KettleException e ) {
       logError( e.getMessage() );
       return false;
@@ -249,7 +263,9 @@ public class JsonInput extends BaseFileInputStep<JsonInputMeta, JsonInputData> i
   private void parseNextInputToRowSet( InputStream input ) throws KettleException {
     try {
       data.readerRowSet = data.reader.parse( input );
-      input.close();
+      if ( !isStreaming() ) {
+        input.close();
+      }
     } catch ( KettleException ke ) {
       logInputError( ke );
       throw new JsonInputException( ke );
@@ -314,8 +330,12 @@ public class JsonInput extends BaseFileInputStep<JsonInputMeta, JsonInputData> i
       return null;
     }
     Object[] rawReaderRow;
-    while ( ( rawReaderRow = data.readerRowSet.getRow() ) == null ) {
-      if ( data.inputs.hasNext() && data.readerRowSet.isDone() ) {
+    while ( ( rawReaderRow = getReaderRow() ) == null ) {
+      if ( data.inputs.hasNext() && data.readerRowSet.isDone() && isStreaming() ) {
+        // the input is closed by the rows once they are all read
+        InputStream nextIn = data.inputs.next();
+        parseNextInputToRowSet( nextIn != null ? nextIn : new ByteArrayInputStream( EMPTY_JSON ) );
+      } else if ( data.inputs.hasNext() && data.readerRowSet.isDone() ) {
         try ( InputStream nextIn = data.inputs.next() ) {
 
           if ( nextIn != null ) {
@@ -340,6 +360,19 @@ public class JsonInput extends BaseFileInputStep<JsonInputMeta, JsonInputData> i
     return outputRow;
   }
 
+  private boolean isStreaming() {
+    return data.reader instanceof StreamingJsonReader;
+  }
+
+  private Object[] getReaderRow() throws KettleException {
+    try {
+      return data.readerRowSet.getRow();
+    } catch ( StreamingJsonReader.StreamingException e ) {
+      logInputError( e.getCause() );
+      throw e.getCause();
+    }
+  }
+
   private void sendErrorRow( String errorMsg ) {
     try {
       // same error as before
@@ -472,6 +505,10 @@ public class JsonInput extends BaseFileInputStep<JsonInputMeta, JsonInputData> i
     }
     data.inputs = null;
     data.reader = null;
+    if ( null != data.readerRowSet ) {
+      // Closes the input a streaming reader was reading
+      data.readerRowSet.clear();
+    }
     data.readerRowSet = null;
     data.repeatedFields = null;
     super.dispose( smi, sdi );
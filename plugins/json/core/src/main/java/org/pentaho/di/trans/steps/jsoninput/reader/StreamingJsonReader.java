@@ -0,0 +1,415 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.di.trans.steps.jsoninput.reader;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.jayway.jsonpath.Configuration;
+import com.jayway.jsonpath.JsonPath;
+import com.jayway.jsonpath.Option;
+import com.jayway.jsonpath.ReadContext;
+import org.pentaho.di.core.Const;
+import org.pentaho.di.core.RowSet;
+import org.pentaho.di.core.SingleRowRowSet;
+import org.pentaho.di.core.exception.KettleException;
+import org.pentaho.di.core.logging.LogChannelInterface;
+import org.pentaho.di.i18n.BaseMessages;
+import org.pentaho.di.trans.steps.jsoninput.JsonInput;
+import org.pentaho.di.trans.steps.jsoninput.JsonInputField;
+import org.pentaho.di.trans.steps.jsoninput.JsonInputMeta;
+import org.pentaho.di.trans.steps.jsoninput.exception.JsonInputException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Reads the rows of a JSON document one record at a time instead of loading the whole document in memory. The paths
+ * of the fields have to start with the same simple path to an array, like $.data[*]: that path is matched while the
+ * document is parsed and each element of the array is a record. The rest of the paths is evaluated on one record at a
+ * time.<br>
+ * <br>
+ * The rows are the same as the rows of {@link FastJsonReader} as long as every path returns as many values for each
+ * record. A path that isn't found in any record is only reported once the whole document is read.
+ *
+ * @since 11.1
+ */
+public class StreamingJsonReader implements IJsonReader {
+  private static Class<?> PKG = JsonInputMeta.class; // for i18n purposes, needed by Translator2!!
+
+  // as per RFC 7159, the default JSON encoding shall be UTF-8
+  private static final String JSON_CHARSET = "UTF-8";
+
+  /**
+   * A name (.name, ['name']) or an index ([*], [0]) in a path.
+   */
+  private static final Pattern STEP =
+    Pattern.compile( "\\.([A-Za-z_$][\\w$-]*)(?![\\w$(-])|\\['([^'\\\\]*)'\\]|\\[\"([^\"\\\\]*)\"\\]|\\[(\\*|\\d+)\\]" );
+
+  private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+  /**
+   * A step of the path to the records: a field of an object or an element of an array.
+   */
+  private static final class Step {
+    /** The name of the field, null for an array */
+    private final String field;
+    /** The index of the element, -1 for all elements */
+    private final int index;
+    private final int end;
+
+    private Step( String field, int index, int end ) {
+      this.field = field;
+      this.index = index;
+      this.end = end;
+    }
+
+    private boolean sameAs( Step other ) {
+      return field == null ? other.field == null && index == other.index : field.equals( other.field );
+    }
+  }
+
+  /**
+   * Thrown by the rows of the reader when the document can't be read.
+   */
+  public static class StreamingException extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    StreamingException( JsonInputException cause ) {
+      super( cause );
+    }
+
+    @Override
+    public synchronized JsonInputException getCause() {
+      return (JsonInputException) super.getCause();
+    }
+  }
+
+  private final boolean ignoreMissingPath;
+  private final boolean includeNulls;
+  private final LogChannelInterface log;
+  private final JsonInputField[] inputFields;
+  private final Configuration jsonConfiguration;
+
+  private Step[] recordPath;
+  private JsonPath[] compiledJsonPaths;
+
+  public StreamingJsonReader( JsonInput step, JsonInputField[] inputFields, boolean defaultPathLeafToNull,
+                              boolean ignoreMissingPath, boolean includeNulls, LogChannelInterface log ) {
+    this.inputFields = inputFields;
+    this.ignoreMissingPath = ignoreMissingPath;
+    this.includeNulls = includeNulls;
+    this.log = log;
+
+    List<Option> options = new ArrayList<>();
+    options.add( Option.SUPPRESS_EXCEPTIONS );
+    options.add( Option.ALWAYS_RETURN_LIST );
+    if ( defaultPathLeafToNull ) {
+      options.add( Option.DEFAULT_PATH_LEAF_TO_NULL );
+    }
+    this.jsonConfiguration = Configuration.defaultConfiguration().addOptions( options.toArray( new Option[ 0 ] ) );
+
+    String[] paths = new String[ inputFields.length ];
+    for ( int i = 0; i < inputFields.length; i++ ) {
+      if ( System.getProperty( Const.KETTLE_COMPATIBILITY_JSON_INPUT_LEGACY_MODE, "N" ).equals( "Y" ) ) {
+        paths[ i ] = step.environmentSubstitute( inputFields[ i ].getPath(), false ).trim();
+      } else {
+        paths[ i ] = step.environmentSubstitute( inputFields[ i ].getPath(), true );
+      }
+    }
+    compilePaths( paths );
+  }
+
+  /**
+   * Split the paths in the path to the records they all start with and the paths in the records.
+   */
+  private void compilePaths( String[] paths ) {
+    List<List<Step>> steps = new ArrayList<>( paths.length );
+    for ( String path : paths ) {
+      steps.add( parseSteps( path == null ? "" : path.trim() ) );
+    }
+    int common = steps.isEmpty() ? 0 : steps.get( 0 ).size();
+    for ( List<Step> pathSteps : steps ) {
+      int same = 0;
+      while ( same < common && same < pathSteps.size() && pathSteps.get( same ).sameAs( steps.get( 0 ).get( same ) ) ) {
+        same++;
+      }
+      common = same;
+    }
+    // The records are the elements of the last array all elements of which are read
+    while ( common > 0 && !isAllElements( steps.get( 0 ).get( common - 1 ) ) ) {
+      common--;
+    }
+    if ( common == 0 ) {
+      return;
+    }
+
+    recordPath = steps.get( 0 ).subList( 0, common ).toArray( new Step[ 0 ] );
+    compiledJsonPaths = new JsonPath[ paths.length ];
+    for ( int i = 0; i < paths.length; i++ ) {
+      compiledJsonPaths[ i ] = JsonPath.compile( "$" + paths[ i ].trim().substring( steps.get( i ).get( common - 1 ).end ) );
+    }
+  }
+
+  private static List<Step> parseSteps( String path ) {
+    List<Step> steps = new ArrayList<>();
+    if ( !path.startsWith( "$" ) ) {
+      return steps;
+    }
+    Matcher matcher = STEP.matcher( path );
+    int position = 1;
+    while ( matcher.find( position ) && matcher.start() == position ) {
+      position = matcher.end();
+      if ( matcher.group( 4 ) != null ) {
+        int index = "*".equals( matcher.group( 4 ) ) ? -1 : Integer.parseInt( matcher.group( 4 ) );
+        steps.add( new Step( null, index, position ) );
+      } else {
+        String field = matcher.group( 1 ) != null ? matcher.group( 1 )
+          : matcher.group( 2 ) != null ? matcher.group( 2 ) : matcher.group( 3 );
+        steps.add( new Step( field, -1, position ) );
+      }
+    }
+    return steps;
+  }
+
+  private static boolean isAllElements( Step step ) {
+    return step.field == null && step.index < 0;
+  }
+
+  /**
+   * @return false if the paths of the fields don't start with the same path to an array, the document has to be read
+   *         by {@link FastJsonReader} then
+   */
+  public boolean isStreamable() {
+    return recordPath != null;
+  }
+
+  /**
+   * Start reading a document, only when the paths are {@link #isStreamable() streamable}. The rows throw a
+   * {@link StreamingException} if the document can't be read.
+   */
+  @Override
+  public RowSet parse( InputStream in ) throws KettleException {
+    try {
+      return new RecordRowSet( JSON_FACTORY.createParser( new InputStreamReader( in, JSON_CHARSET ) ) );
+    } catch ( IOException e ) {
+      throw new JsonInputException( e );
+    }
+  }
+
+  /**
+   * The rows of the records of a document, read when they are asked for. The document is closed once all rows are
+   * read.
+   */
+  private class RecordRowSet extends SingleRowRowSet {
+    private JsonParser parser;
+    private final int[] indexes = new int[ recordPath.length ];
+    private int level;
+    private boolean started;
+
+    private final BitSet found = new BitSet();
+    private List<List<?>> results;
+    private int resultRowCount;
+    private int resultRowNbr;
+    private long rowCount;
+    private long rowsReturned;
+
+    RecordRowSet( JsonParser parser ) {
+      super();
+      this.parser = parser;
+    }
+
+    @Override
+    public Object[] getRow() {
+      try {
+        while ( parser != null ) {
+          while ( resultRowNbr < resultRowCount ) {
+            Object[] rowData = nextResultRow();
+            if ( rowData != null ) {
+              rowsReturned++;
+              return rowData;
+            }
+          }
+          if ( nextRecord() ) {
+            readRecord();
+          } else {
+            return endOfDocument();
+          }
+        }
+        return null;
+      } catch ( JsonInputException e ) {
+        clear();
+        throw new StreamingException( e );
+      } catch ( Exception e ) {
+        clear();
+        throw new StreamingException( new JsonInputException( e ) );
+      }
+    }
+
+    /**
+     * Move to the start of the next record.
+     *
+     * @return false at the end of the document
+     */
+    private boolean nextRecord() throws IOException {
+      if ( level == 0 ) {
+        if ( started ) {
+          return false;
+        }
+        started = true;
+        JsonToken token = parser.nextToken();
+        if ( token == null || !enter( token ) ) {
+          return false;
+        }
+      }
+      JsonToken token;
+      while ( ( token = parser.nextToken() ) != null ) {
+        if ( token == JsonToken.END_OBJECT || token == JsonToken.END_ARRAY ) {
+          if ( --level == 0 ) {
+            return false;
+          }
+          continue;
+        }
+        Step step = recordPath[ level - 1 ];
+        boolean matches;
+        if ( step.field != null ) {
+          matches = step.field.equals( parser.getCurrentName() );
+          token = parser.nextToken();
+        } else {
+          matches = step.index < 0 || step.index == indexes[ level - 1 ];
+          indexes[ level - 1 ]++;
+        }
+        if ( matches && level == recordPath.length ) {
+          return true;
+        }
+        if ( !matches || !enter( token ) ) {
+          parser.skipChildren();
+        }
+      }
+      return false;
+    }
+
+    /**
+     * Go into an object or array if it's the one the next step of the path to the records expects.
+     */
+    private boolean enter( JsonToken token ) {
+      JsonToken expected = recordPath[ level ].field != null ? JsonToken.START_OBJECT : JsonToken.START_ARRAY;
+      if ( token != expected ) {
+        return false;
+      }
+      indexes[ level++ ] = 0;
+      return true;
+    }
+
+    /**
+     * Evaluate the paths of the fields on the record the parser is at.
+     */
+    private void readRecord() throws IOException, JsonInputException {
+      StringWriter record = new StringWriter();
+      try ( JsonGenerator generator = JSON_FACTORY.createGenerator( record ) ) {
+        generator.copyCurrentStructure( parser );
+      }
+      ReadContext context = JsonPath.using( jsonConfiguration ).parse( record.toString() );
+
+      int lastSize = -1;
+      String prevPath = null;
+      results = new ArrayList<>( compiledJsonPaths.length );
+      for ( int i = 0; i < compiledJsonPaths.length; i++ ) {
+        List<Object> result = context.read( compiledJsonPaths[ i ] );
+        if ( result.size() != lastSize && lastSize > 0 && !result.isEmpty() ) {
+          throw new JsonInputException( BaseMessages.getString(
+            PKG, "JsonInput.Error.BadStructure", result.size(), inputFields[ i ].getPath(), prevPath, lastSize ) );
+        }
+        if ( !FastJsonReader.isAllNull( result ) ) {
+          found.set( i );
+        }
+        results.add( result );
+        lastSize = result.size();
+        prevPath = inputFields[ i ].getPath();
+      }
+      resultRowCount = results.isEmpty() ? 0 : FastJsonReader.getMaxRowSize( results );
+      resultRowNbr = 0;
+    }
+
+    /**
+     * @return the next row of the record, null if all its values are null and nulls aren't included
+     */
+    private Object[] nextResultRow() {
+      boolean allNulls = true;
+      Object[] rowData = new Object[ results.size() ];
+      for ( int col = 0; col < results.size(); col++ ) {
+        if ( !results.get( col ).isEmpty() ) {
+          Object val = results.get( col ).get( resultRowNbr );
+          rowData[ col ] = val;
+          allNulls &= val == null;
+        }
+      }
+      resultRowNbr++;
+      rowCount++;
+      return allNulls && !includeNulls ? null : rowData;
+    }
+
+    private Object[] endOfDocument() throws JsonInputException {
+      clear();
+      if ( log.isDetailed() ) {
+        log.logDetailed( BaseMessages.getString( PKG, "JsonInput.Log.NrRecords", rowCount ) );
+      }
+      if ( !ignoreMissingPath && found.cardinality() < inputFields.length ) {
+        throw new JsonInputException( BaseMessages.getString( PKG, "JsonReader.Error.CanNotFindPath",
+          inputFields[ found.nextClearBit( 0 ) ].getPath() ) );
+      }
+      // Like the other reader a single row of nulls is returned when nothing or only one row of nulls was found
+      if ( rowsReturned == 0 && rowCount <= 1 ) {
+        rowsReturned++;
+        return new Object[ inputFields.length ];
+      }
+      return null;
+    }
+
+    @Override
+    public int size() {
+      return resultRowCount - resultRowNbr;
+    }
+
+    @Override
+    public boolean isDone() {
+      // the rows are read from the document, nothing is added
+      return true;
+    }
+
+    @Override
+    public void clear() {
+      results = null;
+      resultRowCount = 0;
+      resultRowNbr = 0;
+      if ( parser != null ) {
+        try {
+          parser.close();
+        } catch ( IOException e ) {
+          log.logError( BaseMessages.getString( PKG, "JsonInput.Log.UnexpectedError", e.toString() ) );
+        } finally {
+          parser = null;
+        }
+      }
+    }
+  }
+}
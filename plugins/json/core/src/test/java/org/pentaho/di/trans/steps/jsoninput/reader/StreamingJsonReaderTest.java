@@ -0,0 +1,137 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.di.trans.steps.jsoninput.reader;
+
+import org.junit.Test;
+import org.pentaho.di.core.RowSet;
+import org.pentaho.di.core.exception.KettleException;
+import org.pentaho.di.core.logging.LogChannelInterface;
+import org.pentaho.di.trans.steps.jsoninput.JsonInput;
+import org.pentaho.di.trans.steps.jsoninput.JsonInputField;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class StreamingJsonReaderTest {
+  private static final String JSON = "{\"count\": 3, \"data\": ["
+    + "{\"name\": \"one\", \"value\": 1, \"data\": [{\"name\": \"nested\"}]}, "
+    + "{\"name\": \"two\"}, "
+    + "{\"name\": \"three\", \"value\": 3}], "
+    + "\"other\": [{\"name\": \"other\"}]}";
+
+  private final LogChannelInterface logMock = mock( LogChannelInterface.class );
+
+  private StreamingJsonReader getReader( boolean ignoreMissingPath, String... paths ) {
+    JsonInput step = mock( JsonInput.class );
+    when( step.environmentSubstitute( anyString(), anyBoolean() ) ).thenAnswer( invocation -> invocation.getArgument( 0 ) );
+    JsonInputField[] fields = new JsonInputField[ paths.length ];
+    for ( int i = 0; i < paths.length; i++ ) {
+      fields[ i ] = new JsonInputField( "field" + i );
+      fields[ i ].setPath( paths[ i ] );
+    }
+    return new StreamingJsonReader( step, fields, true, ignoreMissingPath, false, logMock );
+  }
+
+  private static List<Object[]> readAll( RowSet rowSet ) {
+    List<Object[]> rows = new ArrayList<>();
+    Object[] row;
+    while ( ( row = rowSet.getRow() ) != null ) {
+      rows.add( row );
+    }
+    return rows;
+  }
+
+  private static InputStream toStream( String json ) {
+    return new ByteArrayInputStream( json.getBytes( StandardCharsets.UTF_8 ) );
+  }
+
+  @Test
+  public void testStreamablePaths() {
+    assertTrue( getReader( true, "$.data[*].name", "$.data[*]['value']" ).isStreamable() );
+    assertTrue( getReader( true, "$[*].name" ).isStreamable() );
+    assertTrue( getReader( true, "$.data[*].items[*].name", "$.data[*].name" ).isStreamable() );
+    assertFalse( getReader( true, "$..name" ).isStreamable() );
+    assertFalse( getReader( true, "$.data[0].name" ).isStreamable() );
+    assertFalse( getReader( true, "$.data[*].name", "$.other[*].name" ).isStreamable() );
+    assertFalse( getReader( true, "$.count" ).isStreamable() );
+  }
+
+  @Test
+  public void testReadsOneRowPerRecord() throws KettleException {
+    StreamingJsonReader reader = getReader( true, "$.data[*].name", "$.data[*].value" );
+    List<Object[]> rows = readAll( reader.parse( toStream( JSON ) ) );
+
+    assertEquals( 3, rows.size() );
+    assertArrayEquals( new Object[] { "one", 1 }, rows.get( 0 ) );
+    assertArrayEquals( new Object[] { "two", null }, rows.get( 1 ) );
+    assertArrayEquals( new Object[] { "three", 3 }, rows.get( 2 ) );
+  }
+
+  @Test
+  public void testReadsNestedArrays() throws KettleException {
+    String json = "[{\"items\": [1, 2]}, {\"items\": []}, {\"items\": [3]}]";
+    List<Object[]> rows = readAll( getReader( true, "$[*].items[*]" ).parse( toStream( json ) ) );
+
+    assertEquals( 3, rows.size() );
+    assertArrayEquals( new Object[] { 1 }, rows.get( 0 ) );
+    assertArrayEquals( new Object[] { 2 }, rows.get( 1 ) );
+    assertArrayEquals( new Object[] { 3 }, rows.get( 2 ) );
+  }
+
+  @Test
+  public void testReturnsNullRowWhenNothingFound() throws KettleException {
+    RowSet rowSet = getReader( true, "$.missing[*].name" ).parse( toStream( JSON ) );
+
+    assertArrayEquals( new Object[ 1 ], rowSet.getRow() );
+    assertNull( rowSet.getRow() );
+  }
+
+  @Test
+  public void testMissingPathFailsAtTheEnd() throws KettleException {
+    RowSet rowSet = getReader( false, "$.data[*].name", "$.data[*].missing" ).parse( toStream( JSON ) );
+    try {
+      readAll( rowSet );
+      fail( "The missing path should be reported" );
+    } catch ( StreamingJsonReader.StreamingException e ) {
+      assertTrue( e.getCause().getMessage().contains( "$.data[*].missing" ) );
+    }
+  }
+
+  @Test
+  public void testInvalidDocumentFails() throws KettleException {
+    RowSet rowSet = getReader( true, "$.data[*].name" ).parse( toStream( "{\"data\": [{\"name\": \"one\"}, " ) );
+
+    assertArrayEquals( new Object[] { "one" }, rowSet.getRow() );
+    try {
+      rowSet.getRow();
+      fail( "The truncated document should be reported" );
+    } catch ( StreamingJsonReader.StreamingException e ) {
+      assertNull( rowSet.getRow() );
+    }
+  }
+}
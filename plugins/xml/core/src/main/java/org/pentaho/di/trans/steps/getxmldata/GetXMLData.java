@@ -178,14 +178,9 @@ public class GetXMLData extends BaseStep implements StepInterface {
           }
         }
       } else {
-        // get encoding. By default UTF-8
-        String encoding = "UTF-8";
-        if ( !Utils.isEmpty( meta.getEncoding() ) ) {
-          encoding = meta.getEncoding();
-        }
         InputStream is = KettleVFS.getInputStream( file );
         try {
-          data.document = reader.read( is, encoding );
+          data.document = reader.read( is, getEncoding() );
         } finally {
           BaseStep.closeQuietly( is );
         }
@@ -302,6 +297,18 @@ public class GetXMLData extends BaseStep implements StepInterface {
     return RowDataUtil.allocateRowData( data.outputRowMeta.size() );
   }
 
+  /**
+   * @return the encoding of the files, UTF-8 by default
+   */
+  private String getEncoding() {
+    return Utils.isEmpty( meta.getEncoding() ) ? "UTF-8" : meta.getEncoding();
+  }
+
+  private static boolean isMissingTagYieldsNullValue() {
+    return convertStringToBoolean(
+      Const.NVL( System.getProperty( Const.KETTLE_XML_MISSING_TAG_YIELDS_NULL_VALUE, "N" ), "N" ) );
+  }
+
   private void handleMissingFiles() throws KettleException {
     List<FileObject> nonExistantFiles = data.files.getNonExistantFiles();
     if ( nonExistantFiles.size() != 0 ) {
@@ -593,6 +600,17 @@ public class GetXMLData extends BaseStep implements StepInterface {
           logDetailed( BaseMessages.getString( PKG, "GetXMLData.Log.OpeningFile", data.file.toString() ) );
         }
 
+        if ( data.streamReader != null ) {
+          // the loop elements are read by the stream reader
+          this.prevRow = buildEmptyRow();
+          data.streamReader.open( KettleVFS.getInputStream( data.file ), getEncoding() );
+          addFileToResultFilesname( data.file );
+          if ( log.isDetailed() ) {
+            logDetailed( BaseMessages.getString( PKG, "GetXMLData.Log.FileOpened", data.file.toString() ) );
+          }
+          return true;
+        }
+
         // Open the XML document
         if ( !setDocument( null, data.file, false, false ) ) {
           if ( data.stopPruning ) {
@@ -648,6 +666,12 @@ public class GetXMLData extends BaseStep implements StepInterface {
       // For String to <type> conversions, we allocate a conversion meta data row as well...
       //
       data.convertRowMeta = data.outputRowMeta.cloneToType( ValueMetaInterface.TYPE_STRING );
+
+      if ( data.loopPathSteps != null ) {
+        data.streamReader = new GetXMLDataStreamReader( data.loopPathSteps, meta.getInputFields(), data.outputRowMeta,
+          data.convertRowMeta, data.totalpreviousfields, meta.isIgnoreComments(), isMissingTagYieldsNullValue(),
+          meta.getStreamingThreads(), getStepname() );
+      }
     }
     // Grab a row
     Object[] r = getXMLRow();
@@ -682,6 +706,9 @@ public class GetXMLData extends BaseStep implements StepInterface {
 
   private Object[] getXMLRow() throws KettleException {
 
+    if ( data.streamReader != null ) {
+      return getStreamedRow();
+    }
     if ( !meta.isInFields() ) {
       while ( ( data.nodenr >= data.nodesize || data.file == null ) ) {
         if ( !openNextFile() ) {
@@ -693,6 +720,26 @@ public class GetXMLData extends BaseStep implements StepInterface {
     return getXMLRowPutRowWithErrorhandling();
   }
 
+  private Object[] getStreamedRow() throws KettleException {
+    data.errorInRowButContinue = false;
+    while ( true ) {
+      if ( !data.streamReader.isOpen() && !openNextFile() ) {
+        return null;
+      }
+      if ( data.streamReader.isOpen() ) {
+        GetXMLDataStreamReader.Record record;
+        try {
+          record = data.streamReader.next();
+        } catch ( KettleException e ) {
+          throw new KettleException( BaseMessages.getString( PKG, "GetXMLData.Error.UnableReadFile" ), e );
+        }
+        if ( record != null ) {
+          return processStreamedRecord( record );
+        }
+      }
+    }
+  }
+
   private Object[] getXMLRowPutRowWithErrorhandling() throws KettleException {
     // Build an empty row based on the meta-data
     Object[] r;
@@ -749,8 +796,7 @@ public class GetXMLData extends BaseStep implements StepInterface {
         // Get node value
         String nodevalue;
 
-        Boolean xmlMissingTagYieldsNullValue = convertStringToBoolean(
-          Const.NVL( System.getProperty( Const.KETTLE_XML_MISSING_TAG_YIELDS_NULL_VALUE, "N" ), "N" ) );
+        boolean xmlMissingTagYieldsNullValue = isMissingTagYieldsNullValue();
 
         // Handle namespaces
         if ( meta.isNamespaceAware() ) {
@@ -788,19 +834,7 @@ public class GetXMLData extends BaseStep implements StepInterface {
         }
 
         // Do trimming
-        switch ( xmlDataField.getTrimType() ) {
-          case GetXMLDataField.TYPE_TRIM_LEFT:
-            nodevalue = Const.ltrim( nodevalue );
-            break;
-          case GetXMLDataField.TYPE_TRIM_RIGHT:
-            nodevalue = Const.rtrim( nodevalue );
-            break;
-          case GetXMLDataField.TYPE_TRIM_BOTH:
-            nodevalue = Const.trim( nodevalue );
-            break;
-          default:
-            break;
-        }
+        nodevalue = trim( nodevalue, xmlDataField.getTrimType() );
 
         // Do conversions
         //
@@ -816,60 +850,40 @@ public class GetXMLData extends BaseStep implements StepInterface {
         }
       } // End of loop over fields...
 
-      int rowIndex = data.totalpreviousfields + data.nrInputFields;
-
-      // See if we need to add the filename to the row...
-      if ( meta.includeFilename() && !Utils.isEmpty( meta.getFilenameField() ) ) {
-        outputRowData[rowIndex++] = data.filename;
-      }
-      // See if we need to add the row number to the row...
-      if ( meta.includeRowNumber() && !Utils.isEmpty( meta.getRowNumberField() ) ) {
-        outputRowData[rowIndex++] = data.rownr;
-      }
-      // Possibly add short filename...
-      if ( meta.getShortFileNameField() != null && meta.getShortFileNameField().length() > 0 ) {
-        outputRowData[rowIndex++] = data.shortFilename;
-      }
-      // Add Extension
-      if ( meta.getExtensionField() != null && meta.getExtensionField().length() > 0 ) {
-        outputRowData[rowIndex++] = data.extension;
-      }
-      // add path
-      if ( meta.getPathField() != null && meta.getPathField().length() > 0 ) {
-        outputRowData[rowIndex++] = data.path;
-      }
-      // Add Size
-      if ( meta.getSizeField() != null && meta.getSizeField().length() > 0 ) {
-        outputRowData[rowIndex++] = data.size;
-      }
-      // add Hidden
-      if ( meta.isHiddenField() != null && meta.isHiddenField().length() > 0 ) {
-        outputRowData[rowIndex++] = Boolean.valueOf( data.path );
-      }
-      // Add modification date
-      if ( meta.getLastModificationDateField() != null && meta.getLastModificationDateField().length() > 0 ) {
-        outputRowData[rowIndex++] = data.lastModificationDateTime;
-      }
-      // Add Uri
-      if ( meta.getUriField() != null && meta.getUriField().length() > 0 ) {
-        outputRowData[rowIndex++] = data.uriName;
-      }
-      // Add RootUri
-      if ( meta.getRootUriField() != null && meta.getRootUriField().length() > 0 ) {
-        outputRowData[rowIndex] = data.rootUriName;
+      addAdditionalFields( outputRowData );
+    } catch ( Exception e ) {
+      if ( getStepMeta().isDoingErrorHandling() ) {
+        // Simply add this row to the error row
+        putError( data.outputRowMeta, outputRowData, 1, e.toString(), null, "GetXMLData001" );
+        data.errorInRowButContinue = true;
+        return null;
+      } else {
+        logError( e.toString() );
+        throw new KettleException( e.toString() );
       }
+    }
+    return outputRowData;
+  }
 
-      RowMetaInterface irow = getInputRowMeta();
-
-      if ( irow == null ) {
-        data.previousRow = outputRowData;
-      } else {
-        // clone to previously allocated array to make sure next step doesn't
-        // change it in between...
-        System.arraycopy( outputRowData, 0, this.prevRow, 0, outputRowData.length );
-        // Pick up everything else that needs a real deep clone
-        data.previousRow = irow.cloneRow( outputRowData, this.prevRow );
+  /**
+   * Build the output row of a loop element read in StAX streaming mode, the fields were extracted by the reader.
+   */
+  private Object[] processStreamedRecord( GetXMLDataStreamReader.Record record ) throws KettleException {
+    Object[] outputRowData = buildEmptyRow();
+    try {
+      System.arraycopy( record.values, 0, outputRowData, data.totalpreviousfields, data.nrInputFields );
+      if ( record.error != null ) {
+        throw record.error;
+      }
+      for ( int i = 0; i < data.nrInputFields; i++ ) {
+        // Do we need to repeat this field if it is null?
+        if ( meta.getInputFields()[i].isRepeated() ) {
+          if ( data.previousRow != null && Utils.isEmpty( record.nodeValues[i] ) ) {
+            outputRowData[data.totalpreviousfields + i] = data.previousRow[data.totalpreviousfields + i];
+          }
+        }
       }
+      addAdditionalFields( outputRowData );
     } catch ( Exception e ) {
       if ( getStepMeta().isDoingErrorHandling() ) {
         // Simply add this row to the error row
@@ -884,6 +898,79 @@ public class GetXMLData extends BaseStep implements StepInterface {
     return outputRowData;
   }
 
+  static String trim( String nodevalue, int trimType ) {
+    switch ( trimType ) {
+      case GetXMLDataField.TYPE_TRIM_LEFT:
+        return Const.ltrim( nodevalue );
+      case GetXMLDataField.TYPE_TRIM_RIGHT:
+        return Const.rtrim( nodevalue );
+      case GetXMLDataField.TYPE_TRIM_BOTH:
+        return Const.trim( nodevalue );
+      default:
+        return nodevalue;
+    }
+  }
+
+  /**
+   * Add the additional fields of the file and keep the row for the repeated fields.
+   */
+  private void addAdditionalFields( Object[] outputRowData ) throws KettleException {
+    int rowIndex = data.totalpreviousfields + data.nrInputFields;
+
+    // See if we need to add the filename to the row...
+    if ( meta.includeFilename() && !Utils.isEmpty( meta.getFilenameField() ) ) {
+      outputRowData[rowIndex++] = data.filename;
+    }
+    // See if we need to add the row number to the row...
+    if ( meta.includeRowNumber() && !Utils.isEmpty( meta.getRowNumberField() ) ) {
+      outputRowData[rowIndex++] = data.rownr;
+    }
+    // Possibly add short filename...
+    if ( meta.getShortFileNameField() != null && meta.getShortFileNameField().length() > 0 ) {
+      outputRowData[rowIndex++] = data.shortFilename;
+    }
+    // Add Extension
+    if ( meta.getExtensionField() != null && meta.getExtensionField().length() > 0 ) {
+      outputRowData[rowIndex++] = data.extension;
+    }
+    // add path
+    if ( meta.getPathField() != null && meta.getPathField().length() > 0 ) {
+      outputRowData[rowIndex++] = data.path;
+    }
+    // Add Size
+    if ( meta.getSizeField() != null && meta.getSizeField().length() > 0 ) {
+      outputRowData[rowIndex++] = data.size;
+    }
+    // add Hidden
+    if ( meta.isHiddenField() != null && meta.isHiddenField().length() > 0 ) {
+      outputRowData[rowIndex++] = Boolean.valueOf( data.path );
+    }
+    // Add modification date
+    if ( meta.getLastModificationDateField() != null && meta.getLastModificationDateField().length() > 0 ) {
+      outputRowData[rowIndex++] = data.lastModificationDateTime;
+    }
+    // Add Uri
+    if ( meta.getUriField() != null && meta.getUriField().length() > 0 ) {
+      outputRowData[rowIndex++] = data.uriName;
+    }
+    // Add RootUri
+    if ( meta.getRootUriField() != null && meta.getRootUriField().length() > 0 ) {
+      outputRowData[rowIndex] = data.rootUriName;
+    }
+
+    RowMetaInterface irow = getInputRowMeta();
+
+    if ( irow == null ) {
+      data.previousRow = outputRowData;
+    } else {
+      // clone to previously allocated array to make sure next step doesn't
+      // change it in between...
+      System.arraycopy( outputRowData, 0, this.prevRow, 0, outputRowData.length );
+      // Pick up everything else that needs a real deep clone
+      data.previousRow = irow.cloneRow( outputRowData, this.prevRow );
+    }
+  }
+
   public String substituteToken( String aString, Object[] outputRowData ) {
     if ( aString == null ) {
       return null;
@@ -985,6 +1072,20 @@ public class GetXMLData extends BaseStep implements StepInterface {
         }
       }
 
+      data.loopPathSteps = null;
+      if ( meta.getStreamingThreads() > 0 ) {
+        // the namespaces, the validation and the tokens need the whole document
+        if ( !meta.isInFields() && !meta.isNamespaceAware() && !meta.isValidating() && !meta.isuseToken() ) {
+          data.loopPathSteps = GetXMLDataStreamReader.getLoopPathSteps( data.PathValue );
+        }
+        if ( data.loopPathSteps == null ) {
+          logBasic( BaseMessages.getString( PKG, "GetXMLData.Log.StaxStreaming.NotPossible" ) );
+        } else if ( log.isDetailed() ) {
+          logDetailed( BaseMessages.getString( PKG, "GetXMLData.Log.StaxStreaming.Activated",
+            "" + meta.getStreamingThreads() ) );
+        }
+      }
+
       return true;
     }
     return false;
@@ -1027,6 +1128,10 @@ public class GetXMLData extends BaseStep implements StepInterface {
     if ( data.files != null ) {
       data.files = null;
     }
+    if ( data.streamReader != null ) {
+      data.streamReader.close();
+      data.streamReader = null;
+    }
     super.dispose( smi, sdi );
   }
 
@@ -58,6 +58,8 @@ public class GetXMLDataData extends BaseStepData implements StepDataInterface {
   public boolean stopPruning; // used for a trick to stop the reader in pruning mode
   public boolean errorInRowButContinue; // true when actual row has an error and error handling is active: means
                                         // continue (error handling in this step should be redesigned)
+  public String[] loopPathSteps; // the steps of the loop path when the files are read with StAX, null otherwise
+  public GetXMLDataStreamReader streamReader;
   public String tokenStart;
   public String tokenEnd;
   public int nodenr;
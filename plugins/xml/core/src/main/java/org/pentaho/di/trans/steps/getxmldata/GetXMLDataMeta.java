@@ -85,6 +85,7 @@ public class GetXMLDataMeta extends BaseStepMeta implements StepMetaInterface {
   public static final String TAG_IS_A_FILE = "IsAFile";
   public static final String TAG_XML_FIELD = "XmlField";
   public static final String TAG_PRUNE_PATH = "prunePath";
+  public static final String TAG_STREAMING_THREADS = "streamingThreads";
   public static final String TAG_SHORT_FILE_FIELD_NAME = "shortFileFieldName";
   public static final String TAG_PATH_FIELD_NAME = "pathFieldName";
   public static final String TAG_HIDDEN_FIELD_NAME = "hiddenFieldName";
@@ -197,6 +198,9 @@ public class GetXMLDataMeta extends BaseStepMeta implements StepMetaInterface {
   // Given this path activates the streaming algorithm to process large files
   private String prunePath;
 
+  // More than 0 activates the StAX streaming algorithm, the records are converted by this number of threads
+  private int streamingThreads;
+
   /** Additional fields **/
   private String shortFileFieldName;
   private String pathFieldName;
@@ -684,6 +688,21 @@ public class GetXMLDataMeta extends BaseStepMeta implements StepMetaInterface {
     this.prunePath = prunePath;
   }
 
+  /**
+   * @return the number of threads converting the records in StAX streaming mode, 0 when not streaming
+   */
+  public int getStreamingThreads() {
+    return streamingThreads;
+  }
+
+  /**
+   * @param streamingThreads
+   *          the number of threads converting the records in StAX streaming mode, 0 to not stream
+   */
+  public void setStreamingThreads( int streamingThreads ) {
+    this.streamingThreads = streamingThreads;
+  }
+
   public void loadXML( Node stepnode, List<DatabaseMeta> databases, IMetaStore metaStore ) throws KettleXMLException {
     readData( stepnode );
   }
@@ -754,6 +773,7 @@ public class GetXMLDataMeta extends BaseStepMeta implements StepMetaInterface {
     retval.append( TAG_4_SPACES ).append( XMLHandler.addTagValue( TAG_IS_A_FILE, IsAFile ) );
     retval.append( TAG_4_SPACES ).append( XMLHandler.addTagValue( TAG_XML_FIELD, xmlField ) );
     retval.append( TAG_4_SPACES ).append( XMLHandler.addTagValue( TAG_PRUNE_PATH, prunePath ) );
+    retval.append( TAG_4_SPACES ).append( XMLHandler.addTagValue( TAG_STREAMING_THREADS, streamingThreads ) );
     retval.append( TAG_4_SPACES ).append( XMLHandler.addTagValue( TAG_SHORT_FILE_FIELD_NAME, shortFileFieldName ) );
     retval.append( TAG_4_SPACES ).append( XMLHandler.addTagValue( TAG_PATH_FIELD_NAME, pathFieldName ) );
     retval.append( TAG_4_SPACES ).append( XMLHandler.addTagValue( TAG_HIDDEN_FIELD_NAME, hiddenFieldName ) );
@@ -843,6 +863,7 @@ public class GetXMLDataMeta extends BaseStepMeta implements StepMetaInterface {
 
       xmlField = XMLHandler.getTagValue( stepnode, TAG_XML_FIELD );
       prunePath = XMLHandler.getTagValue( stepnode, TAG_PRUNE_PATH );
+      streamingThreads = Const.toInt( XMLHandler.getTagValue( stepnode, TAG_STREAMING_THREADS ), 0 );
 
       shortFileFieldName = XMLHandler.getTagValue( stepnode, TAG_SHORT_FILE_FIELD_NAME );
       pathFieldName = XMLHandler.getTagValue( stepnode, TAG_PATH_FIELD_NAME );
@@ -918,6 +939,7 @@ public class GetXMLDataMeta extends BaseStepMeta implements StepMetaInterface {
     inFields = false;
     xmlField = "";
     prunePath = "";
+    streamingThreads = 0;
   }
 
   @Override
@@ -1077,6 +1099,7 @@ public class GetXMLDataMeta extends BaseStepMeta implements StepMetaInterface {
 
       xmlField = rep.getStepAttributeString( id_step, TAG_XML_FIELD );
       prunePath = rep.getStepAttributeString( id_step, TAG_PRUNE_PATH );
+      streamingThreads = (int) rep.getStepAttributeInteger( id_step, TAG_STREAMING_THREADS );
 
       shortFileFieldName = rep.getStepAttributeString( id_step, TAG_SHORT_FILE_FIELD_NAME );
       extensionFieldName = rep.getStepAttributeString( id_step, TAG_EXTENSION_FIELD_NAME );
@@ -1142,6 +1165,7 @@ public class GetXMLDataMeta extends BaseStepMeta implements StepMetaInterface {
 
       rep.saveStepAttribute( id_transformation, id_step, TAG_XML_FIELD, xmlField );
       rep.saveStepAttribute( id_transformation, id_step, TAG_PRUNE_PATH, prunePath );
+      rep.saveStepAttribute( id_transformation, id_step, TAG_STREAMING_THREADS, streamingThreads );
       rep.saveStepAttribute( id_transformation, id_step, TAG_SHORT_FILE_FIELD_NAME, shortFileFieldName );
       rep.saveStepAttribute( id_transformation, id_step, TAG_EXTENSION_FIELD_NAME, extensionFieldName );
       rep.saveStepAttribute( id_transformation, id_step, TAG_PATH_FIELD_NAME, pathFieldName );
@@ -0,0 +1,409 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.di.trans.steps.getxmldata;
+
+import java.io.Closeable;
+import java.io.InputStream;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Pattern;
+
+import javax.xml.namespace.QName;
+import javax.xml.stream.XMLEventReader;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.events.StartElement;
+import javax.xml.stream.events.XMLEvent;
+
+import org.dom4j.Document;
+import org.dom4j.DocumentHelper;
+import org.dom4j.Element;
+import org.dom4j.Node;
+import org.dom4j.XPath;
+import org.dom4j.io.STAXEventReader;
+import org.pentaho.di.core.exception.KettleException;
+import org.pentaho.di.core.row.RowMetaInterface;
+import org.pentaho.di.core.row.ValueMetaInterface;
+import org.pentaho.di.core.xml.XMLParserFactoryProducer;
+import org.pentaho.di.trans.step.BaseStep;
+
+/**
+ * Reads the loop elements of XML files one at a time with StAX instead of building the whole document. A loop element
+ * is read in a small document with copies of its ancestors but not of their other children: the XPath of a field can
+ * use the attributes of the ancestors, not their other elements. The fields of the loop elements are extracted and
+ * converted in batches by a pool of threads, the records are returned in the order of the file.<br>
+ * <br>
+ * Only simple absolute loop paths like /root/rows/row are streamed, see {@link #getLoopPathSteps(String)}.
+ *
+ * @since 11.1
+ */
+public class GetXMLDataStreamReader implements Closeable {
+  private static final int BATCH_SIZE = 64;
+  private static final int BATCHES_PER_THREAD = 4;
+
+  private static final Pattern STEP = Pattern.compile( "\\*|([\\p{L}_][\\p{L}\\p{N}_.-]*:)?[\\p{L}_][\\p{L}\\p{N}_.-]*" );
+
+  /**
+   * The values of the fields of a loop element.
+   */
+  public static class Record {
+    final Object[] values;
+    final String[] nodeValues;
+    final Exception error;
+
+    Record( Object[] values, String[] nodeValues, Exception error ) {
+      this.values = values;
+      this.nodeValues = nodeValues;
+      this.error = error;
+    }
+  }
+
+  /**
+   * The compiled paths and the metadata a thread extracts and converts the fields with.
+   */
+  private final class Extractor {
+    private final XPath[] xpaths = new XPath[ fields.length ];
+    private final ValueMetaInterface[] targetValueMetas = new ValueMetaInterface[ fields.length ];
+    private final ValueMetaInterface[] sourceValueMetas = new ValueMetaInterface[ fields.length ];
+
+    private Extractor() {
+      RowMetaInterface targetRowMeta = outputRowMeta.clone();
+      RowMetaInterface sourceRowMeta = convertRowMeta.clone();
+      for ( int i = 0; i < fields.length; i++ ) {
+        xpaths[ i ] = DocumentHelper.createXPath( fields[ i ].getResolvedXPath() );
+        targetValueMetas[ i ] = targetRowMeta.getValueMeta( fieldOffset + i );
+        sourceValueMetas[ i ] = sourceRowMeta.getValueMeta( fieldOffset + i );
+      }
+    }
+  }
+
+  private final String[] loopPath;
+  private final GetXMLDataField[] fields;
+  private final RowMetaInterface outputRowMeta;
+  private final RowMetaInterface convertRowMeta;
+  private final int fieldOffset;
+  private final boolean ignoreComments;
+  private final boolean missingTagYieldsNullValue;
+  private final int maxPending;
+  private final ExecutorService executor;
+  private final ThreadLocal<Extractor> extractors = ThreadLocal.withInitial( Extractor::new );
+  private final STAXEventReader staxReader = new STAXEventReader();
+
+  private InputStream inputStream;
+  private XMLEventReader eventReader;
+  private final List<Element> ancestors = new ArrayList<>();
+  private int skipDepth;
+  private boolean endOfFile;
+  private final Deque<Future<Record[]>> pending = new ArrayDeque<>();
+  private Record[] batch;
+  private int batchIndex;
+
+  /**
+   * @param loopPath
+   *          the steps of the loop path, see {@link #getLoopPathSteps(String)}
+   * @param fields
+   *          the fields, with their resolved XPath
+   * @param outputRowMeta
+   *          the metadata of the output rows
+   * @param convertRowMeta
+   *          the metadata of the output rows as strings
+   * @param fieldOffset
+   *          the index of the first field in the output rows
+   * @param ignoreComments
+   *          true to leave the comments out of the loop elements
+   * @param missingTagYieldsNullValue
+   *          true to return null instead of an empty string for a path that isn't found
+   * @param threads
+   *          the number of threads extracting the fields
+   * @param threadName
+   *          the name of the threads
+   */
+  public GetXMLDataStreamReader( String[] loopPath, GetXMLDataField[] fields, RowMetaInterface outputRowMeta,
+    RowMetaInterface convertRowMeta, int fieldOffset, boolean ignoreComments, boolean missingTagYieldsNullValue,
+    int threads, String threadName ) {
+    this.loopPath = loopPath;
+    this.fields = fields;
+    this.outputRowMeta = outputRowMeta;
+    this.convertRowMeta = convertRowMeta;
+    this.fieldOffset = fieldOffset;
+    this.ignoreComments = ignoreComments;
+    this.missingTagYieldsNullValue = missingTagYieldsNullValue;
+    this.maxPending = threads * BATCHES_PER_THREAD;
+    AtomicInteger threadNr = new AtomicInteger();
+    this.executor = Executors.newFixedThreadPool( threads, runnable -> {
+      Thread thread = new Thread( runnable, threadName + " - XML worker " + threadNr.incrementAndGet() );
+      thread.setDaemon( true );
+      return thread;
+    } );
+    // Fail early on an invalid path
+    for ( GetXMLDataField field : fields ) {
+      DocumentHelper.createXPath( field.getResolvedXPath() );
+    }
+  }
+
+  /**
+   * @param loopXPath
+   *          the loop XPath
+   * @return the element names of a simple absolute path like /root/rows/row, * for any element, or null if the path
+   *         can't be streamed
+   */
+  public static String[] getLoopPathSteps( String loopXPath ) {
+    if ( loopXPath == null || !loopXPath.startsWith( GetXMLDataMeta.N0DE_SEPARATOR ) ) {
+      return null;
+    }
+    String[] steps = loopXPath.substring( 1 ).split( GetXMLDataMeta.N0DE_SEPARATOR, -1 );
+    for ( String step : steps ) {
+      if ( !STEP.matcher( step ).matches() ) {
+        return null;
+      }
+    }
+    return steps;
+  }
+
+  /**
+   * Start reading a file, the file that was read before is closed.
+   *
+   * @param inputStream
+   *          the content of the file
+   * @param encoding
+   *          the encoding of the file
+   * @throws KettleException
+   *           in case the file isn't XML
+   */
+  public void open( InputStream inputStream, String encoding ) throws KettleException {
+    closeFile();
+    this.inputStream = inputStream;
+    try {
+      XMLInputFactory factory = XMLParserFactoryProducer.createSecureXMLInputFactory();
+      factory.setProperty( XMLInputFactory.IS_COALESCING, Boolean.TRUE );
+      XMLEventReader reader = factory.createXMLEventReader( inputStream, encoding );
+      if ( ignoreComments ) {
+        reader = factory.createFilteredReader( reader, event -> event.getEventType() != XMLStreamConstants.COMMENT );
+      }
+      eventReader = reader;
+    } catch ( XMLStreamException e ) {
+      closeFile();
+      throw new KettleException( e );
+    }
+  }
+
+  /**
+   * @return true while a file is read
+   */
+  public boolean isOpen() {
+    return eventReader != null;
+  }
+
+  /**
+   * @return the fields of the next loop element or null at the end of the file, the file is closed then
+   * @throws KettleException
+   *           in case the file couldn't be read
+   */
+  public Record next() throws KettleException {
+    while ( isOpen() ) {
+      if ( batch != null && batchIndex < batch.length ) {
+        return batch[ batchIndex++ ];
+      }
+      batch = null;
+      submitBatches();
+      Future<Record[]> next = pending.poll();
+      if ( next == null ) {
+        closeFile();
+        return null;
+      }
+      try {
+        batch = next.get();
+        batchIndex = 0;
+      } catch ( InterruptedException e ) {
+        Thread.currentThread().interrupt();
+        throw new KettleException( e );
+      } catch ( ExecutionException e ) {
+        throw new KettleException( e.getCause() );
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Read loop elements and hand them to the threads until enough batches are waiting.
+   */
+  private void submitBatches() throws KettleException {
+    while ( !endOfFile && pending.size() < maxPending ) {
+      List<Element> elements = new ArrayList<>( BATCH_SIZE );
+      Element element;
+      while ( elements.size() < BATCH_SIZE && ( element = nextElement() ) != null ) {
+        elements.add( element );
+      }
+      if ( !elements.isEmpty() ) {
+        pending.add( executor.submit( () -> extract( elements ) ) );
+      }
+    }
+  }
+
+  /**
+   * @return the next loop element, in a document with copies of its ancestors, or null at the end of the file
+   */
+  private Element nextElement() throws KettleException {
+    try {
+      while ( eventReader.hasNext() ) {
+        XMLEvent event = eventReader.peek();
+        if ( !event.isStartElement() ) {
+          eventReader.nextEvent();
+          if ( event.isEndElement() ) {
+            if ( skipDepth > 0 ) {
+              skipDepth--;
+            } else if ( !ancestors.isEmpty() ) {
+              ancestors.remove( ancestors.size() - 1 );
+            }
+          }
+        } else if ( skipDepth > 0 ) {
+          eventReader.nextEvent();
+          skipDepth++;
+        } else {
+          int level = ancestors.size();
+          StartElement start = event.asStartElement();
+          if ( !matches( loopPath[ level ], start.getName() ) ) {
+            eventReader.nextEvent();
+            skipDepth = 1;
+          } else if ( level == loopPath.length - 1 ) {
+            return inDocument( staxReader.readElement( eventReader ) );
+          } else {
+            eventReader.nextEvent();
+            ancestors.add( staxReader.createElement( start ) );
+          }
+        }
+      }
+    } catch ( XMLStreamException e ) {
+      throw new KettleException( e );
+    }
+    endOfFile = true;
+    return null;
+  }
+
+  private static boolean matches( String step, QName name ) {
+    if ( "*".equals( step ) ) {
+      return true;
+    }
+    int colon = step.indexOf( ':' );
+    if ( colon < 0 ) {
+      // Like XPath, a name without prefix is a name without namespace
+      return step.equals( name.getLocalPart() ) && name.getNamespaceURI().isEmpty();
+    }
+    return step.substring( 0, colon ).equals( name.getPrefix() )
+      && step.substring( colon + 1 ).equals( name.getLocalPart() );
+  }
+
+  private Element inDocument( Element element ) {
+    Document document = DocumentHelper.createDocument();
+    Element parent = null;
+    for ( Element ancestor : ancestors ) {
+      Element copy = ancestor.createCopy();
+      if ( parent == null ) {
+        document.setRootElement( copy );
+      } else {
+        parent.add( copy );
+      }
+      parent = copy;
+    }
+    if ( parent == null ) {
+      document.setRootElement( element );
+    } else {
+      parent.add( element );
+    }
+    return element;
+  }
+
+  /**
+   * Extract and convert the fields of loop elements, called by the threads.
+   */
+  private Record[] extract( List<Element> elements ) {
+    Extractor extractor = extractors.get();
+    Record[] records = new Record[ elements.size() ];
+    for ( int i = 0; i < records.length; i++ ) {
+      records[ i ] = extract( elements.get( i ), extractor );
+    }
+    return records;
+  }
+
+  private Record extract( Element element, Extractor extractor ) {
+    Object[] values = new Object[ fields.length ];
+    String[] nodeValues = new String[ fields.length ];
+    try {
+      for ( int i = 0; i < fields.length; i++ ) {
+        XPath xpath = extractor.xpaths[ i ];
+        String nodevalue;
+        if ( fields[ i ].getResultType() == GetXMLDataField.RESULT_TYPE_VALUE_OF ) {
+          if ( missingTagYieldsNullValue ) {
+            nodevalue = xpath.selectSingleNode( element ) != null ? xpath.valueOf( element ) : null;
+          } else {
+            nodevalue = xpath.valueOf( element );
+          }
+        } else {
+          Node node = xpath.selectSingleNode( element );
+          if ( node != null ) {
+            nodevalue = node.asXML();
+          } else {
+            nodevalue = missingTagYieldsNullValue ? null : "";
+          }
+        }
+        nodevalue = GetXMLData.trim( nodevalue, fields[ i ].getTrimType() );
+        nodeValues[ i ] = nodevalue;
+        values[ i ] = extractor.targetValueMetas[ i ].convertData( extractor.sourceValueMetas[ i ], nodevalue );
+      }
+    } catch ( Exception e ) {
+      return new Record( values, nodeValues, e );
+    }
+    return new Record( values, nodeValues, null );
+  }
+
+  private void closeFile() {
+    for ( Future<Record[]> future : pending ) {
+      future.cancel( true );
+    }
+    pending.clear();
+    batch = null;
+    ancestors.clear();
+    skipDepth = 0;
+    endOfFile = false;
+    if ( eventReader != null ) {
+      try {
+        eventReader.close();
+      } catch ( XMLStreamException e ) {
+        // Ignore close errors
+      }
+      eventReader = null;
+    }
+    if ( inputStream != null ) {
+      BaseStep.closeQuietly( inputStream );
+      inputStream = null;
+    }
+  }
+
+  /**
+   * Stop reading and stop the threads.
+   */
+  @Override
+  public void close() {
+    closeFile();
+    executor.shutdownNow();
+  }
+}
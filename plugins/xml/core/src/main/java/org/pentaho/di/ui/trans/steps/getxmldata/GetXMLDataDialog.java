@@ -167,6 +167,10 @@ public class GetXMLDataDialog extends BaseStepDialog implements StepDialogInterf
   private TextVar wPrunePath;
   private FormData fdlPrunePath, fdPrunePath;
 
+  private Label wlStreamingThreads;
+  private Text wStreamingThreads;
+  private FormData fdlStreamingThreads, fdStreamingThreads;
+
   private Label wlEncoding;
   private CCombo wEncoding;
   private FormData fdlEncoding, fdEncoding;
@@ -834,6 +838,25 @@ public class GetXMLDataDialog extends BaseStepDialog implements StepDialogInterf
     fdPrunePath.right = new FormAttachment( 100, 0 );
     wPrunePath.setLayoutData( fdPrunePath );
 
+    // Threads converting the records read with StAX (streaming mode)
+    wlStreamingThreads = new Label( wXmlConf, SWT.RIGHT );
+    wlStreamingThreads.setText( BaseMessages.getString( PKG, "GetXMLDataDialog.StreamingThreads.Label" ) );
+    props.setLook( wlStreamingThreads );
+    fdlStreamingThreads = new FormData();
+    fdlStreamingThreads.left = new FormAttachment( 0, 0 );
+    fdlStreamingThreads.top = new FormAttachment( wPrunePath, margin );
+    fdlStreamingThreads.right = new FormAttachment( middle, -margin );
+    wlStreamingThreads.setLayoutData( fdlStreamingThreads );
+    wStreamingThreads = new Text( wXmlConf, SWT.SINGLE | SWT.LEFT | SWT.BORDER );
+    wStreamingThreads.setToolTipText( BaseMessages.getString( PKG, "GetXMLDataDialog.StreamingThreads.Tooltip" ) );
+    props.setLook( wStreamingThreads );
+    wStreamingThreads.addModifyListener( lsMod );
+    fdStreamingThreads = new FormData();
+    fdStreamingThreads.left = new FormAttachment( middle, 0 );
+    fdStreamingThreads.top = new FormAttachment( wPrunePath, margin );
+    fdStreamingThreads.right = new FormAttachment( 100, 0 );
+    wStreamingThreads.setLayoutData( fdStreamingThreads );
+
     fdXmlConf = new FormData();
     fdXmlConf.left = new FormAttachment( 0, margin );
     fdXmlConf.top = new FormAttachment( 0, margin );
@@ -1315,6 +1338,8 @@ public class GetXMLDataDialog extends BaseStepDialog implements StepDialogInterf
     wPreview.setEnabled( !wXMLStreamField.getSelection() );
     wPrunePath.setEnabled( !wXMLStreamField.getSelection() );
     wlPrunePath.setEnabled( !wXMLStreamField.getSelection() );
+    wStreamingThreads.setEnabled( !wXMLStreamField.getSelection() );
+    wlStreamingThreads.setEnabled( !wXMLStreamField.getSelection() );
     wlShortFileFieldName.setEnabled( !wXMLStreamField.getSelection() );
     wShortFileFieldName.setEnabled( !wXMLStreamField.getSelection() );
     wlPathFieldName.setEnabled( !wXMLStreamField.getSelection() );
@@ -1572,6 +1597,7 @@ public class GetXMLDataDialog extends BaseStepDialog implements StepDialogInterf
     if ( in.getPrunePath() != null ) {
       wPrunePath.setText( in.getPrunePath() );
     }
+    wStreamingThreads.setText( "" + in.getStreamingThreads() );
     if ( in.getLoopXPath() != null ) {
       wLoopXPath.setText( in.getLoopXPath() );
     }
@@ -1706,6 +1732,7 @@ public class GetXMLDataDialog extends BaseStepDialog implements StepDialogInterf
     // copy info to TextFileInputMeta class (input)
     in.setRowLimit( Const.toLong( wLimit.getText(), 0L ) );
     in.setPrunePath( wPrunePath.getText() );
+    in.setStreamingThreads( Const.toInt( wStreamingThreads.getText(), 0 ) );
     in.setLoopXPath( wLoopXPath.getText() );
     in.setEncoding( wEncoding.getText() );
     in.setFilenameField( wInclFilenameField.getText() );
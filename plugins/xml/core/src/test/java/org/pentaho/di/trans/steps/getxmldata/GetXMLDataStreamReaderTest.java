@@ -0,0 +1,224 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.di.trans.steps.getxmldata;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Test;
+import org.pentaho.di.core.exception.KettleException;
+import org.pentaho.di.core.row.RowMeta;
+import org.pentaho.di.core.row.ValueMetaInterface;
+import org.pentaho.di.core.row.value.ValueMetaInteger;
+import org.pentaho.di.core.row.value.ValueMetaString;
+
+public class GetXMLDataStreamReaderTest {
+  private static final String[] LOOP_PATH = { "root", "rows", "row" };
+
+  private GetXMLDataStreamReader reader;
+
+  @After
+  public void tearDown() {
+    if ( reader != null ) {
+      reader.close();
+    }
+  }
+
+  @Test
+  public void testGetLoopPathSteps() {
+    assertArrayEquals( new String[] { "root", "rows", "row" }, GetXMLDataStreamReader.getLoopPathSteps( "/root/rows/row" ) );
+    assertArrayEquals( new String[] { "root", "*" }, GetXMLDataStreamReader.getLoopPathSteps( "/root/*" ) );
+    assertArrayEquals( new String[] { "root" }, GetXMLDataStreamReader.getLoopPathSteps( "/root" ) );
+    assertArrayEquals( new String[] { "ns:root", "row" }, GetXMLDataStreamReader.getLoopPathSteps( "/ns:root/row" ) );
+  }
+
+  @Test
+  public void testGetLoopPathStepsNotStreamable() {
+    assertNull( GetXMLDataStreamReader.getLoopPathSteps( "//row" ) );
+    assertNull( GetXMLDataStreamReader.getLoopPathSteps( "root/row" ) );
+    assertNull( GetXMLDataStreamReader.getLoopPathSteps( "/root/row[1]" ) );
+    assertNull( GetXMLDataStreamReader.getLoopPathSteps( "/root/@id" ) );
+    assertNull( GetXMLDataStreamReader.getLoopPathSteps( "/root/../row" ) );
+    assertNull( GetXMLDataStreamReader.getLoopPathSteps( "" ) );
+  }
+
+  @Test
+  public void testRowsInFileOrder() throws Exception {
+    reader = newReader( false, 3, field( "id", "@id", ValueMetaInterface.TYPE_INTEGER ),
+      field( "name", "name", ValueMetaInterface.TYPE_STRING ) );
+    // Enough rows for several batches on every thread
+    reader.open( stream( document( 0, 1000 ) ), "UTF-8" );
+
+    List<GetXMLDataStreamReader.Record> records = readAll();
+    assertEquals( 1000, records.size() );
+    for ( int i = 0; i < records.size(); i++ ) {
+      GetXMLDataStreamReader.Record record = records.get( i );
+      assertNull( record.error );
+      assertEquals( (long) i, record.values[ 0 ] );
+      assertEquals( "name" + i, record.values[ 1 ] );
+      assertEquals( String.valueOf( i ), record.nodeValues[ 0 ] );
+    }
+    assertFalse( reader.isOpen() );
+    assertNull( reader.next() );
+  }
+
+  @Test
+  public void testAncestorAttributes() throws Exception {
+    reader = newReader( false, 1, field( "region", "../@region", ValueMetaInterface.TYPE_STRING ),
+      field( "version", "../../@version", ValueMetaInterface.TYPE_STRING ) );
+    reader.open( stream( document( 0, 3 ) ), "UTF-8" );
+
+    List<GetXMLDataStreamReader.Record> records = readAll();
+    assertEquals( 3, records.size() );
+    for ( GetXMLDataStreamReader.Record record : records ) {
+      assertArrayEquals( new String[] { "eu", "2" }, record.nodeValues );
+    }
+  }
+
+  @Test
+  public void testMissingTagYieldsNullValue() throws Exception {
+    reader = newReader( true, 1, field( "missing", "missing", ValueMetaInterface.TYPE_STRING ),
+      singleNode( field( "missingNode", "missing", ValueMetaInterface.TYPE_STRING ) ) );
+    reader.open( stream( document( 0, 1 ) ), "UTF-8" );
+
+    GetXMLDataStreamReader.Record record = reader.next();
+    assertNull( record.error );
+    assertArrayEquals( new String[] { null, null }, record.nodeValues );
+  }
+
+  @Test
+  public void testMissingTagYieldsEmptyString() throws Exception {
+    reader = newReader( false, 1, field( "missing", "missing", ValueMetaInterface.TYPE_STRING ),
+      singleNode( field( "missingNode", "missing", ValueMetaInterface.TYPE_STRING ) ) );
+    reader.open( stream( document( 0, 1 ) ), "UTF-8" );
+
+    GetXMLDataStreamReader.Record record = reader.next();
+    assertNull( record.error );
+    assertArrayEquals( new String[] { "", "" }, record.nodeValues );
+  }
+
+  @Test
+  public void testSingleNode() throws Exception {
+    reader = newReader( false, 1, singleNode( field( "name", "name", ValueMetaInterface.TYPE_STRING ) ) );
+    reader.open( stream( document( 5, 1 ) ), "UTF-8" );
+
+    GetXMLDataStreamReader.Record record = reader.next();
+    assertNull( record.error );
+    assertEquals( "<name>name5</name>", record.nodeValues[ 0 ] );
+    assertNull( reader.next() );
+  }
+
+  @Test
+  public void testConversionErrorOnRecord() throws Exception {
+    reader = newReader( false, 2, field( "id", "@id", ValueMetaInterface.TYPE_INTEGER ) );
+    reader.open( stream( "<root><rows><row id=\"1\"/><row id=\"one\"/><row id=\"3\"/></rows></root>" ), "UTF-8" );
+
+    GetXMLDataStreamReader.Record first = reader.next();
+    GetXMLDataStreamReader.Record failed = reader.next();
+    GetXMLDataStreamReader.Record last = reader.next();
+    assertNull( first.error );
+    assertNotNull( failed.error );
+    assertEquals( "one", failed.nodeValues[ 0 ] );
+    // The rows after the failing one are read as usual
+    assertNull( last.error );
+    assertEquals( 3L, last.values[ 0 ] );
+    assertNull( reader.next() );
+  }
+
+  @Test
+  public void testSecondFileReusesReader() throws Exception {
+    reader = newReader( false, 2, field( "id", "@id", ValueMetaInterface.TYPE_INTEGER ) );
+    reader.open( stream( document( 0, 100 ) ), "UTF-8" );
+    assertEquals( 100, readAll().size() );
+
+    reader.open( stream( document( 500, 3 ) ), "UTF-8" );
+    List<GetXMLDataStreamReader.Record> records = readAll();
+    assertEquals( 3, records.size() );
+    assertEquals( 500L, records.get( 0 ).values[ 0 ] );
+    assertEquals( 502L, records.get( 2 ).values[ 0 ] );
+  }
+
+  @Test
+  public void testSecondFileOpenedBeforeTheEndOfTheFirst() throws Exception {
+    reader = newReader( false, 2, field( "id", "@id", ValueMetaInterface.TYPE_INTEGER ) );
+    reader.open( stream( document( 0, 1000 ) ), "UTF-8" );
+    assertEquals( 0L, reader.next().values[ 0 ] );
+
+    reader.open( stream( document( 500, 2 ) ), "UTF-8" );
+    List<GetXMLDataStreamReader.Record> records = readAll();
+    assertEquals( 2, records.size() );
+    assertEquals( 500L, records.get( 0 ).values[ 0 ] );
+  }
+
+  /**
+   * @return rows first..first+count-1 in a rows element, surrounded by elements that don't match the loop path
+   */
+  private static String document( int first, int count ) {
+    StringBuilder xml = new StringBuilder( "<?xml version=\"1.0\" encoding=\"UTF-8\"?>" );
+    xml.append( "<root version=\"2\"><!-- comment --><header><row id=\"-1\"/></header><rows region=\"eu\">" );
+    for ( int i = first; i < first + count; i++ ) {
+      xml.append( "<row id=\"" ).append( i ).append( "\"><name>name" ).append( i ).append( "</name></row>" );
+    }
+    xml.append( "</rows><footer/></root>" );
+    return xml.toString();
+  }
+
+  private static ByteArrayInputStream stream( String xml ) {
+    return new ByteArrayInputStream( xml.getBytes( StandardCharsets.UTF_8 ) );
+  }
+
+  private static GetXMLDataField field( String name, String xpath, int type ) {
+    GetXMLDataField field = new GetXMLDataField( name );
+    field.setXPath( xpath );
+    field.setResolvedXPath( xpath );
+    field.setType( type );
+    return field;
+  }
+
+  private static GetXMLDataField singleNode( GetXMLDataField field ) {
+    field.setResultType( GetXMLDataField.RESULT_TYPE_TYPE_SINGLE_NODE );
+    return field;
+  }
+
+  private static GetXMLDataStreamReader newReader( boolean missingTagYieldsNullValue, int threads,
+    GetXMLDataField... fields ) {
+    RowMeta outputRowMeta = new RowMeta();
+    RowMeta convertRowMeta = new RowMeta();
+    for ( GetXMLDataField field : fields ) {
+      outputRowMeta.addValueMeta( field.getType() == ValueMetaInterface.TYPE_INTEGER
+        ? new ValueMetaInteger( field.getName() ) : new ValueMetaString( field.getName() ) );
+      convertRowMeta.addValueMeta( new ValueMetaString( field.getName() ) );
+    }
+    return new GetXMLDataStreamReader( LOOP_PATH, fields, outputRowMeta, convertRowMeta, 0, true,
+      missingTagYieldsNullValue, threads, "Get data from XML" );
+  }
+
+  private List<GetXMLDataStreamReader.Record> readAll() throws KettleException {
+    List<GetXMLDataStreamReader.Record> records = new ArrayList<>();
+    GetXMLDataStreamReader.Record record;
+    while ( ( record = reader.next() ) != null ) {
+      records.add( record );
+    }
+    return records;
+  }
+}
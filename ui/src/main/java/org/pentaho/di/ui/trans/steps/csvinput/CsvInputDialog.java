@@ -119,6 +119,7 @@ public class CsvInputDialog extends BaseStepDialog implements StepDialogInterfac
   private boolean isReceivingInput;
   private Button wRunningInParallel;
   private Button wNewlinePossible;
+  private Button wBulkParsing;
   private ComboVar wEncoding;
   private CCombo wFormat;
 
@@ -480,6 +481,25 @@ public class CsvInputDialog extends BaseStepDialog implements StepDialogInterfac
     } );
     lastControl = wNewlinePossible;
 
+    // Scan the file in bulk?
+    //
+    Label wlBulkParsing = new Label( shell, SWT.RIGHT );
+    wlBulkParsing.setText( BaseMessages.getString( PKG, inputMeta.getDescription( "BULK_PARSING" ) ) );
+    props.setLook( wlBulkParsing );
+    FormData fdlBulkParsing = new FormData();
+    fdlBulkParsing.top = new FormAttachment( lastControl, margin );
+    fdlBulkParsing.left = new FormAttachment( 0, 0 );
+    fdlBulkParsing.right = new FormAttachment( middle, -margin );
+    wlBulkParsing.setLayoutData( fdlBulkParsing );
+    wBulkParsing = new Button( shell, SWT.CHECK );
+    wBulkParsing.setToolTipText( BaseMessages.getString( PKG, inputMeta.getTooltip( "BULK_PARSING" ) ) );
+    props.setLook( wBulkParsing );
+    FormData fdBulkParsing = new FormData();
+    fdBulkParsing.top = new FormAttachment( lastControl, margin );
+    fdBulkParsing.left = new FormAttachment( middle, 0 );
+    wBulkParsing.setLayoutData( fdBulkParsing );
+    lastControl = wBulkParsing;
+
     // Format
     Label wlFormat = new Label( shell, SWT.RIGHT );
     wlFormat.setText( BaseMessages.getString( PKG, inputMeta.getDescription( "FORMAT" ) ) );
@@ -778,6 +798,7 @@ public class CsvInputDialog extends BaseStepDialog implements StepDialogInterfac
     wHeaderPresent.setSelection( inputMeta.isHeaderPresent() );
     wRunningInParallel.setSelection( inputMeta.isRunningInParallel() );
     wNewlinePossible.setSelection( inputMeta.isNewlinePossibleInFields() );
+    wBulkParsing.setSelection( inputMeta.isBulkParsing() );
     wRowNumField.setText( Const.NVL( inputMeta.getRowNumField(), "" ) );
     wAddResult.setSelection( inputMeta.isAddResultFile() );
     wFormat.setText( Const.NVL( inputMeta.getFileFormat(), "" ) );
@@ -837,6 +858,7 @@ public class CsvInputDialog extends BaseStepDialog implements StepDialogInterfac
     inputMeta.setAddResultFile( wAddResult.getSelection() );
     inputMeta.setRunningInParallel( wRunningInParallel.getSelection() );
     inputMeta.setNewlinePossibleInFields( wNewlinePossible.getSelection() );
+    inputMeta.setBulkParsing( wBulkParsing.getSelection() );
     inputMeta.setFileFormat( wFormat.getText() );
     inputMeta.setEncoding( wEncoding.getText() );
 
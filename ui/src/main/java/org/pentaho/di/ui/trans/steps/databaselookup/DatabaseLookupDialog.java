@@ -52,6 +52,7 @@ import org.pentaho.di.trans.TransMeta;
 import org.pentaho.di.trans.step.BaseStepMeta;
 import org.pentaho.di.trans.step.StepDialogInterface;
 import org.pentaho.di.trans.steps.databaselookup.DatabaseLookupMeta;
+import org.pentaho.di.trans.steps.databaselookup.SharedCache;
 import org.pentaho.di.ui.core.database.dialog.DatabaseExplorerDialog;
 import org.pentaho.di.ui.core.dialog.EnterSelectionDialog;
 import org.pentaho.di.ui.core.dialog.ErrorDialog;
@@ -78,6 +79,22 @@ public class DatabaseLookupDialog extends BaseStepDialog implements StepDialogIn
   private Text wCachesize;
   private FormData fdlCachesize, fdCachesize;
 
+  private Label wlSharedCache;
+  private Button wSharedCache;
+  private FormData fdlSharedCache, fdSharedCache;
+
+  private Label wlSharedCacheName;
+  private TextVar wSharedCacheName;
+  private FormData fdlSharedCacheName, fdSharedCacheName;
+
+  private Label wlCacheTimeToLive;
+  private Text wCacheTimeToLive;
+  private FormData fdlCacheTimeToLive, fdCacheTimeToLive;
+
+  private Label wlCacheEviction;
+  private CCombo wCacheEviction;
+  private FormData fdlCacheEviction, fdCacheEviction;
+
   private Label wlKey;
   private TableView wKey;
   private FormData fdlKey, fdKey;
@@ -324,12 +341,89 @@ public class DatabaseLookupDialog extends BaseStepDialog implements StepDialogIn
       }
     } );
 
+    // Cache : shared between steps?
+    wlSharedCache = new Label( shell, SWT.RIGHT );
+    wlSharedCache.setText( BaseMessages.getString( PKG, "DatabaseLookupDialog.SharedCache.Label" ) );
+    props.setLook( wlSharedCache );
+    fdlSharedCache = new FormData();
+    fdlSharedCache.left = new FormAttachment( 0, 0 );
+    fdlSharedCache.right = new FormAttachment( middle, -margin );
+    fdlSharedCache.top = new FormAttachment( wCacheLoadAll, margin );
+    wlSharedCache.setLayoutData( fdlSharedCache );
+    wSharedCache = new Button( shell, SWT.CHECK );
+    props.setLook( wSharedCache );
+    fdSharedCache = new FormData();
+    fdSharedCache.left = new FormAttachment( middle, 0 );
+    fdSharedCache.top = new FormAttachment( wCacheLoadAll, margin );
+    wSharedCache.setLayoutData( fdSharedCache );
+    wSharedCache.addSelectionListener( new SelectionAdapter() {
+      public void widgetSelected( SelectionEvent e ) {
+        input.setChanged();
+        enableFields();
+      }
+    } );
+
+    // Shared cache name line
+    wlSharedCacheName = new Label( shell, SWT.RIGHT );
+    wlSharedCacheName.setText( BaseMessages.getString( PKG, "DatabaseLookupDialog.SharedCacheName.Label" ) );
+    props.setLook( wlSharedCacheName );
+    fdlSharedCacheName = new FormData();
+    fdlSharedCacheName.left = new FormAttachment( 0, 0 );
+    fdlSharedCacheName.right = new FormAttachment( middle, -margin );
+    fdlSharedCacheName.top = new FormAttachment( wSharedCache, margin );
+    wlSharedCacheName.setLayoutData( fdlSharedCacheName );
+    wSharedCacheName = new TextVar( transMeta, shell, SWT.SINGLE | SWT.LEFT | SWT.BORDER );
+    props.setLook( wSharedCacheName );
+    wSharedCacheName.addModifyListener( lsMod );
+    fdSharedCacheName = new FormData();
+    fdSharedCacheName.left = new FormAttachment( middle, 0 );
+    fdSharedCacheName.right = new FormAttachment( 100, 0 );
+    fdSharedCacheName.top = new FormAttachment( wSharedCache, margin );
+    wSharedCacheName.setLayoutData( fdSharedCacheName );
+
+    // Cache time to live line
+    wlCacheTimeToLive = new Label( shell, SWT.RIGHT );
+    wlCacheTimeToLive.setText( BaseMessages.getString( PKG, "DatabaseLookupDialog.CacheTimeToLive.Label" ) );
+    props.setLook( wlCacheTimeToLive );
+    fdlCacheTimeToLive = new FormData();
+    fdlCacheTimeToLive.left = new FormAttachment( 0, 0 );
+    fdlCacheTimeToLive.right = new FormAttachment( middle, -margin );
+    fdlCacheTimeToLive.top = new FormAttachment( wSharedCacheName, margin );
+    wlCacheTimeToLive.setLayoutData( fdlCacheTimeToLive );
+    wCacheTimeToLive = new Text( shell, SWT.SINGLE | SWT.LEFT | SWT.BORDER );
+    props.setLook( wCacheTimeToLive );
+    wCacheTimeToLive.addModifyListener( lsMod );
+    fdCacheTimeToLive = new FormData();
+    fdCacheTimeToLive.left = new FormAttachment( middle, 0 );
+    fdCacheTimeToLive.right = new FormAttachment( 100, 0 );
+    fdCacheTimeToLive.top = new FormAttachment( wSharedCacheName, margin );
+    wCacheTimeToLive.setLayoutData( fdCacheTimeToLive );
+
+    // Cache eviction policy line
+    wlCacheEviction = new Label( shell, SWT.RIGHT );
+    wlCacheEviction.setText( BaseMessages.getString( PKG, "DatabaseLookupDialog.CacheEviction.Label" ) );
+    props.setLook( wlCacheEviction );
+    fdlCacheEviction = new FormData();
+    fdlCacheEviction.left = new FormAttachment( 0, 0 );
+    fdlCacheEviction.right = new FormAttachment( middle, -margin );
+    fdlCacheEviction.top = new FormAttachment( wCacheTimeToLive, margin );
+    wlCacheEviction.setLayoutData( fdlCacheEviction );
+    wCacheEviction = new CCombo( shell, SWT.BORDER | SWT.READ_ONLY );
+    wCacheEviction.setItems( new String[] { SharedCache.EVICTION_LRU, SharedCache.EVICTION_LFU } );
+    props.setLook( wCacheEviction );
+    wCacheEviction.addModifyListener( lsMod );
+    fdCacheEviction = new FormData();
+    fdCacheEviction.left = new FormAttachment( middle, 0 );
+    fdCacheEviction.right = new FormAttachment( 100, 0 );
+    fdCacheEviction.top = new FormAttachment( wCacheTimeToLive, margin );
+    wCacheEviction.setLayoutData( fdCacheEviction );
+
     wlKey = new Label( shell, SWT.NONE );
     wlKey.setText( BaseMessages.getString( PKG, "DatabaseLookupDialog.Keys.Label" ) );
     props.setLook( wlKey );
     fdlKey = new FormData();
     fdlKey.left = new FormAttachment( 0, 0 );
-    fdlKey.top = new FormAttachment( wCacheLoadAll, margin );
+    fdlKey.top = new FormAttachment( wCacheEviction, margin );
     wlKey.setLayoutData( fdlKey );
 
     int nrKeyCols = 4;
@@ -636,6 +730,16 @@ public class DatabaseLookupDialog extends BaseStepDialog implements StepDialogIn
     wlCacheLoadAll.setEnabled( wCache.getSelection() );
     wFailMultiple.setEnabled( !wCache.getSelection() );
     wlFailMultiple.setEnabled( !wCache.getSelection() );
+
+    boolean shared = wCache.getSelection() && wSharedCache.getSelection();
+    wSharedCache.setEnabled( wCache.getSelection() );
+    wlSharedCache.setEnabled( wCache.getSelection() );
+    wSharedCacheName.setEnabled( shared );
+    wlSharedCacheName.setEnabled( shared );
+    wCacheTimeToLive.setEnabled( shared );
+    wlCacheTimeToLive.setEnabled( shared );
+    wCacheEviction.setEnabled( shared && !wCacheLoadAll.getSelection() );
+    wlCacheEviction.setEnabled( shared && !wCacheLoadAll.getSelection() );
   }
 
   /**
@@ -647,6 +751,10 @@ public class DatabaseLookupDialog extends BaseStepDialog implements StepDialogIn
     wCache.setSelection( input.isCached() );
     wCachesize.setText( "" + input.getCacheSize() );
     wCacheLoadAll.setSelection( input.isLoadingAllDataInCache() );
+    wSharedCache.setSelection( input.isSharedCache() );
+    wSharedCacheName.setText( Const.NVL( input.getSharedCacheName(), "" ) );
+    wCacheTimeToLive.setText( "" + input.getCacheTimeToLive() );
+    wCacheEviction.setText( Const.NVL( input.getCacheEvictionPolicy(), SharedCache.EVICTION_LRU ) );
 
     if ( input.getStreamKeyField1() != null ) {
       for ( int i = 0; i < input.getStreamKeyField1().length; i++ ) {
@@ -731,6 +839,10 @@ public class DatabaseLookupDialog extends BaseStepDialog implements StepDialogIn
     input.setCached( wCache.getSelection() );
     input.setCacheSize( Const.toInt( wCachesize.getText(), 0 ) );
     input.setLoadingAllDataInCache( wCacheLoadAll.getSelection() );
+    input.setSharedCache( wSharedCache.getSelection() );
+    input.setSharedCacheName( wSharedCacheName.getText() );
+    input.setCacheTimeToLive( Const.toInt( wCacheTimeToLive.getText(), 0 ) );
+    input.setCacheEvictionPolicy( wCacheEviction.getText() );
 
     logDebug( BaseMessages.getString( PKG, "DatabaseLookupDialog.Log.FoundKeys", String.valueOf( nrkeys ) ) );
     //CHECKSTYLE:Indentation:OFF
@@ -118,6 +118,9 @@ public class DimensionLookupDialog extends BaseStepDialog implements StepDialogI
   private Label wlPreloadCache;
   private Button wPreloadCache;
 
+  private Label wlVersionCache;
+  private Button wVersionCache;
+
   private Label wlCacheSize;
   private Text wCacheSize;
 
@@ -455,6 +458,31 @@ public class DimensionLookupDialog extends BaseStepDialog implements StepDialogI
     fdPreloadCache.right = new FormAttachment( 100, 0 );
     wPreloadCache.setLayoutData( fdPreloadCache );
 
+    // Version cache?
+    wlVersionCache = new Label( comp, SWT.RIGHT );
+    wlVersionCache.setText( BaseMessages.getString( PKG, "DimensionLookupDialog.VersionCache.Label" ) );
+    wlVersionCache.setToolTipText( BaseMessages.getString( PKG, "DimensionLookupDialog.VersionCache.Tooltip" ) );
+    props.setLook( wlVersionCache );
+    FormData fdlVersionCache = new FormData();
+    fdlVersionCache.left = new FormAttachment( 0, 0 );
+    fdlVersionCache.right = new FormAttachment( middle, -margin );
+    fdlVersionCache.top = new FormAttachment( wPreloadCache, margin );
+    wlVersionCache.setLayoutData( fdlVersionCache );
+    wVersionCache = new Button( comp, SWT.CHECK );
+    wVersionCache.setToolTipText( BaseMessages.getString( PKG, "DimensionLookupDialog.VersionCache.Tooltip" ) );
+    props.setLook( wVersionCache );
+    wVersionCache.addSelectionListener( new SelectionAdapter() {
+      public void widgetSelected( SelectionEvent arg0 ) {
+        setFlags();
+        input.setChanged();
+      }
+    } );
+    FormData fdVersionCache = new FormData();
+    fdVersionCache.left = new FormAttachment( middle, 0 );
+    fdVersionCache.top = new FormAttachment( wPreloadCache, margin );
+    fdVersionCache.right = new FormAttachment( 100, 0 );
+    wVersionCache.setLayoutData( fdVersionCache );
+
     // Cache size ...
     wlCacheSize = new Label( comp, SWT.RIGHT );
     wlCacheSize.setText( BaseMessages.getString( PKG, "DimensionLookupDialog.CacheSize.Label" ) );
@@ -462,14 +490,14 @@ public class DimensionLookupDialog extends BaseStepDialog implements StepDialogI
     FormData fdlCacheSize = new FormData();
     fdlCacheSize.left = new FormAttachment( 0, 0 );
     fdlCacheSize.right = new FormAttachment( middle, -margin );
-    fdlCacheSize.top = new FormAttachment( wPreloadCache, margin );
+    fdlCacheSize.top = new FormAttachment( wVersionCache, margin );
     wlCacheSize.setLayoutData( fdlCacheSize );
     wCacheSize = new Text( comp, SWT.SINGLE | SWT.LEFT | SWT.BORDER );
     props.setLook( wCacheSize );
     wCacheSize.addModifyListener( lsMod );
     FormData fdCacheSize = new FormData();
     fdCacheSize.left = new FormAttachment( middle, 0 );
-    fdCacheSize.top = new FormAttachment( wPreloadCache, margin );
+    fdCacheSize.top = new FormAttachment( wVersionCache, margin );
     fdCacheSize.right = new FormAttachment( 100, 0 );
     wCacheSize.setLayoutData( fdCacheSize );
 
@@ -1189,8 +1217,13 @@ public class DimensionLookupDialog extends BaseStepDialog implements StepDialogI
 
     // Caching...
     //
-    wlPreloadCache.setEnabled( wUseCache.getSelection() && !wUpdate.getSelection() );
-    wPreloadCache.setEnabled( wUseCache.getSelection() && !wUpdate.getSelection() );
+    // The version cache can be pre-loaded when the dimension is updated too
+    //
+    boolean preload = wUseCache.getSelection() && ( !wUpdate.getSelection() || wVersionCache.getSelection() );
+    wlPreloadCache.setEnabled( preload );
+    wPreloadCache.setEnabled( preload );
+    wlVersionCache.setEnabled( wUseCache.getSelection() );
+    wVersionCache.setEnabled( wUseCache.getSelection() );
 
     wlCacheSize.setEnabled( wUseCache.getSelection() && !wPreloadCache.getSelection() );
     wCacheSize.setEnabled( wUseCache.getSelection() && !wPreloadCache.getSelection() );
@@ -1362,6 +1395,7 @@ public class DimensionLookupDialog extends BaseStepDialog implements StepDialogI
 
     wUseCache.setSelection( input.getCacheSize() >= 0 );
     wPreloadCache.setSelection( input.isPreloadingCache() );
+    wVersionCache.setSelection( input.isVersionCache() );
     if ( input.getCacheSize() >= 0 ) {
       wCacheSize.setText( "" + input.getCacheSize() );
     }
@@ -1486,6 +1520,7 @@ public class DimensionLookupDialog extends BaseStepDialog implements StepDialogI
       in.setCacheSize( -1 );
     }
     in.setPreloadingCache( wPreloadCache.getSelection() );
+    in.setVersionCache( wUseCache.getSelection() && wVersionCache.getSelection() );
     if ( wPreloadCache.getSelection() ) {
       in.setCacheSize( 0 );
     }
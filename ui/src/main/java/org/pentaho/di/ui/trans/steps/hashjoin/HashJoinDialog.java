@@ -0,0 +1,458 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.di.ui.trans.steps.hashjoin;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.eclipse.swt.SWT;
+import org.eclipse.swt.custom.CCombo;
+import org.eclipse.swt.events.ModifyEvent;
+import org.eclipse.swt.events.ModifyListener;
+import org.eclipse.swt.events.SelectionAdapter;
+import org.eclipse.swt.events.SelectionEvent;
+import org.eclipse.swt.events.ShellAdapter;
+import org.eclipse.swt.events.ShellEvent;
+import org.eclipse.swt.layout.FormAttachment;
+import org.eclipse.swt.layout.FormData;
+import org.eclipse.swt.layout.FormLayout;
+import org.eclipse.swt.widgets.Button;
+import org.eclipse.swt.widgets.Display;
+import org.eclipse.swt.widgets.Event;
+import org.eclipse.swt.widgets.Label;
+import org.eclipse.swt.widgets.Listener;
+import org.eclipse.swt.widgets.Shell;
+import org.eclipse.swt.widgets.TableItem;
+import org.eclipse.swt.widgets.Text;
+import org.pentaho.di.core.Const;
+import org.pentaho.di.core.exception.KettleException;
+import org.pentaho.di.core.row.RowMetaInterface;
+import org.pentaho.di.core.util.Utils;
+import org.pentaho.di.i18n.BaseMessages;
+import org.pentaho.di.trans.TransMeta;
+import org.pentaho.di.trans.step.BaseStepMeta;
+import org.pentaho.di.trans.step.StepDialogInterface;
+import org.pentaho.di.trans.step.StepMeta;
+import org.pentaho.di.trans.step.errorhandling.StreamInterface;
+import org.pentaho.di.trans.steps.hashjoin.HashJoinMeta;
+import org.pentaho.di.ui.core.dialog.ErrorDialog;
+import org.pentaho.di.ui.core.widget.ColumnInfo;
+import org.pentaho.di.ui.core.widget.TableView;
+import org.pentaho.di.ui.core.widget.TextVar;
+import org.pentaho.di.ui.trans.step.BaseStepDialog;
+
+public class HashJoinDialog extends BaseStepDialog implements StepDialogInterface {
+  private static Class<?> PKG = HashJoinMeta.class; // for i18n purposes, needed by Translator2!!
+
+  private CCombo wBuildStep;
+  private CCombo wType;
+  private TextVar wMemoryLimit;
+  private TextVar wSpillDirectory;
+  private TableView wKeys;
+  private TableView wBuildKeys;
+
+  private HashJoinMeta input;
+
+  public HashJoinDialog( Shell parent, Object in, TransMeta tr, String sname ) {
+    super( parent, (BaseStepMeta) in, tr, sname );
+    input = (HashJoinMeta) in;
+  }
+
+  public String open() {
+    Shell parent = getParent();
+    Display display = parent.getDisplay();
+
+    shell = new Shell( parent, SWT.DIALOG_TRIM | SWT.RESIZE | SWT.MIN | SWT.MAX );
+    props.setLook( shell );
+    setShellImage( shell, input );
+
+    ModifyListener lsMod = new ModifyListener() {
+      public void modifyText( ModifyEvent e ) {
+        input.setChanged();
+      }
+    };
+    backupChanged = input.hasChanged();
+
+    FormLayout formLayout = new FormLayout();
+    formLayout.marginWidth = Const.FORM_MARGIN;
+    formLayout.marginHeight = Const.FORM_MARGIN;
+
+    shell.setLayout( formLayout );
+    shell.setText( BaseMessages.getString( PKG, "HashJoinDialog.Shell.Label" ) );
+
+    int middle = props.getMiddlePct();
+    int margin = Const.MARGIN;
+
+    // Stepname line
+    wlStepname = new Label( shell, SWT.RIGHT );
+    wlStepname.setText( BaseMessages.getString( PKG, "HashJoinDialog.Stepname.Label" ) );
+    props.setLook( wlStepname );
+    fdlStepname = new FormData();
+    fdlStepname.left = new FormAttachment( 0, 0 );
+    fdlStepname.right = new FormAttachment( middle, -margin );
+    fdlStepname.top = new FormAttachment( 0, margin );
+    wlStepname.setLayoutData( fdlStepname );
+    wStepname = new Text( shell, SWT.SINGLE | SWT.LEFT | SWT.BORDER );
+    wStepname.setText( stepname );
+    props.setLook( wStepname );
+    wStepname.addModifyListener( lsMod );
+    fdStepname = new FormData();
+    fdStepname.left = new FormAttachment( middle, 0 );
+    fdStepname.top = new FormAttachment( 0, margin );
+    fdStepname.right = new FormAttachment( 100, 0 );
+    wStepname.setLayoutData( fdStepname );
+
+    // Get the previous steps...
+    String[] previousSteps = transMeta.getPrevStepNames( stepname );
+
+    // Build step
+    Label wlBuildStep = new Label( shell, SWT.RIGHT );
+    wlBuildStep.setText( BaseMessages.getString( PKG, "HashJoinDialog.BuildStep.Label" ) );
+    props.setLook( wlBuildStep );
+    FormData fdlBuildStep = new FormData();
+    fdlBuildStep.left = new FormAttachment( 0, 0 );
+    fdlBuildStep.right = new FormAttachment( middle, -margin );
+    fdlBuildStep.top = new FormAttachment( wStepname, margin );
+    wlBuildStep.setLayoutData( fdlBuildStep );
+    wBuildStep = new CCombo( shell, SWT.BORDER );
+    props.setLook( wBuildStep );
+
+    if ( previousSteps != null ) {
+      wBuildStep.setItems( previousSteps );
+    }
+
+    wBuildStep.addModifyListener( lsMod );
+    FormData fdBuildStep = new FormData();
+    fdBuildStep.left = new FormAttachment( middle, 0 );
+    fdBuildStep.top = new FormAttachment( wStepname, margin );
+    fdBuildStep.right = new FormAttachment( 100, 0 );
+    wBuildStep.setLayoutData( fdBuildStep );
+
+    // Join type
+    Label wlType = new Label( shell, SWT.RIGHT );
+    wlType.setText( BaseMessages.getString( PKG, "HashJoinDialog.Type.Label" ) );
+    props.setLook( wlType );
+    FormData fdlType = new FormData();
+    fdlType.left = new FormAttachment( 0, 0 );
+    fdlType.right = new FormAttachment( middle, -margin );
+    fdlType.top = new FormAttachment( wBuildStep, margin );
+    wlType.setLayoutData( fdlType );
+    wType = new CCombo( shell, SWT.BORDER );
+    props.setLook( wType );
+
+    wType.setItems( HashJoinMeta.join_types );
+
+    wType.addModifyListener( lsMod );
+    FormData fdType = new FormData();
+    fdType.top = new FormAttachment( wBuildStep, margin );
+    fdType.left = new FormAttachment( middle, 0 );
+    fdType.right = new FormAttachment( 100, 0 );
+    wType.setLayoutData( fdType );
+
+    // Memory limit
+    Label wlMemoryLimit = new Label( shell, SWT.RIGHT );
+    wlMemoryLimit.setText( BaseMessages.getString( PKG, "HashJoinDialog.MemoryLimit.Label" ) );
+    wlMemoryLimit.setToolTipText( BaseMessages.getString( PKG, "HashJoinDialog.MemoryLimit.Tooltip" ) );
+    props.setLook( wlMemoryLimit );
+    FormData fdlMemoryLimit = new FormData();
+    fdlMemoryLimit.left = new FormAttachment( 0, 0 );
+    fdlMemoryLimit.right = new FormAttachment( middle, -margin );
+    fdlMemoryLimit.top = new FormAttachment( wType, margin );
+    wlMemoryLimit.setLayoutData( fdlMemoryLimit );
+    wMemoryLimit = new TextVar( transMeta, shell, SWT.SINGLE | SWT.LEFT | SWT.BORDER );
+    props.setLook( wMemoryLimit );
+    wMemoryLimit.addModifyListener( lsMod );
+    FormData fdMemoryLimit = new FormData();
+    fdMemoryLimit.left = new FormAttachment( middle, 0 );
+    fdMemoryLimit.top = new FormAttachment( wType, margin );
+    fdMemoryLimit.right = new FormAttachment( 100, 0 );
+    wMemoryLimit.setLayoutData( fdMemoryLimit );
+
+    // Spill directory
+    Label wlSpillDirectory = new Label( shell, SWT.RIGHT );
+    wlSpillDirectory.setText( BaseMessages.getString( PKG, "HashJoinDialog.SpillDirectory.Label" ) );
+    props.setLook( wlSpillDirectory );
+    FormData fdlSpillDirectory = new FormData();
+    fdlSpillDirectory.left = new FormAttachment( 0, 0 );
+    fdlSpillDirectory.right = new FormAttachment( middle, -margin );
+    fdlSpillDirectory.top = new FormAttachment( wMemoryLimit, margin );
+    wlSpillDirectory.setLayoutData( fdlSpillDirectory );
+    wSpillDirectory = new TextVar( transMeta, shell, SWT.SINGLE | SWT.LEFT | SWT.BORDER );
+    props.setLook( wSpillDirectory );
+    wSpillDirectory.addModifyListener( lsMod );
+    FormData fdSpillDirectory = new FormData();
+    fdSpillDirectory.left = new FormAttachment( middle, 0 );
+    fdSpillDirectory.top = new FormAttachment( wMemoryLimit, margin );
+    fdSpillDirectory.right = new FormAttachment( 100, 0 );
+    wSpillDirectory.setLayoutData( fdSpillDirectory );
+
+    // THE KEYS TO MATCH for the main input...
+    Label wlKeys = new Label( shell, SWT.NONE );
+    wlKeys.setText( BaseMessages.getString( PKG, "HashJoinDialog.Keys.Label" ) );
+    props.setLook( wlKeys );
+    FormData fdlKeys = new FormData();
+    fdlKeys.left = new FormAttachment( 0, 0 );
+    fdlKeys.top = new FormAttachment( wSpillDirectory, margin );
+    wlKeys.setLayoutData( fdlKeys );
+
+    int nrKeyRows = ( input.getKeyFields() != null ? input.getKeyFields().length : 1 );
+
+    ColumnInfo[] ciKeys =
+      new ColumnInfo[] { new ColumnInfo(
+        BaseMessages.getString( PKG, "HashJoinDialog.ColumnInfo.KeyField" ), ColumnInfo.COLUMN_TYPE_TEXT,
+        false ), };
+
+    wKeys =
+      new TableView(
+        transMeta, shell, SWT.BORDER | SWT.FULL_SELECTION | SWT.MULTI | SWT.V_SCROLL | SWT.H_SCROLL, ciKeys,
+        nrKeyRows, lsMod, props );
+
+    FormData fdKeys = new FormData();
+    fdKeys.top = new FormAttachment( wlKeys, margin );
+    fdKeys.left = new FormAttachment( 0, 0 );
+    fdKeys.bottom = new FormAttachment( 100, -70 );
+    fdKeys.right = new FormAttachment( 50, -margin );
+    wKeys.setLayoutData( fdKeys );
+
+    Button wbKeys = new Button( shell, SWT.PUSH );
+    wbKeys.setText( BaseMessages.getString( PKG, "HashJoinDialog.KeyFields.Button" ) );
+    FormData fdbKeys = new FormData();
+    fdbKeys.top = new FormAttachment( wKeys, margin );
+    fdbKeys.left = new FormAttachment( 0, 0 );
+    fdbKeys.right = new FormAttachment( 50, -margin );
+    wbKeys.setLayoutData( fdbKeys );
+    wbKeys.addSelectionListener( new SelectionAdapter() {
+
+      public void widgetSelected( SelectionEvent e ) {
+        getKeys();
+      }
+    } );
+
+    // THE KEYS TO MATCH for the build step
+    Label wlBuildKeys = new Label( shell, SWT.NONE );
+    wlBuildKeys.setText( BaseMessages.getString( PKG, "HashJoinDialog.BuildKeys.Label" ) );
+    props.setLook( wlBuildKeys );
+    FormData fdlBuildKeys = new FormData();
+    fdlBuildKeys.left = new FormAttachment( 50, 0 );
+    fdlBuildKeys.top = new FormAttachment( wSpillDirectory, margin );
+    wlBuildKeys.setLayoutData( fdlBuildKeys );
+
+    int nrBuildKeyRows = ( input.getBuildKeyFields() != null ? input.getBuildKeyFields().length : 1 );
+
+    ColumnInfo[] ciBuildKeys =
+      new ColumnInfo[] { new ColumnInfo(
+        BaseMessages.getString( PKG, "HashJoinDialog.ColumnInfo.KeyField" ), ColumnInfo.COLUMN_TYPE_TEXT,
+        false ), };
+
+    wBuildKeys =
+      new TableView(
+        transMeta, shell, SWT.BORDER | SWT.FULL_SELECTION | SWT.MULTI | SWT.V_SCROLL | SWT.H_SCROLL, ciBuildKeys,
+        nrBuildKeyRows, lsMod, props );
+
+    FormData fdBuildKeys = new FormData();
+    fdBuildKeys.top = new FormAttachment( wlBuildKeys, margin );
+    fdBuildKeys.left = new FormAttachment( 50, 0 );
+    fdBuildKeys.bottom = new FormAttachment( 100, -70 );
+    fdBuildKeys.right = new FormAttachment( 100, 0 );
+    wBuildKeys.setLayoutData( fdBuildKeys );
+
+    Button wbBuildKeys = new Button( shell, SWT.PUSH );
+    wbBuildKeys.setText( BaseMessages.getString( PKG, "HashJoinDialog.KeyFields.Button" ) );
+    FormData fdbBuildKeys = new FormData();
+    fdbBuildKeys.top = new FormAttachment( wBuildKeys, margin );
+    fdbBuildKeys.left = new FormAttachment( 50, 0 );
+    fdbBuildKeys.right = new FormAttachment( 100, 0 );
+    wbBuildKeys.setLayoutData( fdbBuildKeys );
+    wbBuildKeys.addSelectionListener( new SelectionAdapter() {
+
+      public void widgetSelected( SelectionEvent e ) {
+        getBuildKeys();
+      }
+    } );
+
+    // Some buttons
+    wOK = new Button( shell, SWT.PUSH );
+    wOK.setText( BaseMessages.getString( PKG, "System.Button.OK" ) );
+    wCancel = new Button( shell, SWT.PUSH );
+    wCancel.setText( BaseMessages.getString( PKG, "System.Button.Cancel" ) );
+
+    setButtonPositions( new Button[] { wOK, wCancel }, margin, wbKeys );
+
+    // Add listeners
+    lsCancel = new Listener() {
+      public void handleEvent( Event e ) {
+        cancel();
+      }
+    };
+    lsOK = new Listener() {
+      public void handleEvent( Event e ) {
+        ok();
+      }
+    };
+
+    wCancel.addListener( SWT.Selection, lsCancel );
+    wOK.addListener( SWT.Selection, lsOK );
+
+    lsDef = new SelectionAdapter() {
+      public void widgetDefaultSelected( SelectionEvent e ) {
+        ok();
+      }
+    };
+
+    wStepname.addSelectionListener( lsDef );
+    wMemoryLimit.addSelectionListener( lsDef );
+    wSpillDirectory.addSelectionListener( lsDef );
+
+    // Detect X or ALT-F4 or something that kills this window...
+    shell.addShellListener( new ShellAdapter() {
+      public void shellClosed( ShellEvent e ) {
+        cancel();
+      }
+    } );
+
+    // Set the shell size, based upon previous time...
+    setSize();
+
+    getData();
+    input.setChanged( backupChanged );
+
+    shell.open();
+    while ( !shell.isDisposed() ) {
+      if ( !display.readAndDispatch() ) {
+        display.sleep();
+      }
+    }
+    return stepname;
+  }
+
+  /**
+   * Copy information from the meta-data input to the dialog fields.
+   */
+  public void getData() {
+    StreamInterface infoStream = input.getStepIOMeta().getInfoStreams().get( 0 );
+
+    wBuildStep.setText( Const.NVL( infoStream.getStepname(), "" ) );
+    String joinType = input.getJoinType();
+    if ( joinType != null && joinType.length() > 0 ) {
+      wType.setText( joinType );
+    } else {
+      wType.setText( HashJoinMeta.join_types[0] );
+    }
+    wMemoryLimit.setText( Const.NVL( input.getMemoryLimit(), "" ) );
+    wSpillDirectory.setText( Const.NVL( input.getSpillDirectory(), "" ) );
+
+    for ( int i = 0; i < input.getKeyFields().length; i++ ) {
+      TableItem item = wKeys.table.getItem( i );
+      if ( input.getKeyFields()[i] != null ) {
+        item.setText( 1, input.getKeyFields()[i] );
+      }
+    }
+    for ( int i = 0; i < input.getBuildKeyFields().length; i++ ) {
+      TableItem item = wBuildKeys.table.getItem( i );
+      if ( input.getBuildKeyFields()[i] != null ) {
+        item.setText( 1, input.getBuildKeyFields()[i] );
+      }
+    }
+
+    wStepname.selectAll();
+    wStepname.setFocus();
+  }
+
+  private void cancel() {
+    stepname = null;
+    input.setChanged( backupChanged );
+    dispose();
+  }
+
+  private void getMeta( HashJoinMeta meta ) {
+    StreamInterface infoStream = meta.getStepIOMeta().getInfoStreams().get( 0 );
+
+    infoStream.setStepMeta( transMeta.findStep( wBuildStep.getText() ) );
+    meta.setJoinType( wType.getText() );
+    meta.setMemoryLimit( wMemoryLimit.getText() );
+    meta.setSpillDirectory( wSpillDirectory.getText() );
+
+    int nrKeys = wKeys.nrNonEmpty();
+    int nrBuildKeys = wBuildKeys.nrNonEmpty();
+
+    meta.allocate( nrKeys, nrBuildKeys );
+
+    //CHECKSTYLE:Indentation:OFF
+    for ( int i = 0; i < nrKeys; i++ ) {
+      TableItem item = wKeys.getNonEmpty( i );
+      meta.getKeyFields()[i] = item.getText( 1 );
+    }
+
+    //CHECKSTYLE:Indentation:OFF
+    for ( int i = 0; i < nrBuildKeys; i++ ) {
+      TableItem item = wBuildKeys.getNonEmpty( i );
+      meta.getBuildKeyFields()[i] = item.getText( 1 );
+    }
+  }
+
+  private void ok() {
+    if ( Utils.isEmpty( wStepname.getText() ) ) {
+      return;
+    }
+
+    getMeta( input );
+
+    stepname = wStepname.getText(); // return value
+
+    dispose();
+  }
+
+  private void getKeys() {
+    HashJoinMeta joinMeta = new HashJoinMeta();
+    getMeta( joinMeta );
+
+    try {
+      // The main input is every previous step except the build step
+      StepMeta stepMeta = transMeta.findStep( stepname );
+      if ( stepMeta != null ) {
+        List<StepMeta> previousSteps = new ArrayList<>( transMeta.findPreviousSteps( stepMeta, false ) );
+        StreamInterface infoStream = joinMeta.getStepIOMeta().getInfoStreams().get( 0 );
+        previousSteps.remove( infoStream.getStepMeta() );
+        if ( !previousSteps.isEmpty() ) {
+          RowMetaInterface prev = transMeta.getStepFields( previousSteps.toArray( new StepMeta[0] ) );
+          BaseStepDialog.getFieldsFromPrevious( prev, wKeys, 1, new int[] { 1 }, new int[] {}, -1, -1, null );
+        }
+      }
+    } catch ( KettleException e ) {
+      new ErrorDialog(
+        shell, BaseMessages.getString( PKG, "HashJoinDialog.ErrorGettingFields.DialogTitle" ), BaseMessages
+          .getString( PKG, "HashJoinDialog.ErrorGettingFields.DialogMessage" ), e );
+    }
+  }
+
+  private void getBuildKeys() {
+    HashJoinMeta joinMeta = new HashJoinMeta();
+    getMeta( joinMeta );
+
+    try {
+      StepMeta stepMeta = joinMeta.getStepIOMeta().getInfoStreams().get( 0 ).getStepMeta();
+      if ( stepMeta != null ) {
+        RowMetaInterface prev = transMeta.getStepFields( stepMeta );
+        if ( prev != null ) {
+          BaseStepDialog.getFieldsFromPrevious( prev, wBuildKeys, 1, new int[] { 1 }, new int[] {}, -1, -1, null );
+        }
+      }
+    } catch ( KettleException e ) {
+      new ErrorDialog(
+        shell, BaseMessages.getString( PKG, "HashJoinDialog.ErrorGettingFields.DialogTitle" ), BaseMessages
+          .getString( PKG, "HashJoinDialog.ErrorGettingFields.DialogMessage" ), e );
+    }
+  }
+
+}
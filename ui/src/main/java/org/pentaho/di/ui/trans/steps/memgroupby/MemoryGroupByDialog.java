@@ -49,8 +49,12 @@ import org.pentaho.di.trans.step.StepDialogInterface;
 import org.pentaho.di.trans.step.StepMeta;
 import org.pentaho.di.trans.steps.memgroupby.MemoryGroupByMeta;
 import org.pentaho.di.ui.core.dialog.ErrorDialog;
+import org.pentaho.di.ui.core.events.dialog.SelectionAdapterFileDialogTextVar;
+import org.pentaho.di.ui.core.events.dialog.SelectionAdapterOptions;
+import org.pentaho.di.ui.core.events.dialog.SelectionOperation;
 import org.pentaho.di.ui.core.widget.ColumnInfo;
 import org.pentaho.di.ui.core.widget.TableView;
+import org.pentaho.di.ui.core.widget.TextVar;
 import org.pentaho.di.ui.trans.step.BaseStepDialog;
 
 public class MemoryGroupByDialog extends BaseStepDialog implements StepDialogInterface {
@@ -68,6 +72,23 @@ public class MemoryGroupByDialog extends BaseStepDialog implements StepDialogInt
   private Button wAlwaysAddResult;
   private FormData fdlAlwaysAddResult, fdAlwaysAddResult;
 
+  private Label wlParallelAggregation;
+  private Button wParallelAggregation;
+  private FormData fdlParallelAggregation, fdParallelAggregation;
+
+  private Label wlCompactAggregation;
+  private Button wCompactAggregation;
+  private FormData fdlCompactAggregation, fdCompactAggregation;
+
+  private Label wlMemoryLimit;
+  private TextVar wMemoryLimit;
+  private FormData fdlMemoryLimit, fdMemoryLimit;
+
+  private Label wlTempDir;
+  private Button wbTempDir;
+  private TextVar wTempDir;
+  private FormData fdlTempDir, fdbTempDir, fdTempDir;
+
   private Button wGet, wGetAgg;
   private FormData fdGet, fdGetAgg;
   private Listener lsGet, lsGetAgg;
@@ -159,12 +180,116 @@ public class MemoryGroupByDialog extends BaseStepDialog implements StepDialogInt
     wAlwaysAddResult.setLayoutData( fdAlwaysAddResult );
     wAlwaysAddResult.addSelectionListener( lsSel );
 
+    // Merge the partial aggregates of the step copies?
+    //
+    wlParallelAggregation = new Label( shell, SWT.RIGHT );
+    wlParallelAggregation.setText( BaseMessages.getString( PKG, "MemoryGroupByDialog.ParallelAggregation.Label" ) );
+    wlParallelAggregation
+      .setToolTipText( BaseMessages.getString( PKG, "MemoryGroupByDialog.ParallelAggregation.Tooltip" ) );
+    props.setLook( wlParallelAggregation );
+    fdlParallelAggregation = new FormData();
+    fdlParallelAggregation.left = new FormAttachment( 0, 0 );
+    fdlParallelAggregation.top = new FormAttachment( wAlwaysAddResult, margin );
+    fdlParallelAggregation.right = new FormAttachment( middle, -margin );
+    wlParallelAggregation.setLayoutData( fdlParallelAggregation );
+    wParallelAggregation = new Button( shell, SWT.CHECK );
+    wParallelAggregation
+      .setToolTipText( BaseMessages.getString( PKG, "MemoryGroupByDialog.ParallelAggregation.Tooltip" ) );
+    props.setLook( wParallelAggregation );
+    fdParallelAggregation = new FormData();
+    fdParallelAggregation.left = new FormAttachment( middle, 0 );
+    fdParallelAggregation.top = new FormAttachment( wAlwaysAddResult, margin );
+    fdParallelAggregation.right = new FormAttachment( 100, 0 );
+    wParallelAggregation.setLayoutData( fdParallelAggregation );
+    wParallelAggregation.addSelectionListener( lsSel );
+
+    // Use the compact hash table?
+    //
+    wlCompactAggregation = new Label( shell, SWT.RIGHT );
+    wlCompactAggregation.setText( BaseMessages.getString( PKG, "MemoryGroupByDialog.CompactAggregation.Label" ) );
+    wlCompactAggregation
+      .setToolTipText( BaseMessages.getString( PKG, "MemoryGroupByDialog.CompactAggregation.Tooltip" ) );
+    props.setLook( wlCompactAggregation );
+    fdlCompactAggregation = new FormData();
+    fdlCompactAggregation.left = new FormAttachment( 0, 0 );
+    fdlCompactAggregation.top = new FormAttachment( wParallelAggregation, margin );
+    fdlCompactAggregation.right = new FormAttachment( middle, -margin );
+    wlCompactAggregation.setLayoutData( fdlCompactAggregation );
+    wCompactAggregation = new Button( shell, SWT.CHECK );
+    wCompactAggregation
+      .setToolTipText( BaseMessages.getString( PKG, "MemoryGroupByDialog.CompactAggregation.Tooltip" ) );
+    props.setLook( wCompactAggregation );
+    fdCompactAggregation = new FormData();
+    fdCompactAggregation.left = new FormAttachment( middle, 0 );
+    fdCompactAggregation.top = new FormAttachment( wParallelAggregation, margin );
+    fdCompactAggregation.right = new FormAttachment( 100, 0 );
+    wCompactAggregation.setLayoutData( fdCompactAggregation );
+    wCompactAggregation.addSelectionListener( new SelectionAdapter() {
+      @Override
+      public void widgetSelected( SelectionEvent e ) {
+        input.setChanged();
+        setFlags();
+      }
+    } );
+
+    // Memory limit of the compact hash table
+    //
+    wlMemoryLimit = new Label( shell, SWT.RIGHT );
+    wlMemoryLimit.setText( BaseMessages.getString( PKG, "MemoryGroupByDialog.MemoryLimit.Label" ) );
+    wlMemoryLimit.setToolTipText( BaseMessages.getString( PKG, "MemoryGroupByDialog.MemoryLimit.Tooltip" ) );
+    props.setLook( wlMemoryLimit );
+    fdlMemoryLimit = new FormData();
+    fdlMemoryLimit.left = new FormAttachment( 0, 0 );
+    fdlMemoryLimit.top = new FormAttachment( wCompactAggregation, margin );
+    fdlMemoryLimit.right = new FormAttachment( middle, -margin );
+    wlMemoryLimit.setLayoutData( fdlMemoryLimit );
+    wMemoryLimit = new TextVar( transMeta, shell, SWT.SINGLE | SWT.LEFT | SWT.BORDER );
+    wMemoryLimit.setToolTipText( BaseMessages.getString( PKG, "MemoryGroupByDialog.MemoryLimit.Tooltip" ) );
+    props.setLook( wMemoryLimit );
+    wMemoryLimit.addModifyListener( lsMod );
+    fdMemoryLimit = new FormData();
+    fdMemoryLimit.left = new FormAttachment( middle, 0 );
+    fdMemoryLimit.top = new FormAttachment( wCompactAggregation, margin );
+    fdMemoryLimit.right = new FormAttachment( 100, 0 );
+    wMemoryLimit.setLayoutData( fdMemoryLimit );
+
+    // Temporary files directory
+    //
+    wlTempDir = new Label( shell, SWT.RIGHT );
+    wlTempDir.setText( BaseMessages.getString( PKG, "MemoryGroupByDialog.TempDir.Label" ) );
+    props.setLook( wlTempDir );
+    fdlTempDir = new FormData();
+    fdlTempDir.left = new FormAttachment( 0, 0 );
+    fdlTempDir.right = new FormAttachment( middle, -margin );
+    fdlTempDir.top = new FormAttachment( wMemoryLimit, margin );
+    wlTempDir.setLayoutData( fdlTempDir );
+
+    wbTempDir = new Button( shell, SWT.PUSH | SWT.CENTER );
+    props.setLook( wbTempDir );
+    wbTempDir.setText( BaseMessages.getString( PKG, "MemoryGroupByDialog.Browse.Button" ) );
+    fdbTempDir = new FormData();
+    fdbTempDir.right = new FormAttachment( 100, 0 );
+    fdbTempDir.top = new FormAttachment( wMemoryLimit, margin );
+    wbTempDir.setLayoutData( fdbTempDir );
+
+    wTempDir = new TextVar( transMeta, shell, SWT.SINGLE | SWT.LEFT | SWT.BORDER );
+    props.setLook( wTempDir );
+    wTempDir.addModifyListener( lsMod );
+    fdTempDir = new FormData();
+    fdTempDir.left = new FormAttachment( middle, 0 );
+    fdTempDir.top = new FormAttachment( wMemoryLimit, margin );
+    fdTempDir.right = new FormAttachment( wbTempDir, -margin );
+    wTempDir.setLayoutData( fdTempDir );
+
+    wbTempDir.addSelectionListener( new SelectionAdapterFileDialogTextVar( log, wTempDir, transMeta,
+      new SelectionAdapterOptions( transMeta.getBowl(), SelectionOperation.FOLDER ) ) );
+
     wlGroup = new Label( shell, SWT.NONE );
     wlGroup.setText( BaseMessages.getString( PKG, "MemoryGroupByDialog.Group.Label" ) );
     props.setLook( wlGroup );
     fdlGroup = new FormData();
     fdlGroup.left = new FormAttachment( 0, 0 );
-    fdlGroup.top = new FormAttachment( wAlwaysAddResult, margin );
+    fdlGroup.top = new FormAttachment( wTempDir, margin );
     wlGroup.setLayoutData( fdlGroup );
 
     int nrKeyCols = 1;
@@ -366,6 +491,11 @@ public class MemoryGroupByDialog extends BaseStepDialog implements StepDialogInt
     logDebug( BaseMessages.getString( PKG, "MemoryGroupByDialog.Log.GettingKeyInfo" ) );
 
     wAlwaysAddResult.setSelection( input.isAlwaysGivingBackOneRow() );
+    wParallelAggregation.setSelection( input.isParallelAggregation() );
+    wCompactAggregation.setSelection( input.isCompactAggregation() );
+    wMemoryLimit.setText( Const.NVL( input.getMemoryLimit(), "" ) );
+    wTempDir.setText( Const.NVL( input.getDirectory(), "" ) );
+    setFlags();
 
     if ( input.getGroupField() != null ) {
       for ( int i = 0; i < input.getGroupField().length; i++ ) {
@@ -401,6 +531,15 @@ public class MemoryGroupByDialog extends BaseStepDialog implements StepDialogInt
     wStepname.setFocus();
   }
 
+  private void setFlags() {
+    boolean compact = wCompactAggregation.getSelection();
+    wlMemoryLimit.setEnabled( compact );
+    wMemoryLimit.setEnabled( compact );
+    wlTempDir.setEnabled( compact );
+    wTempDir.setEnabled( compact );
+    wbTempDir.setEnabled( compact );
+  }
+
   private void cancel() {
     stepname = null;
     input.setChanged( backupChanged );
@@ -416,6 +555,10 @@ public class MemoryGroupByDialog extends BaseStepDialog implements StepDialogInt
     int nrfields = wAgg.nrNonEmpty();
 
     input.setAlwaysGivingBackOneRow( wAlwaysAddResult.getSelection() );
+    input.setParallelAggregation( wParallelAggregation.getSelection() );
+    input.setCompactAggregation( wCompactAggregation.getSelection() );
+    input.setMemoryLimit( wMemoryLimit.getText() );
+    input.setDirectory( wTempDir.getText() );
 
     input.allocate( sizegroup, nrfields );
 
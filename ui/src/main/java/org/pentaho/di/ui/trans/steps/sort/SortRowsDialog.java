@@ -90,6 +90,10 @@ public class SortRowsDialog extends BaseStepDialog implements StepDialogInterfac
   private Button wUniqueRows;
   private FormData fdlUniqueRows, fdUniqueRows;
 
+  private Label wlHighPerformance;
+  private Button wHighPerformance;
+  private FormData fdlHighPerformance, fdHighPerformance;
+
   private Label wlFields;
   private TableView wFields;
   private FormData fdlFields, fdFields;
@@ -289,6 +293,25 @@ public class SortRowsDialog extends BaseStepDialog implements StepDialogInterfac
     wUniqueRows.setLayoutData( fdUniqueRows );
     wUniqueRows.addSelectionListener( new ComponentSelectionListener( input ) );
 
+    // Use the high performance sort algorithm?
+    wlHighPerformance = new Label( shell, SWT.RIGHT );
+    wlHighPerformance.setText( BaseMessages.getString( PKG, "SortRowsDialog.HighPerformance.Label" ) );
+    props.setLook( wlHighPerformance );
+    fdlHighPerformance = new FormData();
+    fdlHighPerformance.left = new FormAttachment( 0, 0 );
+    fdlHighPerformance.right = new FormAttachment( middle, -margin );
+    fdlHighPerformance.top = new FormAttachment( wUniqueRows, margin );
+    wlHighPerformance.setLayoutData( fdlHighPerformance );
+    wHighPerformance = new Button( shell, SWT.CHECK );
+    wHighPerformance.setToolTipText( BaseMessages.getString( PKG, "SortRowsDialog.HighPerformance.Tooltip" ) );
+    props.setLook( wHighPerformance );
+    fdHighPerformance = new FormData();
+    fdHighPerformance.left = new FormAttachment( middle, 0 );
+    fdHighPerformance.top = new FormAttachment( wUniqueRows, margin );
+    fdHighPerformance.right = new FormAttachment( 100, 0 );
+    wHighPerformance.setLayoutData( fdHighPerformance );
+    wHighPerformance.addSelectionListener( new ComponentSelectionListener( input ) );
+
     wOK = new Button( shell, SWT.PUSH );
     wOK.setText( BaseMessages.getString( PKG, "System.Button.OK" ) );
     wGet = new Button( shell, SWT.PUSH );
@@ -304,7 +327,7 @@ public class SortRowsDialog extends BaseStepDialog implements StepDialogInterfac
     props.setLook( wlFields );
     fdlFields = new FormData();
     fdlFields.left = new FormAttachment( 0, 0 );
-    fdlFields.top = new FormAttachment( wUniqueRows, margin );
+    fdlFields.top = new FormAttachment( wHighPerformance, margin );
     wlFields.setLayoutData( fdlFields );
 
     final int FieldsRows = input.getFieldName().length;
@@ -480,6 +503,7 @@ public class SortRowsDialog extends BaseStepDialog implements StepDialogInterfac
     wCompress.setSelection( input.getCompressFiles() );
     wCompress.setVariableName( input.getCompressFilesVariable() );
     wUniqueRows.setSelection( input.isOnlyPassingUniqueRows() );
+    wHighPerformance.setSelection( input.isHighPerformanceSort() );
 
     Table table = wFields.table;
     if ( input.getFieldName().length > 0 ) {
@@ -530,6 +554,7 @@ public class SortRowsDialog extends BaseStepDialog implements StepDialogInterfac
     input.setCompressFiles( wCompress.getSelection() );
     input.setCompressFilesVariable( wCompress.getVariableName() );
     input.setOnlyPassingUniqueRows( wUniqueRows.getSelection() );
+    input.setHighPerformanceSort( wHighPerformance.getSelection() );
 
     // Table table = wFields.table;
     int nrfields = wFields.nrNonEmpty();
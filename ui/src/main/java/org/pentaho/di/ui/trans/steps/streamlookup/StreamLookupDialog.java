@@ -84,6 +84,18 @@ public class StreamLookupDialog extends BaseStepDialog implements StepDialogInte
   private Button wIntegerPair;
   private FormData fdlIntegerPair, fdIntegerPair;
 
+  private Label wlCompactIndex;
+  private Button wCompactIndex;
+  private FormData fdlCompactIndex, fdCompactIndex;
+
+  private Label wlOffHeap;
+  private Button wOffHeap;
+  private FormData fdlOffHeap, fdOffHeap;
+
+  private Label wlShareIndex;
+  private Button wShareIndex;
+  private FormData fdlShareIndex, fdShareIndex;
+
   private StreamLookupMeta input;
 
   private Button wGetLU;
@@ -249,7 +261,7 @@ public class StreamLookupDialog extends BaseStepDialog implements StepDialogInte
     fdReturn.left = new FormAttachment( 0, 0 );
     fdReturn.top = new FormAttachment( wlReturn, margin );
     fdReturn.right = new FormAttachment( 100, 0 );
-    fdReturn.bottom = new FormAttachment( 100, -125 );
+    fdReturn.bottom = new FormAttachment( 100, -200 );
     wReturn.setLayoutData( fdReturn );
 
     wlPreserveMemory = new Label( shell, SWT.RIGHT );
@@ -316,6 +328,73 @@ public class StreamLookupDialog extends BaseStepDialog implements StepDialogInte
         input.setChanged();
       }
     } );
+
+    wlCompactIndex = new Label( shell, SWT.RIGHT );
+    wlCompactIndex.setText( BaseMessages.getString( PKG, "StreamLookupDialog.CompactIndex.Label" ) );
+    props.setLook( wlCompactIndex );
+    fdlCompactIndex = new FormData();
+    fdlCompactIndex.left = new FormAttachment( 0, 0 );
+    fdlCompactIndex.top = new FormAttachment( wSortedList, margin );
+    fdlCompactIndex.right = new FormAttachment( middle, -margin );
+    wlCompactIndex.setLayoutData( fdlCompactIndex );
+    wCompactIndex = new Button( shell, SWT.RADIO );
+    wCompactIndex.setEnabled( false );
+    props.setLook( wCompactIndex );
+    fdCompactIndex = new FormData();
+    fdCompactIndex.left = new FormAttachment( middle, 0 );
+    fdCompactIndex.top = new FormAttachment( wSortedList, margin );
+    fdCompactIndex.right = new FormAttachment( 100, 0 );
+    wCompactIndex.setLayoutData( fdCompactIndex );
+    wCompactIndex.addSelectionListener( new SelectionAdapter() {
+      public void widgetSelected( SelectionEvent e ) {
+        input.setChanged();
+        setCompactIndexOptions();
+      }
+    } );
+
+    wlOffHeap = new Label( shell, SWT.RIGHT );
+    wlOffHeap.setText( BaseMessages.getString( PKG, "StreamLookupDialog.OffHeap.Label" ) );
+    props.setLook( wlOffHeap );
+    fdlOffHeap = new FormData();
+    fdlOffHeap.left = new FormAttachment( 0, 0 );
+    fdlOffHeap.top = new FormAttachment( wCompactIndex, margin );
+    fdlOffHeap.right = new FormAttachment( middle, -margin );
+    wlOffHeap.setLayoutData( fdlOffHeap );
+    wOffHeap = new Button( shell, SWT.CHECK );
+    wOffHeap.setEnabled( false );
+    props.setLook( wOffHeap );
+    fdOffHeap = new FormData();
+    fdOffHeap.left = new FormAttachment( middle, 0 );
+    fdOffHeap.top = new FormAttachment( wCompactIndex, margin );
+    fdOffHeap.right = new FormAttachment( 100, 0 );
+    wOffHeap.setLayoutData( fdOffHeap );
+    wOffHeap.addSelectionListener( new SelectionAdapter() {
+      public void widgetSelected( SelectionEvent e ) {
+        input.setChanged();
+      }
+    } );
+
+    wlShareIndex = new Label( shell, SWT.RIGHT );
+    wlShareIndex.setText( BaseMessages.getString( PKG, "StreamLookupDialog.ShareIndex.Label" ) );
+    props.setLook( wlShareIndex );
+    fdlShareIndex = new FormData();
+    fdlShareIndex.left = new FormAttachment( 0, 0 );
+    fdlShareIndex.top = new FormAttachment( wOffHeap, margin );
+    fdlShareIndex.right = new FormAttachment( middle, -margin );
+    wlShareIndex.setLayoutData( fdlShareIndex );
+    wShareIndex = new Button( shell, SWT.CHECK );
+    wShareIndex.setEnabled( false );
+    props.setLook( wShareIndex );
+    fdShareIndex = new FormData();
+    fdShareIndex.left = new FormAttachment( middle, 0 );
+    fdShareIndex.top = new FormAttachment( wOffHeap, margin );
+    fdShareIndex.right = new FormAttachment( 100, 0 );
+    wShareIndex.setLayoutData( fdShareIndex );
+    wShareIndex.addSelectionListener( new SelectionAdapter() {
+      public void widgetSelected( SelectionEvent e ) {
+        input.setChanged();
+      }
+    } );
     // PDI-2107 preserve memory should be enabled to have this options on.
     wPreserveMemory.addListener( SWT.Selection, new Listener() {
       @Override
@@ -323,8 +402,19 @@ public class StreamLookupDialog extends BaseStepDialog implements StepDialogInte
         boolean selection = wPreserveMemory.getSelection();
         wSortedList.setEnabled( selection );
         wIntegerPair.setEnabled( selection );
+        wCompactIndex.setEnabled( selection );
+        setCompactIndexOptions();
       }
     } );
+    // The compact index options only apply when the compact index is chosen
+    Listener lsCompactIndex = new Listener() {
+      @Override
+      public void handleEvent( Event event ) {
+        setCompactIndexOptions();
+      }
+    };
+    wSortedList.addListener( SWT.Selection, lsCompactIndex );
+    wIntegerPair.addListener( SWT.Selection, lsCompactIndex );
 
     // END MEMORY PRESERVE
 
@@ -522,12 +612,17 @@ public class StreamLookupDialog extends BaseStepDialog implements StepDialogInte
     if ( isPreserveMemory ) {
       wSortedList.setEnabled( true );
       wIntegerPair.setEnabled( true );
+      wCompactIndex.setEnabled( true );
     }
     // PDI-2107 usually this is sorted list or integer pair
     // for backward compatibility they can be set both
     // but user will be forced to choose only one option later.
     wSortedList.setSelection( input.isUsingSortedList() );
     wIntegerPair.setSelection( input.isUsingIntegerPair() );
+    wCompactIndex.setSelection( input.isUsingCompactIndex() );
+    wOffHeap.setSelection( input.isOffHeap() );
+    wShareIndex.setSelection( input.isSharingIndex() );
+    setCompactIndexOptions();
 
     wKey.setRowNums();
     wKey.optWidth( true );
@@ -538,6 +633,12 @@ public class StreamLookupDialog extends BaseStepDialog implements StepDialogInte
     wStepname.setFocus();
   }
 
+  private void setCompactIndexOptions() {
+    boolean enabled = wPreserveMemory.getSelection() && wCompactIndex.getSelection();
+    wOffHeap.setEnabled( enabled );
+    wShareIndex.setEnabled( enabled );
+  }
+
   private void cancel() {
     stepname = null;
     input.setChanged( changed );
@@ -555,6 +656,9 @@ public class StreamLookupDialog extends BaseStepDialog implements StepDialogInte
     input.setMemoryPreservationActive( wPreserveMemory.getSelection() );
     input.setUsingSortedList( wSortedList.getSelection() );
     input.setUsingIntegerPair( wIntegerPair.getSelection() );
+    input.setUsingCompactIndex( wCompactIndex.getSelection() );
+    input.setOffHeap( wOffHeap.getSelection() );
+    input.setSharingIndex( wShareIndex.getSelection() );
 
     if ( log.isDebug() ) {
       logDebug( BaseMessages.getString( PKG, "StreamLookupDialog.Log.FoundKeys", nrkeys + "" ) );
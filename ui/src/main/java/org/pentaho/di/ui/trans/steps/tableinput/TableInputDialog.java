@@ -101,6 +101,18 @@ public class TableInputDialog extends BaseStepDialog implements StepDialogInterf
   private Button wCachedRowMeta;
   private FormData fdlCachedRowMeta, fdCachedRowMeta;
 
+  private Label wlPrefetchRows;
+  private Button wPrefetchRows;
+  private FormData fdlPrefetchRows, fdPrefetchRows;
+
+  private Label wlFetchSize;
+  private TextVar wFetchSize;
+  private FormData fdlFetchSize, fdFetchSize;
+
+  private Label wlPartitionColumn;
+  private TextVar wPartitionColumn;
+  private FormData fdlPartitionColumn, fdPartitionColumn;
+
   private Button wbTable;
   private FormData fdbTable;
   private Listener lsbTable;
@@ -179,6 +191,65 @@ public class TableInputDialog extends BaseStepDialog implements StepDialogInterf
 
     setButtonPositions( new Button[] { wOK, wPreview, wCancel }, margin, null );
 
+    // Partition column...
+    wlPartitionColumn = new Label( shell, SWT.RIGHT );
+    wlPartitionColumn.setText( BaseMessages.getString( PKG, "TableInputDialog.PartitionColumn" ) );
+    props.setLook( wlPartitionColumn );
+    fdlPartitionColumn = new FormData();
+    fdlPartitionColumn.left = new FormAttachment( 0, 0 );
+    fdlPartitionColumn.right = new FormAttachment( middle, -margin );
+    fdlPartitionColumn.bottom = new FormAttachment( wOK, -2 * margin );
+    wlPartitionColumn.setLayoutData( fdlPartitionColumn );
+    wPartitionColumn = new TextVar( transMeta, shell, SWT.SINGLE | SWT.LEFT | SWT.BORDER );
+    props.setLook( wPartitionColumn );
+    wPartitionColumn.setToolTipText( BaseMessages.getString( PKG, "TableInputDialog.PartitionColumn.Tooltip" ) );
+    wPartitionColumn.addModifyListener( lsMod );
+    fdPartitionColumn = new FormData();
+    fdPartitionColumn.left = new FormAttachment( middle, 0 );
+    fdPartitionColumn.right = new FormAttachment( 100, 0 );
+    fdPartitionColumn.bottom = new FormAttachment( wOK, -2 * margin );
+    wPartitionColumn.setLayoutData( fdPartitionColumn );
+
+    // Fetch size...
+    wlFetchSize = new Label( shell, SWT.RIGHT );
+    wlFetchSize.setText( BaseMessages.getString( PKG, "TableInputDialog.FetchSize" ) );
+    props.setLook( wlFetchSize );
+    fdlFetchSize = new FormData();
+    fdlFetchSize.left = new FormAttachment( 0, 0 );
+    fdlFetchSize.right = new FormAttachment( middle, -margin );
+    fdlFetchSize.bottom = new FormAttachment( wPartitionColumn, -margin );
+    wlFetchSize.setLayoutData( fdlFetchSize );
+    wFetchSize = new TextVar( transMeta, shell, SWT.SINGLE | SWT.LEFT | SWT.BORDER );
+    props.setLook( wFetchSize );
+    wFetchSize.addModifyListener( lsMod );
+    fdFetchSize = new FormData();
+    fdFetchSize.left = new FormAttachment( middle, 0 );
+    fdFetchSize.right = new FormAttachment( 100, 0 );
+    fdFetchSize.bottom = new FormAttachment( wPartitionColumn, -margin );
+    wFetchSize.setLayoutData( fdFetchSize );
+
+    // Prefetch rows?
+    wlPrefetchRows = new Label( shell, SWT.RIGHT );
+    wlPrefetchRows.setText( BaseMessages.getString( PKG, "TableInputDialog.PrefetchRows" ) );
+    props.setLook( wlPrefetchRows );
+    fdlPrefetchRows = new FormData();
+    fdlPrefetchRows.left = new FormAttachment( 0, 0 );
+    fdlPrefetchRows.right = new FormAttachment( middle, -margin );
+    fdlPrefetchRows.bottom = new FormAttachment( wFetchSize, -margin );
+    wlPrefetchRows.setLayoutData( fdlPrefetchRows );
+    wPrefetchRows = new Button( shell, SWT.CHECK );
+    props.setLook( wPrefetchRows );
+    fdPrefetchRows = new FormData();
+    fdPrefetchRows.left = new FormAttachment( middle, 0 );
+    fdPrefetchRows.right = new FormAttachment( 100, 0 );
+    fdPrefetchRows.bottom = new FormAttachment( wFetchSize, -margin );
+    wPrefetchRows.setLayoutData( fdPrefetchRows );
+    wPrefetchRows.addSelectionListener( new SelectionAdapter() {
+      public void widgetSelected( SelectionEvent arg0 ) {
+        input.setChanged();
+      }
+    } );
+
     // Limit input ...
     wlLimit = new Label( shell, SWT.RIGHT );
     wlLimit.setText( BaseMessages.getString( PKG, "TableInputDialog.LimitSize" ) );
@@ -186,7 +257,7 @@ public class TableInputDialog extends BaseStepDialog implements StepDialogInterf
     fdlLimit = new FormData();
     fdlLimit.left = new FormAttachment( 0, 0 );
     fdlLimit.right = new FormAttachment( middle, -margin );
-    fdlLimit.bottom = new FormAttachment( wOK, -2 * margin );
+    fdlLimit.bottom = new FormAttachment( wPrefetchRows, -margin );
     wlLimit.setLayoutData( fdlLimit );
     wLimit = new TextVar( transMeta, shell, SWT.SINGLE | SWT.LEFT | SWT.BORDER );
     props.setLook( wLimit );
@@ -194,7 +265,7 @@ public class TableInputDialog extends BaseStepDialog implements StepDialogInterf
     fdLimit = new FormData();
     fdLimit.left = new FormAttachment( middle, 0 );
     fdLimit.right = new FormAttachment( 100, 0 );
-    fdLimit.bottom = new FormAttachment( wOK, -2 * margin );
+    fdLimit.bottom = new FormAttachment( wPrefetchRows, -margin );
     wLimit.setLayoutData( fdLimit );
 
     // Execute for each row?
@@ -434,6 +505,8 @@ public class TableInputDialog extends BaseStepDialog implements StepDialogInterf
 
     wStepname.addSelectionListener( lsDef );
     wLimit.addSelectionListener( lsDef );
+    wFetchSize.addSelectionListener( lsDef );
+    wPartitionColumn.addSelectionListener( lsDef );
 
     // Detect X or ALT-F4 or something that kills this window...
     shell.addShellListener( new ShellAdapter() {
@@ -504,6 +577,9 @@ public class TableInputDialog extends BaseStepDialog implements StepDialogInterf
     wVariables.setSelection( input.isVariableReplacementActive() );
     wLazyConversion.setSelection( input.isLazyConversionActive() );
     wCachedRowMeta.setSelection( input.isCachedRowMetaActive() );
+    wPrefetchRows.setSelection( input.isPrefetchRows() );
+    wFetchSize.setText( Const.NVL( input.getFetchSize(), "" ) );
+    wPartitionColumn.setText( Const.NVL( input.getPartitionColumn(), "" ) );
 
     setSQLToolTip();
     setFlags();
@@ -543,6 +619,9 @@ public class TableInputDialog extends BaseStepDialog implements StepDialogInterf
     meta.setVariableReplacementActive( wVariables.getSelection() );
     meta.setLazyConversionActive( wLazyConversion.getSelection() );
     meta.setCachedRowMetaActive( wCachedRowMeta.getSelection() );
+    meta.setPrefetchRows( wPrefetchRows.getSelection() );
+    meta.setFetchSize( wFetchSize.getText() );
+    meta.setPartitionColumn( wPartitionColumn.getText() );
   }
 
   private void ok() {
@@ -126,6 +126,12 @@ public class TableOutputDialog extends BaseStepDialog implements StepDialogInter
   private Button wBatch;
   private FormData fdlBatch, fdBatch;
 
+  private Label wlParallelWriters;
+  private TextVar wParallelWriters;
+
+  private Label wlOrderedCommit;
+  private Button wOrderedCommit;
+
   private Label wlUsePart;
   private Button wUsePart;
   private FormData fdlUsePart, fdUsePart;
@@ -557,20 +563,60 @@ public class TableOutputDialog extends BaseStepDialog implements StepDialogInter
       }
     } );
 
+    // Parallel writers
+    wlParallelWriters = new Label( wMainComp, SWT.RIGHT );
+    wlParallelWriters.setText( BaseMessages.getString( PKG, "TableOutputDialog.ParallelWriters.Label" ) );
+    wlParallelWriters.setToolTipText( BaseMessages.getString( PKG, "TableOutputDialog.ParallelWriters.Tooltip" ) );
+    props.setLook( wlParallelWriters );
+    FormData fdlParallelWriters = new FormData();
+    fdlParallelWriters.left = new FormAttachment( 0, 0 );
+    fdlParallelWriters.top = new FormAttachment( wBatch, margin );
+    fdlParallelWriters.right = new FormAttachment( middle, -margin );
+    wlParallelWriters.setLayoutData( fdlParallelWriters );
+    wParallelWriters = new TextVar( transMeta, wMainComp, SWT.SINGLE | SWT.LEFT | SWT.BORDER );
+    wParallelWriters.setToolTipText( BaseMessages.getString( PKG, "TableOutputDialog.ParallelWriters.Tooltip" ) );
+    props.setLook( wParallelWriters );
+    wParallelWriters.addModifyListener( lsMod );
+    FormData fdParallelWriters = new FormData();
+    fdParallelWriters.left = new FormAttachment( middle, 0 );
+    fdParallelWriters.top = new FormAttachment( wBatch, margin );
+    fdParallelWriters.right = new FormAttachment( 100, 0 );
+    wParallelWriters.setLayoutData( fdParallelWriters );
+
+    // Ordered commit
+    wlOrderedCommit = new Label( wMainComp, SWT.RIGHT );
+    wlOrderedCommit.setText( BaseMessages.getString( PKG, "TableOutputDialog.OrderedCommit.Label" ) );
+    wlOrderedCommit.setToolTipText( BaseMessages.getString( PKG, "TableOutputDialog.OrderedCommit.Tooltip" ) );
+    props.setLook( wlOrderedCommit );
+    FormData fdlOrderedCommit = new FormData();
+    fdlOrderedCommit.left = new FormAttachment( 0, 0 );
+    fdlOrderedCommit.top = new FormAttachment( wParallelWriters, margin );
+    fdlOrderedCommit.right = new FormAttachment( middle, -margin );
+    wlOrderedCommit.setLayoutData( fdlOrderedCommit );
+    wOrderedCommit = new Button( wMainComp, SWT.CHECK );
+    wOrderedCommit.setToolTipText( BaseMessages.getString( PKG, "TableOutputDialog.OrderedCommit.Tooltip" ) );
+    props.setLook( wOrderedCommit );
+    FormData fdOrderedCommit = new FormData();
+    fdOrderedCommit.left = new FormAttachment( middle, 0 );
+    fdOrderedCommit.top = new FormAttachment( wParallelWriters, margin );
+    fdOrderedCommit.right = new FormAttachment( 100, 0 );
+    wOrderedCommit.setLayoutData( fdOrderedCommit );
+    wOrderedCommit.addSelectionListener( lsSelMod );
+
     // NameInField
     wlNameInField = new Label( wMainComp, SWT.RIGHT );
     wlNameInField.setText( BaseMessages.getString( PKG, "TableOutputDialog.NameInField.Label" ) );
     props.setLook( wlNameInField );
     fdlNameInField = new FormData();
     fdlNameInField.left = new FormAttachment( 0, 0 );
-    fdlNameInField.top = new FormAttachment( wBatch, margin * 5 );
+    fdlNameInField.top = new FormAttachment( wOrderedCommit, margin * 5 );
     fdlNameInField.right = new FormAttachment( middle, -margin );
     wlNameInField.setLayoutData( fdlNameInField );
     wNameInField = new Button( wMainComp, SWT.CHECK );
     props.setLook( wNameInField );
     fdNameInField = new FormData();
     fdNameInField.left = new FormAttachment( middle, 0 );
-    fdNameInField.top = new FormAttachment( wBatch, margin * 5 );
+    fdNameInField.top = new FormAttachment( wOrderedCommit, margin * 5 );
     fdNameInField.right = new FormAttachment( 100, 0 );
     wNameInField.setLayoutData( fdNameInField );
     wNameInField.addSelectionListener( new SelectionAdapter() {
@@ -1235,6 +1281,13 @@ public class TableOutputDialog extends BaseStepDialog implements StepDialogInter
     wlBatch.setEnabled( enableBatch );
     wBatch.setEnabled( enableBatch );
 
+    // Parallel writers insert whole batches into a single table
+    boolean enableParallel = useBatch && !usePartitioning && !isTableNameInField;
+    wlParallelWriters.setEnabled( enableParallel );
+    wParallelWriters.setEnabled( enableParallel );
+    wlOrderedCommit.setEnabled( enableParallel );
+    wOrderedCommit.setEnabled( enableParallel );
+
     boolean specifyFields = wSpecifyFields.getSelection();
     wFields.setEnabled( specifyFields );
     wGetFields.setEnabled( specifyFields );
@@ -1282,6 +1335,8 @@ public class TableOutputDialog extends BaseStepDialog implements StepDialogInter
     wBatch.setSelection( input.useBatchUpdate() );
 
     wCommit.setText( input.getCommitSize() );
+    wParallelWriters.setText( Const.NVL( input.getParallelWriters(), "" ) );
+    wOrderedCommit.setSelection( input.isOrderedCommit() );
 
     wUsePart.setSelection( input.isPartitioningEnabled() );
     wPartDaily.setSelection( input.isPartitioningDaily() );
@@ -1333,6 +1388,8 @@ public class TableOutputDialog extends BaseStepDialog implements StepDialogInter
     info.setTruncateTable( wTruncate.getSelection() );
     info.setIgnoreErrors( wIgnore.getSelection() );
     info.setUseBatchUpdate( wBatch.getSelection() );
+    info.setParallelWriters( wParallelWriters.getText() );
+    info.setOrderedCommit( wOrderedCommit.getSelection() );
     info.setPartitioningEnabled( wUsePart.getSelection() );
     info.setPartitioningField( wPartField.getText() );
     info.setPartitioningDaily( wPartDaily.getSelection() );
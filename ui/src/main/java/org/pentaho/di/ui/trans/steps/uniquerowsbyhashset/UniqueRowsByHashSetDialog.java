@@ -79,6 +79,15 @@ public class UniqueRowsByHashSetDialog extends BaseStepDialog implements StepDia
   private TextVar wErrorDesc;
   private FormData fdlErrorDesc, fdErrorDesc;
 
+  private Label wlOffHeapStore;
+  private Button wOffHeapStore;
+
+  private Label wlMemoryLimit;
+  private TextVar wMemoryLimit;
+
+  private Label wlSpillDirectory;
+  private TextVar wSpillDirectory;
+
   private Group wSettings;
   private FormData fdSettings;
 
@@ -209,6 +218,64 @@ public class UniqueRowsByHashSetDialog extends BaseStepDialog implements StepDia
     fdErrorDesc.right = new FormAttachment( 100, 0 );
     wErrorDesc.setLayoutData( fdErrorDesc );
 
+    wlOffHeapStore = new Label( wSettings, SWT.RIGHT );
+    wlOffHeapStore.setText( BaseMessages.getString( PKG, "UniqueRowsByHashSetDialog.OffHeapStore.Label" ) );
+    props.setLook( wlOffHeapStore );
+    FormData fdlOffHeapStore = new FormData();
+    fdlOffHeapStore.left = new FormAttachment( 0, 0 );
+    fdlOffHeapStore.top = new FormAttachment( wErrorDesc, margin );
+    fdlOffHeapStore.right = new FormAttachment( middle, -margin );
+    wlOffHeapStore.setLayoutData( fdlOffHeapStore );
+
+    wOffHeapStore = new Button( wSettings, SWT.CHECK );
+    props.setLook( wOffHeapStore );
+    wOffHeapStore.setToolTipText( BaseMessages.getString(
+      PKG, "UniqueRowsByHashSetDialog.OffHeapStore.ToolTip", Const.CR ) );
+    FormData fdOffHeapStore = new FormData();
+    fdOffHeapStore.left = new FormAttachment( middle, 0 );
+    fdOffHeapStore.top = new FormAttachment( wErrorDesc, margin );
+    wOffHeapStore.setLayoutData( fdOffHeapStore );
+    wOffHeapStore.addSelectionListener( new SelectionAdapter() {
+      public void widgetSelected( SelectionEvent e ) {
+        input.setChanged();
+        setOffHeapStore();
+      }
+    } );
+
+    wlMemoryLimit = new Label( wSettings, SWT.RIGHT );
+    wlMemoryLimit.setText( BaseMessages.getString( PKG, "UniqueRowsByHashSetDialog.MemoryLimit.Label" ) );
+    props.setLook( wlMemoryLimit );
+    FormData fdlMemoryLimit = new FormData();
+    fdlMemoryLimit.left = new FormAttachment( 0, 0 );
+    fdlMemoryLimit.top = new FormAttachment( wOffHeapStore, margin );
+    fdlMemoryLimit.right = new FormAttachment( middle, -margin );
+    wlMemoryLimit.setLayoutData( fdlMemoryLimit );
+    wMemoryLimit = new TextVar( transMeta, wSettings, SWT.SINGLE | SWT.LEFT | SWT.BORDER );
+    props.setLook( wMemoryLimit );
+    wMemoryLimit.addModifyListener( lsMod );
+    FormData fdMemoryLimit = new FormData();
+    fdMemoryLimit.left = new FormAttachment( middle, 0 );
+    fdMemoryLimit.top = new FormAttachment( wOffHeapStore, margin );
+    fdMemoryLimit.right = new FormAttachment( 100, 0 );
+    wMemoryLimit.setLayoutData( fdMemoryLimit );
+
+    wlSpillDirectory = new Label( wSettings, SWT.RIGHT );
+    wlSpillDirectory.setText( BaseMessages.getString( PKG, "UniqueRowsByHashSetDialog.SpillDirectory.Label" ) );
+    props.setLook( wlSpillDirectory );
+    FormData fdlSpillDirectory = new FormData();
+    fdlSpillDirectory.left = new FormAttachment( 0, 0 );
+    fdlSpillDirectory.top = new FormAttachment( wMemoryLimit, margin );
+    fdlSpillDirectory.right = new FormAttachment( middle, -margin );
+    wlSpillDirectory.setLayoutData( fdlSpillDirectory );
+    wSpillDirectory = new TextVar( transMeta, wSettings, SWT.SINGLE | SWT.LEFT | SWT.BORDER );
+    props.setLook( wSpillDirectory );
+    wSpillDirectory.addModifyListener( lsMod );
+    FormData fdSpillDirectory = new FormData();
+    fdSpillDirectory.left = new FormAttachment( middle, 0 );
+    fdSpillDirectory.top = new FormAttachment( wMemoryLimit, margin );
+    fdSpillDirectory.right = new FormAttachment( 100, 0 );
+    wSpillDirectory.setLayoutData( fdSpillDirectory );
+
     fdSettings = new FormData();
     fdSettings.left = new FormAttachment( 0, margin );
     fdSettings.top = new FormAttachment( wStepname, margin );
@@ -320,6 +387,7 @@ public class UniqueRowsByHashSetDialog extends BaseStepDialog implements StepDia
 
     getData();
     setErrorDesc();
+    setOffHeapStore();
     input.setChanged( changed );
 
     shell.open();
@@ -336,6 +404,13 @@ public class UniqueRowsByHashSetDialog extends BaseStepDialog implements StepDia
     wErrorDesc.setEnabled( wRejectDuplicateRow.getSelection() );
   }
 
+  private void setOffHeapStore() {
+    wlMemoryLimit.setEnabled( wOffHeapStore.getSelection() );
+    wMemoryLimit.setEnabled( wOffHeapStore.getSelection() );
+    wlSpillDirectory.setEnabled( wOffHeapStore.getSelection() );
+    wSpillDirectory.setEnabled( wOffHeapStore.getSelection() );
+  }
+
   protected void setComboBoxes() {
     // Something was changed in the row.
     //
@@ -362,6 +437,9 @@ public class UniqueRowsByHashSetDialog extends BaseStepDialog implements StepDia
     if ( input.getErrorDescription() != null ) {
       wErrorDesc.setText( input.getErrorDescription() );
     }
+    wOffHeapStore.setSelection( input.isOffHeapStore() );
+    wMemoryLimit.setText( Const.NVL( input.getMemoryLimit(), "" ) );
+    wSpillDirectory.setText( Const.NVL( input.getSpillDirectory(), "" ) );
     for ( int i = 0; i < input.getCompareFields().length; i++ ) {
       TableItem item = wFields.table.getItem( i );
       if ( input.getCompareFields()[i] != null ) {
@@ -399,6 +477,9 @@ public class UniqueRowsByHashSetDialog extends BaseStepDialog implements StepDia
     input.setStoreValues( wStoreValues.getSelection() );
     input.setRejectDuplicateRow( wRejectDuplicateRow.getSelection() );
     input.setErrorDescription( wErrorDesc.getText() );
+    input.setOffHeapStore( wOffHeapStore.getSelection() );
+    input.setMemoryLimit( wMemoryLimit.getText() );
+    input.setSpillDirectory( wSpillDirectory.getText() );
     dispose();
   }
 